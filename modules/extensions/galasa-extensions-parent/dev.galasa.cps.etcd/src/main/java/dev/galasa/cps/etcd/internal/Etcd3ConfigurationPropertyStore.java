@@ -21,23 +21,30 @@ import javax.validation.constraints.Null;
 
 import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
 import dev.galasa.framework.spi.IConfigurationPropertyStore;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreWatcher;
 import io.etcd.jetcd.ByteSequence;
 import io.etcd.jetcd.Client;
 import io.etcd.jetcd.KV;
 import io.etcd.jetcd.KeyValue;
+import io.etcd.jetcd.kv.DeleteResponse;
 import io.etcd.jetcd.kv.GetResponse;
+import io.etcd.jetcd.kv.PutResponse;
 import io.etcd.jetcd.options.GetOption;
 import io.etcd.jetcd.options.OptionsUtil;
 
 /**
  * This class impletements the CPS for etcd using the JETCD client.
  * 
+ * Lookups are answered from an {@link Etcd3CpsCache}, which loads each
+ * namespace on first use and is kept up to date by an etcd watch.
+ * 
  * @author James Davies
  * @author Matthew Chivers
  */
 public class Etcd3ConfigurationPropertyStore implements IConfigurationPropertyStore {
     private final Client client;
     private final KV kvClient;
+    private final Etcd3CpsCache cache;
 
     /**
      * This constructor create a priate KVClient from JETCD for store interactions.
@@ -45,8 +52,13 @@ public class Etcd3ConfigurationPropertyStore implements IConfigurationPropertySt
      * @param cpsUri - location of the etcd
      */
     public Etcd3ConfigurationPropertyStore(URI cpsUri) {
-        client = Client.builder().endpoints(cpsUri).build();
-        kvClient = client.getKVClient();
+        this(Client.builder().endpoints(cpsUri).build());
+    }
+
+    public Etcd3ConfigurationPropertyStore(Client client) {
+        this.client = client;
+        this.kvClient = client.getKVClient();
+        this.cache = new Etcd3CpsCache(this.kvClient, client.getWatchClient());
     }
 
     /**
@@ -57,6 +69,11 @@ public class Etcd3ConfigurationPropertyStore implements IConfigurationPropertySt
      */
     @Override
     public @Null String getProperty(@NotNull String key) throws ConfigurationPropertyStoreException {
+        Etcd3CpsCache.Lookup lookup = cache.get(key);
+        if (lookup != Etcd3CpsCache.Lookup.NOT_CACHED) {
+            return lookup.getValue();
+        }
+
         ByteSequence bsKey = ByteSequence.from(key, UTF_8);
         CompletableFuture<GetResponse> getFuture = kvClient.get(bsKey);
         try {
@@ -78,7 +95,11 @@ public class Etcd3ConfigurationPropertyStore implements IConfigurationPropertySt
     @Override
     public @NotNull Map<String, String> getPrefixedProperties(@NotNull String prefix)
             throws ConfigurationPropertyStoreException {
-        
+        Map<String, String> cached = cache.getPrefix(prefix);
+        if (cached != null) {
+            return cached;
+        }
+
         HashMap<String, String> returnValues = new HashMap<>();
         
         ByteSequence bsKey = ByteSequence.from(prefix, UTF_8);
@@ -102,8 +123,22 @@ public class Etcd3ConfigurationPropertyStore implements IConfigurationPropertySt
         }
     }
 
+    /**
+     * Changes are reported from the watches that keep the cache current, so
+     * only namespaces that have been read are reported on, which are the only
+     * ones the framework can have resolved anything from.
+     * 
+     * @param watcher told the key of each property that changes
+     */
+    @Override
+    public boolean watch(IConfigurationPropertyStoreWatcher watcher) throws ConfigurationPropertyStoreException {
+        cache.addWatcher(watcher);
+        return true;
+    }
+
     @Override
     public void shutdown() throws ConfigurationPropertyStoreException {
+        cache.shutdown();
         kvClient.close();
         client.close();
     }
@@ -113,7 +148,8 @@ public class Etcd3ConfigurationPropertyStore implements IConfigurationPropertySt
         ByteSequence bytesKey = ByteSequence.from(key, UTF_8);
         ByteSequence bytesValue = ByteSequence.from(value, UTF_8);
         try {
-            kvClient.put(bytesKey, bytesValue).get();
+            PutResponse response = kvClient.put(bytesKey, bytesValue).get();
+            cache.written(key, value, response.getHeader().getRevision());
         } catch (InterruptedException | ExecutionException e) {
             Thread.currentThread().interrupt();
             throw new ConfigurationPropertyStoreException("Could not set key and value.", e);
@@ -124,7 +160,8 @@ public class Etcd3ConfigurationPropertyStore implements IConfigurationPropertySt
     public void deleteProperty(@NotNull String key) throws ConfigurationPropertyStoreException {
         ByteSequence bytesKey = ByteSequence.from(key, StandardCharsets.UTF_8);
         try {
-            kvClient.delete(bytesKey).get();
+            DeleteResponse response = kvClient.delete(bytesKey).get();
+            cache.written(key, null, response.getHeader().getRevision());
         } catch (InterruptedException | ExecutionException e) {
             Thread.currentThread().interrupt();
             throw new ConfigurationPropertyStoreException("Could not delete key.", e);
@@ -133,6 +170,11 @@ public class Etcd3ConfigurationPropertyStore implements IConfigurationPropertySt
 
     @Override
     public Map<String, String> getPropertiesFromNamespace(String namespace) throws ConfigurationPropertyStoreException {
+        Map<String, String> cached = cache.getPrefix(namespace + ".");
+        if (cached != null) {
+            return cached;
+        }
+
         ByteSequence bsNamespace = ByteSequence.from(namespace + ".", UTF_8);
         ByteSequence prefixEnd = OptionsUtil.prefixEndOf(ByteSequence.from(namespace + ".", UTF_8));
         GetOption option = GetOption.builder()
@@ -187,6 +229,7 @@ public class Etcd3ConfigurationPropertyStore implements IConfigurationPropertySt
         return results;
     }
 
-
-
+    public Etcd3CpsCache getCache() {
+        return cache;
+    }
 }
@@ -0,0 +1,345 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.cps.etcd.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreWatcher;
+import io.etcd.jetcd.ByteSequence;
+import io.etcd.jetcd.KV;
+import io.etcd.jetcd.KeyValue;
+import io.etcd.jetcd.Watch;
+import io.etcd.jetcd.Watch.Listener;
+import io.etcd.jetcd.Watch.Watcher;
+import io.etcd.jetcd.kv.GetResponse;
+import io.etcd.jetcd.options.GetOption;
+import io.etcd.jetcd.options.WatchOption;
+import io.etcd.jetcd.watch.WatchEvent;
+import io.etcd.jetcd.watch.WatchResponse;
+
+/**
+ * A cache of the CPS properties held in etcd, loaded a namespace at a time.
+ *
+ * The first lookup in a namespace reads the whole namespace in one range
+ * request, and starts a prefix watch from the revision that was read, so every
+ * later put and delete, from this process or any other, reaches the cache in
+ * order. A key missing from a loaded namespace is known not to exist, so the
+ * misses the framework makes while trying each infix variant of a property are
+ * answered without a round trip.
+ *
+ * Each cached value remembers the etcd revision that set it, so a write-through
+ * from this process never overwrites a newer change that the watch has already
+ * delivered, and deletes are held as tombstones for the same reason.
+ *
+ * If the watch fails or is cancelled the namespace is dropped and read again
+ * the next time it is used.
+ *
+ * Every change the watches deliver is passed on to the watchers of the store,
+ * and a dropped namespace is reported as a change to the whole namespace, as
+ * changes may be missed until it is read again.
+ */
+public class Etcd3CpsCache {
+
+    private final Log                                      logger       = LogFactory.getLog(getClass());
+
+    private final KV                                       kvClient;
+    private final Watch                                    watchClient;
+    private final ConcurrentHashMap<String, CachedNamespace> namespaces = new ConcurrentHashMap<>();
+    private final List<IConfigurationPropertyStoreWatcher> watchers   = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong                               hits         = new AtomicLong();
+    private final AtomicLong                               negativeHits = new AtomicLong();
+    private final AtomicLong                               misses       = new AtomicLong();
+    private final AtomicLong                               loads        = new AtomicLong();
+
+    private static class CachedValue {
+        private final String value;
+        private final long   revision;
+
+        private CachedValue(String value, long revision) {
+            this.value = value;
+            this.revision = revision;
+        }
+    }
+
+    private class CachedNamespace implements Listener {
+        private final String                                   prefix;
+        private final ConcurrentHashMap<String, CachedValue>   values = new ConcurrentHashMap<>();
+        private volatile boolean                               loaded;
+        private volatile Watcher                               watcher;
+
+        private CachedNamespace(String namespace) {
+            this.prefix = namespace + ".";
+        }
+
+        private synchronized void ensureLoaded() throws InterruptedException, ExecutionException {
+            if (this.loaded) {
+                return;
+            }
+
+            ByteSequence bsPrefix = ByteSequence.from(this.prefix, UTF_8);
+            GetResponse response = kvClient.get(bsPrefix, GetOption.builder().isPrefix(true).build()).get();
+            for (KeyValue kv : response.getKvs()) {
+                apply(fullKey(kv), kv.getValue().toString(UTF_8), kv.getModRevision());
+            }
+
+            // *** Watch from the revision after the one that was read, so nothing is missed in between
+            WatchOption option = WatchOption.builder()
+                .isPrefix(true)
+                .withRevision(response.getHeader().getRevision() + 1)
+                .build();
+            this.watcher = watchClient.watch(bsPrefix, option, this);
+
+            loads.incrementAndGet();
+            this.loaded = true;
+        }
+
+        private void apply(String key, String value, long revision) {
+            this.values.compute(key, (k, current) -> {
+                if (current != null && current.revision > revision) {
+                    return current;
+                }
+                return new CachedValue(value, revision);
+            });
+        }
+
+        private String fullKey(KeyValue kv) {
+            // *** jetcd can strip the requested prefix from the returned keys
+            String key = kv.getKey().toString(UTF_8);
+            return key.startsWith(this.prefix) ? key : this.prefix + key;
+        }
+
+        @Override
+        public void onNext(WatchResponse response) {
+            if (response == null || response.getEvents() == null) {
+                return;
+            }
+
+            for (WatchEvent event : response.getEvents()) {
+                KeyValue kv = event.getKeyValue();
+                if (kv == null || event.getEventType() == null) {
+                    continue;
+                }
+
+                String key = fullKey(kv);
+                switch (event.getEventType()) {
+                    case PUT:
+                        apply(key, kv.getValue().toString(UTF_8), kv.getModRevision());
+                        notifyWatchers(key);
+                        break;
+                    case DELETE:
+                        apply(key, null, kv.getModRevision());
+                        notifyWatchers(key);
+                        break;
+                    case UNRECOGNIZED:
+                    default:
+                        break;
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            logger.warn("Watch of CPS namespace " + this.prefix + " failed, it will be reloaded on next use", throwable);
+            drop(this);
+        }
+
+        @Override
+        public void onCompleted() {
+            drop(this);
+        }
+
+        private void close() {
+            Watcher current = this.watcher;
+            if (current != null) {
+                current.close();
+            }
+        }
+    }
+
+    public Etcd3CpsCache(KV kvClient, Watch watchClient) {
+        this.kvClient = kvClient;
+        this.watchClient = watchClient;
+    }
+
+    /**
+     * Look up a property from its namespace in the cache, loading the namespace
+     * if this is its first use
+     *
+     * @param key the full property key, namespace first
+     * @return the result of the lookup, {@link Lookup#NOT_CACHED} if the key has
+     *         no namespace and must be read from etcd
+     */
+    public Lookup get(String key) throws ConfigurationPropertyStoreException {
+        CachedNamespace namespace = getNamespace(key);
+        if (namespace == null) {
+            this.misses.incrementAndGet();
+            return Lookup.NOT_CACHED;
+        }
+
+        CachedValue cached = namespace.values.get(key);
+        if (cached == null || cached.value == null) {
+            this.negativeHits.incrementAndGet();
+            return Lookup.ABSENT;
+        }
+
+        this.hits.incrementAndGet();
+        return new Lookup(cached.value);
+    }
+
+    /**
+     * @return all the properties with the prefix, or null if the prefix has no
+     *         namespace and must be read from etcd
+     */
+    public Map<String, String> getPrefix(String prefix) throws ConfigurationPropertyStoreException {
+        CachedNamespace namespace = getNamespace(prefix);
+        if (namespace == null) {
+            this.misses.incrementAndGet();
+            return null;
+        }
+
+        this.hits.incrementAndGet();
+        HashMap<String, String> found = new HashMap<>();
+        for (Map.Entry<String, CachedValue> entry : namespace.values.entrySet()) {
+            if (entry.getValue().value != null && entry.getKey().startsWith(prefix)) {
+                found.put(entry.getKey(), entry.getValue().value);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Record a change made through this store, if its namespace is cached
+     *
+     * @param key      the property
+     * @param value    the new value, null if the property was deleted
+     * @param revision the etcd revision of the change
+     */
+    public void written(String key, String value, long revision) {
+        String namespaceName = namespaceOf(key);
+        if (namespaceName == null) {
+            return;
+        }
+
+        CachedNamespace namespace = this.namespaces.get(namespaceName);
+        if (namespace != null && namespace.loaded) {
+            namespace.apply(key, value, revision);
+        }
+    }
+
+    /**
+     * Report every change to the cached namespaces to a watcher
+     *
+     * @param watcher told the key of each property that changes, or the
+     *                namespace followed by a dot if a namespace is dropped
+     */
+    public void addWatcher(IConfigurationPropertyStoreWatcher watcher) {
+        this.watchers.add(watcher);
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getNegativeHits() {
+        return this.negativeHits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    public long getNamespaceLoads() {
+        return this.loads.get();
+    }
+
+    /**
+     * Stop watching all the namespaces and log how useful the cache was
+     */
+    public void shutdown() {
+        for (CachedNamespace namespace : this.namespaces.values()) {
+            namespace.close();
+        }
+        this.namespaces.clear();
+        this.watchers.clear();
+
+        logger.debug("etcd CPS cache: hits=" + getHits() + " negativeHits=" + getNegativeHits() + " misses="
+                + getMisses() + " namespaceLoads=" + getNamespaceLoads());
+    }
+
+    private CachedNamespace getNamespace(String key) throws ConfigurationPropertyStoreException {
+        String namespaceName = namespaceOf(key);
+        if (namespaceName == null) {
+            return null;
+        }
+
+        CachedNamespace namespace = this.namespaces.computeIfAbsent(namespaceName, CachedNamespace::new);
+        try {
+            namespace.ensureLoaded();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConfigurationPropertyStoreException("Could not load CPS namespace " + namespaceName + ", interrupted", e);
+        } catch (ExecutionException e) {
+            throw new ConfigurationPropertyStoreException("Could not load CPS namespace " + namespaceName, e);
+        }
+        return namespace;
+    }
+
+    private void drop(CachedNamespace namespace) {
+        if (this.namespaces.remove(namespace.prefix.substring(0, namespace.prefix.length() - 1), namespace)) {
+            notifyWatchers(namespace.prefix);
+        }
+        namespace.close();
+    }
+
+    private void notifyWatchers(String key) {
+        for (IConfigurationPropertyStoreWatcher watcher : this.watchers) {
+            try {
+                watcher.propertyModified(key);
+            } catch (Exception e) {
+                logger.warn("Watcher of CPS property " + key + " failed", e);
+            }
+        }
+    }
+
+    private static String namespaceOf(String key) {
+        int dot = key.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        return key.substring(0, dot);
+    }
+
+    /**
+     * The result of looking up a property in the cache
+     */
+    public static class Lookup {
+        public static final Lookup NOT_CACHED = new Lookup(null);
+        public static final Lookup ABSENT     = new Lookup(null);
+
+        private final String value;
+
+        private Lookup(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return this.value;
+        }
+    }
+}
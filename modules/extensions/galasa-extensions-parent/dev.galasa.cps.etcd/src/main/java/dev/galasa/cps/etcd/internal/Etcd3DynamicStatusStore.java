@@ -212,6 +212,53 @@ public class Etcd3DynamicStatusStore implements IDynamicStatusStore {
         }
     }
 
+    /**
+     * A put swap method does a check before setting the key-value, which expires
+     * after a given time.
+     * 
+     * If the oldValue argument is not the current value of the key the newValue is
+     * NOT set into the store.
+     * 
+     * @param key The key whose value will be swapped.
+     * @param oldValue - the value the key should have for the change to succeeed
+     * @param newValue - the new value to set too if the old value was correct
+     * @param timeToLiveSecs - the amount of time in seconds for the key-value pair to be available for before expiring
+     * @return boolean - if the swap was successful
+     * @throws DynamicStatusStoreException A failure occurred.
+     */
+    @Override
+    public boolean putSwap(@NotNull String key, String oldValue, @NotNull String newValue, @NotNull long timeToLiveSecs)
+            throws DynamicStatusStoreException {
+        ByteSequence bsKey = ByteSequence.from(key, UTF_8);
+        ByteSequence bsNewValue = ByteSequence.from(newValue, UTF_8);
+
+        Cmp cmp = null;
+        if (oldValue == null) {
+            cmp = new Cmp(bsKey, Cmp.Op.EQUAL, CmpTarget.version(0));
+        } else {
+            ByteSequence bsOldValue = ByteSequence.from(oldValue, UTF_8);
+            cmp = new Cmp(bsKey, Cmp.Op.EQUAL, CmpTarget.value(bsOldValue));
+        }
+
+        try {
+            LeaseGrantResponse lease = leaseClient.grant(timeToLiveSecs).get();
+            PutOption option = PutOption.builder()
+                .withLeaseId(lease.getID())
+                .build();
+
+            Txn request = kvClient.txn().If(cmp).Then(Op.put(bsKey, bsNewValue, option));
+            boolean swapped = request.commit().get().isSucceeded();
+            if (!swapped) {
+                // *** Nothing is attached to the lease, so do not leave it to expire
+                leaseClient.revoke(lease.getID());
+            }
+            return swapped;
+        } catch (InterruptedException | ExecutionException e) {
+            Thread.currentThread().interrupt();
+            throw new DynamicStatusStoreException("Put Swap with time-to-live failed", e);
+        }
+    }
+
     /**
      * A put swap method does a check before setting the key-value.
      * 
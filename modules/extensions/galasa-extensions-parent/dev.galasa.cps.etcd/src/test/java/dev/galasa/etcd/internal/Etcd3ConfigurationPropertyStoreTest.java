@@ -0,0 +1,169 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.etcd.internal;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import dev.galasa.cps.etcd.internal.Etcd3ConfigurationPropertyStore;
+import dev.galasa.etcd.internal.mocks.MockEtcdClient;
+import dev.galasa.etcd.internal.mocks.MockEtcdKvClient;
+import dev.galasa.etcd.internal.mocks.MockEtcdWatchClient;
+
+public class Etcd3ConfigurationPropertyStoreTest {
+
+    @Test
+    public void testLookupsInANamespaceAreServedFromOneRead() throws Exception {
+        // Given...
+        Map<String, String> mockProps = new HashMap<>();
+        mockProps.put("zos.image.MV2A.ipv4.hostname", "mv2a.example.com");
+        mockProps.put("zos.image.MV2A.sysname", "MV2A");
+        mockProps.put("cics.region.A.applid", "APPLA");
+
+        MockEtcdClient mockClient = new MockEtcdClient(mockProps);
+        MockEtcdKvClient mockKvClient = (MockEtcdKvClient) mockClient.getKVClient();
+        Etcd3ConfigurationPropertyStore store = new Etcd3ConfigurationPropertyStore(mockClient);
+
+        // When...
+        String hostname = store.getProperty("zos.image.MV2A.ipv4.hostname");
+        String sysname = store.getProperty("zos.image.MV2A.sysname");
+        String missing = store.getProperty("zos.image.MV2A.missing");
+        String missingInfix = store.getProperty("zos.image.infix.MV2A.sysname");
+
+        // Then...
+        assertThat(hostname).isEqualTo("mv2a.example.com");
+        assertThat(sysname).isEqualTo("MV2A");
+        assertThat(missing).isNull();
+        assertThat(missingInfix).isNull();
+        assertThat(mockKvClient.getGetCount()).isEqualTo(1);
+        assertThat(store.getCache().getNamespaceLoads()).isEqualTo(1);
+        assertThat(store.getCache().getHits()).isEqualTo(2);
+        assertThat(store.getCache().getNegativeHits()).isEqualTo(2);
+    }
+
+    @Test
+    public void testWatchEventsKeepTheCacheCurrent() throws Exception {
+        // Given...
+        Map<String, String> mockProps = new HashMap<>();
+        mockProps.put("zos.image.MV2A.sysname", "MV2A");
+
+        MockEtcdClient mockClient = new MockEtcdClient(mockProps);
+        MockEtcdWatchClient mockWatchClient = (MockEtcdWatchClient) mockClient.getWatchClient();
+        Etcd3ConfigurationPropertyStore store = new Etcd3ConfigurationPropertyStore(mockClient);
+        assertThat(store.getProperty("zos.image.MV2A.sysname")).isEqualTo("MV2A");
+
+        // When...
+        mockWatchClient.sendEvent("zos.image.MV2A.sysname", "MV2B", 10);
+        mockWatchClient.sendEvent("zos.image.MV2A.added", "new", 11);
+
+        // Then...
+        assertThat(store.getProperty("zos.image.MV2A.sysname")).isEqualTo("MV2B");
+        assertThat(store.getProperty("zos.image.MV2A.added")).isEqualTo("new");
+
+        // When...
+        mockWatchClient.sendEvent("zos.image.MV2A.added", null, 12);
+        // *** An older event must not undo a newer one
+        mockWatchClient.sendEvent("zos.image.MV2A.sysname", "MV2Z", 9);
+
+        // Then...
+        assertThat(store.getProperty("zos.image.MV2A.added")).isNull();
+        assertThat(store.getProperty("zos.image.MV2A.sysname")).isEqualTo("MV2B");
+        assertThat(store.getPrefixedProperties("zos.image.")).containsOnly(entry("zos.image.MV2A.sysname", "MV2B"));
+    }
+
+    @Test
+    public void testWritesAreVisibleImmediately() throws Exception {
+        // Given...
+        Map<String, String> mockProps = new HashMap<>();
+        mockProps.put("framework.resultarchive.store", "file:///ras");
+
+        MockEtcdClient mockClient = new MockEtcdClient(mockProps);
+        Etcd3ConfigurationPropertyStore store = new Etcd3ConfigurationPropertyStore(mockClient);
+        assertThat(store.getPropertiesFromNamespace("framework")).hasSize(1);
+
+        // When...
+        store.setProperty("framework.test.property", "value1");
+        store.deleteProperty("framework.resultarchive.store");
+
+        // Then...
+        assertThat(store.getProperty("framework.test.property")).isEqualTo("value1");
+        assertThat(store.getProperty("framework.resultarchive.store")).isNull();
+        assertThat(store.getPropertiesFromNamespace("framework")).containsOnly(entry("framework.test.property", "value1"));
+        assertThat(mockProps).containsOnly(entry("framework.test.property", "value1"));
+    }
+
+    @Test
+    public void testAFailedWatchReloadsTheNamespace() throws Exception {
+        // Given...
+        Map<String, String> mockProps = new HashMap<>();
+        mockProps.put("zos.image.MV2A.sysname", "MV2A");
+
+        MockEtcdClient mockClient = new MockEtcdClient(mockProps);
+        MockEtcdKvClient mockKvClient = (MockEtcdKvClient) mockClient.getKVClient();
+        MockEtcdWatchClient mockWatchClient = (MockEtcdWatchClient) mockClient.getWatchClient();
+        Etcd3ConfigurationPropertyStore store = new Etcd3ConfigurationPropertyStore(mockClient);
+        assertThat(store.getProperty("zos.image.MV2A.sysname")).isEqualTo("MV2A");
+
+        // When...
+        mockWatchClient.getWatchers().get(0).getListener().onError(new RuntimeException("connection lost"));
+        mockProps.put("zos.image.MV2A.sysname", "MV2C");
+
+        // Then...
+        assertThat(mockWatchClient.getWatchers().get(0).isClosed()).isTrue();
+        assertThat(store.getProperty("zos.image.MV2A.sysname")).isEqualTo("MV2C");
+        assertThat(mockKvClient.getGetCount()).isEqualTo(2);
+        assertThat(mockWatchClient.getWatchers()).hasSize(2);
+
+        store.shutdown();
+        assertThat(mockWatchClient.getWatchers().get(1).isClosed()).isTrue();
+    }
+
+    @Test
+    public void testKeysWithoutANamespaceAreReadFromEtcd() throws Exception {
+        // Given...
+        Map<String, String> mockProps = new HashMap<>();
+        mockProps.put("nonamespace", "value");
+
+        MockEtcdClient mockClient = new MockEtcdClient(mockProps);
+        Etcd3ConfigurationPropertyStore store = new Etcd3ConfigurationPropertyStore(mockClient);
+
+        // When...
+        String value = store.getProperty("nonamespace");
+
+        // Then...
+        assertThat(value).isEqualTo("value");
+        assertThat(store.getCache().getMisses()).isEqualTo(1);
+        assertThat(store.getCache().getNamespaceLoads()).isZero();
+    }
+
+    @Test
+    public void testWatchersAreToldOfChangesAndDroppedNamespaces() throws Exception {
+        // Given...
+        Map<String, String> mockProps = new HashMap<>();
+        mockProps.put("zos.image.MV2A.sysname", "MV2A");
+
+        MockEtcdClient mockClient = new MockEtcdClient(mockProps);
+        MockEtcdWatchClient mockWatchClient = (MockEtcdWatchClient) mockClient.getWatchClient();
+        Etcd3ConfigurationPropertyStore store = new Etcd3ConfigurationPropertyStore(mockClient);
+        List<String> changed = new ArrayList<>();
+        assertThat(store.watch(changed::add)).isTrue();
+        store.getProperty("zos.image.MV2A.sysname");
+
+        // When...
+        mockWatchClient.sendEvent("zos.image.MV2A.sysname", "MV2B", 10);
+        mockWatchClient.sendEvent("zos.image.MV2A.added", null, 11);
+        mockWatchClient.getWatchers().get(0).getListener().onError(new RuntimeException("connection lost"));
+
+        // Then...
+        assertThat(changed).containsExactly("zos.image.MV2A.sysname", "zos.image.MV2A.added", "zos.");
+    }
+}
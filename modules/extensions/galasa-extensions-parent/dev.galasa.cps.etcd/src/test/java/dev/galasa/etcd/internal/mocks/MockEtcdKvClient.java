@@ -20,9 +20,11 @@ import com.google.protobuf.ByteString;
 import io.etcd.jetcd.ByteSequence;
 import io.etcd.jetcd.KV;
 import io.etcd.jetcd.Txn;
+import io.etcd.jetcd.api.DeleteRangeResponse;
 import io.etcd.jetcd.api.KeyValue;
 import io.etcd.jetcd.api.KeyValue.Builder;
 import io.etcd.jetcd.api.RangeResponse;
+import io.etcd.jetcd.api.ResponseHeader;
 import io.etcd.jetcd.kv.CompactResponse;
 import io.etcd.jetcd.kv.DeleteResponse;
 import io.etcd.jetcd.kv.GetResponse;
@@ -36,20 +38,26 @@ public class MockEtcdKvClient implements KV {
 
     Map<String, String> kvContents = new HashMap<>();
 
+    // Every change moves the store on a revision, as etcd does
+    private long revision = 1;
+    private int getCount;
+
     public MockEtcdKvClient(Map<String, String> kvContents) {
         this.kvContents = kvContents;
     }
 
     @Override
     public CompletableFuture<GetResponse> get(ByteSequence key) {
+        getCount++;
         String keyStr = key.toString();
         String value = kvContents.get(keyStr);
 
         RangeResponse rangeResponse;
         if (value == null) {
-            rangeResponse = RangeResponse.newBuilder().build();
+            rangeResponse = RangeResponse.newBuilder().setHeader(createHeader()).build();
         } else {
             rangeResponse = RangeResponse.newBuilder()
+                .setHeader(createHeader())
                 .addKvs(createKeyValue(keyStr, value))
                 .build();
         }
@@ -59,6 +67,7 @@ public class MockEtcdKvClient implements KV {
 
     @Override
     public CompletableFuture<GetResponse> get(ByteSequence key, GetOption options) {
+        getCount++;
         CompletableFuture<GetResponse> response = null;
         String keyStr = key.toString();
         if (options.isPrefix()) {
@@ -69,14 +78,14 @@ public class MockEtcdKvClient implements KV {
             
             RangeResponse rangeResponse;
             if (matchingKeyValues.isEmpty()) {
-                rangeResponse = RangeResponse.newBuilder().build();
+                rangeResponse = RangeResponse.newBuilder().setHeader(createHeader()).build();
             } else {
                 List<KeyValue> keyValues = new ArrayList<>();
                 for (Entry<String, String> matchingEntry : matchingKeyValues.entrySet()) {
                     KeyValue kv = createKeyValue(matchingEntry.getKey(), matchingEntry.getValue());
                     keyValues.add(kv);
                 }
-                rangeResponse = RangeResponse.newBuilder().addAllKvs(keyValues).build();
+                rangeResponse = RangeResponse.newBuilder().setHeader(createHeader()).addAllKvs(keyValues).build();
 
             }
             GetResponse mockResponse = new GetResponse(rangeResponse, key);
@@ -90,8 +99,11 @@ public class MockEtcdKvClient implements KV {
         String keyStr = key.toString();
         String valueStr = value.toString();
         kvContents.put(keyStr, valueStr);
+        revision++;
 
-        return CompletableFuture.completedFuture(null);
+        PutResponse response = new PutResponse(
+            io.etcd.jetcd.api.PutResponse.newBuilder().setHeader(createHeader()).build(), null);
+        return CompletableFuture.completedFuture(response);
     }
 
     @Override
@@ -118,12 +130,16 @@ public class MockEtcdKvClient implements KV {
         } else {
             kvContents.remove(keyStr);
         }
-        return CompletableFuture.completedFuture(null);
+        revision++;
+
+        DeleteResponse response = new DeleteResponse(
+            DeleteRangeResponse.newBuilder().setHeader(createHeader()).build(), null);
+        return CompletableFuture.completedFuture(response);
     }
 
     private KeyValue createKeyValue(String key, String value) {
         ByteString keyByteStr = ByteString.copyFromUtf8(key);
-        Builder builder = KeyValue.newBuilder().setKey(keyByteStr);
+        Builder builder = KeyValue.newBuilder().setKey(keyByteStr).setModRevision(revision);
         ByteString valueByteStr = ByteString.copyFromUtf8(value);
         builder = builder.setValue(valueByteStr);
         return builder.build();
@@ -141,7 +157,19 @@ public class MockEtcdKvClient implements KV {
 
     @Override
     public CompletableFuture<DeleteResponse> delete(ByteSequence key) {
-        throw new UnsupportedOperationException("Unimplemented method 'delete'");
+        return delete(key, DeleteOption.DEFAULT);
+    }
+
+    private ResponseHeader createHeader() {
+        return ResponseHeader.newBuilder().setRevision(revision).build();
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public int getGetCount() {
+        return getCount;
     }
 
     @Override
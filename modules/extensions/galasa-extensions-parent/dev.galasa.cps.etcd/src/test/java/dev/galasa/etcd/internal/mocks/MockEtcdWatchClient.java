@@ -5,19 +5,97 @@
  */
 package dev.galasa.etcd.internal.mocks;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.protobuf.ByteString;
+
 import io.etcd.jetcd.ByteSequence;
 import io.etcd.jetcd.Watch;
+import io.etcd.jetcd.api.Event;
+import io.etcd.jetcd.api.KeyValue;
 import io.etcd.jetcd.options.WatchOption;
+import io.etcd.jetcd.watch.WatchResponse;
 
 public class MockEtcdWatchClient implements Watch {
 
+    private final List<MockWatcher> watchers = new ArrayList<>();
+
+    public class MockWatcher implements Watcher {
+        private final String   key;
+        private final Listener listener;
+        private boolean        closed;
+
+        MockWatcher(String key, Listener listener) {
+            this.key = key;
+            this.listener = listener;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Listener getListener() {
+            return listener;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public void requestProgress() {
+            throw new UnsupportedOperationException("Unimplemented method 'requestProgress'");
+        }
+    }
+
     @Override
     public Watcher watch(ByteSequence key, WatchOption option, Listener listener) {
-        throw new UnsupportedOperationException("Unimplemented method 'watch'");
+        MockWatcher watcher = new MockWatcher(key.toString(), listener);
+        watchers.add(watcher);
+        return watcher;
     }
 
     @Override
     public void requestProgress() {
         throw new UnsupportedOperationException("Unimplemented method 'requestProgress'");
     }
+
+    public List<MockWatcher> getWatchers() {
+        return watchers;
+    }
+
+    /**
+     * Send a change to the open watchers whose key is a prefix of the changed key
+     *
+     * @param key      the changed key
+     * @param value    the new value, null for a delete
+     * @param revision the revision of the change
+     */
+    public void sendEvent(String key, String value, long revision) {
+        KeyValue.Builder kv = KeyValue.newBuilder()
+            .setKey(ByteString.copyFromUtf8(key))
+            .setModRevision(revision);
+        if (value != null) {
+            kv.setValue(ByteString.copyFromUtf8(value));
+        }
+
+        Event event = Event.newBuilder()
+            .setType(value == null ? Event.EventType.DELETE : Event.EventType.PUT)
+            .setKv(kv)
+            .build();
+        WatchResponse response = new WatchResponse(io.etcd.jetcd.api.WatchResponse.newBuilder().addEvents(event).build());
+
+        for (MockWatcher watcher : new ArrayList<>(watchers)) {
+            if (!watcher.isClosed() && key.startsWith(watcher.getKey())) {
+                watcher.getListener().onNext(response);
+            }
+        }
+    }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package dev.galasa.events.kafka.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+
+import dev.galasa.framework.spi.IEventProducer;
+import dev.galasa.framework.spi.events.IEvent;
+
+/**
+ * An event producer that does not send each event in its own transaction.
+ *
+ * Events are put into a bounded buffer and returned from straight away. A
+ * sender thread takes them from the buffer and sends them asynchronously, so
+ * the Kafka producer can batch them up (see linger.ms and batch.size). When
+ * the buffer is full, an event either waits for space or is dropped, depending
+ * on the policy. Closing the producer sends everything still in the buffer.
+ */
+public class BatchingKafkaEventProducer implements IEventProducer {
+
+    public enum BufferFullPolicy {
+        BLOCK,
+        DROP
+    }
+
+    // The most events taken from the buffer by the sender thread in one go
+    private static final int MAX_DRAIN = 500;
+
+    private static final long POLL_MILLIS = 100;
+
+    private final Log logger = LogFactory.getLog(getClass());
+
+    private final Producer<String, String> producer;
+    private final String topic;
+    private final BufferFullPolicy bufferFullPolicy;
+    private final BlockingQueue<String> buffer;
+    private final Thread senderThread;
+
+    private volatile boolean closed;
+
+    private final AtomicLong sent    = new AtomicLong();
+    private final AtomicLong failed  = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public BatchingKafkaEventProducer(Producer<String, String> producer, String topic, int bufferCapacity, BufferFullPolicy bufferFullPolicy) {
+        this.producer = producer;
+        this.topic = topic;
+        this.bufferFullPolicy = bufferFullPolicy;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+
+        this.senderThread = new Thread(this::sendBufferedEvents, "kafka-events-" + topic);
+        this.senderThread.setDaemon(true);
+        this.senderThread.start();
+    }
+
+    @Override
+    public void sendEvent(IEvent event) {
+        if (this.closed) {
+            drop("the producer is closed");
+            return;
+        }
+
+        String value = event.toString();
+        if (this.bufferFullPolicy == BufferFullPolicy.DROP) {
+            if (!this.buffer.offer(value)) {
+                drop("the buffer is full");
+            }
+            return;
+        }
+
+        try {
+            this.buffer.put(value);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drop("the thread was interrupted while waiting for space in the buffer");
+        }
+    }
+
+    private void drop(String reason) {
+        long count = this.dropped.incrementAndGet();
+        // Report the first drop and then every thousandth, rather than flooding the log
+        if (count == 1 || count % 1000 == 0) {
+            logger.warn("Dropped an event for topic " + this.topic + " as " + reason + ", " + count + " dropped so far");
+        }
+    }
+
+    private void sendBufferedEvents() {
+        List<String> values = new ArrayList<>(MAX_DRAIN);
+        try {
+            while (!this.closed || !this.buffer.isEmpty()) {
+                String first = this.buffer.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                values.add(first);
+                this.buffer.drainTo(values, MAX_DRAIN - 1);
+                for (String value : values) {
+                    send(value);
+                }
+                values.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(String value) {
+        try {
+            this.producer.send(new ProducerRecord<>(this.topic, value), (metadata, exception) -> {
+                if (exception == null) {
+                    this.sent.incrementAndGet();
+                } else {
+                    failed(exception);
+                }
+            });
+        } catch (Exception e) {
+            failed(e);
+        }
+    }
+
+    private void failed(Exception exception) {
+        long count = this.failed.incrementAndGet();
+        if (count == 1 || count % 1000 == 0) {
+            logger.warn("Failed to send an event for topic " + this.topic + ", " + count + " failed so far", exception);
+        }
+    }
+
+    /**
+     * Send everything in the buffer, wait for the Kafka producer to deliver
+     * it, and then close the Kafka producer
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        try {
+            this.senderThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Send any events put into the buffer as the sender thread was finishing
+        List<String> values = new ArrayList<>();
+        this.buffer.drainTo(values);
+        for (String value : values) {
+            send(value);
+        }
+
+        this.producer.flush();
+        this.producer.close();
+
+        logger.info("Closed the producer for topic " + this.topic + ", " + this.sent.get() + " events sent, "
+                + this.failed.get() + " failed, " + this.dropped.get() + " dropped");
+    }
+
+    public long getSent() {
+        return this.sent.get();
+    }
+
+    public long getFailed() {
+        return this.failed.get();
+    }
+
+    public long getDropped() {
+        return this.dropped.get();
+    }
+
+}
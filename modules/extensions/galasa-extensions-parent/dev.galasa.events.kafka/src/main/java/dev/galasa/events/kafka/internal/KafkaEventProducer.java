@@ -9,6 +9,7 @@ package dev.galasa.events.kafka.internal;
 import java.util.Properties;
 
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 
 import dev.galasa.framework.spi.IEventProducer;
@@ -16,12 +17,14 @@ import dev.galasa.framework.spi.events.IEvent;
 
 public class KafkaEventProducer implements IEventProducer {
 
-    private final KafkaProducer<String, String> producer;
+    private final Producer<String, String> producer;
     private final String topic;
 
     public KafkaEventProducer(Properties properties, String topic) {
+        this(new KafkaProducer<String, String>(properties), topic);
+    }
 
-        KafkaProducer<String, String> producer = new KafkaProducer<String, String>(properties);
+    public KafkaEventProducer(Producer<String, String> producer, String topic) {
         producer.initTransactions();
         this.producer = producer;
 
@@ -5,26 +5,58 @@
  */
 package dev.galasa.events.kafka.internal;
 
+import java.util.Locale;
 import java.util.Properties;
 
+import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.common.security.plain.PlainLoginModule;
 import org.apache.kafka.common.serialization.StringSerializer;
 
+import dev.galasa.events.kafka.internal.BatchingKafkaEventProducer.BufferFullPolicy;
 import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
 import dev.galasa.framework.spi.EventsException;
 import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
+import dev.galasa.framework.spi.IEventProducer;
 
 public class KafkaEventProducerFactory implements IEventProducerFactory {
 
+    // Each event is sent in its own transaction, so it has been delivered when sendEvent returns
+    public static final String MODE_TRANSACTIONAL = "transactional";
+    // Events are buffered and sent asynchronously in batches, without transactions
+    public static final String MODE_BATCHED       = "batched";
+
+    // Properties used to choose the producer, which are not passed on to Kafka
+    public static final String PRODUCER_MODE_PROPERTY = "galasa.producer.mode";
+    public static final String BUFFER_EVENTS_PROPERTY = "galasa.buffer.events";
+    public static final String BUFFER_FULL_PROPERTY   = "galasa.buffer.full";
+
+    private static final int DEFAULT_LINGER_MILLIS  = 20;
+    private static final int DEFAULT_BATCH_BYTES    = 64 * 1024;
+    private static final int DEFAULT_BUFFER_EVENTS  = 10000;
+
     private final String AUTH_TOKEN;
     private String runName;
 
     public KafkaEventProducerFactory(String authToken, String runName) {
         this.AUTH_TOKEN = authToken;
+        this.runName = runName;
     }
 
-    public KafkaEventProducer createProducer(Properties properties, String topic) throws EventsException {
-        KafkaEventProducer eventProducer = new KafkaEventProducer(properties, topic);
+    public IEventProducer createProducer(Properties properties, String topic) throws EventsException {
+        Properties kafkaProperties = new Properties();
+        kafkaProperties.putAll(properties);
+        kafkaProperties.remove(PRODUCER_MODE_PROPERTY);
+        kafkaProperties.remove(BUFFER_EVENTS_PROPERTY);
+        kafkaProperties.remove(BUFFER_FULL_PROPERTY);
+
+        IEventProducer eventProducer;
+        if (MODE_BATCHED.equals(properties.getProperty(PRODUCER_MODE_PROPERTY))) {
+            int bufferEvents = Integer.parseInt(properties.getProperty(BUFFER_EVENTS_PROPERTY));
+            BufferFullPolicy bufferFullPolicy = BufferFullPolicy.valueOf(properties.getProperty(BUFFER_FULL_PROPERTY));
+            eventProducer = new BatchingKafkaEventProducer(new KafkaProducer<String, String>(kafkaProperties), topic, bufferEvents, bufferFullPolicy);
+        } else {
+            eventProducer = new KafkaEventProducer(kafkaProperties, topic);
+        }
         return eventProducer;
     }
 
@@ -49,13 +81,78 @@ public class KafkaEventProducerFactory implements IEventProducerFactory {
             properties.put("ssl.protocol", "TLSv1.2");
             properties.put("ssl.enabled.protocols", "TLSv1.2");
             properties.put("ssl.endpoint.identification.algorithm", "HTTPS");
-            properties.put("transactional.id", transactionalId);
+
+            String mode = getProducerMode(cps);
+            properties.put(PRODUCER_MODE_PROPERTY, mode);
+            if (MODE_BATCHED.equals(mode)) {
+                addBatchedProperties(cps, properties);
+            } else {
+                properties.put("transactional.id", transactionalId);
+            }
 
         } catch (ConfigurationPropertyStoreException e) {
             throw new KafkaException("Unable to retrieve Kafka properties from the CPS", e);
         }
 
         return properties;
-    }   
-    
+    }
+
+    private String getProducerMode(IConfigurationPropertyStoreService cps) throws ConfigurationPropertyStoreException, KafkaException {
+        String mode = cps.getProperty("producer", "mode");
+        if (mode == null || mode.trim().isEmpty()) {
+            return MODE_TRANSACTIONAL;
+        }
+
+        mode = mode.trim().toLowerCase(Locale.ROOT);
+        if (!MODE_TRANSACTIONAL.equals(mode) && !MODE_BATCHED.equals(mode)) {
+            throw new KafkaException("Invalid value '" + mode + "' for kafka.producer.mode, must be " + MODE_TRANSACTIONAL + " or " + MODE_BATCHED);
+        }
+        return mode;
+    }
+
+    private void addBatchedProperties(IConfigurationPropertyStoreService cps, Properties properties) throws ConfigurationPropertyStoreException, KafkaException {
+        properties.put("linger.ms", Integer.toString(getIntProperty(cps, "producer", "linger.ms", DEFAULT_LINGER_MILLIS)));
+        properties.put("batch.size", Integer.toString(getIntProperty(cps, "producer", "batch.size", DEFAULT_BATCH_BYTES)));
+
+        // Idempotent delivery stops retries from duplicating events, without needing transactions
+        String idempotence = cps.getProperty("producer", "idempotence");
+        if (idempotence == null || Boolean.parseBoolean(idempotence.trim())) {
+            properties.put("enable.idempotence", "true");
+            properties.put("acks", "all");
+        } else {
+            properties.put("enable.idempotence", "false");
+            properties.put("acks", "1");
+        }
+
+        int bufferEvents = getIntProperty(cps, "producer", "buffer.events", DEFAULT_BUFFER_EVENTS);
+        if (bufferEvents < 1) {
+            throw new KafkaException("Invalid value '" + bufferEvents + "' for kafka.producer.buffer.events, must be greater than 0");
+        }
+        properties.put(BUFFER_EVENTS_PROPERTY, Integer.toString(bufferEvents));
+
+        String bufferFull = cps.getProperty("producer", "buffer.full");
+        BufferFullPolicy bufferFullPolicy = BufferFullPolicy.BLOCK;
+        if (bufferFull != null && !bufferFull.trim().isEmpty()) {
+            try {
+                bufferFullPolicy = BufferFullPolicy.valueOf(bufferFull.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new KafkaException("Invalid value '" + bufferFull + "' for kafka.producer.buffer.full, must be block or drop", e);
+            }
+        }
+        properties.put(BUFFER_FULL_PROPERTY, bufferFullPolicy.name());
+    }
+
+    private int getIntProperty(IConfigurationPropertyStoreService cps, String prefix, String suffix, int defaultValue) throws ConfigurationPropertyStoreException, KafkaException {
+        String value = cps.getProperty(prefix, suffix);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new KafkaException("Invalid value '" + value + "' for kafka." + prefix + "." + suffix + ", must be a number", e);
+        }
+    }
+
 }
@@ -70,9 +70,14 @@ public class KafkaEventsService implements IEventsService {
 
     @Override
     public void shutdown() {
+        // Closing a producer sends any events it is still holding before it returns
         logger.info("Shutting down all cached producers");
         for (Map.Entry<String, IEventProducer> entry : producers.entrySet()) {
-            entry.getValue().close();
+            try {
+                entry.getValue().close();
+            } catch (Exception e) {
+                logger.warn("Unable to close the producer for the topic " + entry.getKey(), e);
+            }
         }
         producers.clear();
     }
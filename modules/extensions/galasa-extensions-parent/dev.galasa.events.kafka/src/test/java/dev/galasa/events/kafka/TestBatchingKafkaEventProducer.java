@@ -0,0 +1,111 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.events.kafka;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.Test;
+
+import dev.galasa.events.kafka.internal.BatchingKafkaEventProducer;
+import dev.galasa.events.kafka.internal.BatchingKafkaEventProducer.BufferFullPolicy;
+import dev.galasa.events.kafka.internal.KafkaEventProducer;
+import dev.galasa.events.kafka.mocks.MockKafkaProducer;
+import dev.galasa.extensions.common.mocks.events.MockEvent;
+import dev.galasa.framework.spi.IEventProducer;
+
+public class TestBatchingKafkaEventProducer {
+
+    private static final String TOPIC = "Topic.MyTopic";
+
+    @Test
+    public void TestCloseSendsAllBufferedEvents() throws Exception {
+        // Given...
+        MockKafkaProducer mockKafka = new MockKafkaProducer();
+        BatchingKafkaEventProducer producer = new BatchingKafkaEventProducer(mockKafka, TOPIC, 100, BufferFullPolicy.BLOCK);
+
+        // When...
+        for (int i = 0; i < 50; i++) {
+            producer.sendEvent(new MockEvent("2024-06-16T12:49:01.921998Z", "Event " + i));
+        }
+        producer.close();
+
+        // Then...
+        assertThat(mockKafka.history()).hasSize(50);
+        assertThat(mockKafka.history().get(0).topic()).isEqualTo(TOPIC);
+        assertThat(mockKafka.transactionInitialized()).isFalse();
+        assertThat(mockKafka.flushed()).isTrue();
+        assertThat(mockKafka.closed()).isTrue();
+        assertThat(producer.getSent()).isEqualTo(50);
+        assertThat(producer.getDropped()).isZero();
+    }
+
+    @Test
+    public void TestFullBufferWithDropPolicyDropsEvents() throws Exception {
+        // Given...
+        MockKafkaProducer mockKafka = new MockKafkaProducer();
+        mockKafka.holdSends();
+        BatchingKafkaEventProducer producer = new BatchingKafkaEventProducer(mockKafka, TOPIC, 2, BufferFullPolicy.DROP);
+
+        // The sender thread takes the first event and is held sending it
+        producer.sendEvent(new MockEvent("2024-06-16T12:49:01.921998Z", "Event 0"));
+        mockKafka.awaitSendStarted();
+
+        // When...
+        for (int i = 1; i <= 4; i++) {
+            producer.sendEvent(new MockEvent("2024-06-16T12:49:01.921998Z", "Event " + i));
+        }
+        mockKafka.releaseSends();
+        producer.close();
+
+        // Then...
+        assertThat(producer.getDropped()).isEqualTo(2);
+        assertThat(mockKafka.history()).hasSize(3);
+    }
+
+    @Test
+    public void TestEventsSentAfterCloseAreDropped() throws Exception {
+        // Given...
+        MockKafkaProducer mockKafka = new MockKafkaProducer();
+        BatchingKafkaEventProducer producer = new BatchingKafkaEventProducer(mockKafka, TOPIC, 10, BufferFullPolicy.BLOCK);
+        producer.close();
+
+        // When...
+        producer.sendEvent(new MockEvent("2024-06-16T12:49:01.921998Z", "Too late"));
+
+        // Then...
+        assertThat(producer.getDropped()).isEqualTo(1);
+        assertThat(mockKafka.history()).isEmpty();
+    }
+
+    @Test
+    public void TestBatchedProducerDoesNotCommitATransactionPerEvent() throws Exception {
+        // Given...
+        int events = 300;
+        MockKafkaProducer transactionalKafka = new MockKafkaProducer();
+        MockKafkaProducer batchedKafka = new MockKafkaProducer();
+
+        IEventProducer transactionalProducer = new KafkaEventProducer(transactionalKafka, TOPIC);
+        IEventProducer batchedProducer = new BatchingKafkaEventProducer(batchedKafka, TOPIC, events, BufferFullPolicy.BLOCK);
+
+        // When...
+        sendEvents(transactionalProducer, events);
+        sendEvents(batchedProducer, events);
+
+        // Then...
+        assertThat(transactionalKafka.history()).hasSize(events);
+        assertThat(batchedKafka.history()).hasSize(events);
+        assertThat(transactionalKafka.commitCount()).isEqualTo(events);
+        assertThat(batchedKafka.commitCount()).isZero();
+        assertThat(batchedKafka.flushed()).isTrue();
+    }
+
+    private void sendEvents(IEventProducer producer, int events) {
+        for (int i = 0; i < events; i++) {
+            producer.sendEvent(new MockEvent("2024-06-16T12:49:01.921998Z", "Event " + i));
+        }
+        producer.close();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.events.kafka;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import dev.galasa.events.kafka.internal.KafkaEventProducerFactory;
+import dev.galasa.events.kafka.internal.KafkaException;
+import dev.galasa.extensions.common.mocks.cps.MockConfigurationPropertyStoreService;
+
+public class TestKafkaEventProducerFactory {
+
+    private Properties createProducerConfig(Map<String, String> props) throws Exception {
+        props.put("bootstrap.servers", "broker1,broker2");
+        MockConfigurationPropertyStoreService mockCps = new MockConfigurationPropertyStoreService(props);
+        KafkaEventProducerFactory factory = new KafkaEventProducerFactory("token", "U123");
+        return factory.createProducerConfig(mockCps, "Topic.MyTopic");
+    }
+
+    @Test
+    public void TestDefaultModeIsTransactional() throws Exception {
+        // Given...
+        Map<String, String> props = new HashMap<String, String>();
+
+        // When...
+        Properties properties = createProducerConfig(props);
+
+        // Then...
+        assertThat(properties.get(KafkaEventProducerFactory.PRODUCER_MODE_PROPERTY)).isEqualTo("transactional");
+        assertThat(properties.get("transactional.id")).isEqualTo("U123-Topic.MyTopic");
+        assertThat(properties).doesNotContainKey("linger.ms");
+    }
+
+    @Test
+    public void TestBatchedModeConfiguresBatchingWithoutTransactions() throws Exception {
+        // Given...
+        Map<String, String> props = new HashMap<String, String>();
+        props.put("producer.mode", "Batched");
+        props.put("producer.linger.ms", "50");
+        props.put("producer.buffer.full", "drop");
+
+        // When...
+        Properties properties = createProducerConfig(props);
+
+        // Then...
+        assertThat(properties.get(KafkaEventProducerFactory.PRODUCER_MODE_PROPERTY)).isEqualTo("batched");
+        assertThat(properties).doesNotContainKey("transactional.id");
+        assertThat(properties.get("linger.ms")).isEqualTo("50");
+        assertThat(properties.get("batch.size")).isEqualTo("65536");
+        assertThat(properties.get("enable.idempotence")).isEqualTo("true");
+        assertThat(properties.get("acks")).isEqualTo("all");
+        assertThat(properties.get(KafkaEventProducerFactory.BUFFER_EVENTS_PROPERTY)).isEqualTo("10000");
+        assertThat(properties.get(KafkaEventProducerFactory.BUFFER_FULL_PROPERTY)).isEqualTo("DROP");
+    }
+
+    @Test
+    public void TestInvalidModeReturnsError() throws Exception {
+        // Given...
+        Map<String, String> props = new HashMap<String, String>();
+        props.put("producer.mode", "fast");
+
+        // When...
+        KafkaException thrown = catchThrowableOfType(() -> createProducerConfig(props), KafkaException.class);
+
+        // Then...
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getMessage()).contains("kafka.producer.mode");
+    }
+}
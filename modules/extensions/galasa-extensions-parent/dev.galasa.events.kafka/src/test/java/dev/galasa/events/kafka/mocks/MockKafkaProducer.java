@@ -0,0 +1,51 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.events.kafka.mocks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+/**
+ * A stand-in for a Kafka cluster, which can hold up sends until it is released
+ */
+public class MockKafkaProducer extends MockProducer<String, String> {
+
+    private final CountDownLatch sendStarted = new CountDownLatch(1);
+    private CountDownLatch sendReleased = new CountDownLatch(0);
+
+    public MockKafkaProducer() {
+        super(true, new StringSerializer(), new StringSerializer());
+    }
+
+    public void holdSends() {
+        this.sendReleased = new CountDownLatch(1);
+    }
+
+    public void releaseSends() {
+        this.sendReleased.countDown();
+    }
+
+    public void awaitSendStarted() throws InterruptedException {
+        this.sendStarted.await();
+    }
+
+    @Override
+    public Future<RecordMetadata> send(ProducerRecord<String, String> record, Callback callback) {
+        this.sendStarted.countDown();
+        try {
+            this.sendReleased.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return super.send(record, callback);
+    }
+}
@@ -58,6 +58,11 @@ public abstract class CouchdbStore {
 
     public CouchdbStore(URI storeUri, HttpRequestFactory httpRequestFactory, HttpClientFactory httpClientFactory)
             throws CouchdbException {
+        this(storeUri, httpRequestFactory, httpClientFactory.createClient());
+    }
+
+    public CouchdbStore(URI storeUri, HttpRequestFactory httpRequestFactory, CloseableHttpClient httpClient)
+            throws CouchdbException {
         // Strip off the 'couchdb:' prefix from the auth store URI
         // e.g. couchdb:https://myhost:5984 becomes https://myhost:5984
         String storeUriStr = storeUri.toString();
@@ -69,7 +74,7 @@ public abstract class CouchdbStore {
         }
 
         this.httpRequestFactory = httpRequestFactory;
-        this.httpClient = httpClientFactory.createClient();
+        this.httpClient = httpClient;
     }
 
     /**
@@ -9,4 +9,13 @@ import org.apache.http.impl.client.CloseableHttpClient;
 
 public interface HttpClientFactory {
     CloseableHttpClient createClient();
+
+    /**
+     * Create a client that keeps a pool of connections open between requests
+     *
+     * @param maxConnections             the most requests to each server that can be in flight at once
+     * @param connectionRequestTimeoutMs how long a request waits for a free connection before it fails
+     * @return the client
+     */
+    CloseableHttpClient createClient(int maxConnections, int connectionRequestTimeoutMs);
 }
@@ -5,16 +5,41 @@
  */
 package dev.galasa.extensions.common.impl;
 
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 
 import dev.galasa.extensions.common.api.HttpClientFactory;
 
 public class HttpClientFactoryImpl implements HttpClientFactory {
 
+    private static final int  VALIDATE_AFTER_INACTIVITY_MS = 2000;
+    private static final long IDLE_CONNECTION_TIMEOUT_MS   = 60000;
+
     @Override
     public CloseableHttpClient createClient() {
         return HttpClients.createDefault();
     }
 
+    @Override
+    public CloseableHttpClient createClient(int maxConnections, int connectionRequestTimeoutMs) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MS);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectionRequestTimeout(connectionRequestTimeoutMs)
+            .build();
+
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .evictIdleConnections(IDLE_CONNECTION_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+            .build();
+    }
+
 }
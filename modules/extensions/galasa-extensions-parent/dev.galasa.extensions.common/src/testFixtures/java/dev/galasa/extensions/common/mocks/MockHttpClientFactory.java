@@ -20,4 +20,9 @@ public class MockHttpClientFactory implements HttpClientFactory {
     public CloseableHttpClient createClient() {
         return this.clientToReturn;
     }
+
+    @Override
+    public CloseableHttpClient createClient(int maxConnections, int connectionRequestTimeoutMs) {
+        return this.clientToReturn;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,331 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.ras.couchdb.internal;
+
+import static dev.galasa.ras.couchdb.internal.CouchdbRasStore.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.http.Header;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.FileEntity;
+import org.apache.http.util.EntityUtils;
+
+import com.google.gson.JsonObject;
+
+import dev.galasa.ResultArchiveStoreContentType;
+import dev.galasa.extensions.common.api.LogFactory;
+import dev.galasa.extensions.common.couchdb.CouchdbException;
+import dev.galasa.extensions.common.couchdb.pojos.PutPostResponse;
+import dev.galasa.framework.spi.ResultArchiveStoreException;
+
+/**
+ * Uploads the artifacts of a run as attachments of the run's artifact documents.
+ *
+ * Each attachment upload needs the current revision of its document, so uploads
+ * to the same document have to take turns. To let uploads run side by side, the
+ * artifacts can be spread over several artifact documents, with another document
+ * created whenever an upload finds all the existing ones busy, up to a limit.
+ * Every artifact document is listed in the run document, so readers find the
+ * artifacts whichever document they are in.
+ *
+ * With one upload thread, the default, an artifact is uploaded by the thread that
+ * closes it, as it always has been. With more, closing the artifact queues the
+ * upload, and shutdown() waits for the queue to empty.
+ *
+ * If an upload is rejected because the document revision has moved on, the
+ * latest revision is read back and the upload is tried again.
+ */
+public class CouchdbArtifactUploader {
+
+    private static final int     MAX_CONFLICT_RETRIES  = 5;
+    private static final long    SHUTDOWN_WAIT_MINUTES = 10;
+
+    private final Log            logger;
+    private final CouchdbRasStore store;
+    private final int            maxDocuments;
+    private final long           gzipMinSize;
+
+    // Null when artifacts are uploaded on the thread that closes them
+    private final ExecutorService executor;
+
+    private final List<ArtifactDocument> documents     = new CopyOnWriteArrayList<>();
+    private final AtomicInteger          nextDocument  = new AtomicInteger();
+    private final AtomicInteger          failedUploads = new AtomicInteger();
+
+    private static class ArtifactDocument {
+        private final String        id;
+        private String              rev;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        ArtifactDocument(String id, String rev) {
+            this.id = id;
+            this.rev = rev;
+        }
+    }
+
+    /**
+     * @param store           the store of the run
+     * @param firstDocumentId the artifact document created with the run
+     * @param firstDocumentRev its revision
+     * @param threads         how many artifacts can be uploaded at once, 1 or less uploads on the closing thread
+     * @param maxDocuments    the most artifact documents to spread the artifacts over
+     * @param gzipMinSize     artifacts of at least this many bytes are sent gzip encoded, 0 or less to never gzip
+     * @param logFactory      the log factory
+     */
+    public CouchdbArtifactUploader(CouchdbRasStore store, String firstDocumentId, String firstDocumentRev,
+            int threads, int maxDocuments, long gzipMinSize, LogFactory logFactory) {
+        this.logger = logFactory.getLog(getClass());
+        this.store = store;
+        this.maxDocuments = Math.max(1, maxDocuments);
+        this.gzipMinSize = gzipMinSize;
+
+        this.documents.add(new ArtifactDocument(firstDocumentId, firstDocumentRev));
+
+        if (threads > 1) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "galasa-couchdb-artifact-upload-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Upload an artifact. The cached copy is deleted once it has been uploaded.
+     *
+     * @param cachePath   the local copy of the artifact
+     * @param provider    the file system the artifact is added to once it is stored
+     * @param remotePath  the path of the artifact
+     * @param contentType the content type of the artifact
+     * @throws IOException if the artifact could not be stored, or queued to be stored
+     */
+    public void upload(Path cachePath, CouchdbRasFileSystemProvider provider, CouchdbArtifactPath remotePath,
+            ResultArchiveStoreContentType contentType) throws IOException {
+        if (this.executor == null) {
+            try {
+                uploadArtifact(cachePath, provider, remotePath, contentType);
+            } finally {
+                deleteQuietly(cachePath);
+            }
+            return;
+        }
+
+        try {
+            this.executor.execute(() -> {
+                try {
+                    uploadArtifact(cachePath, provider, remotePath, contentType);
+                } catch (Exception e) {
+                    this.failedUploads.incrementAndGet();
+                    logger.error("Unable to store artifact " + remotePath, e);
+                } finally {
+                    deleteQuietly(cachePath);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(cachePath);
+            throw new IOException("Unable to store artifact " + remotePath + ", the artifact uploads have been shut down", e);
+        }
+    }
+
+    /**
+     * Wait for any queued uploads to finish
+     */
+    public void shutdown() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+            try {
+                if (!this.executor.awaitTermination(SHUTDOWN_WAIT_MINUTES, TimeUnit.MINUTES)) {
+                    logger.error("Timed out waiting for the artifact uploads to finish");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.error("Interrupted waiting for the artifact uploads to finish");
+            }
+        }
+
+        if (this.failedUploads.get() > 0) {
+            logger.error(this.failedUploads.get() + " artifacts could not be stored, see the errors above");
+        }
+    }
+
+    private void uploadArtifact(Path cachePath, CouchdbRasFileSystemProvider provider, CouchdbArtifactPath remotePath,
+            ResultArchiveStoreContentType contentType) throws IOException {
+        long length = Files.size(cachePath);
+
+        Path body = cachePath;
+        boolean gzipped = false;
+        if (this.gzipMinSize > 0 && length >= this.gzipMinSize && isCompressible(contentType)) {
+            body = gzip(cachePath);
+            gzipped = true;
+        }
+
+        try {
+            ArtifactDocument document = acquireDocument();
+            try {
+                putAttachment(document, remotePath, contentType, body, gzipped);
+            } finally {
+                document.lock.unlock();
+            }
+
+            // Record which document holds the artifact, so it can be read back during the run
+            JsonObject details = new JsonObject();
+            details.addProperty("content_type", contentType.value());
+            details.addProperty("length", length);
+            provider.addPath(new CouchdbArtifactPath(provider.getActualFileSystem(), remotePath.toString(), details, document.id));
+
+            logger.info("Stored artifact " + remotePath + " length=" + length + " contentType=" + contentType.value()
+                    + (gzipped ? " encoding=gzip" : ""));
+        } finally {
+            if (gzipped) {
+                deleteQuietly(body);
+            }
+        }
+    }
+
+    /**
+     * Lock an artifact document that no other upload is using, starting another
+     * document if they are all busy and the limit allows it
+     */
+    private ArtifactDocument acquireDocument() throws IOException {
+        int count = this.documents.size();
+        int start = Math.floorMod(this.nextDocument.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            ArtifactDocument document = this.documents.get((start + i) % count);
+            if (document.lock.tryLock()) {
+                return document;
+            }
+        }
+
+        ArtifactDocument created = createDocument();
+        if (created != null) {
+            return created;
+        }
+
+        ArtifactDocument document = this.documents.get(start);
+        document.lock.lock();
+        return document;
+    }
+
+    private synchronized ArtifactDocument createDocument() throws IOException {
+        if (this.documents.size() >= this.maxDocuments) {
+            return null;
+        }
+
+        PutPostResponse created;
+        try {
+            created = this.store.createAdditionalArtifactDocument();
+        } catch (CouchdbException | ResultArchiveStoreException e) {
+            throw new IOException("Unable to create another artifact document", e);
+        }
+
+        ArtifactDocument document = new ArtifactDocument(created.id, created.rev);
+        document.lock.lock();
+        this.documents.add(document);
+        return document;
+    }
+
+    private void putAttachment(ArtifactDocument document, CouchdbArtifactPath remotePath,
+            ResultArchiveStoreContentType contentType, Path body, boolean gzipped) throws IOException {
+        String uri = this.store.getCouchdbUri() + "/" + ARTIFACTS_DB + "/" + document.id + "/"
+                + URLEncoder.encode(remotePath.toString(), StandardCharsets.UTF_8.name());
+
+        for (int attempt = 0;; attempt++) {
+            HttpPut request = this.store.getRequestFactory().getHttpPutRequest(uri);
+            request.setEntity(new FileEntity(body.toFile()));
+            request.setHeader("Content-Type", contentType.value());
+            if (gzipped) {
+                request.setHeader("Content-Encoding", "gzip");
+            }
+            request.setHeader("If-Match", document.rev);
+
+            try (CloseableHttpResponse response = this.store.getHttpClient().execute(request)) {
+                int statusCode = response.getStatusLine().getStatusCode();
+                if (statusCode == HttpStatus.SC_CREATED) {
+                    String entity = EntityUtils.toString(response.getEntity());
+                    PutPostResponse putPostResponse = this.store.getGson().fromJson(entity, PutPostResponse.class);
+                    if (putPostResponse.id == null || putPostResponse.rev == null) {
+                        throw new IOException("Unable to store the artifact attachment - Invalid JSON response");
+                    }
+                    document.rev = putPostResponse.rev;
+                    return;
+                }
+
+                EntityUtils.consumeQuietly(response.getEntity());
+                if (statusCode != HttpStatus.SC_CONFLICT || attempt >= MAX_CONFLICT_RETRIES) {
+                    throw new IOException("Unable to store the artifact attachment - " + response.getStatusLine().toString());
+                }
+            }
+
+            logger.warn("The artifact document " + document.id + " has been updated elsewhere, retrying with the latest revision");
+            document.rev = getLatestRevision(document.id);
+        }
+    }
+
+    private String getLatestRevision(String documentId) throws IOException {
+        HttpHead request = this.store.getRequestFactory()
+                .getHttpHeadRequest(this.store.getCouchdbUri() + "/" + ARTIFACTS_DB + "/" + documentId);
+
+        try (CloseableHttpResponse response = this.store.getHttpClient().execute(request)) {
+            Header etag = response.getFirstHeader("ETag");
+            if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK || etag == null) {
+                throw new IOException("Unable to read the revision of artifact document " + documentId + " - "
+                        + response.getStatusLine().toString());
+            }
+
+            // The revision is returned as a quoted entity tag
+            return etag.getValue().replace("\"", "");
+        }
+    }
+
+    private boolean isCompressible(ResultArchiveStoreContentType contentType) {
+        String value = contentType.value();
+        return !ResultArchiveStoreContentType.PNG.value().equals(value)
+            && !ResultArchiveStoreContentType.ZIP.value().equals(value);
+    }
+
+    private Path gzip(Path cachePath) throws IOException {
+        Path gzipPath = Files.createTempFile("galasa_couchdb", "temp.gz");
+        try (InputStream in = Files.newInputStream(cachePath);
+                OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzipPath))) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            deleteQuietly(gzipPath);
+            throw e;
+        }
+        return gzipPath;
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) { // NOSONAR
+            // *** Hide any delete problems
+        }
+    }
+}
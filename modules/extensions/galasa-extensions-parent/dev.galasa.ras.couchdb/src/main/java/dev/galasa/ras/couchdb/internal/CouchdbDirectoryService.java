@@ -9,6 +9,8 @@ import static dev.galasa.extensions.common.Errors.*;
 import static dev.galasa.ras.couchdb.internal.CouchdbRasStore.*;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
@@ -22,6 +24,8 @@ import javax.validation.constraints.NotNull;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 import org.apache.commons.logging.Log;
 import org.apache.http.HttpEntity;
@@ -31,6 +35,7 @@ import org.apache.http.StatusLine;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.util.EntityUtils;
 
@@ -73,7 +78,11 @@ public class CouchdbDirectoryService implements IResultArchiveStoreDirectoryServ
     private final CouchdbRasStore store;
     private final GalasaGson gson;
 
-    private static final int COUCHDB_RESULTS_LIMIT_PER_QUERY = 100;
+    // The run document fields needed to list runs. The test methods make up most of a
+    // run document and are not needed for a list, so they are left out
+    private static final List<String> RUN_SUMMARY_FIELDS = List.of(
+        "_id", "_rev", "runName", "bundle", "testName", "testShortName", "requestor", "status",
+        "result", "group", "queued", "startTime", "endTime", "logRecordIds", "artifactRecordIds");
 
     public CouchdbDirectoryService(CouchdbRasStore store, LogFactory logFactory, HttpRequestFactory requestFactory) {
         this.store = store;
@@ -104,65 +113,105 @@ public class CouchdbDirectoryService implements IResultArchiveStoreDirectoryServ
             return runProvider.getRoot();
         }
 
-        for (String artifactRecordId : ts.getArtifactRecordIds()) {
-            HttpGet httpGet = requestFactory
-                    .getHttpGetRequest(store.getCouchdbUri() + "/galasa_artifacts/" + artifactRecordId);
+        // Fetch all the artifact documents of the run in one request
+        HttpPost httpPost = requestFactory
+                .getHttpPostRequest(store.getCouchdbUri() + "/" + ARTIFACTS_DB + "/_all_docs?include_docs=true");
 
-            try (CloseableHttpResponse response = store.getHttpClient().execute(httpGet)) {
-                StatusLine statusLine = response.getStatusLine();
-                if (statusLine.getStatusCode() == HttpStatus.SC_NOT_FOUND) { // TODO Ignore it for now
-                    continue;
-                }
-                if (statusLine.getStatusCode() != HttpStatus.SC_OK) {
-                    throw new CouchdbRasException("Unable to find artifacts - " + statusLine.toString());
-                }
+        JsonObject keys = new JsonObject();
+        keys.add("keys", gson.toJsonTree(ts.getArtifactRecordIds()));
+        httpPost.setEntity(new StringEntity(gson.toJson(keys), UTF8));
+
+        try (CloseableHttpResponse response = store.getHttpClient().execute(httpPost)) {
+            StatusLine statusLine = response.getStatusLine();
+            if (statusLine.getStatusCode() != HttpStatus.SC_OK) {
+                throw new CouchdbRasException("Unable to find artifacts - " + statusLine.toString());
+            }
 
-                HttpEntity entity = response.getEntity();
-                String responseEntity = EntityUtils.toString(entity);
-                JsonObject artifactRecord = gson.fromJson(responseEntity, JsonObject.class);
-
-                JsonElement attachmentsElement = artifactRecord.get("_attachments");
-
-                if (attachmentsElement != null) {
-                    if (attachmentsElement instanceof JsonObject) {
-                        JsonObject attachments = (JsonObject) attachmentsElement;
-                        Set<Entry<String, JsonElement>> entries = attachments.entrySet();
-                        if (entries != null) {
-                            for (Entry<String, JsonElement> entry : entries) {
-                                JsonElement elem = entry.getValue();
-                                if (elem instanceof JsonObject) {
-                                    runProvider.addPath(new CouchdbArtifactPath(runProvider.getActualFileSystem(),
-                                            entry.getKey(), (JsonObject) elem, artifactRecordId));
-                                }
-                            }
+            try (JsonReader reader = newJsonReader(response.getEntity())) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (!"rows".equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                        reader.skipValue();
+                        continue;
+                    }
+
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        JsonObject row = gson.fromJson(reader, JsonObject.class);
+                        JsonElement doc = row.get("doc");
+                        if (doc instanceof JsonObject) { // Rows for missing artifact documents have no doc, ignore them for now
+                            addArtifactPaths(runProvider, (JsonObject) doc, row.get("id").getAsString());
                         }
                     }
+                    reader.endArray();
                 }
-            } catch (CouchdbRasException e) {
-                throw e;
-            } catch (Exception e) {
-                throw new CouchdbRasException("Unable to find runs", e);
+                reader.endObject();
             }
+        } catch (CouchdbRasException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CouchdbRasException("Unable to find runs", e);
         }
 
         return runProvider.getRoot();
     }
 
+    private void addArtifactPaths(CouchdbRasFileSystemProvider runProvider, JsonObject artifactRecord, String artifactRecordId) {
+        JsonElement attachmentsElement = artifactRecord.get("_attachments");
+
+        if (attachmentsElement instanceof JsonObject) {
+            JsonObject attachments = (JsonObject) attachmentsElement;
+            Set<Entry<String, JsonElement>> entries = attachments.entrySet();
+            if (entries != null) {
+                for (Entry<String, JsonElement> entry : entries) {
+                    JsonElement elem = entry.getValue();
+                    if (elem instanceof JsonObject) {
+                        runProvider.addPath(new CouchdbArtifactPath(runProvider.getActualFileSystem(),
+                                entry.getKey(), (JsonObject) elem, artifactRecordId));
+                    }
+                }
+            }
+        }
+    }
+
     private @NotNull List<IRunResult> getAllRuns() throws ResultArchiveStoreException {
 
         ArrayList<IRunResult> runs = new ArrayList<>();
 
-        HttpGet httpGet = requestFactory.getHttpGetRequest(store.getCouchdbUri() + "/" + RUNS_DB + "/_all_docs");
+        // Page through the run documents, with each page including the documents themselves,
+        // rather than listing the ids and then fetching every run one by one
+        int pageSize = store.getRunQueryPageSize();
+        String lastId = null;
 
-        try (CloseableHttpResponse response = store.getHttpClient().execute(httpGet)) {
-            StatusLine statusLine = response.getStatusLine();
-            if (statusLine.getStatusCode() != HttpStatus.SC_OK) {
-                throw new CouchdbRasException("Unable to find runs - " + statusLine.toString());
+        while (true) {
+            HttpGet httpGet;
+            try {
+                URIBuilder uriBuilder = new URIBuilder(store.getCouchdbUri() + "/" + RUNS_DB + "/_all_docs");
+                uriBuilder.addParameter("include_docs", "true");
+                uriBuilder.addParameter("limit", Integer.toString(pageSize));
+                if (lastId != null) {
+                    uriBuilder.addParameter("startkey", '"' + lastId + '"');
+                    uriBuilder.addParameter("skip", "1");
+                }
+                httpGet = requestFactory.getHttpGetRequest(uriBuilder.build().toString());
+            } catch (URISyntaxException e) {
+                throw new CouchdbRasException("Unable to find runs", e);
+            }
+
+            FoundRuns found;
+            try (CloseableHttpResponse response = store.getHttpClient().execute(httpGet)) {
+                StatusLine statusLine = response.getStatusLine();
+                if (statusLine.getStatusCode() != HttpStatus.SC_OK) {
+                    throw new CouchdbRasException("Unable to find runs - " + statusLine.toString());
+                }
+
+                found = readFoundRuns(response.getEntity());
+            } catch (CouchdbRasException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ResultArchiveStoreException("Unable to find runs", e);
             }
 
-            HttpEntity entity = response.getEntity();
-            String responseEntity = EntityUtils.toString(entity);
-            FoundRuns found = gson.fromJson(responseEntity, FoundRuns.class);
             if (found.rows == null) {
                 throw new CouchdbRasException("Unable to find rows - Invalid JSON response");
             }
@@ -171,18 +220,16 @@ public class CouchdbDirectoryService implements IResultArchiveStoreDirectoryServ
                 logger.warn("CouchDB warning detected - " + found.warning);
             }
 
-            for (Row row : found.rows) {
-                CouchdbRunResult cdbrr = fetchRun(row.id);
-                if (cdbrr != null) {
-                    if (cdbrr.getTestStructure() != null && cdbrr.getTestStructure().isValid()) {
-                        runs.add(cdbrr);
-                    }
+            for (TestStructureCouchdb ts : found.docs) {
+                if (ts.isValid()) {
+                    runs.add(new CouchdbRunResult(store, ts, logFactory));
                 }
             }
-        } catch (CouchdbRasException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new ResultArchiveStoreException("Unable to find runs", e);
+
+            if (found.rows.size() < pageSize) {
+                break;
+            }
+            lastId = found.rows.get(found.rows.size() - 1).id;
         }
 
         return runs;
@@ -198,15 +245,98 @@ public class CouchdbDirectoryService implements IResultArchiveStoreDirectoryServ
                 return null;
             }
 
-            HttpEntity entity = response.getEntity();
-            String responseEntity = EntityUtils.toString(entity);
-            TestStructureCouchdb ts = gson.fromJson(responseEntity, TestStructureCouchdb.class);
+            TestStructureCouchdb ts;
+            try (JsonReader reader = newJsonReader(response.getEntity())) {
+                ts = gson.fromJson(reader, TestStructureCouchdb.class);
+            }
 
             runResult = new CouchdbRunResult(store, ts, logFactory);
         }
         return runResult;
     }
 
+    private JsonReader newJsonReader(HttpEntity entity) throws IOException {
+        return gson.getGson().newJsonReader(new InputStreamReader(entity.getContent(), UTF8));
+    }
+
+    /**
+     * Read a _find or _all_docs response as it arrives, rather than reading it all
+     * into a string and parsing that. Only the run documents, the row ids, the
+     * bookmark and any warning are kept.
+     */
+    private FoundRuns readFoundRuns(HttpEntity entity) throws IOException {
+        FoundRuns found = new FoundRuns();
+        if (entity == null) {
+            return found;
+        }
+
+        try (JsonReader reader = newJsonReader(entity)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.skipValue();
+                    continue;
+                }
+
+                switch (name) {
+                    case "docs":
+                        found.docs = new ArrayList<>();
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            found.docs.add(gson.fromJson(reader, TestStructureCouchdb.class));
+                        }
+                        reader.endArray();
+                        break;
+                    case "rows":
+                        found.rows = new ArrayList<>();
+                        found.docs = new ArrayList<>();
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            readRow(reader, found);
+                        }
+                        reader.endArray();
+                        break;
+                    case "bookmark":
+                        found.bookmark = reader.nextString();
+                        break;
+                    case "warning":
+                        found.warning = reader.nextString();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        return found;
+    }
+
+    private void readRow(JsonReader reader, FoundRuns found) throws IOException {
+        Row row = new Row();
+        TestStructureCouchdb doc = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+            } else if ("id".equals(name)) {
+                row.id = reader.nextString();
+            } else if ("doc".equals(name)) {
+                doc = gson.fromJson(reader, TestStructureCouchdb.class);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        found.rows.add(row);
+        if (doc != null) {
+            found.docs.add(doc);
+        }
+    }
+
     @Override
     public @NotNull List<String> getRequestors() throws ResultArchiveStoreException {
         ArrayList<String> requestors = new ArrayList<>();
@@ -350,6 +480,7 @@ public class CouchdbDirectoryService implements IResultArchiveStoreDirectoryServ
         Find find = new Find();
         find.selector = buildGetRunsQuery(searchCriterias);
         find.execution_stats = true;
+        find.fields = RUN_SUMMARY_FIELDS;
         find.limit = maxResults;
         find.bookmark = pageToken;
         if (primarySort != null) {
@@ -360,6 +491,14 @@ public class CouchdbDirectoryService implements IResultArchiveStoreDirectoryServ
     }
 
     private RasRunResultPage getRunsPageFromCouchdb(HttpPost httpPost, Find query) throws ResultArchiveStoreException {
+        return getRunsPageFromCouchdb(httpPost, query, null);
+    }
+
+    /**
+     * @param documentCount if not null, the number of documents CouchDB returned, including
+     *                      any invalid runs that were left out of the page, is stored in element 0
+     */
+    private RasRunResultPage getRunsPageFromCouchdb(HttpPost httpPost, Find query, int[] documentCount) throws ResultArchiveStoreException {
         ArrayList<IRunResult> runs = new ArrayList<>();
         RasRunResultPage runsPage = null;
         String requestContent = gson.toJson(query);
@@ -367,14 +506,12 @@ public class CouchdbDirectoryService implements IResultArchiveStoreDirectoryServ
 
         try (CloseableHttpResponse response = store.getHttpClient().execute(httpPost)) {
             StatusLine statusLine = response.getStatusLine();
-            HttpEntity entity = response.getEntity();
-            String responseEntity = EntityUtils.toString(entity);
-
             if (statusLine.getStatusCode() != HttpStatus.SC_OK) {
+                EntityUtils.consumeQuietly(response.getEntity());
                 throw new CouchdbRasException("Unable to find runs - " + statusLine.toString());
             }
 
-            FoundRuns found = gson.fromJson(responseEntity, FoundRuns.class);
+            FoundRuns found = readFoundRuns(response.getEntity());
             if (found.docs == null) {
                 throw new CouchdbRasException("Unable to find runs - Invalid JSON response");
             }
@@ -383,6 +520,10 @@ public class CouchdbDirectoryService implements IResultArchiveStoreDirectoryServ
                 logger.warn("CouchDB warning detected - " + found.warning);
             }
 
+            if (documentCount != null) {
+                documentCount[0] = found.docs.size();
+            }
+
             for (TestStructureCouchdb ts : found.docs) {
                 if (ts.isValid()) {
 
@@ -433,16 +574,17 @@ public class CouchdbDirectoryService implements IResultArchiveStoreDirectoryServ
         Find find = new Find();
         find.selector = buildGetRunsQuery(searchCriterias);
         find.execution_stats = true;
-        find.limit = COUCHDB_RESULTS_LIMIT_PER_QUERY;
+        find.fields = RUN_SUMMARY_FIELDS;
+        find.limit = store.getRunQueryPageSize();
 
+        int[] documentCount = new int[1];
         while (true) {
-            RasRunResultPage runsPage = getRunsPageFromCouchdb(httpPost, find);
+            RasRunResultPage runsPage = getRunsPageFromCouchdb(httpPost, find, documentCount);
+            runs.addAll(runsPage.getRuns());
 
-            List<IRunResult> returnedRuns = runsPage.getRuns();
-            if (!returnedRuns.isEmpty()) {
-                runs.addAll(returnedRuns);
-            } else {
-                // No runs were found, so we've reached the end
+            // A page that is not full, or has no bookmark, is the last one,
+            // so there is no need to ask for an empty page to find the end
+            if (documentCount[0] < find.limit || runsPage.getNextCursor() == null) {
                 break;
             }
 
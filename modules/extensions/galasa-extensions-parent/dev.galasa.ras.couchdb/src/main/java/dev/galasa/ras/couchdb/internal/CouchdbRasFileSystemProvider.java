@@ -12,7 +12,6 @@ import java.nio.file.AccessMode;
 import java.nio.file.DirectoryStream;
 import java.nio.file.DirectoryStream.Filter;
 import java.nio.file.FileStore;
-import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
@@ -115,13 +114,12 @@ public class CouchdbRasFileSystemProvider extends ResultArchiveStoreFileSystemPr
                 }
             }
 
-            Path cachePath = Files.createTempFile("galasa_couchdb", "temp");
+            // Stream the attachment as it is read, rather than copying it all to a temporary file first
             try {
-                couchdbRasStore.retrieveArtifact(cdbPath, cachePath);
+                return new CouchdbRasReadByteChannel(couchdbRasStore, couchdbRasStore.getArtifactUri(cdbPath), cdbPath.getLength());
             } catch (CouchdbException e) {
                 throw new IOException("Unable to retrieve artifact", e);
             }
-            return new CouchdbRasReadByteChannel(cachePath);
         }
     }
 
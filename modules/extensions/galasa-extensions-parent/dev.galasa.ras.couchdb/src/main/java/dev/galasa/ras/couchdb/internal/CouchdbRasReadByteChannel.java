@@ -6,109 +6,166 @@
 package dev.galasa.ras.couchdb.internal;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
 import java.nio.channels.SeekableByteChannel;
-import java.nio.file.Files;
-import java.nio.file.Path;
+
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+
+import dev.galasa.extensions.common.api.HttpRequestFactory;
 
 /**
- * Dummy Byte Channel for a null Result Archive Store
- *
- * @author Michael Baylis
+ * Read Byte Channel for a CouchDB attachment, streamed from the CouchDB server
+ * as it is read rather than copied to a local file first.
  *
+ * The attachment is not requested until the first read, so positioning the
+ * channel first asks CouchDB for only the bytes from that position onwards.
  */
 public class CouchdbRasReadByteChannel implements SeekableByteChannel {
 
-    private final Path                cachePath;
-    private final SeekableByteChannel cacheByteChannel;
+    private final CouchdbRasStore    store;
+    private final HttpRequestFactory requestFactory;
+    private final String             attachmentUri;
+    private final long               size;
+
+    private boolean                  open = true;
+    private long                     position;
 
-    public CouchdbRasReadByteChannel(Path cachePath) throws IOException {
-        this.cachePath = cachePath;
-        this.cacheByteChannel = Files.newByteChannel(cachePath);
+    private CloseableHttpResponse    response;
+    private InputStream              content;
+
+    public CouchdbRasReadByteChannel(CouchdbRasStore store, String attachmentUri, long size) {
+        this.store = store;
+        this.requestFactory = store.getRequestFactory();
+        this.attachmentUri = attachmentUri;
+        this.size = size;
     }
 
-    /*
-     * (non-Javadoc)
-     *
-     * @see java.nio.channels.Channel#isOpen()
-     */
     @Override
     public boolean isOpen() {
-        return cacheByteChannel.isOpen();
+        return this.open;
     }
 
-    /*
-     * (non-Javadoc)
-     *
-     * @see java.nio.channels.Channel#close()
-     */
     @Override
     public void close() throws IOException {
-        cacheByteChannel.close();
-        try {
-            Files.delete(cachePath);
-        } catch (Exception e) {
-        } // *** Hide any delete problems
+        this.open = false;
+        closeResponse();
     }
 
-    /*
-     * (non-Javadoc)
-     *
-     * @see java.nio.channels.SeekableByteChannel#read(java.nio.ByteBuffer)
-     */
     @Override
     public int read(ByteBuffer dst) throws IOException {
-        return cacheByteChannel.read(dst);
+        checkOpen();
+        if (this.content == null) {
+            if (this.position > 0 && this.position >= this.size) {
+                return -1;
+            }
+            openContent();
+        }
+
+        int bytesRead;
+        if (dst.hasArray()) {
+            bytesRead = this.content.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+            if (bytesRead > 0) {
+                dst.position(dst.position() + bytesRead);
+            }
+        } else {
+            byte[] bytes = new byte[dst.remaining()];
+            bytesRead = this.content.read(bytes);
+            if (bytesRead > 0) {
+                dst.put(bytes, 0, bytesRead);
+            }
+        }
+
+        if (bytesRead > 0) {
+            this.position += bytesRead;
+        }
+        return bytesRead;
+    }
+
+    private void openContent() throws IOException {
+        HttpGet httpGet = this.requestFactory.getHttpGetRequest(this.attachmentUri);
+        if (this.position > 0) {
+            httpGet.setHeader("Range", "bytes=" + this.position + "-");
+        }
+
+        this.response = this.store.getHttpClient().execute(httpGet);
+        int statusCode = this.response.getStatusLine().getStatusCode();
+        if (statusCode != HttpStatus.SC_OK && statusCode != HttpStatus.SC_PARTIAL_CONTENT) {
+            String statusLine = this.response.getStatusLine().toString();
+            closeResponse();
+            throw new IOException("Unable to retrieve artifact " + this.attachmentUri + " - " + statusLine);
+        }
+
+        this.content = this.response.getEntity().getContent();
+
+        // CouchDB sends the whole of an attachment it stores compressed, so skip to the position
+        if (statusCode == HttpStatus.SC_OK && this.position > 0) {
+            long remaining = this.position;
+            while (remaining > 0) {
+                long skipped = this.content.skip(remaining);
+                if (skipped <= 0) {
+                    if (this.content.read() < 0) {
+                        break;
+                    }
+                    skipped = 1;
+                }
+                remaining -= skipped;
+            }
+        }
+    }
+
+    private void closeResponse() throws IOException {
+        this.content = null;
+        if (this.response != null) {
+            try {
+                this.response.close();
+            } finally {
+                this.response = null;
+            }
+        }
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (!this.open) {
+            throw new ClosedChannelException();
+        }
     }
 
-    /*
-     * (non-Javadoc)
-     *
-     * @see java.nio.channels.SeekableByteChannel#write(java.nio.ByteBuffer)
-     */
     @Override
     public int write(ByteBuffer src) throws IOException {
-        return cacheByteChannel.write(src);
+        throw new NonWritableChannelException();
     }
 
-    /*
-     * (non-Javadoc)
-     *
-     * @see java.nio.channels.SeekableByteChannel#position()
-     */
     @Override
     public long position() throws IOException {
-        return cacheByteChannel.position();
+        checkOpen();
+        return this.position;
     }
 
-    /*
-     * (non-Javadoc)
-     *
-     * @see java.nio.channels.SeekableByteChannel#position(long)
-     */
     @Override
     public SeekableByteChannel position(long newPosition) throws IOException {
-        return cacheByteChannel.position(newPosition);
+        checkOpen();
+        if (newPosition != this.position) {
+            // The next read will request the attachment from the new position
+            closeResponse();
+            this.position = newPosition;
+        }
+        return this;
     }
 
-    /*
-     * (non-Javadoc)
-     *
-     * @see java.nio.channels.SeekableByteChannel#size()
-     */
     @Override
     public long size() throws IOException {
-        return cacheByteChannel.size();
+        checkOpen();
+        return this.size;
     }
 
-    /*
-     * (non-Javadoc)
-     *
-     * @see java.nio.channels.SeekableByteChannel#truncate(long)
-     */
     @Override
     public SeekableByteChannel truncate(long size) throws IOException {
-        return cacheByteChannel.truncate(size);
+        throw new NonWritableChannelException();
     }
 
 }
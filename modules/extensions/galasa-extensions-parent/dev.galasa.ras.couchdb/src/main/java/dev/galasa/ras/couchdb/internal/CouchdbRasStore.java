@@ -5,24 +5,35 @@
  */
 package dev.galasa.ras.couchdb.internal;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import javax.validation.constraints.NotNull;
 import org.apache.commons.logging.Log;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import org.apache.http.HttpStatus;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
-import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
 import dev.galasa.framework.spi.IFramework;
 import dev.galasa.framework.spi.IResultArchiveStoreDirectoryService;
 import dev.galasa.framework.spi.IResultArchiveStoreService;
@@ -46,6 +57,7 @@ import dev.galasa.extensions.common.api.HttpRequestFactory;
 import dev.galasa.extensions.common.impl.LogFactoryImpl;
 import dev.galasa.ras.couchdb.internal.pojos.Artifacts;
 import dev.galasa.ras.couchdb.internal.pojos.LogLines;
+import dev.galasa.ras.couchdb.internal.pojos.LogLinesRow;
 
 public class CouchdbRasStore extends CouchdbStore implements IResultArchiveStoreService {
 
@@ -63,6 +75,17 @@ public class CouchdbRasStore extends CouchdbStore implements IResultArchiveStore
     public static final String RUN_NAMES_VIEW_NAME        = "runnames-view";
     public static final String RUN_GROUP_VIEW_NAME        = "group-view";
 
+    public static final int    DEFAULT_RUN_QUERY_PAGE_SIZE = 100;
+
+    // The number of log documents fetched in each request when retrieving a run log
+    public static final int    LOG_FETCH_BATCH_SIZE        = 100;
+
+    // The connections kept open to couchdb, each request in flight and each artifact being downloaded holds one
+    public static final int    DEFAULT_CONNECTION_POOL_SIZE      = 20;
+
+    // How long a request waits for a free connection before it fails
+    public static final int    CONNECTION_REQUEST_TIMEOUT_MS     = 60000;
+
     private final Log                          logger            ;
 
     private final IFramework                   framework;                                         // NOSONAR
@@ -79,6 +102,10 @@ public class CouchdbRasStore extends CouchdbStore implements IResultArchiveStore
 
     private long                               logOrder           = 0;
 
+    // The size of the run log as getLog() returns it, kept in the run document so a part of the log can be served without reading it all
+    private long                               logSize            = 0;
+    private boolean                            logEmpty           = true;
+
     private final ArrayList<String>            logCache           = new ArrayList<>(100);
 
     private ArrayList<String>                  logIds             = new ArrayList<>();
@@ -90,6 +117,10 @@ public class CouchdbRasStore extends CouchdbStore implements IResultArchiveStore
 
     private LogFactory logFactory;
 
+    private CouchdbDirectoryService            directoryService;
+    private CouchdbArtifactUploader            artifactUploader;
+    private int                                runQueryPageSize   = 0;
+
     public CouchdbRasStore(IFramework framework, URI rasUri) throws CouchdbException, CouchdbRasException {
         this(
             framework,
@@ -105,7 +136,7 @@ public class CouchdbRasStore extends CouchdbStore implements IResultArchiveStore
     public CouchdbRasStore(IFramework framework, URI rasUri, HttpClientFactory httpFactory , CouchdbValidator validator,
         LogFactory logFactory, HttpRequestFactory requestFactory
     ) throws CouchdbException {
-        super(rasUri, requestFactory, httpFactory);
+        super(rasUri, requestFactory, createHttpClient(framework, httpFactory, logFactory.getLog(CouchdbRasStore.class)));
         this.logFactory = logFactory;
         this.logger = logFactory.getLog(getClass());
         this.framework = framework;
@@ -127,6 +158,14 @@ public class CouchdbRasStore extends CouchdbStore implements IResultArchiveStore
             }
 
             createArtifactDocument();
+
+            int uploadThreads = getCpsIntValue(CpsPropertyDef.ARTIFACT_UPLOAD_THREADS);
+            int uploadDocuments = getCpsIntValue(CpsPropertyDef.ARTIFACT_UPLOAD_DOCUMENTS);
+            if (uploadDocuments < 1) {
+                uploadDocuments = uploadThreads;
+            }
+            this.artifactUploader = new CouchdbArtifactUploader(this, getArtifactDocumentId(), this.artifactDocumentRev,
+                uploadThreads, uploadDocuments, getCpsIntValue(CpsPropertyDef.ARTIFACT_UPLOAD_GZIP_MIN_SIZE), this.logFactory);
         }
 
         ResultArchiveStoreFileStore fileStore = new ResultArchiveStoreFileStore();
@@ -150,6 +189,24 @@ public class CouchdbRasStore extends CouchdbStore implements IResultArchiveStore
         this.artifactDocumentRev = putPostResponse.rev;
     }
 
+    /**
+     * Create another artifact document for the run, and list it in the run document
+     * so the artifacts stored in it can be found
+     *
+     * @return the id and revision of the new document
+     */
+    protected synchronized PutPostResponse createAdditionalArtifactDocument() throws CouchdbException, ResultArchiveStoreException {
+        Artifacts artifacts = new Artifacts();
+        artifacts.runId = this.runDocumentId;
+        artifacts.runName = this.run.getName();
+
+        PutPostResponse putPostResponse = createDocument(ARTIFACTS_DB, gson.toJson(artifacts));
+        this.artifactDocumentId.add(putPostResponse.id);
+
+        updateTestStructure(lastTestStructure);
+        return putPostResponse;
+    }
+
     @Override
     public void writeLog(@NotNull String message) throws ResultArchiveStoreException {
         if (this.run == null) {
@@ -193,7 +250,7 @@ public class CouchdbRasStore extends CouchdbStore implements IResultArchiveStore
                 throw new CouchdbException("Unable to store the test structure - Invalid JSON response");
             }
 
-            this.logIds.add(putPostResponse.id);
+            addLogRecord(putPostResponse.id, logLines.lines);
             this.updateTestStructure(lastTestStructure);
         } catch (CouchdbException e) {
             throw new ResultArchiveStoreException(e);
@@ -202,6 +259,23 @@ public class CouchdbRasStore extends CouchdbStore implements IResultArchiveStore
         }
     }
 
+    /**
+     * Add a stored log document to the run, counting its lines into the log size
+     * the same way writeLog(TestStructure, OutputStream) joins them
+     */
+    private synchronized void addLogRecord(String logRecordId, List<String> lines) {
+        this.logIds.add(logRecordId);
+        for (String line : lines) {
+            if (!this.logEmpty) {
+                this.logSize++;
+            }
+            this.logSize += line.getBytes(StandardCharsets.UTF_8).length;
+            if (!line.isEmpty()) {
+                this.logEmpty = false;
+            }
+        }
+    }
+
     @Override
     public void writeLog(@NotNull List<String> messages) throws ResultArchiveStoreException {
         if (this.run == null) {
@@ -225,7 +299,9 @@ public class CouchdbRasStore extends CouchdbStore implements IResultArchiveStore
         this.lastTestStructure.setArtifactRecordIds(this.artifactDocumentId);
         this.lastTestStructure.normalise();
 
-        String jsonStructure = gson.toJson(testStructure);
+        JsonObject runDocument = gson.toJsonTree(testStructure).getAsJsonObject();
+        runDocument.addProperty("logSize", this.logSize);
+        String jsonStructure = gson.toJson(runDocument);
 
         HttpEntityEnclosingRequestBase request;
         if (runDocumentId == null) {
@@ -249,7 +325,7 @@ public class CouchdbRasStore extends CouchdbStore implements IResultArchiveStore
         }
     }
 
-    public void retrieveArtifact(CouchdbArtifactPath path, Path cachePath) throws CouchdbException {
+    public String getArtifactUri(CouchdbArtifactPath path) throws CouchdbException {
         String artifactRecordId = path.getArtifactRecordId();
         String encodedPath;
         try {
@@ -258,34 +334,88 @@ public class CouchdbRasStore extends CouchdbStore implements IResultArchiveStore
             throw new CouchdbException("Problem encoding artifact path", e);
         }
 
-        String artifactURI= this.storeUri + "/"+ARTIFACTS_DB+"/" + artifactRecordId + "/" + encodedPath;
-        retrieveArtifactFromDatabase(artifactURI, cachePath,StandardCopyOption.REPLACE_EXISTING);
+        return this.storeUri + "/"+ARTIFACTS_DB+"/" + artifactRecordId + "/" + encodedPath;
     }
 
     public String getLog(TestStructure ts) throws ResultArchiveStoreException {
-        StringBuilder sb = new StringBuilder();
-
-        for (String logRecordId : ts.getLogRecordIds()) {
-            HttpGet httpGet = httpRequestFactory.getHttpGetRequest(this.storeUri + "/"+LOG_DB+"/" + logRecordId);
-
-            try{
-                String entity = sendHttpRequest(httpGet, HttpStatus.SC_OK);
-                LogLines logLines = gson.fromJson(entity, LogLines.class);
-                if (logLines.lines != null) {
-                    for (String line : logLines.lines) {
-                        if (sb.length() > 0) {
-                            sb.append("\n");
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        try {
+            writeLog(ts, log);
+        } catch (IOException e) {
+            throw new ResultArchiveStoreException("Unable to retrieve the run log", e);
+        }
+        return new String(log.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write the run log to a stream, fetching the log documents a batch at a time
+     * rather than one request per document, and without building the whole log in memory
+     */
+    public void writeLog(TestStructure ts, OutputStream outputStream) throws ResultArchiveStoreException, IOException {
+        List<String> logRecordIds = ts.getLogRecordIds();
+        if (logRecordIds == null || logRecordIds.isEmpty()) {
+            return;
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        boolean empty = true;
+        for (int i = 0; i < logRecordIds.size(); i += LOG_FETCH_BATCH_SIZE) {
+            List<String> batch = logRecordIds.subList(i, Math.min(i + LOG_FETCH_BATCH_SIZE, logRecordIds.size()));
+            empty = writeLogBatch(batch, writer, empty);
+        }
+        writer.flush();
+    }
+
+    private boolean writeLogBatch(List<String> logRecordIds, Writer writer, boolean empty) throws ResultArchiveStoreException, IOException {
+        HttpPost httpPost = httpRequestFactory.getHttpPostRequest(this.storeUri + "/" + LOG_DB + "/_all_docs?include_docs=true");
+
+        JsonObject keys = new JsonObject();
+        keys.add("keys", gson.toJsonTree(logRecordIds));
+        httpPost.setEntity(new StringEntity(gson.toJson(keys), StandardCharsets.UTF_8));
+
+        try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
+            StatusLine statusLine = response.getStatusLine();
+            if (statusLine.getStatusCode() != HttpStatus.SC_OK) {
+                throw new CouchdbRasException("Unable to retrieve the run log - " + statusLine.toString());
+            }
+
+            // The rows are in the order of the keys, so the lines can be written as each row arrives
+            try (JsonReader reader = gson.getGson().newJsonReader(new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8))) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (!"rows".equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                        reader.skipValue();
+                        continue;
+                    }
+
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        LogLinesRow row = gson.fromJson(reader, LogLinesRow.class);
+                        if (row.error != null || row.doc == null) {
+                            throw new CouchdbRasException("Unable to retrieve log record " + row.key + " - " + row.error);
+                        }
+                        if (row.doc.lines != null) {
+                            for (String line : row.doc.lines) {
+                                if (!empty) {
+                                    writer.write('\n');
+                                }
+                                writer.write(line);
+                                if (!line.isEmpty()) {
+                                    empty = false;
+                                }
+                            }
                         }
-                        sb.append(line);
                     }
+                    reader.endArray();
                 }
-            } catch (CouchdbException e) {
-                throw new ResultArchiveStoreException(e);
-            } catch (Exception e) {
-                throw new ResultArchiveStoreException("Unable to find runs", e);
+                reader.endObject();
             }
+        } catch (ResultArchiveStoreException | IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ResultArchiveStoreException("Unable to retrieve the run log", e);
         }
-        return sb.toString();
+        return empty;
     }
 
     @Override
@@ -308,6 +438,10 @@ public class CouchdbRasStore extends CouchdbStore implements IResultArchiveStore
     @Override
     public void shutdown() {
         this.shutdown = true;
+        if (this.artifactUploader != null) {
+            this.artifactUploader.shutdown();
+        }
+
         try {
             flushLogCache();
         } catch (ResultArchiveStoreException e) {
@@ -344,17 +478,75 @@ public class CouchdbRasStore extends CouchdbStore implements IResultArchiveStore
         return this.gson;
     }
 
-    public void updateArtifactDocumentRev(String newArtifactDocumentRev) {
-        this.artifactDocumentRev = newArtifactDocumentRev;
+    public CouchdbArtifactUploader getArtifactUploader() {
+        return this.artifactUploader;
+    }
+
+    /**
+     * The number of runs to ask couchdb for in each page when listing runs, from
+     * the couchdb.run.query.page.size CPS property
+     *
+     * @return the page size
+     */
+    public synchronized int getRunQueryPageSize() {
+        if (this.runQueryPageSize < 1) {
+            int pageSize = getCpsIntValue(CpsPropertyDef.RUN_QUERY_PAGE_SIZE);
+            if (pageSize < 1) {
+                pageSize = DEFAULT_RUN_QUERY_PAGE_SIZE;
+            }
+            this.runQueryPageSize = pageSize;
+        }
+        return this.runQueryPageSize;
+    }
+
+    /**
+     * The client keeps a pool of connections to couchdb, sized from the
+     * couchdb.connection.pool.size CPS property. The pool always has room for
+     * every artifact upload thread and a couple more, so the uploads cannot stop
+     * the run document and log from being written.
+     */
+    private static CloseableHttpClient createHttpClient(IFramework framework, HttpClientFactory httpFactory, Log logger) {
+        int connections = getCpsIntValue(framework, CpsPropertyDef.CONNECTION_POOL_SIZE, logger);
+        if (connections < 1) {
+            connections = DEFAULT_CONNECTION_POOL_SIZE;
+        }
+        connections = Math.max(connections, getCpsIntValue(framework, CpsPropertyDef.ARTIFACT_UPLOAD_THREADS, logger) + 2);
+
+        return httpFactory.createClient(connections, CONNECTION_REQUEST_TIMEOUT_MS);
+    }
+
+    private int getCpsIntValue(CpsPropertyDef property) {
+        return getCpsIntValue(this.framework, property, this.logger);
+    }
+
+    // Settings that cannot be read are left at their defaults
+    private static int getCpsIntValue(IFramework framework, CpsPropertyDef property, Log logger) {
+        try {
+            IConfigurationPropertyStoreService cps = framework.getConfigurationPropertyService(property.getNamespace());
+            if (cps != null) {
+                return property.getCpsIntValue(logger, cps);
+            }
+        } catch (ConfigurationPropertyStoreException | CouchdbRasException | NumberFormatException e) {
+            logger.warn("Unable to read the couchdb setting " + property.getPropertyName() + ", using the default", e);
+        }
+        return 0;
     }
 
     @Override
     public @NotNull List<IResultArchiveStoreDirectoryService> getDirectoryServices() {
         ArrayList<IResultArchiveStoreDirectoryService> dirs = new ArrayList<>();
-        dirs.add(new CouchdbDirectoryService(this, this.logFactory, this.httpRequestFactory));
+        dirs.add(getDirectoryService());
         return dirs;
     }
 
+    // Every run result refers back to the directory service, so share the one instance
+    protected synchronized CouchdbDirectoryService getDirectoryService() {
+        if (this.directoryService == null) {
+            this.directoryService = new CouchdbDirectoryService(this, this.logFactory, this.httpRequestFactory);
+        }
+        return this.directoryService;
+    }
+
     @Override
     public String calculateRasRunId() {
 
@@ -6,10 +6,8 @@
 package dev.galasa.ras.couchdb.internal;
 
 import java.io.IOException;
-import java.net.URLEncoder;
 import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
-import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
@@ -17,31 +15,15 @@ import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileAttribute;
 import java.util.Set;
 
-import org.apache.commons.logging.Log;
-import org.apache.http.HttpEntity;
-import org.apache.http.HttpStatus;
-import org.apache.http.StatusLine;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.FileEntity;
-import org.apache.http.util.EntityUtils;
-
 import dev.galasa.ResultArchiveStoreContentType;
-import dev.galasa.extensions.common.couchdb.pojos.PutPostResponse;
-import dev.galasa.extensions.common.api.HttpRequestFactory;
 
 /**
  * CouchDBRAS Byte Channel
  */
 public class CouchdbRasWriteByteChannel implements SeekableByteChannel {
 
-    private final Log                           logger;
-
-    private static final Charset                UTF8   = Charset.forName("utf-8");
-
     private final Path                          cachePath;
     private final SeekableByteChannel           cacheByteChannel;
-    private final HttpRequestFactory            requestFactory;
 
     private final Path                          remotePath;
     private final ResultArchiveStoreContentType remoteContentType;
@@ -54,12 +36,9 @@ public class CouchdbRasWriteByteChannel implements SeekableByteChannel {
             dev.galasa.extensions.common.api.LogFactory logFactory
     ) throws IOException {
 
-        this.logger = logFactory.getLog(CouchdbRasWriteByteChannel.class);
-
         this.couchdbRasStore = couchdbRasStore;
         this.couchdbRasFileSystemProvider = couchdbRasFileSystemProvider;
         this.remotePath = remotePath;
-        this.requestFactory = couchdbRasStore.getRequestFactory();
 
         if (remoteContentType != null) {
             this.remoteContentType = remoteContentType;
@@ -93,52 +72,19 @@ public class CouchdbRasWriteByteChannel implements SeekableByteChannel {
      */
     @Override
     public void close() throws IOException {
+        if (!cacheByteChannel.isOpen()) {
+            return;
+        }
         cacheByteChannel.close();
 
-        synchronized(this.getClass()) {  // Prevent multiple threads from updating the artifact document at the sametime,  only updated in this class
-
-            try {
-                String encodedRemotePath = URLEncoder.encode(this.remotePath.toString(), UTF8.name());
-
-                HttpPut request = requestFactory.getHttpPutRequest(this.couchdbRasStore.getCouchdbUri() + "/galasa_artifacts/"
-                        + this.couchdbRasStore.getArtifactDocumentId() + "/" + encodedRemotePath);
-                request.setEntity(new FileEntity(cachePath.toFile()));
-                request.setHeader("Content-Type", remoteContentType.value());
-                request.setHeader("If-Match", this.couchdbRasStore.getArtifactDocumentRev());
-
-                try (CloseableHttpResponse response = this.couchdbRasStore.getHttpClient().execute(request)) {
-                    StatusLine statusLine = response.getStatusLine();
-                    if (statusLine.getStatusCode() != HttpStatus.SC_CREATED) {
-                        if (statusLine.getStatusCode() == HttpStatus.SC_CONFLICT) {
-                            logger.error(
-                                    "The run artifact document has been updated by another engine, terminating now to avoid corruption");
-                            System.exit(0);
-                        }
-                        throw new IOException("Unable to store the artifact attachment - " + statusLine.toString());
-                    }
-                    HttpEntity entity = response.getEntity();
-                    String entityStr = EntityUtils.toString(entity);
-                    PutPostResponse putPostResponse = this.couchdbRasStore.getGson().fromJson(entityStr,PutPostResponse.class);
-                    if (putPostResponse.id == null || putPostResponse.rev == null) {
-                        throw new CouchdbRasException("Unable to store the test structure - Invalid JSON response");
-                    }
-                    this.couchdbRasStore.updateArtifactDocumentRev(putPostResponse.rev);
-                    this.couchdbRasFileSystemProvider.addPath((CouchdbArtifactPath) remotePath);
-
-                    String remotePathStr = this.remotePath.toString();
-
-                    logger.info("Stored artifact " + remotePathStr + " length=" + Files.size(cachePath) + " contentType="+ this.remoteContentType.value());
-                } catch (Exception e) {
-                    throw new IOException("Unable to store artifact attachment", e);
-                }
-
-            } finally {
-                try {
-                    Files.delete(cachePath);
-                } catch (Exception e) {
-                } // *** Hide any delete problems
-            }
+        CouchdbArtifactUploader uploader = this.couchdbRasStore.getArtifactUploader();
+        if (uploader == null) {
+            Files.deleteIfExists(cachePath);
+            throw new IOException("Unable to store artifact " + this.remotePath + " - Not a run");
         }
+
+        // The uploader deletes the cached copy once it has been stored
+        uploader.upload(cachePath, this.couchdbRasFileSystemProvider, (CouchdbArtifactPath) this.remotePath, this.remoteContentType);
     }
 
     private static final char[] HEX_ARRAY = "0123456789ABCDEF".toCharArray();
@@ -5,6 +5,8 @@
  */
 package dev.galasa.ras.couchdb.internal;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Path;
 
 import dev.galasa.extensions.common.api.LogFactory;
@@ -21,21 +23,19 @@ public class CouchdbRunResult implements IRunResult {
     private final CouchdbRasStore store;
     private final CouchdbDirectoryService storeService;
     private final CouchdbDeleteRunService deleteRunService;
+    private final LogFactory logFactory;
     private Path path;
 
     public CouchdbRunResult(CouchdbRasStore store, TestStructureCouchdb testStructure, LogFactory logFactory) {
         this.store = store;
         this.deleteRunService = new CouchdbDeleteRunService(this.store);
-        this.storeService = (CouchdbDirectoryService) store.getDirectoryServices().get(0);
+        this.storeService = store.getDirectoryService();
+        this.logFactory = logFactory;
         if (testStructure == null) {
             this.testStructure = new TestStructureCouchdb();
         } else {
             this.testStructure = testStructure;
         }
-
-        // Create an empty artifact filesystem and set the artifacts path to the root of this filesystem
-        ResultArchiveStoreFileStore fileStore = new ResultArchiveStoreFileStore();
-        this.path = new CouchdbRasFileSystemProvider(fileStore, store, logFactory).getRoot();
     }
 
     @Override
@@ -44,7 +44,12 @@ public class CouchdbRunResult implements IRunResult {
     }
 
     @Override
-    public Path getArtifactsRoot() throws ResultArchiveStoreException {
+    public synchronized Path getArtifactsRoot() throws ResultArchiveStoreException {
+        if (this.path == null) {
+            // Runs are listed in bulk, so only create the empty artifact filesystem when it is asked for
+            ResultArchiveStoreFileStore fileStore = new ResultArchiveStoreFileStore();
+            this.path = new CouchdbRasFileSystemProvider(fileStore, store, logFactory).getRoot();
+        }
         return this.path;
     }
 
@@ -53,6 +58,20 @@ public class CouchdbRunResult implements IRunResult {
         return this.store.getLog(this.testStructure);
     }
 
+    @Override
+    public void writeLog(OutputStream outputStream) throws ResultArchiveStoreException, IOException {
+        this.store.writeLog(this.testStructure, outputStream);
+    }
+
+    @Override
+    public long getLogSize() throws ResultArchiveStoreException {
+        // Runs stored before the size was kept do not have one
+        if (this.testStructure.logSize == null) {
+            return -1;
+        }
+        return this.testStructure.logSize;
+    }
+
 	@Override
 	public void discard() throws ResultArchiveStoreException {
         deleteRunService.discardRun(this.testStructure);
@@ -64,7 +83,7 @@ public class CouchdbRunResult implements IRunResult {
     }
 
     @Override
-    public void loadArtifacts() throws ResultArchiveStoreException {
+    public synchronized void loadArtifacts() throws ResultArchiveStoreException {
         this.path = storeService.getRunArtifactPath(this.testStructure);
     }
 
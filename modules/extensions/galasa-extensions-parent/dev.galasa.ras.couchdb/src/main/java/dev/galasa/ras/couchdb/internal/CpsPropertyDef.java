@@ -19,7 +19,27 @@ public enum CpsPropertyDef {
     // If true, then couchdb puts the data inline. ie: Within a json property inside the json document.
     // Default value is 0, ie: No in-lining of attachments.
     // Only applicable when ONE_ARTIFACT_PER_DOCUMENT feature flag is enabled.
-    INLINE_ARTIFACT_MAX_SIZE("couchdb","inline.artifact.max.size")
+    INLINE_ARTIFACT_MAX_SIZE("couchdb","inline.artifact.max.size"),
+
+    // The number of runs requested from couchdb in each page when listing runs.
+    // Default value is 0, which means use the built-in page size.
+    RUN_QUERY_PAGE_SIZE("couchdb","run.query.page.size"),
+
+    // The number of artifacts a run can upload at the same time.
+    // Default value is 0, ie: Upload each artifact on the thread that closes it.
+    ARTIFACT_UPLOAD_THREADS("couchdb","artifact.upload.threads"),
+
+    // The most artifact documents a run spreads its artifacts over, so that uploads do not wait on each other.
+    // Default value is 0, ie: The same as the number of upload threads.
+    ARTIFACT_UPLOAD_DOCUMENTS("couchdb","artifact.upload.documents"),
+
+    // Artifacts of at least this many bytes are sent to couchdb gzip encoded, couchdb decodes them when they are read.
+    // Default value is 0, ie: No artifacts are gzip encoded.
+    ARTIFACT_UPLOAD_GZIP_MIN_SIZE("couchdb","artifact.upload.gzip.min.size"),
+
+    // The most connections kept open to couchdb, which is the most requests and artifact downloads in flight at once.
+    // Default value is 0, ie: 20, and never fewer than the number of upload threads plus 2.
+    CONNECTION_POOL_SIZE("couchdb","connection.pool.size")
     ;
 
     private String namespace;
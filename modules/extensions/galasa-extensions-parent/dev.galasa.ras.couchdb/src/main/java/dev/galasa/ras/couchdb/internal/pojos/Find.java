@@ -5,15 +5,18 @@
  */
 package dev.galasa.ras.couchdb.internal.pojos;
 
+import java.util.List;
+
 import com.google.gson.JsonArray;
 
 public class Find {
 
-    public Object    selector;
-    public JsonArray sort;
-    public Integer   limit;
-    public Integer   skip;
-    public Boolean   execution_stats;
-    public String    bookmark;
+    public Object       selector;
+    public List<String> fields;
+    public JsonArray    sort;
+    public Integer      limit;
+    public Integer      skip;
+    public Boolean      execution_stats;
+    public String       bookmark;
 
 }
@@ -0,0 +1,14 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.ras.couchdb.internal.pojos;
+
+public class LogLinesRow {
+
+    public String   key;   // NOSONAR
+    public String   error; // NOSONAR
+    public LogLines doc;   // NOSONAR
+
+}
@@ -12,4 +12,7 @@ public class TestStructureCouchdb extends TestStructure {
     public String _id;  // NOSONAR
     public String _rev; // NOSONAR
 
+    // The number of bytes in the run log, not set for runs stored before it was kept
+    public Long logSize;
+
 }
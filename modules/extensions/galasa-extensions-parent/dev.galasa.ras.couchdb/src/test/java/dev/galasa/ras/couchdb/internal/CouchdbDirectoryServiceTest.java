@@ -13,6 +13,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import javax.validation.constraints.NotNull;
 
@@ -30,6 +31,7 @@ import dev.galasa.extensions.common.mocks.BaseHttpInteraction;
 import dev.galasa.extensions.common.mocks.HttpInteraction;
 import dev.galasa.extensions.common.mocks.MockAsyncCloseableHttpClient;
 import dev.galasa.extensions.common.mocks.MockCloseableHttpClient;
+import dev.galasa.extensions.common.mocks.cps.MockConfigurationPropertyStoreService;
 import dev.galasa.framework.TestRunLifecycleStatus;
 import dev.galasa.framework.spi.IRunResult;
 import dev.galasa.framework.spi.ResultArchiveStoreException;
@@ -161,18 +163,15 @@ public class CouchdbDirectoryServiceTest extends BaseCouchdbOperationTest {
         findRunsResponsePage2.docs = List.of(mockRun3);
         findRunsResponsePage2.bookmark = "bookmark2";
 
-        FoundRuns emptyRunsResponse = new FoundRuns();
-        emptyRunsResponse.docs = new ArrayList<>();
-
         String expectedUri = "http://my.uri/galasa_run/_find";
         List<HttpInteraction> interactions = List.of(
-            new PostCouchdbFindRunsInteraction(expectedUri, findRunsResponsePage1, "queued", "$gte", queuedFromTime.toString()),
-            new PostCouchdbFindRunsInteraction(expectedUri, findRunsResponsePage2, "queued", "$gte", queuedFromTime.toString(), findRunsResponsePage1.bookmark),
-            new PostCouchdbFindRunsInteraction(expectedUri, emptyRunsResponse, "queued", "$gte", queuedFromTime.toString(), findRunsResponsePage2.bookmark)
+            new PostCouchdbFindRunsInteraction(expectedUri, findRunsResponsePage1, "queued", "$gte", queuedFromTime.toString(), "\"limit\": 2"),
+            new PostCouchdbFindRunsInteraction(expectedUri, findRunsResponsePage2, "queued", "$gte", queuedFromTime.toString(), findRunsResponsePage1.bookmark)
         );
 
         MockLogFactory mockLogFactory = new MockLogFactory();
-        CouchdbRasStore mockRasStore = fixtures.createCouchdbRasStore(interactions, mockLogFactory);
+        MockConfigurationPropertyStoreService mockCps = new MockConfigurationPropertyStoreService(Map.of("run.query.page.size", "2"));
+        CouchdbRasStore mockRasStore = fixtures.createCouchdbRasStore(mockCps, null, mockLogFactory, new MockCloseableHttpClient(interactions));
         CouchdbDirectoryService directoryService = new CouchdbDirectoryService(mockRasStore, mockLogFactory, new HttpRequestFactoryImpl());
 
         // When...
@@ -697,4 +696,100 @@ public class CouchdbDirectoryServiceTest extends BaseCouchdbOperationTest {
         assertThat((TestStructureCouchdb)run.getTestStructure()).usingRecursiveComparison().isEqualTo(mockRun1);
         assertThat((String)run.getTestStructure().getGroup()).isEqualTo(groupName);
     }
+
+    //------------------------------------------
+    //
+    // Tests for getting all runs
+    //
+    //------------------------------------------
+
+    private ViewResponse createAllDocsResponse(TestStructureCouchdb... runs) {
+        List<ViewRow> rows = new ArrayList<>();
+        for (TestStructureCouchdb run : runs) {
+            ViewRow row = new ViewRow();
+            row.id = run._id;
+            row.key = run._id;
+            row.doc = run;
+            rows.add(row);
+        }
+
+        ViewResponse response = new ViewResponse();
+        response.rows = rows;
+        return response;
+    }
+
+    @Test
+    public void testGetRunsWithNoCriteriaPagesThroughAllDocsIncludingTheDocuments() throws Exception {
+        // Given...
+        TestStructureCouchdb mockRun1 = createRunTestStructure("run1-id", "run1", "none");
+        TestStructureCouchdb mockRun2 = createRunTestStructure("run2-id", "run2", "none");
+        TestStructureCouchdb mockRun3 = createRunTestStructure("run3-id", "run3", "none");
+
+        String allDocsUri = "http://my.uri/" + CouchdbRasStore.RUNS_DB + "/_all_docs?include_docs=true&limit=2";
+
+        // Each page is fetched with its documents, so there are no requests for the individual runs
+        List<HttpInteraction> interactions = List.of(
+            new GetRunsFromCouchdbViewInteraction(allDocsUri, HttpStatus.SC_OK, createAllDocsResponse(mockRun1, mockRun2)),
+            new GetRunsFromCouchdbViewInteraction(allDocsUri + "&startkey=%22run2-id%22&skip=1", HttpStatus.SC_OK, createAllDocsResponse(mockRun3))
+        );
+
+        MockLogFactory mockLogFactory = new MockLogFactory();
+        MockConfigurationPropertyStoreService mockCps = new MockConfigurationPropertyStoreService(Map.of("run.query.page.size", "2"));
+        CouchdbRasStore mockRasStore = fixtures.createCouchdbRasStore(mockCps, null, mockLogFactory, new MockCloseableHttpClient(interactions));
+        CouchdbDirectoryService directoryService = new CouchdbDirectoryService(mockRasStore, mockLogFactory, new HttpRequestFactoryImpl());
+
+        // When...
+        List<IRunResult> runs = directoryService.getRuns();
+
+        // Then...
+        assertThat(runs).hasSize(3);
+        assertThat(runs.get(0).getRunId()).isEqualTo("cdb-run1-id");
+        assertThat(runs.get(1).getTestStructure().getRunName()).isEqualTo(mockRun2.getRunName());
+        assertThat(runs.get(2).getTestStructure().getRunName()).isEqualTo(mockRun3.getRunName());
+    }
+
+    @Test
+    public void testGetRunsWithNoCriteriaAndBadResponseThrowsError() throws Exception {
+        // Given...
+        String allDocsUri = "http://my.uri/" + CouchdbRasStore.RUNS_DB + "/_all_docs?include_docs=true&limit=100";
+        List<HttpInteraction> interactions = List.of(
+            new GetRunsFromCouchdbViewInteraction(allDocsUri, HttpStatus.SC_OK, new ViewResponse())
+        );
+
+        MockLogFactory mockLogFactory = new MockLogFactory();
+        CouchdbRasStore mockRasStore = fixtures.createCouchdbRasStore(interactions, mockLogFactory);
+        CouchdbDirectoryService directoryService = new CouchdbDirectoryService(mockRasStore, mockLogFactory, new HttpRequestFactoryImpl());
+
+        // When...
+        CouchdbRasException thrown = catchThrowableOfType(() -> directoryService.getRuns(), CouchdbRasException.class);
+
+        // Then...
+        assertThat(thrown).isNotNull();
+        assertThat(thrown.getMessage()).contains("Invalid JSON response");
+    }
+
+    @Test
+    public void testGetRunsPageOnlyAsksForTheSummaryFields() throws Exception {
+        // Given...
+        TestStructureCouchdb mockRun1 = createRunTestStructure("run1-id", "run1", "none");
+
+        FoundRuns findRunsResponse = new FoundRuns();
+        findRunsResponse.docs = List.of(mockRun1);
+
+        String expectedUri = "http://my.uri/galasa_run/_find";
+        List<HttpInteraction> interactions = List.of(
+            new PostCouchdbFindRunsInteraction(expectedUri, findRunsResponse, "\"fields\": [", "\"runName\"", "\"logRecordIds\"", "\"artifactRecordIds\"")
+        );
+
+        MockLogFactory mockLogFactory = new MockLogFactory();
+        CouchdbRasStore mockRasStore = fixtures.createCouchdbRasStore(interactions, mockLogFactory);
+        CouchdbDirectoryService directoryService = new CouchdbDirectoryService(mockRasStore, mockLogFactory, new HttpRequestFactoryImpl());
+
+        // When...
+        RasRunResultPage runsPage = directoryService.getRunsPage(10, null, null, new RasSearchCriteriaRunName("run1"));
+
+        // Then...
+        assertThat(runsPage.getRuns()).hasSize(1);
+        assertThat(runsPage.getNextCursor()).isNull();
+    }
 }
@@ -8,11 +8,16 @@ package dev.galasa.ras.couchdb.internal;
 import static org.assertj.core.api.Assertions.*;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpHost;
@@ -73,13 +78,22 @@ public class CouchdbRasFileSystemProviderTest {
             HttpEntity entity = ((HttpEntityEnclosingRequest)request).getEntity();
             String content ;
             try {
-                content = EntityUtils.toString(entity);
+                content = readContent(request, entity);
             } catch (IOException ex ) {
                 throw new RuntimeException("Failed to read content from request."+ request.getRequestLine().getUri());
             }
             assertThat(content).isEqualTo(CouchdbTestFixtures.ATTACHMENT_CONTENT1);
         }
 
+        protected String readContent(HttpRequest request, HttpEntity entity) throws IOException {
+            assertThat(request.containsHeader("Content-Encoding")).isFalse();
+            return EntityUtils.toString(entity);
+        }
+
+        protected int getResponseStatusCode() {
+            return HttpStatus.SC_CREATED;
+        }
+
         @Override
         public MockCloseableHttpResponse getResponse() {
 
@@ -96,7 +110,7 @@ public class CouchdbRasFileSystemProviderTest {
             MockCloseableHttpResponse response = new MockCloseableHttpResponse();
 
             MockStatusLine statusLine = new MockStatusLine();
-            statusLine.setStatusCode(HttpStatus.SC_CREATED);
+            statusLine.setStatusCode(getResponseStatusCode());
             response.setStatusLine(statusLine);
             response.setEntity(entity);
 
@@ -104,7 +118,65 @@ public class CouchdbRasFileSystemProviderTest {
         }
     }
 
+    public static class PutArtifactConflictInteraction extends PutArtifactInteraction {
+
+        public PutArtifactConflictInteraction(String rasUriStr , String expectedDocumentIdSentToServer, String expectedDocumentRevSentToServer, String testFileNameToCreate) {
+            super(rasUriStr, expectedDocumentIdSentToServer, expectedDocumentRevSentToServer, null, testFileNameToCreate);
+        }
+
+        @Override
+        protected int getResponseStatusCode() {
+            return HttpStatus.SC_CONFLICT;
+        }
+    }
+
+    public static class PutGzipArtifactInteraction extends PutArtifactInteraction {
+
+        public PutGzipArtifactInteraction(String rasUriStr , String expectedDocumentIdSentToServer, String expectedDocumentRevSentToServer, String returnedDocumentRev , String testFileNameToCreate) {
+            super(rasUriStr, expectedDocumentIdSentToServer, expectedDocumentRevSentToServer, returnedDocumentRev, testFileNameToCreate);
+        }
+
+        @Override
+        protected String readContent(HttpRequest request, HttpEntity entity) throws IOException {
+            assertThat(request.getHeaders("Content-Encoding")[0].getValue()).isEqualTo("gzip");
+            try (GZIPInputStream in = new GZIPInputStream(entity.getContent())) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    public static class HeadArtifactDocumentInteraction extends BaseHttpInteraction {
+
+        public HeadArtifactDocumentInteraction(String rasUriStr, String documentId, String returnedDocumentRev) {
+            super(rasUriStr, documentId, returnedDocumentRev);
+        }
+
+        @Override
+        public void validateRequest(HttpHost host, HttpRequest request) throws RuntimeException {
+            assertThat(host.toString()).isEqualTo(getRasUriStr());
+            assertThat(request.getRequestLine().getMethod()).isEqualTo("HEAD");
+            assertThat(request.getRequestLine().getUri()).isEqualTo(getRasUriStr()+"/galasa_artifacts/"+getDocumentId());
+        }
 
+        @Override
+        public MockCloseableHttpResponse getResponse() {
+            MockCloseableHttpResponse response = new MockCloseableHttpResponse() {
+                @Override
+                public Header getFirstHeader(String name) {
+                    if (name.equals("ETag")) {
+                        return new MockHttpHeader("ETag", "\"" + getReturnedDocumentRev() + "\"");
+                    }
+                    return null;
+                }
+            };
+
+            MockStatusLine statusLine = new MockStatusLine();
+            statusLine.setStatusCode(HttpStatus.SC_OK);
+            response.setStatusLine(statusLine);
+
+            return response;
+        }
+    }
 
     @Test 
     public void TestFileCloseCausesCouchDBArtifactToBeSaved() throws Exception {
@@ -178,4 +250,78 @@ public class CouchdbRasFileSystemProviderTest {
         Files.write(testFilePath, fileContent.getBytes(), StandardOpenOption.CREATE);
     }
 
+
+    @Test
+    public void TestConflictingArtifactUploadIsRetriedWithTheLatestRevision() throws Exception {
+
+        // Given...
+        String testFileNameToCreate = testName.getMethodName();
+
+        List<HttpInteraction> interactions = new ArrayList<HttpInteraction>();
+        interactions.add( new CreateTestDocInteractionOK(CouchdbTestFixtures.rasUriStr , CouchdbTestFixtures.documentId1, CouchdbTestFixtures.documentRev1) );
+        interactions.add( new CreateArtifactDocInteractionOK(CouchdbTestFixtures.rasUriStr , CouchdbTestFixtures.ARTIFACT_DOCUMENT_ID_1, "124") );
+        // The artifact document has moved on to another revision, so the first upload is rejected...
+        interactions.add( new PutArtifactConflictInteraction( CouchdbTestFixtures.rasUriStr , CouchdbTestFixtures.ARTIFACT_DOCUMENT_ID_1, "124", testFileNameToCreate) ) ;
+        // ...the latest revision is read...
+        interactions.add( new HeadArtifactDocumentInteraction( CouchdbTestFixtures.rasUriStr , CouchdbTestFixtures.ARTIFACT_DOCUMENT_ID_1, "130") ) ;
+        // ...and the upload is sent again with it
+        interactions.add( new PutArtifactInteraction( CouchdbTestFixtures.rasUriStr , CouchdbTestFixtures.ARTIFACT_DOCUMENT_ID_1, "130", "131", testFileNameToCreate) ) ;
+
+        MockLogFactory mockLogFactory = new MockLogFactory();
+        CouchdbRasStore couchdbStore = fixtures.createCouchdbRasStore(null,interactions, mockLogFactory);
+
+        // When...
+        createFile(couchdbStore, testFileNameToCreate, CouchdbTestFixtures.ATTACHMENT_CONTENT1);
+
+        // Then...
+        assertThat(mockLogFactory.toString()).contains("Stored artifact /" + testFileNameToCreate);
+    }
+
+    @Test
+    public void TestArtifactAboveTheGzipSizeIsSentGzipEncoded() throws Exception {
+
+        // Given...
+        String testFileNameToCreate = testName.getMethodName();
+
+        List<HttpInteraction> interactions = new ArrayList<HttpInteraction>();
+        interactions.add( new CreateTestDocInteractionOK(CouchdbTestFixtures.rasUriStr , CouchdbTestFixtures.documentId1, CouchdbTestFixtures.documentRev1) );
+        interactions.add( new CreateArtifactDocInteractionOK(CouchdbTestFixtures.rasUriStr , CouchdbTestFixtures.ARTIFACT_DOCUMENT_ID_1, "124") );
+        interactions.add( new PutGzipArtifactInteraction( CouchdbTestFixtures.rasUriStr , CouchdbTestFixtures.ARTIFACT_DOCUMENT_ID_1, "124", "125", testFileNameToCreate) ) ;
+
+        Map<String,String> props = Map.of("artifact.upload.gzip.min.size", "5");
+
+        MockLogFactory mockLogFactory = new MockLogFactory();
+        CouchdbRasStore couchdbStore = fixtures.createCouchdbRasStore(props,interactions, mockLogFactory);
+
+        // When...
+        createFile(couchdbStore, testFileNameToCreate, CouchdbTestFixtures.ATTACHMENT_CONTENT1);
+
+        // Then...
+        assertThat(mockLogFactory.toString()).contains("encoding=gzip");
+    }
+
+    @Test
+    public void TestArtifactsAreUploadedInTheBackgroundWhenThereAreUploadThreads() throws Exception {
+
+        // Given...
+        String testFileNameToCreate = testName.getMethodName();
+
+        List<HttpInteraction> interactions = new ArrayList<HttpInteraction>();
+        interactions.add( new CreateTestDocInteractionOK(CouchdbTestFixtures.rasUriStr , CouchdbTestFixtures.documentId1, CouchdbTestFixtures.documentRev1) );
+        interactions.add( new CreateArtifactDocInteractionOK(CouchdbTestFixtures.rasUriStr , CouchdbTestFixtures.ARTIFACT_DOCUMENT_ID_1, "124") );
+        interactions.add( new PutArtifactInteraction( CouchdbTestFixtures.rasUriStr , CouchdbTestFixtures.ARTIFACT_DOCUMENT_ID_1, "124", "125", testFileNameToCreate) ) ;
+
+        Map<String,String> props = Map.of("artifact.upload.threads", "4", "artifact.upload.documents", "1");
+
+        MockLogFactory mockLogFactory = new MockLogFactory();
+        CouchdbRasStore couchdbStore = fixtures.createCouchdbRasStore(props,interactions, mockLogFactory);
+
+        // When...
+        createFile(couchdbStore, testFileNameToCreate, CouchdbTestFixtures.ATTACHMENT_CONTENT1);
+        couchdbStore.getArtifactUploader().shutdown();
+
+        // Then...
+        assertThat(mockLogFactory.toString()).contains("Stored artifact /" + testFileNameToCreate);
+    }
+
 }
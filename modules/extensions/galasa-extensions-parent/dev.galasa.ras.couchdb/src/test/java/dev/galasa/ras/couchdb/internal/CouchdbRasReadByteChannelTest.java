@@ -0,0 +1,125 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.ras.couchdb.internal;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import dev.galasa.extensions.common.impl.HttpClientFactoryImpl;
+import dev.galasa.ras.couchdb.internal.mocks.CouchdbTestFixtures;
+import dev.galasa.ras.couchdb.internal.mocks.MockLogFactory;
+
+public class CouchdbRasReadByteChannelTest {
+
+    private static final String FIRST_PART  = "The first part of the artifact,";
+    private static final String SECOND_PART = " and the rest of it.";
+
+    private static final int    DOWNLOADS   = 4;
+
+    private CouchdbTestFixtures fixtures = new CouchdbTestFixtures();
+
+    private HttpServer          server;
+    private ExecutorService     serverThreads;
+    private CountDownLatch      sendTheRest = new CountDownLatch(1);
+
+    // Sends the first part of the attachment straight away, and the rest only when the test says so
+    @Before
+    public void startServer() throws Exception {
+        this.serverThreads = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.setExecutor(this.serverThreads);
+        this.server.createContext("/galasa_artifacts", exchange -> {
+            byte[] first = FIRST_PART.getBytes(StandardCharsets.UTF_8);
+            byte[] second = SECOND_PART.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, first.length + second.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(first);
+                body.flush();
+                sendTheRest.await(30, TimeUnit.SECONDS);
+                body.write(second);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        this.server.start();
+    }
+
+    @After
+    public void stopServer() {
+        this.sendTheRest.countDown();
+        this.server.stop(0);
+        this.serverThreads.shutdownNow();
+    }
+
+    private String readAll(CouchdbRasReadByteChannel channel, ByteArrayOutputStream alreadyRead) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            alreadyRead.write(buffer.array(), 0, buffer.limit());
+            buffer.clear();
+        }
+        return alreadyRead.toString(StandardCharsets.UTF_8.name());
+    }
+
+    @Test
+    public void testMoreThanTwoArtifactsCanBeDownloadedAtOnce() throws Exception {
+        // Given...
+        CouchdbRasStore store = fixtures.createCouchdbRasStore(new MockLogFactory(), new HttpClientFactoryImpl());
+        int size = FIRST_PART.length() + SECOND_PART.length();
+        String baseUri = "http://localhost:" + this.server.getAddress().getPort() + "/galasa_artifacts/";
+
+        CountDownLatch allStarted = new CountDownLatch(DOWNLOADS);
+        ExecutorService downloadThreads = Executors.newFixedThreadPool(DOWNLOADS);
+
+        // When...
+        List<Future<String>> downloads = new ArrayList<>();
+        for (int i = 0; i < DOWNLOADS; i++) {
+            String attachmentUri = baseUri + "artifact" + i;
+            downloads.add(downloadThreads.submit(() -> {
+                try (CouchdbRasReadByteChannel channel = new CouchdbRasReadByteChannel(store, attachmentUri, size)) {
+                    ByteArrayOutputStream content = new ByteArrayOutputStream();
+                    ByteBuffer buffer = ByteBuffer.allocate(FIRST_PART.length());
+                    channel.read(buffer);
+                    content.write(buffer.array(), 0, buffer.position());
+                    allStarted.countDown();
+                    return readAll(channel, content);
+                }
+            }));
+        }
+
+        boolean allDownloadsStarted = allStarted.await(10, TimeUnit.SECONDS);
+        sendTheRest.countDown();
+
+        // Then...
+        try {
+            assertThat(allDownloadsStarted).as("Every download should have a connection at the same time").isTrue();
+            for (Future<String> download : downloads) {
+                assertThat(download.get(10, TimeUnit.SECONDS)).isEqualTo(FIRST_PART + SECOND_PART);
+            }
+        } finally {
+            downloadThreads.shutdownNow();
+            store.shutdown();
+        }
+    }
+}
@@ -5,17 +5,115 @@
  */
 package dev.galasa.ras.couchdb.internal;
 
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.util.EntityUtils;
 import org.junit.Test;
 
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import dev.galasa.extensions.common.couchdb.pojos.PutPostResponse;
+import dev.galasa.extensions.common.mocks.BaseHttpInteraction;
+import dev.galasa.extensions.common.mocks.HttpInteraction;
+import dev.galasa.framework.spi.ResultArchiveStoreException;
+import dev.galasa.framework.spi.teststructure.TestStructure;
 import dev.galasa.ras.couchdb.internal.mocks.CouchdbTestFixtures;
+import dev.galasa.ras.couchdb.internal.mocks.MockLogFactory;
+import dev.galasa.ras.couchdb.internal.pojos.LogLines;
+import dev.galasa.ras.couchdb.internal.pojos.LogLinesRow;
+import dev.galasa.ras.couchdb.internal.pojos.TestStructureCouchdb;
 
 public class CouchdbRasStoreTest {
-    
 
-    CouchdbTestFixtures fixtures = new CouchdbTestFixtures();    
 
-        
-    // Creating the Ras store causes the test structure in the couchdb 
+    CouchdbTestFixtures fixtures = new CouchdbTestFixtures();
+
+    class PostLogAllDocsInteraction extends BaseHttpInteraction {
+
+        private String[] expectedLogRecordIds;
+
+        public PostLogAllDocsInteraction(Object allDocsResponse, String... expectedLogRecordIds) {
+            super(CouchdbTestFixtures.rasUriStr + "/galasa_log/_all_docs?include_docs=true", allDocsResponse);
+            this.expectedLogRecordIds = expectedLogRecordIds;
+        }
+
+        @Override
+        public void validateRequest(HttpHost host, HttpRequest request) throws RuntimeException {
+            super.validateRequest(host,request);
+            assertThat(request.getRequestLine().getMethod()).isEqualTo("POST");
+            try {
+                String requestBody = EntityUtils.toString(((HttpPost) request).getEntity());
+                assertThat(requestBody).contains(expectedLogRecordIds);
+            } catch (IOException ex) {
+                fail("Failed to parse POST request body");
+            }
+        }
+    }
+
+    class PostLogRecordInteraction extends BaseHttpInteraction {
+
+        public PostLogRecordInteraction(String logRecordId) {
+            super(CouchdbTestFixtures.rasUriStr + "/galasa_log", createPutPostResponse(logRecordId), HttpStatus.SC_CREATED);
+        }
+    }
+
+    class PutRunDocumentInteraction extends BaseHttpInteraction {
+
+        private JsonObject runDocument;
+
+        public PutRunDocumentInteraction() {
+            super(CouchdbTestFixtures.rasUriStr + "/galasa_run/" + CouchdbTestFixtures.documentId1, createPutPostResponse(CouchdbTestFixtures.documentId1), HttpStatus.SC_CREATED);
+        }
+
+        @Override
+        public void validateRequest(HttpHost host, HttpRequest request) throws RuntimeException {
+            super.validateRequest(host,request);
+            assertThat(request.getRequestLine().getMethod()).isEqualTo("PUT");
+            try {
+                String requestBody = EntityUtils.toString(((HttpPut) request).getEntity());
+                runDocument = JsonParser.parseString(requestBody).getAsJsonObject();
+            } catch (IOException ex) {
+                fail("Failed to parse PUT request body");
+            }
+        }
+
+        public JsonObject getRunDocument() {
+            return this.runDocument;
+        }
+    }
+
+    private PutPostResponse createPutPostResponse(String id) {
+        PutPostResponse response = new PutPostResponse();
+        response.id = id;
+        response.rev = "125";
+        response.ok = true;
+        return response;
+    }
+
+    class AllDocsResponse {
+        List<LogLinesRow> rows = new ArrayList<>();
+    }
+
+    private LogLinesRow createLogRow(String logRecordId, String... lines) {
+        LogLinesRow row = new LogLinesRow();
+        row.key = logRecordId;
+        row.doc = new LogLines();
+        row.doc.lines = List.of(lines);
+        return row;
+    }
+
+    // Creating the Ras store causes the test structure in the couchdb
     @Test
     public void TestCanCreateCouchdbRasStoreOK() throws Exception {
 
@@ -23,4 +121,93 @@ public class CouchdbRasStoreTest {
         fixtures.createCouchdbRasStore(null);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testGetLogFetchesAllLogRecordsInOneRequest() throws Exception {
+        // Given...
+        AllDocsResponse allDocs = new AllDocsResponse();
+        allDocs.rows.add(createLogRow("log1", "first line", "second line"));
+        allDocs.rows.add(createLogRow("log2", "third line"));
+
+        List<HttpInteraction> interactions = new ArrayList<>();
+        interactions.add(new PostLogAllDocsInteraction(allDocs, "log1", "log2"));
+
+        CouchdbRasStore store = fixtures.createCouchdbRasStore(interactions, new MockLogFactory());
+
+        TestStructure testStructure = new TestStructure();
+        testStructure.setLogRecordIds(List.of("log1", "log2"));
+
+        // When...
+        String log = store.getLog(testStructure);
+
+        // Then...
+        assertThat(log).isEqualTo("first line\nsecond line\nthird line");
+    }
+
+    @Test
+    public void testGetLogWithMissingLogRecordThrowsError() throws Exception {
+        // Given...
+        LogLinesRow missingRow = new LogLinesRow();
+        missingRow.key = "log2";
+        missingRow.error = "not_found";
+
+        AllDocsResponse allDocs = new AllDocsResponse();
+        allDocs.rows.add(createLogRow("log1", "first line"));
+        allDocs.rows.add(missingRow);
+
+        List<HttpInteraction> interactions = new ArrayList<>();
+        interactions.add(new PostLogAllDocsInteraction(allDocs, "log1", "log2"));
+
+        CouchdbRasStore store = fixtures.createCouchdbRasStore(interactions, new MockLogFactory());
+
+        TestStructure testStructure = new TestStructure();
+        testStructure.setLogRecordIds(List.of("log1", "log2"));
+
+        // When...
+        Throwable thrown = catchThrowable(() -> store.getLog(testStructure));
+
+        // Then...
+        assertThat(thrown).isInstanceOf(ResultArchiveStoreException.class).hasMessageContaining("log2");
+    }
+
+    @Test
+    public void testRunDocumentKeepsTheSizeOfTheRunLog() throws Exception {
+        // Given...
+        List<String> lines = new ArrayList<>();
+        lines.add("");
+        for (int i = 1; i < 100; i++) {
+            lines.add("line " + i + " \u00e9");
+        }
+
+        List<HttpInteraction> interactions = new ArrayList<>();
+        interactions.add(new CouchdbTestFixtures.CreateTestDocInteractionOK(CouchdbTestFixtures.rasUriStr, CouchdbTestFixtures.documentId1, "124"));
+        interactions.add(new CouchdbTestFixtures.CreateArtifactDocInteractionOK(CouchdbTestFixtures.rasUriStr, CouchdbTestFixtures.documentId1, "124"));
+        interactions.add(new PostLogRecordInteraction("log1"));
+        PutRunDocumentInteraction putRunDocument = new PutRunDocumentInteraction();
+        interactions.add(putRunDocument);
+
+        CouchdbRasStore store = fixtures.createCouchdbRasStore(null, interactions, new MockLogFactory());
+
+        // When...
+        store.writeLog(lines);
+
+        // Then...
+        // The leading empty line is not part of the log that is read back
+        String expectedLog = String.join("\n", lines.subList(1, lines.size()));
+        assertThat(putRunDocument.getRunDocument().get("logSize").getAsLong())
+            .isEqualTo(expectedLog.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    public void testRunStoredWithoutALogSizeHasAnUnknownLogSize() throws Exception {
+        // Given...
+        CouchdbRasStore store = fixtures.createCouchdbRasStore(new ArrayList<>(), new MockLogFactory());
+        TestStructureCouchdb testStructure = new TestStructureCouchdb();
+
+        // When...
+        CouchdbRunResult runResult = new CouchdbRunResult(store, testStructure, new MockLogFactory());
+
+        // Then...
+        assertThat(runResult.getLogSize()).isEqualTo(-1);
+    }
+
+}
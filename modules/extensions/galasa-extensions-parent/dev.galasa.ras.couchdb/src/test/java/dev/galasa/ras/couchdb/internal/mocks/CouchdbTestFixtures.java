@@ -27,6 +27,7 @@ import org.apache.http.util.EntityUtils;
 
 import dev.galasa.extensions.common.couchdb.pojos.PutPostResponse;
 import dev.galasa.extensions.common.impl.HttpRequestFactoryImpl;
+import dev.galasa.extensions.common.api.HttpClientFactory;
 import dev.galasa.extensions.common.api.HttpRequestFactory;
 import dev.galasa.extensions.common.mocks.*;
 import dev.galasa.extensions.common.mocks.cps.MockConfigurationPropertyStoreService;
@@ -234,11 +235,24 @@ public class CouchdbTestFixtures {
         return createCouchdbRasStore(null, null, logFactory, httpClient);
     }
 
+    public CouchdbRasStore createCouchdbRasStore(MockLogFactory logFactory, HttpClientFactory httpClientFactory) throws Exception {
+        return createCouchdbRasStore(null, null, logFactory, httpClientFactory);
+    }
+
     public CouchdbRasStore createCouchdbRasStore(
         MockConfigurationPropertyStoreService mockCps,
         IRun mockRun,
         MockLogFactory logFactory,
         CloseableHttpClient httpClient
+    ) throws Exception {
+        return createCouchdbRasStore(mockCps, mockRun, logFactory, new MockHttpClientFactory(httpClient));
+    }
+
+    public CouchdbRasStore createCouchdbRasStore(
+        MockConfigurationPropertyStoreService mockCps,
+        IRun mockRun,
+        MockLogFactory logFactory,
+        HttpClientFactory httpClientFactory
     ) throws Exception {
         IFramework mockFramework = new MockFramework() {
             @Override
@@ -255,12 +269,10 @@ public class CouchdbTestFixtures {
 
         MockCouchdbValidator mockValidator = new MockCouchdbValidator();
 
-        MockHttpClientFactory mockHttpClientFactory = new MockHttpClientFactory(httpClient);
-
         HttpRequestFactory requestFactory = new HttpRequestFactoryImpl("Basic", "myrastoken");
 
         URI rasURI = URI.create("couchdb:"+rasUriStr);
-        CouchdbRasStore couchdbRasStore = new CouchdbRasStore(mockFramework, rasURI, mockHttpClientFactory, mockValidator, logFactory, requestFactory);
+        CouchdbRasStore couchdbRasStore = new CouchdbRasStore(mockFramework, rasURI, httpClientFactory, mockValidator, logFactory, requestFactory);
 
         return couchdbRasStore;
     }
@@ -94,12 +94,12 @@ public class MockHttpServletResponse implements HttpServletResponse {
 
     @Override
     public void setContentLength(int len) {
-        throw new UnsupportedOperationException("Unimplemented method 'setContentLength'");
+        setContentLengthLong(len);
     }
 
     @Override
     public void setContentLengthLong(long len) {
-        throw new UnsupportedOperationException("Unimplemented method 'setContentLengthLong'");
+        this.headers.put("Content-Length", Long.toString(len));
     }
 
 
@@ -0,0 +1,120 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.api.ras.internal.common;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A single byte range from an HTTP Range header, such as "bytes=0-499",
+ * "bytes=500-" or "bytes=-500" for the last 500 bytes.
+ *
+ * Only single ranges are supported. A header asking for several ranges, or
+ * one that cannot be parsed, is ignored and the whole content is sent, as
+ * RFC 7233 allows.
+ */
+public class ByteRange {
+
+    private static final Pattern RANGE_PATTERN = Pattern.compile("^\\s*bytes\\s*=\\s*(\\d*)\\s*-\\s*(\\d*)\\s*$");
+
+    private final long first;
+    private final long last;
+    private final long suffixLength;
+
+    private ByteRange(long first, long last, long suffixLength) {
+        this.first = first;
+        this.last = last;
+        this.suffixLength = suffixLength;
+    }
+
+    /**
+     * @param rangeHeader - the value of the Range header, may be null
+     * @return the range, or null if the whole content should be sent
+     */
+    public static ByteRange parse(String rangeHeader) {
+        if (rangeHeader == null) {
+            return null;
+        }
+
+        Matcher matcher = RANGE_PATTERN.matcher(rangeHeader);
+        if (!matcher.matches()) {
+            return null;
+        }
+
+        String firstStr = matcher.group(1);
+        String lastStr = matcher.group(2);
+        try {
+            if (firstStr.isEmpty()) {
+                if (lastStr.isEmpty()) {
+                    return null;
+                }
+                return new ByteRange(-1, -1, Long.parseLong(lastStr));
+            }
+
+            long first = Long.parseLong(firstStr);
+            long last = lastStr.isEmpty() ? Long.MAX_VALUE : Long.parseLong(lastStr);
+            if (last < first) {
+                return null;
+            }
+            return new ByteRange(first, last, -1);
+        } catch (NumberFormatException e) {
+            // Too large to be a real range
+            return null;
+        }
+    }
+
+    public boolean isSuffix() {
+        return this.suffixLength >= 0;
+    }
+
+    /**
+     * @return the number of bytes at the end of the content asked for, if this is a suffix range
+     */
+    public long getSuffixLength() {
+        return this.suffixLength;
+    }
+
+    /**
+     * @param size - the length of the content
+     * @return the offset of the first byte to send
+     */
+    public long getStart(long size) {
+        if (isSuffix()) {
+            return Math.max(0, size - this.suffixLength);
+        }
+        return this.first;
+    }
+
+    /**
+     * @param size - the length of the content
+     * @return the offset of the last byte to send
+     */
+    public long getEnd(long size) {
+        if (isSuffix()) {
+            return size - 1;
+        }
+        return Math.min(this.last, size - 1);
+    }
+
+    /**
+     * @param size - the length of the content
+     * @return true if any of the range is within the content
+     */
+    public boolean isSatisfiable(long size) {
+        if (isSuffix()) {
+            return this.suffixLength > 0 && size > 0;
+        }
+        return this.first < size;
+    }
+
+    /**
+     * @param size - the length of the content
+     * @return the value of the Content-Range header for a partial response
+     */
+    public String getContentRange(long size) {
+        return "bytes " + getStart(size) + "-" + getEnd(size) + "/" + size;
+    }
+}
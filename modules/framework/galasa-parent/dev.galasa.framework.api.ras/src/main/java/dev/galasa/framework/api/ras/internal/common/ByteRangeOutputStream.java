@@ -0,0 +1,76 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.api.ras.internal.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Counts the content written to it and passes on only the bytes of a range,
+ * for content whose length is not known until it has all been written.
+ *
+ * Nothing is held in memory, so the content is written once to find its
+ * length, and again through a stream for the range once the length is known.
+ */
+public class ByteRangeOutputStream extends OutputStream {
+
+    private final OutputStream out;
+    private final long         first;
+    private final long         last;
+
+    private long size;
+
+    /**
+     * Only count the content written
+     */
+    public ByteRangeOutputStream() {
+        this(OutputStream.nullOutputStream(), 0, -1);
+    }
+
+    /**
+     * @param out   - where the bytes of the range are written
+     * @param first - the offset of the first byte to pass on
+     * @param last  - the offset of the last byte to pass on
+     */
+    public ByteRangeOutputStream(OutputStream out, long first, long last) {
+        this.out = out;
+        this.first = first;
+        this.last = last;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len <= 0) {
+            return;
+        }
+
+        long chunkStart = this.size;
+        this.size += len;
+
+        long start = Math.max(chunkStart, this.first);
+        long end = Math.min(this.size - 1, this.last);
+        if (start <= end) {
+            this.out.write(b, off + (int) (start - chunkStart), (int) (end - start + 1));
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.out.flush();
+    }
+
+    /**
+     * @return the length of all the content written
+     */
+    public long getSize() {
+        return this.size;
+    }
+}
@@ -6,6 +6,7 @@
 package dev.galasa.framework.api.ras.internal.common;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 import dev.galasa.framework.spi.IRunResult;
 import dev.galasa.framework.spi.ResultArchiveStoreException;
@@ -14,4 +15,20 @@ public interface IRunRootArtifact {
     String getPathName();
     byte[] getContent(IRunResult run) throws ResultArchiveStoreException, IOException;
     String getContentType();
+
+    /**
+     * Write the content of the artifact to a stream. Artifacts that can be large
+     * should override this so their content is never held in memory all at once.
+     */
+    default void writeContent(IRunResult run, OutputStream outputStream) throws ResultArchiveStoreException, IOException {
+        outputStream.write(getContent(run));
+    }
+
+    /**
+     * @return the number of bytes {@link #writeContent(IRunResult, OutputStream)} writes,
+     * or -1 if it is not known without writing the content
+     */
+    default long getSize(IRunResult run) throws ResultArchiveStoreException {
+        return -1;
+    }
 }
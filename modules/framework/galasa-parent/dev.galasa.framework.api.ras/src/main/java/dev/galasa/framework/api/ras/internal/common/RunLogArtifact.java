@@ -6,6 +6,7 @@
 package dev.galasa.framework.api.ras.internal.common;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 
 import dev.galasa.framework.spi.IRunResult;
@@ -22,6 +23,16 @@ public class RunLogArtifact implements IRunRootArtifact {
         return "".getBytes(StandardCharsets.UTF_8);
     }
 
+    @Override
+    public void writeContent(IRunResult run, OutputStream outputStream) throws ResultArchiveStoreException, IOException {
+        run.writeLog(outputStream);
+    }
+
+    @Override
+    public long getSize(IRunResult run) throws ResultArchiveStoreException {
+        return run.getLogSize();
+    }
+
     @Override
     public String getContentType() {
         return "text/plain";
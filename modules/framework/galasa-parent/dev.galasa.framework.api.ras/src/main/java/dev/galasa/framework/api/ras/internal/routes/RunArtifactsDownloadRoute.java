@@ -10,7 +10,7 @@ import static dev.galasa.framework.api.common.ServletErrorMessage.*;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.nio.channels.ByteChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.FileSystem;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
@@ -28,6 +28,8 @@ import javax.servlet.http.HttpServletResponse;
 import dev.galasa.framework.IFileSystem;
 import dev.galasa.framework.api.ras.internal.common.ArtifactsJson;
 import dev.galasa.framework.api.ras.internal.common.ArtifactsProperties;
+import dev.galasa.framework.api.ras.internal.common.ByteRange;
+import dev.galasa.framework.api.ras.internal.common.ByteRangeOutputStream;
 import dev.galasa.framework.api.ras.internal.common.IRunRootArtifact;
 import dev.galasa.framework.api.ras.internal.common.RunLogArtifact;
 import dev.galasa.framework.api.ras.internal.common.StructureJsonArtifact;
@@ -64,6 +66,9 @@ public class RunArtifactsDownloadRoute extends RunArtifactsRoute {
     // The regex pattern for the "/ras/runs/{run-id}/files/{artifact-path}" endpoint
     private static final String path = "\\/runs\\/" + RUN_ID_PATTERN + "\\/files\\/" + ARTIFACT_PATH_PATTERN;
 
+    // The size of the buffer used to copy stored artifacts into responses
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     private Map<String, IRunRootArtifact> rootArtifacts = new HashMap<>();
 
     public RunArtifactsDownloadRoute(ResponseBuilder responseBuilder, IFileSystem fileSystem, IFramework framework) throws RBACException {
@@ -85,10 +90,11 @@ public class RunArtifactsDownloadRoute extends RunArtifactsRoute {
         matcher.matches();
         String runId = matcher.group(1);
         String artifactPath = matcher.group(2);
-        return downloadArtifact(runId, artifactPath, response);
+        ByteRange range = ByteRange.parse(requestContext.getRequest().getHeader("Range"));
+        return downloadArtifact(runId, artifactPath, range, response);
     }
 
-    private HttpServletResponse downloadArtifact(String runId, String artifactPath, HttpServletResponse res) throws InternalServletException, IOException {
+    private HttpServletResponse downloadArtifact(String runId, String artifactPath, ByteRange range, HttpServletResponse res) throws InternalServletException, IOException {
         IRunResult run = null;
         String runName = "";
         String artifactsPrefix = "artifacts/";
@@ -107,9 +113,9 @@ public class RunArtifactsDownloadRoute extends RunArtifactsRoute {
         try {
             IRunRootArtifact artifact = rootArtifacts.get(artifactPath);
             if (artifact != null) {
-                res = setDownloadResponse(res, artifact.getContent(run), artifact.getContentType());
+                res = downloadRootArtifact(res, run, artifact, range);
             } else if (artifactPath.startsWith(artifactsPrefix)) {
-                res = downloadStoredArtifact(res, run, artifactPath.substring(artifactsPrefix.length() - 1));
+                res = downloadStoredArtifact(res, run, artifactPath.substring(artifactsPrefix.length() - 1), range);
             } else {
                 ServletError error = new ServletError(GAL5008_ERROR_LOCATING_ARTIFACT, artifactPath, runName);
                 throw new InternalServletException(error, HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
@@ -121,46 +127,107 @@ public class RunArtifactsDownloadRoute extends RunArtifactsRoute {
         return res;
     }
 
-    private HttpServletResponse downloadStoredArtifact(HttpServletResponse res, IRunResult run, String artifactPath) throws ResultArchiveStoreException, IOException {
+    private HttpServletResponse downloadStoredArtifact(HttpServletResponse res, IRunResult run, String artifactPath, ByteRange range) throws ResultArchiveStoreException, IOException {
         FileSystem artifactFileSystem = run.getArtifactsRoot().getFileSystem();
         Path artifactLocation = artifactFileSystem.getPath(artifactPath);
 
         // Open the artifact for reading
         Set<OpenOption> options = new HashSet<>();
         options.add(StandardOpenOption.READ);
-        try (ByteChannel channel = artifactFileSystem.provider().newByteChannel(artifactLocation, options, new FileAttribute<?>[]{});
-            OutputStream outStream = res.getOutputStream()) {
+        try (SeekableByteChannel channel = artifactFileSystem.provider().newByteChannel(artifactLocation, options, new FileAttribute<?>[]{})) {
 
-            // Create a buffer to read small amounts of data into to avoid out-of-memory issues
-            int bufferCapacity = 1024;
-            ByteBuffer buffer = ByteBuffer.allocate(bufferCapacity);
+            long size = channel.size();
+            long start = 0;
+            long length = size;
 
-            // Read the artifact and write it to the response's output stream
-            int bytesRead = channel.read(buffer);
-            while (bytesRead > 0) {
-                buffer.flip();
-                byte[] bytes = new byte[bytesRead];
-                buffer.get(bytes);
+            res.setContentType(getFileSystem().probeContentType(artifactLocation));
+            res.setHeader("Content-Disposition", "attachment");
+            res.setHeader("Accept-Ranges", "bytes");
+
+            if (range != null) {
+                if (!range.isSatisfiable(size)) {
+                    return setRangeNotSatisfiableResponse(res, size);
+                }
+                start = range.getStart(size);
+                length = range.getEnd(size) - start + 1;
+                channel.position(start);
+                res.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                res.setHeader("Content-Range", range.getContentRange(size));
+            } else {
+                res.setStatus(HttpServletResponse.SC_OK);
+            }
+            res.setContentLengthLong(length);
+
+            try (OutputStream outStream = res.getOutputStream()) {
+                copyChannel(channel, outStream, length);
+            }
+        }
+        return res;
+    }
 
-                outStream.write(bytes);
+    private void copyChannel(SeekableByteChannel channel, OutputStream outStream, long length) throws IOException {
+        // Read a buffer at a time straight from the buffer's backing array to avoid out-of-memory issues and copies
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+        byte[] bytes = buffer.array();
 
-                buffer.clear();
-                bytesRead = channel.read(buffer);
+        long remaining = length;
+        while (remaining > 0) {
+            buffer.clear();
+            if (remaining < COPY_BUFFER_SIZE) {
+                buffer.limit((int) remaining);
             }
+            int bytesRead = channel.read(buffer);
+            if (bytesRead < 0) {
+                break;
+            }
+            outStream.write(bytes, 0, bytesRead);
+            remaining -= bytesRead;
+        }
+    }
+
+    private HttpServletResponse downloadRootArtifact(HttpServletResponse res, IRunResult run, IRunRootArtifact artifact, ByteRange range) throws ResultArchiveStoreException, IOException {
+        res.setContentType(artifact.getContentType());
+        res.setHeader("Content-Disposition", "attachment");
+        res.setHeader("Accept-Ranges", "bytes");
+
+        if (range == null) {
+            // The length is not known up front, so stream the content as it is written
             res.setStatus(HttpServletResponse.SC_OK);
-            res.setContentType(getFileSystem().probeContentType(artifactLocation));
-            res.setHeader("Content-Disposition", "attachment");
+            try (OutputStream outStream = res.getOutputStream()) {
+                artifact.writeContent(run, outStream);
+            }
+            return res;
+        }
+
+        // The length is needed for the headers. If the store does not know it, the content is written once
+        // to count it. The content is then written straight to the response, passing on only the requested
+        // bytes, so none of it is held in memory
+        long size = artifact.getSize(run);
+        if (size < 0) {
+            ByteRangeOutputStream countingStream = new ByteRangeOutputStream();
+            artifact.writeContent(run, countingStream);
+            size = countingStream.getSize();
+        }
+
+        if (!range.isSatisfiable(size)) {
+            return setRangeNotSatisfiableResponse(res, size);
+        }
+
+        long start = range.getStart(size);
+        long end = range.getEnd(size);
+        res.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        res.setHeader("Content-Range", range.getContentRange(size));
+        res.setContentLengthLong(end - start + 1);
+        try (OutputStream outStream = res.getOutputStream()) {
+            artifact.writeContent(run, new ByteRangeOutputStream(outStream, start, end));
         }
         return res;
     }
 
-    private HttpServletResponse setDownloadResponse(HttpServletResponse res, byte[] content, String contentType) throws IOException {
-        OutputStream outStream = res.getOutputStream();
-        res.setStatus(HttpServletResponse.SC_OK);
-        res.setContentType(contentType);
-        res.setHeader("Content-Disposition", "attachment");
-        outStream.write(content);
-        outStream.close();
+    private HttpServletResponse setRangeNotSatisfiableResponse(HttpServletResponse res, long size) {
+        res.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        res.setHeader("Content-Range", "bytes */" + size);
+        res.setContentLengthLong(0);
         return res;
     }
-}
\ No newline at end of file
+}
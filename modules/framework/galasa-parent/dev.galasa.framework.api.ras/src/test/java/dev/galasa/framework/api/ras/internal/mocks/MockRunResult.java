@@ -17,6 +17,8 @@ public class MockRunResult implements IRunResult {
     private TestStructure testStructure;
     private Path artifactRoot;
     private String log;
+    private long logSize = -1;
+    private int logReads = 0;
     private boolean isDiscarded = false;
     private boolean isLoadingArtifactsEnabled = false;
 
@@ -49,9 +51,23 @@ public class MockRunResult implements IRunResult {
 
     @Override
     public String getLog() throws ResultArchiveStoreException {
+        this.logReads++;
         return this.log;
     }
 
+    @Override
+    public long getLogSize() throws ResultArchiveStoreException {
+        return this.logSize;
+    }
+
+    public void setLogSize(long logSize) {
+        this.logSize = logSize;
+    }
+
+    public int getLogReads() {
+        return this.logReads;
+    }
+
     @Override
     public void discard() throws ResultArchiveStoreException {
         isDiscarded = true;
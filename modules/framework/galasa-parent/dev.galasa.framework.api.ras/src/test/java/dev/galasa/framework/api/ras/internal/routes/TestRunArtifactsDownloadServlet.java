@@ -10,6 +10,7 @@ import org.junit.Test;
 import dev.galasa.framework.api.ras.internal.RasServlet;
 import dev.galasa.framework.api.ras.internal.RasServletTest;
 import dev.galasa.framework.api.ras.internal.mocks.MockRasServletEnvironment;
+import dev.galasa.framework.api.ras.internal.mocks.MockRunResult;
 import dev.galasa.framework.api.common.mocks.MockFramework;
 import dev.galasa.framework.api.common.mocks.MockHttpServletRequest;
 import dev.galasa.framework.mocks.MockFileSystem;
@@ -598,4 +599,300 @@ public class TestRunArtifactsDownloadServlet extends RasServletTest {
 		assertThat(resp.getContentType()).isEqualTo("text/plain");
 		assertThat(resp.getHeader("Content-Disposition")).isEqualTo("attachment");
 	}
-}
\ No newline at end of file
+
+    @Test
+    public void testRunLogWithSuffixRangeReturnsPartialContentWithTailOfLog() throws Exception {
+		//Given..
+		String runId = "12345";
+		String runName = "testA";
+        String artifactPath = "run.log";
+        String runlog = "very detailed run log";
+        List<IRunResult> mockInputRunResults = generateTestData(runId, runName, runlog);
+
+		Map<String, String[]> parameterMap = new HashMap<String,String[]>();
+		Map<String, String> headerMap = new HashMap<String,String>();
+		headerMap.put("Range", "bytes=-7");
+		MockHttpServletRequest mockRequest = new MockHttpServletRequest(parameterMap, "/runs/" + runId + "/files/" + artifactPath, headerMap);
+		MockRasServletEnvironment mockServletEnvironment = new MockRasServletEnvironment(mockInputRunResults, mockRequest, mockFileSystem);
+
+		RasServlet servlet = mockServletEnvironment.getServlet();
+		HttpServletRequest req = mockServletEnvironment.getRequest();
+		HttpServletResponse resp = mockServletEnvironment.getResponse();
+		ServletOutputStream outStream = resp.getOutputStream();
+
+		//When...
+		servlet.init();
+		servlet.doGet(req,resp);
+
+		// Then...
+		// Expecting:
+		assertThat(resp.getStatus()).isEqualTo(206);
+        assertThat(outStream.toString()).isEqualTo("run log");
+		assertThat(resp.getHeader("Content-Range")).isEqualTo("bytes 14-20/21");
+		assertThat(resp.getHeader("Content-Length")).isEqualTo("7");
+		assertThat(resp.getContentType()).isEqualTo("text/plain");
+	}
+
+    @Test
+    public void testGoodArtifactWithRangeReturnsPartialContent() throws Exception {
+		//Given..
+		String runId = "12345";
+		String runName = "testA";
+        MockPath artifactPath = new MockPath("/term002.gz", mockFileSystem);
+		String fileContent = "dummy content";
+        List<IRunResult> mockInputRunResults = generateTestData(runId, runName, null);
+		mockFileSystem.createFile(artifactPath);
+		mockFileSystem.setFileContents(artifactPath, fileContent);
+
+		Map<String, String[]> parameterMap = new HashMap<String,String[]>();
+		Map<String, String> headerMap = new HashMap<String,String>();
+		headerMap.put("Range", "bytes=2-6");
+		MockHttpServletRequest mockRequest = new MockHttpServletRequest(parameterMap, "/runs/" + runId + "/files/artifacts" + artifactPath.toString(), headerMap);
+		MockRasServletEnvironment mockServletEnvironment = new MockRasServletEnvironment(mockInputRunResults, mockRequest, mockFileSystem);
+
+		RasServlet servlet = mockServletEnvironment.getServlet();
+		HttpServletRequest req = mockServletEnvironment.getRequest();
+		HttpServletResponse resp = mockServletEnvironment.getResponse();
+		ServletOutputStream outStream = resp.getOutputStream();
+
+		//When...
+		servlet.init();
+		servlet.doGet(req,resp);
+
+		// Then...
+		// Expecting:
+		assertThat(resp.getStatus()).isEqualTo(206);
+        assertThat(outStream.toString()).isEqualTo("mmy c");
+		assertThat(resp.getHeader("Content-Range")).isEqualTo("bytes 2-6/13");
+		assertThat(resp.getHeader("Content-Length")).isEqualTo("5");
+		assertThat(resp.getHeader("Accept-Ranges")).isEqualTo("bytes");
+	}
+
+    @Test
+    public void testGoodArtifactWithRangeBeyondEndReturnsRangeNotSatisfiable() throws Exception {
+		//Given..
+		String runId = "12345";
+		String runName = "testA";
+        MockPath artifactPath = new MockPath("/term002.gz", mockFileSystem);
+		String fileContent = "dummy content";
+        List<IRunResult> mockInputRunResults = generateTestData(runId, runName, null);
+		mockFileSystem.createFile(artifactPath);
+		mockFileSystem.setFileContents(artifactPath, fileContent);
+
+		Map<String, String[]> parameterMap = new HashMap<String,String[]>();
+		Map<String, String> headerMap = new HashMap<String,String>();
+		headerMap.put("Range", "bytes=100-");
+		MockHttpServletRequest mockRequest = new MockHttpServletRequest(parameterMap, "/runs/" + runId + "/files/artifacts" + artifactPath.toString(), headerMap);
+		MockRasServletEnvironment mockServletEnvironment = new MockRasServletEnvironment(mockInputRunResults, mockRequest, mockFileSystem);
+
+		RasServlet servlet = mockServletEnvironment.getServlet();
+		HttpServletRequest req = mockServletEnvironment.getRequest();
+		HttpServletResponse resp = mockServletEnvironment.getResponse();
+		ServletOutputStream outStream = resp.getOutputStream();
+
+		//When...
+		servlet.init();
+		servlet.doGet(req,resp);
+
+		// Then...
+		// Expecting:
+		assertThat(resp.getStatus()).isEqualTo(416);
+        assertThat(outStream.toString()).isEmpty();
+		assertThat(resp.getHeader("Content-Range")).isEqualTo("bytes */13");
+	}
+
+    @Test
+    public void testGoodArtifactWithMultipleRangesReturnsWholeFile() throws Exception {
+		//Given..
+		String runId = "12345";
+		String runName = "testA";
+        MockPath artifactPath = new MockPath("/term002.gz", mockFileSystem);
+		String fileContent = "dummy content";
+        List<IRunResult> mockInputRunResults = generateTestData(runId, runName, null);
+		mockFileSystem.createFile(artifactPath);
+		mockFileSystem.setFileContents(artifactPath, fileContent);
+
+		Map<String, String[]> parameterMap = new HashMap<String,String[]>();
+		Map<String, String> headerMap = new HashMap<String,String>();
+		headerMap.put("Range", "bytes=0-1,4-5");
+		MockHttpServletRequest mockRequest = new MockHttpServletRequest(parameterMap, "/runs/" + runId + "/files/artifacts" + artifactPath.toString(), headerMap);
+		MockRasServletEnvironment mockServletEnvironment = new MockRasServletEnvironment(mockInputRunResults, mockRequest, mockFileSystem);
+
+		RasServlet servlet = mockServletEnvironment.getServlet();
+		HttpServletRequest req = mockServletEnvironment.getRequest();
+		HttpServletResponse resp = mockServletEnvironment.getResponse();
+		ServletOutputStream outStream = resp.getOutputStream();
+
+		//When...
+		servlet.init();
+		servlet.doGet(req,resp);
+
+		// Then...
+		// Expecting:
+		assertThat(resp.getStatus()).isEqualTo(200);
+        assertThat(outStream.toString()).isEqualTo(fileContent);
+		assertThat(resp.getHeader("Content-Length")).isEqualTo("13");
+	}
+
+    @Test
+    public void testRunLogWithOpenRangeReturnsPartialContentFromTheStart() throws Exception {
+		//Given..
+		String runId = "12345";
+		String runName = "testA";
+        String artifactPath = "run.log";
+        String runlog = "very detailed run log";
+        List<IRunResult> mockInputRunResults = generateTestData(runId, runName, runlog);
+
+		Map<String, String[]> parameterMap = new HashMap<String,String[]>();
+		Map<String, String> headerMap = new HashMap<String,String>();
+		headerMap.put("Range", "bytes=5-");
+		MockHttpServletRequest mockRequest = new MockHttpServletRequest(parameterMap, "/runs/" + runId + "/files/" + artifactPath, headerMap);
+		MockRasServletEnvironment mockServletEnvironment = new MockRasServletEnvironment(mockInputRunResults, mockRequest, mockFileSystem);
+
+		RasServlet servlet = mockServletEnvironment.getServlet();
+		HttpServletRequest req = mockServletEnvironment.getRequest();
+		HttpServletResponse resp = mockServletEnvironment.getResponse();
+		ServletOutputStream outStream = resp.getOutputStream();
+
+		//When...
+		servlet.init();
+		servlet.doGet(req,resp);
+
+		// Then...
+		// Expecting:
+		assertThat(resp.getStatus()).isEqualTo(206);
+        assertThat(outStream.toString()).isEqualTo("detailed run log");
+		assertThat(resp.getHeader("Content-Range")).isEqualTo("bytes 5-20/21");
+		assertThat(resp.getHeader("Content-Length")).isEqualTo("16");
+	}
+
+    @Test
+    public void testRunLogWithFirstLastRangeReturnsPartialContent() throws Exception {
+		//Given..
+		String runId = "12345";
+		String runName = "testA";
+        String artifactPath = "run.log";
+        String runlog = "very detailed run log";
+        List<IRunResult> mockInputRunResults = generateTestData(runId, runName, runlog);
+
+		Map<String, String[]> parameterMap = new HashMap<String,String[]>();
+		Map<String, String> headerMap = new HashMap<String,String>();
+		headerMap.put("Range", "bytes=0-3");
+		MockHttpServletRequest mockRequest = new MockHttpServletRequest(parameterMap, "/runs/" + runId + "/files/" + artifactPath, headerMap);
+		MockRasServletEnvironment mockServletEnvironment = new MockRasServletEnvironment(mockInputRunResults, mockRequest, mockFileSystem);
+
+		RasServlet servlet = mockServletEnvironment.getServlet();
+		HttpServletRequest req = mockServletEnvironment.getRequest();
+		HttpServletResponse resp = mockServletEnvironment.getResponse();
+		ServletOutputStream outStream = resp.getOutputStream();
+
+		//When...
+		servlet.init();
+		servlet.doGet(req,resp);
+
+		// Then...
+		// Expecting:
+		assertThat(resp.getStatus()).isEqualTo(206);
+        assertThat(outStream.toString()).isEqualTo("very");
+		assertThat(resp.getHeader("Content-Range")).isEqualTo("bytes 0-3/21");
+		assertThat(resp.getHeader("Content-Length")).isEqualTo("4");
+	}
+
+    @Test
+    public void testRunLogWithRangePastTheEndReturnsTheLastBytes() throws Exception {
+		//Given..
+		String runId = "12345";
+		String runName = "testA";
+        String artifactPath = "run.log";
+        String runlog = "very detailed run log";
+        List<IRunResult> mockInputRunResults = generateTestData(runId, runName, runlog);
+
+		Map<String, String[]> parameterMap = new HashMap<String,String[]>();
+		Map<String, String> headerMap = new HashMap<String,String>();
+		headerMap.put("Range", "bytes=14-100");
+		MockHttpServletRequest mockRequest = new MockHttpServletRequest(parameterMap, "/runs/" + runId + "/files/" + artifactPath, headerMap);
+		MockRasServletEnvironment mockServletEnvironment = new MockRasServletEnvironment(mockInputRunResults, mockRequest, mockFileSystem);
+
+		RasServlet servlet = mockServletEnvironment.getServlet();
+		HttpServletRequest req = mockServletEnvironment.getRequest();
+		HttpServletResponse resp = mockServletEnvironment.getResponse();
+		ServletOutputStream outStream = resp.getOutputStream();
+
+		//When...
+		servlet.init();
+		servlet.doGet(req,resp);
+
+		// Then...
+		// Expecting:
+		assertThat(resp.getStatus()).isEqualTo(206);
+        assertThat(outStream.toString()).isEqualTo("run log");
+		assertThat(resp.getHeader("Content-Range")).isEqualTo("bytes 14-20/21");
+		assertThat(resp.getHeader("Content-Length")).isEqualTo("7");
+	}
+
+    @Test
+    public void testRunLogWithRangeBeyondEndReturnsRangeNotSatisfiable() throws Exception {
+		//Given..
+		String runId = "12345";
+		String runName = "testA";
+        String artifactPath = "run.log";
+        String runlog = "very detailed run log";
+        List<IRunResult> mockInputRunResults = generateTestData(runId, runName, runlog);
+
+		Map<String, String[]> parameterMap = new HashMap<String,String[]>();
+		Map<String, String> headerMap = new HashMap<String,String>();
+		headerMap.put("Range", "bytes=21-");
+		MockHttpServletRequest mockRequest = new MockHttpServletRequest(parameterMap, "/runs/" + runId + "/files/" + artifactPath, headerMap);
+		MockRasServletEnvironment mockServletEnvironment = new MockRasServletEnvironment(mockInputRunResults, mockRequest, mockFileSystem);
+
+		RasServlet servlet = mockServletEnvironment.getServlet();
+		HttpServletRequest req = mockServletEnvironment.getRequest();
+		HttpServletResponse resp = mockServletEnvironment.getResponse();
+		ServletOutputStream outStream = resp.getOutputStream();
+
+		//When...
+		servlet.init();
+		servlet.doGet(req,resp);
+
+		// Then...
+		// Expecting:
+		assertThat(resp.getStatus()).isEqualTo(416);
+        assertThat(outStream.toString()).isEmpty();
+		assertThat(resp.getHeader("Content-Range")).isEqualTo("bytes */21");
+	}
+
+    @Test
+    public void testRunLogWithRangeAndKnownSizeReadsTheLogOnce() throws Exception {
+		//Given..
+		String runId = "12345";
+		String runName = "testA";
+        String artifactPath = "run.log";
+        String runlog = "very detailed run log";
+        List<IRunResult> mockInputRunResults = generateTestData(runId, runName, runlog);
+        MockRunResult runResult = (MockRunResult) mockInputRunResults.get(0);
+        runResult.setLogSize(runlog.length());
+
+		Map<String, String[]> parameterMap = new HashMap<String,String[]>();
+		Map<String, String> headerMap = new HashMap<String,String>();
+		headerMap.put("Range", "bytes=5-12");
+		MockHttpServletRequest mockRequest = new MockHttpServletRequest(parameterMap, "/runs/" + runId + "/files/" + artifactPath, headerMap);
+		MockRasServletEnvironment mockServletEnvironment = new MockRasServletEnvironment(mockInputRunResults, mockRequest, mockFileSystem);
+
+		RasServlet servlet = mockServletEnvironment.getServlet();
+		HttpServletRequest req = mockServletEnvironment.getRequest();
+		HttpServletResponse resp = mockServletEnvironment.getResponse();
+		ServletOutputStream outStream = resp.getOutputStream();
+
+		//When...
+		servlet.init();
+		servlet.doGet(req,resp);
+
+		// Then...
+		// Expecting:
+		assertThat(resp.getStatus()).isEqualTo(206);
+        assertThat(outStream.toString()).isEqualTo("detailed");
+		assertThat(resp.getHeader("Content-Range")).isEqualTo("bytes 5-12/21");
+		assertThat(resp.getHeader("Content-Length")).isEqualTo("8");
+		assertThat(runResult.getLogReads()).isEqualTo(1);
+	}
+}
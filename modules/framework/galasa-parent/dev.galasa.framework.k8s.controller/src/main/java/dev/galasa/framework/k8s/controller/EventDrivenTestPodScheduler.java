@@ -0,0 +1,172 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.k8s.controller;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.IDynamicStatusStoreService;
+import dev.galasa.framework.spi.IDynamicStatusStoreWatcher;
+import dev.galasa.framework.spi.IFrameworkRuns;
+import dev.galasa.framework.spi.IRun;
+
+/**
+ * Schedules engine pods as soon as there is work and room for it, rather than
+ * on a fixed poll.
+ *
+ * A pass over the queued runs is made whenever a run is queued, seen through a
+ * DSS watch on the run statuses, and whenever an engine pod finishes, seen
+ * through the pod informer. Requests for a pass that arrive while one is
+ * waiting are merged into it. The number of active engines comes from the
+ * informer cache instead of listing the pods, and the pods are created on a
+ * pool of threads, spaced out by a rate limiter. The controller still calls
+ * run() on the poll interval, as a safety net for any missed event.
+ */
+public class EventDrivenTestPodScheduler implements Runnable, IDynamicStatusStoreWatcher {
+
+    private final Log                        logger           = LogFactory.getLog(getClass());
+
+    private final IDynamicStatusStoreService dss;
+    private final Settings                   settings;
+    private final IFrameworkRuns             runs;
+    private final TestPodScheduler           podScheduler;
+    private final PodCache                   podCache;
+    private final PodCreationRateLimiter     rateLimiter;
+
+    private final AtomicBoolean              passRequested    = new AtomicBoolean();
+    private final Set<String>                runsBeingStarted = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService                  dispatcher;
+    private ExecutorService                  podCreators;
+    private UUID                             watchId;
+
+    public EventDrivenTestPodScheduler(IDynamicStatusStoreService dss, Settings settings, IFrameworkRuns runs,
+            TestPodScheduler podScheduler, PodCache podCache, PodCreationRateLimiter rateLimiter) {
+        this.dss = dss;
+        this.settings = settings;
+        this.runs = runs;
+        this.podScheduler = podScheduler;
+        this.podCache = podCache;
+        this.rateLimiter = rateLimiter;
+    }
+
+    public void start() throws K8sControllerException {
+        this.dispatcher = Executors.newSingleThreadExecutor();
+        this.podCreators = Executors.newFixedThreadPool(Math.max(1, settings.getPodCreationThreads()));
+
+        podCache.setCapacityListener(this::requestPass);
+        try {
+            this.watchId = dss.watchPrefix(this, "run.");
+        } catch (DynamicStatusStoreException e) {
+            throw new K8sControllerException("Unable to watch for queued runs", e);
+        }
+
+        logger.info("Event driven scheduling started, creating at most " + settings.getPodCreationRate()
+                + " engine pods per second");
+        requestPass();
+    }
+
+    public void shutdown() {
+        podCache.setCapacityListener(null);
+        if (this.watchId != null) {
+            try {
+                dss.unwatch(this.watchId);
+            } catch (DynamicStatusStoreException e) {
+                logger.warn("Unable to stop watching for queued runs", e);
+            }
+        }
+
+        if (this.dispatcher != null) {
+            this.dispatcher.shutdownNow();
+        }
+        if (this.podCreators != null) {
+            this.podCreators.shutdownNow();
+        }
+    }
+
+    @Override
+    public void run() {
+        requestPass();
+    }
+
+    @Override
+    public void propertyModified(String key, Event event, String oldValue, String newValue) {
+        if ("queued".equals(newValue) && key.endsWith(".status")) {
+            requestPass();
+        }
+    }
+
+    private void requestPass() {
+        if (passRequested.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(this::schedulePass);
+            } catch (Exception e) {
+                passRequested.set(false);
+                logger.debug("Scheduling pass not requested, the scheduler is shutting down", e);
+            }
+        }
+    }
+
+    private void schedulePass() {
+        passRequested.set(false);
+
+        try {
+            List<IRun> queuedRuns = this.runs.getQueuedRuns();
+
+            // *** Remove the local runs and those already being started
+            Iterator<IRun> queuedRunsIterator = queuedRuns.iterator();
+            while (queuedRunsIterator.hasNext()) {
+                IRun run = queuedRunsIterator.next();
+                if (run.isLocal() || runsBeingStarted.contains(run.getName())) {
+                    queuedRunsIterator.remove();
+                }
+            }
+
+            if (queuedRuns.isEmpty()) {
+                return;
+            }
+
+            int capacity = settings.getMaxEngines() - podCache.getActivePodCount() - runsBeingStarted.size();
+            logger.info("Queued runs=" + queuedRuns.size() + ",capacity=" + capacity + ",max=" + settings.getMaxEngines());
+            if (capacity <= 0) {
+                return;
+            }
+
+            queuedRuns.sort(Comparator.comparing(IRun::getQueued));
+            for (IRun run : queuedRuns.subList(0, Math.min(capacity, queuedRuns.size()))) {
+                runsBeingStarted.add(run.getName());
+                podCreators.execute(() -> createPod(run));
+            }
+        } catch (Exception e) {
+            logger.error("Unable to schedule queued runs", e);
+        }
+    }
+
+    private void createPod(IRun run) {
+        try {
+            rateLimiter.acquire();
+            String podName = podScheduler.startPod(run);
+            if (podName != null) {
+                podCache.podCreated(podName);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            runsBeingStarted.remove(run.getName());
+        }
+    }
+}
@@ -22,10 +22,17 @@ import dev.galasa.framework.spi.FrameworkException;
 import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
 import dev.galasa.framework.spi.IDynamicStatusStoreService;
 import dev.galasa.framework.spi.IFramework;
+import dev.galasa.framework.spi.SystemEnvironment;
+import dev.galasa.framework.spi.utils.ITimeService;
+import dev.galasa.framework.spi.utils.SystemTimeService;
+import io.kubernetes.client.informer.SharedIndexInformer;
+import io.kubernetes.client.informer.SharedInformerFactory;
 import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.openapi.Configuration;
 import io.kubernetes.client.ProtoClient;
 import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodList;
 import io.kubernetes.client.util.Config;
 import io.prometheus.client.exporter.HTTPServer;
 
@@ -47,8 +54,12 @@ public class K8sController {
     private Health                   healthServer;
 
     private TestPodScheduler podScheduler;
+    private Runnable pollTask;
     private ScheduledFuture<?> pollFuture;
 
+    private SharedInformerFactory informerFactory;
+    private EventDrivenTestPodScheduler eventDrivenScheduler;
+
     private RunDeleted runDeleted;
 
     private ScheduledFuture<?> deleteFuture;
@@ -144,7 +155,14 @@ public class K8sController {
             // *** Start the run polling
             runDeleted = new RunDeleted(settings, api, pc, framework.getFrameworkRuns());
             scheduleDelete();
-            podScheduler = new TestPodScheduler(dss, settings, api, framework.getFrameworkRuns());
+            SystemTimeService timeService = new SystemTimeService();
+            podScheduler = new TestPodScheduler(new SystemEnvironment(), dss, settings, api, framework.getFrameworkRuns(), timeService);
+            if (settings.isEventDrivenScheduling()) {
+                startEventDrivenScheduler(client, api, dss, framework, timeService);
+                pollTask = eventDrivenScheduler;
+            } else {
+                pollTask = podScheduler;
+            }
             schedulePoll();
 
             
@@ -160,6 +178,14 @@ public class K8sController {
                 }
             }
             
+            // *** Stop the event driven scheduler and its informers
+            if (this.eventDrivenScheduler != null) {
+                this.eventDrivenScheduler.shutdown();
+            }
+            if (this.informerFactory != null) {
+                this.informerFactory.stopAllRegisteredInformers();
+            }
+
             // *** shutdown the scheduler
             this.scheduledExecutorService.shutdown();
             try {
@@ -192,7 +218,42 @@ public class K8sController {
             this.pollFuture.cancel(false);
         }
         
-        pollFuture = scheduledExecutorService.scheduleWithFixedDelay(podScheduler, 1, settings.getPoll(), TimeUnit.SECONDS);
+        pollFuture = scheduledExecutorService.scheduleWithFixedDelay(pollTask, 1, settings.getPoll(), TimeUnit.SECONDS);
+    }
+
+    private void startEventDrivenScheduler(ApiClient client, CoreV1Api api, IDynamicStatusStoreService dss, IFramework framework,
+            ITimeService timeService) throws FrameworkException {
+        // *** Keep a cache of this controller's engine pods, maintained by a watch
+        informerFactory = new SharedInformerFactory(client);
+        SharedIndexInformer<V1Pod> podInformer = informerFactory.sharedIndexInformerFor(
+            params -> api.listNamespacedPod(settings.getNamespace())
+                .labelSelector("galasa-engine-controller=" + settings.getEngineLabel())
+                .resourceVersion(params.resourceVersion)
+                .timeoutSeconds(params.timeoutSeconds)
+                .watch(params.watch)
+                .buildCall(null),
+            V1Pod.class, V1PodList.class);
+
+        PodCache podCache = new PodCache(podInformer.getIndexer(), timeService);
+        podInformer.addEventHandler(podCache);
+        informerFactory.startAllRegisteredInformers();
+
+        // *** Engines cannot be counted until the informer has listed the existing pods
+        try {
+            for (int wait = 0; !podInformer.hasSynced(); wait++) {
+                if (wait >= 600) {
+                    throw new FrameworkException("Timed out waiting for the engine pod informer to sync");
+                }
+                Thread.sleep(100);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FrameworkException("Interrupted waiting for the engine pod informer to sync", e);
+        }
+
+        eventDrivenScheduler = new EventDrivenTestPodScheduler(dss, settings, framework.getFrameworkRuns(),
+            podScheduler, podCache, new PodCreationRateLimiter(settings, timeService));
+        eventDrivenScheduler.start();
     }
 
     private void scheduleDelete() {
@@ -0,0 +1,123 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.k8s.controller;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.framework.spi.utils.ITimeService;
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.informer.cache.Indexer;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodStatus;
+
+/**
+ * The engine pods of this controller, as kept current by a shared informer, so
+ * the number of active engines can be found without listing the pods.
+ *
+ * A pod this controller has just created may not have reached the informer
+ * yet, so it is counted as active until it does, or for a minute at most.
+ */
+public class PodCache implements ResourceEventHandler<V1Pod> {
+
+    private static final long                        CREATED_POD_GRACE_MILLIS = 60 * 1000;
+
+    private final Log                                logger      = LogFactory.getLog(getClass());
+
+    private final Indexer<V1Pod>                     indexer;
+    private final ITimeService                       timeService;
+    private final ConcurrentHashMap<String, Instant> createdPods = new ConcurrentHashMap<>();
+
+    private volatile Runnable                        capacityListener;
+
+    public PodCache(Indexer<V1Pod> indexer, ITimeService timeService) {
+        this.indexer = indexer;
+        this.timeService = timeService;
+    }
+
+    /**
+     * @param capacityListener told whenever an engine pod finishes or is deleted
+     */
+    public void setCapacityListener(Runnable capacityListener) {
+        this.capacityListener = capacityListener;
+    }
+
+    /**
+     * @return the number of engine pods that have not finished
+     */
+    public int getActivePodCount() {
+        List<V1Pod> pods = new ArrayList<>(indexer.list());
+        for (V1Pod pod : pods) {
+            forgetCreated(pod);
+        }
+        TestPodScheduler.filterActiveRuns(pods);
+
+        Instant oldest = timeService.now().minusMillis(CREATED_POD_GRACE_MILLIS);
+        createdPods.values().removeIf(created -> created.isBefore(oldest));
+
+        return pods.size() + createdPods.size();
+    }
+
+    /**
+     * Record a pod this controller has just created
+     *
+     * @param podName the name of the pod
+     */
+    public void podCreated(String podName) {
+        createdPods.put(podName, timeService.now());
+    }
+
+    @Override
+    public void onAdd(V1Pod pod) {
+        forgetCreated(pod);
+    }
+
+    @Override
+    public void onUpdate(V1Pod oldPod, V1Pod newPod) {
+        if (!isFinished(oldPod) && isFinished(newPod)) {
+            logger.debug("Engine pod " + getName(newPod) + " has finished");
+            capacityFreed();
+        }
+    }
+
+    @Override
+    public void onDelete(V1Pod pod, boolean deletedFinalStateUnknown) {
+        forgetCreated(pod);
+        capacityFreed();
+    }
+
+    private void forgetCreated(V1Pod pod) {
+        String name = getName(pod);
+        if (name != null) {
+            createdPods.remove(name);
+        }
+    }
+
+    private void capacityFreed() {
+        Runnable listener = this.capacityListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    private static boolean isFinished(V1Pod pod) {
+        V1PodStatus status = pod.getStatus();
+        if (status == null) {
+            return false;
+        }
+        String phase = status.getPhase();
+        return "failed".equalsIgnoreCase(phase) || "succeeded".equalsIgnoreCase(phase);
+    }
+
+    private static String getName(V1Pod pod) {
+        return pod.getMetadata() == null ? null : pod.getMetadata().getName();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.k8s.controller;
+
+import dev.galasa.framework.spi.utils.ITimeService;
+
+/**
+ * Spaces out the creation of engine pods, so a burst of queued runs does not
+ * flood the Kubernetes API server. The rate is read from the settings each
+ * time, so a change to the ConfigMap takes effect straight away.
+ */
+public class PodCreationRateLimiter {
+
+    private final Settings     settings;
+    private final ITimeService timeService;
+
+    private long               nextSlotMillis;
+
+    public PodCreationRateLimiter(Settings settings, ITimeService timeService) {
+        this.settings = settings;
+        this.timeService = timeService;
+    }
+
+    /**
+     * Wait until another pod may be created
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        long waitMillis;
+        synchronized (this) {
+            long intervalMillis = 1000 / Math.max(1, settings.getPodCreationRate());
+            long now = timeService.now().toEpochMilli();
+            long slotMillis = Math.max(now, nextSlotMillis);
+            nextSlotMillis = slotMillis + intervalMillis;
+            waitMillis = slotMillis - now;
+        }
+
+        if (waitMillis > 0) {
+            timeService.sleepMillis(waitMillis);
+        }
+    }
+}
@@ -46,6 +46,10 @@ public class Settings implements Runnable {
     private int               runPoll                     = 60;
     private int               maxEngines                  = 0;
 
+    private String            schedulingMode              = "poll";
+    private int               podCreationRate             = 5;
+    private int               podCreationThreads          = 4;
+
     private ArrayList<String> requestorsByScheduleID      = new ArrayList<>();
 
     private final CoreV1Api   api;
@@ -158,6 +162,11 @@ public class Settings implements Runnable {
 
         this.encryptionKeysSecretName = updateProperty(configMapData, "encryption_keys_secret_name", "", this.encryptionKeysSecretName);
 
+        // *** The scheduling mode and creation threads are only used when the controller starts
+        this.schedulingMode = updateProperty(configMapData, "scheduling_mode", "poll", this.schedulingMode);
+        this.podCreationRate = updateProperty(configMapData, "pod_creation_rate", 5, this.podCreationRate);
+        this.podCreationThreads = updateProperty(configMapData, "pod_creation_threads", 4, this.podCreationThreads);
+
         int poll = getPropertyFromData(configMapData, "run_poll", 20);
         if (poll != runPoll) {
             logger.info("Setting Run Poll from '" + runPoll + "' to '" + poll + "'");
@@ -338,4 +347,19 @@ public class Settings implements Runnable {
     public String getEncryptionKeysSecretName() {
         return encryptionKeysSecretName;
     }
-}
\ No newline at end of file
+
+    public boolean isEventDrivenScheduling() {
+        return "event".equalsIgnoreCase(this.schedulingMode);
+    }
+
+    /**
+     * @return the most engine pods the event driven scheduler creates per second
+     */
+    public int getPodCreationRate() {
+        return this.podCreationRate;
+    }
+
+    public int getPodCreationThreads() {
+        return this.podCreationThreads;
+    }
+}
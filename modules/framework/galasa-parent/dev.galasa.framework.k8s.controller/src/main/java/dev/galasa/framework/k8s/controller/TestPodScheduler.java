@@ -7,6 +7,7 @@ package dev.galasa.framework.k8s.controller;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
@@ -28,6 +29,8 @@ import dev.galasa.framework.spi.IFrameworkRuns;
 import dev.galasa.framework.spi.IRun;
 import dev.galasa.framework.spi.SystemEnvironment;
 import dev.galasa.framework.spi.creds.FrameworkEncryptionService;
+import dev.galasa.framework.spi.utils.ITimeService;
+import dev.galasa.framework.spi.utils.SystemTimeService;
 import io.kubernetes.client.openapi.ApiException;
 import io.kubernetes.client.openapi.apis.CoreV1Api;
 import io.kubernetes.client.openapi.models.V1Affinity;
@@ -52,6 +55,7 @@ import io.kubernetes.client.openapi.models.V1Toleration;
 import io.kubernetes.client.openapi.models.V1Volume;
 import io.kubernetes.client.openapi.models.V1VolumeMount;
 import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
 
 public class TestPodScheduler implements Runnable {
 
@@ -68,8 +72,18 @@ public class TestPodScheduler implements Runnable {
     private final IDynamicStatusStoreService dss;
     private final IFrameworkRuns             runs;
     private final QueuedComparator           queuedComparator = new QueuedComparator();
+    private final ITimeService               timeService;
+
+    // *** Metrics are registered once, as the scheduler can be created more than once
+    private static final Counter             submittedRuns    = Counter.build()
+            .name("galasa_k8s_controller_submitted_runs")
+            .help("The number of runs submitted by the Kubernetes controller").register();
+
+    private static final Histogram           scheduleLatency  = Histogram.build()
+            .name("galasa_k8s_controller_schedule_latency_seconds")
+            .help("The time from a run being queued until its engine pod is created")
+            .buckets(0.5, 1, 2, 5, 10, 30, 60, 120, 300, 600).register();
 
-    private Counter                          submittedRuns;
     private Environment                      env              = new SystemEnvironment();
 
 
@@ -78,17 +92,16 @@ public class TestPodScheduler implements Runnable {
     }
 
     public TestPodScheduler(Environment env, IDynamicStatusStoreService dss, Settings settings, CoreV1Api api, IFrameworkRuns runs) {
+        this(env, dss, settings, api, runs, new SystemTimeService());
+    }
+
+    public TestPodScheduler(Environment env, IDynamicStatusStoreService dss, Settings settings, CoreV1Api api, IFrameworkRuns runs, ITimeService timeService) {
         this.env = env;
         this.settings = settings;
         this.api = api;
         this.runs = runs;
         this.dss = dss;
-
-        // *** Create metrics
-
-        this.submittedRuns = Counter.build().name("galasa_k8s_controller_submitted_runs")
-                .help("The number of runs submitted by the Kubernetes controller").register();
-
+        this.timeService = timeService;
     }
 
     @Override
@@ -155,7 +168,14 @@ public class TestPodScheduler implements Runnable {
         return;
     }
 
-    private void startPod(IRun run) {
+    /**
+     * Allocate a queued run to this controller and create its engine pod
+     * 
+     * @param run the queued run
+     * @return the name of the engine pod, or null if the run was allocated by
+     *         another controller or the pod could not be created
+     */
+    String startPod(IRun run) {
         String runName = run.getName();
         String engineName = this.settings.getEngineLabel() + "-" + runName.toLowerCase();
         String namespace = this.settings.getNamespace();
@@ -164,7 +184,7 @@ public class TestPodScheduler implements Runnable {
 
         try {
             // *** First attempt to allocate the run to this controller
-            Instant now = Instant.now();
+            Instant now = this.timeService.now();
             Instant expire = now.plus(15, ChronoUnit.MINUTES);
             HashMap<String, String> props = new HashMap<>();
             props.put("run." + runName + ".controller", settings.getPodName());
@@ -172,22 +192,21 @@ public class TestPodScheduler implements Runnable {
             props.put("run." + runName + ".allocate.timeout", expire.toString());
             if (!this.dss.putSwap("run." + runName + ".status", "queued", "allocated", props)) {
                 logger.info("run allocated by another controller");
-                return;
+                return null;
             }
 
             V1Pod newPod = createTestPod(runName, engineName, run.isTrace());
 
-            boolean successful = false;
             int retry = 0;
-            while (!successful) {
+            while (true) {
                 try {
                     // System.out.println(newPod.toString());
                     api.createNamespacedPod(namespace, newPod).pretty("true").execute();
 
                     logger.info("Engine Pod " + newPod.getMetadata().getName() + " started");
-                    successful = true;
                     submittedRuns.inc();
-                    break;
+                    recordScheduleLatency(run);
+                    return newPod.getMetadata().getName();
                 } catch (ApiException e) {
                     String response = e.getResponseBody();
                     if (response != null) {
@@ -212,6 +231,14 @@ public class TestPodScheduler implements Runnable {
         } catch (Exception e) {
             logger.error("Failed to start new engine", e);
         }
+        return null;
+    }
+
+    private void recordScheduleLatency(IRun run) {
+        Instant queued = run.getQueued();
+        if (queued != null) {
+            scheduleLatency.observe(Math.max(0, Duration.between(queued, this.timeService.now()).toMillis()) / 1000.0);
+        }
     }
 
     V1Pod createTestPod(String runName, String engineName, boolean isTraceEnabled) {
@@ -0,0 +1,250 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.k8s.controller;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import dev.galasa.framework.mocks.MockEnvironment;
+import dev.galasa.framework.mocks.MockIDynamicStatusStoreService;
+import dev.galasa.framework.mocks.MockIFrameworkRuns;
+import dev.galasa.framework.mocks.MockRun;
+import dev.galasa.framework.mocks.MockTimeService;
+import dev.galasa.framework.spi.IRun;
+import dev.galasa.framework.spi.utils.SystemTimeService;
+import io.kubernetes.client.informer.cache.Cache;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodStatus;
+
+public class EventDrivenTestPodSchedulerTest {
+
+    class MockSettings extends Settings {
+
+        private V1ConfigMap mockConfigMap;
+
+        public MockSettings(V1ConfigMap configMap, K8sController controller, CoreV1Api api) throws K8sControllerException {
+            super(controller, api);
+            this.mockConfigMap = configMap;
+        }
+
+        @Override
+        V1ConfigMap retrieveConfigMap() {
+            return mockConfigMap;
+        }
+    }
+
+    class MockK8sController extends K8sController {
+        @Override
+        public void pollUpdated() {
+            // Do nothing...
+        }
+    }
+
+    /**
+     * Creates pods by adding them to the informer cache, as the informer would
+     * once Kubernetes had created them
+     */
+    class MockTestPodScheduler extends TestPodScheduler {
+
+        private final List<IRun>     queuedRuns;
+        private final Cache<V1Pod>   pods;
+        private final List<String>   startedRuns = new CopyOnWriteArrayList<>();
+        private final Semaphore      started     = new Semaphore(0);
+
+        public MockTestPodScheduler(Settings settings, MockIDynamicStatusStoreService dss, List<IRun> queuedRuns, Cache<V1Pod> pods) {
+            super(new MockEnvironment(), dss, settings, null, new MockIFrameworkRuns(queuedRuns));
+            this.queuedRuns = queuedRuns;
+            this.pods = pods;
+        }
+
+        @Override
+        String startPod(IRun run) {
+            queuedRuns.remove(run);
+            String podName = "engine-" + run.getName();
+            pods.add(createPod(podName, "Running"));
+            startedRuns.add(run.getName());
+            started.release();
+            return podName;
+        }
+    }
+
+    private V1ConfigMap createMockConfigMap(int maxEngines) {
+        V1ConfigMap configMap = new V1ConfigMap();
+        configMap.setMetadata(new V1ObjectMeta().resourceVersion("mockVersion"));
+
+        Map<String, String> data = new HashMap<>();
+        data.put("max_engines", Integer.toString(maxEngines));
+        data.put("engine_label", "my-test-engine");
+        data.put("scheduling_mode", "event");
+        data.put("pod_creation_rate", "1000");
+        data.put("pod_creation_threads", "2");
+        configMap.setData(data);
+
+        return configMap;
+    }
+
+    private MockSettings createSettings(int maxEngines) throws Exception {
+        MockSettings settings = new MockSettings(createMockConfigMap(maxEngines), new MockK8sController(), null);
+        settings.init();
+        return settings;
+    }
+
+    private static V1Pod createPod(String name, String phase) {
+        V1Pod pod = new V1Pod();
+        pod.setMetadata(new V1ObjectMeta().name(name).namespace("galasa"));
+        pod.setStatus(new V1PodStatus().phase(phase));
+        return pod;
+    }
+
+    private static IRun createRun(String runName) {
+        return new MockRun("bundle", "class", runName, "stream", "obr", "repo", "requestor", false);
+    }
+
+    @Test
+    public void testQueuedRunsAreStartedWhenTheyAreQueued() throws Exception {
+        // Given...
+        MockSettings settings = createSettings(10);
+        assertThat(settings.isEventDrivenScheduling()).isTrue();
+
+        MockIDynamicStatusStoreService mockDss = new MockIDynamicStatusStoreService();
+        List<IRun> queuedRuns = new CopyOnWriteArrayList<>(List.of(createRun("U1"), createRun("U2")));
+        Cache<V1Pod> pods = new Cache<>();
+        MockTestPodScheduler podScheduler = new MockTestPodScheduler(settings, mockDss, queuedRuns, pods);
+        PodCache podCache = new PodCache(pods, new SystemTimeService());
+
+        EventDrivenTestPodScheduler scheduler = new EventDrivenTestPodScheduler(mockDss, settings,
+            new MockIFrameworkRuns(queuedRuns), podScheduler, podCache,
+            new PodCreationRateLimiter(settings, new SystemTimeService()));
+
+        try {
+            // When...
+            scheduler.start();
+
+            // Then...
+            assertThat(podScheduler.started.tryAcquire(2, 10, TimeUnit.SECONDS)).isTrue();
+            assertThat(podScheduler.startedRuns).containsExactlyInAnyOrder("U1", "U2");
+
+            // When...
+            queuedRuns.add(createRun("U3"));
+            mockDss.put("run.U3.status", "queued");
+
+            // Then...
+            assertThat(podScheduler.started.tryAcquire(1, 10, TimeUnit.SECONDS)).isTrue();
+            assertThat(podScheduler.startedRuns).containsExactlyInAnyOrder("U1", "U2", "U3");
+            assertThat(podCache.getActivePodCount()).isEqualTo(3);
+        } finally {
+            scheduler.shutdown();
+        }
+        assertThat(mockDss.getWatchCount()).isZero();
+    }
+
+    @Test
+    public void testFinishedPodsMakeRoomForQueuedRuns() throws Exception {
+        // Given...
+        MockSettings settings = createSettings(2);
+
+        MockIDynamicStatusStoreService mockDss = new MockIDynamicStatusStoreService();
+        List<IRun> queuedRuns = new CopyOnWriteArrayList<>(
+            List.of(createRun("U1"), createRun("U2"), createRun("U3"), createRun("U4")));
+        Cache<V1Pod> pods = new Cache<>();
+        MockTestPodScheduler podScheduler = new MockTestPodScheduler(settings, mockDss, queuedRuns, pods);
+        PodCache podCache = new PodCache(pods, new SystemTimeService());
+
+        EventDrivenTestPodScheduler scheduler = new EventDrivenTestPodScheduler(mockDss, settings,
+            new MockIFrameworkRuns(queuedRuns), podScheduler, podCache,
+            new PodCreationRateLimiter(settings, new SystemTimeService()));
+
+        try {
+            // When...
+            scheduler.start();
+
+            // Then...
+            assertThat(podScheduler.started.tryAcquire(2, 10, TimeUnit.SECONDS)).isTrue();
+            scheduler.run();
+            assertThat(podScheduler.started.tryAcquire(1, 500, TimeUnit.MILLISECONDS)).isFalse();
+            assertThat(podScheduler.startedRuns).hasSize(2);
+
+            // When...
+            String finishedPodName = "engine-" + podScheduler.startedRuns.get(0);
+            V1Pod running = pods.getByKey("galasa/" + finishedPodName);
+            V1Pod finished = createPod(finishedPodName, "Succeeded");
+            pods.update(finished);
+            podCache.onUpdate(running, finished);
+
+            // Then...
+            assertThat(podScheduler.started.tryAcquire(1, 10, TimeUnit.SECONDS)).isTrue();
+            assertThat(podScheduler.startedRuns).hasSize(3);
+            assertThat(podCache.getActivePodCount()).isEqualTo(2);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testCreatedPodsCountUntilTheInformerSeesThem() throws Exception {
+        // Given...
+        MockTimeService timeService = new MockTimeService(Instant.now());
+        Cache<V1Pod> pods = new Cache<>();
+        pods.add(createPod("engine-u1", "Running"));
+        pods.add(createPod("engine-u2", "Failed"));
+        PodCache podCache = new PodCache(pods, timeService);
+
+        // When...
+        podCache.podCreated("engine-u3");
+        podCache.podCreated("engine-u4");
+
+        // Then...
+        assertThat(podCache.getActivePodCount()).isEqualTo(3);
+
+        // When...
+        V1Pod pod = createPod("engine-u3", "Pending");
+        pods.add(pod);
+        podCache.onAdd(pod);
+
+        // Then...
+        assertThat(podCache.getActivePodCount()).isEqualTo(3);
+
+        // When...
+        timeService.sleepMillis(2 * 60 * 1000);
+
+        // Then...
+        assertThat(podCache.getActivePodCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testPodCreationIsRateLimited() throws Exception {
+        // Given...
+        V1ConfigMap configMap = createMockConfigMap(10);
+        configMap.getData().put("pod_creation_rate", "4");
+        MockSettings settings = new MockSettings(configMap, new MockK8sController(), null);
+        settings.init();
+
+        Instant start = Instant.now();
+        MockTimeService timeService = new MockTimeService(start);
+        PodCreationRateLimiter rateLimiter = new PodCreationRateLimiter(settings, timeService);
+
+        // When...
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.acquire();
+        }
+
+        // Then...
+        // *** The first pod is created straight away, then one every 250ms
+        assertThat(timeService.now()).isEqualTo(start.plusMillis(1000));
+    }
+}
@@ -7,16 +7,21 @@ package dev.galasa.framework.k8s.controller;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.validation.constraints.NotNull;
+
 import org.junit.Test;
 
 import dev.galasa.framework.mocks.MockEnvironment;
 import dev.galasa.framework.mocks.MockIDynamicStatusStoreService;
 import dev.galasa.framework.mocks.MockIFrameworkRuns;
+import dev.galasa.framework.mocks.MockRun;
+import dev.galasa.framework.mocks.MockTimeService;
 import dev.galasa.framework.spi.creds.FrameworkEncryptionService;
 import io.kubernetes.client.openapi.apis.CoreV1Api;
 import io.kubernetes.client.openapi.models.V1ConfigMap;
@@ -217,4 +222,38 @@ public class TestPodSchedulerTest {
         assertPodDetailsAreCorrect(pod, runName, podName, expectedEncryptionKeysMountPath, settings);
 
     }
+
+    @Test
+    public void testRunIsAllocatedAtTheTimeFromTheTimeService() throws Exception {
+        // Given...
+        MockK8sController controller = new MockK8sController();
+        Map<String, String> allocationProperties = new HashMap<>();
+        MockIDynamicStatusStoreService mockDss = new MockIDynamicStatusStoreService() {
+            @Override
+            public boolean putSwap(@NotNull String key, String oldValue, @NotNull String newValue,
+                    @NotNull Map<String, String> others) {
+                allocationProperties.putAll(others);
+                // *** Allocated by another controller, so no pod is created
+                return false;
+            }
+        };
+        MockIFrameworkRuns mockFrameworkRuns = new MockIFrameworkRuns(new ArrayList<>());
+
+        MockSettings settings = new MockSettings(createMockConfigMap(), controller, null);
+        settings.init();
+
+        Instant now = Instant.parse("2024-01-01T10:00:00Z");
+        TestPodScheduler runPoll = new TestPodScheduler(new MockEnvironment(), mockDss, settings, null, mockFrameworkRuns,
+                new MockTimeService(now));
+
+        MockRun run = new MockRun("bundle", "class", "run1", "stream", "obr", "repo", "requestor", false);
+
+        // When...
+        String podName = runPoll.startPod(run);
+
+        // Then...
+        assertThat(podName).isNull();
+        assertThat(allocationProperties).containsEntry("run.run1.allocated", now.toString());
+        assertThat(allocationProperties).containsEntry("run.run1.allocate.timeout", now.plusSeconds(15 * 60).toString());
+    }
 }
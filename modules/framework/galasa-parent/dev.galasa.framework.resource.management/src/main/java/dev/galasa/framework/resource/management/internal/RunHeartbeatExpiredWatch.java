@@ -0,0 +1,207 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.resource.management.internal;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.framework.spi.AbstractManager;
+import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.FrameworkException;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
+import dev.galasa.framework.spi.IDynamicStatusStoreService;
+import dev.galasa.framework.spi.IDynamicStatusStoreWatcher;
+import dev.galasa.framework.spi.IFramework;
+import dev.galasa.framework.spi.IFrameworkRuns;
+import dev.galasa.framework.spi.IResourceManagement;
+import dev.galasa.framework.spi.IRun;
+
+/**
+ * Watches for run heartbeats being removed from the DSS.
+ *
+ * When a run's heartbeat is a lease, the DSS removes it once the run stops
+ * renewing it, so a dead run is noticed when its lease expires rather than on
+ * the next scan by the {@link RunDeadHeartbeatMonitor}. Only runs that marked
+ * their heartbeat as a lease (run.name.heartbeat.lease) are acted on, the
+ * monitor still looks after runs with a timestamp heartbeat.
+ *
+ * A heartbeat is also removed when a run ends normally or is reset, so the run
+ * is only treated as dead if, after a short grace period
+ * (framework.resource.management.heartbeat.lease.grace, default 30 seconds),
+ * it still exists without a heartbeat and is not in a state where it is not
+ * expected to have one. The lease itself has already given the run its time
+ * to renew, so the grace only has to cover the status update that follows a
+ * normal end, and a dead run is dealt with the lease length plus the grace
+ * after its last renewal.
+ */
+public class RunHeartbeatExpiredWatch implements IDynamicStatusStoreWatcher {
+
+    private static final long                        DEFAULT_GRACE_SECS = 30;
+
+    private final Pattern                            heartbeatPattern   = Pattern.compile("^\\Qrun.\\E(\\w+)\\Q.heartbeat\\E$");
+
+    private final IResourceManagement                resourceManagement;
+    private final IDynamicStatusStoreService         dss;
+    private final IConfigurationPropertyStoreService cps;
+    private final IFrameworkRuns                     frameworkRuns;
+    private final Log                                logger;
+
+    private UUID                                     watchID;
+
+    protected RunHeartbeatExpiredWatch(IFramework framework, IResourceManagement resourceManagement,
+            IDynamicStatusStoreService dss, IConfigurationPropertyStoreService cps) throws FrameworkException {
+        this(framework, resourceManagement, dss, cps, LogFactory.getLog(RunHeartbeatExpiredWatch.class));
+    }
+
+    protected RunHeartbeatExpiredWatch(IFramework framework, IResourceManagement resourceManagement,
+            IDynamicStatusStoreService dss, IConfigurationPropertyStoreService cps, Log logger) throws FrameworkException {
+        this.resourceManagement = resourceManagement;
+        this.dss = dss;
+        this.cps = cps;
+        this.frameworkRuns = framework.getFrameworkRuns();
+        this.logger = logger;
+    }
+
+    /**
+     * Start watching for removed heartbeats, and check for any runs whose
+     * heartbeat was removed while we were not watching
+     */
+    public void start() throws FrameworkException {
+        this.watchID = this.dss.watchPrefix(this, "run");
+        this.logger.info("Run Heartbeat Expired Watch initialised");
+
+        List<IRun> runs = this.frameworkRuns.getAllRuns();
+        for (IRun run : runs) {
+            if (isDead(run) && isLeaseRun(run.getName())) {
+                scheduleCheck(run.getName());
+            }
+        }
+    }
+
+    public void shutdown() {
+        if (this.watchID != null) {
+            try {
+                this.dss.unwatch(this.watchID);
+            } catch (DynamicStatusStoreException e) {
+                this.logger.warn("Unable to stop watching for removed run heartbeats", e);
+            }
+        }
+    }
+
+    @Override
+    public void propertyModified(String key, Event event, String oldValue, String newValue) {
+
+        if (event != Event.DELETE || key == null) {
+            return;
+        }
+
+        Matcher matcher = heartbeatPattern.matcher(key);
+        if (!matcher.find()) {
+            return;
+        }
+
+        // *** Read the DSS off the watch thread
+        String runName = matcher.group(1);
+        this.resourceManagement.getScheduledExecutorService().execute(() -> {
+            try {
+                if (isLeaseRun(runName)) {
+                    scheduleCheck(runName);
+                }
+            } catch (Throwable e) {
+                this.logger.error("Check of run " + runName + " with a removed heartbeat failed", e);
+            }
+        });
+    }
+
+    private void scheduleCheck(String runName) {
+        long graceSecs = getGraceSecs();
+        this.logger.debug("Heartbeat of run " + runName + " has gone, checking the run in " + graceSecs + " seconds");
+        this.resourceManagement.getScheduledExecutorService().schedule(() -> checkRun(runName), graceSecs,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * The time a run is given to get a heartbeat again, or to reach a state
+     * where it is not expected to have one, once its lease has expired
+     */
+    protected long getGraceSecs() {
+        long graceSecs = DEFAULT_GRACE_SECS;
+        try {
+            String overrideTime = AbstractManager
+                    .nulled(this.cps.getProperty("resource.management", "heartbeat.lease.grace"));
+            if (overrideTime != null) {
+                graceSecs = Long.parseLong(overrideTime);
+            }
+        } catch (Throwable e) {
+            this.logger.error("Problem with resource.management.heartbeat.lease.grace, using default " + graceSecs, e);
+        }
+        return graceSecs;
+    }
+
+    /**
+     * Runs with a timestamp heartbeat are left to the {@link RunDeadHeartbeatMonitor}
+     */
+    private boolean isLeaseRun(String runName) throws DynamicStatusStoreException {
+        return this.dss.get("run." + runName + ".heartbeat.lease") != null;
+    }
+
+    protected void checkRun(String runName) {
+        try {
+            if (!isLeaseRun(runName)) {
+                this.logger.trace("Run " + runName + " does not have a lease heartbeat");
+                return;
+            }
+
+            IRun run = this.frameworkRuns.getRun(runName);
+            if (!isDead(run)) {
+                this.logger.trace("Run " + runName + " has ended or has a heartbeat again");
+                return;
+            }
+
+            if (run.isLocal()) {
+                this.logger.warn("Deleting run " + runName + ", its heartbeat has expired");
+                this.frameworkRuns.delete(runName);
+            } else {
+                this.logger.warn("Reseting run " + runName + ", its heartbeat has expired");
+                this.frameworkRuns.reset(runName);
+            }
+        } catch (Throwable e) {
+            this.logger.error("Check of run " + runName + " with an expired heartbeat failed", e);
+        }
+    }
+
+    /**
+     * A run is dead if it has no heartbeat but is in a state where its engine
+     * should be keeping one
+     */
+    private boolean isDead(IRun run) {
+        if (run == null || run.isSharedEnvironment() || run.getHeartbeat() != null) {
+            return false;
+        }
+
+        String status = run.getStatus();
+        if (status == null) {
+            return false;
+        }
+
+        switch (status.toLowerCase()) {
+            case "queued":
+            case "allocated":
+            case "waiting":
+            case "finished":
+                return false;
+            default:
+                return true;
+        }
+    }
+
+}
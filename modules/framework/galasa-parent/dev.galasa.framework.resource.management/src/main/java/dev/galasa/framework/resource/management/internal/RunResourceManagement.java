@@ -26,6 +26,7 @@ public class RunResourceManagement implements IResourceManagementProvider {
     private IResourceManagement                resourceManagement;
     private IDynamicStatusStoreService         dss;
     private IConfigurationPropertyStoreService cps;
+    private RunHeartbeatExpiredWatch           heartbeatExpiredWatch;
 
     @Override
     public boolean initialise(IFramework framework, IResourceManagement resourceManagement)
@@ -52,6 +53,12 @@ public class RunResourceManagement implements IResourceManagementProvider {
         } catch (FrameworkException e) {
             logger.error("Unable to initialise Run Dead Heartbeat monitor", e);
         }
+        try {
+            this.heartbeatExpiredWatch = new RunHeartbeatExpiredWatch(this.framework, this.resourceManagement, this.dss, this.cps);
+            this.heartbeatExpiredWatch.start();
+        } catch (FrameworkException e) {
+            logger.error("Unable to initialise Run Heartbeat Expired watch", e);
+        }
         try {
             this.resourceManagement.getScheduledExecutorService().scheduleWithFixedDelay(
                     new RunExpiredSharedEnvironment(this.framework, this.resourceManagement, this.dss, this, cps),
@@ -77,6 +84,9 @@ public class RunResourceManagement implements IResourceManagementProvider {
 
     @Override
     public void shutdown() {
+        if (this.heartbeatExpiredWatch != null) {
+            this.heartbeatExpiredWatch.shutdown();
+        }
     }
 
     @Override
@@ -0,0 +1,328 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.resource.management.internal;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import dev.galasa.framework.mocks.*;
+import dev.galasa.framework.resource.management.internal.mocks.*;
+import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.FrameworkException;
+import dev.galasa.framework.spi.IDynamicStatusStoreWatcher;
+import dev.galasa.framework.spi.IDynamicStatusStoreWatcher.Event;
+import dev.galasa.framework.spi.IFrameworkRuns;
+import dev.galasa.framework.spi.IRun;
+
+public class TestRunHeartbeatExpiredWatch {
+
+    public static final boolean LOCAL_TEST = true;
+    public static final boolean REMOTE_TEST = false;
+
+    /**
+     * Runs tasks straight away on the calling thread, recording the delay each
+     * scheduled check would have had
+     */
+    class MockInlineScheduledExecutor extends ScheduledThreadPoolExecutor {
+        public List<Long> scheduledDelaySecs = new ArrayList<Long>();
+
+        public MockInlineScheduledExecutor() {
+            super(1);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            scheduledDelaySecs.add(unit.toSeconds(delay));
+            command.run();
+            return null;
+        }
+    }
+
+    class MockResourceManagementWithExecutor extends MockResourceManagement {
+        public MockInlineScheduledExecutor executor = new MockInlineScheduledExecutor();
+
+        @Override
+        public ScheduledExecutorService getScheduledExecutorService() {
+            return executor;
+        }
+    }
+
+    class MockFrameworkRunsExtended extends MockFrameworkRuns {
+
+        public Map<String,IRun> runs = new HashMap<String,IRun>();
+        public List<String> runNamesReset = new ArrayList<String>();
+        public List<String> runNamesDeleted = new ArrayList<String>();
+
+        public MockFrameworkRunsExtended(IRun... runs) {
+            for (IRun run : runs) {
+                this.runs.put(run.getName(), run);
+            }
+        }
+
+        @Override
+        public List<IRun> getAllRuns() throws FrameworkException {
+            return new ArrayList<IRun>(runs.values());
+        }
+
+        @Override
+        public IRun getRun(String runname) throws DynamicStatusStoreException {
+            return runs.get(runname);
+        }
+
+        @Override
+        public boolean reset(String runname) throws DynamicStatusStoreException {
+            runNamesReset.add(runname);
+            return true;
+        }
+
+        @Override
+        public boolean delete(String runname) throws DynamicStatusStoreException {
+            runNamesDeleted.add(runname);
+            return runs.remove(runname) != null;
+        }
+    }
+
+    private MockRun createRun(String runName, String status, boolean isLocal) {
+        MockRun run = new MockRun(
+            "myTestBundle", 
+            "myTestClassName",
+            runName,
+            "myTestStreamName",
+            "myTestStreamOBR",
+            "myTestStreamReportUrl",
+            "myTestRequestorName",
+            isLocal );
+        run.setStatus(status);
+        return run;
+    }
+
+    private Map<String,String> createLeaseRunsDss(String... leaseRunNames) {
+        Map<String,String> dssProps = new HashMap<String,String>();
+        for (String runName : leaseRunNames) {
+            dssProps.put("run." + runName + ".heartbeat.lease", "90");
+        }
+        return dssProps;
+    }
+
+    private RunHeartbeatExpiredWatch createWatch(MockFrameworkRunsExtended runs, MockResourceManagement resourceManagement, MockLog log, Map<String,String> dssProps) throws Exception {
+        Map<String,String> cpsProps = new HashMap<String,String>();
+        cpsProps.put("resource.management.heartbeat.lease.grace", "0");
+        return createWatch(runs, resourceManagement, log, dssProps, cpsProps);
+    }
+
+    private RunHeartbeatExpiredWatch createWatch(MockFrameworkRunsExtended runs, MockResourceManagement resourceManagement, MockLog log, Map<String,String> dssProps, Map<String,String> cpsProps) throws Exception {
+        MockFramework framework = new MockFramework() {
+            @Override
+            public IFrameworkRuns getFrameworkRuns() throws FrameworkException {
+                return runs ;
+            };
+        };
+        MockDSSStore dss = new MockDSSStore(dssProps) {
+            @Override
+            public UUID watchPrefix(IDynamicStatusStoreWatcher watcher, String keyPrefix) throws DynamicStatusStoreException {
+                return UUID.randomUUID();
+            }
+        };
+        return new RunHeartbeatExpiredWatch(framework, resourceManagement, dss, new MockCPSStore(cpsProps), log);
+    }
+
+    @Test
+    public void testExpiredHeartbeatOfRemoteRunGetsReset() throws Exception {
+        // Given...
+        MockRun run = createRun("U1", "running", REMOTE_TEST);
+        MockFrameworkRunsExtended runs = new MockFrameworkRunsExtended(run);
+        MockResourceManagementWithExecutor resourceManagement = new MockResourceManagementWithExecutor();
+        MockLog log = new MockLog();
+        RunHeartbeatExpiredWatch watch = createWatch(runs, resourceManagement, log, createLeaseRunsDss("U1"));
+
+        // When...
+        watch.propertyModified("run.U1.heartbeat", Event.DELETE, Instant.now().toString(), null);
+
+        // Then...
+        assertThat(runs.runNamesReset).containsExactly("U1");
+        assertThat(runs.runNamesDeleted).isEmpty();
+        assertThat(log.contains("Reseting run U1, its heartbeat has expired")).isTrue();
+    }
+
+    @Test
+    public void testExpiredHeartbeatOfLocalRunGetsDeleted() throws Exception {
+        // Given...
+        MockRun run = createRun("L1", "building", LOCAL_TEST);
+        MockFrameworkRunsExtended runs = new MockFrameworkRunsExtended(run);
+        MockResourceManagementWithExecutor resourceManagement = new MockResourceManagementWithExecutor();
+        RunHeartbeatExpiredWatch watch = createWatch(runs, resourceManagement, new MockLog(), createLeaseRunsDss("L1"));
+
+        // When...
+        watch.propertyModified("run.L1.heartbeat", Event.DELETE, Instant.now().toString(), null);
+
+        // Then...
+        assertThat(runs.runNamesDeleted).containsExactly("L1");
+        assertThat(runs.runNamesReset).isEmpty();
+    }
+
+    @Test
+    public void testHeartbeatRemovedFromFinishedRunIsLeftAlone() throws Exception {
+        // Given...
+        MockRun run = createRun("U2", "finished", REMOTE_TEST);
+        MockFrameworkRunsExtended runs = new MockFrameworkRunsExtended(run);
+        MockResourceManagementWithExecutor resourceManagement = new MockResourceManagementWithExecutor();
+        RunHeartbeatExpiredWatch watch = createWatch(runs, resourceManagement, new MockLog(), createLeaseRunsDss("U2"));
+
+        // When...
+        watch.propertyModified("run.U2.heartbeat", Event.DELETE, Instant.now().toString(), null);
+
+        // Then...
+        assertThat(runs.runNamesReset).isEmpty();
+        assertThat(runs.runNamesDeleted).isEmpty();
+    }
+
+    @Test
+    public void testRunWithHeartbeatAgainAfterGracePeriodIsLeftAlone() throws Exception {
+        // Given...
+        MockRun run = createRun("U3", "running", REMOTE_TEST);
+        run.setHeartbeat(Instant.now());
+        MockFrameworkRunsExtended runs = new MockFrameworkRunsExtended(run);
+        MockResourceManagementWithExecutor resourceManagement = new MockResourceManagementWithExecutor();
+        RunHeartbeatExpiredWatch watch = createWatch(runs, resourceManagement, new MockLog(), createLeaseRunsDss("U3"));
+
+        // When...
+        watch.propertyModified("run.U3.heartbeat", Event.DELETE, Instant.now().toString(), null);
+
+        // Then...
+        assertThat(runs.runNamesReset).isEmpty();
+    }
+
+    @Test
+    public void testOtherRunPropertiesAreIgnored() throws Exception {
+        // Given...
+        MockRun run = createRun("U4", "running", REMOTE_TEST);
+        MockFrameworkRunsExtended runs = new MockFrameworkRunsExtended(run);
+        MockResourceManagementWithExecutor resourceManagement = new MockResourceManagementWithExecutor();
+        RunHeartbeatExpiredWatch watch = createWatch(runs, resourceManagement, new MockLog(), createLeaseRunsDss("U4"));
+
+        // When...
+        watch.propertyModified("run.U4.status", Event.DELETE, "running", null);
+        watch.propertyModified("run.U4.heartbeat", Event.MODIFIED, Instant.now().toString(), Instant.now().toString());
+
+        // Then...
+        assertThat(runs.runNamesReset).isEmpty();
+    }
+
+    @Test
+    public void testCheckOfRunThatHasGoneDoesNothing() throws Exception {
+        // Given...
+        MockFrameworkRunsExtended runs = new MockFrameworkRunsExtended();
+        RunHeartbeatExpiredWatch watch = createWatch(runs, new MockResourceManagement(), new MockLog(), createLeaseRunsDss("U5"));
+
+        // When...
+        watch.checkRun("U5");
+
+        // Then...
+        assertThat(runs.runNamesReset).isEmpty();
+        assertThat(runs.runNamesDeleted).isEmpty();
+    }
+
+    @Test
+    public void testStartChecksRunsWhoseHeartbeatExpiredWhileNotWatching() throws Exception {
+        // Given...
+        MockRun deadRun = createRun("U6", "running", REMOTE_TEST);
+        MockRun liveRun = createRun("U7", "running", REMOTE_TEST);
+        liveRun.setHeartbeat(Instant.now());
+        MockRun queuedRun = createRun("U8", "queued", REMOTE_TEST);
+        MockFrameworkRunsExtended runs = new MockFrameworkRunsExtended(deadRun, liveRun, queuedRun);
+        MockResourceManagementWithExecutor resourceManagement = new MockResourceManagementWithExecutor();
+        RunHeartbeatExpiredWatch watch = createWatch(runs, resourceManagement, new MockLog(), createLeaseRunsDss("U6", "U7", "U8"));
+
+        // When...
+        watch.start();
+
+        // Then...
+        assertThat(runs.runNamesReset).containsExactly("U6");
+    }
+
+    @Test
+    public void testExpiredHeartbeatOfTimestampRunIsLeftToTheMonitor() throws Exception {
+        // Given...
+        MockRun run = createRun("U9", "running", REMOTE_TEST);
+        MockFrameworkRunsExtended runs = new MockFrameworkRunsExtended(run);
+        MockResourceManagementWithExecutor resourceManagement = new MockResourceManagementWithExecutor();
+        RunHeartbeatExpiredWatch watch = createWatch(runs, resourceManagement, new MockLog(), createLeaseRunsDss());
+
+        // When...
+        watch.propertyModified("run.U9.heartbeat", Event.DELETE, Instant.now().toString(), null);
+        watch.start();
+
+        // Then...
+        assertThat(resourceManagement.executor.scheduledDelaySecs).isEmpty();
+        assertThat(runs.runNamesReset).isEmpty();
+        assertThat(runs.runNamesDeleted).isEmpty();
+    }
+
+    @Test
+    public void testRunIsGivenTheLeaseGraceToRecover() throws Exception {
+        // Given...
+        MockRun run = createRun("U10", "running", REMOTE_TEST);
+        MockFrameworkRunsExtended runs = new MockFrameworkRunsExtended(run);
+        MockResourceManagementWithExecutor resourceManagement = new MockResourceManagementWithExecutor();
+        Map<String,String> cpsProps = new HashMap<String,String>();
+        cpsProps.put("resource.management.heartbeat.lease.grace", "45");
+        RunHeartbeatExpiredWatch watch = createWatch(runs, resourceManagement, new MockLog(), createLeaseRunsDss("U10"), cpsProps);
+
+        // When...
+        watch.propertyModified("run.U10.heartbeat", Event.DELETE, Instant.now().toString(), null);
+
+        // Then...
+        assertThat(resourceManagement.executor.scheduledDelaySecs).containsExactly(45L);
+    }
+
+    @Test
+    public void testDeadRunIsDetectedWellBeforeTheDeadHeartbeatTimeout() throws Exception {
+        // Given...
+        MockRun run = createRun("U11", "running", REMOTE_TEST);
+        MockFrameworkRunsExtended runs = new MockFrameworkRunsExtended(run);
+        MockResourceManagementWithExecutor resourceManagement = new MockResourceManagementWithExecutor();
+        Map<String,String> dssProps = createLeaseRunsDss("U11");
+        Map<String,String> cpsProps = new HashMap<String,String>();
+        cpsProps.put("resource.management.dead.heartbeat.timeout", "300");
+        RunHeartbeatExpiredWatch watch = createWatch(runs, resourceManagement, new MockLog(), dssProps, cpsProps);
+
+        // When...
+        watch.propertyModified("run.U11.heartbeat", Event.DELETE, Instant.now().toString(), null);
+
+        // Then...
+        long leaseSecs = Long.parseLong(dssProps.get("run.U11.heartbeat.lease"));
+        long detectionSecs = leaseSecs + resourceManagement.executor.scheduledDelaySecs.get(0);
+        assertThat(detectionSecs).isEqualTo(120L);
+        assertThat(detectionSecs).isLessThan(300L);
+        assertThat(runs.runNamesReset).containsExactly("U11");
+    }
+
+    @Test
+    public void testDefaultGracePeriodIsShort() throws Exception {
+        // Given...
+        MockFrameworkRunsExtended runs = new MockFrameworkRunsExtended();
+        RunHeartbeatExpiredWatch watch = createWatch(runs, new MockResourceManagement(), new MockLog(), createLeaseRunsDss(), new HashMap<String,String>());
+
+        // When...
+        long graceSecs = watch.getGraceSecs();
+
+        // Then...
+        assertThat(graceSecs).isEqualTo(30);
+    }
+}
@@ -358,7 +358,7 @@ public class BaseTestRunner {
     protected TestRunHeartbeat createBeatingHeart(IFramework framework) throws TestRunException {
         TestRunHeartbeat heartbeat;
         try {
-            heartbeat = new TestRunHeartbeat(framework);
+            heartbeat = new TestRunHeartbeat(framework, getCPS());
             heartbeat.start();
         } catch (DynamicStatusStoreException ex) {
             throw new TestRunException("Unable to initialise the heartbeat. "+ex.getMessage(), ex);
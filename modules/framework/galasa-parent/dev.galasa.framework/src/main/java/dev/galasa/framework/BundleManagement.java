@@ -9,6 +9,9 @@ import java.io.InputStream;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.text.*;
 
 import org.apache.commons.io.IOUtils;
@@ -22,6 +25,7 @@ import org.apache.felix.bundlerepository.Resolver;
 import org.apache.felix.bundlerepository.Resource;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
 import org.osgi.framework.InvalidSyntaxException;
 
 import dev.galasa.framework.spi.FrameworkException;
@@ -38,8 +42,22 @@ public class BundleManagement {
      * @throws FrameworkException
      */
     public static void loadBundle(RepositoryAdmin repositoryAdmin, BundleContext bundleContext, String bundleSymbolicName) throws FrameworkException {
+        loadBundle(repositoryAdmin, bundleContext, bundleSymbolicName, BundleResolutionCache.forFramework(bundleContext));
+    }
+
+    private static void loadBundle(RepositoryAdmin repositoryAdmin, BundleContext bundleContext, String bundleSymbolicName, BundleResolutionCache resolutionCache) throws FrameworkException {
 
         logger.trace("Installing bundle " + bundleSymbolicName);
+        if (resolutionCache != null) {
+            List<String> cachedLocations = resolutionCache.getBundleLocations(bundleSymbolicName);
+            if (cachedLocations != null) {
+                if (installCachedBundles(bundleContext, bundleSymbolicName, cachedLocations)) {
+                    return;
+                }
+                resolutionCache.removeBundleLocations(bundleSymbolicName);
+            }
+        }
+
         Resolver resolver = repositoryAdmin.resolver();
         String filterString = "(symbolicname=" + bundleSymbolicName + ")";
         Resource[] resources = null;
@@ -53,7 +71,10 @@ public class BundleManagement {
                 throw new FrameworkException("Unable to locate bundle \"" + bundleSymbolicName + "\" in OBR repository");
             }
             // *** Only load the first one
-            addResource(bundleContext, bundleSymbolicName, resolver, resources[0]);
+            List<String> locations = addResource(bundleContext, bundleSymbolicName, resolver, resources[0]);
+            if (resolutionCache != null) {
+                resolutionCache.putBundleLocations(bundleSymbolicName, locations);
+            }
         } catch (FrameworkException e) {
             throw new FrameworkException("Unable to install bundle \"" + bundleSymbolicName + "\" from OBR repository",
                     e);
@@ -62,7 +83,40 @@ public class BundleManagement {
 
     public static void loadAllGherkinManagerBundles(RepositoryAdmin repositoryAdmin, BundleContext bundleContext) throws FrameworkException {
         logger.trace("Installing manager bundles");
-        Resolver resolver = repositoryAdmin.resolver();
+        BundleResolutionCache resolutionCache = BundleResolutionCache.forFramework(bundleContext);
+        try {
+            Set<String> gherkinManagers = null;
+            if (resolutionCache != null) {
+                gherkinManagers = resolutionCache.getGherkinManagers();
+            }
+            if (gherkinManagers == null) {
+                gherkinManagers = findGherkinManagers(repositoryAdmin);
+                if (resolutionCache != null) {
+                    resolutionCache.putGherkinManagers(gherkinManagers);
+                }
+            }
+
+            //*** Load only bundles that are not already resolved
+            for (String gherkinManager : gherkinManagers) {
+                if (!isBundleActive(bundleContext, gherkinManager)) {
+                    loadBundle(repositoryAdmin, bundleContext, gherkinManager, resolutionCache);
+                }
+            }
+        } catch (FrameworkException e) {
+            throw new FrameworkException("Unable to install manager bundles from OBR repository",
+                    e);
+        }
+    }
+
+    /**
+     * Search the capabilities of every resource in the OBRs for the Managers
+     * that support Gherkin
+     * 
+     * @param repositoryAdmin
+     * @return the symbolic names of the Gherkin Managers
+     * @throws FrameworkException
+     */
+    private static Set<String> findGherkinManagers(RepositoryAdmin repositoryAdmin) throws FrameworkException {
         String filterString = "(symbolicname=*)";
         Resource[] resources = null;
         try {
@@ -70,33 +124,87 @@ public class BundleManagement {
         } catch (InvalidSyntaxException e) {
             throw new FrameworkException("Unable to discover repoistory resources", e);
         }
-        try {
-            if (resources.length == 0) {
-                throw new FrameworkException("Unable to locate manager bundles in OBR repository");
-            }
+        if (resources.length == 0) {
+            throw new FrameworkException("Unable to locate manager bundles in OBR repository");
+        }
 
-            //*** Load only bundles that are not already resolved
-            for(Resource resource : resources) {
-                boolean gherkinSupport = false;
-                Capability[] capabilities = resource.getCapabilities();
-                for(Capability capability : capabilities) {
-                    if(capability.getName().equals("service")) {
-                        for(Property prop : capability.getProperties()) {
-                            if(prop.getValue().contains("dev.galasa.framework.spi.IGherkinManager") && prop.getValue().contains("dev.galasa.framework.spi.IManager")) {
-                                gherkinSupport = true;
-                            }
+        Set<String> gherkinManagers = new TreeSet<>();
+        for(Resource resource : resources) {
+            boolean gherkinSupport = false;
+            Capability[] capabilities = resource.getCapabilities();
+            for(Capability capability : capabilities) {
+                if(capability.getName().equals("service")) {
+                    for(Property prop : capability.getProperties()) {
+                        if(prop.getValue().contains("dev.galasa.framework.spi.IGherkinManager") && prop.getValue().contains("dev.galasa.framework.spi.IManager")) {
+                            gherkinSupport = true;
                         }
                     }
                 }
-                if(gherkinSupport) {
-                    if (!isBundleActive(bundleContext, resource.getSymbolicName())) {
-                        addResource(bundleContext, resource.getSymbolicName(), resolver, resource);
-                    }
+            }
+            if(gherkinSupport) {
+                gherkinManagers.add(resource.getSymbolicName());
+            }
+        }
+        return gherkinManagers;
+    }
+
+    /**
+     * Install a bundle from the locations the resolver chose for it on an earlier
+     * run with the same OBRs
+     * 
+     * @param bundleContext
+     * @param bundleSymbolicName
+     * @param locations
+     * @return true if the bundle is now active, false if it needs to be resolved
+     */
+    private static boolean installCachedBundles(BundleContext bundleContext, String bundleSymbolicName, List<String> locations) {
+        ArrayList<Bundle> bundlesToStart = new ArrayList<>();
+        ArrayList<Bundle> installedBundles = new ArrayList<>();
+        try {
+            for (String location : locations) {
+                Bundle bundle = bundleContext.getBundle(location);
+                if (bundle == null) {
+                    bundle = bundleContext.installBundle(location);
+                    installedBundles.add(bundle);
                 }
+                bundlesToStart.add(bundle);
+            }
+            for (Bundle bundle : bundlesToStart) {
+                if (bundle.getHeaders().get(Constants.FRAGMENT_HOST) == null) {
+                    bundle.start();
+                }
+            }
+        } catch (Exception e) {
+            logger.info("Unable to install the cached bundles for " + bundleSymbolicName + ", resolving it instead: " + e.getMessage());
+            uninstallBundles(installedBundles);
+            return false;
+        }
+
+        if (!isBundleActive(bundleContext, bundleSymbolicName)) {
+            logger.info("Cached bundles for " + bundleSymbolicName + " did not activate it, resolving it instead");
+            uninstallBundles(installedBundles);
+            return false;
+        }
+
+        logger.trace("Installed bundle " + bundleSymbolicName + " from the resolution cache");
+        printBundles(bundleContext);
+        return true;
+    }
+
+    /**
+     * Uninstall the bundles a failed install of cached bundles left behind, so
+     * the resolver starts from the bundles that were installed before it
+     * 
+     * @param bundles the bundles that were installed, in the order they were installed
+     */
+    private static void uninstallBundles(List<Bundle> bundles) {
+        for (int i = bundles.size() - 1; i >= 0; i--) {
+            Bundle bundle = bundles.get(i);
+            try {
+                bundle.uninstall();
+            } catch (Exception e) {
+                logger.warn("Unable to uninstall bundle " + bundle.getLocation(), e);
             }
-        } catch (FrameworkException e) {
-            throw new FrameworkException("Unable to install manager bundles from OBR repository",
-                    e);
         }
     }
 
@@ -106,9 +214,10 @@ public class BundleManagement {
      * @param bundleSymbolicName
      * @param resolver
      * @param resource
+     * @return the locations of the bundles installed, in the order they were installed
      * @throws LauncherException
      */
-    private static void addResource(BundleContext bundleContext, String bundleSymbolicName, Resolver resolver, Resource resource) throws FrameworkException {
+    private static List<String> addResource(BundleContext bundleContext, String bundleSymbolicName, Resolver resolver, Resource resource) throws FrameworkException {
         logger.trace("Resouce: " + resource);
         resolver.add(resource);
 
@@ -181,6 +290,16 @@ public class BundleManagement {
             }
 
             printBundles(bundleContext);
+
+            ArrayList<String> locations = new ArrayList<>();
+            for (Resource requiredResource : requiredResources) {
+                locations.add(requiredResource.getURI());
+            }
+            for (Resource optionalResource : optionalResources) {
+                locations.add(optionalResource.getURI());
+            }
+            locations.add(resource.getURI());
+            return locations;
         } else {
             logger.error("Unable to resolve " + resource.toString());
             Reason[] unsatisfiedRequirements = resolver.getUnsatisfiedRequirements();
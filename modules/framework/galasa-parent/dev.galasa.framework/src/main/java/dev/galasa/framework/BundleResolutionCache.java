@@ -0,0 +1,165 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.osgi.framework.BundleContext;
+
+/**
+ * The OBR resolutions kept between runs by the launcher, so the bundles the
+ * framework loads are not resolved again while the OBRs are unchanged.
+ *
+ * When the cache is switched on, the launcher fingerprints the OBRs it
+ * loaded and passes the cache file for them in the property
+ * framework.resolution.cache.file. This class only reads that file and
+ * merges its changes into it, in the format written by
+ * dev.galasa.boot.felix.BundleResolutionCache. Both merge their changes into
+ * the file on disk, so neither loses the other's entries.
+ */
+class BundleResolutionCache {
+
+    static final String         CACHE_FILE_PROPERTY = "framework.resolution.cache.file";
+
+    private static final String BUNDLE_PREFIX       = "bundle.";
+    private static final String GHERKIN_MANAGERS    = "gherkin.managers";
+
+    private static final String SEPARATOR           = "\n";
+
+    private static final Log    logger              = LogFactory.getLog(BundleResolutionCache.class);
+
+    private final Path          cacheFile;
+    private final Properties    entries             = new Properties();
+
+    BundleResolutionCache(Path cacheFile) {
+        this.cacheFile = cacheFile;
+        this.entries.putAll(read());
+    }
+
+    /**
+     * @param bundleContext
+     * @return the cache for the OBRs loaded by the launcher, or null if the
+     *         launcher is not using a resolution cache
+     */
+    static BundleResolutionCache forFramework(BundleContext bundleContext) {
+        String cacheFile = bundleContext.getProperty(CACHE_FILE_PROPERTY);
+        if (cacheFile == null) {
+            return null;
+        }
+        return new BundleResolutionCache(Paths.get(cacheFile));
+    }
+
+    /**
+     * @param bundleSymbolicName the bundle that was requested
+     * @return the locations of the bundles to install for the requested
+     *         bundle, in the order they were installed, or null if the bundle
+     *         has not been resolved with these OBRs
+     */
+    List<String> getBundleLocations(String bundleSymbolicName) {
+        String locations = this.entries.getProperty(BUNDLE_PREFIX + bundleSymbolicName);
+        if (locations == null) {
+            return null;
+        }
+        return new ArrayList<>(Arrays.asList(locations.split(SEPARATOR)));
+    }
+
+    void putBundleLocations(String bundleSymbolicName, List<String> locations) {
+        save(BUNDLE_PREFIX + bundleSymbolicName, String.join(SEPARATOR, locations));
+    }
+
+    void removeBundleLocations(String bundleSymbolicName) {
+        if (this.entries.containsKey(BUNDLE_PREFIX + bundleSymbolicName)) {
+            save(BUNDLE_PREFIX + bundleSymbolicName, null);
+        }
+    }
+
+    /**
+     * @return the symbolic names of the Gherkin Managers in the OBRs, or null
+     *         if the OBRs have not been searched for them
+     */
+    Set<String> getGherkinManagers() {
+        String managers = this.entries.getProperty(GHERKIN_MANAGERS);
+        if (managers == null) {
+            return null;
+        }
+
+        Set<String> bundles = new TreeSet<>();
+        if (!managers.isEmpty()) {
+            bundles.addAll(Arrays.asList(managers.split(SEPARATOR)));
+        }
+        return bundles;
+    }
+
+    void putGherkinManagers(Set<String> bundleSymbolicNames) {
+        save(GHERKIN_MANAGERS, String.join(SEPARATOR, bundleSymbolicNames));
+    }
+
+    private Properties read() {
+        Properties properties = new Properties();
+        if (Files.exists(this.cacheFile)) {
+            try (InputStream is = Files.newInputStream(this.cacheFile)) {
+                properties.load(is);
+            } catch (IOException | IllegalArgumentException e) {
+                logger.warn("Unable to read bundle resolution cache " + this.cacheFile + ", ignoring it", e);
+                properties.clear();
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Set or remove an entry and merge it into the cache on disk. The cache is
+     * written to a temporary file and moved into place, so a launcher starting
+     * at the same time never reads a partly written cache
+     *
+     * @param key
+     * @param value the new value, or null to remove the entry
+     */
+    private void save(String key, String value) {
+        Properties merged = read();
+        if (value == null) {
+            this.entries.remove(key);
+            merged.remove(key);
+        } else {
+            this.entries.setProperty(key, value);
+            merged.setProperty(key, value);
+        }
+
+        try {
+            Files.createDirectories(this.cacheFile.getParent());
+            Path tempFile = Files.createTempFile(this.cacheFile.getParent(), this.cacheFile.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream os = Files.newOutputStream(tempFile)) {
+                    merged.store(os, "Galasa bundle resolution cache");
+                }
+                try {
+                    Files.move(tempFile, this.cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, this.cacheFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to write bundle resolution cache " + this.cacheFile, e);
+        }
+    }
+}
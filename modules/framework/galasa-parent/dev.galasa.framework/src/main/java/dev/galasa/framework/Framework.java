@@ -28,6 +28,7 @@ import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.ServiceScope;
 
 import dev.galasa.framework.internal.auth.FrameworkAuthStoreService;
+import dev.galasa.framework.internal.cps.CpsResolutionCache;
 import dev.galasa.framework.internal.cps.FrameworkConfigurationPropertyService;
 import dev.galasa.framework.internal.creds.FrameworkCredentialsService;
 import dev.galasa.framework.internal.dss.FrameworkDynamicStatusStoreService;
@@ -58,6 +59,7 @@ public class Framework implements IFramework, IShuttableFramework {
     private final Properties                   recordProperties = new Properties();
 
     private IConfigurationPropertyStore        cpsStore;
+    private CpsResolutionCache                 cpsResolutionCache;
     private IDynamicStatusStore                dssStore;
     private IResultArchiveStoreService         rasService;
     private IConfidentialTextService           ctsService;
@@ -146,7 +148,7 @@ public class Framework implements IFramework, IShuttableFramework {
         }
 
         return new FrameworkConfigurationPropertyService(this, this.cpsStore, this.overrideProperties,
-                this.recordProperties, namespace);
+                this.recordProperties, namespace, this.cpsResolutionCache);
     }
 
     /*
@@ -252,6 +254,7 @@ public class Framework implements IFramework, IShuttableFramework {
         }
 
         this.cpsStore = cpsStore;
+        this.cpsResolutionCache = new CpsResolutionCache(cpsStore);
         this.cpsFramework = getConfigurationPropertyService("framework");
     }
 
@@ -474,6 +477,12 @@ public class Framework implements IFramework, IShuttableFramework {
             }
         }
 
+        // *** Stop indexing the runs before the Dynamic Status Store goes
+        if (this.frameworkRuns != null) {
+            this.frameworkRuns.shutdown();
+            this.frameworkRuns = null;
+        }
+
         // *** Shutdown the Dynamic Status Store
         if (this.dssStore != null) {
             try {
@@ -492,6 +501,7 @@ public class Framework implements IFramework, IShuttableFramework {
                 shutdownLogger.trace("Shutting down the Configuration Properties Store");
                 this.cpsStore.shutdown();
                 this.cpsStore = null;
+                this.cpsResolutionCache = null;
             } catch (Throwable t) {
                 error = true;
                 shutdownLogger.error("Failed to shutdown the Configuration Property Store", t);
@@ -281,7 +281,7 @@ public class FrameworkInitialisation implements IFrameworkInitialisation {
 
         //if the URI is not using a file scheme then we cannot create it
         //so return
-        if(!propertyFile.getScheme().startsWith("file")){
+        if(!"file".equals(propertyFile.getScheme())){
             return;
         }
 
@@ -38,7 +38,17 @@ import dev.galasa.framework.spi.IFrameworkRuns;
 import dev.galasa.framework.spi.IRun;
 import dev.galasa.framework.spi.utils.GalasaGson;
 import dev.galasa.framework.spi.utils.GalasaGsonBuilder;
-
+import dev.galasa.framework.spi.utils.ITimeService;
+import dev.galasa.framework.spi.utils.SystemTimeService;
+
+/**
+ * The lookups of several runs are answered from a {@link RunIndex} when the
+ * DSS can be watched. The index follows the DSS through the watch, so a change
+ * made by another process is seen once its watch event arrives, or at the
+ * latest when the index is next reloaded. A lookup of one run by name with
+ * {@link #getRun(String)} always reads the DSS, so a run is found as soon as it
+ * has been submitted.
+ */
 public class FrameworkRuns implements IFrameworkRuns {
 
     private final static Log                         logger       = LogFactory.getLog(FrameworkRuns.class);
@@ -48,6 +58,7 @@ public class FrameworkRuns implements IFrameworkRuns {
     private final IFramework                         framework;
     private final IDynamicStatusStoreService         dss;
     private final IConfigurationPropertyStoreService cps;
+    private final ITimeService                       timeService;
 
     private final String                             NO_GROUP     = "none";
     private final String                             NO_BUNDLE     = "none";
@@ -58,15 +69,27 @@ public class FrameworkRuns implements IFrameworkRuns {
 
     private final GalasaGson gson = new GalasaGson();
 
+    private RunIndex                                 runIndex;
+    private boolean                                  runIndexUnavailable;
+
     public FrameworkRuns(IFramework framework) throws FrameworkException {
+        this(framework, new SystemTimeService());
+    }
+
+    public FrameworkRuns(IFramework framework, ITimeService timeService) throws FrameworkException {
         this.framework = framework;
         this.dss = framework.getDynamicStatusStoreService("framework");
         this.cps = framework.getConfigurationPropertyService("framework");
+        this.timeService = timeService;
         gson.setGsonBuilder(new GalasaGsonBuilder(false));
     }
 
     @Override
     public List<IRun> getActiveRuns() throws FrameworkException {
+        RunIndex index = getRunIndex();
+        if (index != null) {
+            return index.getActiveRuns();
+        }
 
         List<IRun> runs = getAllRuns();
         Iterator<IRun> iruns = runs.iterator();
@@ -93,6 +116,11 @@ public class FrameworkRuns implements IFrameworkRuns {
 
     @Override
     public @NotNull List<IRun> getQueuedRuns() throws FrameworkException {
+        RunIndex index = getRunIndex();
+        if (index != null) {
+            return index.getRunsByStatus("queued");
+        }
+
         List<IRun> runs = getAllRuns();
         Iterator<IRun> iruns = runs.iterator();
         while (iruns.hasNext()) {
@@ -108,6 +136,11 @@ public class FrameworkRuns implements IFrameworkRuns {
 
     @Override
     public List<IRun> getAllRuns() throws FrameworkException {
+        RunIndex index = getRunIndex();
+        if (index != null) {
+            return index.getAllRuns();
+        }
+
         HashMap<String, IRun> runs = new HashMap<>();
 
         logger.trace("Fetching all runs from DSS");
@@ -131,6 +164,11 @@ public class FrameworkRuns implements IFrameworkRuns {
 
     @Override
     public List<IRun> getAllGroupedRuns(@NotNull String groupName) throws FrameworkException {
+        RunIndex index = getRunIndex();
+        if (index != null) {
+            return index.getRunsByGroup(groupName);
+        }
+
         List<IRun> allRuns = this.getAllRuns();
         List<IRun> groupedRuns = new LinkedList<IRun>();
 
@@ -142,8 +180,22 @@ public class FrameworkRuns implements IFrameworkRuns {
         return groupedRuns;
     }
 
+    @Override
+    public @NotNull List<IRun> getRunsByRequestor(@NotNull String requestor) throws FrameworkException {
+        RunIndex index = getRunIndex();
+        if (index != null) {
+            return index.getRunsByRequestor(requestor);
+        }
+        return IFrameworkRuns.super.getRunsByRequestor(requestor);
+    }
+
     @Override
     public @NotNull Set<String> getActiveRunNames() throws FrameworkException {
+        RunIndex index = getRunIndex();
+        if (index != null) {
+            return index.getActiveRunNames();
+        }
+
         List<IRun> runs = getActiveRuns();
 
         HashSet<String> runNames = new HashSet<>();
@@ -154,6 +206,38 @@ public class FrameworkRuns implements IFrameworkRuns {
         return runNames;
     }
 
+    /**
+     * The run index is started on the first lookup of runs, so a process that
+     * only ever works with its own run does not watch all the runs. If the DSS
+     * cannot be watched, the lookups fall back to reading all the runs each
+     * time.
+     *
+     * @return the run index, or null if it is not available
+     */
+    private synchronized RunIndex getRunIndex() {
+        if (this.runIndex == null && !this.runIndexUnavailable) {
+            RunIndex index = new RunIndex(this.dss, this.timeService);
+            try {
+                index.start();
+                this.runIndex = index;
+            } catch (DynamicStatusStoreException | UnsupportedOperationException e) {
+                logger.warn("Unable to index the runs in the DSS, all runs will be read for each lookup", e);
+                this.runIndexUnavailable = true;
+            }
+        }
+        return this.runIndex;
+    }
+
+    /**
+     * Stop keeping the run index current
+     */
+    public synchronized void shutdown() {
+        if (this.runIndex != null) {
+            this.runIndex.shutdown();
+            this.runIndex = null;
+        }
+    }
+
     private @NotNull IRun submitRun(SubmitRunRequest runRequest) throws FrameworkException {
         IRun run = null;
         setRunRequestDefaultsIfNotSet(runRequest);
@@ -296,6 +380,7 @@ public class FrameworkRuns implements IFrameworkRuns {
         }
 
         this.dss.delete(prefix + "heartbeat");
+        this.dss.delete(prefix + "heartbeat.lease");
         this.dss.put(prefix + "status", "queued");
         return true;
     }
@@ -135,6 +135,7 @@ public class GherkinTestRunner extends BaseTestRunner {
                 isRunOK = false;
             }
 
+            testStructure.setManagerPhases(managers.getManagerPhases());
             updateStatus(TestRunLifecycleStatus.ENDING, null);
             managers.endOfTestRun();
 
@@ -13,6 +13,7 @@ import dev.galasa.framework.spi.FrameworkException;
 import dev.galasa.framework.spi.IManager;
 import dev.galasa.framework.spi.Result;
 import dev.galasa.framework.spi.language.GalasaMethod;
+import dev.galasa.framework.spi.teststructure.TestManagerPhase;
 
 public interface ITestRunManagers {
     public boolean anyReasonTestClassShouldBeIgnored() throws FrameworkException ;
@@ -34,4 +35,5 @@ public interface ITestRunManagers {
     public void startOfTestMethod(@NotNull GalasaMethod galasaMethod) throws FrameworkException;
     public Result endOfTestMethod(@NotNull GalasaMethod galasaMethod, @NotNull Result currentResult, Throwable currentException)
     throws FrameworkException ;
+    public List<TestManagerPhase> getManagerPhases();
 }
@@ -0,0 +1,237 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.framework.spi.FrameworkException;
+import dev.galasa.framework.spi.IManager;
+import dev.galasa.framework.spi.teststructure.TestManagerPhase;
+
+/**
+ * Runs a provisioning phase across the active Managers, calling Managers that
+ * do not depend on each other at the same time.
+ *
+ * The graph is built from the Managers' areYouProvisionalDependentOn answers.
+ * In the provision generate, build and start phases a Manager is only called
+ * once every Manager it depends on has completed the phase, and no further
+ * Managers are called once one has failed. In the provision stop and discard
+ * phases the order is reversed, so a Manager is only called once every Manager
+ * that depends on it has completed the phase, and every Manager is called
+ * whether or not others fail.
+ *
+ * Without an executor the Managers are called one at a time in provisioning
+ * order, as they always were.
+ */
+class ManagerProvisioningGraph {
+
+    public interface ManagerPhaseAction {
+        void run(IManager manager) throws FrameworkException;
+    }
+
+    private final Log                          logger       = LogFactory.getLog(ManagerProvisioningGraph.class);
+
+    private final List<IManager>               managers;
+    private final Map<IManager, Set<IManager>> dependencies = new HashMap<>();
+    private final Map<IManager, Set<IManager>> dependents   = new HashMap<>();
+    private final ExecutorService              executor;
+
+    private final List<TestManagerPhase>       phases       = new ArrayList<>();
+
+    /**
+     * @param managers the active Managers, sorted into provisioning order
+     * @param executor the executor to call Managers on, or null to call them
+     *                 one at a time on the calling thread
+     */
+    ManagerProvisioningGraph(List<IManager> managers, ExecutorService executor) {
+        this.managers = managers;
+        this.executor = executor;
+
+        for (IManager manager : managers) {
+            this.dependencies.put(manager, new HashSet<>());
+            this.dependents.put(manager, new HashSet<>());
+        }
+        for (IManager manager : managers) {
+            for (IManager other : managers) {
+                if (manager != other && manager.areYouProvisionalDependentOn(other)) {
+                    this.dependencies.get(manager).add(other);
+                    this.dependents.get(other).add(manager);
+                }
+            }
+        }
+    }
+
+    /**
+     * Run a provision generate, build or start phase
+     *
+     * @throws FrameworkException the first failure of a Manager in the phase
+     */
+    public void runPhase(String phase, ManagerPhaseAction action) throws FrameworkException {
+        Throwable failure = run(phase, action, this.managers, this.dependencies, true);
+        if (failure == null) {
+            return;
+        }
+        if (failure instanceof FrameworkException) {
+            throw (FrameworkException) failure;
+        }
+        throwUnchecked(failure);
+    }
+
+    /**
+     * Run a provision stop or discard phase. Every Manager is called, and
+     * then the first unchecked failure, if any, is thrown.
+     */
+    public void runPhaseReversed(String phase, ManagerPhaseAction action) {
+        List<IManager> reversed = new ArrayList<>(this.managers);
+        Collections.reverse(reversed);
+
+        Throwable failure = run(phase, action, reversed, this.dependents, false);
+        if (failure != null) {
+            throwUnchecked(failure);
+        }
+    }
+
+    /**
+     * @return the timings of every Manager phase run so far
+     */
+    public List<TestManagerPhase> getPhases() {
+        return new ArrayList<>(this.phases);
+    }
+
+    private Throwable run(String phase, ManagerPhaseAction action, List<IManager> order,
+            Map<IManager, Set<IManager>> waitFor, boolean stopOnFailure) {
+        if (this.executor == null) {
+            return runSequentially(phase, action, order, stopOnFailure);
+        }
+
+        CompletionService<PhaseOutcome> completionService = new ExecutorCompletionService<>(this.executor);
+        List<IManager> remaining = new ArrayList<>(order);
+        Set<IManager> completed = new HashSet<>();
+        int running = 0;
+        Throwable firstFailure = null;
+
+        while (true) {
+            if (firstFailure == null || !stopOnFailure) {
+                Iterator<IManager> it = remaining.iterator();
+                while (it.hasNext()) {
+                    IManager manager = it.next();
+                    if (completed.containsAll(waitFor.get(manager))) {
+                        it.remove();
+                        completionService.submit(() -> callManager(phase, action, manager));
+                        running++;
+                    }
+                }
+
+                // *** Can only happen with a dependency loop, which sorting the Managers would have rejected
+                if (running == 0 && !remaining.isEmpty()) {
+                    IManager manager = remaining.remove(0);
+                    completionService.submit(() -> callManager(phase, action, manager));
+                    running++;
+                }
+            }
+
+            if (running == 0) {
+                break;
+            }
+
+            PhaseOutcome outcome;
+            try {
+                outcome = completionService.take().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new FrameworkException("Interrupted waiting for Managers in provision " + phase, e);
+            } catch (ExecutionException e) {
+                // *** callManager catches everything, so should not happen
+                return e.getCause();
+            }
+            running--;
+
+            this.phases.add(outcome.timing);
+            completed.add(outcome.manager);
+            if (outcome.failure != null && firstFailure == null) {
+                firstFailure = outcome.failure;
+            }
+        }
+
+        return firstFailure;
+    }
+
+    private Throwable runSequentially(String phase, ManagerPhaseAction action, List<IManager> order,
+            boolean stopOnFailure) {
+        Throwable firstFailure = null;
+        for (IManager manager : order) {
+            PhaseOutcome outcome = callManager(phase, action, manager);
+            this.phases.add(outcome.timing);
+            if (outcome.failure != null) {
+                if (stopOnFailure) {
+                    return outcome.failure;
+                }
+                if (firstFailure == null) {
+                    firstFailure = outcome.failure;
+                }
+            }
+        }
+        return firstFailure;
+    }
+
+    private PhaseOutcome callManager(String phase, ManagerPhaseAction action, IManager manager) {
+        String managerName = manager.getClass().getName();
+        TestManagerPhase timing = new TestManagerPhase(managerName, phase);
+        timing.setStartTime(Instant.now());
+
+        Throwable failure = null;
+        try {
+            action.run(manager);
+        } catch (Throwable e) {
+            failure = e;
+        }
+
+        timing.setEndTime(Instant.now());
+        timing.setResult(failure == null ? "ok" : "failed");
+        if (logger.isDebugEnabled()) {
+            logger.debug("Provision " + phase + " for manager " + managerName + " took "
+                    + (timing.getEndTime().toEpochMilli() - timing.getStartTime().toEpochMilli()) + "ms");
+        }
+        return new PhaseOutcome(manager, timing, failure);
+    }
+
+    private static void throwUnchecked(Throwable failure) {
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        throw new IllegalStateException(failure);
+    }
+
+    private static class PhaseOutcome {
+        private final IManager         manager;
+        private final TestManagerPhase timing;
+        private final Throwable        failure;
+
+        private PhaseOutcome(IManager manager, TestManagerPhase timing, Throwable failure) {
+            this.manager = manager;
+            this.timing = timing;
+            this.failure = failure;
+        }
+    }
+}
@@ -38,12 +38,19 @@ public class RunImpl implements IRun {
     private final String  rasRunId;
 
     public RunImpl(String name, IDynamicStatusStoreService dss) throws DynamicStatusStoreException {
+        this(name, dss.getPrefix("run." + name));
+    }
+
+    /**
+     * @param name          the name of the run
+     * @param runProperties the DSS properties of the run, keyed by their full
+     *                      "run.&lt;name&gt;." key
+     */
+    public RunImpl(String name, Map<String, String> runProperties) {
         this.name = name;
 
         String prefix = "run." + name + ".";
 
-        Map<String, String> runProperties = dss.getPrefix("run." + this.name);
-
         String sHeartbeat = runProperties.get(prefix + "heartbeat");
         if (sHeartbeat != null) {
             this.heartbeat = Instant.parse(sHeartbeat);
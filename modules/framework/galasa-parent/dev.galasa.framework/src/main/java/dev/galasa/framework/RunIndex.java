@@ -0,0 +1,310 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.IDynamicStatusStoreService;
+import dev.galasa.framework.spi.IDynamicStatusStoreWatcher;
+import dev.galasa.framework.spi.IRun;
+import dev.galasa.framework.spi.utils.ITimeService;
+
+/**
+ * An in-memory view of the runs in the DSS, indexed by status, group and
+ * requestor, so the runs that match a lookup can be found without reading and
+ * parsing every run.
+ *
+ * The index is loaded with one prefix read of the runs, and then kept current
+ * by a watch on the same prefix. Changes seen while it is being loaded take
+ * precedence over what was read. As a safety net for a missed event, the
+ * index is reloaded if it is queried more than five minutes after it was last
+ * loaded.
+ */
+public class RunIndex implements IDynamicStatusStoreWatcher {
+
+    public static final long         RESYNC_INTERVAL_MILLIS = 5 * 60 * 1000;
+
+    private static final String      RUN_PREFIX             = "run.";
+
+    private final Log                logger                 = LogFactory.getLog(getClass());
+
+    private final Pattern            runPattern             = Pattern.compile("^\\Qrun.\\E(\\w+)\\Q.\\E.*$");
+
+    private final IDynamicStatusStoreService dss;
+    private final ITimeService       timeService;
+
+    private final Map<String, IndexedRun>  runs             = new HashMap<>();
+    private final Map<String, Set<String>> runsByStatus     = new HashMap<>();
+    private final Map<String, Set<String>> runsByGroup      = new HashMap<>();
+    private final Map<String, Set<String>> runsByRequestor  = new HashMap<>();
+    private final Set<String>              activeRuns       = new HashSet<>();
+
+    // The changes seen while the index is being loaded, a null value being a deleted property
+    private Map<String, String>      changesWhileLoading;
+    private long                     nextResyncMillis;
+    private UUID                     watchId;
+
+    private static class IndexedRun {
+        private final String              name;
+        private final Map<String, String> properties = new HashMap<>();
+
+        private String  status;
+        private String  group;
+        private String  requestor;
+        private boolean active;
+        private RunImpl run;
+
+        private IndexedRun(String name) {
+            this.name = name;
+        }
+
+        private IRun getRun() {
+            if (run == null) {
+                run = new RunImpl(name, properties);
+            }
+            return run;
+        }
+    }
+
+    public RunIndex(IDynamicStatusStoreService dss, ITimeService timeService) {
+        this.dss = dss;
+        this.timeService = timeService;
+    }
+
+    /**
+     * Start watching the runs in the DSS and load the index
+     *
+     * @throws DynamicStatusStoreException if the runs cannot be watched or read
+     */
+    public void start() throws DynamicStatusStoreException {
+        // *** Watch before loading, so no change made during the load is missed
+        this.watchId = dss.watchPrefix(this, RUN_PREFIX);
+        try {
+            load();
+        } catch (DynamicStatusStoreException | RuntimeException e) {
+            shutdown();
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+        if (this.watchId != null) {
+            try {
+                dss.unwatch(this.watchId);
+            } catch (DynamicStatusStoreException e) {
+                logger.warn("Unable to stop watching the runs in the DSS", e);
+            }
+            this.watchId = null;
+        }
+    }
+
+    public List<IRun> getAllRuns() throws DynamicStatusStoreException {
+        resyncIfDue();
+        synchronized (this) {
+            return toRuns(runs.keySet());
+        }
+    }
+
+    public List<IRun> getRunsByStatus(String status) throws DynamicStatusStoreException {
+        resyncIfDue();
+        synchronized (this) {
+            return toRuns(runsByStatus.get(status));
+        }
+    }
+
+    public List<IRun> getRunsByGroup(String group) throws DynamicStatusStoreException {
+        resyncIfDue();
+        synchronized (this) {
+            return toRuns(runsByGroup.get(group));
+        }
+    }
+
+    public List<IRun> getRunsByRequestor(String requestor) throws DynamicStatusStoreException {
+        resyncIfDue();
+        synchronized (this) {
+            return toRuns(runsByRequestor.get(requestor));
+        }
+    }
+
+    /**
+     * @return the runs with a heartbeat, that are allocated, or that are shared
+     *         environments
+     */
+    public List<IRun> getActiveRuns() throws DynamicStatusStoreException {
+        resyncIfDue();
+        synchronized (this) {
+            return toRuns(activeRuns);
+        }
+    }
+
+    public Set<String> getActiveRunNames() throws DynamicStatusStoreException {
+        resyncIfDue();
+        synchronized (this) {
+            return new HashSet<>(activeRuns);
+        }
+    }
+
+    @Override
+    public void propertyModified(String key, Event event, String oldValue, String newValue) {
+        String value = (event == Event.DELETE) ? null : newValue;
+        synchronized (this) {
+            if (changesWhileLoading != null) {
+                changesWhileLoading.put(key, value);
+            }
+            applyChange(key, value);
+        }
+    }
+
+    private void resyncIfDue() throws DynamicStatusStoreException {
+        synchronized (this) {
+            if (changesWhileLoading != null || timeService.now().toEpochMilli() < nextResyncMillis) {
+                return;
+            }
+        }
+        load();
+    }
+
+    private void load() throws DynamicStatusStoreException {
+        synchronized (this) {
+            if (changesWhileLoading != null) {
+                return;
+            }
+            changesWhileLoading = new HashMap<>();
+            nextResyncMillis = timeService.now().toEpochMilli() + RESYNC_INTERVAL_MILLIS;
+        }
+
+        // *** Read the runs without holding the lock, so the watch events are not held up
+        Map<String, String> runProperties;
+        try {
+            logger.trace("Loading the run index from the DSS");
+            runProperties = dss.getPrefix(RUN_PREFIX);
+        } catch (DynamicStatusStoreException | RuntimeException e) {
+            synchronized (this) {
+                changesWhileLoading = null;
+                nextResyncMillis = 0;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            runs.clear();
+            runsByStatus.clear();
+            runsByGroup.clear();
+            runsByRequestor.clear();
+            activeRuns.clear();
+
+            for (Map.Entry<String, String> entry : runProperties.entrySet()) {
+                applyChange(entry.getKey(), entry.getValue());
+            }
+            for (Map.Entry<String, String> change : changesWhileLoading.entrySet()) {
+                applyChange(change.getKey(), change.getValue());
+            }
+            changesWhileLoading = null;
+
+            logger.trace("Loaded the run index, " + runs.size() + " runs");
+        }
+    }
+
+    private void applyChange(String key, String value) {
+        Matcher matcher = runPattern.matcher(key);
+        if (!matcher.find()) {
+            return;
+        }
+        String runName = matcher.group(1);
+
+        IndexedRun indexedRun = runs.get(runName);
+        if (indexedRun == null) {
+            if (value == null) {
+                return;
+            }
+            indexedRun = new IndexedRun(runName);
+            runs.put(runName, indexedRun);
+        } else {
+            removeFromIndexes(indexedRun);
+        }
+
+        if (value == null) {
+            indexedRun.properties.remove(key);
+        } else {
+            indexedRun.properties.put(key, value);
+        }
+
+        if (indexedRun.properties.isEmpty()) {
+            runs.remove(runName);
+            return;
+        }
+
+        String prefix = RUN_PREFIX + runName + ".";
+        indexedRun.status = indexedRun.properties.get(prefix + "status");
+        indexedRun.group = indexedRun.properties.get(prefix + "group");
+        indexedRun.requestor = indexedRun.properties.get(prefix + "requestor");
+        indexedRun.active = indexedRun.properties.get(prefix + "heartbeat") != null
+                || "allocated".equals(indexedRun.status)
+                || Boolean.parseBoolean(indexedRun.properties.get(prefix + "shared.environment"));
+        indexedRun.run = null;
+
+        addToIndexes(indexedRun);
+    }
+
+    private void addToIndexes(IndexedRun indexedRun) {
+        addToIndex(runsByStatus, indexedRun.status, indexedRun.name);
+        addToIndex(runsByGroup, indexedRun.group, indexedRun.name);
+        addToIndex(runsByRequestor, indexedRun.requestor, indexedRun.name);
+        if (indexedRun.active) {
+            activeRuns.add(indexedRun.name);
+        }
+    }
+
+    private void removeFromIndexes(IndexedRun indexedRun) {
+        removeFromIndex(runsByStatus, indexedRun.status, indexedRun.name);
+        removeFromIndex(runsByGroup, indexedRun.group, indexedRun.name);
+        removeFromIndex(runsByRequestor, indexedRun.requestor, indexedRun.name);
+        activeRuns.remove(indexedRun.name);
+    }
+
+    private static void addToIndex(Map<String, Set<String>> index, String value, String runName) {
+        if (value != null) {
+            index.computeIfAbsent(value, k -> new HashSet<>()).add(runName);
+        }
+    }
+
+    private static void removeFromIndex(Map<String, Set<String>> index, String value, String runName) {
+        if (value == null) {
+            return;
+        }
+        Set<String> runNames = index.get(value);
+        if (runNames != null) {
+            runNames.remove(runName);
+            if (runNames.isEmpty()) {
+                index.remove(value);
+            }
+        }
+    }
+
+    private List<IRun> toRuns(Set<String> runNames) {
+        if (runNames == null) {
+            return new ArrayList<>();
+        }
+
+        List<IRun> matchingRuns = new ArrayList<>(runNames.size());
+        for (String runName : runNames) {
+            matchingRuns.add(runs.get(runName).getRun());
+        }
+        return matchingRuns;
+    }
+}
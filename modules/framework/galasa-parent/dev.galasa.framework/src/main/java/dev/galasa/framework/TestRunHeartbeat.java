@@ -12,48 +12,106 @@ import javax.validation.constraints.NotNull;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import dev.galasa.framework.spi.AbstractManager;
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
 import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
 import dev.galasa.framework.spi.IDynamicStatusStoreService;
 import dev.galasa.framework.spi.IFramework;
 import dev.galasa.framework.spi.IResultArchiveStore;
 
+/**
+ * Keeps the run's heartbeat in the DSS up to date while the test runs.
+ *
+ * In the default "timestamp" mode the heartbeat is swapped for the current
+ * time every 20 seconds, and resource management looks for heartbeats that
+ * have not been updated for a while.
+ *
+ * In "lease" mode (framework.heartbeat.mode=lease) the heartbeat is put with a
+ * time to live (framework.heartbeat.lease.ttl, default 90 seconds) and renewed
+ * every third of that time, so the DSS removes the heartbeat itself if the run
+ * dies and resource management is told of it by a watch event. If the DSS does
+ * not support a time to live, the timestamp mode is used instead.
+ */
 public class TestRunHeartbeat extends Thread {
 
+    public static final String               MODE_TIMESTAMP      = "timestamp";
+    public static final String               MODE_LEASE          = "lease";
+
+    private static final long                TIMESTAMP_INTERVAL_MILLIS = 20000;
+    private static final long                RETRY_INTERVAL_MILLIS     = 2000;
+    private static final long                DEFAULT_LEASE_TTL_SECS    = 90;
+
     private final Log                        logger        = LogFactory.getLog(this.getClass());
 
     private final IFramework                 framework;
     private final IDynamicStatusStoreService dss;
     private final IResultArchiveStore        ras;
     private final String                     key;
+    private final String                     leaseKey;
+
+    private boolean                          leaseMode;
+    private long                             leaseTtlSecs  = DEFAULT_LEASE_TTL_SECS;
 
     private String                           lastHeartbeat = null;
 
     private boolean                          shutdown      = false;
 
-    protected TestRunHeartbeat(@NotNull IFramework framework) throws DynamicStatusStoreException {
+    protected TestRunHeartbeat(@NotNull IFramework framework, @NotNull IConfigurationPropertyStoreService cps) throws DynamicStatusStoreException {
         this.framework = framework;
         this.dss = this.framework.getDynamicStatusStoreService("framework");
         this.ras = this.framework.getResultArchiveStore();
         this.key = "run." + framework.getTestRunName() + ".heartbeat";
+        this.leaseKey = this.key + ".lease";
+
+        loadMode(cps);
 
         // *** Set the initial
         setHeartbeat();
+
+        // *** Tell resource management the heartbeat is a lease, so it only acts on
+        // *** removed heartbeats of runs that are expected to lose them. A reset of
+        // *** the run removes the marker along with the heartbeat
+        if (this.leaseMode) {
+            dss.put(leaseKey, Long.toString(this.leaseTtlSecs));
+        }
+    }
+
+    private void loadMode(IConfigurationPropertyStoreService cps) {
+        try {
+            String mode = AbstractManager.nulled(cps.getProperty("heartbeat", "mode"));
+            if (mode == null || MODE_TIMESTAMP.equalsIgnoreCase(mode)) {
+                this.leaseMode = false;
+            } else if (MODE_LEASE.equalsIgnoreCase(mode)) {
+                this.leaseMode = true;
+            } else {
+                logger.warn("Invalid framework.heartbeat.mode '" + mode + "', using " + MODE_TIMESTAMP);
+            }
+
+            String ttl = AbstractManager.nulled(cps.getProperty("heartbeat.lease", "ttl"));
+            if (ttl != null) {
+                this.leaseTtlSecs = Long.parseLong(ttl);
+                if (this.leaseTtlSecs < 3) {
+                    logger.warn("framework.heartbeat.lease.ttl must be at least 3 seconds, using " + DEFAULT_LEASE_TTL_SECS);
+                    this.leaseTtlSecs = DEFAULT_LEASE_TTL_SECS;
+                }
+            }
+        } catch (ConfigurationPropertyStoreException | NumberFormatException e) {
+            logger.warn("Problem reading the heartbeat properties, using defaults", e);
+        }
+
+        if (this.leaseMode) {
+            logger.info("Run heartbeat is a lease with a time to live of " + this.leaseTtlSecs + " seconds");
+        }
     }
 
     private void setHeartbeat() throws DynamicStatusStoreException {
         String newHeartbeat = Instant.now().toString();
 
-        if (!dss.putSwap(key, lastHeartbeat, newHeartbeat)) {
-            // ***
-            // *** Error condition, must be another engine on this run, so we must
-            // immediately terminate
-            // *** Do not allow privision discard or anything else to run as this could
-            // affect
-            // *** the other engine
-            // ***
-            logger.fatal("The run heartbeat has been updated by something else");
-            logger.fatal("Cannot allow provision discard to run as this could affect the other engine");
-            System.exit(0);
+        if (this.leaseMode) {
+            setLeaseHeartbeat(newHeartbeat);
+        } else if (!dss.putSwap(key, lastHeartbeat, newHeartbeat)) {
+            heartbeatLost();
         }
 
         this.lastHeartbeat = newHeartbeat;
@@ -61,34 +119,77 @@ public class TestRunHeartbeat extends Thread {
         this.ras.flush();
     }
 
-    public void shutdown() {
+    private void setLeaseHeartbeat(String newHeartbeat) throws DynamicStatusStoreException {
+        // *** The lease is renewed by putting it again, only if it is still ours
+        try {
+            if (!dss.putSwap(key, lastHeartbeat, newHeartbeat, this.leaseTtlSecs)) {
+                heartbeatLost();
+            }
+        } catch (UnsupportedOperationException e) {
+            logger.warn("The DSS does not support a time to live, using the " + MODE_TIMESTAMP + " heartbeat instead");
+            this.leaseMode = false;
+            if (!dss.putSwap(key, lastHeartbeat, newHeartbeat)) {
+                heartbeatLost();
+            }
+        }
+    }
+
+    private void heartbeatLost() {
+        // ***
+        // *** Error condition, must be another engine on this run, or our lease
+        // *** has expired and the run has been given to another engine, so we must
+        // immediately terminate
+        // *** Do not allow privision discard or anything else to run as this could
+        // affect
+        // *** the other engine
+        // ***
+        logger.fatal("The run heartbeat has been updated by something else");
+        logger.fatal("Cannot allow provision discard to run as this could affect the other engine");
+        System.exit(0);
+    }
+
+    public synchronized void shutdown() {
         this.shutdown = true;
+        notifyAll();
+    }
+
+    private long getHeartbeatIntervalMillis() {
+        if (this.leaseMode) {
+            return this.leaseTtlSecs * 1000 / 3;
+        }
+        return TIMESTAMP_INTERVAL_MILLIS;
     }
 
     @Override
     public void run() {
 
-        long nextHeartbeat = 0;
-        while (!shutdown) {
-            if (System.currentTimeMillis() >= nextHeartbeat) {
-                nextHeartbeat = System.currentTimeMillis() + 20000; // TODO do we been to parameterise this?
-
-                try {
-                    setHeartbeat();
-                } catch (DynamicStatusStoreException e) {
-                    logger.error("Heartbeat failed", e);
-                    nextHeartbeat = System.currentTimeMillis() + 2000;
+        long nextHeartbeat = System.currentTimeMillis() + getHeartbeatIntervalMillis();
+        while (true) {
+            synchronized (this) {
+                // *** Sleep until the next heartbeat is due, or we are told to shut down
+                long waitMillis = nextHeartbeat - System.currentTimeMillis();
+                while (!shutdown && waitMillis > 0) {
+                    try {
+                        wait(waitMillis);
+                    } catch (InterruptedException e) {
+                        shutdown = true;
+                        Thread.currentThread().interrupt();
+                    }
+                    waitMillis = nextHeartbeat - System.currentTimeMillis();
+                }
+                if (shutdown) {
+                    break;
                 }
             }
 
             try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                shutdown = true;
-                Thread.currentThread().interrupt();
-                break;
+                setHeartbeat();
+                nextHeartbeat = System.currentTimeMillis() + getHeartbeatIntervalMillis();
+            } catch (DynamicStatusStoreException e) {
+                logger.error("Heartbeat failed", e);
+                nextHeartbeat = System.currentTimeMillis() + RETRY_INTERVAL_MILLIS;
             }
         }
 
     }
-}
\ No newline at end of file
+}
@@ -12,6 +12,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.text.*;
 
 import javax.validation.constraints.NotNull;
@@ -30,25 +35,34 @@ import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.framework.ServiceReference;
 
 import dev.galasa.ManagerException;
+import dev.galasa.framework.spi.AbstractManager;
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
 import dev.galasa.framework.spi.FrameworkException;
 import dev.galasa.framework.spi.FrameworkResourceUnavailableException;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
 import dev.galasa.framework.spi.IFramework;
 import dev.galasa.framework.spi.IManager;
 import dev.galasa.framework.spi.ResourceUnavailableException;
 import dev.galasa.framework.spi.Result;
 import dev.galasa.framework.spi.language.GalasaMethod;
 import dev.galasa.framework.spi.language.GalasaTest;
+import dev.galasa.framework.spi.teststructure.TestManagerPhase;
 
 public class TestRunManagers implements ITestRunManagers {
 
-    private final List<IManager>  activeManagers         = new ArrayList<>();
-    private final List<IManager>  activeManagersReversed = new ArrayList<>();
-    private final Log             logger                 = LogFactory.getLog(TestRunManagers.class);
-    private final IFramework      framework;
+    private final List<IManager>     activeManagers         = new ArrayList<>();
+    private final List<IManager>     activeManagersReversed = new ArrayList<>();
+    private final Log                logger                 = LogFactory.getLog(TestRunManagers.class);
+    private final IFramework         framework;
 
-    private final BundleContext   bundleContext;
+    private final BundleContext      bundleContext;
 
-    private final RepositoryAdmin repositoryAdmin;
+    private final RepositoryAdmin    repositoryAdmin;
+
+    private static final long        PROVISIONING_THREAD_IDLE_SECONDS = 60;
+
+    private ExecutorService          provisioningExecutor;
+    private ManagerProvisioningGraph provisioningGraph;
 
     public TestRunManagers(IFramework framework, GalasaTest galasaTest) throws FrameworkException {
         this.framework = framework;
@@ -69,6 +83,45 @@ public class TestRunManagers implements ITestRunManagers {
         logger.debug("The following Managers are sorted in provisioning order:-");
         reportManagers(false);
 
+        createProvisioningGraph();
+    }
+
+    /**
+     * Managers that do not depend on each other are provisioned at the same time
+     * if framework.provision.parallel is true, otherwise one at a time in
+     * provisioning order
+     */
+    private void createProvisioningGraph() {
+        boolean parallel = false;
+        try {
+            parallel = isProvisionParallel(framework.getConfigurationPropertyService("framework"));
+        } catch (ConfigurationPropertyStoreException e) {
+            logger.warn("Problem reading framework.provision.parallel, provisioning Managers one at a time", e);
+        }
+
+        if (parallel && activeManagers.size() > 1) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(activeManagers.size(), activeManagers.size(),
+                    PROVISIONING_THREAD_IDLE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "galasa-provisioning-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            // *** So the threads go even if the run ends without the Managers being shut down
+            executor.allowCoreThreadTimeOut(true);
+            provisioningExecutor = executor;
+        }
+
+        provisioningGraph = new ManagerProvisioningGraph(activeManagers, provisioningExecutor);
+    }
+
+    /**
+     * @return true if framework.provision.parallel is set to true, the default
+     *         is false
+     */
+    static boolean isProvisionParallel(IConfigurationPropertyStoreService cps) throws ConfigurationPropertyStoreException {
+        String parallelProperty = AbstractManager.nulled(cps.getProperty("provision", "parallel"));
+        return Boolean.parseBoolean(parallelProperty);
     }
 
     /**
@@ -474,7 +527,7 @@ public class TestRunManagers implements ITestRunManagers {
 
     @Override
     public void provisionGenerate() throws FrameworkException {
-        for (IManager manager : activeManagers) {
+        provisioningGraph.runPhase("generate", manager -> {
             try {
                 manager.provisionGenerate();
             } catch (ResourceUnavailableException e) {
@@ -483,46 +536,41 @@ public class TestRunManagers implements ITestRunManagers {
                 throw new FrameworkException(
                         "Problem in provision generate for manager " + manager.getClass().getName(), e);
             }
-        }
+        });
     }
 
     @Override
     public void provisionBuild() throws FrameworkException {
-        for (IManager manager : activeManagers) {
+        provisioningGraph.runPhase("build", manager -> {
             try {
                 manager.provisionBuild();
             } catch (ManagerException e) {
                 throw new FrameworkException("Problem in provision build for manager " + manager.getClass().getName(),
                         e);
             }
-        }
+        });
     }
 
     @Override
     public void provisionStart() throws FrameworkException {
-        for (IManager manager : activeManagers) {
+        provisioningGraph.runPhase("start", manager -> {
             try {
                 manager.provisionStart();
             } catch (ManagerException e) {
                 throw new FrameworkException("Problem in provision start for manager " + manager.getClass().getName(),
                         e);
             }
-
-        }
+        });
     }
 
     @Override
     public void provisionStop() {
-        for (IManager manager : activeManagersReversed) {
-            manager.provisionStop();
-        }
+        provisioningGraph.runPhaseReversed("stop", IManager::provisionStop);
     }
 
     @Override
     public void provisionDiscard() {
-        for (IManager manager : activeManagersReversed) {
-            manager.provisionDiscard();
-        }
+        provisioningGraph.runPhaseReversed("discard", IManager::provisionDiscard);
     }
 
     @Override
@@ -636,8 +684,15 @@ public class TestRunManagers implements ITestRunManagers {
     
     @Override
     public void shutdown() {
-        for (IManager manager : activeManagersReversed) {
-            manager.shutdown();
+        try {
+            for (IManager manager : activeManagersReversed) {
+                manager.shutdown();
+            }
+        } finally {
+            if (provisioningExecutor != null) {
+                provisioningExecutor.shutdownNow();
+                provisioningExecutor = null;
+            }
         }
     }
     
@@ -646,4 +701,9 @@ public class TestRunManagers implements ITestRunManagers {
         return this.activeManagers;
     }
 
+    @Override
+    public List<TestManagerPhase> getManagerPhases() {
+        return this.provisioningGraph.getPhases();
+    }
+
 }
\ No newline at end of file
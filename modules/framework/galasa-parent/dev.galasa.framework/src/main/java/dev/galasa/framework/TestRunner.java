@@ -219,6 +219,7 @@ public class TestRunner extends BaseTestRunner {
 
             if (!isRunOK || this.runType == RunType.TEST || this.runType == RunType.SHARED_ENVIRONMENT_DISCARD) {
                 logger.debug("Test did not run OK... or runtype is not "+RunType.SHARED_ENVIRONMENT_BUILD.toString());
+                testStructure.setManagerPhases(managers.getManagerPhases());
                 updateStatus(TestRunLifecycleStatus.ENDING, null);
                 managers.endOfTestRun();
 
@@ -267,6 +268,7 @@ public class TestRunner extends BaseTestRunner {
                 // And all the overrides the test was passed.
                 saveAllOverridesPassedToArtifact(overrideProperties, this.fileSystem , this.ras);
                 
+                testStructure.setManagerPhases(managers.getManagerPhases());
                 updateStatus(TestRunLifecycleStatus.UP, "built");
             } else {
                 logger.error("Unrecognised end condition");
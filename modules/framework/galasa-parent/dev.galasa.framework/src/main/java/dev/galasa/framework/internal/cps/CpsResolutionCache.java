@@ -0,0 +1,151 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.cps;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.IConfigurationPropertyStore;
+
+/**
+ * Remembers how each getProperty(prefix, suffix, infixes) request was resolved,
+ * so repeating it does not rebuild and look up every infix variant again.
+ *
+ * Each namespace's resolutions are dropped whenever a property in that
+ * namespace is set or deleted through the framework, or the CPS store reports a
+ * change. If the store cannot report changes nothing is cached, as there would
+ * be no telling when a change made elsewhere should be picked up.
+ *
+ * One cache is shared by all the CPS services of a framework, which also share
+ * the overrides and the record of properties accessed, so a repeated request
+ * needs nothing more recording.
+ */
+public class CpsResolutionCache {
+
+    private final Log     logger = LogFactory.getLog(getClass());
+
+    private final boolean watched;
+
+    private final ConcurrentHashMap<String, NamespaceResolutions> namespaces = new ConcurrentHashMap<>();
+
+    /**
+     * The parts of a getProperty request
+     */
+    static final class Request {
+        private final String   prefix;
+        private final String   suffix;
+        private final String[] infixes;
+        private final int      hash;
+
+        Request(String prefix, String suffix, String[] infixes) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.infixes = infixes.clone();
+            this.hash = Objects.hash(prefix, suffix) * 31 + Arrays.hashCode(infixes);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Request)) {
+                return false;
+            }
+            Request request = (Request) other;
+            return this.prefix.equals(request.prefix) && this.suffix.equals(request.suffix)
+                    && Arrays.equals(this.infixes, request.infixes);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+    /**
+     * The key a request resolved to and its value, both null if nothing was found
+     */
+    static final class Resolution {
+        final String key;
+        final String value;
+
+        Resolution(String key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * @param cpsStore the store, which is asked to report changes
+     */
+    public CpsResolutionCache(IConfigurationPropertyStore cpsStore) {
+        boolean watched = false;
+        try {
+            watched = cpsStore.watch(this::propertyModified);
+        } catch (ConfigurationPropertyStoreException e) {
+            logger.warn("Unable to watch the CPS for changes, resolved properties will not be cached", e);
+        }
+        this.watched = watched;
+    }
+
+    /**
+     * @return true if the store reports changes, so resolutions are cached
+     */
+    public boolean isWatched() {
+        return this.watched;
+    }
+
+    /**
+     * Get the resolutions of a namespace. Take them once per request, so that a
+     * resolution finished after the namespace has been invalidated is recorded
+     * in the dropped set rather than the new one.
+     *
+     * @return the resolutions, or null if the store does not report changes and
+     *         nothing is to be cached
+     */
+    NamespaceResolutions forNamespace(String namespace) {
+        if (!this.watched) {
+            return null;
+        }
+        return this.namespaces.computeIfAbsent(namespace, n -> new NamespaceResolutions());
+    }
+
+    class NamespaceResolutions {
+        private final ConcurrentHashMap<Request, Resolution> resolutions = new ConcurrentHashMap<>();
+
+        Resolution get(Request request) {
+            return this.resolutions.get(request);
+        }
+
+        void put(Request request, String key, String value) {
+            this.resolutions.put(request, new Resolution(key, value));
+        }
+    }
+
+    /**
+     * Drop everything resolved in a namespace
+     *
+     * @param namespace the namespace
+     */
+    public void invalidate(String namespace) {
+        this.namespaces.remove(namespace);
+    }
+
+    private void propertyModified(String key) {
+        int dot = key.indexOf('.');
+        if (dot < 0) {
+            this.namespaces.clear();
+        } else {
+            invalidate(key.substring(0, dot));
+        }
+    }
+}
@@ -16,6 +16,7 @@ import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
 import dev.galasa.framework.spi.FrameworkPropertyFile;
 import dev.galasa.framework.spi.FrameworkPropertyFileException;
 import dev.galasa.framework.spi.IConfigurationPropertyStore;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreWatcher;
 
 /**
  * <p>
@@ -126,6 +127,26 @@ public class FpfConfigurationPropertyStore implements IConfigurationPropertyStor
         return fpf.getNamespaces();
     }
 
+    /**
+     * <p>
+     * Watches every property in the file, which is checked for changes made by
+     * other processes every 50ms.
+     * </p>
+     * 
+     * @param watcher - told the key of each property that changes
+     * @return - true, as every change is reported
+     * @throws ConfigurationPropertyStoreException
+     */
+    @Override
+    public boolean watch(IConfigurationPropertyStoreWatcher watcher) throws ConfigurationPropertyStoreException {
+        try {
+            fpf.watchPrefix((key, event, oldValue, newValue) -> watcher.propertyModified(key), "");
+        } catch (FrameworkPropertyFileException e) {
+            throw new ConfigurationPropertyStoreException("Unable to watch the CPS File", e);
+        }
+        return true;
+    }
+
     @Override
     public void shutdown() throws ConfigurationPropertyStoreException {
         try {
@@ -30,6 +30,7 @@ public class FrameworkConfigurationPropertyService implements IConfigurationProp
     private Properties                  record;
     private Properties                  overrides;
     private IConfigurationPropertyStore cpsStore;
+    private CpsResolutionCache          resolutionCache;
 
     /**
      * <p>
@@ -48,10 +49,25 @@ public class FrameworkConfigurationPropertyService implements IConfigurationProp
      */
     public FrameworkConfigurationPropertyService(IFramework framework, IConfigurationPropertyStore cpsStore,
             Properties overrides, Properties record, String namespace) {
+        this(framework, cpsStore, overrides, record, namespace, null);
+    }
+
+    /**
+     * <p>
+     * As above, but remembering how each property request was resolved in a
+     * cache shared by all the CPS services of the framework.
+     * </p>
+     * 
+     * @param resolutionCache - the cache of resolved properties, null to always
+     *                        look properties up
+     */
+    public FrameworkConfigurationPropertyService(IFramework framework, IConfigurationPropertyStore cpsStore,
+            Properties overrides, Properties record, String namespace, CpsResolutionCache resolutionCache) {
         this.namespace = namespace;
         this.record = record;
         this.overrides = overrides;
         this.cpsStore = cpsStore;
+        this.resolutionCache = resolutionCache;
     }
 
     /**
@@ -79,15 +95,100 @@ public class FrameworkConfigurationPropertyService implements IConfigurationProp
         if (infixes == null) {
             infixes = new String[0];
         }
+
+        CpsResolutionCache.NamespaceResolutions resolutions = null;
+        CpsResolutionCache.Request request = null;
+        if (this.resolutionCache != null) {
+            resolutions = this.resolutionCache.forNamespace(namespace);
+        }
+        if (resolutions != null) {
+            request = new CpsResolutionCache.Request(prefix, suffix, infixes);
+            CpsResolutionCache.Resolution resolution = resolutions.get(request);
+            if (resolution != null) {
+                return resolution.value;
+            }
+        }
+
         String[] keys = createOrderedKeyList(prefix, suffix, infixes);
+        String resolvedKey = null;
         String value = null;
         for (String key : keys) {
             value = getValueAndMakeAccessRecord(key);
             if (value != null) {
-                return value.trim();
+                resolvedKey = key;
+                value = value.trim();
+                break;
             }
         }
-        return null;
+
+        if (resolutions != null) {
+            resolutions.put(request, resolvedKey, value);
+        }
+        return value;
+    }
+
+    /**
+     * <p>
+     * Resolves several properties that share a prefix and infixes, searching
+     * the same keys in the same order as getProperty does for each suffix, but
+     * reading the CPS store once for all of them.
+     * </p>
+     * 
+     * @param prefix   - in the above example is "image"
+     * @param suffixes - the suffixes to resolve, e.g. "credentialid", "sysname"
+     * @param infixes  - the hierachal structure, supplied in order, e.g
+     *                 "PLEXMA", "MVMA"
+     * @return - the value found for each suffix, suffixes with no value are left out
+     * @throws ConfigurationPropertyStoreException - if the CPS store cannot be read
+     */
+    @Override
+    public @NotNull Map<String, String> getProperties(@NotNull String prefix, @NotNull List<String> suffixes,
+            String... infixes) throws ConfigurationPropertyStoreException {
+        if (infixes == null) {
+            infixes = new String[0];
+        }
+
+        CpsResolutionCache.NamespaceResolutions resolutions = null;
+        if (this.resolutionCache != null) {
+            resolutions = this.resolutionCache.forNamespace(namespace);
+        }
+
+        HashMap<String, String> values = new HashMap<>();
+        Map<String, String> storeValues = null;
+        for (String suffix : suffixes) {
+            CpsResolutionCache.Request request = new CpsResolutionCache.Request(prefix, suffix, infixes);
+            if (resolutions != null) {
+                CpsResolutionCache.Resolution resolution = resolutions.get(request);
+                if (resolution != null) {
+                    if (resolution.value != null) {
+                        values.put(suffix, resolution.value);
+                    }
+                    continue;
+                }
+            }
+
+            // *** Every variant starts with the namespace and prefix, so one read covers them all
+            if (storeValues == null) {
+                storeValues = this.cpsStore.getPrefixedProperties(namespace + "." + prefix + ".");
+            }
+
+            String resolvedKey = null;
+            String value = null;
+            for (String key : createOrderedKeyList(prefix, suffix, infixes)) {
+                value = getValueAndMakeAccessRecord(key, storeValues);
+                if (value != null) {
+                    resolvedKey = key;
+                    value = value.trim();
+                    values.put(suffix, value);
+                    break;
+                }
+            }
+
+            if (resolutions != null) {
+                resolutions.put(request, resolvedKey, value);
+            }
+        }
+        return values;
     }
 
     /**
@@ -113,6 +214,7 @@ public class FrameworkConfigurationPropertyService implements IConfigurationProp
     public void setProperty(@NotNull String name, @NotNull String value)
             throws ConfigurationPropertyStoreException {
     	cpsStore.setProperty(namespace + "." + name, value);
+        invalidateResolutions();
     }
     
     /**
@@ -125,7 +227,13 @@ public class FrameworkConfigurationPropertyService implements IConfigurationProp
     public void deleteProperty(@NotNull String name) 
             throws ConfigurationPropertyStoreException {
         cpsStore.deleteProperty(namespace + "." + name);
-        
+        invalidateResolutions();
+    }
+
+    private void invalidateResolutions() {
+        if (this.resolutionCache != null) {
+            this.resolutionCache.invalidate(namespace);
+        }
     }
 
     /**
@@ -193,6 +301,14 @@ public class FrameworkConfigurationPropertyService implements IConfigurationProp
      *                                             available.
      */
     private String getValueAndMakeAccessRecord(String key) throws ConfigurationPropertyStoreException {
+        return getValueAndMakeAccessRecord(key, null);
+    }
+
+    /**
+     * As above, but taking the CPS store values from those already read, if given
+     */
+    private String getValueAndMakeAccessRecord(String key, Map<String, String> storeValues)
+            throws ConfigurationPropertyStoreException {
         String value;
 
         value = overrides.getProperty(key);
@@ -201,7 +317,7 @@ public class FrameworkConfigurationPropertyService implements IConfigurationProp
             return value;
         }
 
-        value = cpsStore.getProperty(key);
+        value = storeValues != null ? storeValues.get(key) : cpsStore.getProperty(key);
         if (value != null) {
             recordPropertyAccessed(key,value,"cps");
             return value;
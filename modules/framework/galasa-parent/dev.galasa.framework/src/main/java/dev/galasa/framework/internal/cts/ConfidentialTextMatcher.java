@@ -0,0 +1,288 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.cts;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable Aho-Corasick automaton that finds every registered confidential
+ * text in a single pass over the input.
+ *
+ * Where registered texts overlap, the match that starts first wins, and of the
+ * matches starting at the same position the longest wins, so no part of a
+ * longer confidential text is left exposed by a shorter one.
+ *
+ * The automaton is built as a dense transition table over the characters used
+ * by the registered texts, so each input character costs one table lookup.
+ * Characters that do not appear in any registered text all map to the same
+ * column, which always leads back to the root state.
+ */
+public class ConfidentialTextMatcher {
+
+    private static final int   ROOT           = 0;
+    private static final int   NO_PATTERN     = -1;
+
+    // Maps each char to its column in the transition table, 0 for chars not in any pattern
+    private final int[]        charColumns;
+    private final int          columnCount;
+
+    // transitions[state * columnCount + column] is the next state
+    private final int[]        transitions;
+    // The length of the string each state represents
+    private final int[]        depths;
+    // The longest pattern that ends in each state, NO_PATTERN if none
+    private final int[]        patternEndingHere;
+    // The next state along the failure chain that has a pattern ending in it
+    private final int[]        outputLinks;
+
+    private final String[]     replacements;
+    private final int[]        patternLengths;
+    private final int          maxPatternLength;
+
+    /**
+     * Build the automaton
+     *
+     * @param patterns     the texts to find, empty texts are ignored
+     * @param replacements the text that replaces each pattern, in the same order
+     */
+    public ConfidentialTextMatcher(List<String> patterns, List<String> replacements) {
+        this.replacements = replacements.toArray(new String[0]);
+        this.patternLengths = new int[patterns.size()];
+
+        // *** Allocate a column for each distinct char used in the patterns
+        this.charColumns = new int[Character.MAX_VALUE + 1];
+        int columns = 1;
+        int maxLength = 0;
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+            this.patternLengths[p] = pattern.length();
+            maxLength = Math.max(maxLength, pattern.length());
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (this.charColumns[c] == 0) {
+                    this.charColumns[c] = columns++;
+                }
+            }
+        }
+        this.columnCount = columns;
+        this.maxPatternLength = maxLength;
+
+        // *** Build the trie
+        List<Map<Integer, Integer>> children = new ArrayList<>();
+        List<Integer> stateDepths = new ArrayList<>();
+        List<Integer> statePatterns = new ArrayList<>();
+        children.add(new HashMap<>());
+        stateDepths.add(0);
+        statePatterns.add(NO_PATTERN);
+
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            int state = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                int column = this.charColumns[pattern.charAt(i)];
+                Integer next = children.get(state).get(column);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new HashMap<>());
+                    stateDepths.add(i + 1);
+                    statePatterns.add(NO_PATTERN);
+                    children.get(state).put(column, next);
+                }
+                state = next;
+            }
+            // *** If the same text is registered twice, the first registration keeps its tag
+            if (statePatterns.get(state) == NO_PATTERN) {
+                statePatterns.set(state, p);
+            }
+        }
+
+        int stateCount = children.size();
+        this.transitions = new int[stateCount * this.columnCount];
+        this.depths = new int[stateCount];
+        this.patternEndingHere = new int[stateCount];
+        this.outputLinks = new int[stateCount];
+        int[] failures = new int[stateCount];
+        Arrays.fill(this.outputLinks, NO_PATTERN);
+
+        for (int s = 0; s < stateCount; s++) {
+            this.depths[s] = stateDepths.get(s);
+            this.patternEndingHere[s] = statePatterns.get(s);
+        }
+
+        // *** Breadth first, fill in the failure links and the full transition table
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (Map.Entry<Integer, Integer> child : children.get(ROOT).entrySet()) {
+            this.transitions[child.getKey()] = child.getValue();
+            failures[child.getValue()] = ROOT;
+            queue.add(child.getValue());
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int failure = failures[state];
+
+            if (this.patternEndingHere[failure] != NO_PATTERN) {
+                this.outputLinks[state] = failure;
+            } else {
+                this.outputLinks[state] = this.outputLinks[failure];
+            }
+
+            int base = state * this.columnCount;
+            int failureBase = failure * this.columnCount;
+            Map<Integer, Integer> stateChildren = children.get(state);
+            for (int column = 0; column < this.columnCount; column++) {
+                Integer child = stateChildren.get(column);
+                if (child != null) {
+                    this.transitions[base + column] = child;
+                    failures[child] = this.transitions[failureBase + column];
+                    queue.add(child);
+                } else {
+                    this.transitions[base + column] = this.transitions[failureBase + column];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if there is nothing to find
+     */
+    public boolean isEmpty() {
+        return this.maxPatternLength == 0;
+    }
+
+    /**
+     * Replace every registered text found in the text
+     *
+     * @param text the text to check
+     * @return the text with all the registered texts replaced, or the same
+     *         string if nothing was found
+     */
+    public String redact(String text) {
+        if (text == null || isEmpty()) {
+            return text;
+        }
+
+        StringRedaction redaction = new StringRedaction(text);
+        for (int i = 0; i < text.length(); i++) {
+            redaction.accept(text.charAt(i));
+        }
+        redaction.finish();
+
+        return redaction.getResult();
+    }
+
+    /**
+     * Runs the automaton over one input, tracking the candidate matches that are
+     * not yet known to be the leftmost and longest.
+     */
+    private abstract class Redaction {
+        private int       state;
+        private long      position;
+        // The first position that has not been resolved as plain text or part of a match
+        private long      resolvedTo;
+        // The first position that is not inside a match that has been replaced
+        private long      consumedTo;
+
+        // For each unresolved start position, the longest pattern that starts there
+        private final int[] bestPatternByStart = new int[maxPatternLength + 1];
+        private final int[] bestLengthByStart  = new int[maxPatternLength + 1];
+
+        protected Redaction() {
+            Arrays.fill(this.bestPatternByStart, NO_PATTERN);
+        }
+
+        void accept(char c) {
+            this.state = transitions[this.state * columnCount + charColumns[c]];
+
+            // *** Note every pattern that ends here, the longest comes first
+            int output = patternEndingHere[this.state] != NO_PATTERN ? this.state : outputLinks[this.state];
+            while (output != NO_PATTERN) {
+                int pattern = patternEndingHere[output];
+                int length = patternLengths[pattern];
+                long start = this.position - length + 1;
+                if (start >= this.consumedTo) {
+                    int slot = (int) (start % this.bestLengthByStart.length);
+                    if (length > this.bestLengthByStart[slot]) {
+                        this.bestLengthByStart[slot] = length;
+                        this.bestPatternByStart[slot] = pattern;
+                    }
+                }
+                output = outputLinks[output];
+            }
+
+            this.position++;
+
+            // *** Any position before the start of the current partial match can no longer
+            // *** be the start of a new match, so it can be resolved
+            resolve(this.position - depths[this.state]);
+        }
+
+        /**
+         * Resolve everything that is left at the end of the input
+         */
+        void finish() {
+            resolve(this.position);
+        }
+
+        private void resolve(long upTo) {
+            while (this.resolvedTo < upTo) {
+                long start = this.resolvedTo;
+                int slot = (int) (start % this.bestLengthByStart.length);
+                int length = this.bestLengthByStart[slot];
+                int pattern = this.bestPatternByStart[slot];
+                this.bestLengthByStart[slot] = 0;
+                this.bestPatternByStart[slot] = NO_PATTERN;
+
+                if (start >= this.consumedTo && length > 0) {
+                    emitReplacement(start, length, replacements[pattern]);
+                    this.consumedTo = start + length;
+                }
+                this.resolvedTo++;
+            }
+        }
+
+        protected abstract void emitReplacement(long start, int length, String replacement);
+    }
+
+    /**
+     * Redaction of a whole string, copying the unmatched runs of text in bulk
+     */
+    private class StringRedaction extends Redaction {
+        private final String  text;
+        private StringBuilder result;
+        private int           copiedTo;
+
+        StringRedaction(String text) {
+            this.text = text;
+        }
+
+        @Override
+        protected void emitReplacement(long start, int length, String replacement) {
+            if (this.result == null) {
+                this.result = new StringBuilder(this.text.length());
+            }
+            this.result.append(this.text, this.copiedTo, (int) start);
+            this.result.append(replacement);
+            this.copiedTo = (int) start + length;
+        }
+
+        String getResult() {
+            if (this.result == null) {
+                return this.text;
+            }
+            this.result.append(this.text, this.copiedTo, this.text.length());
+            return this.result.toString();
+        }
+    }
+}
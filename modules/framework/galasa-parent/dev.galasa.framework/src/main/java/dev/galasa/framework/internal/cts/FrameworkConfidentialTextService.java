@@ -7,7 +7,6 @@ package dev.galasa.framework.internal.cts;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -25,6 +24,9 @@ public class FrameworkConfidentialTextService implements IConfidentialTextServic
     private List<ConfidentialText> confidentialTexts = new ArrayList<>();
     private Log                    logger            = LogFactory.getLog(FrameworkConfidentialTextService.class);
 
+    // *** Rebuilt each time a text is registered, so logging never has to lock
+    private volatile ConfidentialTextMatcher textMatcher = buildTextMatcher(new ArrayList<>());
+
     /**
      * This method is for registering a text with the service. It creates the
      * replacement tag (******1******) which represents any registered password,
@@ -34,7 +36,7 @@ public class FrameworkConfidentialTextService implements IConfidentialTextServic
      * @param text    - the word or phrase the manager wants obscuring.
      * @param comment - a comment explaining the conidential text.
      */
-    public void registerText(String text, String comment) {
+    public synchronized void registerText(String text, String comment) {
         String number = Integer.toString(confidentialTexts.size() + 1);
         StringBuilder builder = new StringBuilder();
         final String star = "*";
@@ -52,6 +54,8 @@ public class FrameworkConfidentialTextService implements IConfidentialTextServic
         ConfidentialText ct = new ConfidentialText(text, builder.toString(), comment);
         confidentialTexts.add(ct);
 
+        this.textMatcher = buildTextMatcher(confidentialTexts);
+
         logger.info("Confidential text registered as '" + ct.replacementTag + "', with comment " + ct.getComment());
     }
 
@@ -62,13 +66,17 @@ public class FrameworkConfidentialTextService implements IConfidentialTextServic
      * @param text - the log or text that needs checking for confidential text.
      */
     public String removeConfidentialText(String text) {
+        return this.textMatcher.redact(text);
+    }
 
-        for (ConfidentialText confidentials : confidentialTexts) {
-            text = text.replaceAll(Matcher.quoteReplacement(confidentials.getText()), confidentials.getTag());
+    private static ConfidentialTextMatcher buildTextMatcher(List<ConfidentialText> confidentialTexts) {
+        List<String> texts = new ArrayList<>();
+        List<String> tags = new ArrayList<>();
+        for (ConfidentialText confidentialText : confidentialTexts) {
+            texts.add(confidentialText.getText());
+            tags.add(confidentialText.getTag());
         }
-
-        return text;
-
+        return new ConfidentialTextMatcher(texts, tags);
     }
 
     /**
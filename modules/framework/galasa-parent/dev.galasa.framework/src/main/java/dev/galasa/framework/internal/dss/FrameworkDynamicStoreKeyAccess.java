@@ -104,6 +104,19 @@ public class FrameworkDynamicStoreKeyAccess implements IDynamicStatusStoreKeyAcc
         return this.dssStore.putSwap(prefixKey(key), oldValue, newValue);
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see dev.galasa.framework.spi.IDynamicStatusStoreKeyAccess#putSwap(java.lang.
+     * String, java.lang.String, java.lang.String, long)
+     */
+    @Override
+    public boolean putSwap(@NotNull String key, String oldValue, @NotNull String newValue, @NotNull long timeToLiveSecs)
+            throws DynamicStatusStoreException {
+        Objects.requireNonNull(newValue);
+        return this.dssStore.putSwap(prefixKey(key), oldValue, newValue, timeToLiveSecs);
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -0,0 +1,442 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.dss;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+
+import dev.galasa.framework.spi.utils.GalasaGsonBuilder;
+import dev.galasa.framework.spi.utils.ITimeService;
+
+/**
+ * One shard of a {@link ShardedLogDynamicStatusStore}.
+ *
+ * The shard is an append-only log file, one line per update, each line a JSON
+ * array of [key, value, expiresAt] entries where a null value is a delete and
+ * an expiresAt of 0 never expires. The whole log is replayed into a sorted map
+ * when the shard is opened, and afterwards only the lines appended since the
+ * last read are replayed, so reads never parse the whole file.
+ *
+ * Writers hold the in-process lock and an exclusive lock on a separate lock
+ * file, so other processes sharing the directory take turns with us. Readers
+ * only take the in-process lock when it is free, to pick up lines that other
+ * processes have appended, and then read the map without any lock.
+ *
+ * Compaction rewrites the live entries to a new file and moves it over the
+ * log. Another process notices the log has been replaced and reloads it.
+ */
+class ShardedLogDssShard {
+
+    private static final Gson    gson = new GalasaGsonBuilder(false).getGson();
+
+    // Shared by every store in this JVM using the same directory, as a JVM can only hold one lock on a file
+    private static final ConcurrentHashMap<Path, ReentrantLock> processLocks = new ConcurrentHashMap<>();
+
+    private final int            index;
+    private final Path           logFile;
+    private final Path           lockFile;
+    private final ITimeService   timeService;
+
+    private final ReentrantLock  lock;
+    private final ConcurrentSkipListMap<String, Entry> entries = new ConcurrentSkipListMap<>();
+
+    // Guarded by lock
+    private FileChannel          logChannel;
+    private Object               logFileKey;
+    private long                 readOffset;
+    private FileChannel          lockChannel;
+    private FileLock             fileLock;
+
+    /**
+     * A value held in the shard
+     */
+    static final class Entry {
+        final String value;
+        final long   expiresAt;
+
+        Entry(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isLive(long now) {
+            return this.expiresAt == 0 || this.expiresAt > now;
+        }
+    }
+
+    /**
+     * A change to a key, either made here or read from the log
+     */
+    static final class Change {
+        final String key;
+        final String oldValue;
+        final String newValue;
+
+        Change(String key, String oldValue, String newValue) {
+            this.key = key;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+    }
+
+    ShardedLogDssShard(int index, Path directory, ITimeService timeService) throws IOException {
+        this.index = index;
+        this.timeService = timeService;
+        this.logFile = directory.resolve("shard-" + index + ".log");
+        this.lockFile = directory.resolve("shard-" + index + ".lock");
+        this.lock = processLocks.computeIfAbsent(this.lockFile.toAbsolutePath().normalize(), path -> new ReentrantLock());
+
+        this.lockChannel = FileChannel.open(this.lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+        this.lock.lock();
+        try {
+            reload(new ArrayList<>());
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Take the in-process and file locks needed to update the shard
+     */
+    void lockForUpdate() throws IOException {
+        this.lock.lock();
+        try {
+            this.fileLock = this.lockChannel.lock();
+        } catch (IOException | RuntimeException e) {
+            this.lock.unlock();
+            throw e;
+        }
+    }
+
+    void unlockForUpdate() {
+        try {
+            if (this.fileLock != null) {
+                this.fileLock.release();
+            }
+        } catch (IOException e) { // NOSONAR
+            // *** The lock goes when the channel is closed anyway
+        } finally {
+            this.fileLock = null;
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Pick up anything other processes have written, unless another thread of
+     * ours is busy with the shard, in which case it is doing the same
+     */
+    void refreshIfIdle(List<Change> changes) throws IOException {
+        if (this.lock.tryLock()) {
+            try {
+                refresh(changes);
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Replay the lines appended since the last read, or the whole log if it has
+     * been replaced. The in-process lock must be held.
+     */
+    void refresh(List<Change> changes) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(this.logFile, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            attributes = null;
+        }
+
+        if (attributes == null || !sameFile(attributes) || attributes.size() < this.readOffset) {
+            reload(changes);
+            return;
+        }
+
+        if (attributes.size() > this.readOffset) {
+            HashMap<String, Entry> updates = new HashMap<>();
+            replayInto(this.readOffset, attributes.size(), updates);
+            for (Map.Entry<String, Entry> update : updates.entrySet()) {
+                apply(update.getKey(), update.getValue(), changes);
+            }
+        }
+    }
+
+    /**
+     * Append entries to the log and apply them. The update locks must be held
+     * and the shard refreshed.
+     */
+    void append(Map<String, Entry> updates, List<Change> changes) throws IOException {
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        // *** A writer that died part way through a line leaves a partial line, drop it
+        if (this.logChannel.size() > this.readOffset) {
+            this.logChannel.truncate(this.readOffset);
+        }
+
+        JsonArray line = new JsonArray();
+        for (Map.Entry<String, Entry> update : updates.entrySet()) {
+            line.add(encode(update.getKey(), update.getValue()));
+        }
+        ByteBuffer buffer = ByteBuffer.wrap((gson.toJson(line) + "\n").getBytes(StandardCharsets.UTF_8));
+
+        long position = this.readOffset;
+        while (buffer.hasRemaining()) {
+            position += this.logChannel.write(buffer, position);
+        }
+        this.readOffset = position;
+
+        for (Map.Entry<String, Entry> update : updates.entrySet()) {
+            apply(update.getKey(), update.getValue(), changes);
+        }
+    }
+
+    /**
+     * @return the live entry for the key, or null
+     */
+    Entry get(String key, long now) {
+        Entry entry = this.entries.get(key);
+        if (entry == null || !entry.isLive(now)) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Pass every live entry whose key starts with the prefix to the consumer
+     */
+    void forEachWithPrefix(String prefix, long now, BiConsumer<String, String> consumer) {
+        for (Map.Entry<String, Entry> entry : this.entries.tailMap(prefix).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            if (entry.getValue().isLive(now)) {
+                consumer.accept(entry.getKey(), entry.getValue().value);
+            }
+        }
+    }
+
+    /**
+     * @return the keys whose entries have expired but are still in the log
+     */
+    List<String> getExpiredKeys(long now) {
+        ArrayList<String> expired = new ArrayList<>();
+        for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+            if (!entry.getValue().isLive(now)) {
+                expired.add(entry.getKey());
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return true if the log has grown well past the size of the live entries
+     */
+    boolean needsCompaction(long minimumBytes) {
+        long logSize = this.readOffset;
+        if (logSize < minimumBytes) {
+            return false;
+        }
+
+        long liveSize = 0;
+        for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+            liveSize += entry.getKey().length() + entry.getValue().value.length() + 32;
+        }
+        return logSize > liveSize * 2;
+    }
+
+    /**
+     * Rewrite the log with just the live entries. The update locks must be held
+     * and the shard refreshed.
+     */
+    void compact(long now) throws IOException {
+        Path compacted = this.logFile.resolveSibling(this.logFile.getFileName() + ".compact");
+
+        try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            StringBuilder lines = new StringBuilder();
+            for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+                if (entry.getValue().isLive(now)) {
+                    JsonArray line = new JsonArray();
+                    line.add(encode(entry.getKey(), entry.getValue()));
+                    lines.append(gson.toJson(line)).append('\n');
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        Files.move(compacted, this.logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // *** The live entries are unchanged, just start reading the new file
+        openLog();
+    }
+
+    void close() {
+        this.lock.lock();
+        try {
+            closeQuietly(this.logChannel);
+            closeQuietly(this.lockChannel);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void reload(List<Change> changes) throws IOException {
+        HashMap<String, Entry> before = new HashMap<>(this.entries);
+
+        openLog();
+        this.readOffset = 0;
+
+        HashMap<String, Entry> loaded = new HashMap<>();
+        long size = this.logChannel.size();
+        if (size > 0) {
+            replayInto(0, size, loaded);
+        }
+
+        // *** Swap the entries over one at a time, so concurrent readers never see an empty shard
+        for (Map.Entry<String, Entry> entry : loaded.entrySet()) {
+            Entry old = before.remove(entry.getKey());
+            this.entries.put(entry.getKey(), entry.getValue());
+            addChange(changes, entry.getKey(), old, entry.getValue());
+        }
+        for (Map.Entry<String, Entry> entry : before.entrySet()) {
+            this.entries.remove(entry.getKey());
+            addChange(changes, entry.getKey(), entry.getValue(), null);
+        }
+    }
+
+    private void openLog() throws IOException {
+        closeQuietly(this.logChannel);
+        this.logChannel = FileChannel.open(this.logFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.logFileKey = Files.readAttributes(this.logFile, BasicFileAttributes.class).fileKey();
+        this.readOffset = this.logChannel.size();
+    }
+
+    private boolean sameFile(BasicFileAttributes attributes) {
+        Object fileKey = attributes.fileKey();
+        return fileKey == null || fileKey.equals(this.logFileKey);
+    }
+
+    /**
+     * Read the complete lines between the offsets into the map, a delete is
+     * held as an entry with a null value. The read offset is moved past the
+     * last complete line.
+     */
+    private void replayInto(long from, long to, Map<String, Entry> updates) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+        long position = from;
+        while (buffer.hasRemaining()) {
+            int read = this.logChannel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+
+        byte[] bytes = buffer.array();
+        int length = buffer.position();
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] == '\n') {
+                decodeLine(new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8), updates);
+                lineStart = i + 1;
+            }
+        }
+
+        // *** Anything after the last new line is still being written
+        this.readOffset = from + lineStart;
+    }
+
+    private void decodeLine(String line, Map<String, Entry> updates) throws IOException {
+        if (line.isEmpty()) {
+            return;
+        }
+
+        try {
+            JsonArray records = gson.fromJson(line, JsonArray.class);
+            for (JsonElement element : records) {
+                JsonArray record = element.getAsJsonArray();
+                String key = record.get(0).getAsString();
+                String value = record.get(1).isJsonNull() ? null : record.get(1).getAsString();
+                long expiresAt = record.get(2).getAsLong();
+                updates.put(key, new Entry(value, expiresAt));
+            }
+        } catch (JsonParseException | IllegalStateException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt line in DSS log " + this.logFile, e);
+        }
+    }
+
+    private JsonArray encode(String key, Entry entry) {
+        JsonArray record = new JsonArray();
+        record.add(key);
+        record.add(entry.value);
+        record.add(entry.expiresAt);
+        return record;
+    }
+
+    private void apply(String key, Entry update, List<Change> changes) {
+        Entry old;
+        if (update.value == null) {
+            old = this.entries.remove(key);
+        } else {
+            old = this.entries.put(key, update);
+        }
+        addChange(changes, key, old, update.value == null ? null : update);
+    }
+
+    private void addChange(List<Change> changes, String key, Entry oldEntry, Entry newEntry) {
+        long now = this.timeService.now().toEpochMilli();
+        // *** Removing an expired entry is still reported, it is how watchers hear of the expiry
+        String oldValue = oldEntry == null || (newEntry != null && !oldEntry.isLive(now)) ? null : oldEntry.value;
+        String newValue = newEntry == null || !newEntry.isLive(now) ? null : newEntry.value;
+        if (oldValue == null ? newValue != null : !oldValue.equals(newValue)) {
+            changes.add(new Change(key, oldValue, newValue));
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) { // NOSONAR
+                // *** Nothing more can be done
+            }
+        }
+    }
+}
@@ -0,0 +1,594 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.dss;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Null;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.framework.internal.dss.ShardedLogDssShard.Change;
+import dev.galasa.framework.internal.dss.ShardedLogDssShard.Entry;
+import dev.galasa.framework.spi.DssAdd;
+import dev.galasa.framework.spi.DssDelete;
+import dev.galasa.framework.spi.DssDeletePrefix;
+import dev.galasa.framework.spi.DssSwap;
+import dev.galasa.framework.spi.DssUpdate;
+import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.DynamicStatusStoreMatchException;
+import dev.galasa.framework.spi.IDssAction;
+import dev.galasa.framework.spi.IDynamicStatusStore;
+import dev.galasa.framework.spi.IDynamicStatusStoreWatcher;
+import dev.galasa.framework.spi.utils.ITimeService;
+import dev.galasa.framework.spi.utils.SystemTimeService;
+
+/**
+ * <p>
+ * A file based DSS for local runs and small ecosystems that share a file system,
+ * where the single properties file of the {@link FpfDynamicStatusStore} becomes
+ * the bottleneck.
+ * </p>
+ *
+ * <p>
+ * The keys are spread over a number of shards by their first four segments, eg
+ * dss.framework.run.U123, so everything about one run, resource or slot lives in
+ * one shard. Each shard is an append-only log with its own locks, so updates to
+ * different runs and resources do not queue behind each other, and an update
+ * writes one line rather than the whole store. A getPrefix or deletePrefix down
+ * to four segments only touches one shard, shorter prefixes visit them all.
+ * </p>
+ *
+ * <p>
+ * Updates that span shards lock them in shard order, so they are atomic to
+ * everyone using the store. Entries put with a time to live are hidden once they
+ * expire, and a background thread removes them, tells the watchers, picks up
+ * changes made by other processes and compacts logs that have grown too big.
+ * </p>
+ */
+public class ShardedLogDynamicStatusStore implements IDynamicStatusStore {
+
+    public static final int   DEFAULT_SHARDS            = 16;
+
+    // The number of leading key segments that choose the shard
+    private static final int  SHARD_KEY_SEGMENTS        = 4;
+    private static final long MAINTENANCE_INTERVAL_MS   = 1000;
+    private static final long COMPACTION_MINIMUM_BYTES  = 256 * 1024;
+
+    private final Log                                logger   = LogFactory.getLog(getClass());
+
+    private final ShardedLogDssShard[]               shards;
+    private final ConcurrentHashMap<UUID, Watch>     watches  = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService           maintenance;
+    private final long                               maintenanceIntervalMs;
+    private final ITimeService                       timeService;
+
+    private static class Watch {
+        private final IDynamicStatusStoreWatcher watcher;
+        private final String                     key;
+        private final boolean                    isPrefix;
+
+        private Watch(IDynamicStatusStoreWatcher watcher, String key, boolean isPrefix) {
+            this.watcher = watcher;
+            this.key = key;
+            this.isPrefix = isPrefix;
+        }
+
+        private boolean matches(String changedKey) {
+            return this.isPrefix ? changedKey.startsWith(this.key) : changedKey.equals(this.key);
+        }
+    }
+
+    /**
+     * A set of updates being built up under the shard locks. Reads see the
+     * updates made so far, so each action works on the result of the last.
+     */
+    private class Updates {
+        private final long                     now     = currentTimeMillis();
+        private final Collection<ShardedLogDssShard> lockedShards;
+        private final LinkedHashMap<String, Entry> pending = new LinkedHashMap<>();
+
+        private Updates(Collection<ShardedLogDssShard> lockedShards) {
+            this.lockedShards = lockedShards;
+        }
+
+        private String get(String key) {
+            if (this.pending.containsKey(key)) {
+                return this.pending.get(key).value;
+            }
+            Entry entry = shardFor(key).get(key, this.now);
+            return entry == null ? null : entry.value;
+        }
+
+        private void put(String key, String value, long expiresAt) {
+            this.pending.put(key, new Entry(value, expiresAt));
+        }
+
+        private void delete(String key) {
+            this.pending.put(key, new Entry(null, 0));
+        }
+
+        private void deletePrefix(String prefix) {
+            ArrayList<String> keys = new ArrayList<>();
+            for (ShardedLogDssShard shard : this.lockedShards) {
+                shard.forEachWithPrefix(prefix, this.now, (key, value) -> keys.add(key));
+            }
+            for (String key : this.pending.keySet()) {
+                if (key.startsWith(prefix)) {
+                    keys.add(key);
+                }
+            }
+            for (String key : keys) {
+                delete(key);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Update<T> {
+        T apply(Updates updates) throws DynamicStatusStoreException;
+    }
+
+    /**
+     * @param directory the directory holding the shard logs, created if missing
+     * @param shardCount the number of shards, every process sharing the directory must use the same
+     * @throws DynamicStatusStoreException if the shards cannot be opened
+     */
+    public ShardedLogDynamicStatusStore(@NotNull Path directory, int shardCount) throws DynamicStatusStoreException {
+        this(directory, shardCount, new SystemTimeService(), MAINTENANCE_INTERVAL_MS);
+    }
+
+    /**
+     * @param timeService the clock used to expire entries
+     * @param maintenanceIntervalMs how often the background thread maintains the shards
+     */
+    ShardedLogDynamicStatusStore(@NotNull Path directory, int shardCount, @NotNull ITimeService timeService,
+            long maintenanceIntervalMs) throws DynamicStatusStoreException {
+        this.timeService = timeService;
+        this.maintenanceIntervalMs = maintenanceIntervalMs;
+
+        if (shardCount < 1) {
+            throw new DynamicStatusStoreException("The DSS must have at least one shard");
+        }
+
+        this.shards = new ShardedLogDssShard[shardCount];
+        try {
+            Files.createDirectories(directory);
+            for (int i = 0; i < shardCount; i++) {
+                this.shards[i] = new ShardedLogDssShard(i, directory, timeService);
+            }
+        } catch (IOException e) {
+            closeShards();
+            throw new DynamicStatusStoreException("Unable to open the DSS shards in " + directory, e);
+        }
+
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "galasa-dss-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maintenance.scheduleWithFixedDelay(this::maintain, maintenanceIntervalMs, maintenanceIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void put(@NotNull String key, @NotNull String value) throws DynamicStatusStoreException {
+        update(shardsForKeys(key), updates -> {
+            updates.put(key, value, 0);
+            return null;
+        });
+    }
+
+    @Override
+    public void put(@NotNull Map<String, String> keyValues) throws DynamicStatusStoreException {
+        update(shardsForKeys(keyValues.keySet()), updates -> {
+            for (Map.Entry<String, String> entry : keyValues.entrySet()) {
+                updates.put(entry.getKey(), entry.getValue(), 0);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void put(@NotNull String key, @NotNull String value, @NotNull long timeToLiveSecs)
+            throws DynamicStatusStoreException {
+        update(shardsForKeys(key), updates -> {
+            updates.put(key, value, updates.now + TimeUnit.SECONDS.toMillis(timeToLiveSecs));
+            return null;
+        });
+    }
+
+    @Override
+    public boolean putSwap(@NotNull String key, String oldValue, @NotNull String newValue)
+            throws DynamicStatusStoreException {
+        return putSwap(key, oldValue, newValue, new HashMap<>());
+    }
+
+    @Override
+    public boolean putSwap(@NotNull String key, String oldValue, @NotNull String newValue,
+            @NotNull long timeToLiveSecs) throws DynamicStatusStoreException {
+        return update(shardsForKeys(key), updates -> {
+            String currentValue = updates.get(key);
+            if (oldValue == null ? currentValue != null : !oldValue.equals(currentValue)) {
+                return false;
+            }
+
+            updates.put(key, newValue, updates.now + TimeUnit.SECONDS.toMillis(timeToLiveSecs));
+            return true;
+        });
+    }
+
+    @Override
+    public boolean putSwap(@NotNull String key, String oldValue, @NotNull String newValue,
+            @NotNull Map<String, String> others) throws DynamicStatusStoreException {
+        ArrayList<String> keys = new ArrayList<>(others.keySet());
+        keys.add(key);
+
+        return update(shardsForKeys(keys), updates -> {
+            String currentValue = updates.get(key);
+            if (oldValue == null ? currentValue != null : !oldValue.equals(currentValue)) {
+                return false;
+            }
+
+            updates.put(key, newValue, 0);
+            for (Map.Entry<String, String> entry : others.entrySet()) {
+                updates.put(entry.getKey(), entry.getValue(), 0);
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public @Null String get(@NotNull String key) throws DynamicStatusStoreException {
+        ShardedLogDssShard shard = shardFor(key);
+        refresh(shard);
+
+        Entry entry = shard.get(key, currentTimeMillis());
+        return entry == null ? null : entry.value;
+    }
+
+    @Override
+    public @NotNull Map<String, String> getPrefix(@NotNull String keyPrefix) throws DynamicStatusStoreException {
+        long now = currentTimeMillis();
+        TreeMap<String, String> found = new TreeMap<>();
+        for (ShardedLogDssShard shard : shardsForPrefix(keyPrefix)) {
+            refresh(shard);
+            shard.forEachWithPrefix(keyPrefix, now, found::put);
+        }
+        return found;
+    }
+
+    @Override
+    public void delete(@NotNull String key) throws DynamicStatusStoreException {
+        update(shardsForKeys(key), updates -> {
+            updates.delete(key);
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(@NotNull Set<String> keys) throws DynamicStatusStoreException {
+        update(shardsForKeys(keys), updates -> {
+            for (String key : keys) {
+                updates.delete(key);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void deletePrefix(@NotNull String keyPrefix) throws DynamicStatusStoreException {
+        update(shardsForPrefix(keyPrefix), updates -> {
+            updates.deletePrefix(keyPrefix);
+            return null;
+        });
+    }
+
+    @Override
+    public void performActions(IDssAction... actions) throws DynamicStatusStoreException, DynamicStatusStoreMatchException {
+        TreeMap<Integer, ShardedLogDssShard> involved = new TreeMap<>();
+        for (IDssAction action : actions) {
+            if (action instanceof DssDeletePrefix) {
+                for (ShardedLogDssShard shard : shardsForPrefix(((DssDeletePrefix) action).getPrefix())) {
+                    involved.put(shard.getIndex(), shard);
+                }
+            } else {
+                ShardedLogDssShard shard = shardFor(getActionKey(action));
+                involved.put(shard.getIndex(), shard);
+            }
+        }
+
+        update(involved.values(), updates -> {
+            for (IDssAction action : actions) {
+                if (action instanceof DssAdd) {
+                    performActionsAdd(updates, (DssAdd) action);
+                } else if (action instanceof DssDelete) {
+                    performActionsDelete(updates, (DssDelete) action);
+                } else if (action instanceof DssDeletePrefix) {
+                    updates.deletePrefix(((DssDeletePrefix) action).getPrefix());
+                } else if (action instanceof DssUpdate) {
+                    DssUpdate dssUpdate = (DssUpdate) action;
+                    updates.put(dssUpdate.getKey(), dssUpdate.getValue(), 0);
+                } else if (action instanceof DssSwap) {
+                    performActionsSwap(updates, (DssSwap) action);
+                }
+            }
+            return null;
+        });
+    }
+
+    private String getActionKey(IDssAction action) throws DynamicStatusStoreException {
+        if (action instanceof DssAdd) {
+            return ((DssAdd) action).getKey();
+        } else if (action instanceof DssDelete) {
+            return ((DssDelete) action).getKey();
+        } else if (action instanceof DssUpdate) {
+            return ((DssUpdate) action).getKey();
+        } else if (action instanceof DssSwap) {
+            return ((DssSwap) action).getKey();
+        }
+        throw new DynamicStatusStoreException("Unrecognised DSS Action - " + action.getClass().getName());
+    }
+
+    private void performActionsAdd(Updates updates, DssAdd dssAdd) throws DynamicStatusStoreMatchException {
+        String key = dssAdd.getKey();
+        if (updates.get(key) != null) {
+            throw new DynamicStatusStoreMatchException("Attempt to add new property '" + key + "' but it already exists");
+        }
+        updates.put(key, dssAdd.getValue(), 0);
+    }
+
+    private void performActionsDelete(Updates updates, DssDelete dssDelete) throws DynamicStatusStoreMatchException {
+        String key = dssDelete.getKey();
+        String oldValue = dssDelete.getOldValue();
+
+        if (oldValue != null) {
+            String currentValue = updates.get(key);
+            if (!oldValue.equals(currentValue)) {
+                throw new DynamicStatusStoreMatchException("Attempt to delete property '" + key + "', but current value '"
+                        + currentValue + "' does not match required value '" + oldValue + "'");
+            }
+        }
+        updates.delete(key);
+    }
+
+    private void performActionsSwap(Updates updates, DssSwap dssSwap) throws DynamicStatusStoreMatchException {
+        String key = dssSwap.getKey();
+        String oldValue = dssSwap.getOldValue();
+        String currentValue = updates.get(key);
+
+        if (oldValue == null ? currentValue != null : !oldValue.equals(currentValue)) {
+            throw new DynamicStatusStoreMatchException("Attempt to swap property '" + key + "', but current value '"
+                    + currentValue + "' does not match required value '" + oldValue + "'");
+        }
+        updates.put(key, dssSwap.getNewValue(), 0);
+    }
+
+    @Override
+    public UUID watch(IDynamicStatusStoreWatcher watcher, String key) throws DynamicStatusStoreException {
+        UUID id = UUID.randomUUID();
+        this.watches.put(id, new Watch(watcher, key, false));
+        return id;
+    }
+
+    @Override
+    public UUID watchPrefix(IDynamicStatusStoreWatcher watcher, String keyPrefix) throws DynamicStatusStoreException {
+        UUID id = UUID.randomUUID();
+        this.watches.put(id, new Watch(watcher, keyPrefix, true));
+        return id;
+    }
+
+    @Override
+    public void unwatch(UUID watchId) throws DynamicStatusStoreException {
+        this.watches.remove(watchId);
+    }
+
+    @Override
+    public void shutdown() throws DynamicStatusStoreException {
+        this.maintenance.shutdownNow();
+        try {
+            this.maintenance.awaitTermination(MAINTENANCE_INTERVAL_MS * 5, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.watches.clear();
+        closeShards();
+    }
+
+    /**
+     * Lock the shards in index order, apply the update and append the results
+     * to each shard's log
+     */
+    private <T> T update(Collection<ShardedLogDssShard> shardsToLock, Update<T> update) throws DynamicStatusStoreException {
+        ArrayList<Change> changes = new ArrayList<>();
+        ArrayList<ShardedLogDssShard> locked = new ArrayList<>();
+        try {
+            for (ShardedLogDssShard shard : shardsToLock) {
+                shard.lockForUpdate();
+                locked.add(shard);
+                shard.refresh(changes);
+            }
+
+            Updates updates = new Updates(locked);
+            T result = update.apply(updates);
+
+            HashMap<ShardedLogDssShard, LinkedHashMap<String, Entry>> byShard = new HashMap<>();
+            for (Map.Entry<String, Entry> pending : updates.pending.entrySet()) {
+                byShard.computeIfAbsent(shardFor(pending.getKey()), shard -> new LinkedHashMap<>())
+                    .put(pending.getKey(), pending.getValue());
+            }
+            for (ShardedLogDssShard shard : locked) {
+                LinkedHashMap<String, Entry> shardUpdates = byShard.get(shard);
+                if (shardUpdates != null) {
+                    shard.append(shardUpdates, changes);
+                }
+            }
+
+            return result;
+        } catch (IOException e) {
+            throw new DynamicStatusStoreException("Unable to update the DSS", e);
+        } finally {
+            for (int i = locked.size() - 1; i >= 0; i--) {
+                locked.get(i).unlockForUpdate();
+            }
+            notifyWatchers(changes);
+        }
+    }
+
+    private void refresh(ShardedLogDssShard shard) throws DynamicStatusStoreException {
+        ArrayList<Change> changes = new ArrayList<>();
+        try {
+            shard.refreshIfIdle(changes);
+        } catch (IOException e) {
+            throw new DynamicStatusStoreException("Unable to read the DSS", e);
+        } finally {
+            notifyWatchers(changes);
+        }
+    }
+
+    /**
+     * Pick up changes from other processes, remove expired entries and compact
+     * the shards that need it
+     */
+    void maintain() {
+        for (ShardedLogDssShard shard : this.shards) {
+            try {
+                refresh(shard);
+
+                if (!shard.getExpiredKeys(currentTimeMillis()).isEmpty()) {
+                    update(List.of(shard), updates -> {
+                        for (String key : shard.getExpiredKeys(updates.now)) {
+                            updates.delete(key);
+                        }
+                        return null;
+                    });
+                }
+
+                if (shard.needsCompaction(COMPACTION_MINIMUM_BYTES)) {
+                    compact(shard);
+                }
+            } catch (Exception e) {
+                logger.warn("Problem maintaining DSS shard " + shard.getIndex(), e);
+            }
+        }
+    }
+
+    private void compact(ShardedLogDssShard shard) throws IOException {
+        ArrayList<Change> changes = new ArrayList<>();
+        shard.lockForUpdate();
+        try {
+            shard.refresh(changes);
+            shard.compact(currentTimeMillis());
+        } finally {
+            shard.unlockForUpdate();
+            notifyWatchers(changes);
+        }
+    }
+
+    private void notifyWatchers(List<Change> changes) {
+        if (changes.isEmpty() || this.watches.isEmpty()) {
+            return;
+        }
+
+        for (Change change : changes) {
+            IDynamicStatusStoreWatcher.Event event;
+            if (change.oldValue == null) {
+                event = IDynamicStatusStoreWatcher.Event.NEW;
+            } else if (change.newValue == null) {
+                event = IDynamicStatusStoreWatcher.Event.DELETE;
+            } else {
+                event = IDynamicStatusStoreWatcher.Event.MODIFIED;
+            }
+
+            for (Watch watch : this.watches.values()) {
+                if (watch.matches(change.key)) {
+                    try {
+                        watch.watcher.propertyModified(change.key, event, change.oldValue, change.newValue);
+                    } catch (Exception e) {
+                        logger.warn("DSS watcher failed for key " + change.key, e);
+                    }
+                }
+            }
+        }
+    }
+
+    private long currentTimeMillis() {
+        return this.timeService.now().toEpochMilli();
+    }
+
+    private ShardedLogDssShard shardFor(String key) {
+        return this.shards[Math.floorMod(shardKey(key).hashCode(), this.shards.length)];
+    }
+
+    /**
+     * @return the part of the key that chooses the shard, the first four segments
+     */
+    private static String shardKey(String key) {
+        int end = -1;
+        for (int i = 0; i < SHARD_KEY_SEGMENTS; i++) {
+            end = key.indexOf('.', end + 1);
+            if (end < 0) {
+                return key;
+            }
+        }
+        return key.substring(0, end);
+    }
+
+    private Collection<ShardedLogDssShard> shardsForKeys(String... keys) {
+        return shardsForKeys(List.of(keys));
+    }
+
+    private Collection<ShardedLogDssShard> shardsForKeys(Collection<String> keys) {
+        TreeMap<Integer, ShardedLogDssShard> involved = new TreeMap<>();
+        for (String key : keys) {
+            ShardedLogDssShard shard = shardFor(key);
+            involved.put(shard.getIndex(), shard);
+        }
+        return involved.values();
+    }
+
+    /**
+     * A prefix that reaches past the shard key segments can only match keys in
+     * one shard, anything shorter could be in any of them
+     */
+    private Collection<ShardedLogDssShard> shardsForPrefix(String prefix) {
+        int dots = 0;
+        for (int i = 0; i < prefix.length() && dots < SHARD_KEY_SEGMENTS; i++) {
+            if (prefix.charAt(i) == '.') {
+                dots++;
+            }
+        }
+        if (dots >= SHARD_KEY_SEGMENTS) {
+            return List.of(shardFor(prefix));
+        }
+        return List.of(this.shards);
+    }
+
+    private void closeShards() {
+        for (ShardedLogDssShard shard : this.shards) {
+            if (shard != null) {
+                shard.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.dss;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.validation.constraints.NotNull;
+
+import org.osgi.service.component.annotations.Component;
+
+import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.IDynamicStatusStoreRegistration;
+import dev.galasa.framework.spi.IFrameworkInitialisation;
+
+/**
+ * Registers the {@link ShardedLogDynamicStatusStore} when the DSS URI is of the
+ * form filelog:file:///path/to/dss/directory, optionally followed by
+ * ?shards=n to change the number of shards.
+ */
+@Component(service = { IDynamicStatusStoreRegistration.class })
+public class ShardedLogDynamicStatusStoreRegistration implements IDynamicStatusStoreRegistration {
+
+    private static final String SCHEME = "filelog";
+
+    @Override
+    public void initialise(@NotNull IFrameworkInitialisation frameworkInitialisation)
+            throws DynamicStatusStoreException {
+        URI dss = frameworkInitialisation.getDynamicStatusStoreUri();
+        if (isFileLogUri(dss)) {
+            try {
+                URI uri = new URI(dss.toString().substring(SCHEME.length() + 1));
+                if (!"file".equals(uri.getScheme())) {
+                    throw new DynamicStatusStoreException("The filelog DSS must be given a file URI - " + dss);
+                }
+
+                Path directory = Paths.get(new URI("file", null, uri.getPath(), null));
+                frameworkInitialisation.registerDynamicStatusStore(
+                        new ShardedLogDynamicStatusStore(directory, getShardCount(uri)));
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                throw new DynamicStatusStoreException("Could not create URI", e);
+            }
+        }
+    }
+
+    private int getShardCount(URI uri) throws DynamicStatusStoreException {
+        String query = uri.getQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("shards=")) {
+                    try {
+                        return Integer.parseInt(parameter.substring("shards=".length()));
+                    } catch (NumberFormatException e) {
+                        throw new DynamicStatusStoreException("Invalid shard count in the DSS URI - " + uri, e);
+                    }
+                }
+            }
+        }
+        return ShardedLogDynamicStatusStore.DEFAULT_SHARDS;
+    }
+
+    /**
+     * @param uri - URI to the DSS
+     * @return true if the URI selects the sharded log DSS
+     */
+    public static boolean isFileLogUri(URI uri) {
+        return SCHEME.equals(uri.getScheme());
+    }
+}
@@ -8,21 +8,17 @@ package dev.galasa.framework.internal.ras.directory;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Base64.Encoder;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.function.Consumer;
-import java.util.stream.Stream;
 
 import javax.validation.constraints.NotNull;
 
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
-
 import dev.galasa.framework.spi.IResultArchiveStoreDirectoryService;
 import dev.galasa.framework.spi.IRunResult;
 import dev.galasa.framework.spi.ResultArchiveStoreException;
@@ -37,12 +33,22 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
 
     public final static String ID_PREFIX = "local-";
 
+    private static final String DEFAULT_SORT_FIELD = "queued";
+    private static final char   CURSOR_SEPARATOR   = '\n';
+
     private final Path baseDirectory;
     private final GalasaGson gson;
+    private final DirectoryRASRunIndex runIndex;
+    private final Encoder encoder = Base64.getEncoder();
 
     protected DirectoryRASDirectoryService(@NotNull Path baseDirectory, GalasaGson gson) {
         this.baseDirectory = baseDirectory;
         this.gson = gson;
+        if (baseDirectory != null) {
+            this.runIndex = DirectoryRASRunIndex.getIndex(baseDirectory);
+        } else {
+            this.runIndex = null;
+        }
     }
 
     @Override
@@ -56,8 +62,9 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
 
         for(DirectoryRASRunResult run : allRuns) {
             matched = true;
+            TestStructure testStructure = run.getSearchableTestStructure();
             for(IRasSearchCriteria criteria : searchCriteria) {
-                if(!criteria.criteriaMatched(run.getTestStructure())) {
+                if(!criteria.criteriaMatched(testStructure)) {
                     matched = false;
                     break;
                 }
@@ -77,7 +84,7 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
 
         List<IRunResult> matchingRuns = new ArrayList<>();
         for (DirectoryRASRunResult run : allRuns) {
-            if (runName.equals(run.getTestStructure().getRunName())) {
+            if (runName.equals(run.getSearchableTestStructure().getRunName())) {
                 matchingRuns.add(run);
             }
         }
@@ -87,7 +94,140 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
     @Override
     public @NotNull RasRunResultPage getRunsPage(int maxResults, RasSortField primarySort, String pageToken, @NotNull IRasSearchCriteria... searchCriteria)
             throws ResultArchiveStoreException {
-        return new RasRunResultPage(getRuns(searchCriteria));
+
+        List<IRunResult> matchingRuns = getRuns(searchCriteria);
+
+        String sortFieldName = DEFAULT_SORT_FIELD;
+        boolean descending = true;
+        if (primarySort != null && primarySort.getFieldName() != null) {
+            sortFieldName = primarySort.getFieldName();
+            descending = "desc".equalsIgnoreCase(primarySort.getSortDirection());
+        }
+
+        List<SortableRun> sortableRuns = new ArrayList<>(matchingRuns.size());
+        for (IRunResult run : matchingRuns) {
+            TestStructure testStructure = ((DirectoryRASRunResult) run).getSearchableTestStructure();
+            sortableRuns.add(new SortableRun(getSortKey(testStructure, sortFieldName), run.getRunId(), run));
+        }
+
+        Comparator<SortableRun> comparator = Comparator.comparing((SortableRun run) -> run.sortKey)
+            .thenComparing(run -> run.runId, Comparator.nullsFirst(Comparator.naturalOrder()));
+        if (descending) {
+            comparator = comparator.reversed();
+        }
+        sortableRuns.sort(comparator);
+
+        // The cursor is the position of the last run returned, so the next page starts
+        // after that run even if runs have been added or removed in the meantime
+        int startIndex = 0;
+        if (pageToken != null) {
+            SortableRun cursorRun = decodePageCursor(pageToken);
+            while (startIndex < sortableRuns.size() && comparator.compare(sortableRuns.get(startIndex), cursorRun) <= 0) {
+                startIndex++;
+            }
+        }
+
+        int endIndex = sortableRuns.size();
+        if (maxResults > 0) {
+            endIndex = Math.min(endIndex, startIndex + maxResults);
+        }
+
+        List<IRunResult> pageRuns = new ArrayList<>(Math.max(0, endIndex - startIndex));
+        for (int i = startIndex; i < endIndex; i++) {
+            pageRuns.add(sortableRuns.get(i).run);
+        }
+
+        String nextCursor = null;
+        if (endIndex < sortableRuns.size() && endIndex > startIndex) {
+            nextCursor = encodePageCursor(sortableRuns.get(endIndex - 1));
+        }
+
+        return new RasRunResultPage(pageRuns, nextCursor);
+    }
+
+    private static class SortableRun {
+        private final String     sortKey;
+        private final String     runId;
+        private final IRunResult run;
+
+        SortableRun(String sortKey, String runId, IRunResult run) {
+            this.sortKey = sortKey;
+            this.runId = runId;
+            this.run = run;
+        }
+    }
+
+    /**
+     * Turn a test structure field into a string that sorts in the same order as the field
+     */
+    private String getSortKey(TestStructure testStructure, String sortFieldName) {
+        String key;
+        switch (sortFieldName) {
+            case "runName":
+                key = testStructure.getRunName();
+                break;
+            case "bundle":
+                key = testStructure.getBundle();
+                break;
+            case "testName":
+                key = testStructure.getTestName();
+                break;
+            case "testShortName":
+                key = testStructure.getTestShortName();
+                break;
+            case "requestor":
+                key = testStructure.getRequestor();
+                break;
+            case "status":
+                key = testStructure.getStatus();
+                break;
+            case "result":
+                key = testStructure.getResult();
+                break;
+            case "group":
+                key = testStructure.getGroup();
+                break;
+            case "startTime":
+                key = getInstantSortKey(testStructure.getStartTime());
+                break;
+            case "endTime":
+                key = getInstantSortKey(testStructure.getEndTime());
+                break;
+            case "queued":
+            default:
+                key = getInstantSortKey(testStructure.getQueued());
+                break;
+        }
+
+        if (key == null) {
+            key = "";
+        }
+        return key;
+    }
+
+    private String getInstantSortKey(Instant instant) {
+        if (instant == null) {
+            return null;
+        }
+        return String.format("%020d%09d", instant.getEpochSecond(), instant.getNano());
+    }
+
+    private String encodePageCursor(SortableRun run) {
+        String cursor = run.sortKey + CURSOR_SEPARATOR + run.runId;
+        return Base64.getUrlEncoder().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private SortableRun decodePageCursor(String pageToken) throws ResultArchiveStoreException {
+        try {
+            String cursor = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+            int separatorIndex = cursor.indexOf(CURSOR_SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new ResultArchiveStoreException("Invalid page cursor '" + pageToken + "'");
+            }
+            return new SortableRun(cursor.substring(0, separatorIndex), cursor.substring(separatorIndex + 1), null);
+        } catch (IllegalArgumentException e) {
+            throw new ResultArchiveStoreException("Invalid page cursor '" + pageToken + "'", e);
+        }
     }
 
     @Override
@@ -107,7 +247,7 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
 
         for (DirectoryRASRunResult result : getAllRuns()) {
             if(result!=null) {
-                TestStructure testStructure = result.getTestStructure();
+                TestStructure testStructure = result.getSearchableTestStructure();
                 if(testStructure != null && testStructure.getTestName()!=null) {
                     requestors.add(testStructure.getRequestor());
                 }
@@ -125,7 +265,7 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
         for (DirectoryRASRunResult result : getAllRuns()) {
             if(result != null) {
 
-                TestStructure testStructure = result.getTestStructure();
+                TestStructure testStructure = result.getSearchableTestStructure();
                 if(testStructure != null && testStructure.getTestName()!=null) {
                     key = testStructure.getBundle()+"/"+testStructure.getTestName();
                     if(!tests.containsKey(key)){
@@ -144,7 +284,7 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
 
         for (DirectoryRASRunResult result : getAllRuns()) {
             if(result!=null) {
-                TestStructure testStructure = result.getTestStructure();
+                TestStructure testStructure = result.getSearchableTestStructure();
                 if(testStructure != null  ) {
                     if(testStructure.getResult()==null) {
                         results.add("UNKNOWN");
@@ -162,10 +302,14 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
     protected @NotNull List<DirectoryRASRunResult> getAllRuns() throws ResultArchiveStoreException {
 
         try {
-            ArrayList<DirectoryRASRunResult> runs = new ArrayList<>();
+            List<DirectoryRASRunIndex.IndexEntry> entries = this.runIndex.getEntries();
+            ArrayList<DirectoryRASRunResult> runs = new ArrayList<>(entries.size());
+
+            for (DirectoryRASRunIndex.IndexEntry entry : entries) {
+                Path runDirectory = baseDirectory.resolve(entry.getRunDirectoryName());
+                String id = ID_PREFIX + this.encoder.encodeToString(entry.getRunDirectoryName().getBytes(StandardCharsets.UTF_8));
 
-            try (Stream<Path> stream = Files.list(Paths.get(baseDirectory.toUri()))) {
-                stream.forEach(new ConsumeRuns(baseDirectory, runs, gson));
+                runs.add(new DirectoryRASRunResult(runDirectory, gson, id, entry.getSummary()));
             }
 
             return runs;
@@ -176,44 +320,6 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
 
     }
 
-    private static class ConsumeRuns implements Consumer<Path> {
-
-        private final Path                        base;
-        private final List<DirectoryRASRunResult> results;
-        private final GalasaGson                        gson;
-        private final Encoder                     encoder;
-
-        private final Log                  logger = LogFactory.getLog(ConsumeRuns.class);
-
-        public ConsumeRuns(Path base, List<DirectoryRASRunResult> results, GalasaGson gson) {
-            this.base    = base;
-            this.results = results;
-            this.gson    = gson;
-            this.encoder = Base64.getEncoder();
-        }
-
-        @Override
-        public void accept(Path path) {
-            if (!Files.isDirectory(path)) {
-                return;
-            }
-
-            Path structureFile = path.resolve("structure.json");
-            if (Files.exists(structureFile)) {
-                try {
-                    Path relativePath = base.relativize(path);
-                    String id = ID_PREFIX + this.encoder.encodeToString(relativePath.toString().getBytes(StandardCharsets.UTF_8));
-
-                    results.add(new DirectoryRASRunResult(path, gson, id));
-                } catch (Throwable t) {
-                    logger.trace("Unable to create a run result from " + structureFile.toString());
-                }
-            }
-
-        }
-
-    }
-
     @Override
     public IRunResult getRunById(@NotNull String runId) throws ResultArchiveStoreException {
         if (!runId.startsWith(ID_PREFIX)) {
@@ -249,7 +355,7 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
 
         List<IRunResult> matchingRuns = new ArrayList<>();
         for (DirectoryRASRunResult run : allRuns) {
-            if (groupName.equals(run.getTestStructure().getGroup())) {
+            if (groupName.equals(run.getSearchableTestStructure().getGroup())) {
                 matchingRuns.add(run);
             }
         }
@@ -0,0 +1,256 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.ras.directory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Writes the run log through one long-lived file channel.
+ *
+ * Log lines are added to a bounded queue and a background thread writes them
+ * out in batches, either when enough lines are waiting or when the flush
+ * interval has passed. If the queue is full, the logging thread writes the
+ * pending lines itself, so a burst of logging slows the run down rather than
+ * losing lines.
+ *
+ * flush() writes everything pending and forces it to disk, close() does the
+ * same and then stops the background thread.
+ *
+ * Lines that could not be written are kept and written ahead of the newer
+ * lines on the next attempt. Nothing is logged from here, as that would loop
+ * back into the run log, a failed background write is reported to the next
+ * caller instead.
+ */
+public class DirectoryRASLogWriter {
+
+    private static final int                   ENCODE_BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel                  channel;
+    private final ArrayBlockingQueue<String>   pending;
+    private final int                          capacityLines;
+    private final int                          batchLines;
+    private final long                         flushIntervalNanos;
+
+    private final Object                       writeLock          = new Object();
+    private final List<String>                 batch;
+    private final CharsetEncoder               encoder;
+    private final ByteBuffer                   encodeBuffer       = ByteBuffer.allocateDirect(ENCODE_BUFFER_SIZE);
+
+    private final Thread                       flusher;
+    private final Thread                       shutdownHook;
+
+    private volatile boolean                   closed;
+    private volatile IOException               writeException;
+
+    /**
+     * Open the run log for buffered writing
+     *
+     * @param runLog          the run log, which must already exist
+     * @param capacityLines   how many lines can be waiting to be written
+     * @param batchLines      wake the background writer once this many lines are waiting
+     * @param flushIntervalMs the longest a line waits before the background writer writes it
+     * @throws IOException if the run log cannot be opened
+     */
+    public DirectoryRASLogWriter(@NotNull Path runLog, int capacityLines, int batchLines, long flushIntervalMs) throws IOException {
+        this(FileChannel.open(runLog, StandardOpenOption.WRITE, StandardOpenOption.APPEND), capacityLines, batchLines, flushIntervalMs);
+    }
+
+    DirectoryRASLogWriter(@NotNull FileChannel channel, int capacityLines, int batchLines, long flushIntervalMs) {
+        this.channel = channel;
+        this.capacityLines = Math.max(1, capacityLines);
+        this.pending = new ArrayBlockingQueue<>(this.capacityLines);
+        this.batch = new ArrayList<>(this.capacityLines);
+        this.batchLines = Math.max(1, Math.min(batchLines, capacityLines));
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+
+        this.encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        this.flusher = new Thread(this::runFlusher, "galasa-ras-log-writer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+
+        // *** Make sure pending lines reach the disk if the JVM exits without a RAS shutdown
+        this.shutdownHook = new Thread(() -> {
+            try {
+                writePending(true);
+            } catch (IOException e) {
+                e.printStackTrace(); // *** Do not use logger, will cause a loop //NOSONAR
+            }
+        }, "galasa-ras-log-writer-shutdown");
+        Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+    }
+
+    /**
+     * Queue a line to be written to the run log
+     *
+     * @param line the line, including the trailing new line
+     * @throws IOException if an earlier write failed or the writer is closed
+     */
+    public void append(@NotNull String line) throws IOException {
+        checkWriteException();
+        if (this.closed) {
+            throw new IOException("The run log writer has been closed");
+        }
+
+        while (!this.pending.offer(line)) {
+            // *** The queue is full, so write it out on this thread
+            writePending(false);
+        }
+
+        if (this.pending.size() >= this.batchLines) {
+            LockSupport.unpark(this.flusher);
+        }
+    }
+
+    /**
+     * Write all the pending lines and force them to disk
+     *
+     * @throws IOException if the lines could not be written
+     */
+    public void flush() throws IOException {
+        checkWriteException();
+        writePending(true);
+    }
+
+    /**
+     * Write all the pending lines, stop the background writer and close the run log
+     *
+     * @throws IOException if the lines could not be written
+     */
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+
+        LockSupport.unpark(this.flusher);
+        try {
+            this.flusher.join(TimeUnit.NANOSECONDS.toMillis(this.flushIntervalNanos) + 5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+        } catch (IllegalStateException e) {
+            // *** The JVM is already shutting down, the hook will write anything left
+        }
+
+        try {
+            writePending(true);
+            checkWriteException();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    private void runFlusher() {
+        while (!this.closed) {
+            LockSupport.parkNanos(this, this.flushIntervalNanos);
+            try {
+                writePending(false);
+            } catch (IOException e) {
+                e.printStackTrace(); // *** Do not use logger, will cause a loop //NOSONAR
+                this.writeException = e;
+            }
+        }
+    }
+
+    private void checkWriteException() throws IOException {
+        IOException e = this.writeException;
+        if (e != null) {
+            this.writeException = null;
+            throw new IOException("Unable to write to the run log", e);
+        }
+    }
+
+    /**
+     * Write out everything waiting in the queue. Only one thread writes at a time,
+     * and lines are always taken from the head of the queue, so they reach the
+     * file in the order they were logged.
+     *
+     * If a write fails, the lines not yet written stay in the batch and go out
+     * ahead of the queue on the next attempt.
+     */
+    private void writePending(boolean force) throws IOException {
+        synchronized (this.writeLock) {
+            if (!this.channel.isOpen()) {
+                return;
+            }
+
+            this.pending.drainTo(this.batch, this.capacityLines - this.batch.size());
+
+            if (!this.batch.isEmpty()) {
+                int writtenLines = 0;
+                try {
+                    for (int i = 0; i < this.batch.size(); i++) {
+                        if (encodeLine(this.batch.get(i))) {
+                            // *** The buffer was written out, which covers every line before this one
+                            writtenLines = i;
+                        }
+                    }
+                    writeBuffer();
+                    writtenLines = this.batch.size();
+                } catch (IOException e) {
+                    this.encodeBuffer.clear();
+                    this.encoder.reset();
+                    throw e;
+                } finally {
+                    this.batch.subList(0, writtenLines).clear();
+                }
+            }
+
+            if (force) {
+                this.channel.force(false);
+            }
+        }
+    }
+
+    /**
+     * @return true if the buffer had to be written out to make room for the line
+     */
+    private boolean encodeLine(String line) throws IOException {
+        boolean written = false;
+        CharBuffer chars = CharBuffer.wrap(line);
+        while (true) {
+            CoderResult result = this.encoder.encode(chars, this.encodeBuffer, true);
+            if (result.isOverflow()) {
+                writeBuffer();
+                written = true;
+            } else {
+                break;
+            }
+        }
+        this.encoder.reset();
+        return written;
+    }
+
+    private void writeBuffer() throws IOException {
+        this.encodeBuffer.flip();
+        while (this.encodeBuffer.hasRemaining()) {
+            this.channel.write(this.encodeBuffer);
+        }
+        this.encodeBuffer.clear();
+    }
+}
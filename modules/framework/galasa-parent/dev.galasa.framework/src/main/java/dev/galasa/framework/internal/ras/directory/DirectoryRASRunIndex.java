@@ -0,0 +1,429 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.ras.directory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.validation.constraints.NotNull;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.framework.spi.teststructure.TestStructure;
+import dev.galasa.framework.spi.utils.GalasaGson;
+import dev.galasa.framework.spi.utils.GalasaGsonBuilder;
+
+/**
+ * A persistent catalogue of the runs held in a local directory RAS.
+ *
+ * The catalogue is an append-only journal of run summaries held in the base
+ * RAS directory. Each time a run writes its test structure, a summary line is
+ * appended to the journal. Readers replay the journal once and then only read
+ * the lines appended since their last refresh, so queries never need to parse
+ * every structure.json in the RAS.
+ *
+ * Runs that were added or removed without going through the journal (for
+ * example runs copied into the directory, or deleted by hand) are picked up
+ * when the modification time of the base directory changes.
+ *
+ * If a run cannot append to the journal, it leaves a stale marker in the base
+ * directory instead. The marker changes the modification time of the base
+ * directory, and the next refresh re-reads the structure of the marked run
+ * even though the journal already holds an older summary of it.
+ *
+ * The journal is compacted into one line per run once it grows well beyond
+ * the number of runs it describes.
+ */
+public class DirectoryRASRunIndex {
+
+    public static final String INDEX_FILE_NAME = ".galasa-run-index";
+    public static final String LOCK_FILE_NAME  = ".galasa-run-index.lock";
+    public static final String STALE_MARKER_PREFIX = ".galasa-run-index-stale.";
+
+    private static final String STRUCTURE_FILE_NAME = "structure.json";
+
+    // Compact once the journal holds this many more lines than there are runs
+    private static final long   COMPACTION_SLACK_LINES  = 1000;
+    // The run writers compact the journal if no reader has done so by this size
+    private static final long   COMPACTION_FILE_SIZE    = 64L * 1024 * 1024;
+
+    private static final Map<Path, DirectoryRASRunIndex> indexes = new ConcurrentHashMap<>();
+
+    // File locks are held per JVM, so serialise access to them within this JVM
+    private static final Object FILE_LOCK_MONITOR = new Object();
+
+    private final Log        logger = LogFactory.getLog(DirectoryRASRunIndex.class);
+
+    private final Path       baseDirectory;
+    private final Path       indexFile;
+    private final Path       lockFile;
+    private final GalasaGson gson;
+
+    private final Map<String, IndexEntry> entries = new HashMap<>();
+
+    private boolean  loaded;
+    private long     journalOffset;
+    private long     journalLines;
+    private Object   journalFileKey;
+    private FileTime lastBaseDirectoryModified;
+
+    /**
+     * Get the shared index for a RAS base directory
+     *
+     * @param baseDirectory the base directory of the local RAS
+     * @return the index for that directory
+     */
+    public static @NotNull DirectoryRASRunIndex getIndex(@NotNull Path baseDirectory) {
+        Path key = baseDirectory.toAbsolutePath().normalize();
+        return indexes.computeIfAbsent(key, DirectoryRASRunIndex::new);
+    }
+
+    protected DirectoryRASRunIndex(@NotNull Path baseDirectory) {
+        this.baseDirectory = baseDirectory;
+        this.indexFile = baseDirectory.resolve(INDEX_FILE_NAME);
+        this.lockFile = baseDirectory.resolve(LOCK_FILE_NAME);
+
+        this.gson = new GalasaGson();
+        this.gson.setGsonBuilder(new GalasaGsonBuilder(false));
+    }
+
+    /**
+     * An indexed run, holding just the scalar fields of its test structure
+     */
+    public static class IndexEntry {
+        private final String        runDirectoryName;
+        private final TestStructure summary;
+
+        IndexEntry(String runDirectoryName, TestStructure summary) {
+            this.runDirectoryName = runDirectoryName;
+            this.summary = summary;
+        }
+
+        public String getRunDirectoryName() {
+            return runDirectoryName;
+        }
+
+        public TestStructure getSummary() {
+            return summary;
+        }
+    }
+
+    /**
+     * The JSON record held on each line of the journal
+     */
+    private static class IndexRecord {
+        private String        dir;
+        private boolean       deleted;
+        private TestStructure structure;
+    }
+
+    /**
+     * Record the latest test structure of a run in the journal. Called by the
+     * run that owns the structure each time it is written.
+     *
+     * @param runDirectoryName the name of the run directory relative to the base directory
+     * @param testStructure    the structure that was just written
+     * @throws IOException if the journal could not be written
+     */
+    public void recordStructure(@NotNull String runDirectoryName, @NotNull TestStructure testStructure) throws IOException {
+        IndexRecord indexRecord = new IndexRecord();
+        indexRecord.dir = runDirectoryName;
+        indexRecord.structure = summarise(testStructure);
+
+        long journalSize = appendRecords(List.of(indexRecord));
+
+        if (journalSize > COMPACTION_FILE_SIZE) {
+            synchronized (this) {
+                refreshJournal();
+                compact();
+            }
+        }
+    }
+
+    /**
+     * Mark a run whose structure could not be recorded in the journal, so the
+     * next refresh re-reads its structure file
+     *
+     * @param runDirectoryName the name of the run directory relative to the base directory
+     * @throws IOException if the marker could not be written
+     */
+    public void markStale(@NotNull String runDirectoryName) throws IOException {
+        Files.write(baseDirectory.resolve(STALE_MARKER_PREFIX + runDirectoryName), new byte[0]);
+    }
+
+    /**
+     * Bring the index up to date and return the runs it holds
+     *
+     * @return a snapshot of the indexed runs
+     * @throws IOException if the journal or base directory could not be read
+     */
+    public synchronized @NotNull List<IndexEntry> getEntries() throws IOException {
+        refresh();
+        return new ArrayList<>(entries.values());
+    }
+
+    protected synchronized void refresh() throws IOException {
+        refreshJournal();
+
+        FileTime baseDirectoryModified = Files.getLastModifiedTime(baseDirectory);
+        if (!baseDirectoryModified.equals(lastBaseDirectoryModified)) {
+            reconcileWithDirectory();
+            lastBaseDirectoryModified = baseDirectoryModified;
+        }
+
+        if (journalLines > (entries.size() * 2L) + COMPACTION_SLACK_LINES) {
+            compact();
+        }
+    }
+
+    /**
+     * Read any journal lines appended since the last refresh. If the journal
+     * has been replaced by a compaction, it is replayed from the start.
+     */
+    private void refreshJournal() throws IOException {
+        if (!Files.exists(indexFile)) {
+            if (loaded && journalOffset > 0) {
+                resetJournalState();
+            }
+            loaded = true;
+            return;
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(indexFile, BasicFileAttributes.class);
+        Object fileKey = attributes.fileKey();
+        if (!loaded || attributes.size() < journalOffset || !Objects.equals(fileKey, journalFileKey)) {
+            resetJournalState();
+            journalFileKey = fileKey;
+        }
+        loaded = true;
+
+        if (attributes.size() == journalOffset) {
+            return;
+        }
+
+        byte[] newBytes;
+        try (InputStream in = Files.newInputStream(indexFile)) {
+            long toSkip = journalOffset;
+            while (toSkip > 0) {
+                long skipped = in.skip(toSkip);
+                if (skipped <= 0) {
+                    break;
+                }
+                toSkip -= skipped;
+            }
+            newBytes = in.readAllBytes();
+        }
+
+        int lineStart = 0;
+        for (int i = 0; i < newBytes.length; i++) {
+            if (newBytes[i] == '\n') {
+                applyLine(new String(newBytes, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                lineStart = i + 1;
+            }
+        }
+
+        // Only consume complete lines, a partially written line will be read on the next refresh
+        journalOffset += lineStart;
+    }
+
+    private void resetJournalState() {
+        entries.clear();
+        journalOffset = 0;
+        journalLines = 0;
+        lastBaseDirectoryModified = null;
+    }
+
+    private void applyLine(String line) {
+        journalLines++;
+        if (line.isBlank()) {
+            return;
+        }
+
+        try {
+            IndexRecord indexRecord = gson.fromJson(line, IndexRecord.class);
+            if (indexRecord == null || indexRecord.dir == null) {
+                return;
+            }
+
+            if (indexRecord.deleted || indexRecord.structure == null) {
+                entries.remove(indexRecord.dir);
+            } else {
+                entries.put(indexRecord.dir, new IndexEntry(indexRecord.dir, indexRecord.structure));
+            }
+        } catch (Exception e) {
+            logger.trace("Ignoring corrupt line in the RAS run index " + indexFile.toString(), e);
+        }
+    }
+
+    /**
+     * Pick up runs that have been added to, or removed from, the base directory
+     * without being recorded in the journal, and re-read the runs marked stale.
+     */
+    private void reconcileWithDirectory() throws IOException {
+        List<Path> runPaths = new ArrayList<>();
+        Set<String> staleNames = new HashSet<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(baseDirectory)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.startsWith(STALE_MARKER_PREFIX)) {
+                    staleNames.add(name.substring(STALE_MARKER_PREFIX.length()));
+                    // Remove the marker before reading the structure, so a later failure marks the run again
+                    Files.deleteIfExists(path);
+                } else {
+                    runPaths.add(path);
+                }
+            }
+        }
+
+        Set<String> presentNames = new HashSet<>();
+        List<IndexRecord> newRecords = new ArrayList<>();
+
+        for (Path path : runPaths) {
+            String name = path.getFileName().toString();
+            presentNames.add(name);
+
+            if ((entries.containsKey(name) && !staleNames.contains(name)) || !Files.isDirectory(path)) {
+                continue;
+            }
+
+            Path structureFile = path.resolve(STRUCTURE_FILE_NAME);
+            if (!Files.exists(structureFile)) {
+                continue;
+            }
+
+            try (InputStreamReader in = new InputStreamReader(Files.newInputStream(structureFile), StandardCharsets.UTF_8)) {
+                TestStructure testStructure = gson.fromJson(in, TestStructure.class);
+                if (testStructure != null) {
+                    IndexRecord indexRecord = new IndexRecord();
+                    indexRecord.dir = name;
+                    indexRecord.structure = summarise(testStructure);
+                    newRecords.add(indexRecord);
+                }
+            } catch (Exception e) {
+                logger.trace("Unable to index the run from " + structureFile.toString(), e);
+            }
+        }
+
+        for (String name : entries.keySet()) {
+            if (!presentNames.contains(name)) {
+                IndexRecord indexRecord = new IndexRecord();
+                indexRecord.dir = name;
+                indexRecord.deleted = true;
+                newRecords.add(indexRecord);
+            }
+        }
+
+        if (newRecords.isEmpty()) {
+            return;
+        }
+
+        appendRecords(newRecords);
+        refreshJournal();
+    }
+
+    /**
+     * Rewrite the journal so it holds a single line for each run
+     */
+    private void compact() throws IOException {
+        synchronized (FILE_LOCK_MONITOR) {
+            try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    FileLock lock = lockChannel.lock()) {
+
+                // Pick up anything appended before we took the lock
+                refreshJournal();
+
+                Path tempFile = Files.createTempFile(baseDirectory, INDEX_FILE_NAME, ".tmp");
+                try {
+                    StringBuilder sb = new StringBuilder();
+                    for (IndexEntry entry : entries.values()) {
+                        IndexRecord indexRecord = new IndexRecord();
+                        indexRecord.dir = entry.getRunDirectoryName();
+                        indexRecord.structure = entry.getSummary();
+                        sb.append(gson.toJson(indexRecord));
+                        sb.append('\n');
+                    }
+                    Files.write(tempFile, sb.toString().getBytes(StandardCharsets.UTF_8));
+                    Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(tempFile);
+                }
+
+                BasicFileAttributes attributes = Files.readAttributes(indexFile, BasicFileAttributes.class);
+                journalFileKey = attributes.fileKey();
+                journalOffset = attributes.size();
+                journalLines = entries.size();
+            }
+        }
+    }
+
+    /**
+     * Append records to the journal under the cross-process lock
+     *
+     * @return the size of the journal after the append
+     */
+    private long appendRecords(List<IndexRecord> indexRecords) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        for (IndexRecord indexRecord : indexRecords) {
+            baos.write(gson.toJson(indexRecord).getBytes(StandardCharsets.UTF_8));
+            baos.write('\n');
+        }
+
+        synchronized (FILE_LOCK_MONITOR) {
+            try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    FileLock lock = lockChannel.lock();
+                    FileChannel journal = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(baos.toByteArray());
+                while (buffer.hasRemaining()) {
+                    journal.write(buffer);
+                }
+                return journal.size();
+            }
+        }
+    }
+
+    /**
+     * Copy the fields used for searching, sorting and listing runs. The test
+     * methods, log and artifact record ids are left out to keep the index small.
+     */
+    static TestStructure summarise(TestStructure source) {
+        TestStructure summary = new TestStructure();
+        summary.setRunName(source.getRunName());
+        summary.setBundle(source.getBundle());
+        summary.setTestName(source.getTestName());
+        summary.setTestShortName(source.getTestShortName());
+        summary.setRequestor(source.getRequestor());
+        summary.setStatus(source.getStatus());
+        summary.setResult(source.getResult());
+        summary.setGroup(source.getGroup());
+        summary.setQueued(source.getQueued());
+        summary.setStartTime(source.getStartTime());
+        summary.setEndTime(source.getEndTime());
+        return summary;
+    }
+}
@@ -7,6 +7,7 @@ package dev.galasa.framework.internal.ras.directory;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -21,40 +22,85 @@ import dev.galasa.framework.spi.utils.GalasaGson;
 public class DirectoryRASRunResult implements IRunResult {
 
     private final Path                           runDirectory;
-    private final TestStructure                  testStructure;
-    private final DirectoryRASFileSystemProvider fileSystemProvider;
+    private final GalasaGson                     gson;
+    private final TestStructure                  summary;
+    private TestStructure                        testStructure;
+    private DirectoryRASFileSystemProvider       fileSystemProvider;
     private final String                         id;
 
     protected DirectoryRASRunResult(Path runDirectory, GalasaGson gson, String id)
             throws JsonSyntaxException, JsonIOException, IOException {
         this.runDirectory = runDirectory;
+        this.gson         = gson;
         this.id           = id;
+        this.summary      = null;
 
-        Path structureFile = this.runDirectory.resolve("structure.json");
-        
-        try (InputStreamReader in = new InputStreamReader(Files.newInputStream(structureFile))){
-           this.testStructure = gson.fromJson(in, TestStructure.class);
-        }
-    
+        this.testStructure = loadTestStructure();
 
         this.fileSystemProvider = new DirectoryRASFileSystemProvider(this.runDirectory);
     }
+
+    /**
+     * Create a run result from an entry in the run index. The full test structure
+     * and the artifacts are only read from disk when they are asked for.
+     */
+    protected DirectoryRASRunResult(Path runDirectory, GalasaGson gson, String id, TestStructure summary) {
+        this.runDirectory = runDirectory;
+        this.gson         = gson;
+        this.id           = id;
+        this.summary      = summary;
+    }
     
     //for testing purposes
     protected DirectoryRASRunResult() {
     	this.testStructure = null;
     	this.runDirectory = null;
+    	this.gson = null;
+    	this.summary = null;
     	this.fileSystemProvider = null;
     	this.id                 = null;
     }
 
+    private TestStructure loadTestStructure() throws IOException {
+        Path structureFile = this.runDirectory.resolve("structure.json");
+        
+        try (InputStreamReader in = new InputStreamReader(Files.newInputStream(structureFile))){
+           return gson.fromJson(in, TestStructure.class);
+        }
+    }
+
     @Override
-    public TestStructure getTestStructure() throws ResultArchiveStoreException {
+    public synchronized TestStructure getTestStructure() throws ResultArchiveStoreException {
+        if (this.testStructure == null && this.summary != null) {
+            try {
+                this.testStructure = loadTestStructure();
+            } catch (Exception e) {
+                throw new ResultArchiveStoreException("Unable to read the test structure in " + this.runDirectory.toString(), e);
+            }
+        }
         return this.testStructure;
     }
 
+    /**
+     * @return the indexed summary of the test structure if there is one, otherwise
+     * the full test structure. Used for searching without reading every run from disk.
+     */
+    protected TestStructure getSearchableTestStructure() throws ResultArchiveStoreException {
+        if (this.summary != null) {
+            return this.summary;
+        }
+        return getTestStructure();
+    }
+
     @Override
-    public Path getArtifactsRoot() throws ResultArchiveStoreException {
+    public synchronized Path getArtifactsRoot() throws ResultArchiveStoreException {
+        if (this.fileSystemProvider == null) {
+            try {
+                this.fileSystemProvider = new DirectoryRASFileSystemProvider(this.runDirectory);
+            } catch (IOException e) {
+                throw new ResultArchiveStoreException("Unable to read the artifacts of " + this.runDirectory.toString(), e);
+            }
+        }
         return this.fileSystemProvider.getActualFileSystem().getPath("/");
     }
 
@@ -73,6 +119,27 @@ public class DirectoryRASRunResult implements IRunResult {
         return "";
     }
 
+    @Override
+    public void writeLog(OutputStream outputStream) throws ResultArchiveStoreException, IOException {
+        Path runLog = runDirectory.resolve("run.log");
+        if (Files.exists(runLog)) {
+            Files.copy(runLog, outputStream);
+        }
+    }
+
+    @Override
+    public long getLogSize() throws ResultArchiveStoreException {
+        Path runLog = runDirectory.resolve("run.log");
+        if (!Files.exists(runLog)) {
+            return 0;
+        }
+        try {
+            return Files.size(runLog);
+        } catch (IOException e) {
+            throw new ResultArchiveStoreException("Unable to read the size of the run log at " + runLog.toString(), e);
+        }
+    }
+
     public void discard() throws ResultArchiveStoreException {
         //TODO
     }
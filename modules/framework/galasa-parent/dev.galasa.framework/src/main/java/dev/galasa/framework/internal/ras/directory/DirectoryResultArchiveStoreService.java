@@ -20,8 +20,13 @@ import java.util.Objects;
 
 import javax.validation.constraints.NotNull;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.osgi.service.component.annotations.Component;
 
+import dev.galasa.framework.spi.AbstractManager;
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
 import dev.galasa.framework.spi.IFramework;
 import dev.galasa.framework.spi.IResultArchiveStoreDirectoryService;
 import dev.galasa.framework.spi.IResultArchiveStoreService;
@@ -40,6 +45,8 @@ public class DirectoryResultArchiveStoreService implements IResultArchiveStoreSe
 
     private static final Charset           UTF8     = Charset.forName("utf-8");
 
+    private final Log                      logger   = LogFactory.getLog(DirectoryResultArchiveStoreService.class);
+
     private final IFramework               framework;                           // NOSONAR
     private final URI                      rasUri;
     private final Path                     baseDirectory;
@@ -54,6 +61,12 @@ public class DirectoryResultArchiveStoreService implements IResultArchiveStoreSe
 
     private DirectoryRASFileSystemProvider provider;
 
+    private DirectoryRASLogWriter          logWriter;
+
+    private static final int               DEFAULT_LOG_BUFFER_LINES       = 10000;
+    private static final int               DEFAULT_LOG_BATCH_LINES        = 500;
+    private static final long              DEFAULT_LOG_FLUSH_INTERVAL_MS  = 1000;
+
     public DirectoryResultArchiveStoreService(IFramework framework, URI rasUri) throws ResultArchiveStoreException {
         this.framework = framework;
         this.rasUri = rasUri;
@@ -92,6 +105,53 @@ public class DirectoryResultArchiveStoreService implements IResultArchiveStoreSe
             throw new ResultArchiveStoreException("Unable to create the RAS Provider", e);
         }
 
+        setupLogWriter();
+    }
+
+    /**
+     * If framework.resultarchive.store.local.log.buffered is true, the run log is
+     * written by a background thread in batches, rather than opening the file for
+     * every message
+     *
+     * @throws ResultArchiveStoreException - if the run log can't be opened
+     */
+    private void setupLogWriter() throws ResultArchiveStoreException {
+        IConfigurationPropertyStoreService cps = null;
+        try {
+            cps = this.framework.getConfigurationPropertyService("framework");
+        } catch (final ConfigurationPropertyStoreException e) {
+            throw new ResultArchiveStoreException("Unable to access the CPS for the RAS log settings", e);
+        }
+        if (cps == null) {
+            return;
+        }
+
+        try {
+            String buffered = AbstractManager.nulled(cps.getProperty("resultarchive.store.local", "log.buffered"));
+            if (!Boolean.parseBoolean(buffered)) {
+                return;
+            }
+
+            int bufferLines = getIntProperty(cps, "log.buffer.lines", DEFAULT_LOG_BUFFER_LINES);
+            int batchLines = getIntProperty(cps, "log.batch.lines", DEFAULT_LOG_BATCH_LINES);
+            long flushIntervalMs = getIntProperty(cps, "log.flush.interval.ms", (int) DEFAULT_LOG_FLUSH_INTERVAL_MS);
+
+            this.logWriter = new DirectoryRASLogWriter(this.runLog, bufferLines, batchLines, flushIntervalMs);
+        } catch (final ConfigurationPropertyStoreException | IOException e) {
+            throw new ResultArchiveStoreException("Unable to create the buffered run log writer", e);
+        }
+    }
+
+    private int getIntProperty(IConfigurationPropertyStoreService cps, String suffix, int defaultValue) throws ConfigurationPropertyStoreException, ResultArchiveStoreException {
+        String value = AbstractManager.nulled(cps.getProperty("resultarchive.store.local", suffix));
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (final NumberFormatException e) {
+            throw new ResultArchiveStoreException("Invalid value '" + value + "' for framework.resultarchive.store.local." + suffix, e);
+        }
     }
 
     /**
@@ -151,7 +211,11 @@ public class DirectoryResultArchiveStoreService implements IResultArchiveStoreSe
             message = framework.getConfidentialTextService().removeConfidentialText(message);
 
         try {
-            Files.write(this.runLog, message.getBytes(UTF8), StandardOpenOption.APPEND);
+            if (this.logWriter != null) {
+                this.logWriter.append(message);
+            } else {
+                Files.write(this.runLog, message.getBytes(UTF8), StandardOpenOption.APPEND);
+            }
         } catch (final Exception e) {
             throw new ResultArchiveStoreException("Unable to write message to run log", e);
         }
@@ -190,6 +254,21 @@ public class DirectoryResultArchiveStoreService implements IResultArchiveStoreSe
         } catch (final Exception e) {
             throw new ResultArchiveStoreException("Unable to write the test structure", e);
         }
+
+        // *** Keep the run catalogue up to date so queries do not have to rescan the RAS
+        String runDirectoryName = this.baseDirectory.relativize(this.runDirectory).toString();
+        DirectoryRASRunIndex runIndex = DirectoryRASRunIndex.getIndex(this.baseDirectory);
+        try {
+            runIndex.recordStructure(runDirectoryName, testStructure);
+        } catch (final Exception e) {
+            try {
+                runIndex.markStale(runDirectoryName);
+                logger.warn("Unable to update the RAS run index, the run will be re-read on the next index refresh", e);
+            } catch (final Exception markException) {
+                e.addSuppressed(markException);
+                logger.warn("Unable to update the RAS run index or mark the run as stale, the index may show an old status for the run", e);
+            }
+        }
     }
 
     /*
@@ -204,11 +283,26 @@ public class DirectoryResultArchiveStoreService implements IResultArchiveStoreSe
 
     @Override
     public void flush() {
+        if (this.logWriter != null) {
+            try {
+                this.logWriter.flush();
+            } catch (final IOException e) {
+                e.printStackTrace(); // *** Do not use logger, will cause a loop //NOSONAR
+            }
+        }
     }
 
     @Override
     public void shutdown() {
         this.shutdown = true;
+
+        if (this.logWriter != null) {
+            try {
+                this.logWriter.close();
+            } catch (final IOException e) {
+                e.printStackTrace(); // *** Do not use logger, the run log is closed //NOSONAR
+            }
+        }
     }
 
     public boolean isShutdown() {
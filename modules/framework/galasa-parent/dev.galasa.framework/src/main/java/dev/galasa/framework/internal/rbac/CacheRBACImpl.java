@@ -5,11 +5,20 @@
  */
 package dev.galasa.framework.internal.rbac;
 
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import dev.galasa.framework.spi.DynamicStatusStoreException;
 import dev.galasa.framework.spi.IDynamicStatusStoreService;
+import dev.galasa.framework.spi.IDynamicStatusStoreWatcher;
 import dev.galasa.framework.spi.auth.AuthStoreException;
 import dev.galasa.framework.spi.auth.IAuthStoreService;
 import dev.galasa.framework.spi.auth.IUser;
@@ -17,78 +26,192 @@ import dev.galasa.framework.spi.rbac.CacheRBAC;
 import dev.galasa.framework.spi.rbac.RBACException;
 import dev.galasa.framework.spi.rbac.RBACService;
 import dev.galasa.framework.spi.rbac.Role;
+import dev.galasa.framework.spi.utils.ITimeService;
+import dev.galasa.framework.spi.utils.SystemTimeService;
 
+/**
+ * Caches the actions each user is permitted to perform, in two tiers.
+ *
+ * The DSS tier is shared by every process in the ecosystem and keeps a user's
+ * actions for 24 hours. In front of it, each process keeps the parsed actions
+ * of recently seen users in memory for a short time, so most checks need no
+ * lock and no DSS round trip.
+ *
+ * A user invalidated in any process is deleted from the DSS, and a watch on
+ * the DSS drops that user from the in-memory tier of every process. If the
+ * watch cannot be set up, the short time to live bounds how long a process
+ * can act on a stale set of actions.
+ */
 public class CacheRBACImpl implements CacheRBAC {
 
     // Only keep users-to-actions entries in the cache for 24 hours
     private static final long CACHED_ACTIONS_TIME_TO_LIVE_SECS = 24 * 60 * 60;
 
+    // Only keep users-to-actions entries in memory for 30 seconds
+    public static final long LOCAL_ACTIONS_TIME_TO_LIVE_MILLIS = 30 * 1000;
+
+    // The most users to keep in memory at once
+    public static final int LOCAL_MAX_USERS = 1000;
+
     private static final String USER_PROPERTY_PREFIX = "user.";
     private static final String ACTIONS_PROPERTY_SUFFIX = ".actions";
 
+    private final Log logger = LogFactory.getLog(getClass());
+
     private IDynamicStatusStoreService dssService;
     private IAuthStoreService authStoreService;
     private RBACService rbacService;
+    private ITimeService timeService;
+    private int localMaxUsers;
+
+    private final ConcurrentHashMap<String, LocalUserActions> localUserActions = new ConcurrentHashMap<>();
+
+    // Counts invalidations, so a lookup that overlaps one does not keep what it read
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private static class LocalUserActions {
+        private final Set<String> actionIds;
+        private final long expiresAtMillis;
+
+        private LocalUserActions(Set<String> actionIds, long expiresAtMillis) {
+            this.actionIds = actionIds;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
 
     public CacheRBACImpl(
         IDynamicStatusStoreService dssService,
         IAuthStoreService authStoreService,
         RBACService rbacService
+    ) {
+        this(dssService, authStoreService, rbacService, new SystemTimeService(), LOCAL_MAX_USERS);
+    }
+
+    public CacheRBACImpl(
+        IDynamicStatusStoreService dssService,
+        IAuthStoreService authStoreService,
+        RBACService rbacService,
+        ITimeService timeService,
+        int localMaxUsers
     ) {
         this.dssService = dssService;
         this.authStoreService = authStoreService;
         this.rbacService = rbacService;
+        this.timeService = timeService;
+        this.localMaxUsers = localMaxUsers;
+
+        watchForInvalidatedUsers();
+    }
+
+    @Override
+    public void addUser(String loginId, Set<String> actionIds) throws RBACException {
+        addUser(loginId, actionIds, invalidations.get());
+    }
+
+    @Override
+    public boolean isActionPermitted(String loginId, String actionId) throws RBACException {
+        return getUserActions(loginId).contains(actionId);
     }
 
     @Override
-    public synchronized void addUser(String loginId, Set<String> actionIds) throws RBACException {
+    public void invalidateUser(String loginId) throws RBACException {
         try {
-            String commaSeparatedActionIds = String.join(",", actionIds);
-            String actionsKey = getUserActionsPropertyKey(loginId);
-            dssService.put(actionsKey, commaSeparatedActionIds, CACHED_ACTIONS_TIME_TO_LIVE_SECS);
+            String userActionsKey = getUserActionsPropertyKey(loginId);
+            dssService.delete(userActionsKey);
         } catch (DynamicStatusStoreException e) {
-            throw new RBACException("Failed to cache user actions", e);
+            throw new RBACException("Failed to delete cached user actions", e);
         }
+
+        // Drop the in-memory copy after the DSS copy, so it cannot be read back from the DSS
+        invalidateLocalUser(loginId);
     }
 
-    @Override
-    public synchronized boolean isActionPermitted(String loginId, String actionId) throws RBACException {
+    private Set<String> getUserActions(String loginId) throws RBACException {
+        long now = timeService.now().toEpochMilli();
+        LocalUserActions local = localUserActions.get(loginId);
+        if (local != null && local.expiresAtMillis > now) {
+            return local.actionIds;
+        }
 
-        boolean isActionPermitted = false;
+        long invalidationsBeforeLookup = invalidations.get();
+        Set<String> userActions;
         try {
             String userActionsKey = getUserActionsPropertyKey(loginId);
             String commaSeparatedUserActions = dssService.get(userActionsKey);
 
-            Set<String> userActions = new HashSet<>();
             if (commaSeparatedUserActions == null) {
                 // Cache miss, so get the user's actions from the auth store
                 userActions = getUserActionsFromAuthStore(loginId);
 
                 // Add this user to the cache
-                addUser(loginId, userActions);
+                addUser(loginId, userActions, invalidationsBeforeLookup);
             } else {
-                userActions = Set.of(commaSeparatedUserActions.split(","));
+                userActions = Set.copyOf(Arrays.asList(commaSeparatedUserActions.split(",")));
+                cacheLocally(loginId, userActions, invalidationsBeforeLookup);
             }
-
-            // Check if the user is allowed to perform the given action
-            isActionPermitted = userActions.contains(actionId);
         } catch (DynamicStatusStoreException e) {
             throw new RBACException("Error occurred when accessing the DSS", e);
         }
-        return isActionPermitted;
+        return userActions;
     }
 
-    @Override
-    public synchronized void invalidateUser(String loginId) throws RBACException {
+    private void addUser(String loginId, Set<String> actionIds, long invalidationsBeforeLookup) throws RBACException {
         try {
-            String userActionsKey = getUserActionsPropertyKey(loginId);
-            dssService.delete(userActionsKey);
+            String commaSeparatedActionIds = String.join(",", actionIds);
+            String actionsKey = getUserActionsPropertyKey(loginId);
+            dssService.put(actionsKey, commaSeparatedActionIds, CACHED_ACTIONS_TIME_TO_LIVE_SECS);
         } catch (DynamicStatusStoreException e) {
-            throw new RBACException("Failed to delete cached user actions", e);
+            throw new RBACException("Failed to cache user actions", e);
+        }
+        cacheLocally(loginId, Set.copyOf(actionIds), invalidationsBeforeLookup);
+    }
+
+    private void cacheLocally(String loginId, Set<String> actionIds, long invalidationsBeforeLookup) {
+        long now = timeService.now().toEpochMilli();
+        if (localUserActions.size() >= localMaxUsers && !localUserActions.containsKey(loginId)) {
+            evictLocalUsers(now);
+        }
+
+        LocalUserActions local = new LocalUserActions(actionIds, now + LOCAL_ACTIONS_TIME_TO_LIVE_MILLIS);
+        localUserActions.put(loginId, local);
+
+        // An invalidation while the actions were being looked up may mean they are stale already
+        if (invalidations.get() != invalidationsBeforeLookup) {
+            localUserActions.remove(loginId, local);
+        }
+    }
+
+    private void evictLocalUsers(long now) {
+        localUserActions.values().removeIf(local -> local.expiresAtMillis <= now);
+
+        Iterator<Map.Entry<String, LocalUserActions>> entries = localUserActions.entrySet().iterator();
+        while (localUserActions.size() >= localMaxUsers && entries.hasNext()) {
+            entries.next();
+            entries.remove();
+        }
+    }
+
+    private void invalidateLocalUser(String loginId) {
+        invalidations.incrementAndGet();
+        localUserActions.remove(loginId);
+    }
+
+    private void watchForInvalidatedUsers() {
+        IDynamicStatusStoreWatcher watcher = (key, event, oldValue, newValue) -> {
+            if (event != IDynamicStatusStoreWatcher.Event.NEW
+                    && key.startsWith(USER_PROPERTY_PREFIX) && key.endsWith(ACTIONS_PROPERTY_SUFFIX)) {
+                invalidateLocalUser(key.substring(USER_PROPERTY_PREFIX.length(), key.length() - ACTIONS_PROPERTY_SUFFIX.length()));
+            }
+        };
+
+        try {
+            dssService.watchPrefix(watcher, USER_PROPERTY_PREFIX);
+        } catch (DynamicStatusStoreException e) {
+            logger.warn("Unable to watch the DSS for invalidated users, cached user actions will be used until they expire", e);
         }
     }
 
-    private synchronized IUser getUserFromAuthStore(String loginId) throws RBACException {
+    private IUser getUserFromAuthStore(String loginId) throws RBACException {
         IUser user = null;
         try {
             user = authStoreService.getUserByLoginId(loginId);
@@ -6,7 +6,10 @@
 package dev.galasa.framework.spi;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -27,6 +30,7 @@ import dev.galasa.framework.internal.rps.ResourceString;
 public class FrameworkResourcePoolingService implements IResourcePoolingService {
     private static final int           DEFAULTNUMBEROFRESOURCES    = 10;
     private static final int           DEFAULTCONSECUTIVERESOURCES = 1;
+    private static final long          MAXBITMAPRESOURCES          = 65536;
     private IDynamicStatusStoreService defaultDss                  = new StubbedDss();
     private String                     defaultKeyPrefix            = "";
     private Random                     random                      = new Random();
@@ -279,6 +283,10 @@ public class FrameworkResourcePoolingService implements IResourcePoolingService
             rejectedResources = new ArrayList<>();
         }
 
+        if (returnConsecutive == 1 && getNumberOfCombinations(resourceDefinitions) <= MAXBITMAPRESOURCES) {
+            return generateResourcesFromBitmap(resourceDefinitions, rejectedResources, numberOfResources, dss, keyPrefix);
+        }
+
         bannedResources.addAll(rejectedResources);
 
         try {
@@ -369,6 +377,82 @@ public class FrameworkResourcePoolingService implements IResourcePoolingService
         return resources;
     }
 
+    /**
+     * This method generates single resources by marking every resource of the
+     * definitions that is neither rejected nor in use in a bitmap, then picking
+     * from the set bits at random. The resources in use are found with one
+     * prefix read of the DSS rather than a read for each resource tried, so
+     * the cost does not grow as the pool fills up. When no key prefix is
+     * given, each resource picked is checked in the DSS instead.
+     * 
+     * @param resourceDefinitions - the resource strings passed that define the
+     *                            available resources to generate.
+     * @param rejectedResources   - the resources that are not to be returned.
+     * @param numberOfResources   - the number of resources required.
+     * @param dss                 - the dynamic status store to check against.
+     * @param keyPrefix           - the prefix for the resource if it was to be
+     *                            found in the DSS.
+     * @return - a list of randomly chosen free resources.
+     * @throws DynamicStatusStoreException
+     * @throws InsufficientResourcesAvailableException
+     */
+    private List<String> generateResourcesFromBitmap(List<ResourceString> resourceDefinitions,
+            List<String> rejectedResources, int numberOfResources, IDynamicStatusStoreService dss, String keyPrefix)
+            throws DynamicStatusStoreException, InsufficientResourcesAvailableException {
+        List<String> allResources = new ArrayList<>();
+        for (ResourceString definition : resourceDefinitions) {
+            allResources.add(definition.getFirstResource());
+            for (int i = 1; i < definition.getNumberOfCombinations(); i++) {
+                allResources.add(definition.getNextResource());
+            }
+        }
+
+        boolean checkEachResource = keyPrefix.isEmpty();
+        Set<String> usedKeys = checkEachResource ? new HashSet<>() : dss.getPrefix(keyPrefix).keySet();
+        Set<String> bannedResources = new HashSet<>(rejectedResources);
+
+        BitSet freeResources = new BitSet(allResources.size());
+        for (int i = 0; i < allResources.size(); i++) {
+            String resource = allResources.get(i);
+            if (!bannedResources.contains(resource) && !usedKeys.contains(keyPrefix + resource)) {
+                freeResources.set(i);
+            }
+        }
+
+        Set<String> generatedResources = new LinkedHashSet<>();
+        while (generatedResources.size() < numberOfResources) {
+            if (freeResources.isEmpty()) {
+                throw new InsufficientResourcesAvailableException("There is not enough resource available");
+            }
+
+            int index = freeResources.nextSetBit(random.nextInt(allResources.size()));
+            if (index < 0) {
+                index = freeResources.nextSetBit(0);
+            }
+            freeResources.clear(index);
+
+            String resource = allResources.get(index);
+            if (checkEachResource && dss.get(resource) != null) {
+                continue;
+            }
+            generatedResources.add(resource);
+        }
+        return new ArrayList<>(generatedResources);
+    }
+
+    private long getNumberOfCombinations(List<ResourceString> resourceDefinitions) {
+        long combinations = 0;
+        for (ResourceString definition : resourceDefinitions) {
+            int definitionCombinations = definition.getNumberOfCombinations();
+            if (definitionCombinations <= 0) {
+                // *** Overflowed, so far too many to hold in a bitmap
+                return Long.MAX_VALUE;
+            }
+            combinations += definitionCombinations;
+        }
+        return combinations;
+    }
+
     /**
      * This method is used for sequential generation of resources if the random
      * generation fails. This should only trigger is the attempted number of random
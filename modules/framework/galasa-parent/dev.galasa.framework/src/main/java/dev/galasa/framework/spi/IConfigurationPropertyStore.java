@@ -91,6 +91,22 @@ public interface IConfigurationPropertyStore {
      */
     List<String> getNamespaces() throws ConfigurationPropertyStoreException;
 
+    /**
+     * Ask to be told whenever a property changes, whether through this store or
+     * by any other process. The framework uses this to keep its cache of resolved
+     * properties current.
+     * 
+     * Stores that cannot report changes return false, and the framework then does
+     * not cache resolved properties at all.
+     * 
+     * @param watcher - told the key of each property that changes
+     * @return true if the store will report changes to the watcher
+     * @throws ConfigurationPropertyStoreException - An error occurred.
+     */
+    default boolean watch(IConfigurationPropertyStoreWatcher watcher) throws ConfigurationPropertyStoreException {
+        return false;
+    }
+
     /**
      * Called by the framework when shutting down.
      * 
@@ -5,6 +5,7 @@
  */
 package dev.galasa.framework.spi;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -89,6 +90,33 @@ public interface IConfigurationPropertyStoreService {
     @NotNull 
     Map<String, String> getPrefixedProperties(@NotNull String prefix) throws ConfigurationPropertyStoreException;
 
+    /**
+     * <p>
+     * Retrieves several properties that share a prefix and infixes in one call,
+     * searching the same keys in the same order as getProperty does for each
+     * suffix. Managers can use this to resolve the properties they need during
+     * initialise, rather than making a call per property.
+     * </p>
+     * 
+     * @param prefix   The prefix of the property names within the namespace.
+     * @param suffixes The suffixes of the property names.
+     * @param infixes  Any optional infixes of the property names.
+     * @return The value found for each suffix, suffixes with no value are left out
+     * @throws ConfigurationPropertyStoreException
+     */
+    @NotNull
+    default Map<String, String> getProperties(@NotNull String prefix, @NotNull List<String> suffixes,
+            String... infixes) throws ConfigurationPropertyStoreException {
+        HashMap<String, String> values = new HashMap<>();
+        for (String suffix : suffixes) {
+            String value = getProperty(prefix, suffix, infixes);
+            if (value != null) {
+                values.put(suffix, value);
+            }
+        }
+        return values;
+    }
+
     /**
      * <p>
      * Sets a string property from the Configuration Property Store within the
@@ -0,0 +1,20 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.spi;
+
+/**
+ * Told when properties in a Configuration Property Store change, so that
+ * anything derived from them can be dropped.
+ */
+public interface IConfigurationPropertyStoreWatcher {
+
+    /**
+     * @param key the property that changed, or a namespace followed by a dot if
+     *            any property in that namespace may have changed
+     */
+    void propertyModified(String key);
+
+}
@@ -75,6 +75,24 @@ public interface IDynamicStatusStoreKeyAccess {
      */
     boolean putSwap(@NotNull String key, String oldValue, @NotNull String newValue) throws DynamicStatusStoreException;
 
+    /**
+     * Put a key/value pair with a given expiry time in the server if the key is
+     * set to the oldValue.
+     * 
+     * @param key            - the key to use
+     * @param oldValue       - the value to compare with and must be equal to before the
+     *                       put is actioned. Null means does not exist
+     * @param newValue       - The new value to set the key to
+     * @param timeToLiveSecs - the amount of time in seconds for the key-value pair to remain available
+     * @return true if the put was actioned, false if not.
+     * @throws DynamicStatusStoreException
+     * @throws UnsupportedOperationException if the store does not support entries that expire
+     */
+    default boolean putSwap(@NotNull String key, String oldValue, @NotNull String newValue, @NotNull long timeToLiveSecs)
+            throws DynamicStatusStoreException {
+        throw new UnsupportedOperationException("Creating entries that expire is not supported by this DSS");
+    }
+
     /**
      * Put a key/value pair in the server if the key is set to the old value, along
      * with a set of other key value pairs
@@ -5,6 +5,7 @@
  */
 package dev.galasa.framework.spi;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
@@ -31,6 +32,21 @@ public interface IFrameworkRuns {
     @NotNull
     List<IRun> getAllGroupedRuns(@NotNull String groupName) throws FrameworkException;
 
+    /**
+     * @param requestor the requestor of the runs
+     * @return the runs submitted by the given requestor
+     */
+    @NotNull
+    default List<IRun> getRunsByRequestor(@NotNull String requestor) throws FrameworkException {
+        List<IRun> runs = new ArrayList<>();
+        for (IRun run : getAllRuns()) {
+            if (requestor.equals(run.getRequestor())) {
+                runs.add(run);
+            }
+        }
+        return runs;
+    }
+
     @NotNull
     Set<String> getActiveRunNames() throws FrameworkException;
 
@@ -5,6 +5,9 @@
  */
 package dev.galasa.framework.spi;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 
 import dev.galasa.framework.spi.teststructure.TestStructure;
@@ -19,6 +22,32 @@ public interface IRunResult {
 
     String getLog() throws ResultArchiveStoreException;
 
+    /**
+     * Write the run log to a stream. Stores that can read the log a piece at a time
+     * write it as it is read, rather than building the whole log first.
+     *
+     * @param outputStream - where to write the log, as UTF-8
+     * @throws ResultArchiveStoreException if the log cannot be read
+     * @throws IOException if the log cannot be written
+     */
+    default void writeLog(OutputStream outputStream) throws ResultArchiveStoreException, IOException {
+        String log = getLog();
+        if (log != null) {
+            outputStream.write(log.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * The size of the run log as written by {@link #writeLog(OutputStream)}, for
+     * stores that know it without reading the log.
+     *
+     * @return the number of bytes in the run log, or -1 if it is not known
+     * @throws ResultArchiveStoreException if the size cannot be read
+     */
+    default long getLogSize() throws ResultArchiveStoreException {
+        return -1;
+    }
+
     void discard() throws ResultArchiveStoreException;
 
     void loadArtifacts() throws ResultArchiveStoreException;
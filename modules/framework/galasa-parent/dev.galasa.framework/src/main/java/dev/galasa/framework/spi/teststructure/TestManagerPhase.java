@@ -0,0 +1,66 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.spi.teststructure;
+
+import java.time.Instant;
+
+/**
+ * The time a Manager took in one of the provisioning phases of a run, such
+ * as provision build or provision discard
+ */
+public class TestManagerPhase {
+
+    private String  manager;
+    private String  phase;
+
+    private String  result;
+
+    private Instant startTime;
+    private Instant endTime;
+
+    @SuppressWarnings("unused")
+    private TestManagerPhase() {
+        // NOP
+    }
+
+    public TestManagerPhase(String manager, String phase) {
+        this.manager = manager;
+        this.phase = phase;
+    }
+
+    public String getManager() {
+        return manager;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+
+}
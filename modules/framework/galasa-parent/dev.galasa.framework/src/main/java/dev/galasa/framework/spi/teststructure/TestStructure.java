@@ -43,6 +43,8 @@ public class TestStructure {
 
     private List<String>     artifactRecordIds;
 
+    private List<TestManagerPhase> managerPhases;
+
     public TestStructure() {
     }
 
@@ -73,6 +75,10 @@ public class TestStructure {
                 this.artifactRecordIds = new ArrayList<String>();
                 this.artifactRecordIds.addAll(source.artifactRecordIds);
             }
+            if (source.managerPhases != null) {
+                this.managerPhases = new ArrayList<TestManagerPhase>();
+                this.managerPhases.addAll(source.managerPhases);
+            }
         }
     }
 
@@ -246,6 +252,14 @@ public class TestStructure {
         this.artifactRecordIds = artifactRecordIds;
     }
 
+    public List<TestManagerPhase> getManagerPhases() {
+        return managerPhases;
+    }
+
+    public void setManagerPhases(List<TestManagerPhase> managerPhases) {
+        this.managerPhases = managerPhases;
+    }
+
     public void normalise() {
         if (this.status == null) {
             this.status = "unknown";
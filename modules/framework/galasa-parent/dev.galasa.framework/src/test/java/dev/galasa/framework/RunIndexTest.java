@@ -0,0 +1,315 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.validation.constraints.NotNull;
+
+import org.junit.Test;
+
+import dev.galasa.framework.mocks.MockCPSStore;
+import dev.galasa.framework.mocks.MockDSSStore;
+import dev.galasa.framework.mocks.MockFramework;
+import dev.galasa.framework.mocks.MockIDynamicStatusStoreService;
+import dev.galasa.framework.mocks.MockTimeService;
+import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.IDynamicStatusStoreService;
+import dev.galasa.framework.spi.IRun;
+
+public class RunIndexTest {
+
+    /**
+     * Counts the reads of the DSS, and can make a change part way through a
+     * prefix read. The keys are kept sorted, so a prefix read costs about what
+     * it would in etcd.
+     */
+    class CountingDss extends MockIDynamicStatusStoreService {
+        private final TreeMap<String, String> sortedData = new TreeMap<>();
+        private int prefixReads;
+        private Runnable duringPrefixRead;
+
+        @Override
+        public void put(@NotNull String key, @NotNull String value) throws DynamicStatusStoreException {
+            super.put(key, value);
+            sortedData.put(key, value);
+        }
+
+        @Override
+        public void delete(@NotNull String key) throws DynamicStatusStoreException {
+            super.delete(key);
+            sortedData.remove(key);
+        }
+
+        @Override
+        public @NotNull Map<String, String> getPrefix(@NotNull String keyPrefix) throws DynamicStatusStoreException {
+            prefixReads++;
+            Map<String, String> results = new HashMap<>(sortedData.subMap(keyPrefix, keyPrefix + Character.MAX_VALUE));
+            if (duringPrefixRead != null) {
+                Runnable change = duringPrefixRead;
+                duringPrefixRead = null;
+                change.run();
+            }
+            return results;
+        }
+    }
+
+    private void addRun(MockIDynamicStatusStoreService dss, String runName, String status, String group,
+            String requestor, boolean heartbeat) throws DynamicStatusStoreException {
+        String prefix = "run." + runName + ".";
+        dss.put(prefix + "status", status);
+        dss.put(prefix + "group", group);
+        dss.put(prefix + "requestor", requestor);
+        dss.put(prefix + "test", "mybundle/mytest");
+        dss.put(prefix + "queued", "2024-01-01T00:00:00Z");
+        if (heartbeat) {
+            dss.put(prefix + "heartbeat", Instant.now().toString());
+        }
+    }
+
+    private Set<String> getNames(List<IRun> runs) {
+        Set<String> names = new HashSet<>();
+        for (IRun run : runs) {
+            names.add(run.getName());
+        }
+        return names;
+    }
+
+    @Test
+    public void testIndexLoadsTheRunsInTheDss() throws Exception {
+        // Given...
+        MockIDynamicStatusStoreService dss = new MockIDynamicStatusStoreService();
+        addRun(dss, "U1", "queued", "group1", "alice", false);
+        addRun(dss, "U2", "running", "group1", "bob", true);
+        addRun(dss, "U3", "allocated", "group2", "alice", false);
+        addRun(dss, "U4", "finished", "group2", "bob", false);
+
+        RunIndex index = new RunIndex(dss, new MockTimeService(Instant.now()));
+
+        // When...
+        index.start();
+
+        // Then...
+        assertThat(getNames(index.getAllRuns())).containsExactlyInAnyOrder("U1", "U2", "U3", "U4");
+        assertThat(getNames(index.getRunsByStatus("queued"))).containsExactly("U1");
+        assertThat(getNames(index.getRunsByGroup("group2"))).containsExactlyInAnyOrder("U3", "U4");
+        assertThat(getNames(index.getRunsByRequestor("alice"))).containsExactlyInAnyOrder("U1", "U3");
+        assertThat(getNames(index.getActiveRuns())).containsExactlyInAnyOrder("U2", "U3");
+        assertThat(index.getActiveRunNames()).containsExactlyInAnyOrder("U2", "U3");
+        assertThat(index.getRunsByStatus("unknown")).isEmpty();
+
+        IRun run = index.getRunsByStatus("queued").get(0);
+        assertThat(run.getTestBundleName()).isEqualTo("mybundle");
+        assertThat(run.getTestClassName()).isEqualTo("mytest");
+        assertThat(run.getQueued()).isEqualTo(Instant.parse("2024-01-01T00:00:00Z"));
+    }
+
+    @Test
+    public void testIndexFollowsChangesToTheRuns() throws Exception {
+        // Given...
+        MockIDynamicStatusStoreService dss = new MockIDynamicStatusStoreService();
+        addRun(dss, "U1", "queued", "group1", "alice", false);
+        addRun(dss, "U2", "queued", "group1", "alice", false);
+
+        RunIndex index = new RunIndex(dss, new MockTimeService(Instant.now()));
+        index.start();
+
+        // When...
+        dss.put("run.U1.status", "allocated");
+        dss.put("run.U1.heartbeat", Instant.now().toString());
+        dss.deletePrefix("run.U2.");
+        addRun(dss, "U3", "queued", "group2", "bob", false);
+
+        // Then...
+        assertThat(getNames(index.getRunsByStatus("queued"))).containsExactly("U3");
+        assertThat(getNames(index.getRunsByStatus("allocated"))).containsExactly("U1");
+        assertThat(getNames(index.getRunsByGroup("group1"))).containsExactly("U1");
+        assertThat(getNames(index.getRunsByRequestor("bob"))).containsExactly("U3");
+        assertThat(index.getActiveRunNames()).containsExactly("U1");
+        assertThat(getNames(index.getAllRuns())).containsExactlyInAnyOrder("U1", "U3");
+        assertThat(index.getRunsByStatus("allocated").get(0).getHeartbeat()).isNotNull();
+
+        // When...
+        dss.delete("run.U1.heartbeat");
+        dss.put("run.U1.status", "finished");
+
+        // Then...
+        assertThat(index.getActiveRunNames()).isEmpty();
+        assertThat(index.getRunsByStatus("finished").get(0).getHeartbeat()).isNull();
+    }
+
+    @Test
+    public void testChangesMadeWhileLoadingAreNotLost() throws Exception {
+        // Given...
+        CountingDss dss = new CountingDss();
+        addRun(dss, "U1", "queued", "group1", "alice", false);
+        addRun(dss, "U2", "queued", "group1", "alice", false);
+
+        dss.duringPrefixRead = () -> {
+            try {
+                dss.put("run.U1.status", "allocated");
+                dss.deletePrefix("run.U2.");
+                addRun(dss, "U3", "queued", "group1", "alice", false);
+            } catch (DynamicStatusStoreException e) {
+                throw new AssertionError(e);
+            }
+        };
+
+        RunIndex index = new RunIndex(dss, new MockTimeService(Instant.now()));
+
+        // When...
+        index.start();
+
+        // Then...
+        assertThat(getNames(index.getRunsByStatus("queued"))).containsExactly("U3");
+        assertThat(getNames(index.getRunsByStatus("allocated"))).containsExactly("U1");
+        assertThat(getNames(index.getAllRuns())).containsExactlyInAnyOrder("U1", "U3");
+    }
+
+    @Test
+    public void testIndexIsReloadedPeriodically() throws Exception {
+        // Given...
+        CountingDss dss = new CountingDss();
+        addRun(dss, "U1", "queued", "group1", "alice", false);
+
+        MockTimeService timeService = new MockTimeService(Instant.now());
+        RunIndex index = new RunIndex(dss, timeService);
+        index.start();
+
+        // *** A change the watch did not see
+        dss.data.put("run.U1.status", "finished");
+        dss.sortedData.put("run.U1.status", "finished");
+
+        // When...
+        List<IRun> queuedBeforeResync = index.getRunsByStatus("queued");
+        timeService.sleepMillis(RunIndex.RESYNC_INTERVAL_MILLIS);
+        List<IRun> queuedAfterResync = index.getRunsByStatus("queued");
+
+        // Then...
+        assertThat(getNames(queuedBeforeResync)).containsExactly("U1");
+        assertThat(queuedAfterResync).isEmpty();
+        assertThat(dss.prefixReads).isEqualTo(2);
+    }
+
+    @Test
+    public void testShutdownStopsWatchingTheDss() throws Exception {
+        // Given...
+        MockIDynamicStatusStoreService dss = new MockIDynamicStatusStoreService();
+        RunIndex index = new RunIndex(dss, new MockTimeService(Instant.now()));
+        index.start();
+        assertThat(dss.getWatchCount()).isEqualTo(1);
+
+        // When...
+        index.shutdown();
+
+        // Then...
+        assertThat(dss.getWatchCount()).isZero();
+    }
+
+    @Test
+    public void testFrameworkRunsReadsTheDssWhenItCannotBeWatched() throws Exception {
+        // Given...
+        MockDSSStore mockDss = new MockDSSStore(new HashMap<>());
+        MockCPSStore mockCps = new MockCPSStore(new HashMap<>());
+        FrameworkRuns frameworkRuns = new FrameworkRuns(new MockFramework(mockCps, mockDss));
+
+        // When...
+        List<IRun> queuedRuns = frameworkRuns.getQueuedRuns();
+        Set<String> activeRunNames = frameworkRuns.getActiveRunNames();
+
+        // Then...
+        assertThat(queuedRuns).isEmpty();
+        assertThat(activeRunNames).isEmpty();
+    }
+
+    @Test
+    public void testIndexedLookupsOf10kActiveRunsDoNotReadTheDss() throws Exception {
+        // Given...
+        int runCount = 10000;
+        CountingDss dss = new CountingDss();
+        for (int i = 0; i < runCount; i++) {
+            boolean queued = i % 100 == 0;
+            addRun(dss, "U" + i, queued ? "queued" : "running", "group" + (i % 50), "requestor" + (i % 20), !queued);
+        }
+
+        RunIndex index = new RunIndex(dss, new MockTimeService(Instant.now()));
+        index.start();
+        int prefixReadsAfterLoad = dss.prefixReads;
+
+        // When...
+        List<IRun> indexedQueuedRuns = index.getRunsByStatus("queued");
+        int activeRunCount = index.getActiveRunNames().size();
+        int group0RunCount = index.getRunsByGroup("group0").size();
+        int prefixReadsByLookups = dss.prefixReads - prefixReadsAfterLoad;
+
+        // Then...
+        assertThat(prefixReadsByLookups).isZero();
+        assertThat(activeRunCount).isEqualTo(runCount - runCount / 100);
+        assertThat(group0RunCount).isEqualTo(runCount / 50);
+        // *** The same lookup as a scan of every run, as FrameworkRuns does without the index
+        assertThat(getNames(indexedQueuedRuns)).isEqualTo(getNames(scanForQueuedRuns(dss))).hasSize(runCount / 100);
+    }
+
+    private List<IRun> scanForQueuedRuns(MockIDynamicStatusStoreService dss) throws DynamicStatusStoreException {
+        Set<String> runNames = new HashSet<>();
+        for (String key : dss.getPrefix("run.").keySet()) {
+            runNames.add(key.split("\\.")[1]);
+        }
+
+        List<IRun> queuedRuns = new ArrayList<>();
+        for (String runName : runNames) {
+            IRun run = new RunImpl(runName, dss);
+            if ("queued".equals(run.getStatus())) {
+                queuedRuns.add(run);
+            }
+        }
+        return queuedRuns;
+    }
+
+    @Test
+    public void testFrameworkRunsFindsARunByNameBeforeTheIndexHasSeenIt() throws Exception {
+        // Given...
+        MockIDynamicStatusStoreService dss = new MockIDynamicStatusStoreService();
+        addRun(dss, "U1", "queued", "group1", "alice", false);
+
+        MockFramework framework = new MockFramework(new MockCPSStore(new HashMap<>()), null) {
+            @Override
+            public @NotNull IDynamicStatusStoreService getDynamicStatusStoreService(@NotNull String namespace) {
+                return dss;
+            }
+        };
+        MockTimeService timeService = new MockTimeService(Instant.now());
+        FrameworkRuns frameworkRuns = new FrameworkRuns(framework, timeService);
+        assertThat(getNames(frameworkRuns.getAllRuns())).containsExactly("U1");
+
+        // *** A run submitted by another process, whose watch event has not arrived
+        dss.data.put("run.U2.status", "queued");
+        dss.data.put("run.U2.test", "mybundle/mytest");
+
+        // When...
+        IRun run = frameworkRuns.getRun("U2");
+        List<IRun> runsBeforeResync = frameworkRuns.getAllRuns();
+        timeService.sleepMillis(RunIndex.RESYNC_INTERVAL_MILLIS);
+        List<IRun> runsAfterResync = frameworkRuns.getAllRuns();
+
+        // Then...
+        assertThat(run).isNotNull();
+        assertThat(run.getStatus()).isEqualTo("queued");
+        assertThat(getNames(runsBeforeResync)).containsExactly("U1");
+        assertThat(getNames(runsAfterResync)).containsExactlyInAnyOrder("U1", "U2");
+
+        frameworkRuns.shutdown();
+    }
+}
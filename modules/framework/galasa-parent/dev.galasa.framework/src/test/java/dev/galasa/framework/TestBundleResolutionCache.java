@@ -0,0 +1,124 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestBundleResolutionCache {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private Path createCacheFile() throws Exception {
+        return tempFolder.newFolder("cache").toPath().resolve("0123456789abcdef.properties");
+    }
+
+    @Test
+    public void testResolvedBundlesAreAvailableToALaterRun() throws Exception {
+        // Given...
+        Path cacheFile = createCacheFile();
+        BundleResolutionCache cache = new BundleResolutionCache(cacheFile);
+        List<String> locations = List.of("mvn:dev.galasa/dev.galasa.wrapping.gson/2.10.1/jar", "mvn:dev.galasa/dev.galasa.zos.manager/0.1.0/jar");
+
+        // When...
+        cache.putBundleLocations("dev.galasa.zos.manager", locations);
+        BundleResolutionCache laterCache = new BundleResolutionCache(cacheFile);
+
+        // Then...
+        assertThat(laterCache.getBundleLocations("dev.galasa.zos.manager")).containsExactlyElementsOf(locations);
+        assertThat(laterCache.getBundleLocations("dev.galasa.core.manager")).isNull();
+    }
+
+    @Test
+    public void testResolutionsWrittenByTheLauncherAreRead() throws Exception {
+        // Given...
+        Path cacheFile = createCacheFile();
+        Properties launcherEntries = new Properties();
+        launcherEntries.setProperty("bundle.dev.galasa.zos.manager", "mvn:dev.galasa/dev.galasa.wrapping.gson/2.10.1/jar\nmvn:dev.galasa/dev.galasa.zos.manager/0.1.0/jar");
+        launcherEntries.setProperty("services.indexed", "true");
+        try (OutputStream os = Files.newOutputStream(cacheFile)) {
+            launcherEntries.store(os, null);
+        }
+
+        // When...
+        BundleResolutionCache cache = new BundleResolutionCache(cacheFile);
+
+        // Then...
+        assertThat(cache.getBundleLocations("dev.galasa.zos.manager"))
+            .containsExactly("mvn:dev.galasa/dev.galasa.wrapping.gson/2.10.1/jar", "mvn:dev.galasa/dev.galasa.zos.manager/0.1.0/jar");
+    }
+
+    @Test
+    public void testNoCacheFileMeansNoResolutions() throws Exception {
+        // Given...
+        Path cacheFile = createCacheFile();
+
+        // When...
+        BundleResolutionCache cache = new BundleResolutionCache(cacheFile);
+
+        // Then...
+        assertThat(cache.getBundleLocations("dev.galasa.zos.manager")).isNull();
+        assertThat(cache.getGherkinManagers()).isNull();
+        assertThat(cacheFile).doesNotExist();
+    }
+
+    @Test
+    public void testGherkinManagersAreOnlySearchedForOnce() throws Exception {
+        // Given...
+        Path cacheFile = createCacheFile();
+        BundleResolutionCache cache = new BundleResolutionCache(cacheFile);
+        assertThat(cache.getGherkinManagers()).isNull();
+
+        // When...
+        cache.putGherkinManagers(Set.of("dev.galasa.core.manager", "dev.galasa.docker.manager"));
+        BundleResolutionCache laterCache = new BundleResolutionCache(cacheFile);
+
+        // Then...
+        assertThat(laterCache.getGherkinManagers()).containsExactly("dev.galasa.core.manager", "dev.galasa.docker.manager");
+    }
+
+    @Test
+    public void testNoGherkinManagersIsRemembered() throws Exception {
+        // Given...
+        Path cacheFile = createCacheFile();
+        BundleResolutionCache cache = new BundleResolutionCache(cacheFile);
+
+        // When...
+        cache.putGherkinManagers(Set.of());
+
+        // Then...
+        assertThat(new BundleResolutionCache(cacheFile).getGherkinManagers()).isEmpty();
+    }
+
+    @Test
+    public void testChangesAreMergedWithEntriesWrittenByTheLauncher() throws Exception {
+        // Given...
+        Path cacheFile = createCacheFile();
+        BundleResolutionCache cache = new BundleResolutionCache(cacheFile);
+        BundleResolutionCache launcherCache = new BundleResolutionCache(cacheFile);
+
+        // When...
+        launcherCache.putBundleLocations("dev.galasa.framework", List.of("mvn:dev.galasa/dev.galasa.framework/1.0.0/jar"));
+        cache.putBundleLocations("dev.galasa.zos.manager", List.of("mvn:dev.galasa/dev.galasa.zos.manager/0.1.0/jar"));
+        cache.removeBundleLocations("dev.galasa.zos.manager");
+
+        // Then...
+        BundleResolutionCache laterCache = new BundleResolutionCache(cacheFile);
+        assertThat(laterCache.getBundleLocations("dev.galasa.framework")).containsExactly("mvn:dev.galasa/dev.galasa.framework/1.0.0/jar");
+        assertThat(laterCache.getBundleLocations("dev.galasa.zos.manager")).isNull();
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.constraints.NotNull;
+
+import org.junit.After;
+import org.junit.Test;
+
+import dev.galasa.ManagerException;
+import dev.galasa.framework.spi.AbstractManager;
+import dev.galasa.framework.spi.FrameworkException;
+import dev.galasa.framework.spi.IManager;
+import dev.galasa.framework.spi.teststructure.TestManagerPhase;
+
+public class TestManagerProvisioningGraph {
+
+    private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    class MockManager extends AbstractManager {
+        private final String name;
+        private final List<IManager> dependsOn = new ArrayList<>();
+        private CountDownLatch buildLatch;
+        private boolean failBuild;
+
+        MockManager(String name, IManager... dependsOn) {
+            this.name = name;
+            Collections.addAll(this.dependsOn, dependsOn);
+        }
+
+        @Override
+        public boolean areYouProvisionalDependentOn(@NotNull IManager otherManager) {
+            return dependsOn.contains(otherManager);
+        }
+
+        @Override
+        public void provisionBuild() throws ManagerException {
+            calls.add("build " + name);
+            if (buildLatch != null) {
+                // Wait for the other managers that should be building at the same time
+                buildLatch.countDown();
+                try {
+                    if (!buildLatch.await(10, TimeUnit.SECONDS)) {
+                        throw new ManagerException(name + " was not built at the same time as the others");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failBuild) {
+                throw new ManagerException(name + " failed");
+            }
+        }
+
+        @Override
+        public void provisionDiscard() {
+            calls.add("discard " + name);
+        }
+    }
+
+    private void buildPhase(ManagerProvisioningGraph graph) throws FrameworkException {
+        graph.runPhase("build", manager -> {
+            try {
+                manager.provisionBuild();
+            } catch (ManagerException e) {
+                throw new FrameworkException("Problem in provision build for manager " + manager, e);
+            }
+        });
+    }
+
+    @Test
+    public void testIndependentManagersAreProvisionedConcurrently() throws Exception {
+        // Given...
+        CountDownLatch latch = new CountDownLatch(3);
+        MockManager zos = new MockManager("zos");
+        MockManager docker = new MockManager("docker");
+        MockManager http = new MockManager("http");
+        zos.buildLatch = latch;
+        docker.buildLatch = latch;
+        http.buildLatch = latch;
+        ManagerProvisioningGraph graph = new ManagerProvisioningGraph(List.of(zos, docker, http), executor);
+
+        // When...
+        buildPhase(graph);
+
+        // Then...
+        assertThat(calls).containsExactlyInAnyOrder("build zos", "build docker", "build http");
+        assertThat(graph.getPhases()).extracting(TestManagerPhase::getResult).containsOnly("ok");
+    }
+
+    @Test
+    public void testManagerIsProvisionedAfterManagersItDependsOn() throws Exception {
+        // Given...
+        MockManager zos = new MockManager("zos");
+        MockManager docker = new MockManager("docker");
+        MockManager batch = new MockManager("batch", zos);
+        MockManager artifact = new MockManager("artifact", batch, docker);
+        ManagerProvisioningGraph graph = new ManagerProvisioningGraph(List.of(zos, docker, batch, artifact), executor);
+
+        // When...
+        buildPhase(graph);
+
+        // Then...
+        assertThat(calls).hasSize(4);
+        assertThat(calls.indexOf("build batch")).isGreaterThan(calls.indexOf("build zos"));
+        assertThat(calls.indexOf("build artifact")).isGreaterThan(calls.indexOf("build batch"));
+        assertThat(calls.indexOf("build artifact")).isGreaterThan(calls.indexOf("build docker"));
+    }
+
+    @Test
+    public void testFailureStopsDependentManagersAndIsThrown() throws Exception {
+        // Given...
+        MockManager zos = new MockManager("zos");
+        MockManager batch = new MockManager("batch", zos);
+        zos.failBuild = true;
+        ManagerProvisioningGraph graph = new ManagerProvisioningGraph(List.of(zos, batch), executor);
+
+        // When...
+        Throwable thrown = catchThrowable(() -> buildPhase(graph));
+
+        // Then...
+        assertThat(thrown).isInstanceOf(FrameworkException.class);
+        assertThat(thrown.getCause()).hasMessage("zos failed");
+        assertThat(calls).containsExactly("build zos");
+        assertThat(graph.getPhases()).hasSize(1);
+        assertThat(graph.getPhases().get(0).getResult()).isEqualTo("failed");
+    }
+
+    @Test
+    public void testDiscardIsInReverseDependencyOrder() throws Exception {
+        // Given...
+        MockManager zos = new MockManager("zos");
+        MockManager batch = new MockManager("batch", zos);
+        MockManager artifact = new MockManager("artifact", batch);
+        ManagerProvisioningGraph graph = new ManagerProvisioningGraph(List.of(zos, batch, artifact), executor);
+
+        // When...
+        graph.runPhaseReversed("discard", IManager::provisionDiscard);
+
+        // Then...
+        assertThat(calls).containsExactly("discard artifact", "discard batch", "discard zos");
+    }
+
+    @Test
+    public void testWithoutAnExecutorManagersAreProvisionedInOrder() throws Exception {
+        // Given...
+        MockManager zos = new MockManager("zos");
+        MockManager docker = new MockManager("docker");
+        MockManager http = new MockManager("http");
+        ManagerProvisioningGraph graph = new ManagerProvisioningGraph(List.of(zos, docker, http), null);
+
+        // When...
+        buildPhase(graph);
+
+        // Then...
+        assertThat(calls).containsExactly("build zos", "build docker", "build http");
+        assertThat(graph.getPhases()).extracting(TestManagerPhase::getManager).hasSize(3);
+        assertThat(graph.getPhases()).extracting(TestManagerPhase::getPhase).containsOnly("build");
+    }
+}
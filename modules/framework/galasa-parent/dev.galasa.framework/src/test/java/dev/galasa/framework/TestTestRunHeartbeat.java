@@ -0,0 +1,122 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.validation.constraints.NotNull;
+
+import org.junit.Test;
+
+import dev.galasa.framework.mocks.MockDSSStore;
+import dev.galasa.framework.mocks.MockFileSystem;
+import dev.galasa.framework.mocks.MockFramework;
+import dev.galasa.framework.mocks.MockIConfigurationPropertyStoreService;
+import dev.galasa.framework.mocks.MockIResultArchiveStore;
+import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.IResultArchiveStore;
+
+public class TestTestRunHeartbeat {
+
+    class MockLeaseDss extends MockDSSStore {
+
+        public Map<String, Long> timesToLive = new HashMap<>();
+        private final boolean supportsTimeToLive;
+
+        public MockLeaseDss(Map<String, String> valueMap, boolean supportsTimeToLive) {
+            super(valueMap);
+            this.supportsTimeToLive = supportsTimeToLive;
+        }
+
+        @Override
+        public boolean putSwap(@NotNull String key, String oldValue, @NotNull String newValue, @NotNull long timeToLiveSecs)
+                throws DynamicStatusStoreException {
+            if (!supportsTimeToLive) {
+                return super.putSwap(key, oldValue, newValue, timeToLiveSecs);
+            }
+            boolean swapped = putSwap(key, oldValue, newValue);
+            if (swapped) {
+                timesToLive.put(key, timeToLiveSecs);
+            }
+            return swapped;
+        }
+    }
+
+    private MockFramework createFramework(MockLeaseDss dss) {
+        MockFramework framework = new MockFramework() {
+            @Override
+            public String getTestRunName() {
+                return "U1";
+            }
+
+            @Override
+            public @NotNull IResultArchiveStore getResultArchiveStore() {
+                return new MockIResultArchiveStore("U1", new MockFileSystem());
+            }
+        };
+        framework.setMockDss(dss);
+        return framework;
+    }
+
+    private MockIConfigurationPropertyStoreService createCps(String mode) {
+        return new MockIConfigurationPropertyStoreService() {
+            @Override
+            public String getProperty(@NotNull String prefix, @NotNull String suffix, String... infixes) {
+                if ("heartbeat".equals(prefix) && "mode".equals(suffix)) {
+                    return mode;
+                }
+                return null;
+            }
+        };
+    }
+
+    @Test
+    public void testLeaseHeartbeatIsSwappedWithATimeToLiveAndMarked() throws Exception {
+        // Given...
+        Map<String, String> dssProps = new HashMap<>();
+        MockLeaseDss dss = new MockLeaseDss(dssProps, true);
+
+        // When...
+        new TestRunHeartbeat(createFramework(dss), createCps("lease"));
+
+        // Then...
+        assertThat(dssProps).containsKey("run.U1.heartbeat");
+        assertThat(dss.timesToLive).containsEntry("run.U1.heartbeat", 90L);
+        assertThat(dssProps).containsEntry("run.U1.heartbeat.lease", "90");
+    }
+
+    @Test
+    public void testLeaseHeartbeatFallsBackToTimestampWithoutTimeToLive() throws Exception {
+        // Given...
+        Map<String, String> dssProps = new HashMap<>();
+        MockLeaseDss dss = new MockLeaseDss(dssProps, false);
+
+        // When...
+        new TestRunHeartbeat(createFramework(dss), createCps("lease"));
+
+        // Then...
+        assertThat(dssProps).containsKey("run.U1.heartbeat");
+        assertThat(dssProps).doesNotContainKey("run.U1.heartbeat.lease");
+    }
+
+    @Test
+    public void testTimestampHeartbeatIsNotMarkedAsALease() throws Exception {
+        // Given...
+        Map<String, String> dssProps = new HashMap<>();
+        MockLeaseDss dss = new MockLeaseDss(dssProps, true);
+
+        // When...
+        new TestRunHeartbeat(createFramework(dss), createCps(null));
+
+        // Then...
+        assertThat(dssProps).containsKey("run.U1.heartbeat");
+        assertThat(dss.timesToLive).isEmpty();
+        assertThat(dssProps).doesNotContainKey("run.U1.heartbeat.lease");
+    }
+}
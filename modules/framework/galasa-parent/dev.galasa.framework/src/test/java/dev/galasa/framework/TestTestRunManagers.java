@@ -0,0 +1,41 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework;
+
+import static org.assertj.core.api.Assertions.*;
+
+import javax.validation.constraints.NotNull;
+
+import org.junit.Test;
+
+import dev.galasa.framework.mocks.MockIConfigurationPropertyStoreService;
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+
+public class TestTestRunManagers {
+
+    private MockIConfigurationPropertyStoreService newCps(String parallel) {
+        return new MockIConfigurationPropertyStoreService() {
+            @Override
+            public String getProperty(@NotNull String prefix, @NotNull String suffix, String... infixes) {
+                assertThat(prefix + "." + suffix).isEqualTo("provision.parallel");
+                return parallel;
+            }
+        };
+    }
+
+    @Test
+    public void testManagersAreProvisionedOneAtATimeByDefault() throws ConfigurationPropertyStoreException {
+        assertThat(TestRunManagers.isProvisionParallel(newCps(null))).isFalse();
+        assertThat(TestRunManagers.isProvisionParallel(newCps("  "))).isFalse();
+    }
+
+    @Test
+    public void testManagersAreProvisionedInParallelWhenAskedFor() throws ConfigurationPropertyStoreException {
+        assertThat(TestRunManagers.isProvisionParallel(newCps("true"))).isTrue();
+        assertThat(TestRunManagers.isProvisionParallel(newCps("TRUE"))).isTrue();
+        assertThat(TestRunManagers.isProvisionParallel(newCps("false"))).isFalse();
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.dss;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dev.galasa.framework.mocks.MockFrameworkInitialisation;
+import dev.galasa.framework.mocks.MockTimeService;
+import dev.galasa.framework.spi.DssAdd;
+import dev.galasa.framework.spi.DssDelete;
+import dev.galasa.framework.spi.DssDeletePrefix;
+import dev.galasa.framework.spi.DssSwap;
+import dev.galasa.framework.spi.DssUpdate;
+import dev.galasa.framework.spi.DynamicStatusStoreMatchException;
+import dev.galasa.framework.spi.IDynamicStatusStore;
+import dev.galasa.framework.spi.IDynamicStatusStoreWatcher;
+import dev.galasa.framework.spi.IDynamicStatusStoreWatcher.Event;
+
+public class ShardedLogDynamicStatusStoreTest {
+
+    // The background maintenance never runs during a test, the tests call maintain() themselves
+    private static final long            NO_MAINTENANCE_MS = TimeUnit.HOURS.toMillis(1);
+
+    private Path                         directory;
+    private MockTimeService              timeService;
+    private ShardedLogDynamicStatusStore dss;
+
+    @Before
+    public void setup() throws Exception {
+        this.directory = Files.createTempDirectory("galasa_dss_log_junit");
+        this.timeService = new MockTimeService(Instant.now());
+        this.dss = new ShardedLogDynamicStatusStore(this.directory, 4, this.timeService, NO_MAINTENANCE_MS);
+    }
+
+    @After
+    public void teardown() throws Exception {
+        this.dss.shutdown();
+        FileUtils.deleteDirectory(this.directory.toFile());
+    }
+
+    @Test
+    public void testSimpleMethods() throws Exception {
+        this.dss.put("dss.framework.run.U1.status", "queued");
+        assertThat(this.dss.get("dss.framework.run.U1.status")).isEqualTo("queued");
+
+        this.dss.put("dss.framework.run.U1.status", "running");
+        assertThat(this.dss.get("dss.framework.run.U1.status")).isEqualTo("running");
+
+        this.dss.delete("dss.framework.run.U1.status");
+        assertThat(this.dss.get("dss.framework.run.U1.status")).isNull();
+    }
+
+    @Test
+    public void testPrefixMethodsAcrossShards() throws Exception {
+        HashMap<String, String> values = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            values.put("dss.framework.run.U" + i + ".status", "running");
+            values.put("dss.framework.run.U" + i + ".heartbeat", "now");
+        }
+        values.put("dss.zos.image.MV2A.slot.SLOT1", "U1");
+        this.dss.put(values);
+
+        assertThat(this.dss.getPrefix("dss.framework.run.")).hasSize(40);
+        assertThat(this.dss.getPrefix("dss.framework.run.U1.")).containsOnlyKeys(
+                "dss.framework.run.U1.status", "dss.framework.run.U1.heartbeat");
+        assertThat(this.dss.getPrefix("dss.framework.run.U1")).hasSize(22);
+
+        this.dss.deletePrefix("dss.framework.run.U1.");
+        assertThat(this.dss.getPrefix("dss.framework.run.")).hasSize(38);
+
+        this.dss.delete(Set.of("dss.framework.run.U2.status", "dss.zos.image.MV2A.slot.SLOT1"));
+        assertThat(this.dss.getPrefix("dss.framework.run.U2.")).containsOnlyKeys("dss.framework.run.U2.heartbeat");
+
+        this.dss.deletePrefix("dss.");
+        assertThat(this.dss.getPrefix("")).isEmpty();
+    }
+
+    @Test
+    public void testPutSwap() throws Exception {
+        assertThat(this.dss.putSwap("dss.framework.run.U1.status", null, "queued")).isTrue();
+        assertThat(this.dss.putSwap("dss.framework.run.U1.status", null, "queued")).isFalse();
+        assertThat(this.dss.putSwap("dss.framework.run.U1.status", "running", "finished")).isFalse();
+        assertThat(this.dss.putSwap("dss.framework.run.U1.status", "queued", "running",
+                Map.of("dss.framework.run.U1.heartbeat", "now", "dss.framework.run.U2.status", "queued"))).isTrue();
+
+        assertThat(this.dss.get("dss.framework.run.U1.status")).isEqualTo("running");
+        assertThat(this.dss.get("dss.framework.run.U1.heartbeat")).isEqualTo("now");
+        assertThat(this.dss.get("dss.framework.run.U2.status")).isEqualTo("queued");
+    }
+
+    @Test
+    public void testPerformActions() throws Exception {
+        this.dss.put("dss.framework.run.U1.status", "queued");
+        this.dss.put("dss.framework.run.U2.status", "queued");
+        this.dss.put("dss.framework.run.U3.a", "1");
+        this.dss.put("dss.framework.run.U3.b", "2");
+
+        this.dss.performActions(
+                new DssAdd("dss.framework.run.U4.status", "queued"),
+                new DssUpdate("dss.framework.run.U1.status", "running"),
+                new DssSwap("dss.framework.run.U2.status", "queued", "allocated"),
+                new DssDelete("dss.framework.run.U4.status", "queued"),
+                new DssDeletePrefix("dss.framework.run.U3."));
+
+        assertThat(this.dss.getPrefix("dss.framework.run.")).containsOnly(
+                Map.entry("dss.framework.run.U1.status", "running"),
+                Map.entry("dss.framework.run.U2.status", "allocated"));
+    }
+
+    @Test
+    public void testPerformActionsMismatchChangesNothing() throws Exception {
+        this.dss.put("dss.framework.run.U1.status", "queued");
+
+        try {
+            this.dss.performActions(
+                    new DssUpdate("dss.framework.run.U2.status", "running"),
+                    new DssSwap("dss.framework.run.U1.status", "running", "finished"));
+            fail("Expected the swap to fail");
+        } catch (DynamicStatusStoreMatchException e) {
+            assertThat(e).hasMessageContaining("does not match required value 'running'");
+        }
+
+        assertThat(this.dss.getPrefix("dss.framework.run.")).containsOnly(
+                Map.entry("dss.framework.run.U1.status", "queued"));
+    }
+
+    @Test
+    public void testEntriesExpire() throws Exception {
+        this.dss.put("dss.framework.run.U1.heartbeat", "now", 1);
+        this.dss.put("dss.framework.run.U1.status", "running");
+        assertThat(this.dss.get("dss.framework.run.U1.heartbeat")).isEqualTo("now");
+
+        this.timeService.sleepMillis(1000);
+
+        assertThat(this.dss.get("dss.framework.run.U1.heartbeat")).isNull();
+        assertThat(this.dss.getPrefix("dss.framework.run.U1.")).containsOnlyKeys("dss.framework.run.U1.status");
+
+        // *** An expired key can be added again
+        assertThat(this.dss.putSwap("dss.framework.run.U1.heartbeat", null, "later")).isTrue();
+    }
+
+    @Test
+    public void testWatchersAreToldOfChangesAndExpiry() throws Exception {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        IDynamicStatusStoreWatcher watcher = (key, event, oldValue, newValue) ->
+            events.add(event + " " + key + " " + oldValue + " " + newValue);
+
+        this.dss.watch(watcher, "dss.framework.run.U1.status");
+        this.dss.watchPrefix(watcher, "dss.framework.run.U2.");
+
+        this.dss.put("dss.framework.run.U1.status", "queued");
+        this.dss.put("dss.framework.run.U1.status", "queued");
+        this.dss.put("dss.framework.run.U1.status", "running");
+        this.dss.put("dss.framework.run.U3.status", "ignored");
+        this.dss.delete("dss.framework.run.U1.status");
+        this.dss.put("dss.framework.run.U2.lease", "held", 1);
+
+        this.timeService.sleepMillis(1000);
+        this.dss.maintain();
+
+        assertThat(events).containsExactly(
+                Event.NEW + " dss.framework.run.U1.status null queued",
+                Event.MODIFIED + " dss.framework.run.U1.status queued running",
+                Event.DELETE + " dss.framework.run.U1.status running null",
+                Event.NEW + " dss.framework.run.U2.lease null held",
+                Event.DELETE + " dss.framework.run.U2.lease held null");
+    }
+
+    @Test
+    public void testSecondStoreOnTheSameDirectorySeesChanges() throws Exception {
+        this.dss.put("dss.framework.run.U1.status", "queued");
+
+        ShardedLogDynamicStatusStore other = new ShardedLogDynamicStatusStore(this.directory, 4, this.timeService, NO_MAINTENANCE_MS);
+        try {
+            assertThat(other.get("dss.framework.run.U1.status")).isEqualTo("queued");
+
+            assertThat(other.putSwap("dss.framework.run.U1.status", "queued", "running")).isTrue();
+            assertThat(this.dss.get("dss.framework.run.U1.status")).isEqualTo("running");
+            assertThat(this.dss.putSwap("dss.framework.run.U1.status", "queued", "allocated")).isFalse();
+        } finally {
+            other.shutdown();
+        }
+    }
+
+    @Test
+    public void testCompactionKeepsTheLiveEntries() throws Exception {
+        Path shardDirectory = Files.createDirectories(this.directory.resolve("compact"));
+        ShardedLogDssShard shard = new ShardedLogDssShard(0, shardDirectory, this.timeService);
+
+        List<ShardedLogDssShard.Change> changes = new ArrayList<>();
+        shard.lockForUpdate();
+        try {
+            for (int i = 0; i < 1000; i++) {
+                shard.append(Map.of("key" + (i % 10), new ShardedLogDssShard.Entry("value" + i, 0)), changes);
+            }
+            assertThat(shard.needsCompaction(1024)).isTrue();
+
+            long before = Files.size(shardDirectory.resolve("shard-0.log"));
+            shard.compact(System.currentTimeMillis());
+            assertThat(Files.size(shardDirectory.resolve("shard-0.log"))).isLessThan(before / 10);
+        } finally {
+            shard.unlockForUpdate();
+            shard.close();
+        }
+
+        ShardedLogDssShard reopened = new ShardedLogDssShard(0, shardDirectory, this.timeService);
+        try {
+            for (int i = 0; i < 10; i++) {
+                assertThat(reopened.get("key" + i, System.currentTimeMillis()).value).isEqualTo("value" + (990 + i));
+            }
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    public void testRegistrationFromTheDssUri() throws Exception {
+        Path registered = this.directory.resolve("registered");
+        URI uri = new URI("filelog:" + registered.toUri() + "?shards=2");
+
+        List<IDynamicStatusStore> stores = new ArrayList<>();
+        new ShardedLogDynamicStatusStoreRegistration().initialise(new MockFrameworkInitialisation(null, uri, null) {
+            @Override
+            public void registerDynamicStatusStore(IDynamicStatusStore dynamicStatusStore) {
+                stores.add(dynamicStatusStore);
+            }
+        });
+
+        assertThat(stores).hasSize(1);
+        stores.get(0).shutdown();
+        assertThat(registered.resolve("shard-1.lock")).exists();
+        assertThat(registered.resolve("shard-2.lock")).doesNotExist();
+        assertThat(ShardedLogDynamicStatusStoreRegistration.isFileLogUri(registered.toUri())).isFalse();
+    }
+
+    /**
+     * The same concurrent workload on the FPF and sharded stores, each thread
+     * moving its own runs through their states, as the runs of a local
+     * ecosystem do. Both stores must end up holding the same values.
+     */
+    @Test
+    public void testConcurrentWorkloadMatchesTheFpfStore() throws Exception {
+        Path fpfFile = Files.createTempFile(this.directory, "fpf", ".properties");
+        FpfDynamicStatusStore fpf = new FpfDynamicStatusStore(fpfFile.toUri());
+        try {
+            runWorkload(fpf);
+            runWorkload(this.dss);
+
+            assertThat(this.dss.getPrefix("dss.")).isEqualTo(fpf.getPrefix("dss.")).hasSize(8 * 20 * 2);
+        } finally {
+            fpf.shutdown();
+        }
+    }
+
+    private void runWorkload(IDynamicStatusStore store) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int r = 0; r < 20; r++) {
+                        String run = "dss.framework.run.T" + thread + "R" + r + ".";
+                        store.putSwap(run + "status", null, "queued");
+                        store.putSwap(run + "status", "queued", "running", Map.of(run + "heartbeat", "1"));
+                        store.get(run + "status");
+                        store.put(run + "heartbeat", "2");
+                        store.putSwap(run + "status", "running", "finished");
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.ras.directory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
+import dev.galasa.framework.spi.IFramework;
+
+public class DirectoryRASLogWriterTest {
+
+    private Path rasDirectory;
+    private Path runLog;
+
+    @Before
+    public void before() throws IOException {
+        this.rasDirectory = Files.createTempDirectory("galasa_junit_ras_log_");
+        this.runLog = Files.createFile(this.rasDirectory.resolve("run.log"));
+    }
+
+    @After
+    public void after() throws IOException {
+        if (this.rasDirectory != null && Files.exists(this.rasDirectory)) {
+            FileUtils.deleteDirectory(this.rasDirectory.toFile());
+        }
+    }
+
+    @Test
+    public void testFlushWritesAllPendingLines() throws Exception {
+        DirectoryRASLogWriter writer = new DirectoryRASLogWriter(this.runLog, 100, 50, 60000);
+        try {
+            writer.append("line 1\n");
+            writer.append("line 2\n");
+
+            writer.flush();
+
+            assertThat(Files.readAllLines(this.runLog)).containsExactly("line 1", "line 2");
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test
+    public void testLinesAreWrittenInOrderWhenTheQueueOverflows() throws Exception {
+        DirectoryRASLogWriter writer = new DirectoryRASLogWriter(this.runLog, 8, 4, 60000);
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            writer.append("line " + i + "\n");
+            expected.add("line " + i);
+        }
+        writer.close();
+
+        assertThat(Files.readAllLines(this.runLog)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void testBackgroundWriterWritesWithoutAFlush() throws Exception {
+        DirectoryRASLogWriter writer = new DirectoryRASLogWriter(this.runLog, 100, 50, 10);
+        try {
+            writer.append("line 1\n");
+
+            long timeout = System.currentTimeMillis() + 10000;
+            while (Files.size(this.runLog) == 0 && System.currentTimeMillis() < timeout) {
+                Thread.sleep(10);
+            }
+
+            assertThat(Files.readAllLines(this.runLog)).containsExactly("line 1");
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test
+    public void testAppendAfterCloseFails() throws Exception {
+        DirectoryRASLogWriter writer = new DirectoryRASLogWriter(this.runLog, 100, 50, 60000);
+        writer.close();
+
+        try {
+            writer.append("too late\n");
+            fail("Expected the append to fail");
+        } catch (IOException e) {
+            assertThat(e).hasMessageContaining("closed");
+        }
+    }
+
+    @Test
+    public void testRasUsesTheBufferedWriterWhenConfigured() throws Exception {
+        IFramework framework = mock(IFramework.class);
+        IConfigurationPropertyStoreService cps = mock(IConfigurationPropertyStoreService.class);
+        when(framework.getTestRunName()).thenReturn("BUFF1");
+        when(framework.getConfigurationPropertyService("framework")).thenReturn(cps);
+        when(cps.getProperty(eq("resultarchive.store.local"), anyString())).thenReturn(null);
+        when(cps.getProperty("resultarchive.store.local", "log.buffered")).thenReturn("true");
+        when(cps.getProperty("resultarchive.store.local", "log.flush.interval.ms")).thenReturn("60000");
+
+        DirectoryResultArchiveStoreService ras = new DirectoryResultArchiveStoreService(framework, this.rasDirectory.toUri());
+        Path bufferedRunLog = this.rasDirectory.resolve("BUFF1").resolve("run.log");
+
+        ras.writeLog("message 1");
+        ras.writeLog("message 2\n");
+        assertThat(Files.readAllLines(bufferedRunLog)).isEmpty();
+
+        ras.flush();
+        assertThat(Files.readAllLines(bufferedRunLog)).containsExactly("message 1", "message 2");
+
+        ras.writeLog("message 3");
+        ras.shutdown();
+        assertThat(Files.readAllLines(bufferedRunLog)).containsExactly("message 1", "message 2", "message 3");
+    }
+
+    @Test
+    public void testLinesFromAFailedWriteAreWrittenOnTheNextAttempt() throws Exception {
+        // Given...
+        FailingFileChannel channel = new FailingFileChannel(FileChannel.open(this.runLog, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+        DirectoryRASLogWriter writer = new DirectoryRASLogWriter(channel, 100, 50, 60000);
+        try {
+            writer.append("line 1\n");
+            writer.append("line 2\n");
+            channel.failWrites = true;
+
+            // When...
+            try {
+                writer.flush();
+                fail("The flush should have failed");
+            } catch (IOException e) {
+                assertThat(e).hasMessage("Disk full");
+            }
+            channel.failWrites = false;
+            writer.append("line 3\n");
+            writer.flush();
+
+            // Then...
+            assertThat(Files.readAllLines(this.runLog)).containsExactly("line 1", "line 2", "line 3");
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * A file channel that can be made to fail its writes
+     */
+    private static class FailingFileChannel extends FileChannel {
+
+        private final FileChannel delegate;
+        private volatile boolean  failWrites;
+
+        FailingFileChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (this.failWrites) {
+                throw new IOException("Disk full");
+            }
+            return this.delegate.write(src);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return this.delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return this.delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            return this.delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            this.delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return this.delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            this.delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            this.delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return this.delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            this.delegate.close();
+        }
+    }
+}
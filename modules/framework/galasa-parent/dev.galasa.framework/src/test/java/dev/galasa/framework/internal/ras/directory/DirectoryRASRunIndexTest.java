@@ -0,0 +1,202 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.ras.directory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dev.galasa.framework.spi.IFramework;
+import dev.galasa.framework.spi.IRunResult;
+import dev.galasa.framework.spi.ResultArchiveStoreException;
+import dev.galasa.framework.spi.ras.RasRunResultPage;
+import dev.galasa.framework.spi.ras.RasSearchCriteriaRequestor;
+import dev.galasa.framework.spi.ras.RasSortField;
+import dev.galasa.framework.spi.teststructure.TestStructure;
+import dev.galasa.framework.spi.utils.GalasaGson;
+
+public class DirectoryRASRunIndexTest {
+
+    private Path rasDirectory;
+
+    @Before
+    public void before() throws IOException {
+        this.rasDirectory = Files.createTempDirectory("galasa_junit_ras_index_");
+    }
+
+    @After
+    public void after() throws IOException {
+        if (this.rasDirectory != null && Files.exists(this.rasDirectory)) {
+            FileUtils.deleteDirectory(this.rasDirectory.toFile());
+        }
+    }
+
+    private void writeRun(String runName, String requestor, Instant queued) throws ResultArchiveStoreException {
+        IFramework framework = mock(IFramework.class);
+        when(framework.getTestRunName()).thenReturn(runName);
+
+        DirectoryResultArchiveStoreService ras = new DirectoryResultArchiveStoreService(framework, this.rasDirectory.toUri());
+
+        TestStructure testStructure = new TestStructure();
+        testStructure.setRunName(runName);
+        testStructure.setRequestor(requestor);
+        testStructure.setTestName("MyTest");
+        testStructure.setBundle("my.bundle");
+        testStructure.setQueued(queued);
+        testStructure.setResult("Passed");
+        ras.updateTestStructure(testStructure);
+    }
+
+    private DirectoryRASDirectoryService getDirectoryService() {
+        return new DirectoryRASDirectoryService(this.rasDirectory, new GalasaGson());
+    }
+
+    private List<String> getRunNames(List<IRunResult> runs) throws ResultArchiveStoreException {
+        List<String> runNames = new ArrayList<>();
+        for (IRunResult run : runs) {
+            runNames.add(run.getTestStructure().getRunName());
+        }
+        return runNames;
+    }
+
+    @Test
+    public void testRecordedRunsAreReturnedFromTheIndex() throws Exception {
+        Instant now = Instant.now();
+        writeRun("U1", "alice", now.minusSeconds(30));
+        writeRun("U2", "bob", now.minusSeconds(20));
+        writeRun("U3", "alice", now.minusSeconds(10));
+
+        assertThat(Files.exists(this.rasDirectory.resolve(DirectoryRASRunIndex.INDEX_FILE_NAME))).isTrue();
+
+        DirectoryRASDirectoryService directoryService = getDirectoryService();
+
+        assertThat(getRunNames(directoryService.getRuns())).containsExactlyInAnyOrder("U1", "U2", "U3");
+        assertThat(getRunNames(directoryService.getRuns(new RasSearchCriteriaRequestor("alice")))).containsExactlyInAnyOrder("U1", "U3");
+        assertThat(directoryService.getRequestors()).containsExactlyInAnyOrder("alice", "bob");
+        assertThat(directoryService.getResultNames()).containsExactly("Passed");
+        assertThat(directoryService.getTests()).hasSize(1);
+    }
+
+    @Test
+    public void testRunsPageUsesCursorsToWalkThroughAllRuns() throws Exception {
+        Instant now = Instant.now();
+        for (int i = 1; i <= 5; i++) {
+            writeRun("U" + i, "alice", now.plusSeconds(i));
+        }
+
+        DirectoryRASDirectoryService directoryService = getDirectoryService();
+        RasSortField sort = new RasSortField("queued", "desc");
+
+        RasRunResultPage page = directoryService.getRunsPage(2, sort, null);
+        assertThat(getRunNames(page.getRuns())).containsExactly("U5", "U4");
+        assertThat(page.getNextCursor()).isNotNull();
+
+        page = directoryService.getRunsPage(2, sort, page.getNextCursor());
+        assertThat(getRunNames(page.getRuns())).containsExactly("U3", "U2");
+        assertThat(page.getNextCursor()).isNotNull();
+
+        page = directoryService.getRunsPage(2, sort, page.getNextCursor());
+        assertThat(getRunNames(page.getRuns())).containsExactly("U1");
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void testRunsAddedAndRemovedOutsideTheIndexAreReconciled() throws Exception {
+        writeRun("U1", "alice", Instant.now());
+
+        DirectoryRASDirectoryService directoryService = getDirectoryService();
+        assertThat(getRunNames(directoryService.getRuns())).containsExactly("U1");
+
+        // Copy a run in by hand, without going through the RAS service
+        TestStructure copied = new TestStructure();
+        copied.setRunName("C1");
+        copied.setRequestor("carol");
+        Path copiedRun = Files.createDirectory(this.rasDirectory.resolve("C1"));
+        Files.write(copiedRun.resolve("structure.json"), new GalasaGson().toJson(copied).getBytes(StandardCharsets.UTF_8));
+        FileUtils.deleteDirectory(this.rasDirectory.resolve("U1").toFile());
+        bumpModifiedTime();
+
+        assertThat(getRunNames(directoryService.getRuns())).containsExactly("C1");
+    }
+
+    @Test
+    public void testIndexIsRebuiltFromTheRunDirectoriesIfMissing() throws Exception {
+        writeRun("U1", "alice", Instant.now());
+        writeRun("U2", "bob", Instant.now());
+
+        Files.delete(this.rasDirectory.resolve(DirectoryRASRunIndex.INDEX_FILE_NAME));
+
+        // A fresh index, as a new API server would have
+        DirectoryRASRunIndex index = new DirectoryRASRunIndex(this.rasDirectory);
+        assertThat(index.getEntries()).extracting(DirectoryRASRunIndex.IndexEntry::getRunDirectoryName).containsExactlyInAnyOrder("U1", "U2");
+        assertThat(Files.exists(this.rasDirectory.resolve(DirectoryRASRunIndex.INDEX_FILE_NAME))).isTrue();
+    }
+
+    @Test
+    public void testSummaryDoesNotHoldTheMethods() throws Exception {
+        writeRun("U1", "alice", Instant.now());
+
+        DirectoryRASRunIndex index = new DirectoryRASRunIndex(this.rasDirectory);
+        TestStructure summary = index.getEntries().get(0).getSummary();
+        assertThat(summary.getRunName()).isEqualTo("U1");
+        assertThat(summary.getMethods()).isNull();
+    }
+
+    @Test
+    public void testAnIndexedRunIsReReadWhenItsIndexUpdateFails() throws Exception {
+        // Given...
+        IFramework framework = mock(IFramework.class);
+        when(framework.getTestRunName()).thenReturn("U1");
+        DirectoryResultArchiveStoreService ras = new DirectoryResultArchiveStoreService(framework, this.rasDirectory.toUri());
+
+        TestStructure testStructure = new TestStructure();
+        testStructure.setRunName("U1");
+        testStructure.setStatus("running");
+        ras.updateTestStructure(testStructure);
+
+        DirectoryRASRunIndex index = new DirectoryRASRunIndex(this.rasDirectory);
+        assertThat(index.getEntries().get(0).getSummary().getStatus()).isEqualTo("running");
+
+        // A directory in place of the lock file makes the journal append fail
+        Path lockFile = this.rasDirectory.resolve(DirectoryRASRunIndex.LOCK_FILE_NAME);
+        Files.deleteIfExists(lockFile);
+        Files.createDirectory(lockFile);
+
+        // When...
+        testStructure.setStatus("finished");
+        testStructure.setResult("Failed");
+        ras.updateTestStructure(testStructure);
+
+        Files.delete(lockFile);
+        bumpModifiedTime();
+
+        // Then...
+        TestStructure summary = index.getEntries().get(0).getSummary();
+        assertThat(summary.getStatus()).isEqualTo("finished");
+        assertThat(summary.getResult()).isEqualTo("Failed");
+        assertThat(Files.exists(this.rasDirectory.resolve(DirectoryRASRunIndex.STALE_MARKER_PREFIX + "U1"))).isFalse();
+    }
+
+    private void bumpModifiedTime() throws IOException {
+        // Make sure the base directory timestamp differs, whatever the file system granularity
+        Files.setLastModifiedTime(this.rasDirectory,
+            FileTime.from(Instant.now().plusSeconds(5)));
+    }
+}
@@ -10,6 +10,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
@@ -163,4 +164,20 @@ public class DirectoryRASSTest {
         Assert.assertEquals("message 1 wrong", messages.get(1), readMessages.get(3));
     }
 
+
+    @Test
+    public void testRunLogSizeIsTheNumberOfBytesInTheRunLog() throws ResultArchiveStoreException, IOException {
+        DirectoryResultArchiveStoreService drass = new DirectoryResultArchiveStoreService(framework,
+                this.rasDirectory.toUri());
+
+        drass.writeLog("1st message\n");
+        drass.writeLog("2nd message with a multi-byte é\n");
+        drass.shutdown();
+
+        DirectoryRASRunResult runResult = new DirectoryRASRunResult(this.rasDirectory.resolve(runname), new GalasaGson(), runname, new TestStructure());
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        runResult.writeLog(log);
+
+        Assert.assertEquals("run log size wrong", log.size(), runResult.getLogSize());
+    }
 }
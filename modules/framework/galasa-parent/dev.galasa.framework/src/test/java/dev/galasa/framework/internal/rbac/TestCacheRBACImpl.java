@@ -6,9 +6,16 @@
 package dev.galasa.framework.internal.rbac;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.junit.*;
@@ -17,12 +24,15 @@ import dev.galasa.framework.mocks.FilledMockRBACService;
 import dev.galasa.framework.mocks.MockAuthStoreService;
 import dev.galasa.framework.mocks.MockIDynamicStatusStoreService;
 import dev.galasa.framework.mocks.MockRBACService;
+import dev.galasa.framework.mocks.MockRole;
 import dev.galasa.framework.mocks.MockTimeService;
 import dev.galasa.framework.mocks.MockUser;
+import dev.galasa.framework.spi.DynamicStatusStoreException;
 import dev.galasa.framework.spi.rbac.Action;
 import dev.galasa.framework.spi.rbac.BuiltInAction;
 import dev.galasa.framework.spi.rbac.CacheRBAC;
 import dev.galasa.framework.spi.rbac.RBACException;
+import dev.galasa.framework.spi.rbac.Role;
 
 import static org.assertj.core.api.Assertions.*;
 import static dev.galasa.framework.spi.rbac.BuiltInAction.*;
@@ -167,4 +177,199 @@ public class TestCacheRBACImpl {
         // Then...
         assertThat(dssData).isEmpty();
     }
+
+    /**
+     * A DSS that can be shared by threads, and counts the reads made of it
+     */
+    private static class CountingDssService extends MockIDynamicStatusStoreService {
+        private final AtomicInteger gets = new AtomicInteger();
+
+        @Override
+        public synchronized String get(String key) throws DynamicStatusStoreException {
+            gets.incrementAndGet();
+            return super.get(key);
+        }
+
+        @Override
+        public synchronized void put(String key, String value) throws DynamicStatusStoreException {
+            super.put(key, value);
+        }
+
+        @Override
+        public synchronized void delete(String key) throws DynamicStatusStoreException {
+            super.delete(key);
+        }
+    }
+
+    private MockAuthStoreService createAuthStoreWithUsers(MockTimeService timeService, String roleId, String... loginIds) throws Exception {
+        MockAuthStoreService mockAuthStoreService = new MockAuthStoreService(timeService);
+        for (String loginId : loginIds) {
+            MockUser mockUser = new MockUser();
+            mockUser.setLoginId(loginId);
+            mockUser.setRoleId(roleId);
+            mockAuthStoreService.addUser(mockUser);
+        }
+        return mockAuthStoreService;
+    }
+
+    private MockRBACService createRBACServiceWithAdminAndTesterRoles() {
+        List<Action> allActions = BuiltInAction.getActions();
+        List<String> allActionIds = allActions.stream().map(Action::getId).collect(Collectors.toList());
+        Role adminRole = new MockRole("admin", "2", "Administrator access", allActionIds);
+        Role testerRole = new MockRole("tester", "1", "Test developer", List.of(GENERAL_API_ACCESS.getAction().getId()));
+        return new MockRBACService(List.of(adminRole, testerRole), allActions, testerRole);
+    }
+
+    @Test
+    public void testRepeatedChecksAreServedFromMemory() throws Exception {
+        // Given...
+        MockTimeService timeService = new MockTimeService(Instant.now());
+        MockAuthStoreService mockAuthStoreService = createAuthStoreWithUsers(timeService, "2", "bob");
+        MockRBACService mockRbacService = FilledMockRBACService.createTestRBACServiceWithTestUser("bob");
+        CountingDssService mockDssService = new CountingDssService();
+
+        CacheRBAC cache = new CacheRBACImpl(mockDssService, mockAuthStoreService, mockRbacService, timeService, 10);
+
+        // When...
+        for (int i = 0; i < 100; i++) {
+            assertThat(cache.isActionPermitted("bob", GENERAL_API_ACCESS.getAction().getId())).isTrue();
+            assertThat(cache.isActionPermitted("bob", "not_a_permitted_action")).isFalse();
+        }
+
+        // Then...
+        assertThat(mockDssService.gets.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testInMemoryActionsExpire() throws Exception {
+        // Given...
+        MockTimeService timeService = new MockTimeService(Instant.now());
+        MockAuthStoreService mockAuthStoreService = createAuthStoreWithUsers(timeService, "2", "bob");
+        MockRBACService mockRbacService = FilledMockRBACService.createTestRBACServiceWithTestUser("bob");
+        CountingDssService mockDssService = new CountingDssService();
+
+        CacheRBAC cache = new CacheRBACImpl(mockDssService, mockAuthStoreService, mockRbacService, timeService, 10);
+        assertThat(cache.isActionPermitted("bob", GENERAL_API_ACCESS.getAction().getId())).isTrue();
+
+        // When...
+        // *** Another process changes the DSS without the watch seeing it
+        mockDssService.data.put("user.bob.actions", CPS_PROPERTIES_SET.getAction().getId());
+
+        // Then...
+        assertThat(cache.isActionPermitted("bob", GENERAL_API_ACCESS.getAction().getId())).isTrue();
+
+        // When...
+        timeService.sleepMillis(CacheRBACImpl.LOCAL_ACTIONS_TIME_TO_LIVE_MILLIS + 1);
+
+        // Then...
+        assertThat(cache.isActionPermitted("bob", GENERAL_API_ACCESS.getAction().getId())).isFalse();
+        assertThat(cache.isActionPermitted("bob", CPS_PROPERTIES_SET.getAction().getId())).isTrue();
+        assertThat(mockDssService.gets.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testInvalidatingInOneProcessIsSeenByAnother() throws Exception {
+        // Given...
+        MockTimeService timeService = new MockTimeService(Instant.now());
+        MockAuthStoreService mockAuthStoreService = createAuthStoreWithUsers(timeService, "2", "bob");
+        MockRBACService mockRbacService = createRBACServiceWithAdminAndTesterRoles();
+        MockIDynamicStatusStoreService mockDssService = new MockIDynamicStatusStoreService();
+
+        CacheRBAC cache1 = new CacheRBACImpl(mockDssService, mockAuthStoreService, mockRbacService, timeService, 10);
+        CacheRBAC cache2 = new CacheRBACImpl(mockDssService, mockAuthStoreService, mockRbacService, timeService, 10);
+        assertThat(mockDssService.getWatchCount()).isEqualTo(2);
+
+        String secretsActionId = SECRETS_GET_UNREDACTED_VALUES.getAction().getId();
+        assertThat(cache1.isActionPermitted("bob", secretsActionId)).isTrue();
+        assertThat(cache2.isActionPermitted("bob", secretsActionId)).isTrue();
+
+        // When...
+        ((MockUser) mockAuthStoreService.getUserByLoginId("bob")).setRoleId("1");
+        cache1.invalidateUser("bob");
+
+        // Then...
+        assertThat(cache2.isActionPermitted("bob", secretsActionId)).isFalse();
+        assertThat(cache1.isActionPermitted("bob", secretsActionId)).isFalse();
+    }
+
+    @Test
+    public void testInMemoryUsersAreBounded() throws Exception {
+        // Given...
+        MockTimeService timeService = new MockTimeService(Instant.now());
+        String[] loginIds = new String[20];
+        for (int i = 0; i < loginIds.length; i++) {
+            loginIds[i] = "user" + i;
+        }
+        MockAuthStoreService mockAuthStoreService = createAuthStoreWithUsers(timeService, "2", loginIds);
+        MockRBACService mockRbacService = FilledMockRBACService.createTestRBACServiceWithTestUser("bob");
+        CountingDssService mockDssService = new CountingDssService();
+
+        CacheRBAC cache = new CacheRBACImpl(mockDssService, mockAuthStoreService, mockRbacService, timeService, 5);
+
+        // When...
+        for (String loginId : loginIds) {
+            assertThat(cache.isActionPermitted(loginId, GENERAL_API_ACCESS.getAction().getId())).isTrue();
+        }
+        int getsAfterFirstPass = mockDssService.gets.get();
+        for (String loginId : loginIds) {
+            assertThat(cache.isActionPermitted(loginId, GENERAL_API_ACCESS.getAction().getId())).isTrue();
+        }
+
+        // Then...
+        // *** At most 5 of the 20 users can still be in memory, the rest are read from the DSS again
+        assertThat(getsAfterFirstPass).isEqualTo(20);
+        assertThat(mockDssService.gets.get() - getsAfterFirstPass).isGreaterThanOrEqualTo(15);
+    }
+
+    @Test
+    public void testConcurrentChecksUnderLoad() throws Exception {
+        // Given...
+        int threadCount = 16;
+        int checksPerThread = 2000;
+        String[] loginIds = new String[50];
+        for (int i = 0; i < loginIds.length; i++) {
+            loginIds[i] = "user" + i;
+        }
+
+        MockTimeService timeService = new MockTimeService(Instant.now());
+        MockAuthStoreService mockAuthStoreService = createAuthStoreWithUsers(timeService, "1", loginIds);
+        MockRBACService mockRbacService = createRBACServiceWithAdminAndTesterRoles();
+        CountingDssService mockDssService = new CountingDssService();
+
+        CacheRBAC cache = new CacheRBACImpl(mockDssService, mockAuthStoreService, mockRbacService, timeService, 1000);
+
+        String permittedActionId = GENERAL_API_ACCESS.getAction().getId();
+        String deniedActionId = SECRETS_GET_UNREDACTED_VALUES.getAction().getId();
+        AtomicInteger wrongAnswers = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int offset = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < checksPerThread; i++) {
+                    String loginId = loginIds[(i + offset) % loginIds.length];
+                    if (!cache.isActionPermitted(loginId, permittedActionId)
+                            || cache.isActionPermitted(loginId, deniedActionId)) {
+                        wrongAnswers.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // When...
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then...
+        assertThat(wrongAnswers.get()).isZero();
+        // *** Only the first checks of each user, racing each other, reach the DSS
+        assertThat(mockDssService.gets.get()).isLessThanOrEqualTo(loginIds.length * threadCount);
+    }
 }
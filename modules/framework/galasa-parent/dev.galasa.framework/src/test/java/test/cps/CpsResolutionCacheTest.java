@@ -0,0 +1,225 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package test.cps;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.validation.constraints.NotNull;
+
+import org.junit.Test;
+
+import dev.galasa.framework.internal.cps.CpsResolutionCache;
+import dev.galasa.framework.internal.cps.FrameworkConfigurationPropertyService;
+import dev.galasa.framework.mocks.MockFramework;
+import dev.galasa.framework.spi.IConfigurationPropertyStore;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreWatcher;
+
+public class CpsResolutionCacheTest {
+
+    /**
+     * A CPS store that counts the reads made of it, and can report changes
+     */
+    private static class CountingStore implements IConfigurationPropertyStore {
+        private final Map<String, String>        properties = new HashMap<>();
+        private final boolean                    watchable;
+        private IConfigurationPropertyStoreWatcher watcher;
+        private int                              gets;
+        private int                              prefixGets;
+
+        private CountingStore(boolean watchable) {
+            this.watchable = watchable;
+        }
+
+        @Override
+        public String getProperty(@NotNull String key) {
+            this.gets++;
+            return this.properties.get(key);
+        }
+
+        @Override
+        public @NotNull Map<String, String> getPrefixedProperties(@NotNull String prefix) {
+            this.prefixGets++;
+            Map<String, String> found = new HashMap<>();
+            for (Map.Entry<String, String> entry : this.properties.entrySet()) {
+                if (entry.getKey().startsWith(prefix)) {
+                    found.put(entry.getKey(), entry.getValue());
+                }
+            }
+            return found;
+        }
+
+        @Override
+        public void setProperty(@NotNull String key, @NotNull String value) {
+            this.properties.put(key, value);
+        }
+
+        @Override
+        public void deleteProperty(@NotNull String key) {
+            this.properties.remove(key);
+        }
+
+        @Override
+        public Map<String, String> getPropertiesFromNamespace(String namespace) {
+            return getPrefixedProperties(namespace + ".");
+        }
+
+        @Override
+        public List<String> getNamespaces() {
+            throw new UnsupportedOperationException("Unimplemented method 'getNamespaces'");
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public boolean watch(IConfigurationPropertyStoreWatcher watcher) {
+            this.watcher = watcher;
+            return this.watchable;
+        }
+    }
+
+    private FrameworkConfigurationPropertyService createService(CountingStore store, Properties overrides,
+            Properties record) {
+        return new FrameworkConfigurationPropertyService(new MockFramework(), store, overrides, record, "zos",
+                new CpsResolutionCache(store));
+    }
+
+    @Test
+    public void testRepeatedRequestsAreNotLookedUpAgain() throws Exception {
+        // Given...
+        CountingStore store = new CountingStore(true);
+        store.properties.put("zos.image.credentialid", "CREDS");
+        Properties record = new Properties();
+        FrameworkConfigurationPropertyService service = createService(store, new Properties(), record);
+
+        // When...
+        String first = service.getProperty("image", "credentialid", "PLEXMA", "MVMA");
+        int getsAfterFirst = store.gets;
+        String second = service.getProperty("image", "credentialid", "PLEXMA", "MVMA");
+        String missing = service.getProperty("image", "missing", "PLEXMA");
+        String missingAgain = service.getProperty("image", "missing", "PLEXMA");
+
+        // Then...
+        assertThat(first).isEqualTo("CREDS");
+        assertThat(second).isEqualTo("CREDS");
+        assertThat(missing).isNull();
+        assertThat(missingAgain).isNull();
+        assertThat(getsAfterFirst).isEqualTo(3);
+        assertThat(store.gets).isEqualTo(5);
+        assertThat(record.getProperty("zos.image.credentialid._source")).isEqualTo("cps");
+        assertThat(record.getProperty("zos.image.PLEXMA.missing._source")).isEqualTo("missing");
+    }
+
+    @Test
+    public void testSetAndDeleteDropTheNamespaceResolutions() throws Exception {
+        // Given...
+        CountingStore store = new CountingStore(true);
+        store.properties.put("zos.image.credentialid", "CREDS");
+        FrameworkConfigurationPropertyService service = createService(store, new Properties(), new Properties());
+        assertThat(service.getProperty("image", "credentialid", "PLEXMA")).isEqualTo("CREDS");
+
+        // When...
+        service.setProperty("image.PLEXMA.credentialid", "PLEXCREDS");
+
+        // Then...
+        assertThat(service.getProperty("image", "credentialid", "PLEXMA")).isEqualTo("PLEXCREDS");
+
+        // When...
+        service.deleteProperty("image.PLEXMA.credentialid");
+
+        // Then...
+        assertThat(service.getProperty("image", "credentialid", "PLEXMA")).isEqualTo("CREDS");
+    }
+
+    @Test
+    public void testChangesReportedByTheStoreDropTheNamespaceResolutions() throws Exception {
+        // Given...
+        CountingStore store = new CountingStore(true);
+        store.properties.put("zos.image.credentialid", "CREDS");
+        FrameworkConfigurationPropertyService service = createService(store, new Properties(), new Properties());
+        assertThat(service.getProperty("image", "credentialid", "PLEXMA")).isEqualTo("CREDS");
+
+        // When...
+        store.properties.put("zos.image.PLEXMA.credentialid", "PLEXCREDS");
+
+        // Then...
+        assertThat(service.getProperty("image", "credentialid", "PLEXMA")).isEqualTo("CREDS");
+
+        // When...
+        store.watcher.propertyModified("zos.image.PLEXMA.credentialid");
+
+        // Then...
+        assertThat(service.getProperty("image", "credentialid", "PLEXMA")).isEqualTo("PLEXCREDS");
+    }
+
+    @Test
+    public void testBulkLookupMatchesIndividualLookups() throws Exception {
+        // Given...
+        CountingStore store = new CountingStore(true);
+        store.properties.put("zos.image.PLEXMA.MVMA.credentialid", "MVMACREDS");
+        store.properties.put("zos.image.PLEXMA.sysname", "PLEXSYS");
+        store.properties.put("zos.image.codepage", " 037 ");
+        store.properties.put("zos.images.codepage", "wrongprefix");
+        Properties overrides = new Properties();
+        overrides.setProperty("zos.image.PLEXMA.MVMA.ipv4.hostname", "override.example.com");
+        List<String> suffixes = Arrays.asList("credentialid", "sysname", "codepage", "ipv4.hostname", "missing");
+
+        Properties individualRecord = new Properties();
+        FrameworkConfigurationPropertyService individual = new FrameworkConfigurationPropertyService(
+                new MockFramework(), store, overrides, individualRecord, "zos");
+        Map<String, String> expected = new HashMap<>();
+        for (String suffix : suffixes) {
+            String value = individual.getProperty("image", suffix, "PLEXMA", "MVMA");
+            if (value != null) {
+                expected.put(suffix, value);
+            }
+        }
+
+        Properties bulkRecord = new Properties();
+        FrameworkConfigurationPropertyService bulk = createService(store, overrides, bulkRecord);
+        store.gets = 0;
+
+        // When...
+        Map<String, String> values = bulk.getProperties("image", suffixes, "PLEXMA", "MVMA");
+
+        // Then...
+        assertThat(values).isEqualTo(expected);
+        assertThat(values).containsEntry("codepage", "037").doesNotContainKey("missing");
+        assertThat(bulkRecord).isEqualTo(individualRecord);
+        assertThat(store.gets).isZero();
+        assertThat(store.prefixGets).isEqualTo(1);
+
+        // *** The bulk lookup leaves its resolutions for later getProperty calls
+        assertThat(bulk.getProperty("image", "sysname", "PLEXMA", "MVMA")).isEqualTo("PLEXSYS");
+        assertThat(store.gets).isZero();
+    }
+
+    @Test
+    public void testUnwatchedStoresAreNotCached() throws Exception {
+        // Given...
+        CountingStore store = new CountingStore(false);
+        store.properties.put("zos.image.credentialid", "CREDS");
+        CpsResolutionCache cache = new CpsResolutionCache(store);
+        FrameworkConfigurationPropertyService service = new FrameworkConfigurationPropertyService(
+                new MockFramework(), store, new Properties(), new Properties(), "zos", cache);
+        assertThat(service.getProperty("image", "credentialid")).isEqualTo("CREDS");
+
+        // When...
+        store.properties.put("zos.image.credentialid", "NEWCREDS");
+
+        // Then...
+        assertThat(cache.isWatched()).isFalse();
+        assertThat(service.getProperty("image", "credentialid")).isEqualTo("NEWCREDS");
+        assertThat(store.gets).isEqualTo(2);
+    }
+}
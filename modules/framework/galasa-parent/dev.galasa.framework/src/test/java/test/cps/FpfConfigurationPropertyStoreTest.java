@@ -14,6 +14,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import org.junit.Test;
@@ -112,4 +114,31 @@ public class FpfConfigurationPropertyStoreTest {
         }
         assertTrue("Exception not caught as expected.", caught);
     }
+
+    /**
+     * <p>
+     * This method checks that a watcher of the store is told the key of every
+     * property that is set or deleted.
+     * </p>
+     * 
+     * @throws ConfigurationPropertyStoreException
+     * @throws IOException
+     */
+    @Test
+    public void testWatchReportsChangedProperties() throws ConfigurationPropertyStoreException, IOException {
+        File testProp = File.createTempFile("galasafpf_", ".properties");
+        FpfConfigurationPropertyStore fpfCps = new FpfConfigurationPropertyStore(testProp.toURI());
+        List<String> changed = new ArrayList<>();
+
+        try {
+            assertTrue("The store should report changes", fpfCps.watch(changed::add));
+
+            fpfCps.setProperty("zos.image.credentialid", "CREDS");
+            fpfCps.deleteProperty("zos.image.credentialid");
+
+            assertEquals("Did not report the expected changes", List.of("zos.image.credentialid", "zos.image.credentialid"), changed);
+        } finally {
+            fpfCps.shutdown();
+        }
+    }
 }
\ No newline at end of file
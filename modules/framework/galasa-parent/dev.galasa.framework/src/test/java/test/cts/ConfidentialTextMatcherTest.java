@@ -0,0 +1,104 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package test.cts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+
+import org.junit.Test;
+
+import dev.galasa.framework.internal.cts.ConfidentialTextMatcher;
+import dev.galasa.framework.internal.cts.FrameworkConfidentialTextService;
+
+public class ConfidentialTextMatcherTest {
+
+    private ConfidentialTextMatcher matcher(String... patternsAndReplacements) {
+        List<String> patterns = new ArrayList<>();
+        List<String> replacements = new ArrayList<>();
+        for (int i = 0; i < patternsAndReplacements.length; i += 2) {
+            patterns.add(patternsAndReplacements[i]);
+            replacements.add(patternsAndReplacements[i + 1]);
+        }
+        return new ConfidentialTextMatcher(patterns, replacements);
+    }
+
+    @Test
+    public void testNoPatternsReturnsTheSameString() {
+        String text = "nothing to see here";
+        assertThat(matcher().redact(text)).isSameAs(text);
+    }
+
+    @Test
+    public void testTextWithoutMatchesIsReturnedUnchanged() {
+        String text = "nothing to see here";
+        assertThat(matcher("secret", "**1***").redact(text)).isSameAs(text);
+    }
+
+    @Test
+    public void testLongestMatchWinsWhenPatternsShareAStart() {
+        ConfidentialTextMatcher matcher = matcher("pass", "1***", "password", "***2****");
+        assertThat(matcher.redact("my password is set")).isEqualTo("my ***2**** is set");
+        assertThat(matcher.redact("my pass is set")).isEqualTo("my 1*** is set");
+    }
+
+    @Test
+    public void testLeftmostMatchWinsWhenPatternsOverlap() {
+        ConfidentialTextMatcher matcher = matcher("bcd", "*1*", "abc", "*2*");
+        assertThat(matcher.redact("xabcdx")).isEqualTo("x*2*dx");
+    }
+
+    @Test
+    public void testShorterPatternInsideAFailedLongerOneIsStillFound() {
+        ConfidentialTextMatcher matcher = matcher("abcde", "**1**", "ab", "2*", "cd", "3*");
+        assertThat(matcher.redact("abcdx")).isEqualTo("2*3*x");
+        assertThat(matcher.redact("abcde")).isEqualTo("**1**");
+    }
+
+    @Test
+    public void testRegexCharactersAreMatchedLiterally() {
+        ConfidentialTextMatcher matcher = matcher("a.c$", "*1**");
+        assertThat(matcher.redact("abc$ a.c$")).isEqualTo("abc$ *1**");
+    }
+
+    @Test
+    public void testRedactsTheSameAsTheSequentialReplaceForDistinctTexts() {
+        FrameworkConfidentialTextService cts = new FrameworkConfidentialTextService();
+        List<String> secrets = new ArrayList<>();
+        List<String> tags = new ArrayList<>();
+
+        Random random = new Random(1234);
+        for (int i = 0; i < 40; i++) {
+            String secret = "S" + i + "-" + Long.toHexString(random.nextLong());
+            secrets.add(secret);
+            cts.registerText(secret, "secret " + i);
+        }
+        for (int i = 0; i < secrets.size(); i++) {
+            tags.add(cts.removeConfidentialText(secrets.get(i)));
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            if (random.nextInt(10) == 0) {
+                sb.append(secrets.get(random.nextInt(secrets.size())));
+            } else {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        String text = sb.toString();
+
+        // The original implementation, one regular expression per registered text
+        String expected = text;
+        for (int i = 0; i < secrets.size(); i++) {
+            expected = expected.replaceAll(Matcher.quoteReplacement(secrets.get(i)), tags.get(i));
+        }
+
+        assertThat(cts.removeConfidentialText(text)).isEqualTo(expected);
+    }
+}
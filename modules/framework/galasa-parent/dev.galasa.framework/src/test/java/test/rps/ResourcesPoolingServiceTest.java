@@ -15,6 +15,7 @@ import java.util.List;
 import org.junit.Test;
 
 import dev.galasa.framework.internal.rps.ResourceString;
+import dev.galasa.framework.mocks.MockIDynamicStatusStoreService;
 import dev.galasa.framework.spi.FrameworkResourcePoolingService;
 import dev.galasa.framework.spi.InsufficientResourcesAvailableException;
 import dev.galasa.framework.spi.ResourcePoolingServiceException;
@@ -239,4 +240,59 @@ public class ResourcesPoolingServiceTest {
 
         assertTrue("Exception not thrown", caught);
     }
+
+    /**
+     * This test method checks that only the free resources are returned when
+     * most of the pool is in use in the DSS.
+     */
+    @Test
+    public void testResourcePoolingSkipsResourcesInUse() throws Exception {
+        FrameworkResourcePoolingService frps = new FrameworkResourcePoolingService();
+        MockIDynamicStatusStoreService dss = new MockIDynamicStatusStoreService();
+        List<String> resourceStrings = new ArrayList<>();
+
+        resourceStrings.add("PORT{9}{9}");
+        for (int i = 0; i < 100; i++) {
+            if (i != 17 && i != 42 && i != 99) {
+                dss.put(String.format("zosport.IMAGE.PORT%02d", i), "U1");
+            }
+        }
+        List<String> bannedStrings = new ArrayList<>();
+        bannedStrings.add("PORT42");
+
+        List<String> resources = frps.obtainResources(resourceStrings, bannedStrings, 2, 1, dss, "zosport.IMAGE.");
+        Collections.sort(resources);
+
+        List<String> expected = new ArrayList<>();
+        expected.add("PORT17");
+        expected.add("PORT99");
+        assertEquals("Unexpected resources retrieved", expected, resources);
+    }
+
+    /**
+     * This test method checks that an exception is thrown when there are fewer
+     * free resources than required.
+     */
+    @Test
+    public void testResourcePoolingFailsWhenPoolIsInUse() throws Exception {
+        FrameworkResourcePoolingService frps = new FrameworkResourcePoolingService();
+        MockIDynamicStatusStoreService dss = new MockIDynamicStatusStoreService();
+        List<String> resourceStrings = new ArrayList<>();
+
+        resourceStrings.add("PORT{9}");
+        for (int i = 0; i < 9; i++) {
+            dss.put("zosport.IMAGE.PORT" + i, "U1");
+        }
+
+        Boolean caught = false;
+        try {
+            frps.obtainResources(resourceStrings, null, 2, 1, dss, "zosport.IMAGE.");
+        } catch (InsufficientResourcesAvailableException e) {
+            caught = true;
+        }
+
+        assertTrue("Exception not thrown", caught);
+        assertEquals("Unexpected resources retrieved", "PORT9",
+                frps.obtainResources(resourceStrings, null, 1, 1, dss, "zosport.IMAGE.").get(0));
+    }
 }
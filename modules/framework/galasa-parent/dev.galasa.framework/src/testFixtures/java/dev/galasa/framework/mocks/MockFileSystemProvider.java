@@ -119,12 +119,13 @@ public class MockFileSystemProvider extends FileSystemProvider {
 
             @Override
             public SeekableByteChannel position(long newPosition) throws IOException {
-                throw new UnsupportedOperationException("Unimplemented method 'position'");
+                position = (int) Math.min(newPosition, contents.length);
+                return this;
             }
 
             @Override
             public long size() throws IOException {
-                throw new UnsupportedOperationException("Unimplemented method 'size'");
+                return contents.length;
             }
 
             @Override
@@ -45,6 +45,39 @@ public class MockIDynamicStatusStoreService implements IDynamicStatusStoreServic
 
     public Map<String,String> data = new HashMap<>();
 
+    private Map<UUID,MockDssWatch> watches = new HashMap<>();
+
+    private static class MockDssWatch {
+        private IDynamicStatusStoreWatcher watcher;
+        private String keyPrefix;
+
+        private MockDssWatch(IDynamicStatusStoreWatcher watcher, String keyPrefix) {
+            this.watcher = watcher;
+            this.keyPrefix = keyPrefix;
+        }
+    }
+
+    private void notifyWatchers(String key, String oldValue, String newValue) {
+        IDynamicStatusStoreWatcher.Event event;
+        if (newValue == null) {
+            event = IDynamicStatusStoreWatcher.Event.DELETE;
+        } else if (oldValue == null) {
+            event = IDynamicStatusStoreWatcher.Event.NEW;
+        } else {
+            event = IDynamicStatusStoreWatcher.Event.MODIFIED;
+        }
+
+        for (MockDssWatch watch : new ArrayList<>(watches.values())) {
+            if (key.startsWith(watch.keyPrefix)) {
+                watch.watcher.propertyModified(key, event, oldValue, newValue);
+            }
+        }
+    }
+
+    public int getWatchCount() {
+        return watches.size();
+    }
+
     @Override
     public boolean putSwap(@NotNull String key, String oldValue, @NotNull String newValue) {
         // Don't record heartbeat events in the history. They are random how many there would be 
@@ -53,7 +86,7 @@ public class MockIDynamicStatusStoreService implements IDynamicStatusStoreServic
         if (!key.endsWith(".heartbeat")) {
             history.add( new DssHistoryRecord(DssHistoryRecordType.PUT, key , newValue));
         }
-        data.put(key,newValue);
+        notifyWatchers(key, data.put(key,newValue), newValue);
         return true;
     }
 
@@ -62,7 +95,10 @@ public class MockIDynamicStatusStoreService implements IDynamicStatusStoreServic
         // Heartbeat deletion events should be recorded, as they are a sign that cleanup
         // is being done, so unit tests will want to check that.
         history.add( new DssHistoryRecord(DssHistoryRecordType.DELETE, key ));
-        data.remove(key);
+        String oldValue = data.remove(key);
+        if (oldValue != null) {
+            notifyWatchers(key, oldValue, null);
+        }
     }
 
     @Override
@@ -72,7 +108,37 @@ public class MockIDynamicStatusStoreService implements IDynamicStatusStoreServic
 
     @Override
     public void put(@NotNull String key, @NotNull String value) throws DynamicStatusStoreException {
-        data.put(key, value);
+        notifyWatchers(key, data.put(key, value), value);
+    }
+
+    @Override
+    public @NotNull Map<String, String> getPrefix(@NotNull String keyPrefix) throws DynamicStatusStoreException {
+        Map<String, String> results = new HashMap<>();
+        for (Map.Entry<String, String> entry : data.entrySet()) {
+            if (entry.getKey().startsWith(keyPrefix)) {
+                results.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void deletePrefix(@NotNull String keyPrefix) throws DynamicStatusStoreException {
+        for (String key : getPrefix(keyPrefix).keySet()) {
+            delete(key);
+        }
+    }
+
+    @Override
+    public UUID watchPrefix(IDynamicStatusStoreWatcher watcher, String keyPrefix) throws DynamicStatusStoreException {
+        UUID watchId = UUID.randomUUID();
+        watches.put(watchId, new MockDssWatch(watcher, keyPrefix));
+        return watchId;
+    }
+
+    @Override
+    public void unwatch(UUID watchId) throws DynamicStatusStoreException {
+        watches.remove(watchId);
     }
 
     @Override
@@ -95,21 +161,11 @@ public class MockIDynamicStatusStoreService implements IDynamicStatusStoreServic
                throw new UnsupportedOperationException("Unimplemented method 'putSwap'");
     }
 
-    @Override
-    public @NotNull Map<String, String> getPrefix(@NotNull String keyPrefix) throws DynamicStatusStoreException {
-               throw new UnsupportedOperationException("Unimplemented method 'getPrefix'");
-    }
-
     @Override
     public void delete(@NotNull Set<String> keys) throws DynamicStatusStoreException {
                throw new UnsupportedOperationException("Unimplemented method 'delete'");
     }
 
-    @Override
-    public void deletePrefix(@NotNull String keyPrefix) throws DynamicStatusStoreException {
-               throw new UnsupportedOperationException("Unimplemented method 'deletePrefix'");
-    }
-
     @Override
     public void performActions(IDssAction... actions)
             throws DynamicStatusStoreException, DynamicStatusStoreMatchException {
@@ -121,16 +177,6 @@ public class MockIDynamicStatusStoreService implements IDynamicStatusStoreServic
                throw new UnsupportedOperationException("Unimplemented method 'watch'");
     }
 
-    @Override
-    public UUID watchPrefix(IDynamicStatusStoreWatcher watcher, String keyPrefix) throws DynamicStatusStoreException {
-               throw new UnsupportedOperationException("Unimplemented method 'watchPrefix'");
-    }
-
-    @Override
-    public void unwatch(UUID watchId) throws DynamicStatusStoreException {
-               throw new UnsupportedOperationException("Unimplemented method 'unwatch'");
-    }
-
     @Override
     public IDynamicResource getDynamicResource(String resourceKey) {
                throw new UnsupportedOperationException("Unimplemented method 'getDynamicResource'");
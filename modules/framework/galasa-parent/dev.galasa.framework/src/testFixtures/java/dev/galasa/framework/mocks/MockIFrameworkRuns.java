@@ -5,6 +5,7 @@
  */
 package dev.galasa.framework.mocks;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
@@ -37,7 +38,8 @@ public class MockIFrameworkRuns implements IFrameworkRuns{
 
     @Override
     public @NotNull List<IRun> getQueuedRuns() throws FrameworkException {
-        throw new UnsupportedOperationException("Unimplemented method 'getQueuedRuns'");
+        // Every run given to the mock is treated as queued
+        return new ArrayList<>(runs);
     }
 
     @Override
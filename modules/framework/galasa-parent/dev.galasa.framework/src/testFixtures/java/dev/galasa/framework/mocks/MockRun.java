@@ -133,6 +133,17 @@ public class MockRun implements IRun {
         return this.heartbeat ;
     }
 
+    // Status is also changed on the fly so not adding it to the constructor.
+    private String status;
+    public void setStatus(String newValue) {
+        this.status = newValue;
+    }
+
+    @Override
+    public String getStatus() {
+        return this.status;
+    }
+
     // ------------- un-implemented methods follow ----------------
 
     @Override
@@ -145,11 +156,6 @@ public class MockRun implements IRun {
         throw new UnsupportedOperationException("Unimplemented method 'getTest'");
     }
 
-    @Override
-    public String getStatus() {
-        throw new UnsupportedOperationException("Unimplemented method 'getStatus'");
-    }
-
 
     @Override
     public boolean isTrace() {
@@ -5,6 +5,7 @@
  */
 package dev.galasa.framework.mocks;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.validation.constraints.NotNull;
@@ -14,6 +15,7 @@ import dev.galasa.framework.spi.FrameworkException;
 import dev.galasa.framework.spi.IManager;
 import dev.galasa.framework.spi.Result;
 import dev.galasa.framework.spi.language.GalasaMethod;
+import dev.galasa.framework.spi.teststructure.TestManagerPhase;
 
 public class MockTestRunManagers implements ITestRunManagers {
 
@@ -33,6 +35,8 @@ public class MockTestRunManagers implements ITestRunManagers {
 
     private  Result resultToReturn ;
 
+    public List<TestManagerPhase> managerPhases = new ArrayList<>();
+
     public MockTestRunManagers( boolean ignoreTestClass , Result resultToReturn ) {
         this.ignoreTestClass = ignoreTestClass ;
         this.resultToReturn = resultToReturn;
@@ -53,6 +57,11 @@ public class MockTestRunManagers implements ITestRunManagers {
         calledCountShudown +=1;
     }
 
+    @Override
+    public List<TestManagerPhase> getManagerPhases() {
+        return managerPhases;
+    }
+
     @Override
     public void provisionGenerate() throws FrameworkException {
         calledCountProvisionGenerate +=1;
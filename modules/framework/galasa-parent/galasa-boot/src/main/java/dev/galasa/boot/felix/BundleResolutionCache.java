@@ -0,0 +1,255 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.boot.felix;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.felix.bundlerepository.Capability;
+import org.apache.felix.bundlerepository.Repository;
+import org.apache.felix.bundlerepository.Resource;
+
+import dev.galasa.boot.BootLogger;
+import dev.galasa.boot.LauncherException;
+
+/**
+ * A cache of OBR resolutions that is kept between runs of the launcher.
+ *
+ * The cache is keyed by a fingerprint of the loaded OBRs, their URIs and last
+ * modified times and the URI and id of every resource in them, so it is only
+ * used while the OBRs are unchanged.
+ * For each bundle that has been resolved, it records the locations of the
+ * bundles the resolver installed, so they can be installed again without
+ * resolving. It also records which bundles provide each OSGi service, so the
+ * capabilities of the resources only need to be searched once.
+ *
+ * The framework bundle is given this file and keeps its own resolutions in
+ * it, so each change is merged into the entries on disk rather than replacing
+ * them.
+ */
+public class BundleResolutionCache {
+
+    private static final String BUNDLE_PREFIX       = "bundle.";
+    private static final String SERVICE_PREFIX      = "service.";
+    private static final String SERVICE_INDEX_BUILT = "services.indexed";
+
+    private static final String SEPARATOR           = "\n";
+
+    private BootLogger          logger              = new BootLogger();
+
+    private final Repository[]  repositories;
+    private final String        fingerprint;
+    private final Path          cacheFile;
+    private final Properties    entries             = new Properties();
+
+    public BundleResolutionCache(File cacheDirectory, Repository[] repositories) throws LauncherException {
+        this.repositories = repositories;
+        this.fingerprint = calculateFingerprint(repositories);
+        this.cacheFile = cacheDirectory.toPath().resolve(this.fingerprint + ".properties");
+
+        if (Files.exists(this.cacheFile)) {
+            try (InputStream is = Files.newInputStream(this.cacheFile)) {
+                this.entries.load(is);
+                logger.debug("Loaded bundle resolution cache " + this.cacheFile);
+            } catch (IOException | IllegalArgumentException e) {
+                logger.error("Unable to read bundle resolution cache " + this.cacheFile + ", ignoring it", e);
+                this.entries.clear();
+            }
+        }
+    }
+
+    public String getFingerprint() {
+        return this.fingerprint;
+    }
+
+    /**
+     * @return the file the cache for these OBRs is kept in
+     */
+    public Path getCacheFile() {
+        return this.cacheFile;
+    }
+
+    /**
+     * @param bundleSymbolicName the bundle that was requested
+     * @return the locations of the bundles to install for the requested
+     *         bundle, in the order they were installed, or null if the bundle
+     *         has not been resolved with these OBRs
+     */
+    public List<String> getBundleLocations(String bundleSymbolicName) {
+        String locations = this.entries.getProperty(BUNDLE_PREFIX + bundleSymbolicName);
+        if (locations == null) {
+            return null;
+        }
+        return new ArrayList<>(Arrays.asList(locations.split(SEPARATOR)));
+    }
+
+    public void putBundleLocations(String bundleSymbolicName, List<String> locations) {
+        save(Map.of(BUNDLE_PREFIX + bundleSymbolicName, String.join(SEPARATOR, locations)), Set.of());
+    }
+
+    public void removeBundleLocations(String bundleSymbolicName) {
+        if (this.entries.containsKey(BUNDLE_PREFIX + bundleSymbolicName)) {
+            save(Map.of(), Set.of(BUNDLE_PREFIX + bundleSymbolicName));
+        }
+    }
+
+    /**
+     * @param serviceInterface the OSGi service interface name
+     * @return the symbolic names of the bundles in the OBRs that provide the
+     *         service
+     */
+    public Set<String> getBundlesProvidingService(String serviceInterface) {
+        if (this.entries.getProperty(SERVICE_INDEX_BUILT) == null) {
+            Map<String, String> changes = new HashMap<>();
+            Map<String, Set<String>> index = indexServices(this.repositories);
+            for (Map.Entry<String, Set<String>> service : index.entrySet()) {
+                changes.put(SERVICE_PREFIX + service.getKey(), String.join(SEPARATOR, service.getValue()));
+            }
+            changes.put(SERVICE_INDEX_BUILT, "true");
+            save(changes, Set.of());
+        }
+
+        Set<String> bundles = new TreeSet<>();
+        String bundleNames = this.entries.getProperty(SERVICE_PREFIX + serviceInterface);
+        if (bundleNames != null) {
+            bundles.addAll(Arrays.asList(bundleNames.split(SEPARATOR)));
+        }
+        return bundles;
+    }
+
+    /**
+     * Search the capabilities of every resource in the OBRs for the OSGi
+     * services they provide
+     *
+     * @param repositories the OBRs
+     * @return the symbolic names of the bundles providing each service
+     */
+    public static Map<String, Set<String>> indexServices(Repository[] repositories) {
+        Map<String, Set<String>> index = new HashMap<>();
+        for (Repository repository : repositories) {
+            if (repository.getResources() == null) {
+                continue;
+            }
+            for (Resource resource : repository.getResources()) {
+                if (resource.getCapabilities() == null) {
+                    continue;
+                }
+                for (Capability capability : resource.getCapabilities()) {
+                    if (!"service".equals(capability.getName())) {
+                        continue;
+                    }
+                    Map<String, Object> properties = capability.getPropertiesAsMap();
+                    String services = (String) properties.get("objectClass");
+                    if (services == null) {
+                        services = (String) properties.get("objectClass:List<String>");
+                    }
+                    if (services == null) {
+                        continue;
+                    }
+                    for (String service : services.split(",")) {
+                        index.computeIfAbsent(service.trim(), k -> new TreeSet<>()).add(resource.getSymbolicName());
+                    }
+                }
+            }
+        }
+        return index;
+    }
+
+    private static String calculateFingerprint(Repository[] repositories) throws LauncherException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new LauncherException("Unable to fingerprint the OBRs", e);
+        }
+
+        for (Repository repository : repositories) {
+            update(digest, repository.getURI());
+            update(digest, Long.toString(repository.getLastModified()));
+            if (repository.getResources() == null) {
+                continue;
+            }
+            for (Resource resource : repository.getResources()) {
+                update(digest, resource.getId());
+                update(digest, resource.getURI());
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Apply changes to the entries and merge them into the cache on disk, which
+     * may have been updated by the framework or another launcher since it was
+     * read. The cache is written to a temporary file and moved into place, so a
+     * launcher starting at the same time never reads a partly written cache
+     *
+     * @param puts    the entries to set
+     * @param removes the entries to remove
+     */
+    private void save(Map<String, String> puts, Set<String> removes) {
+        this.entries.putAll(puts);
+        this.entries.keySet().removeAll(removes);
+
+        Properties merged = new Properties();
+        try {
+            if (Files.exists(this.cacheFile)) {
+                try (InputStream is = Files.newInputStream(this.cacheFile)) {
+                    merged.load(is);
+                } catch (IllegalArgumentException e) {
+                    merged.clear();
+                }
+            }
+            merged.putAll(puts);
+            merged.keySet().removeAll(removes);
+
+            Files.createDirectories(this.cacheFile.getParent());
+            Path tempFile = Files.createTempFile(this.cacheFile.getParent(), this.fingerprint, ".tmp");
+            try {
+                try (OutputStream os = Files.newOutputStream(tempFile)) {
+                    merged.store(os, "Galasa bundle resolution cache");
+                }
+                try {
+                    Files.move(tempFile, this.cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, this.cacheFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            logger.error("Unable to write bundle resolution cache " + this.cacheFile, e);
+        }
+    }
+}
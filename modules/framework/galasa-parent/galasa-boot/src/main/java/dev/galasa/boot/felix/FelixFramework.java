@@ -16,14 +16,13 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
 import java.text.*;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
-import org.apache.felix.bundlerepository.Capability;
 import org.apache.felix.bundlerepository.Reason;
 import org.apache.felix.bundlerepository.Repository;
 import org.apache.felix.bundlerepository.RepositoryAdmin;
@@ -48,6 +47,9 @@ public class FelixFramework {
 
     private static final String EXTRA_FRAMEWORK_BUNDLES_PROP  = "framework.extra.bundles";
     private static final String EXTRA_API_SERVER_BUNDLES_PROP = "api.extra.bundles";
+    private static final String RESOLUTION_CACHE_PROP         = "framework.resolution.cache";
+    private static final String RESOLUTION_CACHE_DIR_PROP     = "framework.resolution.cache.dir";
+    private static final String RESOLUTION_CACHE_FILE_PROP    = "framework.resolution.cache.file";
 
     protected Framework framework;
 
@@ -63,6 +65,8 @@ public class FelixFramework {
         
     private File felixCache;
 
+    protected BundleResolutionCache resolutionCache;
+
     /**
      * Initialise and start the Felix framework. Install required bundles and the
      * OBRs. Install the Galasa framework bundle
@@ -122,6 +126,7 @@ public class FelixFramework {
 
             // Load the OSGi Bundle Repositories
             loadBundleRepositories(bundleRepositories);
+            createResolutionCache(getResolutionCacheDirectory(boostrapProperties, galasaDirectory));
 
             // Install and start the Felix OSGi console if required
             loadConsole = Boolean.parseBoolean(boostrapProperties.getProperty("dev.galasa.core.load.console", "false"));
@@ -278,36 +283,7 @@ public class FelixFramework {
             }
         } else {
             // *** Load all bundles that have IResourceManagementProvider service
-            HashSet<String> bundlesToLoad = new HashSet<>();
-
-            for (Repository repository : repositoryAdmin.listRepositories()) {
-                if (repository.getResources() != null) {
-                    resourceSearch: for (Resource resource : repository.getResources()) {
-                        if (resource.getCapabilities() != null) {
-                            for (Capability capability : resource.getCapabilities()) {
-                                if ("service".equals(capability.getName())) {
-                                    Map<String, Object> properties = capability.getPropertiesAsMap();
-                                    String services = (String) properties.get("objectClass");
-                                    if (services == null) {
-                                        services = (String) properties.get("objectClass:List<String>");
-                                    }
-                                    if (services != null) {
-                                        String[] split = services.split(",");
-
-                                        for (String service : split) {
-                                            if ("dev.galasa.framework.spi.IResourceManagementProvider"
-                                                    .equals(service)) {
-                                                bundlesToLoad.add(resource.getSymbolicName());
-                                                continue resourceSearch;
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+            Set<String> bundlesToLoad = findBundlesProvidingService("dev.galasa.framework.spi.IResourceManagementProvider");
 
             for (String bundle : bundlesToLoad) {
                 if (!isBundleActive(bundle)) {
@@ -387,36 +363,8 @@ public class FelixFramework {
                 }
             }
         } else {
-            // *** Load all bundles that have IResourceManagementProvider service
-            HashSet<String> bundlesToLoad = new HashSet<>();
-
-            for (Repository repository : repositoryAdmin.listRepositories()) {
-                if (repository.getResources() != null) {
-                    resourceSearch: for (Resource resource : repository.getResources()) {
-                        if (resource.getCapabilities() != null) {
-                            for (Capability capability : resource.getCapabilities()) {
-                                if ("service".equals(capability.getName())) {
-                                    Map<String, Object> properties = capability.getPropertiesAsMap();
-                                    String services = (String) properties.get("objectClass");
-                                    if (services == null) {
-                                        services = (String) properties.get("objectClass:List<String>");
-                                    }
-                                    if (services != null) {
-                                        String[] split = services.split(",");
-
-                                        for (String service : split) {
-                                            if ("dev.galasa.framework.spi.IMetricsProvider".equals(service)) {
-                                                bundlesToLoad.add(resource.getSymbolicName());
-                                                continue resourceSearch;
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+            // *** Load all bundles that have IMetricsProvider service
+            Set<String> bundlesToLoad = findBundlesProvidingService("dev.galasa.framework.spi.IMetricsProvider");
 
             for (String bundle : bundlesToLoad) {
                 if (!isBundleActive(bundle)) {
@@ -816,6 +764,117 @@ public class FelixFramework {
         }
     }
 
+    /**
+     * Get the directory of the bundle resolution cache, unless it has been
+     * switched off with framework.resolution.cache=false
+     * 
+     * @param boostrapProperties
+     * @param galasaDirectory
+     * @return the cache directory, or null if the cache is not used
+     */
+    private File getResolutionCacheDirectory(Properties boostrapProperties, File galasaDirectory) {
+        if (!Boolean.parseBoolean(boostrapProperties.getProperty(RESOLUTION_CACHE_PROP, "true"))) {
+            return null;
+        }
+
+        String cacheDirectory = boostrapProperties.getProperty(RESOLUTION_CACHE_DIR_PROP);
+        return cacheDirectory != null ? new File(cacheDirectory) : new File(galasaDirectory, "resolution-cache");
+    }
+
+    /**
+     * Create the bundle resolution cache for the loaded OBRs
+     * 
+     * @param cacheDirectoryFile the cache directory, or null if the cache is not used
+     * @throws LauncherException
+     */
+    private void createResolutionCache(File cacheDirectoryFile) throws LauncherException {
+        if (cacheDirectoryFile == null) {
+            return;
+        }
+
+        resolutionCache = new BundleResolutionCache(cacheDirectoryFile, repositoryAdmin.listRepositories());
+        logger.debug("Using bundle resolution cache " + resolutionCache.getFingerprint() + " in " + cacheDirectoryFile);
+
+        // *** Let the framework bundle share the resolutions in the cache. The file is only known once the
+        // *** OBRs are loaded, after the framework properties are set, and bundles see system properties
+        // *** that are not framework properties
+        System.setProperty(RESOLUTION_CACHE_FILE_PROP, resolutionCache.getCacheFile().toAbsolutePath().toString());
+    }
+
+    /**
+     * Find the bundles in the OBRs that provide an OSGi service
+     * 
+     * @param serviceInterface
+     * @return the bundle symbolic names
+     */
+    private Set<String> findBundlesProvidingService(String serviceInterface) {
+        if (resolutionCache != null) {
+            return resolutionCache.getBundlesProvidingService(serviceInterface);
+        }
+
+        Set<String> bundles = BundleResolutionCache.indexServices(repositoryAdmin.listRepositories()).get(serviceInterface);
+        return bundles != null ? bundles : new HashSet<>();
+    }
+
+    /**
+     * Install a bundle from the locations the resolver chose for it on an earlier
+     * run with the same OBRs
+     * 
+     * @param bundleSymbolicName
+     * @param locations
+     * @return true if the bundle is now active, false if it needs to be resolved
+     */
+    private boolean installCachedBundles(String bundleSymbolicName, List<String> locations) {
+        ArrayList<Bundle> bundlesToStart = new ArrayList<>();
+        ArrayList<Bundle> installedBundles = new ArrayList<>();
+        try {
+            for (String location : locations) {
+                Bundle bundle = this.framework.getBundleContext().getBundle(location);
+                if (bundle == null) {
+                    bundle = this.framework.getBundleContext().installBundle(location);
+                    installedBundles.add(bundle);
+                }
+                bundlesToStart.add(bundle);
+            }
+            for (Bundle bundle : bundlesToStart) {
+                if (bundle.getHeaders().get(Constants.FRAGMENT_HOST) == null) {
+                    bundle.start();
+                }
+            }
+        } catch (Exception e) {
+            logger.info("Unable to install the cached bundles for " + bundleSymbolicName + ", resolving it instead: " + e.getMessage());
+            uninstallBundles(installedBundles);
+            return false;
+        }
+
+        if (!isBundleActive(bundleSymbolicName)) {
+            logger.info("Cached bundles for " + bundleSymbolicName + " did not activate it, resolving it instead");
+            uninstallBundles(installedBundles);
+            return false;
+        }
+
+        logger.trace("Installed bundle " + bundleSymbolicName + " from the resolution cache");
+        printBundles();
+        return true;
+    }
+
+    /**
+     * Uninstall the bundles a failed install of cached bundles left behind, so
+     * the resolver starts from the bundles that were installed before it
+     * 
+     * @param bundles the bundles that were installed, in the order they were installed
+     */
+    private void uninstallBundles(List<Bundle> bundles) {
+        for (int i = bundles.size() - 1; i >= 0; i--) {
+            Bundle bundle = bundles.get(i);
+            try {
+                bundle.uninstall();
+            } catch (Exception e) {
+                logger.error("Unable to uninstall bundle " + bundle.getLocation(), e);
+            }
+        }
+    }
+
     /**
      * Load a bundle from the OSGi Bundle Repository
      * 
@@ -825,6 +884,16 @@ public class FelixFramework {
     private void loadBundle(String bundleSymbolicName) throws LauncherException {
 
         logger.trace("Installing bundle " + bundleSymbolicName);
+        if (resolutionCache != null) {
+            List<String> cachedLocations = resolutionCache.getBundleLocations(bundleSymbolicName);
+            if (cachedLocations != null) {
+                if (installCachedBundles(bundleSymbolicName, cachedLocations)) {
+                    return;
+                }
+                resolutionCache.removeBundleLocations(bundleSymbolicName);
+            }
+        }
+
         Resolver resolver = repositoryAdmin.resolver();
         String filterString = "(symbolicname=" + bundleSymbolicName + ")";
         Resource[] resources = null;
@@ -837,7 +906,10 @@ public class FelixFramework {
             if (resources.length == 0) {
                 throw new LauncherException("Unable to locate bundle \"" + bundleSymbolicName + "\" in OBR repository");
             }
-            addResource(bundleSymbolicName, resolver, resources[0]); // *** get first resource
+            List<String> locations = addResource(bundleSymbolicName, resolver, resources[0]); // *** get first resource
+            if (resolutionCache != null) {
+                resolutionCache.putBundleLocations(bundleSymbolicName, locations);
+            }
         } catch (LauncherException e) {
             throw new LauncherException("Unable to install bundle \"" + bundleSymbolicName + "\" from OBR repository",
                     e);
@@ -850,9 +922,10 @@ public class FelixFramework {
      * @param bundleSymbolicName
      * @param resolver
      * @param resource
+     * @return the locations of the bundles installed, in the order they were installed
      * @throws LauncherException
      */
-    private void addResource(String bundleSymbolicName, Resolver resolver, Resource resource) throws LauncherException {
+    private List<String> addResource(String bundleSymbolicName, Resolver resolver, Resource resource) throws LauncherException {
         logger.trace("Resouce: " + resource);
         resolver.add(resource);
 
@@ -915,6 +988,16 @@ public class FelixFramework {
             }
 
             printBundles();
+
+            ArrayList<String> locations = new ArrayList<>();
+            for (Resource requiredResource : requiredResources) {
+                locations.add(requiredResource.getURI());
+            }
+            for (Resource optionalResource : optionalResources) {
+                locations.add(optionalResource.getURI());
+            }
+            locations.add(resource.getURI());
+            return locations;
         } else {
             logger.error("Unable to resolve " + resource.toString());
             Reason[] unsatisfiedRequirements = resolver.getUnsatisfiedRequirements();
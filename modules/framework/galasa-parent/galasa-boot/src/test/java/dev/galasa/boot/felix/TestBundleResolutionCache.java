@@ -0,0 +1,163 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.boot.felix;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.util.List;
+
+import org.apache.felix.bundlerepository.Repository;
+import org.apache.felix.bundlerepository.Resource;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import dev.galasa.boot.mocks.MockCapability;
+import dev.galasa.boot.mocks.MockRepository;
+import dev.galasa.boot.mocks.MockResource;
+
+public class TestBundleResolutionCache {
+
+    private static final String RESOURCE_MANAGEMENT_SERVICE = "dev.galasa.framework.spi.IResourceManagementProvider";
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private Repository[] createRepositories(String frameworkVersion) {
+        MockResource framework = new MockResource("dev.galasa.framework/" + frameworkVersion, "dev.galasa.framework", "mvn:dev.galasa/dev.galasa.framework/" + frameworkVersion + "/jar");
+        framework.setCapabilities(new MockCapability("service", "objectClass", RESOURCE_MANAGEMENT_SERVICE));
+
+        MockResource zos = new MockResource("dev.galasa.zos.manager/0.1.0", "dev.galasa.zos.manager", "mvn:dev.galasa/dev.galasa.zos.manager/0.1.0/jar");
+        zos.setCapabilities(
+            new MockCapability("bundle", "symbolicname", "dev.galasa.zos.manager"),
+            new MockCapability("service", "objectClass:List<String>", "dev.galasa.framework.spi.IManager," + RESOURCE_MANAGEMENT_SERVICE));
+
+        MockResource metrics = new MockResource("dev.galasa.metrics/0.1.0", "dev.galasa.metrics", "mvn:dev.galasa/dev.galasa.metrics/0.1.0/jar");
+
+        return new Repository[] { new MockRepository("file:/obr.xml", framework, zos, metrics) };
+    }
+
+    @Test
+    public void testResolvedBundlesAreAvailableToALaterLauncher() throws Exception {
+        // Given...
+        File cacheDirectory = tempFolder.newFolder("cache");
+        BundleResolutionCache cache = new BundleResolutionCache(cacheDirectory, createRepositories("1.0.0"));
+        List<String> locations = List.of("mvn:dev.galasa/dev.galasa.wrapping.gson/2.10.1/jar", "mvn:dev.galasa/dev.galasa.framework/1.0.0/jar");
+
+        // When...
+        cache.putBundleLocations("dev.galasa.framework", locations);
+        BundleResolutionCache laterCache = new BundleResolutionCache(cacheDirectory, createRepositories("1.0.0"));
+
+        // Then...
+        assertThat(laterCache.getFingerprint()).isEqualTo(cache.getFingerprint());
+        assertThat(laterCache.getBundleLocations("dev.galasa.framework")).containsExactlyElementsOf(locations);
+        assertThat(laterCache.getBundleLocations("dev.galasa.zos.manager")).isNull();
+    }
+
+    @Test
+    public void testChangedRepositoriesDoNotUseTheCache() throws Exception {
+        // Given...
+        File cacheDirectory = tempFolder.newFolder("cache");
+        BundleResolutionCache cache = new BundleResolutionCache(cacheDirectory, createRepositories("1.0.0"));
+        cache.putBundleLocations("dev.galasa.framework", List.of("mvn:dev.galasa/dev.galasa.framework/1.0.0/jar"));
+
+        // When...
+        BundleResolutionCache newObrCache = new BundleResolutionCache(cacheDirectory, createRepositories("1.0.1"));
+
+        // Then...
+        assertThat(newObrCache.getFingerprint()).isNotEqualTo(cache.getFingerprint());
+        assertThat(newObrCache.getBundleLocations("dev.galasa.framework")).isNull();
+    }
+
+    @Test
+    public void testRemovedBundleIsNoLongerCached() throws Exception {
+        // Given...
+        File cacheDirectory = tempFolder.newFolder("cache");
+        BundleResolutionCache cache = new BundleResolutionCache(cacheDirectory, createRepositories("1.0.0"));
+        cache.putBundleLocations("dev.galasa.framework", List.of("mvn:dev.galasa/dev.galasa.framework/1.0.0/jar"));
+
+        // When...
+        cache.removeBundleLocations("dev.galasa.framework");
+
+        // Then...
+        assertThat(cache.getBundleLocations("dev.galasa.framework")).isNull();
+        assertThat(new BundleResolutionCache(cacheDirectory, createRepositories("1.0.0")).getBundleLocations("dev.galasa.framework")).isNull();
+    }
+
+    @Test
+    public void testServiceIndexFindsBundlesProvidingAService() throws Exception {
+        // Given...
+        File cacheDirectory = tempFolder.newFolder("cache");
+        BundleResolutionCache cache = new BundleResolutionCache(cacheDirectory, createRepositories("1.0.0"));
+
+        // When...
+        cache.getBundlesProvidingService(RESOURCE_MANAGEMENT_SERVICE);
+
+        // Then...
+        // A later launcher uses the saved index without searching the capabilities again
+        Repository[] repositoriesWithoutCapabilities = createRepositories("1.0.0");
+        for (Resource resource : repositoriesWithoutCapabilities[0].getResources()) {
+            ((MockResource) resource).setCapabilities();
+        }
+        BundleResolutionCache laterCache = new BundleResolutionCache(cacheDirectory, repositoriesWithoutCapabilities);
+        assertThat(laterCache.getBundlesProvidingService(RESOURCE_MANAGEMENT_SERVICE))
+            .containsExactlyInAnyOrder("dev.galasa.framework", "dev.galasa.zos.manager");
+        assertThat(laterCache.getBundlesProvidingService("dev.galasa.framework.spi.IManager"))
+            .containsExactly("dev.galasa.zos.manager");
+        assertThat(laterCache.getBundlesProvidingService("dev.galasa.framework.spi.IMetricsProvider")).isEmpty();
+    }
+
+    @Test
+    public void testRepublishedRepositoryDoesNotUseTheCache() throws Exception {
+        // Given...
+        File cacheDirectory = tempFolder.newFolder("cache");
+        Repository[] repositories = createRepositories("1.0.0");
+        ((MockRepository) repositories[0]).setLastModified(1000);
+        BundleResolutionCache cache = new BundleResolutionCache(cacheDirectory, repositories);
+        cache.putBundleLocations("dev.galasa.framework", List.of("mvn:dev.galasa/dev.galasa.framework/1.0.0/jar"));
+
+        // When...
+        Repository[] republished = createRepositories("1.0.0");
+        ((MockRepository) republished[0]).setLastModified(2000);
+        BundleResolutionCache republishedCache = new BundleResolutionCache(cacheDirectory, republished);
+
+        // Then...
+        assertThat(republishedCache.getFingerprint()).isNotEqualTo(cache.getFingerprint());
+        assertThat(republishedCache.getBundleLocations("dev.galasa.framework")).isNull();
+    }
+
+    @Test
+    public void testChangesAreMergedWithEntriesWrittenSinceTheCacheWasRead() throws Exception {
+        // Given...
+        File cacheDirectory = tempFolder.newFolder("cache");
+        BundleResolutionCache cache = new BundleResolutionCache(cacheDirectory, createRepositories("1.0.0"));
+        BundleResolutionCache otherCache = new BundleResolutionCache(cacheDirectory, createRepositories("1.0.0"));
+
+        // When...
+        otherCache.putBundleLocations("dev.galasa.zos.manager", List.of("mvn:dev.galasa/dev.galasa.zos.manager/0.1.0/jar"));
+        cache.putBundleLocations("dev.galasa.framework", List.of("mvn:dev.galasa/dev.galasa.framework/1.0.0/jar"));
+
+        // Then...
+        BundleResolutionCache laterCache = new BundleResolutionCache(cacheDirectory, createRepositories("1.0.0"));
+        assertThat(laterCache.getBundleLocations("dev.galasa.framework")).containsExactly("mvn:dev.galasa/dev.galasa.framework/1.0.0/jar");
+        assertThat(laterCache.getBundleLocations("dev.galasa.zos.manager")).containsExactly("mvn:dev.galasa/dev.galasa.zos.manager/0.1.0/jar");
+    }
+
+    @Test
+    public void testCacheFileIsNamedForTheOBRsInTheCacheDirectory() throws Exception {
+        // Given...
+        File cacheDirectory = tempFolder.newFolder("cache");
+        BundleResolutionCache cache = new BundleResolutionCache(cacheDirectory, createRepositories("1.0.0"));
+
+        // When...
+        cache.putBundleLocations("dev.galasa.framework", List.of("mvn:dev.galasa/dev.galasa.framework/1.0.0/jar"));
+
+        // Then...
+        assertThat(cache.getCacheFile()).isEqualTo(cacheDirectory.toPath().resolve(cache.getFingerprint() + ".properties"));
+        assertThat(cache.getCacheFile()).exists();
+    }
+}
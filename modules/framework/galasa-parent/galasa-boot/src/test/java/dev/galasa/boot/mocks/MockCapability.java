@@ -0,0 +1,43 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.boot.mocks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.felix.bundlerepository.Capability;
+import org.apache.felix.bundlerepository.Property;
+
+public class MockCapability implements Capability {
+
+    private String name;
+    private Map<String, Object> properties = new HashMap<>();
+
+    public MockCapability(String name, String propertyName, Object propertyValue) {
+        this.name = name;
+        this.properties.put(propertyName, propertyValue);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Property[] getProperties() {
+        throw new UnsupportedOperationException("Unimplemented method 'getProperties'");
+    }
+
+    @Override
+    public Map<String, Object> getPropertiesAsMap() {
+        return properties;
+    }
+
+    @Override
+    public Map<String, String> getDirectives() {
+        throw new UnsupportedOperationException("Unimplemented method 'getDirectives'");
+    }
+}
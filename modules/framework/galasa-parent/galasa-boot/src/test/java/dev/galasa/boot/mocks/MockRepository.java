@@ -0,0 +1,45 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.boot.mocks;
+
+import org.apache.felix.bundlerepository.Repository;
+import org.apache.felix.bundlerepository.Resource;
+
+public class MockRepository implements Repository {
+
+    private String uri;
+    private Resource[] resources;
+    private long lastModified;
+
+    public MockRepository(String uri, Resource... resources) {
+        this.uri = uri;
+        this.resources = resources;
+    }
+
+    public void setLastModified(long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    @Override
+    public String getURI() {
+        return uri;
+    }
+
+    @Override
+    public Resource[] getResources() {
+        return resources;
+    }
+
+    @Override
+    public String getName() {
+        return uri;
+    }
+
+    @Override
+    public long getLastModified() {
+        return lastModified;
+    }
+}
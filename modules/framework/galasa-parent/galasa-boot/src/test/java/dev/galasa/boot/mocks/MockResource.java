@@ -17,6 +17,7 @@ public class MockResource implements Resource {
     private String id;
     private String symbolicName;
     private String uri;
+    private Capability[] capabilities;
 
     public MockResource(String id, String symbolicName, String uri) {
         this.id = id;
@@ -65,9 +66,13 @@ public class MockResource implements Resource {
         throw new UnsupportedOperationException("Unimplemented method 'getCategories'");
     }
 
+    public void setCapabilities(Capability... capabilities) {
+        this.capabilities = capabilities;
+    }
+
     @Override
     public Capability[] getCapabilities() {
-        throw new UnsupportedOperationException("Unimplemented method 'getCapabilities'");
+        return capabilities;
     }
 
     @Override
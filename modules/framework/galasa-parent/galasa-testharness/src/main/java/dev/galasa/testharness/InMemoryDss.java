@@ -9,6 +9,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.UUID;
@@ -16,7 +17,13 @@ import java.util.UUID;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Null;
 
+import dev.galasa.framework.spi.DssAdd;
+import dev.galasa.framework.spi.DssDelete;
+import dev.galasa.framework.spi.DssDeletePrefix;
+import dev.galasa.framework.spi.DssSwap;
+import dev.galasa.framework.spi.DssUpdate;
 import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.DynamicStatusStoreMatchException;
 import dev.galasa.framework.spi.IDssAction;
 import dev.galasa.framework.spi.IDynamicStatusStore;
 import dev.galasa.framework.spi.IDynamicStatusStoreWatcher;
@@ -45,8 +52,8 @@ public class InMemoryDss implements IDynamicStatusStore {
 
     @Override
     public synchronized void put(@NotNull Map<String, String> keyValues) throws DynamicStatusStoreException {
-        for(Entry<Object, Object> entry : this.properties.entrySet()) {
-            put((String)entry.getKey(), (String)entry.getValue());
+        for(Entry<String, String> entry : keyValues.entrySet()) {
+            put(entry.getKey(), entry.getValue());
         }
     }
 
@@ -61,10 +68,7 @@ public class InMemoryDss implements IDynamicStatusStore {
             throws DynamicStatusStoreException {
         
         String value = this.properties.getProperty(key);
-        if (oldValue == null && value != null) {
-            return false;
-        }
-        if (!oldValue.equals(value)) {
+        if (!Objects.equals(oldValue, value)) {
             return false;
         }
         
@@ -78,10 +82,7 @@ public class InMemoryDss implements IDynamicStatusStore {
             @NotNull Map<String, String> others) throws DynamicStatusStoreException {
 
         String value = this.properties.getProperty(key);
-        if (oldValue == null && value != null) {
-            return false;
-        }
-        if (!oldValue.equals(value)) {
+        if (!Objects.equals(oldValue, value)) {
             return false;
         }
         
@@ -205,10 +206,46 @@ public class InMemoryDss implements IDynamicStatusStore {
     }
 
 
+    /**
+     * Performs the actions as one transaction, in the way the etcd DSS does, so
+     * either every condition matches and every action is applied, or none are
+     */
     @Override
-    public void performActions(IDssAction... actions) throws DynamicStatusStoreException {
-        throw new DynamicStatusStoreException("Need to add support for actions");
-        
+    public synchronized void performActions(IDssAction... actions) throws DynamicStatusStoreException, DynamicStatusStoreMatchException {
+        for(IDssAction action : actions) {
+            if (action instanceof DssAdd) {
+                String key = ((DssAdd) action).getKey();
+                if (this.properties.getProperty(key) != null) {
+                    throw new DynamicStatusStoreMatchException("Attempt to add new property '" + key + "' but it already exists");
+                }
+            } else if (action instanceof DssDelete) {
+                DssDelete delete = (DssDelete) action;
+                if (delete.getOldValue() != null && !delete.getOldValue().equals(this.properties.getProperty(delete.getKey()))) {
+                    throw new DynamicStatusStoreMatchException("Attempt to delete property '" + delete.getKey() + "' but its value does not match");
+                }
+            } else if (action instanceof DssSwap) {
+                DssSwap swap = (DssSwap) action;
+                if (!Objects.equals(swap.getOldValue(), this.properties.getProperty(swap.getKey()))) {
+                    throw new DynamicStatusStoreMatchException("Attempt to swap property '" + swap.getKey() + "' but its value does not match");
+                }
+            } else if (!(action instanceof DssUpdate) && !(action instanceof DssDeletePrefix)) {
+                throw new DynamicStatusStoreException("Unrecognised DSS Action - " + action.getClass().getName());
+            }
+        }
+
+        for(IDssAction action : actions) {
+            if (action instanceof DssAdd) {
+                put(((DssAdd) action).getKey(), ((DssAdd) action).getValue());
+            } else if (action instanceof DssUpdate) {
+                put(((DssUpdate) action).getKey(), ((DssUpdate) action).getValue());
+            } else if (action instanceof DssSwap) {
+                put(((DssSwap) action).getKey(), ((DssSwap) action).getNewValue());
+            } else if (action instanceof DssDelete) {
+                delete(((DssDelete) action).getKey());
+            } else if (action instanceof DssDeletePrefix) {
+                deletePrefix(((DssDeletePrefix) action).getPrefix());
+            }
+        }
     }
 
 
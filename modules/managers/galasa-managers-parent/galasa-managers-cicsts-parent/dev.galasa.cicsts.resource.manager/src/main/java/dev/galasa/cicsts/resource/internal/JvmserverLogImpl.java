@@ -13,7 +13,6 @@ import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.regex.Pattern;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -38,6 +37,9 @@ public class JvmserverLogImpl implements IJvmserverLog, ITextScannable {
     private ILogScanner logScanner;
     private String scannableName;
     
+    // The number of complete records in the log when it was checkpointed
+    private int checkpointRecord;
+
     private static final String LOG_PROBLEM_SEARCHING_LOG = "Problem searching log for ";
     private static final String LOG_SINCE_CHECKPOINT = " since last checkpoint";
 
@@ -101,18 +103,29 @@ public class JvmserverLogImpl implements IJvmserverLog, ITextScannable {
     @Override
     public OutputStream retrieve() throws CicsJvmserverResourceException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            baos.write(retrieveContent(0).getBytes());
+        } catch (IOException e) {
+            throw new CicsJvmserverResourceException("Problem retrieving content of log", e);
+        }
+        return baos;
+    }
+
+    /**
+     * Retrieve the content of the log from a record onwards, so only those records are transferred
+     */
+    protected String retrieveContent(int fromRecord) throws CicsJvmserverResourceException {
         try {
             if (isZosUNIXFile()) {
-                baos.write(this.zosUnixFile.retrieveAsText().getBytes());
+                return this.zosUnixFile.retrieveAsText(fromRecord);
             } else if (isZosBatchJobSpoolFile()) {
-                baos.write(this.zosBatchJobOutputSpoolFile.getRecords().getBytes());
+                return this.zosBatchJobOutputSpoolFile.retrieveRecords(fromRecord);
             } else {
                 throw new CicsJvmserverResourceException("Log is not a zOS UNIX File or zOS Batch Job spool file");
             }
-        } catch (ZosUNIXFileException | IOException e) {
+        } catch (ZosUNIXFileException | ZosBatchException e) {
             throw new CicsJvmserverResourceException("Problem retrieving content of log", e);
         }
-        return baos;
     }
     
     @Override
@@ -122,6 +135,7 @@ public class JvmserverLogImpl implements IJvmserverLog, ITextScannable {
         }
         try {
             this.zosUnixFile.delete();
+            this.checkpointRecord = 0;
         } catch (ZosUNIXFileException e) {
             throw new CicsJvmserverResourceException("Unable to delete Log", e);
         }
@@ -143,16 +157,25 @@ public class JvmserverLogImpl implements IJvmserverLog, ITextScannable {
     }
 
     @Override
-    public long checkpoint() throws CicsJvmserverResourceException {
-        try {
-            if (isZosUNIXFile()) {
-                this.logScanner.setCheckpoint(this.zosUnixFile.getSize());
-            } else if (isZosBatchJobSpoolFile()) {
-                this.logScanner.setCheckpoint(this.zosBatchJobOutputSpoolFile.getSize());
-            } else {
-                throw new CicsJvmserverResourceException("Log is not a zOS UNIX File or zOS Batch Job spool file");
+    public synchronized long checkpoint() throws CicsJvmserverResourceException {
+        long checkpoint = getCheckpoint();
+        if (checkpoint == -1) {
+            this.checkpointRecord = 0;
+            checkpoint = 0;
+        }
+
+        // Only the records added since the last checkpoint are retrieved. The last record may still be
+        // being written, so it is left until the next checkpoint
+        String addedRecords = retrieveContent(this.checkpointRecord);
+        int completeLength = addedRecords.lastIndexOf('\n') + 1;
+        for (int i = 0; i < completeLength; i++) {
+            if (addedRecords.charAt(i) == '\n') {
+                this.checkpointRecord++;
             }
-        } catch (TextScanException | ZosUNIXFileException | ZosBatchException e) {
+        }
+        try {
+            this.logScanner.setCheckpoint(checkpoint + completeLength);
+        } catch (TextScanException e) {
             throw new CicsJvmserverResourceException("Unable to set checkpoint", e);
         }
         
@@ -165,20 +188,15 @@ public class JvmserverLogImpl implements IJvmserverLog, ITextScannable {
     }
 
     @Override
-    public OutputStream retrieveSinceCheckpoint() throws CicsJvmserverResourceException {
+    public synchronized OutputStream retrieveSinceCheckpoint() throws CicsJvmserverResourceException {
         try {
-            ByteArrayInputStream bais = new ByteArrayInputStream(((ByteArrayOutputStream) retrieve()).toByteArray());
-            long checkpoint = getCheckpoint();
-            if (checkpoint == -1) {
+            int fromRecord = this.checkpointRecord;
+            if (getCheckpoint() == -1) {
             	logger.warn("Log '" + this.scannableName + "' has not been checkpointed");
-            } else {
-	            long skipped = bais.skip(checkpoint);
-	            if (skipped != getCheckpoint()) {
-	                throw new IOException("Failed to skip " + checkpoint + " bytes. Actual bytes skipped " + skipped);
-	            }
+            	fromRecord = 0;
             }
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            IOUtils.copy(bais, baos);
+            baos.write(retrieveContent(fromRecord).getBytes());
             return baos;
         } catch (IOException e) {
             throw new CicsJvmserverResourceException("Problem retrieving log since last checkpoint", e);
@@ -431,11 +449,27 @@ public class JvmserverLogImpl implements IJvmserverLog, ITextScannable {
     @Override
     public String getScannableString() throws TextScanException {
         try {
-            return new String(((ByteArrayOutputStream) retrieve()).toByteArray());
+            return retrieveContent(0);
         } catch (CicsJvmserverResourceException e) {
             throw new TextScanException("Problem retrieving " + getScannableName(), e);
         }
     }
+
+    /**
+     * Only the records added since the checkpoint are retrieved, unless the scanner was given a checkpoint
+     * of its own that does not match the records counted by {@link #checkpoint()}
+     */
+    @Override
+    public synchronized String getScannableStringSinceCheckpoint(long checkpoint) throws TextScanException {
+        if (checkpoint != getCheckpoint()) {
+            return getScannableString().substring((int) checkpoint);
+        }
+        try {
+            return retrieveContent(this.checkpointRecord);
+        } catch (CicsJvmserverResourceException e) {
+            throw new TextScanException("Problem retrieving " + getScannableName() + LOG_SINCE_CHECKPOINT, e);
+        }
+    }
     
     @Override
     public String toString() {
@@ -431,6 +431,15 @@ public interface IHttpClient {
     IHttpClient setupClientAuth(KeyStore clientKeyStore, KeyStore serverKeyStore, String alias, String password)
             throws HttpClientException;
 
+    /**
+     * Set the number of connections the client keeps to each host, which is
+     * how many requests can be in flight to one host at once. The default is 2.
+     * 
+     * @param maxConnections
+     * @return the updated client
+     */
+    IHttpClient setMaxConnectionsPerRoute(int maxConnections);
+
     /**
      * Set the URI endpoint for this client
      * 
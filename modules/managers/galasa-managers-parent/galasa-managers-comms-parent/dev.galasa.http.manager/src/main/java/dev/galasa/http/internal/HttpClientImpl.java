@@ -81,6 +81,8 @@ import jakarta.xml.bind.annotation.XmlType;
 
 public class HttpClientImpl implements IHttpClient {
 
+    // The total the client allows across all hosts unless it is told otherwise
+    private static final int    DEFAULT_MAX_CONNECTIONS_TOTAL = 20;
     
 
     private CloseableHttpClient httpClient;
@@ -96,6 +98,7 @@ public class HttpClientImpl implements IHttpClient {
     private CredentialsProvider credentialsProvider  = new BasicCredentialsProvider();
     private HttpClientContext   httpContext          = null;
     private Set<Integer>        okResponseCodes      = new HashSet<>();
+    private int                 maxConnectionsPerRoute;
 
     private Log                 logger;
 
@@ -435,6 +438,19 @@ public class HttpClientImpl implements IHttpClient {
         return this;
     }
 
+    /**
+     * Set the number of connections kept to each host
+     * 
+     * @param maxConnections
+     * @return the updated client
+     */
+    public IHttpClient setMaxConnectionsPerRoute(int maxConnections) {
+
+        this.maxConnectionsPerRoute = maxConnections;
+
+        return this;
+    }
+
     /**
      * Set the hostname verifier
      * 
@@ -528,6 +544,11 @@ public class HttpClientImpl implements IHttpClient {
                           .setConnectionRequestTimeout(timeout).setSocketTimeout(timeout);
         }
 
+        if (maxConnectionsPerRoute > 0) {
+            builder.setMaxConnPerRoute(maxConnectionsPerRoute);
+            builder.setMaxConnTotal(Math.max(maxConnectionsPerRoute, DEFAULT_MAX_CONNECTIONS_TOTAL));
+        }
+
         if (sslContext != null) {
             SSLConnectionSocketFactory csf = new SSLConnectionSocketFactory(sslContext, hostnameVerifier);
             builder.setSSLSocketFactory(csf);
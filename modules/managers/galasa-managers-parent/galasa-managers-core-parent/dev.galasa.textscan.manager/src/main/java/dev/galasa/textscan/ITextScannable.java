@@ -63,4 +63,17 @@ public interface ITextScannable {
      * @throws TextScanException if there is an error retrieving the text
      */
 	public String getScannableString() throws TextScanException;
+    
+    /**
+     * Fetch the scannable text added since a checkpoint. Scannables that can retrieve part of their text, 
+     * such as a log on a remote system, should override this so a scan since a checkpoint only transfers
+     * the text added since then.
+     * 
+     * @param checkpoint The checkpoint, the length of the scannable text when it was checkpointed
+     * @return The scannable text from the checkpoint onwards
+     * @throws TextScanException if there is an error retrieving the text
+     */
+	public default String getScannableStringSinceCheckpoint(long checkpoint) throws TextScanException {
+		return getScannableString().substring((int) checkpoint);
+	}
 }
@@ -6,31 +6,27 @@
 package dev.galasa.textscan.internal;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
 
 import dev.galasa.textscan.FailTextFoundException;
 import dev.galasa.textscan.ILogScanner;
 import dev.galasa.textscan.ITextScannable;
-import dev.galasa.textscan.ITextScanner;
 import dev.galasa.textscan.IncorrectOccurrencesException;
 import dev.galasa.textscan.MissingTextException;
 import dev.galasa.textscan.TextScanException;
 
 public class LogScannerImpl implements ILogScanner {
 	
-	private static final Log logger = LogFactory.getLog(LogScannerImpl.class);
-
 	private static final String MESSAGE_PROBLEM_SCANNING = "Problem scanning '";
 
 	private static final String MESSAGE_UNKNOWN_SCANNABLE_TYPE = "Unknown scannable type";
 
 	private static final String QUOTE = "'";
 	
-	private ITextScanner textScanner = new TextScannerImpl();
+	private TextScannerImpl textScanner = new TextScannerImpl();
     private ITextScannable scannable;
 	private String scannableName;
 	protected long checkpoint = -1;
@@ -61,8 +57,9 @@ public class LogScannerImpl implements ILogScanner {
     	checkScannableNoNull();
     	if (this.scannable.isScannableInputStream()) {
     		try {
-				byte[] bytes = IOUtils.toByteArray(this.scannable.getScannableInputStream());
-				this.checkpoint = bytes.length;
+				try (InputStream inputStream = this.scannable.getScannableInputStream()) {
+					this.checkpoint = IOUtils.consume(inputStream);
+				}
 			} catch (IOException e) {
 	    		throw new TextScanException("Unable to checkpoint scannable '" + this.scannableName + QUOTE, e);
 			}
@@ -97,10 +94,9 @@ public class LogScannerImpl implements ILogScanner {
     	checkIsCheckpointed();
     	try {
     		if (this.scannable.isScannableInputStream()) {
-    			skipToCheckpoint();
-    			this.textScanner.scan(this.scannable.getScannableInputStream(), searchPattern, failPattern, count);
+    			this.textScanner.scan(updatedScannableInputStream(), this.checkpoint, searchPattern, failPattern, count);
     		} else if (this.scannable.isScannableString()) {
-    			this.textScanner.scan(this.scannable.getScannableString().substring((int) this.checkpoint), searchPattern, failPattern, count);
+    			this.textScanner.scan(this.scannable.getScannableStringSinceCheckpoint(this.checkpoint), searchPattern, failPattern, count);
     		} else {
     			throw new TextScanException(MESSAGE_UNKNOWN_SCANNABLE_TYPE);
     		}
@@ -121,10 +117,9 @@ public class LogScannerImpl implements ILogScanner {
     	checkIsCheckpointed();
     	try {
     		if (this.scannable.isScannableInputStream()) {
-    			skipToCheckpoint();
-    			this.textScanner.scan(this.scannable.getScannableInputStream(), searchString, failString, count);
+    			this.textScanner.scan(updatedScannableInputStream(), this.checkpoint, searchString, failString, count);
     		} else if (this.scannable.isScannableString()) {
-    			this.textScanner.scan(this.scannable.getScannableString().substring((int) this.checkpoint), searchString, failString, count);
+    			this.textScanner.scan(this.scannable.getScannableStringSinceCheckpoint(this.checkpoint), searchString, failString, count);
     		} else {
     			throw new TextScanException(MESSAGE_UNKNOWN_SCANNABLE_TYPE);
     		}
@@ -145,10 +140,9 @@ public class LogScannerImpl implements ILogScanner {
     	checkIsCheckpointed();
     	try {
     		if (this.scannable.isScannableInputStream()) {
-    			skipToCheckpoint();
-    			return this.textScanner.scanForMatch(this.scannable.getScannableInputStream(), searchPattern, failPattern, occurrance);
+    			return this.textScanner.scanForMatch(updatedScannableInputStream(), this.checkpoint, searchPattern, failPattern, occurrance);
     		} else if (this.scannable.isScannableString()) {
-    			return this.textScanner.scanForMatch(this.scannable.getScannableString().substring((int) this.checkpoint), searchPattern, failPattern, occurrance);
+    			return this.textScanner.scanForMatch(this.scannable.getScannableStringSinceCheckpoint(this.checkpoint), searchPattern, failPattern, occurrance);
     		} else {
     			throw new TextScanException(MESSAGE_UNKNOWN_SCANNABLE_TYPE);
     		}
@@ -166,10 +160,9 @@ public class LogScannerImpl implements ILogScanner {
     	checkIsCheckpointed();
     	try {
     		if (this.scannable.isScannableInputStream()) {
-    			skipToCheckpoint();
-    			return this.textScanner.scanForMatch(this.scannable.getScannableInputStream(), searchString, failString, occurrance);
+    			return this.textScanner.scanForMatch(updatedScannableInputStream(), this.checkpoint, searchString, failString, occurrance);
     		} else if (this.scannable.isScannableString()) {
-    			return this.textScanner.scanForMatch(this.scannable.getScannableString().substring((int) this.checkpoint), searchString, failString, occurrance);
+    			return this.textScanner.scanForMatch(this.scannable.getScannableStringSinceCheckpoint(this.checkpoint), searchString, failString, occurrance);
     		} else {
     			throw new TextScanException(MESSAGE_UNKNOWN_SCANNABLE_TYPE);
     		}
@@ -287,20 +280,13 @@ public class LogScannerImpl implements ILogScanner {
 		}
 	}
 
-	protected void skipToCheckpoint() throws TextScanException {
-		if (getCheckpoint() == -1) {
-			logger.warn("Log '" + this.scannableName + "' has not been checkpointed");
-			return;
-		}
-		try {
-			this.scannable.updateScannable();
-			long skipped = this.scannable.getScannableInputStream().skip(this.checkpoint);
-			if (skipped != this.checkpoint) {
-				throw new IOException("Failed to skip " + checkpoint + " bytes. Actual bytes skipped " + skipped);
-			}
-		} catch (IOException e) {
-			throw new TextScanException("Unable to skip to checkpoint of scannable '" + this.scannableName + QUOTE, e);
-		}
+	/**
+	 * Refresh the scannable and fetch its stream, for a scan that resumes from
+	 * the checkpoint
+	 */
+	protected InputStream updatedScannableInputStream() throws TextScanException {
+		this.scannable.updateScannable();
+		return this.scannable.getScannableInputStream();
 	}
 
 }
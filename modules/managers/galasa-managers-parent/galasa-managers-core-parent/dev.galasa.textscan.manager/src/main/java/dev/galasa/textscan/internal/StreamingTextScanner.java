@@ -0,0 +1,284 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.textscan.internal;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Scans an InputStream for a set of patterns in a single pass.
+ *
+ * The text is read a chunk at a time into a window, and every pattern of the
+ * set is searched for in each chunk as it arrives, so each character is read
+ * once however many patterns there are. Matches are counted in the same way
+ * as a scan of a String, without overlapping.
+ *
+ * Once a pattern has been searched for to the end of the window, all but the
+ * last overlap characters are dropped, so a match may span chunks but the
+ * window stays bounded. A match that reaches the end of the window, and may
+ * grow with more text, is held back until the next chunk, unless it is
+ * already longer than the overlap.
+ *
+ * The scan can start from a byte offset, such as a checkpoint, and reports
+ * the byte offset it read to so a later scan can resume from there.
+ *
+ *
+ *
+ */
+public class StreamingTextScanner {
+
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+	public static final int DEFAULT_OVERLAP    = 16 * 1024;
+
+	/**
+	 * A pattern to scan for, and what was found of it
+	 */
+	public static class Search {
+		private final Pattern pattern;
+		private final int     limit;
+		private final boolean stopsScan;
+
+		private Matcher       matcher;
+		private long          nextStart;
+		private int           found;
+		private String        lastMatch;
+		private long          lastMatchOffset;
+
+		private Search(Pattern pattern, int limit, boolean stopsScan) {
+			this.pattern = pattern;
+			this.limit = limit;
+			this.stopsScan = stopsScan;
+		}
+
+		public int getFound() {
+			return this.found;
+		}
+
+		/**
+		 * @return the text of the last match found, or null if there was none
+		 */
+		public String getLastMatch() {
+			return this.lastMatch;
+		}
+
+		/**
+		 * @return the character offset of the last match from where the scan started, or -1 if there was none
+		 */
+		public long getLastMatchOffset() {
+			return this.lastMatchOffset;
+		}
+
+		private boolean isComplete() {
+			return this.limit > 0 && this.found >= this.limit;
+		}
+	}
+
+	private static class CountingInputStream extends FilterInputStream {
+		private long count;
+
+		private CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b != -1) {
+				this.count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int length = super.read(b, off, len);
+			if (length > 0) {
+				this.count += length;
+			}
+			return length;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			this.count += skipped;
+			return skipped;
+		}
+	}
+
+	private final int          chunkSize;
+	private final int          overlap;
+	private final List<Search> searches = new ArrayList<>();
+
+	private StringBuilder      window;
+	private long               windowStart;
+	private long               bytesRead;
+
+	public StreamingTextScanner() {
+		this(DEFAULT_CHUNK_SIZE, DEFAULT_OVERLAP);
+	}
+
+	/**
+	 * @param chunkSize - the number of characters read at a time
+	 * @param overlap   - the number of characters kept from the previous chunk,
+	 *                  the longest a match that spans chunks is expected to be
+	 */
+	public StreamingTextScanner(int chunkSize, int overlap) {
+		this.chunkSize = chunkSize;
+		this.overlap = overlap;
+	}
+
+	/**
+	 * Add a pattern to the set scanned for
+	 *
+	 * @param pattern   - the pattern
+	 * @param limit     - stop searching for the pattern after this many matches,
+	 *                  or 0 to count every match
+	 * @param stopsScan - end the scan once the limit is reached
+	 * @return the search, which holds what is found once the scan is done
+	 */
+	public Search addSearch(Pattern pattern, int limit, boolean stopsScan) {
+		Search search = new Search(pattern, limit, stopsScan);
+		this.searches.add(search);
+		return search;
+	}
+
+	/**
+	 * Scan the stream for the patterns, until the end of the stream, a
+	 * stopping search reaches its limit or all the searches reach theirs. The
+	 * stream is closed.
+	 *
+	 * @param inputStream - the text to scan
+	 * @param fromByte    - the byte offset in the stream to start scanning from
+	 * @throws IOException if the stream cannot be read, or is shorter than fromByte
+	 */
+	public void scan(InputStream inputStream, long fromByte) throws IOException {
+		try (CountingInputStream counting = new CountingInputStream(inputStream);
+				Reader reader = new InputStreamReader(counting)) {
+			IOUtils.skipFully(counting, fromByte);
+
+			this.window = new StringBuilder(this.chunkSize + this.overlap);
+			this.windowStart = 0;
+			for (Search search : this.searches) {
+				search.matcher = search.pattern.matcher(this.window).useTransparentBounds(true).useAnchoringBounds(false);
+				search.nextStart = 0;
+				search.found = 0;
+				search.lastMatch = null;
+				search.lastMatchOffset = -1;
+			}
+
+			char[] chunk = new char[this.chunkSize];
+			boolean endOfStream = false;
+			while (!endOfStream) {
+				int length = reader.read(chunk);
+				if (length == -1) {
+					endOfStream = true;
+				} else {
+					this.window.append(chunk, 0, length);
+				}
+
+				if (searchWindow(endOfStream)) {
+					break;
+				}
+				dropSearchedText();
+			}
+
+			this.bytesRead = counting.count;
+		} finally {
+			this.window = null;
+		}
+	}
+
+	/**
+	 * @return the byte offset in the stream the last scan read up to, which is
+	 *         the length of the stream if it was scanned to the end
+	 */
+	public long getBytesRead() {
+		return this.bytesRead;
+	}
+
+	/**
+	 * Search the window for every pattern, so the searches of a chunk that
+	 * ends the scan are all complete
+	 *
+	 * @return true if the scan is done
+	 */
+	private boolean searchWindow(boolean endOfStream) {
+		boolean allComplete = true;
+		boolean stopped = false;
+		for (Search search : this.searches) {
+			if (!search.isComplete()) {
+				searchWindow(search, endOfStream);
+			}
+
+			if (!search.isComplete()) {
+				allComplete = false;
+			} else if (search.stopsScan) {
+				stopped = true;
+			}
+		}
+		return stopped || allComplete;
+	}
+
+	private void searchWindow(Search search, boolean endOfStream) {
+		Matcher matcher = search.matcher;
+		int windowLength = this.window.length();
+		int heldBackFrom = windowLength - this.overlap;
+		matcher.reset();
+
+		while (!search.isComplete()) {
+			int from = (int) (search.nextStart - this.windowStart);
+			if (from > windowLength) {
+				return;
+			}
+			matcher.region(from, windowLength);
+
+			if (!matcher.find()) {
+				if (!endOfStream) {
+					// *** A match may yet start in the overlap, once more text arrives
+					search.nextStart = Math.max(search.nextStart, this.windowStart + heldBackFrom);
+				}
+				return;
+			}
+
+			if (!endOfStream && matcher.hitEnd() && matcher.end() - matcher.start() <= this.overlap) {
+				// *** The match may be longer, or different, with more text
+				search.nextStart = this.windowStart + matcher.start();
+				return;
+			}
+
+			search.found++;
+			search.lastMatch = matcher.group();
+			search.lastMatchOffset = this.windowStart + matcher.start();
+			int end = (matcher.end() == matcher.start()) ? matcher.end() + 1 : matcher.end();
+			search.nextStart = this.windowStart + end;
+		}
+	}
+
+	private void dropSearchedText() {
+		long keepFrom = this.windowStart + this.window.length();
+		for (Search search : this.searches) {
+			if (!search.isComplete()) {
+				keepFrom = Math.min(keepFrom, search.nextStart);
+			}
+		}
+
+		int drop = (int) (keepFrom - this.windowStart);
+		if (drop > 0) {
+			this.window.delete(0, drop);
+			this.windowStart = keepFrom;
+		}
+	}
+}
@@ -5,12 +5,8 @@
  */
 package dev.galasa.textscan.internal;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -110,62 +106,60 @@ public class TextScannerImpl implements ITextScanner {
 
 	@Override
 	public ITextScanner scan(InputStream inputStream, Pattern searchPattern, Pattern failPattern, int count) throws FailTextFoundException, MissingTextException, IncorrectOccurrencesException, TextScanException {
+		return scan(inputStream, 0, searchPattern, failPattern, count);
+	}
+
+	/**
+	 * Scan an InputStream from a byte offset, such as a checkpoint
+	 * 
+	 * The fail pattern is searched for to the end of the stream, even once the
+	 * search pattern has been found count times, the same as a scan of a String.
+	 */
+	public ITextScanner scan(InputStream inputStream, long fromByte, Pattern searchPattern, Pattern failPattern, int count) throws FailTextFoundException, MissingTextException, IncorrectOccurrencesException, TextScanException {
 
 		if (count < 1) {
 			throw new TextScanException(MSG_INVALID_COUNT);
 		}
 
-		ArrayList<Integer> foundPatternStartPositions = new ArrayList<>();
-		LinkedList<String> buffer = new LinkedList<>();
-
-		int offset = 0;
-
-		try (BufferedReader reader = new BufferedReader (new InputStreamReader(inputStream))){
-			String line = "";
-			while ((line = reader.readLine()) != null) {
-				buffer.add(line);
-				if (buffer.size() > 10) {
-					offset = offset + buffer.remove(0).length() + 1;
-				}
-
-				// Build a String from the current buffer
-				StringBuilder sb = new StringBuilder();
-				for (String queueLine : buffer) {
-					sb.append(queueLine);
-					sb.append("\n");
-				}
-
-				String currentBuffer = sb.toString();
-
-				if (failPattern != null && failPattern.matcher(currentBuffer).find()) {
-					throw new FailTextFoundException(String.format(MSG_FAIL_FOUND, PATTERN, failPattern));
-				}
-
-				Matcher m = searchPattern.matcher(currentBuffer);
-				while (m.find()) {
-
-					int stp = m.start() + offset;
-					if (!foundPatternStartPositions.contains(stp)) {
-						foundPatternStartPositions.add(stp);
+		// *** The fail pattern is searched for to the end of the stream, in the same pass as the search pattern
+		StreamingTextScanner streamingScanner = new StreamingTextScanner();
+		StreamingTextScanner.Search failSearch = null;
+		if (failPattern != null) {
+			failSearch = streamingScanner.addSearch(failPattern, 1, true);
+		}
+		StreamingTextScanner.Search search = streamingScanner.addSearch(searchPattern, count, false);
 
-					}
-				}
-			}
-			if (foundPatternStartPositions.size() >= count) {
-				return this;
-			}
+		try {
+			streamingScanner.scan(inputStream, fromByte);
 		} catch (IOException e) {
 			throw new TextScanException("Problem in InputStream scan", e);
 		}
 
-		if(foundPatternStartPositions.isEmpty()) {
+		if (failSearch != null && failSearch.getFound() > 0) {
+			throw new FailTextFoundException(String.format(MSG_FAIL_FOUND, PATTERN, failPattern));
+		}
+
+		if (search.getFound() >= count) {
+			return this;
+		}
+		if (search.getFound() == 0) {
 			throw new MissingTextException(String.format(MSG_SEARCH_NOT_FOUND, PATTERN, searchPattern));
 		}
-		throw new IncorrectOccurrencesException(String.format(MSG_EXPECTING_BUT_FOUND, count, PATTERN, searchPattern, foundPatternStartPositions.size()));
+		throw new IncorrectOccurrencesException(String.format(MSG_EXPECTING_BUT_FOUND, count, PATTERN, searchPattern, search.getFound()));
 	}
 
 	@Override
 	public ITextScanner scan(InputStream inputStream, String searchString, String failString, int count) throws FailTextFoundException, MissingTextException, IncorrectOccurrencesException, TextScanException {
+		return scan(inputStream, 0, searchString, failString, count);
+	}
+
+	/**
+	 * Scan an InputStream from a byte offset, such as a checkpoint
+	 * 
+	 * The fail pattern is searched for to the end of the stream, even once the
+	 * search pattern has been found count times, the same as a scan of a String.
+	 */
+	public ITextScanner scan(InputStream inputStream, long fromByte, String searchString, String failString, int count) throws FailTextFoundException, MissingTextException, IncorrectOccurrencesException, TextScanException {
 
 		Pattern p = Pattern.compile("\\Q" + searchString + "\\E");
 		Pattern fp = null;
@@ -174,7 +168,7 @@ public class TextScannerImpl implements ITextScanner {
 		}
 		ITextScanner textScanner;
 		try {
-			textScanner = scan(inputStream,p,fp,count);
+			textScanner = scan(inputStream,fromByte,p,fp,count);
 		} catch (FailTextFoundException e) {
 			throw new FailTextFoundException(String.format(MSG_FAIL_FOUND, STRING, failString), e);
 		} catch (MissingTextException e) {
@@ -262,67 +256,61 @@ public class TextScannerImpl implements ITextScanner {
 
 	@Override
 	public String scanForMatch(InputStream inputStream, Pattern searchPattern, Pattern failPattern, int occurrence) throws MissingTextException, IncorrectOccurrencesException, TextScanException {
+		return scanForMatch(inputStream, 0, searchPattern, failPattern, occurrence);
+	}
+
+	/**
+	 * Scan an InputStream for a match from a byte offset, such as a checkpoint
+	 * 
+	 * The scan stops at the requested occurrence of the search pattern, so fail
+	 * text later in the stream is not looked for.
+	 */
+	public String scanForMatch(InputStream inputStream, long fromByte, Pattern searchPattern, Pattern failPattern, int occurrence) throws MissingTextException, IncorrectOccurrencesException, TextScanException {
 
 		if (occurrence < 1) {
 			throw new TextScanException(MSG_INVALID_COUNT);
 		}
 
-		ArrayList<Integer> foundPatternStartPositions = new ArrayList<>();
-		LinkedList<String> buffer = new LinkedList<>();
-
-		int offset = 0;
-		String foundString = "";
-
-		try (BufferedReader  reader = new BufferedReader (new InputStreamReader(inputStream))) {
-			String line = "";
-			while ((line =reader.readLine()) != null) {
-				buffer.add(line);
-				if (buffer.size() > 10) {
-					offset = offset + buffer.remove(0).length() + 1;
-				}
-
-				// Build a String from the current buffer
-				StringBuilder sb = new StringBuilder();
-				for (String queueLine : buffer) {
-					sb.append(queueLine);
-					sb.append("\n");
-				}
-
-				String currentBuffer = sb.toString();
-
-				if (failPattern != null) {
-					Matcher fm = failPattern.matcher(currentBuffer);
-					if (fm.find()) {
-						return fm.group(); 
-					}
-				}
-				
-				Matcher m = searchPattern.matcher(currentBuffer);
-
-				while (m.find()) {
-
-					int stp = m.start() + offset;
-					if (!foundPatternStartPositions.contains(stp)) {
-						foundPatternStartPositions.add(stp);
-						foundString = m.group();
-					} 
-					if (foundPatternStartPositions.size() >= occurrence) {
-						return foundString;
-					}
-				}
-			}
+		StreamingTextScanner streamingScanner = new StreamingTextScanner();
+		StreamingTextScanner.Search failSearch = null;
+		if (failPattern != null) {
+			failSearch = streamingScanner.addSearch(failPattern, 1, true);
+		}
+		StreamingTextScanner.Search search = streamingScanner.addSearch(searchPattern, occurrence, true);
 
+		try {
+			streamingScanner.scan(inputStream, fromByte);
 		} catch (IOException e) {
 			throw new TextScanException("Problem in InputStream scan", e);
 		}
-		if(foundPatternStartPositions.isEmpty()) {
+
+		// *** Whichever was found first ends the scan
+		if (failSearch != null && failSearch.getFound() > 0
+				&& (search.getFound() < occurrence || failSearch.getLastMatchOffset() < search.getLastMatchOffset())) {
+			return failSearch.getLastMatch();
+		}
+
+		if (search.getFound() >= occurrence) {
+			return search.getLastMatch();
+		}
+		if (search.getFound() == 0) {
 			throw new MissingTextException(String.format(MSG_SEARCH_NOT_FOUND, PATTERN, searchPattern));
 		}
-		throw new IncorrectOccurrencesException(String.format(MSG_UNABLE_TO_FIND_OCCURRENCE, occurrence, searchPattern, foundPatternStartPositions.size()));
+		throw new IncorrectOccurrencesException(String.format(MSG_UNABLE_TO_FIND_OCCURRENCE, occurrence, searchPattern, search.getFound()));
 	}
 
 	@Override
 	public String scanForMatch(InputStream inputStream, String searchString, String failString, int occurrence) throws MissingTextException, IncorrectOccurrencesException, TextScanException {
+		return scanForMatch(inputStream, 0, searchString, failString, occurrence);
+	}
+
+	/**
+	 * Scan an InputStream for a match from a byte offset, such as a checkpoint
+	 * 
+	 * The scan stops at the requested occurrence of the search pattern, so fail
+	 * text later in the stream is not looked for.
+	 */
+	public String scanForMatch(InputStream inputStream, long fromByte, String searchString, String failString, int occurrence) throws MissingTextException, IncorrectOccurrencesException, TextScanException {
 		Pattern p = Pattern.compile("\\Q" + searchString + "\\E");
 		Pattern fp = null;
 		if (failString != null) {
@@ -330,7 +318,7 @@ public class TextScannerImpl implements ITextScanner {
 		}
 		String match;
 		try {
-			match = scanForMatch(inputStream, p, fp, occurrence);
+			match = scanForMatch(inputStream, fromByte, p, fp, occurrence);
 		} catch (MissingTextException e) {
 			throw new MissingTextException(String.format(MSG_SEARCH_NOT_FOUND, STRING, searchString), e);
 		} catch (IncorrectOccurrencesException e) {
@@ -0,0 +1,91 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.textscan.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.InputStream;
+
+import org.junit.Test;
+
+import dev.galasa.textscan.ILogScanner;
+import dev.galasa.textscan.ITextScannable;
+import dev.galasa.textscan.MissingTextException;
+import dev.galasa.textscan.TextScanException;
+import dev.galasa.textscan.TextScanManagerException;
+
+public class TestLogScannerImplSinceCheckpoint {
+
+	private static final String OLD_TEXT = "ABEND in the old part of the log\n";
+	private static final String NEW_TEXT = "Server started\n";
+
+	/**
+	 * A log that can only be retrieved from its checkpoint onwards
+	 */
+	private static class RangedScannable implements ITextScannable {
+		private long retrievedFrom = -1;
+
+		@Override
+		public boolean isScannableInputStream() {
+			return false;
+		}
+
+		@Override
+		public boolean isScannableString() {
+			return true;
+		}
+
+		@Override
+		public String getScannableName() {
+			return "RangedDummy";
+		}
+
+		@Override
+		public ITextScannable updateScannable() throws TextScanException {
+			return this;
+		}
+
+		@Override
+		public InputStream getScannableInputStream() throws TextScanException {
+			return null;
+		}
+
+		@Override
+		public String getScannableString() throws TextScanException {
+			throw new TextScanException("The whole log should not be retrieved");
+		}
+
+		@Override
+		public String getScannableStringSinceCheckpoint(long checkpoint) throws TextScanException {
+			this.retrievedFrom = checkpoint;
+			return NEW_TEXT;
+		}
+	}
+
+	@Test
+	public void testScanForMatchSinceCheckpointOnlyRetrievesTheTextSinceTheCheckpoint() throws TextScanManagerException {
+		// Given...
+		RangedScannable scannable = new RangedScannable();
+		ILogScanner logScanner = new LogScannerImpl().setScannable(scannable).setCheckpoint(OLD_TEXT.length());
+
+		// When...
+		String match = logScanner.scanForMatchSinceCheckpoint("started", "ABEND", 1);
+
+		// Then...
+		assertEquals("started", match);
+		assertEquals(OLD_TEXT.length(), scannable.retrievedFrom);
+	}
+
+	@Test(expected = MissingTextException.class)
+	public void testScanSinceCheckpointOfAStringScannableIgnoresTheTextBeforeTheCheckpoint() throws TextScanManagerException {
+		// Given...
+		ILogScanner logScanner = new LogScannerImpl().setScannable(new DummyScannableString());
+		logScanner.checkpoint();
+
+		// When...
+		logScanner.scanSinceCheckpoint("dummy", null, 1);
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.textscan.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class TestStreamingTextScanner {
+
+	private static final String LOG = "IEF403I JOB1 - STARTED\n"
+			+ "IEF142I JOB1 STEP1 - STEP WAS EXECUTED - COND CODE 0000\n"
+			+ "IEF142I JOB1 STEP2 - STEP WAS EXECUTED - COND CODE 0004\n"
+			+ "IEF142I JOB1 STEP3 - STEP WAS EXECUTED - COND CODE 0000\n"
+			+ "IEF404I JOB1 - ENDED\n";
+
+	private static InputStream stream(String text) {
+		return new ByteArrayInputStream(text.getBytes());
+	}
+
+	@Test
+	public void testAllPatternsAreCountedInOnePass() throws Exception {
+		// Given...
+		StreamingTextScanner scanner = new StreamingTextScanner(16, 32);
+		StreamingTextScanner.Search steps = scanner.addSearch(Pattern.compile("STEP WAS EXECUTED"), 0, false);
+		StreamingTextScanner.Search cc4 = scanner.addSearch(Pattern.compile("COND CODE 0004"), 0, false);
+		StreamingTextScanner.Search abend = scanner.addSearch(Pattern.compile("ABEND"), 0, false);
+
+		// When...
+		scanner.scan(stream(LOG), 0);
+
+		// Then...
+		assertEquals(3, steps.getFound());
+		assertEquals(1, cc4.getFound());
+		assertEquals(0, abend.getFound());
+		assertNull(abend.getLastMatch());
+		assertEquals(LOG.length(), scanner.getBytesRead());
+	}
+
+	@Test
+	public void testMatchesAreCountedAsInAString() throws Exception {
+		// Given...
+		String text = "aaaaaaaaaa\nbbbbbbbbbb\naaaaaaaaaa\n";
+		StreamingTextScanner scanner = new StreamingTextScanner(4, 4);
+		StreamingTextScanner.Search search = scanner.addSearch(Pattern.compile("aa"), 0, false);
+
+		// When...
+		scanner.scan(stream(text), 0);
+
+		// Then...
+		assertEquals(10, search.getFound());
+	}
+
+	@Test
+	public void testMatchThatGrowsAcrossChunksIsHeldBack() throws Exception {
+		// Given...
+		StreamingTextScanner scanner = new StreamingTextScanner(5, 32);
+		StreamingTextScanner.Search search = scanner.addSearch(Pattern.compile("COND CODE \\d+"), 0, false);
+
+		// When...
+		scanner.scan(stream(LOG), 0);
+
+		// Then...
+		assertEquals(3, search.getFound());
+		assertEquals("COND CODE 0000", search.getLastMatch());
+	}
+
+	@Test
+	public void testScanResumesFromAByteOffset() throws Exception {
+		// Given...
+		long checkpoint = LOG.indexOf("IEF142I JOB1 STEP3");
+		StreamingTextScanner scanner = new StreamingTextScanner(16, 8);
+		StreamingTextScanner.Search search = scanner.addSearch(Pattern.compile("STEP\\d"), 0, false);
+
+		// When...
+		scanner.scan(stream(LOG), checkpoint);
+
+		// Then...
+		assertEquals(1, search.getFound());
+		assertEquals("STEP3", search.getLastMatch());
+		assertEquals("IEF142I JOB1 ".length(), search.getLastMatchOffset());
+		assertEquals(LOG.length(), scanner.getBytesRead());
+	}
+
+	@Test
+	public void testStoppingSearchEndsTheScan() throws Exception {
+		// Given...
+		StringBuilder text = new StringBuilder("ABEND S0C4\n");
+		for (int i = 0; i < 10000; i++) {
+			text.append("IEF142I JOB1 STEP").append(i).append(" - STEP WAS EXECUTED\n");
+		}
+		StreamingTextScanner scanner = new StreamingTextScanner(1024, 256);
+		StreamingTextScanner.Search fail = scanner.addSearch(Pattern.compile("ABEND S\\w+"), 1, true);
+		StreamingTextScanner.Search steps = scanner.addSearch(Pattern.compile("STEP WAS EXECUTED"), 0, false);
+
+		// When...
+		scanner.scan(stream(text.toString()), 0);
+
+		// Then...
+		assertEquals(1, fail.getFound());
+		assertEquals("ABEND S0C4", fail.getLastMatch());
+		assertEquals(true, steps.getFound() < 10000);
+		assertEquals(true, scanner.getBytesRead() < text.length());
+	}
+
+	@Test
+	public void testScanWithLimitsStopsWhenAllAreFound() throws Exception {
+		// Given...
+		StreamingTextScanner scanner = new StreamingTextScanner(16, 8);
+		StreamingTextScanner.Search first = scanner.addSearch(Pattern.compile("STARTED"), 1, false);
+		StreamingTextScanner.Search second = scanner.addSearch(Pattern.compile("STEP\\d"), 2, false);
+
+		// When...
+		scanner.scan(stream(LOG), 0);
+
+		// Then...
+		assertEquals(1, first.getFound());
+		assertEquals(2, second.getFound());
+		assertEquals("STEP2", second.getLastMatch());
+	}
+}
@@ -123,4 +123,15 @@ public class TestTextScannerImplInputStreamScan {
 		int count = 0;
 		scanner.scan(searchString, searchString, failString, count);
 	}
+
+	// The fail text is looked for to the end of the stream, past the chunk that held the search text
+	@Test(expected = FailTextFoundException.class)
+	public void testScanForInputStreamInputWithFailStringAfterTheCountIsReached() throws TextScanManagerException {
+		StringBuilder text = new StringBuilder("test\n");
+		for (int i = 0; i < 10000; i++) {
+			text.append("filler line ").append(i).append('\n');
+		}
+		text.append("ABEND\n");
+		scanner.scan(new ByteArrayInputStream(text.toString().getBytes()), "test", "ABEND", 1);
+	}
 }
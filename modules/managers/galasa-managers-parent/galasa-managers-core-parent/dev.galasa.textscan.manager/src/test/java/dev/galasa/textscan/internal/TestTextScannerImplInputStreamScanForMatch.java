@@ -106,4 +106,15 @@ public class TestTextScannerImplInputStreamScanForMatch {
 		int count = 0;
 		scanner.scanForMatch(textInputStream, searchString, null, count);
 	}
+
+	// The scan stops at the occurrence, so fail text further on is not looked for
+	@Test
+	public void testScanForMachForInputStreamInputStopsAtTheOccurrence() throws TextScanManagerException {
+		StringBuilder text = new StringBuilder("test\n");
+		for (int i = 0; i < 10000; i++) {
+			text.append("filler line ").append(i).append('\n');
+		}
+		text.append("ABEND\n");
+		assertEquals("test", scanner.scanForMatch(new ByteArrayInputStream(text.toString().getBytes()), "test", "ABEND", 1));
+	}
 }
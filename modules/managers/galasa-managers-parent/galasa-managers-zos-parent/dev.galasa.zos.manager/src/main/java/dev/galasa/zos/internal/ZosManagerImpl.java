@@ -6,6 +6,8 @@
 package dev.galasa.zos.internal;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.nio.file.Files;
@@ -79,6 +81,7 @@ import dev.galasa.zosbatch.internal.ZosBatchJobOutputSpoolFileImpl;
 import dev.galasa.zosbatch.internal.ZosBatchJobnameImpl;
 import dev.galasa.zosbatch.internal.properties.BatchRestrictToImage;
 import dev.galasa.zosbatch.internal.properties.JobWaitTimeout;
+import dev.galasa.zosbatch.internal.properties.SpoolRetrievalThreads;
 import dev.galasa.zosbatch.internal.properties.TruncateJCLRecords;
 import dev.galasa.zosbatch.internal.properties.UseSysaff;
 import dev.galasa.zosbatch.internal.properties.ZosBatchPropertiesSingleton;
@@ -587,6 +590,11 @@ public class ZosManagerImpl extends AbstractManager implements IZosManagerSpi {
         return TruncateJCLRecords.get(imageId);
     }
 
+    @Override
+    public int getZosBatchPropertySpoolRetrievalThreads(String imageId) throws ZosBatchManagerException {
+        return SpoolRetrievalThreads.get(imageId);
+    }
+
     @Override
     public IZosBatchJobname newZosBatchJobname(IZosImage image) throws ZosBatchException {
         return new ZosBatchJobnameImpl(image);
@@ -660,6 +668,20 @@ public class ZosManagerImpl extends AbstractManager implements IZosManagerSpi {
         }
     }
 
+    @Override
+    public void storeArtifact(Path artifactPath, InputStream content, ResultArchiveStoreContentType type) throws ZosManagerException {
+        try (InputStream inputStream = content) {
+            Files.createFile(artifactPath, type);
+            if (inputStream != null) {
+                try (OutputStream outputStream = Files.newOutputStream(artifactPath)) {
+                    inputStream.transferTo(outputStream);
+                }
+            }
+        } catch (IOException e) {
+            throw new ZosManagerException("Unable to store artifact", e);
+        }
+    }
+
     @Override
     public void createArtifactDirectory(Path artifactPath) throws ZosManagerException {
         try {
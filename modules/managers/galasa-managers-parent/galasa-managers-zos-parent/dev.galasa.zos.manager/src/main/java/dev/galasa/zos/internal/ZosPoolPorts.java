@@ -5,7 +5,6 @@
  */
 package dev.galasa.zos.internal;
 
-import java.security.SecureRandom;
 import java.util.List;
 
 import org.apache.commons.logging.Log;
@@ -27,6 +26,8 @@ public class ZosPoolPorts {
 	
     private static final Log logger = LogFactory.getLog(ZosPoolPorts.class);
 
+    private static final int MAX_ATTEMPTS = 10;
+
 	private final ZosManagerImpl 			 manager;
 	private final IDynamicStatusStoreService dss;
 	private final IResourcePoolingService 	 rps;	
@@ -43,44 +44,37 @@ public class ZosPoolPorts {
 	
 	public String allocatePort(String image, int retryCount) throws ZosManagerException, ConfigurationPropertyStoreException, InterruptedException, ResourceUnavailableException {
 
-		if (retryCount > 10) {
-            // tried too many times
-            throw new ResourceUnavailableException("Failed to allocate a zos port after several attempts.");
-        }
-		
 		// Get the pool of ports for this image
 		List<String> resourceStrings = PoolPorts.get(image);
-		List<String> zosPorts = null;
-		String thePort = null;
-		
-		// Retrieve a free resource from the pool
-		try {
-			zosPorts = this.rps.obtainResources(resourceStrings,  null, 1, 1, dss, "zosport." + image);
-		} catch (InsufficientResourcesAvailableException exception) {
-			throw new ZosManagerException("Could not obtain a port from the z/OS port pool for image " + image);
-		}
-		
-		// Allocate the port retrieved from the pool
-		try {	
-			
+
+		for (int attempt = retryCount; attempt <= MAX_ATTEMPTS; attempt++) {
+			// Retrieve a free resource from the pool, the pooling service skips the ports already allocated in the DSS
+			List<String> zosPorts = null;
+			try {
+				zosPorts = this.rps.obtainResources(resourceStrings,  null, 1, 1, dss, "zosport." + image + ".");
+			} catch (InsufficientResourcesAvailableException exception) {
+				throw new ZosManagerException("Could not obtain a port from the z/OS port pool for image " + image);
+			}
+
 			// There should only be a single port in the list allocated
-			thePort = zosPorts.get(0);
-			
-			// Allocate the port in the DSS
-			this.dss.performActions(
-					new DssAdd("zosport." + image + "." + thePort, this.manager.getFramework().getTestRunName()),
-					new DssAdd("run." + this.manager.getFramework().getTestRunName() + ".zosport." + image + "." + thePort, "active"));
+			String thePort = zosPorts.get(0);
 
-			logger.trace("Allocated z/OS port " + thePort + " on image " + image + " from z/OS port pool allocation");
-				
-		} catch (DynamicStatusStoreException exception) {
-			logger.info("Allocation of port failed due to collision. z/OS port " + thePort + " on image " + image);
+			// Allocate the port in the DSS
+			try {
+				this.dss.performActions(
+						new DssAdd("zosport." + image + "." + thePort, this.manager.getFramework().getTestRunName()),
+						new DssAdd("run." + this.manager.getFramework().getTestRunName() + ".zosport." + image + "." + thePort, "active"));
 
-			//*** collision on the port, retry
-			Thread.sleep(200 + new SecureRandom().nextInt(200)); // *** To avoid race conditions
-			return allocatePort(image, retryCount++);
+				logger.trace("Allocated z/OS port " + thePort + " on image " + image + " from z/OS port pool allocation");
+				return thePort;
+			} catch (DynamicStatusStoreException exception) {
+				//*** Another run allocated the same port first, the next attempt will see it as allocated
+				logger.info("Allocation of port failed due to collision. z/OS port " + thePort + " on image " + image);
+			}
 		}
-		return thePort;
+
+		// tried too many times
+		throw new ResourceUnavailableException("Failed to allocate a zos port after several attempts.");
 	}
 	
 	public static void deleteDss(String port, String image, String run, IDynamicStatusStoreService dss) throws DynamicStatusStoreMatchException, DynamicStatusStoreException {
@@ -0,0 +1,201 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos.internal;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.framework.spi.DssAdd;
+import dev.galasa.framework.spi.DssDelete;
+import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.DynamicStatusStoreMatchException;
+import dev.galasa.framework.spi.IDynamicStatusStoreService;
+import dev.galasa.zos.ZosManagerException;
+
+/**
+ * Allocates the slots of a provisioned zOS Image without a shared counter.
+ *
+ * An image with n slots has n slot tokens, image.[imageid].token.0 to
+ * image.[imageid].token.[n-1]. A run takes a slot by adding a free token, the
+ * slot and the run's slot record in one DSS transaction, so two runs only
+ * collide if they pick the same token, and the loser picks another free token.
+ * The tokens in use are the slots in use.
+ *
+ * Slots counted by image.[imageid].current.slots, allocated before tokens were
+ * used, still count against the image until they are freed.
+ */
+public class ZosSlotAllocator {
+
+    private static final Log    logger       = LogFactory.getLog(ZosSlotAllocator.class);
+
+    private static final int    MAX_ATTEMPTS = 20;
+
+    private final IDynamicStatusStoreService dss;
+    private final String        imageId;
+    private final String        imagePrefix;
+    private final String        tokenPrefix;
+    private final Random        random       = new Random();
+
+    public ZosSlotAllocator(IDynamicStatusStoreService dss, String imageId) {
+        this.dss = dss;
+        this.imageId = imageId;
+        this.imagePrefix = "image." + imageId + ".";
+        this.tokenPrefix = this.imagePrefix + "token.";
+    }
+
+    /**
+     * @return the number of slots in use on the image
+     * @throws DynamicStatusStoreException if the DSS cannot be read
+     */
+    public int getUsedSlots() throws DynamicStatusStoreException {
+        Map<String, String> imageProperties = dss.getPrefix(imagePrefix);
+        return getUsedTokens(imageProperties).size() + getCountedSlots(imageProperties);
+    }
+
+    /**
+     * Allocate a slot on the image to a run
+     *
+     * @param runName  the run to allocate the slot to
+     * @param maxSlots the number of slots the image has
+     * @return the name of the slot, or null if the image has no free slots
+     * @throws DynamicStatusStoreException if the DSS cannot be accessed
+     * @throws ZosManagerException if a slot could not be taken after several
+     *                             attempts
+     */
+    public String allocateSlot(String runName, int maxSlots) throws DynamicStatusStoreException, ZosManagerException {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Map<String, String> imageProperties = dss.getPrefix(imagePrefix);
+
+            Set<Integer> usedTokens = getUsedTokens(imageProperties);
+            if (usedTokens.size() + getCountedSlots(imageProperties) >= maxSlots) {
+                return null;
+            }
+
+            List<Integer> freeTokens = new ArrayList<>();
+            for (int token = 0; token < maxSlots; token++) {
+                if (!usedTokens.contains(token)) {
+                    freeTokens.add(token);
+                }
+            }
+            int token = freeTokens.get(random.nextInt(freeTokens.size()));
+
+            //*** As we dont actually care what the slotname is, to make it relevant add the runname as the slotname
+            //*** Need to becareful with immediate reruns of the same run name so generate a unique slotname for each runname instance
+            String slotName = "SLOT_" + runName;
+            for (int i = 1; imageProperties.containsKey(getSlotKey(slotName)); i++) {
+                slotName = "SLOT_" + runName + "_" + i;
+            }
+
+            try {
+                dss.performActions(
+                        new DssAdd(tokenPrefix + token, slotName),
+                        new DssAdd(getSlotKey(slotName), runName),
+                        new DssAdd(getRunSlotKey(runName, slotName), "active"));
+                return slotName;
+            } catch (DynamicStatusStoreMatchException e) {
+                //*** Another run took the token or the slot name first, so try again with what is free now
+                logger.trace("Collided allocating slot token " + token + " on zOS Image " + imageId + ", retrying");
+            }
+        }
+
+        throw new ZosManagerException("Unable to allocate a slot on zOS Image " + imageId + " after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    /**
+     * Free a slot, returning its token, or decrementing the slot count if the
+     * slot was allocated before tokens were used. Freeing a slot that has
+     * already been freed does nothing.
+     *
+     * @param runName  the run the slot is allocated to
+     * @param slotName the name of the slot
+     * @throws DynamicStatusStoreException if the DSS cannot be accessed
+     */
+    public void freeSlot(String runName, String slotName) throws DynamicStatusStoreException {
+        String slotKey = getSlotKey(slotName);
+        String runSlotKey = getRunSlotKey(runName, slotName);
+
+        boolean tokenFound = false;
+        for (Map.Entry<String, String> token : dss.getPrefix(tokenPrefix).entrySet()) {
+            if (slotName.equals(token.getValue())) {
+                tokenFound = true;
+                try {
+                    dss.performActions(
+                            new DssDelete(token.getKey(), slotName),
+                            new DssDelete(slotKey, null),
+                            new DssDelete(runSlotKey, null));
+                } catch (DynamicStatusStoreMatchException e) {
+                    //*** Freed by someone else in the meantime
+                }
+            }
+        }
+
+        if (!tokenFound) {
+            freeCountedSlot(slotKey, runSlotKey);
+
+            HashSet<String> slotKeys = new HashSet<>();
+            slotKeys.add(slotKey);
+            slotKeys.add(runSlotKey);
+            dss.delete(slotKeys);
+        }
+    }
+
+    private void freeCountedSlot(String slotKey, String runSlotKey) throws DynamicStatusStoreException {
+        //*** Switch the run slot to free first, so only one process decrements the count
+        if (!dss.putSwap(runSlotKey, "active", "free")) {
+            return;
+        }
+
+        String currentSlotsKey = imagePrefix + "current.slots";
+        while (true) {
+            String sCurrentSlots = dss.get(currentSlotsKey);
+            if (sCurrentSlots == null) {
+                return;
+            }
+
+            int currentSlots = Math.max(0, Integer.parseInt(sCurrentSlots) - 1);
+            if (dss.putSwap(currentSlotsKey, sCurrentSlots, Integer.toString(currentSlots))) {
+                return;
+            }
+        }
+    }
+
+    private Set<Integer> getUsedTokens(Map<String, String> imageProperties) {
+        Set<Integer> usedTokens = new HashSet<>();
+        for (String key : imageProperties.keySet()) {
+            if (key.startsWith(tokenPrefix)) {
+                try {
+                    usedTokens.add(Integer.parseInt(key.substring(tokenPrefix.length())));
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring unexpected slot token " + key + " on zOS Image " + imageId);
+                }
+            }
+        }
+        return usedTokens;
+    }
+
+    private int getCountedSlots(Map<String, String> imageProperties) {
+        String currentSlots = imageProperties.get(imagePrefix + "current.slots");
+        if (currentSlots == null) {
+            return 0;
+        }
+        return Math.max(0, Integer.parseInt(currentSlots));
+    }
+
+    private String getSlotKey(String slotName) {
+        return imagePrefix + "slot." + slotName;
+    }
+
+    private String getRunSlotKey(String runName, String slotName) {
+        return "slot.run." + runName + "." + getSlotKey(slotName);
+    }
+}
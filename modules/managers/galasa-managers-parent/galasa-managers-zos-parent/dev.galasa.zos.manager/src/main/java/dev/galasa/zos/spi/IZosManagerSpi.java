@@ -5,6 +5,7 @@
  */
 package dev.galasa.zos.spi;
 
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.HashMap;
 
@@ -112,6 +113,14 @@ public interface IZosManagerSpi extends IZosManager {
 	 */
 	boolean getZosBatchPropertyTruncateJCLRecords(String imageId) throws ZosBatchManagerException;
 
+	/**
+	 * Provides other managers to the zOS Batch {@code zosbatch.batchjob.[imageid].spool.retrieval.threads} property
+	 * @param imageId
+	 * @return
+	 * @throws ZosBatchManagerException
+	 */
+	int getZosBatchPropertySpoolRetrievalThreads(String imageId) throws ZosBatchManagerException;
+
 	/**
 	 * Provides other managers a {@link IZosBatchJobname} with a prefix defined by the zOS Batch {@code zosbatch.jobname.[imageid].prefix} property
 	 * @param image
@@ -168,6 +177,15 @@ public interface IZosManagerSpi extends IZosManager {
 	 */
 	void storeArtifact(Path artifactPath, String content, ResultArchiveStoreContentType type) throws ZosManagerException;
 
+	/**
+	 * Store an artifact in the results archive on behalf of another manager, copying the content from a stream
+	 * so it is not held in memory. The stream is closed
+	 * @param artifactPath
+	 * @param content
+	 * @param type
+	 */
+	void storeArtifact(Path artifactPath, InputStream content, ResultArchiveStoreContentType type) throws ZosManagerException;
+
 	/**
 	 * Create an empty dirictory in the results archive on behalf of another manager
 	 * @param artifactPath
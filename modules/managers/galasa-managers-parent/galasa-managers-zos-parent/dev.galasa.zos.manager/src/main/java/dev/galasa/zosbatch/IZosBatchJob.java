@@ -204,4 +204,13 @@ public interface IZosBatchJob {
      * @throws ZosBatchException
      */
 	public void saveSpoolFileToResultsArchive(IZosBatchJobOutputSpoolFile spoolFile, String rasPath) throws ZosBatchException;
+
+    /**
+     * Retrieve the records of the supplied spool file from a record onwards
+     * @param spoolFile the spool file to retrieve
+     * @param fromRecord the first record to retrieve, counting from 0
+     * @return the records from the record, or an empty {@link String} if there are no more records
+     * @throws ZosBatchException
+     */
+	public String retrieveSpoolFileRecords(IZosBatchJobOutputSpoolFile spoolFile, int fromRecord) throws ZosBatchException;
 }
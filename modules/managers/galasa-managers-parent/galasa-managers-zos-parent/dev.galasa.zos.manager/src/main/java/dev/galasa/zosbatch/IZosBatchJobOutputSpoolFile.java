@@ -61,6 +61,15 @@ public interface IZosBatchJobOutputSpoolFile {
      */
     public long retrieve() throws ZosBatchException;
     
+    /**
+     * Retrieve the content of the spool file from zOS from a record onwards, without updating the records held. 
+     * Used to retrieve only the records added to the spool file of an active job since it was last retrieved 
+     * @param fromRecord the first record to retrieve, counting from 0
+     * @return the records from the record, or an empty {@link String} if there are no more records
+     * @throws ZosBatchException 
+     */
+    public String retrieveRecords(int fromRecord) throws ZosBatchException;
+    
     /**
      * Return the content of this zOS batch job spool file
      * @return the zOS batch job spool file content
@@ -112,6 +112,11 @@ public class ZosBatchJobOutputSpoolFileImpl implements IZosBatchJobOutputSpoolFi
         return this.size;
 	}
 
+	@Override
+	public String retrieveRecords(int fromRecord) throws ZosBatchException {
+		return this.batchJob.retrieveSpoolFileRecords(this, fromRecord);
+	}
+
 	@Override
 	public void saveToResultsArchive(String rasPath) throws ZosBatchException {
         this.batchJob.saveSpoolFileToResultsArchive(this, rasPath);
@@ -0,0 +1,57 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zosbatch.internal.properties;
+
+import dev.galasa.zosbatch.ZosBatchManagerException;
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.cps.CpsProperties;
+
+/**
+ * zOS Batch job spool retrieval threads
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name zosbatch.batchjob.[imageid].spool.retrieval.threads
+ * 
+ * @galasa.description The maximum number of spool files of a zOS Batch job retrieved at the same time.<br>
+ * Each retrieval uses one connection to the server. The RSE API client keeps this many connections, with a
+ * minimum of 2. The z/OSMF client keeps zosmf.server.[serverid].connections, so with z/OSMF no more spool
+ * files than that are retrieved at once, whatever this is set to
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 4
+ * 
+ * @galasa.valid_values 1 to {@link Integer#MAX_VALUE}
+ * 
+ * @galasa.examples 
+ * <code>zosbatch.batchjob.MVSA.spool.retrieval.threads=8</code><br>
+ * <code>zosbatch.batchjob.default.spool.retrieval.threads=1</code>
+ *
+ */
+public class SpoolRetrievalThreads extends CpsProperties {
+
+    private static final int DEFAULT_SPOOL_RETRIEVAL_THREADS = 4;
+
+    public static int get(String imageId) throws ZosBatchManagerException {
+        try {
+            String threadsString = getStringNulled(ZosBatchPropertiesSingleton.cps(), "batchjob", "spool.retrieval.threads", imageId);
+
+            if (threadsString == null) {
+                return DEFAULT_SPOOL_RETRIEVAL_THREADS;
+            } else {
+                int threads = Integer.parseInt(threadsString);
+                if (threads < 1) {
+                    throw new ZosBatchManagerException("Batch job spool retrieval threads property must be greater than 0");
+                }
+                return threads;
+            }
+        } catch (ConfigurationPropertyStoreException | NumberFormatException e) {
+            throw new ZosBatchManagerException("Problem asking the CPS for the batch job spool retrieval threads property for zOS image "  + imageId, e);
+        }
+    }
+
+}
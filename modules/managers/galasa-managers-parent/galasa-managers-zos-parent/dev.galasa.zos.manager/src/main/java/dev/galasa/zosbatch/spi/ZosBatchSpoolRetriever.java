@@ -0,0 +1,82 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zosbatch.spi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dev.galasa.zosbatch.ZosBatchException;
+
+/**
+ * Retrieves the spool files of a zOS Batch job concurrently, no more than a set
+ * number at a time, on threads that last only as long as the retrieval
+ */
+public class ZosBatchSpoolRetriever {
+
+    /**
+     * Retrieves, or archives, one spool file
+     */
+    public interface SpoolRetrieval<T> {
+        T retrieve() throws ZosBatchException;
+    }
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private ZosBatchSpoolRetriever() {
+    }
+
+    /**
+     * Run the retrievals, at most maxConcurrent at a time, and wait for them all
+     * to finish. If a retrieval fails, the others are cancelled and the
+     * failure is thrown.
+     *
+     * @param retrievals    - the retrievals
+     * @param maxConcurrent - the most to run at a time
+     * @return the results of the retrievals, in the same order
+     * @throws ZosBatchException
+     */
+    public static <T> List<T> retrieveAll(List<SpoolRetrieval<T>> retrievals, int maxConcurrent) throws ZosBatchException {
+        List<T> results = new ArrayList<>(retrievals.size());
+        int threads = Math.min(maxConcurrent, retrievals.size());
+        if (threads <= 1) {
+            for (SpoolRetrieval<T> retrieval : retrievals) {
+                results.add(retrieval.retrieve());
+            }
+            return results;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "zOS batch spool retrieval " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<T>> futures = new ArrayList<>(retrievals.size());
+            for (SpoolRetrieval<T> retrieval : retrievals) {
+                futures.add(executor.submit(retrieval::retrieve));
+            }
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ZosBatchException) {
+                throw (ZosBatchException) e.getCause();
+            }
+            throw new ZosBatchException("Unable to retrieve spool file", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ZosBatchException("Spool file retrieval interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -146,6 +146,26 @@ public interface IZosUNIXFile {
      */
     public byte[] retrieveAsBinary() throws ZosUNIXFileException;
 
+    /**
+     * Retrieve the content of the zOS UNIX file from the zOS image in Text mode, from a record onwards. 
+     * Used to retrieve only the records added to a growing file, such as a log, since it was last retrieved
+     * <p>See {@link #setDataType(UNIXFileDataType)}
+     * @param fromRecord the first record to retrieve, counting from 0
+     * @return the content from the record, or an empty {@link String} if the file has no more records
+     * @throws ZosUNIXFileException
+     */
+    public String retrieveAsText(int fromRecord) throws ZosUNIXFileException;
+
+    /**
+     * Retrieve content of the zOS UNIX file from the zOS image in Binary mode, from a byte offset onwards. 
+     * Used to retrieve only the bytes added to a growing file, such as a log, since it was checkpointed
+     * <p>See {@link #setDataType(UNIXFileDataType)}
+     * @param fromByte the offset of the first byte to retrieve
+     * @return the content from the offset, or an empty array if the file is no longer than the offset
+     * @throws ZosUNIXFileException
+     */
+    public byte[] retrieveAsBinary(long fromByte) throws ZosUNIXFileException;
+
     /**
      * Recursively store the content of the zOS UNIX file or directory to the Results Archive Store
      * @param rasPath path in Results Archive Store
@@ -0,0 +1,140 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import dev.galasa.framework.spi.IDynamicStatusStoreService;
+import dev.galasa.testharness.TestHarnessFramework;
+
+public class TestZosSlotAllocator {
+
+    private static final String IMAGE_ID = "IMAGE1";
+
+    private IDynamicStatusStoreService createDss() throws Exception {
+        return new TestHarnessFramework().getDynamicStatusStoreService("zos");
+    }
+
+    @Test
+    public void testAllocateAndFreeSlots() throws Exception {
+        // Given...
+        IDynamicStatusStoreService dss = createDss();
+        ZosSlotAllocator allocator = new ZosSlotAllocator(dss, IMAGE_ID);
+
+        // When...
+        String slot1 = allocator.allocateSlot("U1", 2);
+        String slot2 = allocator.allocateSlot("U1", 2);
+        String slot3 = allocator.allocateSlot("U2", 2);
+
+        // Then...
+        assertThat(slot1).isEqualTo("SLOT_U1");
+        assertThat(slot2).isEqualTo("SLOT_U1_1");
+        assertThat(slot3).isNull();
+        assertThat(allocator.getUsedSlots()).isEqualTo(2);
+        assertThat(dss.get("image." + IMAGE_ID + ".slot.SLOT_U1")).isEqualTo("U1");
+        assertThat(dss.get("slot.run.U1.image." + IMAGE_ID + ".slot.SLOT_U1")).isEqualTo("active");
+
+        // When...
+        allocator.freeSlot("U1", slot1);
+        allocator.freeSlot("U1", slot1);
+
+        // Then...
+        assertThat(allocator.getUsedSlots()).isEqualTo(1);
+        assertThat(dss.get("image." + IMAGE_ID + ".slot.SLOT_U1")).isNull();
+        assertThat(dss.get("slot.run.U1.image." + IMAGE_ID + ".slot.SLOT_U1")).isNull();
+        assertThat(allocator.allocateSlot("U2", 2)).isEqualTo("SLOT_U2");
+    }
+
+    @Test
+    public void testSlotsCountedBeforeTokensAreHonoured() throws Exception {
+        // Given...
+        IDynamicStatusStoreService dss = createDss();
+        dss.put("image." + IMAGE_ID + ".current.slots", "1");
+        dss.put("image." + IMAGE_ID + ".slot.SLOT_U0", "U0");
+        dss.put("slot.run.U0.image." + IMAGE_ID + ".slot.SLOT_U0", "active");
+        ZosSlotAllocator allocator = new ZosSlotAllocator(dss, IMAGE_ID);
+
+        // When...
+        String slot1 = allocator.allocateSlot("U1", 2);
+        String slot2 = allocator.allocateSlot("U2", 2);
+
+        // Then...
+        assertThat(slot1).isNotNull();
+        assertThat(slot2).isNull();
+        assertThat(allocator.getUsedSlots()).isEqualTo(2);
+
+        // When...
+        allocator.freeSlot("U0", "SLOT_U0");
+
+        // Then...
+        assertThat(dss.get("image." + IMAGE_ID + ".current.slots")).isEqualTo("0");
+        assertThat(dss.get("image." + IMAGE_ID + ".slot.SLOT_U0")).isNull();
+        assertThat(allocator.getUsedSlots()).isEqualTo(1);
+    }
+
+    /**
+     * More runs than slots all allocating at once against the in-memory DSS
+     * that stands in for etcd
+     */
+    @Test
+    public void testConcurrentAllocationNeverOverAllocates() throws Exception {
+        // Given...
+        int maxSlots = 200;
+        int runs = 250;
+        int threads = 32;
+        IDynamicStatusStoreService dss = createDss();
+
+        // When...
+        List<String> slots = allocateConcurrently(runs, threads, runName ->
+            new ZosSlotAllocator(dss, IMAGE_ID).allocateSlot(runName, maxSlots));
+
+        // Then...
+        List<String> allocatedSlots = new ArrayList<>(slots);
+        allocatedSlots.removeIf(slot -> slot == null);
+        assertThat(allocatedSlots).hasSize(maxSlots).doesNotHaveDuplicates();
+        assertThat(new ZosSlotAllocator(dss, IMAGE_ID).getUsedSlots()).isEqualTo(maxSlots);
+        assertThat(dss.getPrefix("image." + IMAGE_ID + ".token.")).hasSize(maxSlots);
+    }
+
+    private interface Allocation {
+        String allocate(String runName) throws Exception;
+    }
+
+    private List<String> allocateConcurrently(int runs, int threads, Allocation allocation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startLine = new CountDownLatch(1);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                String runName = "U" + i;
+                Callable<String> task = () -> {
+                    startLine.await();
+                    return allocation.allocate(runName);
+                };
+                futures.add(executor.submit(task));
+            }
+            startLine.countDown();
+
+            List<String> slots = new ArrayList<>();
+            for (Future<String> future : futures) {
+                slots.add(future.get());
+            }
+            return slots;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
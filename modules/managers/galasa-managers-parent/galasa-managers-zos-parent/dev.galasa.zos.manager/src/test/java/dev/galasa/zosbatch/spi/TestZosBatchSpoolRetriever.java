@@ -0,0 +1,106 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zosbatch.spi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.zosbatch.ZosBatchException;
+import dev.galasa.zosbatch.spi.ZosBatchSpoolRetriever.SpoolRetrieval;
+
+public class TestZosBatchSpoolRetriever {
+
+    private static void pause(long millis) throws ZosBatchException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ZosBatchException(e);
+        }
+    }
+
+    @Test
+    public void testResultsAreInTheOrderOfTheRetrievals() throws Exception {
+        // Given...
+        List<SpoolRetrieval<String>> retrievals = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int spoolFile = i;
+            retrievals.add(() -> {
+                pause((10 - spoolFile) * 5L);
+                return "SPOOL" + spoolFile;
+            });
+        }
+
+        // When...
+        List<String> results = ZosBatchSpoolRetriever.retrieveAll(retrievals, 4);
+
+        // Then...
+        Assert.assertEquals("retrieveAll() should return the results in order", Arrays.asList("SPOOL0", "SPOOL1", "SPOOL2", "SPOOL3", "SPOOL4",
+                "SPOOL5", "SPOOL6", "SPOOL7", "SPOOL8", "SPOOL9"), results);
+    }
+
+    @Test
+    public void testNoMoreThanTheMaximumRunAtOnce() throws Exception {
+        // Given...
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        List<SpoolRetrieval<Void>> retrievals = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            retrievals.add(() -> {
+                mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                pause(20);
+                running.decrementAndGet();
+                return null;
+            });
+        }
+
+        // When...
+        ZosBatchSpoolRetriever.retrieveAll(retrievals, 3);
+
+        // Then...
+        Assert.assertTrue("retrieveAll() should run more than one retrieval at a time", mostRunning.get() > 1);
+        Assert.assertTrue("retrieveAll() should run no more than 3 retrievals at a time", mostRunning.get() <= 3);
+    }
+
+    @Test
+    public void testFailureIsThrown() {
+        // Given...
+        List<SpoolRetrieval<String>> retrievals = new ArrayList<>();
+        retrievals.add(() -> "SPOOL0");
+        retrievals.add(() -> {
+            throw new ZosBatchException("Spool file not found");
+        });
+        retrievals.add(() -> "SPOOL2");
+
+        // When...
+        ZosBatchException expectedException = Assert.assertThrows("expected exception should be thrown", ZosBatchException.class, () -> {
+            ZosBatchSpoolRetriever.retrieveAll(retrievals, 2);
+        });
+
+        // Then...
+        Assert.assertEquals("exception should contain expected message", "Spool file not found", expectedException.getMessage());
+    }
+
+    @Test
+    public void testOneThreadRunsOnTheCallingThread() throws Exception {
+        // Given...
+        Thread caller = Thread.currentThread();
+        List<SpoolRetrieval<Boolean>> retrievals = new ArrayList<>();
+        retrievals.add(() -> Thread.currentThread() == caller);
+        retrievals.add(() -> Thread.currentThread() == caller);
+
+        // When...
+        List<Boolean> results = ZosBatchSpoolRetriever.retrieveAll(retrievals, 1);
+
+        // Then...
+        Assert.assertEquals("retrieveAll() should run the retrievals on the calling thread", Arrays.asList(true, true), results);
+    }
+}
@@ -41,8 +41,10 @@ import dev.galasa.zos3270.TerminalInterruptedException;
 import dev.galasa.zos3270.Zos3270ManagerException;
 import dev.galasa.zos3270.Zos3270Terminal;
 import dev.galasa.zos3270.common.screens.TerminalSize;
+import dev.galasa.zos3270.internal.comms.TerminalEngine;
 import dev.galasa.zos3270.internal.gherkin.Gherkin3270Coordinator;
 import dev.galasa.zos3270.internal.properties.ExtraBundles;
+import dev.galasa.zos3270.internal.properties.TerminalEngineThreads;
 import dev.galasa.zos3270.internal.properties.Zos3270PropertiesSingleton;
 import dev.galasa.zos3270.spi.IZos3270ManagerSpi;
 import dev.galasa.zos3270.spi.NetworkException;
@@ -62,6 +64,8 @@ public class Zos3270ManagerImpl extends AbstractGherkinManager implements IZos32
     private ArrayList<Zos3270TerminalImpl>              terminals     = new ArrayList<>();
 
     private int                                         terminalCount = 0;
+
+    private TerminalEngine                              terminalEngine;
     
     private Gherkin3270Coordinator                      gherkinCoordinator;
 
@@ -196,6 +200,14 @@ public class Zos3270ManagerImpl extends AbstractGherkinManager implements IZos32
 
             Zos3270TerminalImpl terminal = new Zos3270TerminalImpl(terminaId, host.getHostname(), host.getTelnetPort(),
                     host.isTelnetPortTls(), getFramework(), autoConnect, image, primarySize, alternateSize, textScannerManager);
+
+            int engineThreads = TerminalEngineThreads.get();
+            if (engineThreads > 0) {
+                if (this.terminalEngine == null) {
+                    this.terminalEngine = new TerminalEngine(engineThreads);
+                }
+                terminal.setTerminalEngine(this.terminalEngine);
+            }
             
             this.terminals.add(terminal);
             logger.info("Generated a terminal for zOS Image tagged " + imageTag);
@@ -234,6 +246,11 @@ public class Zos3270ManagerImpl extends AbstractGherkinManager implements IZos32
         for (Zos3270TerminalImpl terminal : terminals) {
             disconnectTerminal(terminal);
         }
+
+        if (this.terminalEngine != null) {
+            this.terminalEngine.shutdown();
+            this.terminalEngine = null;
+        }
     }
 
     private void disconnectTerminal(Zos3270TerminalImpl terminal) {
@@ -0,0 +1,90 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.comms;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Writes to a non-blocking channel without waiting for the socket send buffer.
+ *
+ * What the channel does not take straight away is queued, and the
+ * {@link NetworkSelector} reading the channel is asked to write the queue out
+ * once the channel is writable again. Later writes join the end of the queue,
+ * so the bytes reach the channel in the order they were written.
+ */
+class ChannelOutputStream extends OutputStream {
+
+    private final SocketChannel     channel;
+    private final Queue<ByteBuffer> pending = new ArrayDeque<>();
+
+    private Runnable                writeRequest;
+
+    ChannelOutputStream(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * @param writeRequest - asks the selector to write the queue out when the
+     *                     channel is writable
+     * @return true if there are writes waiting already
+     */
+    synchronized boolean setWriteRequest(Runnable writeRequest) {
+        this.writeRequest = writeRequest;
+        return !this.pending.isEmpty();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+        if (this.pending.isEmpty()) {
+            this.channel.write(buffer);
+            if (!buffer.hasRemaining()) {
+                return;
+            }
+        }
+
+        ByteBuffer remaining = ByteBuffer.allocate(buffer.remaining());
+        remaining.put(buffer);
+        remaining.flip();
+        this.pending.add(remaining);
+
+        if (this.pending.size() == 1 && this.writeRequest != null) {
+            this.writeRequest.run();
+        }
+    }
+
+    /**
+     * Write as much of the queue as the channel will take
+     *
+     * @return true if the queue has all been written
+     */
+    synchronized boolean writePending() throws IOException {
+        ByteBuffer buffer;
+        while ((buffer = this.pending.peek()) != null) {
+            this.channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                return false;
+            }
+            this.pending.poll();
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.comms;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Splits the inbound telnet stream into frames, reading the stream in bulk
+ * into a reusable buffer.
+ *
+ * A frame is either a telnet command starting with IAC, returned as received,
+ * or a 3270 record, returned without its IAC EOR terminator and with any IAC
+ * IAC pairs unescaped in place. Frames are slices of the buffer, so are not
+ * copied, and are only valid until the next read.
+ */
+public class DatastreamReader {
+
+    public static final int DEFAULT_CAPACITY = 16 * 1024;
+
+    private final boolean direct;
+
+    private ByteBuffer    buffer;
+
+    // *** The start of the frame being scanned, and the end of the data read
+    private int           frameStart;
+    private int           dataEnd;
+
+    // *** Where the scan of a partial 3270 record got to, and the end of the unescaped record so far
+    private int           scanPosition;
+    private int           recordEnd;
+    private boolean       lastByteIac;
+
+    /**
+     * @param initialCapacity - the initial size of the buffer, it grows to fit the largest frame
+     * @param direct - true to use a direct buffer, for reading channels
+     */
+    public DatastreamReader(int initialCapacity, boolean direct) {
+        this.direct = direct;
+        this.buffer = allocate(initialCapacity);
+        resetScan(0);
+    }
+
+    /**
+     * Read what is available from a blocking input stream
+     *
+     * @return the number of bytes read, or -1 at the end of the stream
+     */
+    public int readFrom(InputStream inputStream) throws IOException {
+        prepareForRead();
+
+        if (this.buffer.hasArray()) {
+            int length = inputStream.read(this.buffer.array(), this.buffer.arrayOffset() + this.dataEnd, this.buffer.capacity() - this.dataEnd);
+            if (length > 0) {
+                this.dataEnd += length;
+            }
+            return length;
+        }
+
+        byte[] bytes = new byte[this.buffer.capacity() - this.dataEnd];
+        int length = inputStream.read(bytes);
+        if (length > 0) {
+            ByteBuffer target = this.buffer.duplicate();
+            target.position(this.dataEnd);
+            target.put(bytes, 0, length);
+            this.dataEnd += length;
+        }
+        return length;
+    }
+
+    /**
+     * Read what is available from a channel, which can be non-blocking
+     *
+     * @return the number of bytes read, or -1 at the end of the stream
+     */
+    public int readFrom(ReadableByteChannel channel) throws IOException {
+        prepareForRead();
+
+        ByteBuffer target = this.buffer.duplicate();
+        target.position(this.dataEnd);
+        target.limit(this.buffer.capacity());
+        int length = channel.read(target);
+        if (length > 0) {
+            this.dataEnd += length;
+        }
+        return length;
+    }
+
+    /**
+     * @return the next complete frame, or null if more data needs to be read
+     */
+    public ByteBuffer nextFrame() {
+        if (this.frameStart >= this.dataEnd) {
+            return null;
+        }
+
+        if (this.buffer.get(this.frameStart) == NetworkThread.IAC) {
+            return nextTelnetCommand();
+        }
+
+        return next3270Record();
+    }
+
+    /**
+     * @return true if there is data read that has not been returned as a frame
+     */
+    public boolean hasPartialFrame() {
+        return this.frameStart < this.dataEnd;
+    }
+
+    private ByteBuffer nextTelnetCommand() {
+        if (this.dataEnd - this.frameStart < 2) {
+            return null;
+        }
+
+        byte command = this.buffer.get(this.frameStart + 1);
+        int length;
+        if (command == NetworkThread.SB) {
+            length = findEndOfSubnegotiation();
+            if (length < 0) {
+                return null;
+            }
+        } else if (command == NetworkThread.DO || command == NetworkThread.DONT
+                || command == NetworkThread.WILL || command == NetworkThread.WONT) {
+            length = 3;
+            if (command == NetworkThread.DO && this.dataEnd - this.frameStart >= 3) {
+                // *** DO EOR and DO BINARY are always followed by the server's WILL, and are processed together
+                byte option = this.buffer.get(this.frameStart + 2);
+                if (option == NetworkThread.TELNET_EOR || option == NetworkThread.TELNET_BINARY) {
+                    length = 6;
+                }
+            }
+        } else {
+            length = 2;
+        }
+
+        if (this.dataEnd - this.frameStart < length) {
+            return null;
+        }
+
+        ByteBuffer frame = slice(this.frameStart, this.frameStart + length);
+        resetScan(this.frameStart + length);
+        return frame;
+    }
+
+    private int findEndOfSubnegotiation() {
+        int position = this.frameStart + 2;
+        while (position + 1 < this.dataEnd) {
+            if (this.buffer.get(position) == NetworkThread.IAC) {
+                byte next = this.buffer.get(position + 1);
+                if (next == NetworkThread.SE) {
+                    return position + 2 - this.frameStart;
+                }
+                position += 2;
+            } else {
+                position++;
+            }
+        }
+        return -1;
+    }
+
+    private ByteBuffer next3270Record() {
+        int position = this.scanPosition;
+        while (position < this.dataEnd) {
+            if (!this.lastByteIac) {
+                // *** Skip to the next IAC, only moving bytes if an IAC IAC has already been unescaped
+                int iac = position;
+                while (iac < this.dataEnd && this.buffer.get(iac) != NetworkThread.IAC) {
+                    iac++;
+                }
+                if (this.recordEnd != position) {
+                    for (int i = position; i < iac; i++) {
+                        this.buffer.put(this.recordEnd + (i - position), this.buffer.get(i));
+                    }
+                }
+                this.recordEnd += iac - position;
+                position = iac;
+                if (position >= this.dataEnd) {
+                    break;
+                }
+
+                this.lastByteIac = true;
+                position++;
+                continue;
+            }
+
+            byte b = this.buffer.get(position);
+            position++;
+            if (b == NetworkThread.IAC) {
+                this.buffer.put(this.recordEnd++, b);
+                this.lastByteIac = false;
+            } else if (b == NetworkThread.EOR) {
+                ByteBuffer frame = slice(this.frameStart, this.recordEnd);
+                resetScan(position);
+                return frame;
+            } else {
+                this.buffer.put(this.recordEnd++, b);
+            }
+        }
+
+        this.scanPosition = position;
+        return null;
+    }
+
+    private void resetScan(int newFrameStart) {
+        this.frameStart = newFrameStart;
+        this.scanPosition = newFrameStart;
+        this.recordEnd = newFrameStart;
+        this.lastByteIac = false;
+    }
+
+    private ByteBuffer slice(int start, int end) {
+        ByteBuffer frame = this.buffer.duplicate();
+        frame.position(start);
+        frame.limit(end);
+        return frame.slice();
+    }
+
+    /**
+     * Move the partial frame to the start of the buffer, growing the buffer if
+     * the partial frame fills it
+     */
+    private void prepareForRead() {
+        if (this.frameStart > 0) {
+            this.buffer.limit(this.dataEnd);
+            this.buffer.position(this.frameStart);
+            this.buffer.compact();
+            this.buffer.clear();
+
+            int shift = this.frameStart;
+            this.frameStart = 0;
+            this.dataEnd -= shift;
+            this.scanPosition -= shift;
+            this.recordEnd -= shift;
+        }
+
+        if (this.dataEnd == this.buffer.capacity()) {
+            ByteBuffer newBuffer = allocate(this.buffer.capacity() * 2);
+            ByteBuffer data = this.buffer.duplicate();
+            data.position(0);
+            data.limit(this.dataEnd);
+            newBuffer.put(data);
+            this.buffer = newBuffer;
+        }
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        if (this.direct) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        return ByteBuffer.allocate(capacity);
+    }
+}
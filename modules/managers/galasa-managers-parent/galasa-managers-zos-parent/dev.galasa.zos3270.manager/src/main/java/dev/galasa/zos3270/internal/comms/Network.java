@@ -9,12 +9,17 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.X509Certificate;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocket;
@@ -44,6 +49,7 @@ public class Network {
     private InputStream         inputStream;
 
     private KeepAlive           keepAlive;
+    private ScheduledFuture<?>  scheduledKeepAlive;
     private Instant             lastSend        = Instant.now();
 
     private Exception           errorException;
@@ -100,6 +106,70 @@ public class Network {
         }
     }
     
+    /**
+     * Connect with a non-blocking channel, so the inbound datastream can be read
+     * by a {@link NetworkSelector} shared with other terminals rather than a
+     * thread per terminal. TLS is not supported on a channel, so START_TLS is
+     * refused.
+     * 
+     * @return the connected channel, to register with a selector
+     */
+    public SocketChannel connectClientChannel() throws NetworkException {
+        return connectClientChannel(null);
+    }
+
+    /**
+     * Connect with a non-blocking channel, sending the keep alives from a
+     * scheduler shared with other terminals rather than a thread per terminal
+     * 
+     * @param keepAliveScheduler - the scheduler to send keep alives from, or null
+     *                           for a keep alive thread
+     * @return the connected channel, to register with a selector
+     */
+    public SocketChannel connectClientChannel(ScheduledExecutorService keepAliveScheduler) throws NetworkException {
+        if (this.ssl) {
+            throw new NetworkException("TLS terminals cannot be connected with a channel");
+        }
+
+        if (socket != null) {
+            close();
+        }
+
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open(new InetSocketAddress(this.host, this.port));
+            channel.socket().setTcpNoDelay(true);
+            channel.socket().setKeepAlive(true);
+            channel.configureBlocking(false);
+
+            this.socket = channel.socket();
+            this.inputStream = null;
+            this.outputStream = new ChannelOutputStream(channel);
+            this.doStartTls = false;
+            SocketChannel connectedChannel = channel;
+            channel = null;
+
+            if (keepAliveScheduler == null) {
+                this.keepAlive = new KeepAlive();
+                this.keepAlive.start();
+            } else {
+                this.scheduledKeepAlive = keepAliveScheduler.scheduleWithFixedDelay(this::sendKeepAlive, 5, 5, TimeUnit.SECONDS);
+            }
+
+            return connectedChannel;
+        } catch (Exception e) {
+            throw new NetworkException("Unable to connect to Telnet server", e);
+        } finally {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.error("Failed to close the channel", e);
+                }
+            }
+        }
+    }
+
     public void setDoStartTls(boolean doStartTls) {
         this.doStartTls = doStartTls;
     }
@@ -140,8 +210,15 @@ public class Network {
             inputStream = null;
             outputStream = null;
 
-            this.keepAlive.shutdown = true;
-            this.keepAlive.interrupt();
+            if (this.keepAlive != null) {
+                this.keepAlive.shutdown = true;
+                this.keepAlive.interrupt();
+                this.keepAlive = null;
+            }
+            if (this.scheduledKeepAlive != null) {
+                this.scheduledKeepAlive.cancel(false);
+                this.scheduledKeepAlive = null;
+            }
         }
     }
 
@@ -149,6 +226,18 @@ public class Network {
         return this.inputStream;
     }
 
+    /**
+     * @return the stream writing to the channel from
+     *         {@link #connectClientChannel()}, or null if not connected with a
+     *         channel
+     */
+    ChannelOutputStream getChannelOutputStream() {
+        if (this.outputStream instanceof ChannelOutputStream) {
+            return (ChannelOutputStream) this.outputStream;
+        }
+        return null;
+    }
+
 
     public Socket startTls() throws NetworkException {
         try {
@@ -0,0 +1,326 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.comms;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zos3270.spi.NetworkException;
+
+/**
+ * Reads the inbound datastreams of many terminals on one thread.
+ *
+ * Each terminal connects with {@link Network#connectClientChannel()} and its
+ * channel is registered with the {@link NetworkThread} that would otherwise
+ * have read it. When the channel is readable, what is available is read in
+ * bulk into the terminal's {@link DatastreamReader} and each complete frame is
+ * passed to the network thread to process, which is not started.
+ *
+ * The frames are processed on a dispatch thread of the selector's own, in the
+ * order they were read, so the screen updates, the screen listeners and the
+ * waits they complete never hold up the reads and writes of other terminals.
+ *
+ * Writes to the channel that the socket cannot take straight away are queued
+ * by the terminal's {@link ChannelOutputStream}, and written out from here
+ * when the channel becomes writable, so no thread waits on a full send buffer.
+ */
+public class NetworkSelector extends Thread {
+
+    private final Log                    logger        = LogFactory.getLog(getClass());
+
+    private final Selector               selector;
+    private final Queue<Registration>    registrations = new ConcurrentLinkedQueue<>();
+    private final Queue<Deregistration>  deregistrations = new ConcurrentLinkedQueue<>();
+    private final Queue<Registration>    writeRequests = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger          registered    = new AtomicInteger();
+    private final ExecutorService        dispatcher;
+
+    // *** Only used by the selector thread, as the keys of channels closed elsewhere are dropped by the selector
+    private final Map<NetworkThread, SelectionKey> keysByHandler = new IdentityHashMap<>();
+
+    private volatile boolean             shutdown      = false;
+
+    private static class Registration {
+        private final SocketChannel       channel;
+        private final NetworkThread       handler;
+        private final ChannelOutputStream output;
+        private final DatastreamReader    reader = new DatastreamReader(DatastreamReader.DEFAULT_CAPACITY, true);
+
+        // *** Set by the dispatch thread, so the frames still queued are dropped
+        private volatile boolean          failed;
+
+        private Registration(SocketChannel channel, NetworkThread handler) {
+            this.channel = channel;
+            this.handler = handler;
+
+            Network network = handler.getNetwork();
+            this.output = (network == null) ? null : network.getChannelOutputStream();
+        }
+    }
+
+    private static class Deregistration {
+        private final NetworkThread           handler;
+        private final CompletableFuture<Void> closed = new CompletableFuture<>();
+
+        private Deregistration(NetworkThread handler) {
+            this.handler = handler;
+        }
+    }
+
+    public NetworkSelector(String name) throws NetworkException {
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new NetworkException("Unable to open the network selector", e);
+        }
+        setName(name);
+        setDaemon(true);
+
+        this.dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + " dispatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start reading a terminal's channel
+     *
+     * @param channel - a non-blocking channel from {@link Network#connectClientChannel()}
+     * @param handler - processes the frames read
+     */
+    public void register(SocketChannel channel, NetworkThread handler) {
+        this.registrations.add(new Registration(channel, handler));
+        this.selector.wakeup();
+    }
+
+    /**
+     * Stop reading a terminal's channel, closing it if it is still open. A
+     * channel closed by another thread is not noticed by the selector, so this
+     * is needed to close the terminal's network.
+     *
+     * @param handler - the handler the channel was registered with
+     * @return a future completed once the handler has been told the network has
+     *         closed, or immediately if it is not registered with this selector
+     */
+    public CompletableFuture<Void> deregister(NetworkThread handler) {
+        Deregistration deregistration = new Deregistration(handler);
+        this.deregistrations.add(deregistration);
+        this.selector.wakeup();
+        if (!isAlive()) {
+            // *** Nothing left to read the channel, or deregister it
+            deregistration.closed.complete(null);
+        }
+        return deregistration.closed;
+    }
+
+    /**
+     * @return the number of channels being read
+     */
+    public int getRegisteredCount() {
+        return this.registered.get();
+    }
+
+    public void shutdown() {
+        this.shutdown = true;
+        this.selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        logger.trace("Starting network selector " + getName());
+
+        while (!shutdown) {
+            try {
+                this.selector.select();
+            } catch (IOException e) {
+                logger.error("Problem with network selector " + getName(), e);
+                break;
+            }
+
+            registerPending();
+            deregisterPending();
+            requestWritesPending();
+
+            Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (key.isValid() && key.isWritable()) {
+                    write(key);
+                }
+                if (key.isValid() && key.isReadable()) {
+                    read(key);
+                }
+            }
+        }
+
+        for (SelectionKey key : new ArrayList<>(this.keysByHandler.values())) {
+            close(key);
+        }
+        deregisterPending();
+        this.dispatcher.shutdown();
+        try {
+            this.selector.close();
+        } catch (IOException e) {
+            logger.error("Failed to close the network selector", e);
+        }
+
+        logger.trace("Ending network selector " + getName());
+    }
+
+    private void registerPending() {
+        Registration registration;
+        while ((registration = this.registrations.poll()) != null) {
+            try {
+                SelectionKey key = registration.channel.register(this.selector, SelectionKey.OP_READ, registration);
+                this.keysByHandler.put(registration.handler, key);
+                this.registered.incrementAndGet();
+
+                if (registration.output != null) {
+                    Registration writer = registration;
+                    if (registration.output.setWriteRequest(() -> requestWrite(writer))) {
+                        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    }
+                }
+            } catch (IOException e) {
+                logger.error("Unable to register the terminal channel", e);
+                dispatch(registration.handler::networkClosed);
+            }
+        }
+    }
+
+    private void deregisterPending() {
+        Deregistration deregistration;
+        while ((deregistration = this.deregistrations.poll()) != null) {
+            SelectionKey key = this.keysByHandler.get(deregistration.handler);
+            if (key != null) {
+                close(key);
+            }
+            // *** Completed once the handler has been told, and its queued frames processed
+            CompletableFuture<Void> closed = deregistration.closed;
+            dispatch(() -> closed.complete(null));
+        }
+    }
+
+    /**
+     * Called by a terminal's output stream, on any thread, when it has queued a
+     * write the channel could not take
+     */
+    private void requestWrite(Registration registration) {
+        this.writeRequests.add(registration);
+        this.selector.wakeup();
+    }
+
+    private void requestWritesPending() {
+        Registration registration;
+        while ((registration = this.writeRequests.poll()) != null) {
+            SelectionKey key = this.keysByHandler.get(registration.handler);
+            if (key != null && key.isValid()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    private void write(SelectionKey key) {
+        Registration registration = (Registration) key.attachment();
+        try {
+            // *** A write queued after this returns asks again, and is seen on the next select
+            if (registration.output.writePending()) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        } catch (IOException e) {
+            logger.error("Problem with network selector " + getName(), e);
+            close(key);
+        }
+    }
+
+    private void read(SelectionKey key) {
+        Registration registration = (Registration) key.attachment();
+        try {
+            int length;
+            while ((length = registration.reader.readFrom(registration.channel)) > 0) {
+                ByteBuffer frame;
+                while ((frame = registration.reader.nextFrame()) != null) {
+                    dispatchFrame(registration, frame);
+                }
+            }
+
+            if (length == -1) {
+                logger.trace("Terminal has been disconnected");
+                close(key);
+            }
+        } catch (IOException e) {
+            logger.error("Problem with network selector " + getName(), e);
+            close(key);
+        }
+    }
+
+    /**
+     * Process a frame on the dispatch thread
+     *
+     * @param frame - the frame, which is copied as the reader reuses its buffer
+     */
+    private void dispatchFrame(Registration registration, ByteBuffer frame) {
+        ByteBuffer copy = ByteBuffer.allocate(frame.remaining());
+        copy.put(frame);
+        copy.flip();
+
+        dispatch(() -> {
+            if (registration.failed) {
+                return;
+            }
+            try {
+                registration.handler.processFrame(copy);
+            } catch (NetworkException | IOException e) {
+                logger.error("Problem processing the datastream on network selector " + getName(), e);
+                registration.failed = true;
+                deregister(registration.handler);
+            }
+        });
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            this.dispatcher.execute(task);
+        } catch (RejectedExecutionException e) {
+            // *** The selector has ended, so nothing else is running the handlers
+            task.run();
+        }
+    }
+
+    private void close(SelectionKey key) {
+        Registration registration = (Registration) key.attachment();
+        if (this.keysByHandler.remove(registration.handler) == null) {
+            return;
+        }
+        key.cancel();
+        try {
+            registration.channel.close();
+        } catch (IOException e) {
+            logger.error("Failed to close the terminal channel", e);
+        }
+        this.registered.decrementAndGet();
+        dispatch(registration.handler::networkClosed);
+    }
+}
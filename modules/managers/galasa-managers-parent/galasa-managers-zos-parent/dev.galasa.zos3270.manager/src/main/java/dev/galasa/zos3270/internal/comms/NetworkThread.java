@@ -5,6 +5,7 @@
  */
 package dev.galasa.zos3270.internal.comms;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -13,6 +14,7 @@ import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.logging.Log;
@@ -105,6 +107,7 @@ public class NetworkThread extends Thread {
     private final Terminal    terminal;
 
     private boolean telnetSessionStarted      = false;
+    private final CompletableFuture<Void> sessionStarted = new CompletableFuture<>();
     private boolean basicTelnetDatastream     = false;
 
     private boolean           endOfStream     = false;
@@ -116,6 +119,8 @@ public class NetworkThread extends Thread {
 
     private ByteArrayOutputStream    commandSoFar;
 
+    private DatastreamReader         datastreamReader;
+
     public NetworkThread(Terminal terminal, Screen screen, Network network, InputStream inputStream) {
         this(terminal, screen, network, inputStream, null);
     }
@@ -138,9 +143,16 @@ public class NetworkThread extends Thread {
     public void run() {
         logger.trace("Starting network thread on terminal " + terminal.getId());
 
+        this.datastreamReader = new DatastreamReader(DatastreamReader.DEFAULT_CAPACITY, false);
         while (!endOfStream) {
             try {
-                processMessage(inputStream);
+                ByteBuffer frame = this.datastreamReader.nextFrame();
+                if (frame != null) {
+                    processFrame(frame);
+                } else if (this.datastreamReader.readFrom(this.inputStream) == -1) {
+                    endOfStream = true;
+                    logger.trace("Terminal has been disconnected");
+                }
             } catch (NetworkException e) {
                 logger.error("Problem with Network Thread", e);
                 break;
@@ -152,14 +164,43 @@ public class NetworkThread extends Thread {
                 break;
             }
         }
+        logger.trace("Ending network thread on terminal " + terminal.getId());
+        networkClosed();
+    }
+
+    /**
+     * Lock the keyboard and tell the terminal the network has closed
+     */
+    public void networkClosed() {
+        this.sessionStarted.completeExceptionally(new NetworkException("The TN3270 network closed before the session started"));
+
         try {
             screen.networkClosed();
         } catch (TerminalInterruptedException e) {
             logger.error("Problem locking keyboard on network close",e);
         }
 
-        logger.trace("Ending network thread on terminal " + terminal.getId());
-        terminal.networkClosed();
+        if (terminal != null) {
+            terminal.networkClosed();
+        }
+    }
+
+    /**
+     * Process a frame from a {@link DatastreamReader}, either a telnet command or
+     * a 3270 record
+     * 
+     * @param frame - the frame, which is only valid until the reader next reads
+     */
+    public void processFrame(ByteBuffer frame) throws IOException, NetworkException {
+        if (frame.get(frame.position()) == IAC) {
+            // *** Telnet commands are rare, so are processed by the stream based negotiation
+            byte[] command = new byte[frame.remaining()];
+            frame.get(command);
+            processMessage(new ByteArrayInputStream(command));
+            return;
+        }
+
+        process3270Record(frame);
     }
 
     public void processMessage(InputStream messageStream) throws IOException, NetworkException {
@@ -175,50 +216,50 @@ public class NetworkThread extends Thread {
             return;
         }
 
-        if (basicTelnetDatastream) {
-            this.telnetSessionStarted = true;  // must be started if receiving 3270
-
-            ByteBuffer buffer = readTerminatedMessage(header, messageStream);
+        ByteBuffer buffer = readTerminatedMessage(header, messageStream);
+        process3270Record(buffer);
+    }
 
+    private void process3270Record(ByteBuffer buffer) throws NetworkException {
+        sessionStarted();  // must be started if receiving 3270
 
+        if (basicTelnetDatastream) {
             Inbound3270Message inbound3270Message = process3270Data(buffer);
             this.screen.processInboundMessage(inbound3270Message);
             return;
-        } else {
-            this.telnetSessionStarted = true;  // must be started if receiving 3270
+        }
 
-            ByteBuffer buffer = readTerminatedMessage(header, messageStream);
+        String header = Hex.encodeHexString(new byte[] { buffer.get(buffer.position()) });
 
-            if (buffer.remaining() < 5) {
-                throw new NetworkException("Missing 5 bytes of the TN3270E datastream header");
-            }
+        if (buffer.remaining() < 5) {
+            throw new NetworkException("Missing 5 bytes of the TN3270E datastream header");
+        }
 
-            byte tn3270eHeader = buffer.get();
-            if (tn3270eHeader == DT_BIND_IMAGE) {
-                logger.trace("BIND_IMAGE received");
-                return;
-            }
-            if (tn3270eHeader == DT_UNBIND) {
-                logger.trace("UNBIND_IMAGE received");
-                return;
-            }
+        byte tn3270eHeader = buffer.get();
+        if (tn3270eHeader == DT_BIND_IMAGE) {
+            logger.trace("BIND_IMAGE received");
+            return;
+        }
+        if (tn3270eHeader == DT_UNBIND) {
+            logger.trace("UNBIND_IMAGE received");
+            return;
+        }
 
-            if (tn3270eHeader == DT_SSCP_LU_DATA) {
-                logger.trace("SSCP_LU_DATA received");
-                logger.trace("Received message header: " + reportCommandSoFar());
-                logger.trace("Received message buffer: " + Hex.encodeHexString(buffer));
-                return;
-            }
+        if (tn3270eHeader == DT_SSCP_LU_DATA) {
+            logger.trace("SSCP_LU_DATA received");
+            logger.trace("Received message header: " + header);
+            logger.trace("Received message buffer: " + Hex.encodeHexString(toBytes(buffer, buffer.position())));
+            return;
+        }
 
-            if (tn3270eHeader != DT_3270_DATA) {
-                throw new NetworkException("Was expecting a TN3270E datastream header of zeros - " + reportCommandSoFar());
-            }
+        if (tn3270eHeader != DT_3270_DATA) {
+            throw new NetworkException("Was expecting a TN3270E datastream header of zeros - " + header);
+        }
 
-            buffer.get(new byte[4]);
+        buffer.position(buffer.position() + 4);
 
-            Inbound3270Message inbound3270Message = process3270Data(buffer);
-            this.screen.processInboundMessage(inbound3270Message);
-        }
+        Inbound3270Message inbound3270Message = process3270Data(buffer);
+        this.screen.processInboundMessage(inbound3270Message);
     }
 
     private void doIac(InputStream messageStream) throws NetworkException, IOException {
@@ -559,7 +600,7 @@ public class NetworkThread extends Thread {
 
         // At this point we should be fully negotiated, so mark thread ready
         logger.trace("TN3270E negotiation complete, 3270 datastream should now start");
-        this.telnetSessionStarted = true;
+        sessionStarted();
     }
 
     private void negotiateFunctions() throws NetworkException {
@@ -836,7 +877,7 @@ public class NetworkThread extends Thread {
     public Inbound3270Message process3270Data(ByteBuffer buffer) throws NetworkException {
 
         if (logger.isTraceEnabled() || !this.screen.getDatastreamListeners().isEmpty()) {
-            String hex = new String(Hex.encodeHex(buffer.array()));
+            String hex = Hex.encodeHexString(toBytes(buffer, 0));
             if (logger.isTraceEnabled()) {
                 logger.trace("inbound=" + hex);
             }
@@ -854,6 +895,18 @@ public class NetworkThread extends Thread {
         }
     }
 
+    /**
+     * Copy the bytes of a buffer from a position to its limit, without changing
+     * the buffer's position
+     */
+    private static byte[] toBytes(ByteBuffer buffer, int from) {
+        ByteBuffer source = buffer.duplicate();
+        source.position(from);
+        byte[] bytes = new byte[source.remaining()];
+        source.get(bytes);
+        return bytes;
+    }
+
     public static Inbound3270Message process3270Datastream(AbstractCommandCode commandCode, ByteBuffer buffer, Charset codePage)
             throws DatastreamException {
 
@@ -1026,8 +1079,25 @@ public class NetworkThread extends Thread {
         return ByteBuffer.wrap(bytes);
     }
 
+    private void sessionStarted() {
+        this.telnetSessionStarted = true;
+        this.sessionStarted.complete(null);
+    }
+
     public boolean isStarted() {
         return this.telnetSessionStarted;
     }
 
+    /**
+     * @return a future completed when the telnet session has started, or
+     *         completed exceptionally if the network closes first
+     */
+    public CompletableFuture<Void> getSessionStarted() {
+        return this.sessionStarted;
+    }
+
+    Network getNetwork() {
+        return this.network;
+    }
+
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.comms;
+
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zos3270.spi.NetworkException;
+
+/**
+ * Serves many terminals from a few threads, rather than a network thread and a
+ * keep alive thread per terminal.
+ *
+ * The terminals are spread over a small pool of {@link NetworkSelector}s that
+ * read their datastreams and process them on a dispatch thread each, and the
+ * keep alives are sent from one shared scheduler. Waits for text and for the keyboard are completed by the screen
+ * updates, see {@link dev.galasa.zos3270.spi.Screen#waitForTextInFieldAsync}
+ * and {@link dev.galasa.zos3270.spi.Screen#waitForKeyboardAsync}, so a
+ * terminal uses no thread of its own while a test waits on it.
+ *
+ * TLS terminals cannot be read from a channel, so are left to a thread of
+ * their own.
+ */
+public class TerminalEngine {
+
+    private final Log                      logger = LogFactory.getLog(getClass());
+
+    private final NetworkSelector[]        selectors;
+    private final ScheduledExecutorService keepAliveScheduler;
+    private final ExecutorService          tasks;
+
+    /**
+     * @param threads - the number of selector threads to read the terminals with
+     */
+    public TerminalEngine(int threads) throws NetworkException {
+        if (threads < 1) {
+            throw new NetworkException("The terminal engine needs at least 1 thread, not " + threads);
+        }
+
+        this.keepAliveScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("3270 engine keep alive"));
+        this.tasks = Executors.newCachedThreadPool(daemonThreads("3270 engine task"));
+
+        this.selectors = new NetworkSelector[threads];
+        for (int i = 0; i < threads; i++) {
+            this.selectors[i] = new NetworkSelector("3270 engine selector " + (i + 1));
+            this.selectors[i].start();
+        }
+
+        logger.trace("Started the 3270 terminal engine with " + threads + " threads");
+    }
+
+    /**
+     * Connect a terminal's network and read it with the least busy selector
+     *
+     * @param network - the terminal's network, which must not be TLS
+     * @param handler - the network thread, not started, that processes the datastream
+     */
+    public void connect(Network network, NetworkThread handler) throws NetworkException {
+        SocketChannel channel = network.connectClientChannel(this.keepAliveScheduler);
+
+        NetworkSelector leastBusy = this.selectors[0];
+        for (NetworkSelector selector : this.selectors) {
+            if (selector.getRegisteredCount() < leastBusy.getRegisteredCount()) {
+                leastBusy = selector;
+            }
+        }
+        leastBusy.register(channel, handler);
+    }
+
+    /**
+     * Stop reading a terminal
+     *
+     * @param handler - the network thread the terminal was connected with
+     * @return a future completed once the terminal has been told its network has closed
+     */
+    public CompletableFuture<Void> disconnect(NetworkThread handler) {
+        CompletableFuture<?>[] closed = new CompletableFuture<?>[this.selectors.length];
+        for (int i = 0; i < this.selectors.length; i++) {
+            closed[i] = this.selectors[i].deregister(handler);
+        }
+        return CompletableFuture.allOf(closed);
+    }
+
+    /**
+     * Run a task that may block, such as a reconnect, away from the selectors
+     */
+    public void execute(Runnable task) {
+        this.tasks.execute(task);
+    }
+
+    /**
+     * @return the number of terminals being read
+     */
+    public int getTerminalCount() {
+        int count = 0;
+        for (NetworkSelector selector : this.selectors) {
+            count += selector.getRegisteredCount();
+        }
+        return count;
+    }
+
+    public void shutdown() {
+        for (NetworkSelector selector : this.selectors) {
+            selector.shutdown();
+        }
+        this.keepAliveScheduler.shutdownNow();
+        this.tasks.shutdownNow();
+
+        logger.trace("Stopped the 3270 terminal engine");
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + " " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
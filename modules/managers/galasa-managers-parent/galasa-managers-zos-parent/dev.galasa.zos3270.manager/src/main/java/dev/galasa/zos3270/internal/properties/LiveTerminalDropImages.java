@@ -0,0 +1,35 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zos3270.Zos3270ManagerException;
+
+/**
+ * Are live terminal images dropped when the live view falls behind
+ * </p>
+ * <p>
+ * The property is:-<br>
+ * <br>
+ * zos3270.live.terminal.drop.images=xxxxxxxx
+ * </p>
+ * <p>
+ * default is TRUE, the oldest images waiting to be sent are dropped. FALSE
+ * makes the terminal wait for the live view instead. Images are never dropped
+ * from the RAS.
+ * </p>
+ * 
+ *  
+ *
+ */
+public class LiveTerminalDropImages extends CpsProperties {
+
+    public static boolean get() throws Zos3270ManagerException {
+        return Boolean.parseBoolean(
+                getStringWithDefault(Zos3270PropertiesSingleton.cps(), "true", "live.terminal", "drop.images"));
+    }
+
+}
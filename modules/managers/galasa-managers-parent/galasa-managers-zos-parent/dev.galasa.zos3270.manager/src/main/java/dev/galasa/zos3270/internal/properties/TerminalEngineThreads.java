@@ -0,0 +1,33 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zos3270.Zos3270ManagerException;
+
+/**
+ * The number of threads the terminal engine reads the terminals with
+ * </p>
+ * <p>
+ * The property is:-<br>
+ * <br>
+ * zos3270.terminal.engine.threads=2
+ * </p>
+ * <p>
+ * default is 0, each terminal is read by a thread of its own. TLS terminals
+ * are always read by a thread of their own.
+ * </p>
+ * 
+ *  
+ *
+ */
+public class TerminalEngineThreads extends CpsProperties {
+
+    public static int get() throws Zos3270ManagerException {
+        return getIntWithDefault(Zos3270PropertiesSingleton.cps(), 0, "terminal", "engine.threads");
+    }
+
+}
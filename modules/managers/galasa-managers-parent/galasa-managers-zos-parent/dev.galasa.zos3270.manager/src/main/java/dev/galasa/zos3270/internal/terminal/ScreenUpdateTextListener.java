@@ -5,67 +5,113 @@
  */
 package dev.galasa.zos3270.internal.terminal;
 
-import java.util.concurrent.Semaphore;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import dev.galasa.zos3270.AttentionIdentification;
 import dev.galasa.zos3270.ErrorTextFoundException;
 import dev.galasa.zos3270.IScreenUpdateListener;
 import dev.galasa.zos3270.TextNotFoundException;
 import dev.galasa.zos3270.Zos3270Exception;
+import dev.galasa.zos3270.spi.Field;
 import dev.galasa.zos3270.spi.Screen;
 
+/**
+ * Waits for text to appear in a field on the screen. The screen reuses the
+ * Field instances of unchanged fields, so after each update only the fields
+ * that have changed since the last search are searched again.
+ * 
+ * The wait is a future completed by the screen update that shows the text, so
+ * no thread is needed to watch the screen.
+ */
 public class ScreenUpdateTextListener implements IScreenUpdateListener {
 
     private final Screen screen;
     private final String[] okText;
     private final String[] errorText;
-    private int foundItem = -1;
-    private ErrorTextFoundException errorFound = null;
-    private Semaphore    textFound = new Semaphore(1, true);
+    private final CompletableFuture<Integer> textFound = new CompletableFuture<>();
+    private boolean      waited = false;
+    private Set<Field>   searchedFields = Collections.newSetFromMap(new IdentityHashMap<>());
 
-    public ScreenUpdateTextListener(Screen screen, String ok[], String error[]) throws InterruptedException {
+    public ScreenUpdateTextListener(Screen screen, String ok[], String error[]) {
         this.screen = screen;
         this.okText = ok;
         this.errorText = error;
-        this.textFound.acquire();
 
         synchronized (this.screen) {
             screenUpdated(Direction.RECEIVED, null);
-            if (this.textFound.availablePermits() > 0) {
+            if (this.textFound.isDone()) {
                 return;
             }
             this.screen.registerScreenUpdateListener(this);
         }
+
+        // *** However the wait ends, stop listening
+        this.textFound.whenComplete((foundItem, exception) -> this.screen.unregisterScreenUpdateListener(this));
     }
 
     @Override
     public void screenUpdated(Direction direction, AttentionIdentification aid) {
+        if (this.textFound.isDone()) {
+            return;
+        }
+
+        Field[] fields = screen.calculateFields();
+
+        List<Field> changedFields = new ArrayList<>();
+        for (Field field : fields) {
+            if (!searchedFields.contains(field)) {
+                changedFields.add(field);
+            }
+        }
+
+        Set<Field> newSearchedFields = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(newSearchedFields, fields);
+        this.searchedFields = newSearchedFields;
+
         try {
-            this.foundItem = screen.searchFieldContaining(okText, errorText);
-            this.textFound.release();
+            this.textFound.complete(Screen.searchFields(changedFields.toArray(new Field[changedFields.size()]), okText, errorText));
         } catch (TextNotFoundException e) {
             // IGNORE
         } catch (ErrorTextFoundException e) {
-            this.errorFound = e;
-            this.textFound.release();
+            this.textFound.completeExceptionally(e);
         }
 
     }
 
     public int waitForText(long maxWait) throws InterruptedException, ErrorTextFoundException, Zos3270Exception {
-        if (this.textFound == null) {
+        if (this.waited) {
             throw new Zos3270Exception("Not allowed to use this listener more than once");
         }
-        this.textFound.tryAcquire(1, maxWait, TimeUnit.MILLISECONDS);
-        this.textFound = null;
-        screen.unregisterScreenUpdateListener(this);
-        
-        if (errorFound != null) {
-            throw errorFound;
+        this.waited = true;
+
+        try {
+            this.textFound.get(maxWait, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // *** Not found in time, unless it was found just now
+            this.textFound.complete(-1);
+        } catch (ExecutionException e) {
+            // *** Reported below
+        } catch (InterruptedException e) {
+            this.textFound.cancel(false);
+            throw e;
         }
 
-        return foundItem;
+        try {
+            return this.textFound.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ErrorTextFoundException) {
+                throw (ErrorTextFoundException) e.getCause();
+            }
+            throw new Zos3270Exception("Wait for text failed", e.getCause());
+        }
     }
 
     public static int waitForText(Screen screen, String ok[], String error[], long maxWait)
@@ -73,4 +119,12 @@ public class ScreenUpdateTextListener implements IScreenUpdateListener {
         return new ScreenUpdateTextListener(screen, ok, error).waitForText(maxWait);
     }
 
+    /**
+     * @return a future completed with the index of the ok text found, or
+     *         completed exceptionally with an {@link ErrorTextFoundException}
+     */
+    public static CompletableFuture<Integer> waitForTextAsync(Screen screen, String ok[], String error[]) {
+        return new ScreenUpdateTextListener(screen, ok, error).textFound;
+    }
+
 }
@@ -0,0 +1,235 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.terminal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zos3270.common.screens.TerminalImage;
+
+/**
+ * Archives the images of a terminal off the thread that updates the screen.
+ *
+ * Images are gathered into batches, which are written to the RAS by a pool of
+ * writer threads shared by all the terminals, one batch at a time per terminal
+ * so the batches stay in order. At most a fixed number of images wait to be
+ * written, after which archiving an image waits for the writer to catch up, so
+ * no RAS image is lost.
+ *
+ * Images for the live terminal view are sent by the same writer, one at a
+ * time. If the view falls behind, the oldest images waiting to be sent are
+ * dropped, unless dropping is switched off, when archiving an image waits as
+ * it does for the RAS.
+ */
+public class TerminalImageArchiver {
+
+    public interface BatchWriter {
+        void write(List<TerminalImage> images) throws Exception;
+    }
+
+    public interface LiveWriter {
+        /**
+         * @return false if the live view has gone, so no more images are sent
+         */
+        boolean write(TerminalImage image) throws Exception;
+    }
+
+    public static final int              DEFAULT_BATCH_SIZE      = 10;
+    public static final int              DEFAULT_MAX_RAS_IMAGES  = 500;
+    public static final int              DEFAULT_MAX_LIVE_IMAGES = 20;
+
+    private static final int             WRITER_THREADS          = 4;
+
+    private static final ExecutorService SHARED_WRITERS          = createWriters();
+
+    private final Log                    logger                  = LogFactory.getLog(getClass());
+
+    private final String                 terminalId;
+    private final BatchWriter            rasWriter;
+    private final int                    batchSize;
+    private final int                    maxRasImages;
+    private final ExecutorService        writers;
+
+    private LiveWriter                   liveWriter;
+    private final int                    maxLiveImages;
+    private final boolean                dropLiveImages;
+
+    private List<TerminalImage>          pendingBatch            = new ArrayList<>();
+    private final ArrayDeque<List<TerminalImage>> rasBatches     = new ArrayDeque<>();
+    private int                          queuedRasImages         = 0;
+    private final ArrayDeque<TerminalImage> liveImages           = new ArrayDeque<>();
+    private int                          droppedLiveImages       = 0;
+    private boolean                      writing                 = false;
+
+    /**
+     * @param terminalId     - the terminal, for messages
+     * @param rasWriter      - writes a batch of images to the RAS
+     * @param liveWriter     - sends an image to the live view, or null if there is no live view
+     * @param dropLiveImages - drop the oldest live images rather than wait when the live view falls behind
+     */
+    public TerminalImageArchiver(String terminalId, BatchWriter rasWriter, LiveWriter liveWriter, boolean dropLiveImages) {
+        this(terminalId, rasWriter, DEFAULT_BATCH_SIZE, DEFAULT_MAX_RAS_IMAGES, liveWriter, DEFAULT_MAX_LIVE_IMAGES,
+                dropLiveImages, SHARED_WRITERS);
+    }
+
+    public TerminalImageArchiver(String terminalId, BatchWriter rasWriter, int batchSize, int maxRasImages,
+            LiveWriter liveWriter, int maxLiveImages, boolean dropLiveImages, ExecutorService writers) {
+        this.terminalId = terminalId;
+        this.rasWriter = rasWriter;
+        this.batchSize = batchSize;
+        this.maxRasImages = Math.max(maxRasImages, batchSize);
+        this.liveWriter = liveWriter;
+        this.maxLiveImages = maxLiveImages;
+        this.dropLiveImages = dropLiveImages;
+        this.writers = writers;
+    }
+
+    /**
+     * Queue an image for the RAS and the live view, waiting if too many images
+     * are already waiting to be written
+     */
+    public synchronized void archive(TerminalImage image) throws InterruptedException {
+        this.pendingBatch.add(image);
+        if (this.pendingBatch.size() >= this.batchSize) {
+            queuePendingBatch();
+        }
+
+        if (this.liveWriter != null) {
+            while (this.liveImages.size() >= this.maxLiveImages) {
+                if (this.dropLiveImages) {
+                    this.liveImages.poll();
+                    this.droppedLiveImages++;
+                } else {
+                    waitForWriter();
+                }
+            }
+            this.liveImages.add(image);
+        }
+
+        startWriter();
+    }
+
+    /**
+     * Write the images archived so far, waiting until they have been written
+     */
+    public synchronized void flush() throws InterruptedException {
+        queuePendingBatch();
+        startWriter();
+        while (this.writing || !this.rasBatches.isEmpty()) {
+            wait();
+        }
+    }
+
+    /**
+     * Discard the images that have not been queued for writing yet
+     */
+    public synchronized void discardPending() {
+        this.pendingBatch = new ArrayList<>();
+    }
+
+    /**
+     * @return the number of live images dropped because the live view fell behind
+     */
+    public synchronized int getDroppedLiveImages() {
+        return this.droppedLiveImages;
+    }
+
+    private void queuePendingBatch() throws InterruptedException {
+        if (this.pendingBatch.isEmpty()) {
+            return;
+        }
+
+        while (this.queuedRasImages + this.pendingBatch.size() > this.maxRasImages) {
+            waitForWriter();
+        }
+
+        this.rasBatches.add(this.pendingBatch);
+        this.queuedRasImages += this.pendingBatch.size();
+        this.pendingBatch = new ArrayList<>();
+    }
+
+    private void waitForWriter() throws InterruptedException {
+        startWriter();
+        wait();
+    }
+
+    private void startWriter() {
+        if (this.writing || (this.rasBatches.isEmpty() && this.liveImages.isEmpty())) {
+            return;
+        }
+
+        this.writing = true;
+        this.writers.execute(this::write);
+    }
+
+    private void write() {
+        while (true) {
+            List<TerminalImage> batch;
+            TerminalImage liveImage;
+            LiveWriter live;
+            synchronized (this) {
+                batch = this.rasBatches.poll();
+                liveImage = this.liveImages.poll();
+                live = this.liveWriter;
+                if (batch == null && liveImage == null) {
+                    this.writing = false;
+                    notifyAll();
+                    return;
+                }
+            }
+
+            if (batch != null) {
+                try {
+                    this.rasWriter.write(batch);
+                } catch (Exception e) {
+                    logger.error("Unable to write terminal cache to the RAS for terminal " + this.terminalId, e);
+                }
+            }
+
+            boolean liveViewGone = false;
+            if (liveImage != null && live != null) {
+                try {
+                    liveViewGone = !live.write(liveImage);
+                } catch (Exception e) {
+                    logger.error("Failed to write live terminal image, image lost", e);
+                    liveViewGone = true;
+                }
+            }
+
+            synchronized (this) {
+                if (batch != null) {
+                    this.queuedRasImages -= batch.size();
+                }
+                if (liveViewGone) {
+                    this.liveWriter = null;
+                    this.liveImages.clear();
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    private static ExecutorService createWriters() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(WRITER_THREADS, WRITER_THREADS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "3270 terminal archiver " + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
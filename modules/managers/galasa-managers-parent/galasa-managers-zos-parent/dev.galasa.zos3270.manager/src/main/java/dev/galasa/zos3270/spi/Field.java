@@ -15,6 +15,7 @@ public class Field {
     private final int            start;
 
     private char[]               text;
+    private String               textString;
 
     private final boolean        fieldProtected;
     private final boolean        fieldNumeric;
@@ -60,6 +61,14 @@ public class Field {
         char[] newText = Arrays.copyOf(this.text, this.text.length + 1);
         newText[newText.length - 1] = newChar;
         this.text = newText;
+        this.textString = null;
+    }
+
+    protected void appendChars(char[] newChars) {
+        char[] newText = Arrays.copyOf(this.text, this.text.length + newChars.length);
+        System.arraycopy(newChars, 0, newText, this.text.length, newChars.length);
+        this.text = newText;
+        this.textString = null;
     }
 
     @Override
@@ -90,7 +99,10 @@ public class Field {
     }
 
     public boolean containsText(String searchText) {
-        return new String(this.text).contains(searchText);
+        if (this.textString == null) {
+            this.textString = new String(this.text);
+        }
+        return this.textString.contains(searchText);
     }
 
     public int getStart() {
@@ -9,10 +9,15 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import javax.validation.constraints.NotNull;
@@ -85,6 +90,9 @@ import dev.galasa.zos3270.internal.terminal.ScreenUpdateTextListener;
 public class Screen {
 
     private static final String                     CANT_FIND_TEXT  = "Unable to find a field containing '";
+
+    // *** The start of the field that wraps to the start of the screen, formatted or not
+    private static final int                        WRAP_FIELD_START = -1;
     
     private final Charset                           codePage;
 
@@ -98,6 +106,13 @@ public class Screen {
     private int                                     columns;
     private int                                     rows;
 
+    // *** The positions of the start of fields in the buffer, and the positions
+    // *** changed since the fields were last calculated
+    private BitSet                                  startOfFields;
+    private BitSet                                  changedPositions;
+    private Field[]                                 fieldCache;
+    private int                                     fieldCacheWrapPosition = -1;
+
     private final boolean                           hasAlternate;
     private final int                               primaryColumns;
     private final int                               primaryRows;
@@ -107,8 +122,8 @@ public class Screen {
     private int                                     workingCursor   = 0;
     private int                                     screenCursor    = 0;
 
-    private Semaphore                               keyboardLock    = new Semaphore(1, true);
     private boolean                                 keyboardLockSet = false;
+    private final List<CompletableFuture<Void>>     keyboardWaiters = new ArrayList<>();
 
     private final LinkedList<IDatastreamListener> datastreamListeners =  new LinkedList<>();
 
@@ -189,11 +204,6 @@ public class Screen {
         if (!keyboardLockSet) {
             logger.trace("Locking keyboard");
             keyboardLockSet = true;
-            try {
-                keyboardLock.acquire();
-            } catch (InterruptedException e) {
-                throw new TerminalInterruptedException("Lock keyboard was interrupted", e);
-            }
         }
     }
 
@@ -205,7 +215,10 @@ public class Screen {
         if (keyboardLockSet) {
             logger.trace("Unlocking keyboard");
             keyboardLockSet = false;
-            keyboardLock.release();
+            for (CompletableFuture<Void> waiter : keyboardWaiters) {
+                waiter.complete(null);
+            }
+            keyboardWaiters.clear();
         }
     }
 
@@ -539,10 +552,8 @@ public class Screen {
             this.workingCursor = 0;
         }
 
-        synchronized (updateListeners) {
-            for (IScreenUpdateListener listener : updateListeners) {
-                listener.screenUpdated(Direction.RECEIVED, null);
-            }
+        for (IScreenUpdateListener listener : getUpdateListeners()) {
+            listener.screenUpdated(Direction.RECEIVED, null);
         }
     }
 
@@ -556,9 +567,7 @@ public class Screen {
             this.usingAlternate = false;
         }
 
-        for (int i = 0; i < buffer.length; i++) {
-            buffer[i] = null;
-        }
+        clearBuffer();
 
         this.screenCursor  = 0;
         this.workingCursor = 0;
@@ -579,9 +588,7 @@ public class Screen {
             this.usingAlternate = true;
         }
 
-        for (int i = 0; i < buffer.length; i++) {
-            buffer[i] = null;
-        }
+        clearBuffer();
 
         this.screenCursor  = 0;
         this.workingCursor = 0;
@@ -590,6 +597,26 @@ public class Screen {
     private void allocateBuffer() {
         this.screenSize = this.columns * this.rows;
         this.buffer = new IBufferHolder[this.screenSize];        
+        this.startOfFields = new BitSet(this.screenSize);
+        this.changedPositions = new BitSet(this.screenSize);
+        this.fieldCache = null;
+    }
+
+    private void clearBuffer() {
+        Arrays.fill(this.buffer, null);
+        this.startOfFields.clear();
+        this.changedPositions.set(0, this.screenSize);
+    }
+
+    /**
+     * Update a position in the buffer, keeping the start of field positions
+     * current and noting the position has changed since the fields were last
+     * calculated
+     */
+    private void setBufferHolder(int position, IBufferHolder bufferHolder) {
+        this.buffer[position] = bufferHolder;
+        this.startOfFields.set(position, bufferHolder instanceof BufferStartOfField);
+        this.changedPositions.set(position);
     }
 
     /**
@@ -620,7 +647,7 @@ public class Screen {
 
         boolean firstPosition = true;
         while (firstPosition || this.workingCursor != endOfRepeat) {
-            this.buffer[this.workingCursor] = new BufferChar(order.getChar());
+            setBufferHolder(this.workingCursor, new BufferChar(order.getChar()));
             if (endOfRepeat == this.screenSize && this.workingCursor == (this.screenSize - 1)) {
                 endOfRepeat = 0;
                 break;
@@ -640,9 +667,9 @@ public class Screen {
     }
 
     private void processSF(OrderStartField order) {
-        this.buffer[this.workingCursor] = new BufferStartOfField(this.workingCursor, order.isFieldProtected(),
+        setBufferHolder(this.workingCursor, new BufferStartOfField(this.workingCursor, order.isFieldProtected(),
                 order.isFieldNumeric(), order.isFieldDisplay(), order.isFieldIntenseDisplay(),
-                order.isFieldSelectorPen(), order.isFieldModifed());
+                order.isFieldSelectorPen(), order.isFieldModifed()));
         incrementWorkingCursor();
     }
 
@@ -660,7 +687,7 @@ public class Screen {
             bsf = new BufferStartOfField(this.workingCursor, false, false, true, false, false, false);
         }
 
-        this.buffer[this.workingCursor] = bsf;
+        setBufferHolder(this.workingCursor, bsf);
         incrementWorkingCursor();
     }
 
@@ -678,7 +705,7 @@ public class Screen {
             bsf = new BufferStartOfField(this.workingCursor, false, false, true, false, false, false);
         }
 
-        this.buffer[this.workingCursor] = bsf;
+        setBufferHolder(this.workingCursor, bsf);
         incrementWorkingCursor();
     }
 
@@ -732,7 +759,7 @@ public class Screen {
                 charProtected = ((BufferStartOfField)bh).isProtected();
             } else {
                 if (!charProtected) {
-                    this.buffer[eraseCursor] = null;
+                    setBufferHolder(eraseCursor, null);
                 }
             }
 
@@ -759,34 +786,34 @@ public class Screen {
     }
 
     private void processNewLine() {
-        this.buffer[this.workingCursor] = new BufferNewLine();
+        setBufferHolder(this.workingCursor, new BufferNewLine());
         incrementWorkingCursor();
     }
 
     private void processFormFeed() {
-        this.buffer[this.workingCursor] = new BufferFormFeed();
+        setBufferHolder(this.workingCursor, new BufferFormFeed());
         incrementWorkingCursor();
     }
 
     private void processCarrageReturn() {
-        this.buffer[this.workingCursor] = new BufferCarrageReturn();
+        setBufferHolder(this.workingCursor, new BufferCarrageReturn());
         incrementWorkingCursor();
     }
 
     private void processEndOfMedium() {
-        this.buffer[this.workingCursor] = new BufferEndOfMedium();
+        setBufferHolder(this.workingCursor, new BufferEndOfMedium());
         incrementWorkingCursor();
     }
 
     private void processGraphicsEscape(OrderGraphicsEscape order) {
-        this.buffer[this.workingCursor] = new BufferGraphicsEscape(order.getByte());
+        setBufferHolder(this.workingCursor, new BufferGraphicsEscape(order.getByte()));
         incrementWorkingCursor();
     }
 
     private void processText(OrderText order) {
         String text = order.getText();
         for (int i = 0; i < text.length(); i++) {
-            this.buffer[this.workingCursor] = new BufferChar(text.charAt(i));
+            setBufferHolder(this.workingCursor, new BufferChar(text.charAt(i)));
             incrementWorkingCursor();
         }
 
@@ -1109,46 +1136,46 @@ public class Screen {
 
 
 
+    /**
+     * Calculate the fields on the screen. The fields are cached, and only the
+     * fields that contain a position changed since the last call are
+     * rebuilt, so an unchanged field is returned as the same Field instance.
+     * 
+     * @return the fields on the screen
+     */
     public synchronized @NotNull Field[] calculateFields() {
-        ArrayList<Field> fields = new ArrayList<>();
+        if (this.fieldCache != null && this.changedPositions.isEmpty()) {
+            return this.fieldCache.clone();
+        }
+
+        Map<Integer, Field> previousFields = new HashMap<>();
+        if (this.fieldCache != null) {
+            for (Field field : this.fieldCache) {
+                // *** getStart() reports the wrap field as starting at 0, so key it by the start it was built with
+                previousFields.put(field.isDummyField() ? WRAP_FIELD_START : field.getStart(), field);
+            }
+        }
 
-        Field currentField = null;
+        ArrayList<Field> fields = new ArrayList<>();
 
         // *** Check to see if the screen is wrapped or unformatted
-        if (!(this.buffer[0] instanceof BufferStartOfField)) {
-            BufferStartOfField wrapSoField = null;
-            for (int i = this.buffer.length - 1; i >= 0; i--) {
-                IBufferHolder bh = this.buffer[i];
-                if (bh instanceof BufferStartOfField) {
-                    wrapSoField = (BufferStartOfField) bh;
-                    break;
-                }
-            }
+        int firstSfPosition = this.startOfFields.nextSetBit(0);
+        int wrapSfPosition = -1;
+        if (firstSfPosition != 0) {
+            wrapSfPosition = this.startOfFields.previousSetBit(this.screenSize - 1);
+            int end = (firstSfPosition < 0) ? this.screenSize : firstSfPosition;
 
-            if (wrapSoField == null) {
-                currentField = new Field();
-            } else {
-                currentField = new Field(-1, wrapSoField);
+            Field previousField = previousFields.get(WRAP_FIELD_START);
+            if (wrapSfPosition != this.fieldCacheWrapPosition || this.changedPositions.get(Math.max(wrapSfPosition, 0))) {
+                previousField = null;
             }
+            fields.add(calculateField(WRAP_FIELD_START, end, wrapSfPosition, previousField));
         }
 
-        for (int i = 0; i < this.buffer.length; i++) {
-            IBufferHolder bh = this.buffer[i];
-            if (bh == null) {
-                currentField.appendChar((char) 0x00); // NOSONAR, can't be null
-            } else if (bh instanceof BufferStartOfField) {
-                if (currentField != null) {
-                    fields.add(currentField);
-                }
-                currentField = new Field(i, (BufferStartOfField) bh);
-            } else if (bh instanceof BufferChar) {
-                currentField.appendChar(((BufferChar) bh).getChar());// NOSONAR, can't be null
-            } else {
-                throw new UnsupportedOperationException("Unrecognised buffer type " + bh.getClass().getName());
-            }
-        }
-        if (currentField != null) {
-            fields.add(currentField);
+        for (int sfPosition = firstSfPosition; sfPosition >= 0; sfPosition = this.startOfFields.nextSetBit(sfPosition + 1)) {
+            int nextSfPosition = this.startOfFields.nextSetBit(sfPosition + 1);
+            int end = (nextSfPosition < 0) ? this.screenSize : nextSfPosition;
+            fields.add(calculateField(sfPosition, end, sfPosition, previousFields.get(sfPosition)));
         }
 
         // *** If the SBA were not in order, possibility that the safeguard first field
@@ -1159,7 +1186,60 @@ public class Screen {
             }
         }
 
-        return fields.toArray(new Field[fields.size()]);
+        this.fieldCache = fields.toArray(new Field[fields.size()]);
+        this.fieldCacheWrapPosition = wrapSfPosition;
+        this.changedPositions.clear();
+
+        return this.fieldCache.clone();
+    }
+
+    /**
+     * Build the field covering start to end, unless the previous field covered
+     * the same positions and none of them have changed
+     * 
+     * @param start - the position of the start of field, or -1 for the field that wraps to the start of the screen
+     * @param end - the position after the last character of the field
+     * @param sfPosition - the position of the start of field holding the attributes, or -1 if unformatted
+     * @param previousField - the field previously calculated at this start, can be null
+     */
+    private Field calculateField(int start, int end, int sfPosition, Field previousField) {
+        BufferStartOfField sf = (sfPosition < 0) ? null : (BufferStartOfField) this.buffer[sfPosition];
+
+        if (previousField != null && previousField.length() == end - start) {
+            int changed = this.changedPositions.nextSetBit(Math.max(start, 0));
+            boolean unchanged = changed < 0 || changed >= end;
+            // *** The modified flag is the one attribute that can change on an existing start of field
+            if (sf != null) {
+                unchanged = unchanged && previousField.isFieldModifed() == sf.isFieldModifed();
+            }
+
+            if (unchanged) {
+                return previousField;
+            }
+        }
+
+        Field field;
+        if (sf == null) {
+            field = new Field();
+        } else {
+            field = new Field(start, sf);
+        }
+
+        int textStart = start + 1;
+        char[] text = new char[end - textStart];
+        for (int i = textStart; i < end; i++) {
+            IBufferHolder bh = this.buffer[i];
+            if (bh == null) {
+                text[i - textStart] = 0x00;
+            } else if (bh instanceof BufferChar) {
+                text[i - textStart] = ((BufferChar) bh).getChar();
+            } else {
+                throw new UnsupportedOperationException("Unrecognised buffer type " + bh.getClass().getName());
+            }
+        }
+        field.appendChars(text);
+
+        return field;
     }
 
     public void searchFieldContaining(String text) throws TextNotFoundException {
@@ -1173,9 +1253,23 @@ public class Screen {
     }
 
     public int searchFieldContaining(@NotNull String[] okText, String[] errorText) throws TextNotFoundException, ErrorTextFoundException {
+        return searchFields(calculateFields(), okText, errorText);
+    }
+
+    /**
+     * Search the fields for the text, the error text being searched for first
+     * 
+     * @param fields - the fields to search
+     * @param okText - the text to search for
+     * @param errorText - the error text to search for, can be null
+     * @return the index of the first okText found
+     * @throws TextNotFoundException if none of the text is found
+     * @throws ErrorTextFoundException if any of the error text is found
+     */
+    public static int searchFields(@NotNull Field[] fields, @NotNull String[] okText, String[] errorText) throws TextNotFoundException, ErrorTextFoundException {
         if (errorText != null) {
             for(int i = 0; i < errorText.length; i++) {
-                for (Field field : calculateFields()) {
+                for (Field field : fields) {
                     if (field.containsText(errorText[i])) {
                         throw new ErrorTextFoundException("Found error text '" + errorText[i] + "' on screen", i);
                     }
@@ -1184,7 +1278,7 @@ public class Screen {
         }
 
         for(int i = 0; i < okText.length; i++) {
-            for (Field field : calculateFields()) {
+            for (Field field : fields) {
                 if (field.containsText(okText[i])) {
                     return i;
                 }
@@ -1212,14 +1306,39 @@ public class Screen {
      * @throws InterruptedException
      */
     public void waitForKeyboard(int maxWait) throws TimeoutException, TerminalInterruptedException {
+        CompletableFuture<Void> keyboardUnlocked = waitForKeyboardAsync();
         try {
-            if (!keyboardLock.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
-                throw new TimeoutException("Wait for keyboard took longer than " + maxWait + "ms");
-            }
+            keyboardUnlocked.get(maxWait, TimeUnit.MILLISECONDS);
+        } catch(java.util.concurrent.TimeoutException e) {
+            cancelKeyboardWait(keyboardUnlocked);
+            throw new TimeoutException("Wait for keyboard took longer than " + maxWait + "ms");
         } catch(InterruptedException e) {
+            cancelKeyboardWait(keyboardUnlocked);
             throw new TerminalInterruptedException("Wait for keyboard was interrupted", e);
+        } catch(ExecutionException e) {
+            throw new TerminalInterruptedException("Wait for keyboard failed", e.getCause());
+        }
+    }
+
+    /**
+     * Wait on the keyboard being free without blocking, the future is completed
+     * by the thread that unlocks the keyboard while it holds the screen lock
+     * 
+     * @return a future completed when the keyboard is free
+     */
+    public synchronized CompletableFuture<Void> waitForKeyboardAsync() {
+        if (!keyboardLockSet) {
+            return CompletableFuture.completedFuture(null);
         }
-        keyboardLock.release();
+
+        CompletableFuture<Void> keyboardUnlocked = new CompletableFuture<>();
+        keyboardWaiters.add(keyboardUnlocked);
+        return keyboardUnlocked;
+    }
+
+    private synchronized void cancelKeyboardWait(CompletableFuture<Void> keyboardUnlocked) {
+        keyboardWaiters.remove(keyboardUnlocked);
+        keyboardUnlocked.cancel(false);
     }
 
     public int waitForTextInField(String text, long maxWait) throws TerminalInterruptedException, TextNotFoundException, Zos3270Exception {
@@ -1244,6 +1363,19 @@ public class Screen {
 
 
 
+    /**
+     * Wait for text to appear in a field without blocking, the future is
+     * completed by the thread that updates the screen while it holds the screen
+     * lock
+     * 
+     * @return a future completed with the index of the ok text found, or
+     *         completed exceptionally with an {@link ErrorTextFoundException}.
+     *         Cancelling it stops the wait.
+     */
+    public CompletableFuture<Integer> waitForTextInFieldAsync(String[] ok, String[] error) {
+        return ScreenUpdateTextListener.waitForTextAsync(this, ok, error);
+    }
+
     public synchronized void positionCursorToFieldContaining(@NotNull String text)
             throws KeyboardLockedException, TextNotFoundException {
         if (keyboardLockSet) {
@@ -1298,7 +1430,7 @@ public class Screen {
                 break;
             }
 
-            buffer[pos] = new BufferChar((char) 0);
+            setBufferHolder(pos, new BufferChar((char) 0));
             pos++;
             if (pos >= this.screenSize) {
                 pos = 0;
@@ -1357,7 +1489,7 @@ public class Screen {
                 }
             } else {
                 if (unprotected) {
-                    this.buffer[i] = null;
+                    setBufferHolder(i, null);
                     if (startOfFieldUnprotected != null) {
                         startOfFieldUnprotected.setFieldModified();
                     }
@@ -1643,8 +1775,8 @@ public class Screen {
         }
 
         while(true) {
-            this.buffer[position - 1] = this.buffer[position];
-            this.buffer[position] = null;
+            setBufferHolder(position - 1, this.buffer[position]);
+            setBufferHolder(position, null);
 
             position++;
             if (position >= this.screenSize) {
@@ -1675,6 +1807,16 @@ public class Screen {
         }
     }
 
+    /**
+     * A copy of the listeners, so a listener can unregister itself, or a wait it
+     * completes can, while the listeners are being called
+     */
+    private List<IScreenUpdateListener> getUpdateListeners() {
+        synchronized (updateListeners) {
+            return new ArrayList<>(updateListeners);
+        }
+    }
+
     public synchronized void unregisterScreenUpdateListener(IScreenUpdateListener listener) {
         synchronized (updateListeners) {
             updateListeners.remove(listener);
@@ -1768,7 +1910,7 @@ public class Screen {
                         "Unable to type where the cursor is pointing to - " + position);
             }
 
-            buffer[position] = new BufferChar(text.charAt(i));
+            setBufferHolder(position, new BufferChar(text.charAt(i)));
 
             if (sf != null) {
                 sf.setFieldModified();
@@ -1825,7 +1967,7 @@ public class Screen {
             }
             writeTrace(outboundBuffer);
 
-            for (IScreenUpdateListener listener : updateListeners) {
+            for (IScreenUpdateListener listener : getUpdateListeners()) {
                 listener.screenUpdated(Direction.SENDING, aid);
             }
 
@@ -1855,14 +1997,14 @@ public class Screen {
 
     public void setBuffer(IBufferHolder[] newBuffer) {
         for (int i = 0; i < this.buffer.length && i < newBuffer.length; i++) {
-            this.buffer[i] = newBuffer[i];
+            setBufferHolder(i, newBuffer[i]);
         }
     }
 
     public void setBuffer(int col, int row, String text) {
         int pos = (row * columns) + col;
         for (int i = 0; i < text.length(); i++) {
-            buffer[pos] = new BufferChar(text.charAt(i));
+            setBufferHolder(pos, new BufferChar(text.charAt(i)));
             pos++;
         }
     }
@@ -1870,7 +2012,7 @@ public class Screen {
     public void nullify(int col, int row, int len) {
         int pos = (row * columns) + col;
         for (int i = 0; i < len; i++) {
-            buffer[pos] = null;
+            setBufferHolder(pos, null);
             pos++;
         }
     }
@@ -6,9 +6,9 @@
 package dev.galasa.zos3270.spi;
 
 import java.nio.charset.Charset;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import javax.validation.constraints.NotNull;
 
@@ -30,6 +30,8 @@ import dev.galasa.zos3270.Zos3270Exception;
 import dev.galasa.zos3270.common.screens.TerminalSize;
 import dev.galasa.zos3270.internal.comms.Network;
 import dev.galasa.zos3270.internal.comms.NetworkThread;
+import dev.galasa.zos3270.internal.comms.TerminalEngine;
+import dev.galasa.zos3270.internal.terminal.ScreenUpdateTextListener;
 
 public class Terminal implements ITerminal {
 
@@ -38,6 +40,8 @@ public class Terminal implements ITerminal {
     private final Network network;
     private final String  id;
     private NetworkThread networkThread;
+    private TerminalEngine terminalEngine;
+    private boolean       engineConnected = false;
     private boolean connected = false;
 
     private int           defaultWaitTime = 120_000;
@@ -94,35 +98,43 @@ public class Terminal implements ITerminal {
         this.deviceTypes = deviceTypes;
     }
 
+    /**
+     * Connect with a terminal engine rather than a thread of its own, unless the
+     * terminal uses TLS
+     * 
+     * @param terminalEngine - the engine, or null for a thread of its own
+     */
+    public void setTerminalEngine(TerminalEngine terminalEngine) {
+        this.terminalEngine = terminalEngine;
+    }
+
     @Override
     public synchronized void connect() throws NetworkException {
-        connected = network.connectClient();
-        networkThread = new NetworkThread(this, screen, network, network.getInputStream(), this.deviceTypes);
-        networkThread.start();
-        
-        Instant expire = Instant.now().plus(60, ChronoUnit.SECONDS);
-        boolean started = false;
-        while(Instant.now().isBefore(expire)) {
-            NetworkThread nThread = this.networkThread;
-            if (nThread == null) {
-                this.network.close();
-                throw new NetworkException("The TN3270 network thread failed to start correctly");
-            }
-            if (nThread.isStarted()) {
-                started = true;
-                break;
-            }
-            
-            try {
-                Thread.sleep(50);
-            } catch(InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new NetworkException("Wait for TN3270 startup was interrupted", e);
-            }
+        NetworkThread nThread;
+        if (terminalEngine != null && !network.isTls()) {
+            nThread = new NetworkThread(this, screen, network, null, this.deviceTypes);
+            networkThread = nThread;
+            engineConnected = true;
+            terminalEngine.connect(network, nThread);
+            connected = true;
+        } else {
+            connected = network.connectClient();
+            nThread = new NetworkThread(this, screen, network, network.getInputStream(), this.deviceTypes);
+            networkThread = nThread;
+            engineConnected = false;
+            nThread.start();
         }
         
-        if (!started) {
+        try {
+            nThread.getSessionStarted().get(60, TimeUnit.SECONDS);
+        } catch(ExecutionException e) {
+            this.network.close();
+            throw new NetworkException("The TN3270 network thread failed to start correctly", e.getCause());
+        } catch(java.util.concurrent.TimeoutException e) {
             throw new NetworkException("TN3270 server did not start session in time");
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NetworkException("Wait for TN3270 startup was interrupted", e);
         }
     }
 
@@ -135,11 +147,18 @@ public class Terminal implements ITerminal {
         if (network != null) {
             network.close();
         }
-        if (networkThread != null) {
+        NetworkThread nThread = networkThread;
+        if (nThread != null) {
             try {
-                networkThread.join();
+                if (engineConnected) {
+                    terminalEngine.disconnect(nThread).get(60, TimeUnit.SECONDS);
+                } else {
+                    nThread.join();
+                }
             } catch (InterruptedException e) {
                 throw new TerminalInterruptedException("Join of the network thread was interrupted",e);
+            } catch (ExecutionException | java.util.concurrent.TimeoutException e) {
+                logger.warn("Terminal engine did not confirm the network was closed", e);
             }
             networkThread = null;
         }
@@ -155,13 +174,22 @@ public class Terminal implements ITerminal {
         networkThread = null;
         
         if (autoReconnect) {
-            try {
-                connect();
-            } catch (NetworkException e) {
-                logger.error("Auto reconnect failed",e);
+            if (engineConnected) {
+                // *** Reconnect away from the engine thread, as it has to read the negotiation
+                terminalEngine.execute(this::reconnect);
+            } else {
+                reconnect();
             }
         }
     }
+
+    private void reconnect() {
+        try {
+            connect();
+        } catch (NetworkException e) {
+            logger.error("Auto reconnect failed",e);
+        }
+    }
     
     @Override
     public boolean isConnected() {
@@ -213,25 +241,14 @@ public class Terminal implements ITerminal {
     
     @Override
     public boolean isTextInField(String text, long timeoutInMilliseconds) throws TerminalInterruptedException {
-        if (isTextInField(text)) {
-            return true;
-        }
-        
-        Instant expire = Instant.now().plus(timeoutInMilliseconds, ChronoUnit.MILLIS);
-        while(expire.isAfter(Instant.now())) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new TerminalInterruptedException("Wait for text was interrupted",e);
-            }
-            
-            if (isTextInField(text)) {
-                return true;
-            }
+        try {
+            return ScreenUpdateTextListener.waitForText(screen, new String[] { text }, null, timeoutInMilliseconds) >= 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TerminalInterruptedException("Wait for text was interrupted",e);
+        } catch (Zos3270Exception e) {
+            return false;
         }
-        
-        return false;
     }
 
     @Override
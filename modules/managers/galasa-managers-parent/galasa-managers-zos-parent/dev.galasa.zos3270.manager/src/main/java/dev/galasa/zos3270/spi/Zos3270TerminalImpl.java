@@ -6,6 +6,7 @@
 package dev.galasa.zos3270.spi;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
@@ -44,9 +45,11 @@ import dev.galasa.zos3270.common.screens.TerminalField;
 import dev.galasa.zos3270.common.screens.TerminalImage;
 import dev.galasa.zos3270.common.screens.TerminalSize;
 import dev.galasa.zos3270.internal.properties.ApplyConfidentialTextFiltering;
+import dev.galasa.zos3270.internal.properties.LiveTerminalDropImages;
 import dev.galasa.zos3270.internal.properties.LiveTerminalUrl;
 import dev.galasa.zos3270.internal.properties.LogConsoleTerminals;
 import dev.galasa.zos3270.internal.properties.TerminalDeviceTypes;
+import dev.galasa.zos3270.internal.terminal.TerminalImageArchiver;
 
 public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListener {
 
@@ -61,7 +64,7 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
     private final IConfidentialTextService cts;
     private final boolean applyCtf;
 
-    private final ArrayList<TerminalImage> cachedImages = new ArrayList<>();
+    private final TerminalImageArchiver archiver;
 
     private Path storedArtifactsRoot;
     private final Path terminalRasDirectory;
@@ -132,6 +135,8 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
         setDeviceTypes(TerminalDeviceTypes.get(image));
 
         logConsoleTerminals = LogConsoleTerminals.get();
+
+        this.archiver = createArchiver();
     }
 
 
@@ -178,6 +183,16 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
         setDeviceTypes(TerminalDeviceTypes.get(image));
 
         logConsoleTerminals = LogConsoleTerminals.get();
+
+        this.archiver = createArchiver();
+    }
+
+    private TerminalImageArchiver createArchiver() throws Zos3270ManagerException {
+        TerminalImageArchiver.LiveWriter liveWriter = null;
+        if (this.liveTerminalUrl != null) {
+            liveWriter = this::writeLiveTerminalImage;
+        }
+        return new TerminalImageArchiver(this.terminalId, this::writeRasBatch, liveWriter, LiveTerminalDropImages.get());
     }
 
     public boolean doAutoConnect() {
@@ -213,42 +228,13 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
         TerminalImage terminalImage = new TerminalImage(updateId, update, direction == Direction.RECEIVED, null,
                 aidText, terminalSize, cursorCol, cursorRow);
         terminalImage.getFields().addAll(buildTerminalFields(getScreen()));
-        cachedImages.add(terminalImage);
-        if (cachedImages.size() >= 10) {
-            writeRasOutput();
-            flushTerminalCache();
-        }
 
-        if (liveTerminalUrl != null) {
-            try {
-                liveTerminalSequence++;
-                dev.galasa.zos3270.common.screens.Terminal liveTerminal = new dev.galasa.zos3270.common.screens.Terminal(
-                        this.terminalId, this.runId, liveTerminalSequence, terminalSize);
-                TerminalImage newTerminalImage = removeConfidentialTextFromTerminalImage(terminalImage);
-                liveTerminal.getImages().add(newTerminalImage);
-
-                JsonObject intermediateJson = (JsonObject) gson.toJsonTree(liveTerminal);
-                stripFalseBooleans(intermediateJson);
-                String tempJson = gson.toJson(intermediateJson);
-
-                HttpURLConnection connection = (HttpURLConnection) this.liveTerminalUrl.openConnection();
-                connection.setRequestMethod("PUT");
-                connection.addRequestProperty("Content-Type", "application/json");
-                connection.setDoInput(true);
-                connection.setDoOutput(true);
-                connection.connect();
-                try (OutputStream os = connection.getOutputStream()) {
-                    IOUtils.write(tempJson, os, StandardCharsets.UTF_8);
-                }
-                if (connection.getResponseCode() != 200) {
-                    logger.warn("Unable to write live terminal due to " + connection.getResponseCode() + " - "
-                            + connection.getResponseMessage());
-                    this.liveTerminalUrl = null;
-                }
-            } catch (Exception e) {
-                logger.error("Failed to write live terminal image, image lost", e);
-                this.liveTerminalUrl = null;
-            }
+        // *** The images are serialised, compressed and sent off this thread
+        try {
+            this.archiver.archive(terminalImage);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted archiving terminal image " + update + ", image lost", e);
         }
 
         if (logConsoleTerminals) {
@@ -264,32 +250,91 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
         }
     }
 
+    /**
+     * Write the terminal images archived so far to the RAS, waiting until they
+     * have been written
+     */
     public synchronized void writeRasOutput() {
+        try {
+            this.archiver.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted writing terminal cache to the RAS", e);
+        }
+    }
+
+    /**
+     * Called by the archiver, one batch at a time, so needs no lock
+     */
+    private void writeRasBatch(List<TerminalImage> images) throws IOException {
         rasTerminalSequence++;
 
         try {
-            writeTerminalGzJson();
-        } catch (Exception e) {
-            logger.error("Unable to write terminal cache to the RAS", e);
+            writeTerminalGzJson(images);
+        } catch (IOException e) {
             rasTerminalSequence--;
-            return;
+            throw e;
+        }
+    }
+
+    /**
+     * Sends an image to the live terminal view. Called by the archiver, one
+     * image at a time. The response is read in full so the connection is kept
+     * alive for the next image.
+     * 
+     * @return false if the live view did not accept the image
+     */
+    private boolean writeLiveTerminalImage(TerminalImage terminalImage) throws IOException {
+        liveTerminalSequence++;
+        dev.galasa.zos3270.common.screens.Terminal liveTerminal = new dev.galasa.zos3270.common.screens.Terminal(
+                this.terminalId, this.runId, liveTerminalSequence, terminalImage.getImageSize());
+        TerminalImage newTerminalImage = removeConfidentialTextFromTerminalImage(terminalImage);
+        liveTerminal.getImages().add(newTerminalImage);
+
+        JsonObject intermediateJson = (JsonObject) gson.toJsonTree(liveTerminal);
+        stripFalseBooleans(intermediateJson);
+        byte[] json = gson.toJson(intermediateJson).getBytes(StandardCharsets.UTF_8);
+
+        HttpURLConnection connection = (HttpURLConnection) this.liveTerminalUrl.openConnection();
+        connection.setRequestMethod("PUT");
+        connection.addRequestProperty("Content-Type", "application/json");
+        connection.setDoInput(true);
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(json.length);
+        connection.connect();
+        try (OutputStream os = connection.getOutputStream()) {
+            os.write(json);
+        }
+
+        int responseCode = connection.getResponseCode();
+        try (InputStream is = (responseCode < 400) ? connection.getInputStream() : connection.getErrorStream()) {
+            if (is != null) {
+                IOUtils.consume(is);
+            }
+        }
+
+        if (responseCode != 200) {
+            logger.warn("Unable to write live terminal due to " + responseCode + " - "
+                    + connection.getResponseMessage());
+            return false;
         }
+        return true;
     }
 
     /**
      * This method creates JSON representations of the Terminal screens and writes them to the RAS
      * @throws IOException
      */
-    private synchronized void writeTerminalGzJson() throws IOException {
-        if (this.cachedImages.isEmpty()) {
+    private void writeTerminalGzJson(List<TerminalImage> images) throws IOException {
+        if (images.isEmpty()) {
             return;
         }
 
-        TerminalSize terminalSize = new TerminalSize(getScreen().getNoOfColumns(), getScreen().getNoOfRows());
+        TerminalSize terminalSize = images.get(0).getImageSize();
         dev.galasa.zos3270.common.screens.Terminal rasTerminal = new dev.galasa.zos3270.common.screens.Terminal(
                 this.terminalId, this.runId, rasTerminalSequence, terminalSize);
 
-        for (TerminalImage terminalImage : this.cachedImages){
+        for (TerminalImage terminalImage : images){
 
             TerminalImage newTerminalImage = removeConfidentialTextFromTerminalImage(terminalImage);
             rasTerminal.getImages().add(newTerminalImage);
@@ -364,7 +409,7 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
     }
 
     public synchronized void flushTerminalCache() {
-        this.cachedImages.clear();
+        this.archiver.discardPending();
     }
 
     private static List<TerminalField> buildTerminalFields(Screen screen) {
@@ -0,0 +1,116 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.network;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.codec.binary.Hex;
+import org.junit.Test;
+
+import dev.galasa.zos3270.internal.comms.DatastreamReader;
+
+public class DatastreamReaderTest {
+
+    /**
+     * Returns the stream a few bytes at a time, as a socket might
+     */
+    private static class ChunkedInputStream extends ByteArrayInputStream {
+        private final int chunkSize;
+
+        private ChunkedInputStream(byte[] bytes, int chunkSize) {
+            super(bytes);
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, chunkSize));
+        }
+    }
+
+    private static List<String> readFrames(DatastreamReader reader, InputStream inputStream) throws Exception {
+        List<String> frames = new ArrayList<>();
+        while (true) {
+            ByteBuffer frame = reader.nextFrame();
+            if (frame != null) {
+                byte[] bytes = new byte[frame.remaining()];
+                frame.get(bytes);
+                frames.add(Hex.encodeHexString(bytes));
+            } else if (reader.readFrom(inputStream) == -1) {
+                return frames;
+            }
+        }
+    }
+
+    @Test
+    public void testRecordsAreSplitAndUnescaped() throws Exception {
+        // Given...
+        byte[] stream = Hex.decodeHex("0000000000f5c3ffffc1ffef" + "0000000000f1c2ffef");
+        DatastreamReader reader = new DatastreamReader(DatastreamReader.DEFAULT_CAPACITY, false);
+
+        // When...
+        List<String> frames = readFrames(reader, new ByteArrayInputStream(stream));
+
+        // Then...
+        assertThat(frames).containsExactly("0000000000f5c3ffc1", "0000000000f1c2");
+        assertThat(reader.hasPartialFrame()).isFalse();
+    }
+
+    @Test
+    public void testTelnetCommandsAreReturnedAsReceived() throws Exception {
+        // Given...
+        byte[] stream = Hex.decodeHex("fffd28" + "fffa2808020fffff01fff0" + "fffd19fffb19" + "fffc06" + "fff1" + "c1ffef");
+        DatastreamReader reader = new DatastreamReader(DatastreamReader.DEFAULT_CAPACITY, false);
+
+        // When...
+        List<String> frames = readFrames(reader, new ByteArrayInputStream(stream));
+
+        // Then...
+        assertThat(frames).containsExactly("fffd28", "fffa2808020fffff01fff0", "fffd19fffb19", "fffc06", "fff1", "c1");
+    }
+
+    @Test
+    public void testFramesSplitAcrossReadsAreReassembled() throws Exception {
+        // Given...
+        String expected = "0000000000f5c3ff11c1c2";
+        byte[] stream = Hex.decodeHex("fffd19fffb19" + "0000000000f5c3ffff11c1c2ffef" + "fffa2808020fffff01fff0");
+
+        for (int chunkSize = 1; chunkSize < 8; chunkSize++) {
+            DatastreamReader reader = new DatastreamReader(4, chunkSize % 2 == 0);
+
+            // When...
+            List<String> frames = readFrames(reader, new ChunkedInputStream(stream, chunkSize));
+
+            // Then...
+            assertThat(frames).as("chunk size " + chunkSize).containsExactly("fffd19fffb19", expected, "fffa2808020fffff01fff0");
+        }
+    }
+
+    @Test
+    public void testBufferGrowsToFitALargeRecord() throws Exception {
+        // Given...
+        byte[] record = new byte[50000];
+        for (int i = 0; i < record.length; i++) {
+            record[i] = (byte) (0x40 + (i % 64));
+        }
+        ByteBuffer stream = ByteBuffer.allocate(record.length + 4);
+        stream.put(record).put(Hex.decodeHex("ffef")).put(Hex.decodeHex("c1c2"));
+        DatastreamReader reader = new DatastreamReader(16, true);
+
+        // When...
+        List<String> frames = readFrames(reader, new ChunkedInputStream(stream.array(), 1000));
+
+        // Then...
+        assertThat(frames).containsExactly(Hex.encodeHexString(record));
+        assertThat(reader.hasPartialFrame()).isTrue();
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.network;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import dev.galasa.zos3270.internal.comms.Network;
+import dev.galasa.zos3270.internal.comms.NetworkSelector;
+import dev.galasa.zos3270.internal.comms.NetworkServer;
+import dev.galasa.zos3270.internal.comms.NetworkThread;
+import dev.galasa.zos3270.spi.Screen;
+import dev.galasa.zos3270.util.Zos3270TestBase;
+
+public class NetworkSelectorTest extends Zos3270TestBase {
+
+    /**
+     * Accepts terminals one at a time, negotiating TN3270E and sending each a screen
+     */
+    private static class TestServer extends Thread {
+        private final ServerSocket       serverSocket;
+        private final int                terminals;
+        private final List<NetworkServer> servers = new ArrayList<>();
+        private volatile Exception       failure;
+
+        private TestServer(int terminals) throws Exception {
+            this.serverSocket = new ServerSocket(0, terminals, InetAddress.getLoopbackAddress());
+            this.terminals = terminals;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < terminals; i++) {
+                    Socket socket = serverSocket.accept();
+                    NetworkServer server = new NetworkServer(socket);
+                    servers.add(server);
+                    server.sendDatastream(readyScreen(i));
+                }
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+
+        private void close() throws Exception {
+            for (NetworkServer server : servers) {
+                server.close();
+            }
+            serverSocket.close();
+        }
+    }
+
+    private static byte[] readyScreen(int terminal) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(0xf5); // Erase/Write
+        baos.write(0xc3); // WCC keyboard restore
+        baos.write(0x11); // SBA row 1 column 1
+        baos.write(0x40);
+        baos.write(0x40);
+        baos.write(0x1d); // SF protected
+        baos.write(0x60);
+        baos.write(("TERMINAL" + terminal + " READY").getBytes(ebcdic));
+        return baos.toByteArray();
+    }
+
+    @Test
+    public void testManyTerminalsAreReadOnOneThread() throws Exception {
+        // Given...
+        int terminals = 50;
+        TestServer server = new TestServer(terminals);
+        server.start();
+
+        NetworkSelector selector = new NetworkSelector("3270 selector test");
+        selector.start();
+
+        List<Network> networks = new ArrayList<>();
+        List<Screen> screens = new ArrayList<>();
+        int threadsBefore = Thread.activeCount();
+        try {
+            // When...
+            for (int i = 0; i < terminals; i++) {
+                Network network = new Network("localhost", server.serverSocket.getLocalPort(), "TERM" + i);
+                Screen screen = CreateTestScreen(80, 24, network);
+                SocketChannel channel = network.connectClientChannel();
+                selector.register(channel, new NetworkThread(null, screen, network, null));
+                networks.add(network);
+                screens.add(screen);
+            }
+
+            // Then...
+            for (int i = 0; i < terminals; i++) {
+                assertThat(screens.get(i).waitForTextInField("TERMINAL" + i + " READY", 10000)).isEqualTo(0);
+            }
+            assertThat(server.failure).isNull();
+            assertThat(selector.getRegisteredCount()).isEqualTo(terminals);
+
+            // *** Only the keep alive threads are per terminal
+            assertThat(Thread.activeCount() - threadsBefore).isLessThanOrEqualTo(terminals + 1);
+        } finally {
+            server.join(10000);
+            server.close();
+        }
+
+        // When...
+        long deadline = System.currentTimeMillis() + 10000;
+        while (selector.getRegisteredCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        selector.shutdown();
+        selector.join(10000);
+
+        // Then...
+        assertThat(selector.getRegisteredCount()).isEqualTo(0);
+        assertThat(selector.isAlive()).isFalse();
+
+        for (Network network : networks) {
+            network.close();
+        }
+    }
+
+    @Test
+    public void testWritesTheChannelCannotTakeAreQueuedForTheSelector() throws Exception {
+        // Given...
+        byte[] data = new byte[8 * 1024 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 251);
+        }
+
+        NetworkSelector selector = new NetworkSelector("3270 selector test");
+        selector.start();
+
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Network network = new Network("localhost", serverSocket.getLocalPort(), "TERM1");
+            Screen screen = CreateTestScreen(80, 24, network);
+            SocketChannel channel = network.connectClientChannel();
+            selector.register(channel, new NetworkThread(null, screen, network, null));
+
+            try (Socket socket = serverSocket.accept()) {
+                // When...
+                // *** Far more than the socket buffers hold, and nothing is reading yet
+                network.sendIac(data);
+
+                byte[] received = new byte[data.length];
+                DataInputStream inputStream = new DataInputStream(socket.getInputStream());
+                inputStream.readFully(received);
+
+                // Then...
+                assertThat(received).isEqualTo(data);
+            } finally {
+                network.close();
+            }
+        } finally {
+            selector.shutdown();
+            selector.join(10000);
+        }
+    }
+
+    @Test
+    public void testScreenListenersAreNotCalledOnTheSelectorThread() throws Exception {
+        // Given...
+        TestServer server = new TestServer(1);
+        server.start();
+
+        NetworkSelector selector = new NetworkSelector("3270 selector test");
+        selector.start();
+
+        Network network = new Network("localhost", server.serverSocket.getLocalPort(), "TERM0");
+        Screen screen = CreateTestScreen(80, 24, network);
+        CompletableFuture<Thread> listenerThread = new CompletableFuture<>();
+        screen.registerScreenUpdateListener((direction, aid) -> listenerThread.complete(Thread.currentThread()));
+
+        try {
+            // When...
+            SocketChannel channel = network.connectClientChannel();
+            selector.register(channel, new NetworkThread(null, screen, network, null));
+
+            // Then...
+            assertThat(listenerThread.get(10, TimeUnit.SECONDS)).isNotSameAs(selector);
+            assertThat(listenerThread.get().getName()).isEqualTo("3270 selector test dispatch");
+        } finally {
+            server.join(10000);
+            server.close();
+            network.close();
+            selector.shutdown();
+            selector.join(10000);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.terminal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import dev.galasa.zos3270.internal.comms.Inbound3270Message;
+import dev.galasa.zos3270.internal.comms.NetworkThread;
+import dev.galasa.zos3270.internal.datastream.AbstractOrder;
+import dev.galasa.zos3270.internal.datastream.BufferAddress;
+import dev.galasa.zos3270.internal.datastream.CommandEraseWrite;
+import dev.galasa.zos3270.internal.datastream.CommandWrite;
+import dev.galasa.zos3270.internal.datastream.OrderEraseUnprotectedToAddress;
+import dev.galasa.zos3270.internal.datastream.OrderSetBufferAddress;
+import dev.galasa.zos3270.internal.datastream.OrderStartField;
+import dev.galasa.zos3270.internal.datastream.OrderText;
+import dev.galasa.zos3270.internal.datastream.WriteControlCharacter;
+import dev.galasa.zos3270.spi.Field;
+import dev.galasa.zos3270.spi.Screen;
+import dev.galasa.zos3270.util.Zos3270TestBase;
+
+public class FieldCacheTest extends Zos3270TestBase {
+
+    private static WriteControlCharacter keyboardReset() {
+        return new WriteControlCharacter(false, false, false, false, false, false, true, false);
+    }
+
+    private static Inbound3270Message write(List<AbstractOrder> orders) {
+        return new Inbound3270Message(new CommandWrite(), keyboardReset(), orders);
+    }
+
+    private static Inbound3270Message eraseWrite(List<AbstractOrder> orders) {
+        return new Inbound3270Message(new CommandEraseWrite(), keyboardReset(), orders);
+    }
+
+    private static List<AbstractOrder> textAt(int position, String text) {
+        List<AbstractOrder> orders = new ArrayList<>();
+        orders.add(new OrderSetBufferAddress(new BufferAddress(position)));
+        orders.add(new OrderText(text, ebcdic));
+        return orders;
+    }
+
+    private static Set<Field> identities(Field[] fields) {
+        Set<Field> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(set, fields);
+        return set;
+    }
+
+    private Screen createThreeFieldScreen() throws Exception {
+        Screen screen = CreateTestScreen(10, 3, null);
+
+        List<AbstractOrder> orders = new ArrayList<>();
+        orders.add(new OrderSetBufferAddress(new BufferAddress(0)));
+        orders.add(new OrderStartField(true, false, true, false, false, false));
+        orders.add(new OrderText("Field1", ebcdic));
+        orders.add(new OrderSetBufferAddress(new BufferAddress(10)));
+        orders.add(new OrderStartField(false, false, true, false, false, false));
+        orders.add(new OrderText("Field2", ebcdic));
+        orders.add(new OrderSetBufferAddress(new BufferAddress(20)));
+        orders.add(new OrderStartField(true, false, true, false, false, false));
+        orders.add(new OrderText("Field3", ebcdic));
+        screen.processInboundMessage(eraseWrite(orders));
+        return screen;
+    }
+
+    @Test
+    public void testUnchangedFieldsAreReused() throws Exception {
+        // Given...
+        Screen screen = createThreeFieldScreen();
+        Field[] before = screen.calculateFields();
+
+        // When...
+        screen.processInboundMessage(write(textAt(11, "Change")));
+        Field[] after = screen.calculateFields();
+
+        // Then...
+        assertThat(after).hasSize(3);
+        assertThat(after[0]).isSameAs(before[0]);
+        assertThat(after[1]).isNotSameAs(before[1]);
+        assertThat(after[2]).isSameAs(before[2]);
+        assertThat(after[1].getFieldWithoutNulls()).isEqualTo("Change   ");
+        assertThat(screen.calculateFields()).containsExactly(after);
+    }
+
+    @Test
+    public void testAddedAndRemovedFieldsAreRecalculated() throws Exception {
+        // Given...
+        Screen screen = createThreeFieldScreen();
+        Field[] before = screen.calculateFields();
+
+        // When...
+        List<AbstractOrder> orders = new ArrayList<>();
+        orders.add(new OrderSetBufferAddress(new BufferAddress(15)));
+        orders.add(new OrderStartField(false, false, true, false, false, false));
+        orders.add(new OrderText("New", ebcdic));
+        screen.processInboundMessage(write(orders));
+        Field[] added = screen.calculateFields();
+
+        // Then...
+        assertThat(added).hasSize(4);
+        assertThat(added[0]).isSameAs(before[0]);
+        assertThat(added[1].getFieldWithoutNulls()).isEqualTo("Fiel");
+        assertThat(added[2].getStart()).isEqualTo(15);
+        assertThat(added[2].getFieldWithoutNulls()).isEqualTo("New ");
+        assertThat(added[3]).isSameAs(before[2]);
+
+        // When...
+        screen.processInboundMessage(write(textAt(20, "X")));
+        Field[] removed = screen.calculateFields();
+
+        // Then...
+        assertThat(removed).hasSize(3);
+        assertThat(removed[0]).isSameAs(before[0]);
+        assertThat(removed[1]).isSameAs(added[1]);
+        assertThat(removed[2].getStart()).isEqualTo(15);
+        assertThat(removed[2].getFieldWithoutNulls()).isEqualTo("New XField3   ");
+    }
+
+    @Test
+    public void testUnchangedWrapFieldOfAFormattedScreenIsReused() throws Exception {
+        // Given...
+        Screen screen = CreateTestScreen(10, 3, null);
+
+        List<AbstractOrder> orders = new ArrayList<>();
+        orders.add(new OrderSetBufferAddress(new BufferAddress(5)));
+        orders.add(new OrderStartField(true, false, true, false, false, false));
+        orders.add(new OrderText("Field1", ebcdic));
+        orders.add(new OrderSetBufferAddress(new BufferAddress(20)));
+        orders.add(new OrderStartField(false, false, true, false, false, false));
+        orders.add(new OrderText("Wrapped", ebcdic));
+        orders.add(new OrderSetBufferAddress(new BufferAddress(0)));
+        orders.add(new OrderText("Wrap", ebcdic));
+        screen.processInboundMessage(eraseWrite(orders));
+        Field[] before = screen.calculateFields();
+
+        // When...
+        screen.processInboundMessage(write(textAt(6, "Change")));
+        Field[] after = screen.calculateFields();
+
+        // Then...
+        assertThat(after).hasSize(3);
+        assertThat(after[0]).isSameAs(before[0]);
+        assertThat(after[0].getFieldWithoutNulls()).isEqualTo("Wrap ");
+        assertThat(after[0].isProtected()).isFalse();
+        assertThat(after[1]).isNotSameAs(before[1]);
+        assertThat(after[1].getFieldWithoutNulls()).isEqualTo("Change        ");
+        assertThat(after[2]).isSameAs(before[2]);
+    }
+
+    @Test
+    public void testTypingIntoAFieldSetsItModified() throws Exception {
+        // Given...
+        Screen screen = createThreeFieldScreen();
+        Field[] before = screen.calculateFields();
+        assertThat(before[1].isFieldModifed()).isFalse();
+
+        // When...
+        screen.type("ab", 17);
+        Field[] after = screen.calculateFields();
+
+        // Then...
+        assertThat(after[0]).isSameAs(before[0]);
+        assertThat(after[1].isFieldModifed()).isTrue();
+        assertThat(after[1].getFieldWithoutNulls()).isEqualTo("Field2ab ");
+        assertThat(after[2]).isSameAs(before[2]);
+    }
+
+    @Test
+    public void testWaitForTextSeesTextInAChangedField() throws Exception {
+        // Given...
+        Screen screen = createThreeFieldScreen();
+
+        // When...
+        Thread writer = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+                screen.processInboundMessage(write(textAt(21, "READY")));
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+        writer.start();
+        int found = screen.waitForTextInField(new String[] { "NOTTHERE", "READY" }, new String[] { "ERROR" }, 10000);
+        writer.join();
+
+        // Then...
+        assertThat(found).isEqualTo(1);
+    }
+
+    /**
+     * Replays a recorded datastream, then a stream of small updates as a busy
+     * screen would receive, waiting for text after each one. The cached fields
+     * must match fields calculated from scratch, and only the fields an update
+     * touched are recalculated.
+     */
+    @Test
+    public void testReplayedDatastreamMatchesFieldsCalculatedFromScratch() throws Exception {
+        // Given...
+        URL vampFile = getClass().getClassLoader().getResource("vampstream.txt");
+        byte[] stream = Hex.decodeHex(IOUtils.toString(vampFile.openStream(), "utf-8"));
+        Inbound3270Message vampScreen = new NetworkThread(null, CreateTestScreen(), null, null)
+                .process3270Data(ByteBuffer.wrap(stream));
+
+        Screen screen = CreateTestScreen();
+        screen.processInboundMessage(vampScreen);
+        Field[] vampFields = screen.calculateFields();
+
+        Random random = new Random(3270);
+        List<Inbound3270Message> updates = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Field field = vampFields[random.nextInt(vampFields.length)];
+            int position = (field.getStart() + 1 + random.nextInt(Math.max(1, field.length() - 1))) % screen.getScreenSize();
+            if (i % 100 == 99) {
+                List<AbstractOrder> orders = new ArrayList<>();
+                orders.add(new OrderSetBufferAddress(new BufferAddress(position)));
+                orders.add(new OrderStartField(false, false, true, false, false, false));
+                orders.add(new OrderEraseUnprotectedToAddress(new BufferAddress((position + 20) % screen.getScreenSize())));
+                updates.add(write(orders));
+            } else {
+                updates.add(write(textAt(position, "UPD" + i)));
+            }
+        }
+
+        // When...
+        long rebuiltFields = 0;
+        Field[] previous = screen.calculateFields();
+        for (Inbound3270Message update : updates) {
+            screen.processInboundMessage(update);
+            screen.isTextInField("NOTONSCREEN");
+            Field[] current = screen.calculateFields();
+
+            Set<Field> previousIdentities = identities(previous);
+            for (Field field : current) {
+                if (!previousIdentities.contains(field)) {
+                    rebuiltFields++;
+                }
+            }
+            previous = current;
+        }
+
+        Screen reference = CreateTestScreen();
+        reference.processInboundMessage(vampScreen);
+        for (Inbound3270Message update : updates) {
+            reference.processInboundMessage(update);
+        }
+
+        // Then...
+        assertThat(screen.printFields()).isEqualTo(reference.printFields());
+        assertThat(rebuiltFields).isLessThan((long) updates.size() * vampFields.length / 10);
+    }
+}
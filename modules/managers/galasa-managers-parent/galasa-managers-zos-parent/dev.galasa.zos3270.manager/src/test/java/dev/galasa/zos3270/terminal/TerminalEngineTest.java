@@ -0,0 +1,205 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.terminal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import dev.galasa.zos3270.common.screens.TerminalSize;
+import dev.galasa.zos3270.internal.comms.NetworkServer;
+import dev.galasa.zos3270.internal.comms.NetworkThread;
+import dev.galasa.zos3270.internal.comms.TerminalEngine;
+import dev.galasa.zos3270.internal.datastream.BufferAddress;
+import dev.galasa.zos3270.spi.Screen;
+import dev.galasa.zos3270.spi.Terminal;
+import dev.galasa.zos3270.util.Zos3270TestBase;
+
+public class TerminalEngineTest extends Zos3270TestBase {
+
+    /**
+     * A stand-in for a region, which sends a screen with an input field and
+     * replies with what is typed into it
+     */
+    private static class TestServer extends Thread {
+        private final ServerSocket        serverSocket;
+        private final List<NetworkServer> servers  = Collections.synchronizedList(new ArrayList<>());
+        private final List<Exception>     failures = Collections.synchronizedList(new ArrayList<>());
+
+        private TestServer() throws Exception {
+            this.serverSocket = new ServerSocket(0, 500, InetAddress.getLoopbackAddress());
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; ; i++) {
+                    Socket socket = serverSocket.accept();
+                    int terminal = i;
+                    Thread conversation = new Thread(() -> converse(socket, terminal));
+                    conversation.setDaemon(true);
+                    conversation.start();
+                }
+            } catch (Exception e) {
+                // *** Server socket closed
+            }
+        }
+
+        private void converse(Socket socket, int terminal) {
+            try {
+                NetworkServer server = new NetworkServer(socket);
+                servers.add(server);
+                server.sendDatastream(screen("TERMINAL" + terminal + " READY"));
+
+                String typed = readTypedText(server.getInputStream());
+                server.sendDatastream(screen("REPLY " + typed));
+            } catch (Exception e) {
+                failures.add(e);
+            }
+        }
+
+        private void close() throws Exception {
+            serverSocket.close();
+            for (NetworkServer server : servers) {
+                server.close();
+            }
+        }
+    }
+
+    private static byte[] screen(String text) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(0xf5); // Erase/Write
+        baos.write(0xc3); // WCC keyboard restore
+        baos.write(0x11); // SBA
+        baos.write(new BufferAddress(0).getCharRepresentation());
+        baos.write(0x1d); // SF protected
+        baos.write(0x60);
+        baos.write(text.getBytes(ebcdic));
+        baos.write(0x11); // SBA
+        baos.write(new BufferAddress(80).getCharRepresentation());
+        baos.write(0x1d); // SF unprotected
+        baos.write(0x40);
+        baos.write(0x11); // SBA
+        baos.write(new BufferAddress(100).getCharRepresentation());
+        baos.write(0x1d); // SF protected
+        baos.write(0x60);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Read the inbound read modified record, returning the text of its field
+     */
+    private static String readTypedText(InputStream inputStream) throws Exception {
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        int previous = 0;
+        while (true) {
+            int b = inputStream.read();
+            if (b == -1 || (previous == 0xff && b == 0xef)) {
+                break;
+            }
+            record.write(b);
+            previous = b;
+        }
+
+        // *** TN3270E header, AID, cursor, SBA and the field address before the text
+        byte[] bytes = record.toByteArray();
+        return new String(bytes, 11, bytes.length - 12, ebcdic);
+    }
+
+    private static long countTerminalThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread instanceof NetworkThread || thread.getName().equals("3270 keep alive"))
+                .count();
+    }
+
+    @Test
+    public void testWaitsAreCompletedByScreenUpdates() throws Exception {
+        // Given...
+        Screen screen = CreateTestScreen(80, 24, null);
+        screen.lockKeyboard();
+        CompletableFuture<Void> keyboardUnlocked = screen.waitForKeyboardAsync();
+        CompletableFuture<Integer> textFound = screen.waitForTextInFieldAsync(new String[] { "NOTYET", "READY" }, null);
+        CompletableFuture<Integer> cancelled = screen.waitForTextInFieldAsync(new String[] { "NEVER" }, null);
+        cancelled.cancel(false);
+
+        assertThat(keyboardUnlocked).isNotDone();
+        assertThat(textFound).isNotDone();
+
+        // When...
+        screen.processInboundMessage(new NetworkThread(null, screen, null, null)
+                .process3270Data(ByteBuffer.wrap(screen("TERMINAL READY"))));
+
+        // Then...
+        assertThat(keyboardUnlocked).isDone();
+        assertThat(textFound.get(0, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(screen.waitForKeyboardAsync()).isDone();
+    }
+
+    /**
+     * Drives many terminals through a conversation with a stand-in region,
+     * served by a terminal engine of two threads
+     */
+    @Test
+    public void testManyTerminalsAreServedByTheEngine() throws Exception {
+        // Given...
+        int terminalCount = 100;
+        TestServer server = new TestServer();
+        server.start();
+        TerminalEngine engine = new TerminalEngine(2);
+        long terminalThreadsBefore = countTerminalThreads();
+
+        List<Terminal> terminals = new ArrayList<>();
+        try {
+            // When...
+            for (int i = 0; i < terminalCount; i++) {
+                Terminal terminal = new Terminal("TERM" + i, "localhost", server.serverSocket.getLocalPort(), false,
+                        new TerminalSize(80, 24), new TerminalSize(0, 0), null, ebcdic);
+                terminal.setTerminalEngine(engine);
+                terminal.connect();
+                terminals.add(terminal);
+            }
+
+            for (int i = 0; i < terminalCount; i++) {
+                Terminal terminal = terminals.get(i);
+                terminal.waitForTextInField("TERMINAL" + i + " READY").waitForKeyboard();
+                terminal.tab().type("HELLO" + i).enter();
+            }
+
+            for (int i = 0; i < terminalCount; i++) {
+                terminals.get(i).waitForTextInField("REPLY HELLO" + i).waitForKeyboard();
+            }
+
+            // Then...
+            assertThat(server.failures).isEmpty();
+            assertThat(engine.getTerminalCount()).isEqualTo(terminalCount);
+            assertThat(countTerminalThreads()).isEqualTo(terminalThreadsBefore);
+        } finally {
+            for (Terminal terminal : terminals) {
+                terminal.disconnect();
+            }
+            server.close();
+        }
+
+        assertThat(engine.getTerminalCount()).isEqualTo(0);
+        for (Terminal terminal : terminals) {
+            assertThat(terminal.isConnected()).isFalse();
+        }
+        engine.shutdown();
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.terminal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalSize;
+import dev.galasa.zos3270.internal.terminal.TerminalImageArchiver;
+
+public class TerminalImageArchiverTest {
+
+    private final ExecutorService writers = Executors.newFixedThreadPool(2);
+
+    @After
+    public void shutdown() {
+        writers.shutdownNow();
+    }
+
+    private static TerminalImage image(int sequence) {
+        return new TerminalImage(sequence, "term1-" + sequence, true, null, null, new TerminalSize(80, 24), 0, 0);
+    }
+
+    private static List<Integer> sequences(List<TerminalImage> images) {
+        List<Integer> sequences = new ArrayList<>();
+        for (TerminalImage image : images) {
+            sequences.add(image.getSequence());
+        }
+        return sequences;
+    }
+
+    @Test
+    public void testImagesAreWrittenInBatchesInOrder() throws Exception {
+        // Given...
+        List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        TerminalImageArchiver archiver = new TerminalImageArchiver("term1", images -> batches.add(sequences(images)),
+                3, 100, null, 10, true, writers);
+
+        // When...
+        for (int i = 1; i <= 7; i++) {
+            archiver.archive(image(i));
+        }
+        archiver.flush();
+
+        // Then...
+        assertThat(batches).containsExactly(
+                List.of(1, 2, 3),
+                List.of(4, 5, 6),
+                List.of(7));
+    }
+
+    @Test
+    public void testDiscardedImagesAreNotWritten() throws Exception {
+        // Given...
+        List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        TerminalImageArchiver archiver = new TerminalImageArchiver("term1", images -> batches.add(sequences(images)),
+                3, 100, null, 10, true, writers);
+
+        // When...
+        archiver.archive(image(1));
+        archiver.discardPending();
+        archiver.flush();
+
+        // Then...
+        assertThat(batches).isEmpty();
+    }
+
+    @Test
+    public void testArchivingWaitsWhenTheRasFallsBehind() throws Exception {
+        // Given...
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger written = new AtomicInteger();
+        TerminalImageArchiver archiver = new TerminalImageArchiver("term1", images -> {
+            release.await();
+            written.addAndGet(images.size());
+        }, 2, 4, null, 10, true, writers);
+
+        // When...
+        Thread archiving = new Thread(() -> {
+            try {
+                for (int i = 1; i <= 10; i++) {
+                    archiver.archive(image(i));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        archiving.start();
+        archiving.join(500);
+
+        // Then...
+        assertThat(archiving.isAlive()).isTrue();
+
+        // When...
+        release.countDown();
+        archiving.join(10000);
+        archiver.flush();
+
+        // Then...
+        assertThat(archiving.isAlive()).isFalse();
+        assertThat(written.get()).isEqualTo(10);
+    }
+
+    @Test
+    public void testLiveImagesAreDroppedWhenTheLiveViewFallsBehind() throws Exception {
+        // Given...
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> liveImages = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger rasImages = new AtomicInteger();
+        TerminalImageArchiver archiver = new TerminalImageArchiver("term1", images -> rasImages.addAndGet(images.size()),
+                5, 1000, image -> {
+                    release.await();
+                    liveImages.add(image.getSequence());
+                    return true;
+                }, 3, true, writers);
+
+        // When...
+        for (int i = 1; i <= 100; i++) {
+            archiver.archive(image(i));
+        }
+        release.countDown();
+        archiver.flush();
+
+        // Then...
+        assertThat(rasImages.get()).isEqualTo(100);
+        assertThat(archiver.getDroppedLiveImages()).isGreaterThan(0);
+        assertThat(liveImages.size() + archiver.getDroppedLiveImages()).isEqualTo(100);
+        assertThat(liveImages).isSorted().contains(100);
+    }
+
+    @Test
+    public void testLiveViewStopsWhenItRejectsAnImage() throws Exception {
+        // Given...
+        AtomicInteger sent = new AtomicInteger();
+        TerminalImageArchiver archiver = new TerminalImageArchiver("term1", images -> {}, 5, 100, image -> {
+            sent.incrementAndGet();
+            return false;
+        }, 10, false, writers);
+
+        // When...
+        archiver.archive(image(1));
+        archiver.flush();
+        archiver.archive(image(2));
+        archiver.flush();
+        writers.shutdown();
+        writers.awaitTermination(10, TimeUnit.SECONDS);
+
+        // Then...
+        assertThat(sent.get()).isEqualTo(1);
+    }
+}
@@ -5,13 +5,18 @@
  */
 package dev.galasa.zosbatch.rseapi.manager.internal;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
@@ -33,6 +38,8 @@ import dev.galasa.zosbatch.ZosBatchException;
 import dev.galasa.zosbatch.ZosBatchJobcard;
 import dev.galasa.zosbatch.ZosBatchManagerException;
 import dev.galasa.zosbatch.spi.IZosBatchJobOutputSpi;
+import dev.galasa.zosbatch.spi.ZosBatchSpoolRetriever;
+import dev.galasa.zosbatch.spi.ZosBatchSpoolRetriever.SpoolRetrieval;
 import dev.galasa.zosrseapi.IRseapi.RseapiRequestType;
 import dev.galasa.zosrseapi.IRseapiResponse;
 import dev.galasa.zosrseapi.IRseapiRestApiProcessor;
@@ -53,6 +60,7 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
     private final ZosBatchJobcard jobcard;
     private String jcl;
     private int jobWaitTimeout;
+    private int spoolRetrievalThreads;
     
     private String jobid;         
     private String owner;         
@@ -91,6 +99,9 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
     
     private static final String LOG_JOB_NOT_SUBMITTED = "Job has not been submitted by manager";
     
+    private static final long MIN_POLL_INTERVAL = 250;
+    private static final long MAX_POLL_INTERVAL = 10000;
+    
     private static final Log logger = LogFactory.getLog(RseapiZosBatchJobImpl.class);
 
     protected static final List<Integer> VALID_STATUS_CODES = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK,
@@ -133,6 +144,11 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
         } catch (ZosBatchManagerException e) {
             throw new ZosBatchException("Unable to get job timeout property value", e);
         }
+        try {
+            this.spoolRetrievalThreads = this.zosBatchManager.getZosManager().getZosBatchPropertySpoolRetrievalThreads(this.jobImage.getImageID());
+        } catch (ZosBatchManagerException e) {
+            throw new ZosBatchException("Unable to get spool retrieval threads property value", e);
+        }
         
         try {
             this.rseapiApiProcessor = this.zosBatchManager.getRseapiManager().newRseapiRestApiProcessor(jobImage, this.zosBatchManager.getZosManager().getZosBatchPropertyBatchRestrictToImage(jobImage.getImageID()));
@@ -260,6 +276,8 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
         logger.info("Waiting up to " + milliSecondTimeout + " second(s) for "+ this.jobid + " " + this.jobname.getName() + " to complete");
         
         LocalDateTime timeoutTime = LocalDateTime.now().plusSeconds(milliSecondTimeout);
+        long pollInterval = MIN_POLL_INTERVAL;
+        JobStatus lastStatus = null;
         while (LocalDateTime.now().isBefore(timeoutTime)) {
             updateJobStatus();
             if (this.jobNotFound) {
@@ -274,7 +292,14 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
                     return Integer.MIN_VALUE;
                 }
                 
-                Thread.sleep(1000);
+                // Poll often when the job has just changed status, less often the longer it stays the same
+                if (this.status != lastStatus) {
+                    lastStatus = this.status;
+                    pollInterval = MIN_POLL_INTERVAL;
+                }
+                long remaining = Duration.between(LocalDateTime.now(), timeoutTime).toMillis();
+                Thread.sleep(Math.max(0, Math.min(pollInterval, remaining)));
+                pollInterval = Math.min(pollInterval * 2, MAX_POLL_INTERVAL);
             } catch (InterruptedException e) {
                 logger.error("waitForJob Interrupted", e);
                 Thread.currentThread().interrupt();
@@ -341,15 +366,16 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
 
     @Override
     public void saveOutputToResultsArchive(String rasPath) throws ZosBatchException {
-        if (!this.outputComplete) {
-            retrieveOutput();
-        }
-        Path artifactPath = this.zosBatchManager.getArtifactsRoot().resolve(rasPath).resolve(jobOutput().getJobname());
+        Path artifactPath = this.zosBatchManager.getArtifactsRoot().resolve(rasPath).resolve(this.jobname.getName());
 		logger.info("Archiving batch job " + this.toString() + " to " + artifactPath.toString());
         
-		Iterator<IZosBatchJobOutputSpoolFile> iterator = jobOutput().iterator();
-        while (iterator.hasNext()) {
-            saveSpoolFile(iterator.next(), artifactPath);
+        if (this.outputComplete) {
+            Iterator<IZosBatchJobOutputSpoolFile> iterator = jobOutput().iterator();
+            while (iterator.hasNext()) {
+                saveSpoolFile(iterator.next(), artifactPath);
+            }
+        } else {
+            archiveSpoolFiles(listSpoolFiles().getSpoolFiles(), artifactPath);
         }
         if (isComplete()) {
         	this.jobArchived = true;
@@ -383,7 +409,62 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
 		saveSpoolFile(spoolFile, artifactPath);
 	}
 
+	@Override
+	public String retrieveSpoolFileRecords(IZosBatchJobOutputSpoolFile spoolFile, int fromRecord) throws ZosBatchException {
+		// The RSE API job file content request has no record range, so the records before fromRecord are dropped here
+		String records = getOutputFileContent(this.jobFilesPath + "/" + spoolFile.getId() + "/content");
+		if (records == null) {
+			return "";
+		}
+		int start = 0;
+		for (int i = 0; i < fromRecord; i++) {
+			start = records.indexOf('\n', start) + 1;
+			if (start == 0) {
+				return "";
+			}
+		}
+		return records.substring(start);
+	}
+
 	protected void saveSpoolFile(IZosBatchJobOutputSpoolFile spoolFile, Path artifactPath) throws ZosBatchException {
+        String fileName = this.zosBatchManager.getZosManager().buildUniquePathName(artifactPath, spoolFileName(spoolFile));
+        try {
+			this.zosBatchManager.getZosManager().storeArtifact(artifactPath.resolve(fileName), spoolFile.getRecords(), ResultArchiveStoreContentType.TEXT);
+		} catch (ZosManagerException e) {
+			throw new ZosBatchException(e);
+		}
+	}
+
+	/**
+	 * Retrieve the spool files a number at a time, storing each in the results archive as it arrives rather than holding
+	 * them all. The RSE API returns the content inside a JSON object, so each spool file is held while it is stored
+	 */
+	protected void archiveSpoolFiles(List<IZosBatchJobOutputSpoolFile> spoolFiles, Path artifactPath) throws ZosBatchException {
+		// Name the files first, so the names are unique however the retrievals overlap
+		Set<String> fileNames = new HashSet<>();
+		List<SpoolRetrieval<Void>> retrievals = new ArrayList<>();
+		for (IZosBatchJobOutputSpoolFile spoolFile : spoolFiles) {
+			String name = spoolFileName(spoolFile);
+			String fileName = this.zosBatchManager.getZosManager().buildUniquePathName(artifactPath, name);
+			int uniqueId = 1;
+			while (!fileNames.add(fileName)) {
+				fileName = this.zosBatchManager.getZosManager().buildUniquePathName(artifactPath, name + "_" + uniqueId++);
+			}
+			Path spoolFilePath = artifactPath.resolve(fileName);
+			String contentPath = this.jobFilesPath + "/" + spoolFile.getId() + "/content";
+			retrievals.add(() -> {
+				try {
+					this.zosBatchManager.getZosManager().storeArtifact(spoolFilePath, getOutputFileContent(contentPath), ResultArchiveStoreContentType.TEXT);
+				} catch (ZosManagerException e) {
+					throw new ZosBatchException(e);
+				}
+				return null;
+			});
+		}
+		ZosBatchSpoolRetriever.retrieveAll(retrievals, this.spoolRetrievalThreads);
+	}
+
+	protected String spoolFileName(IZosBatchJobOutputSpoolFile spoolFile) {
         StringBuilder name = new StringBuilder();
         name.append(spoolFile.getJobid());
         if (!spoolFile.getStepname().isEmpty()){
@@ -396,12 +477,7 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
         }
         name.append("_");
         name.append(spoolFile.getDdname());
-        String fileName = this.zosBatchManager.getZosManager().buildUniquePathName(artifactPath, name.toString());
-        try {
-			this.zosBatchManager.getZosManager().storeArtifact(artifactPath.resolve(fileName), spoolFile.getRecords(), ResultArchiveStoreContentType.TEXT);
-		} catch (ZosManagerException e) {
-			throw new ZosBatchException(e);
-		}
+        return name.toString();
 	}
 
 	protected void getOutput(boolean retrieveRecords) throws ZosBatchException {
@@ -435,15 +511,23 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
             logger.trace(responseBodyObject);
             // Get the spool files
             JsonArray jsonArray = ((JsonObject) responseBodyObject).getAsJsonArray("items");
-            for (JsonElement jsonElement : jsonArray) {
-                JsonObject responseBody = jsonElement.getAsJsonObject();
+            List<SpoolRetrieval<String>> retrievals = new ArrayList<>();
+            if (retrieveRecords) {
+                for (JsonElement jsonElement : jsonArray) {
+                    String contentPath = this.jobFilesPath + "/" + jsonNull(jsonElement.getAsJsonObject(), PROP_ID) + "/content";
+                    retrievals.add(() -> getOutputFileContent(contentPath));
+                }
+            }
+            List<String> spoolFileRecords = ZosBatchSpoolRetriever.retrieveAll(retrievals, this.spoolRetrievalThreads);
+            for (int i = 0; i < jsonArray.size(); i++) {
+                JsonObject responseBody = jsonArray.get(i).getAsJsonObject();
                 String id = jsonNull(responseBody, PROP_ID);
                 String stepname = jsonNull(responseBody, "step name");
                 String procstep = jsonNull(responseBody, "proc step");
                 String ddname = responseBody.get("ddName").getAsString();
                 String records = null;
                 if (retrieveRecords) {
-                	records = getOutputFileContent(this.jobFilesPath + "/" + id + "/content");
+                	records = spoolFileRecords.get(i);
                 }
                 if(this.jobOutput == null) {
                 	this.jobOutput = this.zosBatchManager.getZosManager().newZosBatchJobOutput(this, this.jobname.getName(), this.jobid);
@@ -621,7 +705,8 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
         HashMap<String, String> headers = new HashMap<>();
         IRseapiResponse response;
         try {
-            response = this.rseapiApiProcessor.sendRequest(RseapiRequestType.GET, path, headers, null, VALID_STATUS_CODES, true);
+            // Not converted, so the content is read after the request is sent and can be read alongside other spool files
+            response = this.rseapiApiProcessor.sendRequest(RseapiRequestType.GET, path, headers, null, VALID_STATUS_CODES, false);
         } catch (RseapiException e) {
             throw new ZosBatchException(e);
         }
@@ -695,9 +780,11 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
 					message = "\nstatus: " + ((JsonObject) content).get("status").getAsString() + "\n" + "message: " + ((JsonObject) content).get("message").getAsString(); 
 				} else if (content instanceof String) {
 					message = " response body:\n" + content;
+				} else if (content instanceof InputStream) {
+					message = " response body:\n" + new String(((InputStream) content).readAllBytes());
 				}
 			}
-		} catch (RseapiException e) {
+		} catch (RseapiException | IOException e) {
 			// NOP
 		}
         return "Error " + action + ", HTTP Status Code " + response.getStatusCode() + " : " + response.getStatusLine() + message;
@@ -705,9 +792,8 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
 
     protected void archiveJobOutput() throws ZosBatchException {
         if (shouldArchive() && getStatus() != JobStatus.NOTFOUND && (!isArchived() || !this.jobComplete)) {
-        	retrieveOutput();
             Path rasPath = this.zosBatchManager.getCurrentTestMethodArchiveFolder();
-            String folderName = this.jobname.getName() + "_" + this.jobid + "_" + this.retcode.replace(" ", "-").replace(StringUtils.repeat(QUERY, 4), "UNKNOWN");
+            String folderName = this.jobname.getName() + "_" + this.jobid + "_" + getRetcode().replace(" ", "-").replace(StringUtils.repeat(QUERY, 4), "UNKNOWN");
             rasPath = rasPath.resolve(this.zosBatchManager.getZosManager().buildUniquePathName(rasPath, folderName));
             saveOutputToResultsArchive(rasPath.toString());
         }
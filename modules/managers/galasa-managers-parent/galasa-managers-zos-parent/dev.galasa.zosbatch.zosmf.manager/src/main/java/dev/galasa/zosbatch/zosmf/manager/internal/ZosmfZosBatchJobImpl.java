@@ -5,14 +5,19 @@
  */
 package dev.galasa.zosbatch.zosmf.manager.internal;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
@@ -34,6 +39,8 @@ import dev.galasa.zosbatch.ZosBatchException;
 import dev.galasa.zosbatch.ZosBatchJobcard;
 import dev.galasa.zosbatch.ZosBatchManagerException;
 import dev.galasa.zosbatch.spi.IZosBatchJobOutputSpi;
+import dev.galasa.zosbatch.spi.ZosBatchSpoolRetriever;
+import dev.galasa.zosbatch.spi.ZosBatchSpoolRetriever.SpoolRetrieval;
 import dev.galasa.zosmf.IZosmf.ZosmfCustomHeaders;
 import dev.galasa.zosmf.IZosmf.ZosmfRequestType;
 import dev.galasa.zosmf.IZosmfResponse;
@@ -57,6 +64,7 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
     private int intdrLrecl = 80;  
     private String intdrRecfm = "F";    
     private int jobWaitTimeout;
+    private int spoolRetrievalThreads;
     
     private String jobid;         
     private String owner;         
@@ -99,6 +107,9 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
     
     private static final String LOG_JOB_NOT_SUBMITTED = "Job has not been submitted by manager";
     
+    private static final long MIN_POLL_INTERVAL = 250;
+    private static final long MAX_POLL_INTERVAL = 10000;
+    
     private static final Log logger = LogFactory.getLog(ZosmfZosBatchJobImpl.class);
 
     public ZosmfZosBatchJobImpl(ZosmfZosBatchManagerImpl zosBatchManager, IZosImage jobImage, IZosBatchJobname jobname, String jcl, ZosBatchJobcard jobcard) throws ZosBatchException {
@@ -130,6 +141,11 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
         } catch (ZosBatchManagerException e) {
             throw new ZosBatchException("Unable to get job timeout property value", e);
         }
+        try {
+            this.spoolRetrievalThreads = this.zosBatchManager.getZosManager().getZosBatchPropertySpoolRetrievalThreads(this.jobImage.getImageID());
+        } catch (ZosBatchManagerException e) {
+            throw new ZosBatchException("Unable to get spool retrieval threads property value", e);
+        }
         
         try {
             this.zosmfApiProcessor = this.zosBatchManager.getZosmfManager().newZosmfRestApiProcessor(jobImage, this.zosBatchManager.getZosManager().getZosBatchPropertyBatchRestrictToImage(jobImage.getImageID()));
@@ -259,6 +275,8 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
         logger.info("Waiting up to " + milliSecondTimeout + " second(s) for "+ this.jobid + " " + this.jobname.getName() + " to complete");
         
         LocalDateTime timeoutTime = LocalDateTime.now().plusSeconds(milliSecondTimeout);
+        long pollInterval = MIN_POLL_INTERVAL;
+        JobStatus lastStatus = null;
         while (LocalDateTime.now().isBefore(timeoutTime)) {
             updateJobStatus();
             if (this.jobNotFound) {
@@ -273,7 +291,14 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
                     return Integer.MIN_VALUE;
                 }
                 
-                Thread.sleep(1000);
+                // Poll often when the job has just changed status, less often the longer it stays the same
+                if (this.status != lastStatus) {
+                    lastStatus = this.status;
+                    pollInterval = MIN_POLL_INTERVAL;
+                }
+                long remaining = Duration.between(LocalDateTime.now(), timeoutTime).toMillis();
+                Thread.sleep(Math.max(0, Math.min(pollInterval, remaining)));
+                pollInterval = Math.min(pollInterval * 2, MAX_POLL_INTERVAL);
             } catch (InterruptedException e) {
                 logger.error("waitForJob Interrupted", e);
                 Thread.currentThread().interrupt();
@@ -340,16 +365,16 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
 
     @Override
     public void saveOutputToResultsArchive(String rasPath) throws ZosBatchException {
-        if(!this.outputComplete){
-            retrieveOutput();
-        }
-
-        Path artifactPath = this.zosBatchManager.getArtifactsRoot().resolve(rasPath).resolve(jobOutput().getJobname());
+        Path artifactPath = this.zosBatchManager.getArtifactsRoot().resolve(rasPath).resolve(this.jobname.getName());
 		logger.info("Archiving batch job " + this.toString() + " to " + artifactPath.toString());
         
-        Iterator<IZosBatchJobOutputSpoolFile> iterator = jobOutput().iterator();
-        while (iterator.hasNext()) {
-            saveSpoolFile(iterator.next(), artifactPath);
+        if (this.outputComplete) {
+            Iterator<IZosBatchJobOutputSpoolFile> iterator = jobOutput().iterator();
+            while (iterator.hasNext()) {
+                saveSpoolFile(iterator.next(), artifactPath);
+            }
+        } else {
+            streamSpoolFiles(listSpoolFiles().getSpoolFiles(), artifactPath);
         }
         if (isComplete()) {
         	this.jobArchived = true;
@@ -383,7 +408,53 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
 		saveSpoolFile(spoolFile, artifactPath);
 	}
 
+	@Override
+	public String retrieveSpoolFileRecords(IZosBatchJobOutputSpoolFile spoolFile, int fromRecord) throws ZosBatchException {
+		String records = getSpoolFileContent(spoolFile.getId(), fromRecord);
+		if (records == null) {
+			return "";
+		}
+		return records;
+	}
+
 	protected void saveSpoolFile(IZosBatchJobOutputSpoolFile spoolFile, Path artifactPath) throws ZosBatchException {
+        String fileName = this.zosBatchManager.getZosManager().buildUniquePathName(artifactPath, spoolFileName(spoolFile));
+        try {
+			this.zosBatchManager.getZosManager().storeArtifact(artifactPath.resolve(fileName), spoolFile.getRecords(), ResultArchiveStoreContentType.TEXT);
+		} catch (ZosManagerException e) {
+			throw new ZosBatchException(e);
+		}
+	}
+
+	/**
+	 * Copy the spool files from zOS/MF straight to the results archive, a number at a time, without holding their content
+	 */
+	protected void streamSpoolFiles(List<IZosBatchJobOutputSpoolFile> spoolFiles, Path artifactPath) throws ZosBatchException {
+		// Name the files first, so the names are unique however the copies overlap
+		Set<String> fileNames = new HashSet<>();
+		List<SpoolRetrieval<Void>> retrievals = new ArrayList<>();
+		for (IZosBatchJobOutputSpoolFile spoolFile : spoolFiles) {
+			String name = spoolFileName(spoolFile);
+			String fileName = this.zosBatchManager.getZosManager().buildUniquePathName(artifactPath, name);
+			int uniqueId = 1;
+			while (!fileNames.add(fileName)) {
+				fileName = this.zosBatchManager.getZosManager().buildUniquePathName(artifactPath, name + "_" + uniqueId++);
+			}
+			Path spoolFilePath = artifactPath.resolve(fileName);
+			String id = spoolFile.getId();
+			retrievals.add(() -> {
+				try {
+					this.zosBatchManager.getZosManager().storeArtifact(spoolFilePath, getSpoolFileContentStream(id, 0), ResultArchiveStoreContentType.TEXT);
+				} catch (ZosManagerException e) {
+					throw new ZosBatchException(e);
+				}
+				return null;
+			});
+		}
+		ZosBatchSpoolRetriever.retrieveAll(retrievals, this.spoolRetrievalThreads);
+	}
+
+	protected String spoolFileName(IZosBatchJobOutputSpoolFile spoolFile) {
         StringBuilder name = new StringBuilder();
         name.append(spoolFile.getJobid());
         if (!spoolFile.getStepname().isEmpty()){
@@ -396,12 +467,7 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
         }
         name.append("_");
         name.append(spoolFile.getDdname());
-        String fileName = this.zosBatchManager.getZosManager().buildUniquePathName(artifactPath, name.toString());
-        try {
-			this.zosBatchManager.getZosManager().storeArtifact(artifactPath.resolve(fileName), spoolFile.getRecords(), ResultArchiveStoreContentType.TEXT);
-		} catch (ZosManagerException e) {
-			throw new ZosBatchException(e);
-		}
+        return name.toString();
 	}
 
 	protected void getOutput(boolean retrieveRecords) throws ZosBatchException {
@@ -440,15 +506,23 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
             } catch (ZosmfException e) {
                 throw new ZosBatchException(e);
             }
-            for (JsonElement jsonElement : jsonArray) {
-                JsonObject responseBody = jsonElement.getAsJsonObject();
+            List<SpoolRetrieval<String>> retrievals = new ArrayList<>();
+            if (retrieveRecords) {
+                for (JsonElement jsonElement : jsonArray) {
+                    String id = jsonNull(jsonElement.getAsJsonObject(), PROP_ID);
+                    retrievals.add(() -> getSpoolFileContent(id, 0));
+                }
+            }
+            List<String> spoolFileRecords = ZosBatchSpoolRetriever.retrieveAll(retrievals, this.spoolRetrievalThreads);
+            for (int i = 0; i < jsonArray.size(); i++) {
+                JsonObject responseBody = jsonArray.get(i).getAsJsonObject();
                 String id = jsonNull(responseBody, PROP_ID);
                 String stepname = jsonNull(responseBody, "stepname");
                 String procstep = jsonNull(responseBody, "procstep");
                 String ddname = responseBody.get("ddname").getAsString();
                 String records = null;
                 if (retrieveRecords) {
-                	records = getSpoolFileContent(id, stepname, procstep, ddname);
+                	records = spoolFileRecords.get(i);
                 }
                 if(this.jobOutput == null) {
                 	this.jobOutput = this.zosBatchManager.getZosManager().newZosBatchJobOutput(this, this.jobname.getName(), this.jobid);
@@ -633,21 +707,46 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
     }
 
     protected String getSpoolFileContent(String id, String stepname, String procstep, String ddname) throws ZosBatchException {
+    	return getSpoolFileContent(id, 0);
+    }
+
+    /**
+     * Get the content of a spool file from a record onwards, using a record range so only those records are transferred
+     */
+    protected String getSpoolFileContent(String id, int fromRecord) throws ZosBatchException {
+        try (InputStream content = getSpoolFileContentStream(id, fromRecord)) {
+            if (content == null) {
+                return null;
+            }
+            return new String(content.readAllBytes());
+        } catch (IOException e) {
+            throw new ZosBatchException("Unable to read job output", e);
+        }
+    }
+
+    /**
+     * Get a stream of the content of a spool file from a record onwards. The content is not read from zOS/MF until the
+     * stream is, and the stream must be closed
+     */
+    protected InputStream getSpoolFileContentStream(String id, int fromRecord) throws ZosBatchException {
 
     	String path = this.jobFilesPath + "/" + id + "/records";
         HashMap<String, String> headers = new HashMap<>();
         headers.put(ZosmfCustomHeaders.X_CSRF_ZOSMF_HEADER.toString(), "");
+        if (fromRecord > 0) {
+            headers.put(ZosmfCustomHeaders.X_IBM_RECORD_RANGE.toString(), fromRecord + "-" + Integer.MAX_VALUE);
+        }
         IZosmfResponse response;
         try {
-            response = this.zosmfApiProcessor.sendRequest(ZosmfRequestType.GET, path, headers, null, new ArrayList<>(Arrays.asList(HttpStatus.SC_OK, HttpStatus.SC_BAD_REQUEST, HttpStatus.SC_INTERNAL_SERVER_ERROR)), true);
+            response = this.zosmfApiProcessor.sendRequest(ZosmfRequestType.GET, path, headers, null, new ArrayList<>(Arrays.asList(HttpStatus.SC_OK, HttpStatus.SC_BAD_REQUEST, HttpStatus.SC_INTERNAL_SERVER_ERROR)), false);
         } catch (ZosmfException e) {
             throw new ZosBatchException(e);
         }
     
-        String fileOutput;
+        InputStream fileOutput;
         if (response.getStatusCode() == HttpStatus.SC_OK) {
             try {
-                fileOutput = response.getTextContent();
+                fileOutput = (InputStream) response.getContent();
             } catch (ZosmfException e) {
                 throw new ZosBatchException(e);
             }
@@ -816,7 +915,6 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
 
     protected void archiveJobOutput() throws ZosBatchException {
     	if (shouldArchive() && getStatus() != JobStatus.NOTFOUND && (!isArchived() || !this.jobComplete)) {
-    		retrieveOutput();
             String folderName = this.jobname.getName() + "_" + this.jobid + "_" + getRetcode().replace(" ", "-");
             Path rasPath = this.testMethodArchiveFolder.resolve(this.zosBatchManager.getZosManager().buildUniquePathName(testMethodArchiveFolder, folderName));
             saveOutputToResultsArchive(rasPath.toString());
@@ -5,15 +5,20 @@
  */
 package dev.galasa.zosbatch.zosmf.manager.internal;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
 import java.nio.file.Path;
 import java.nio.file.spi.FileSystemProvider;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -22,6 +27,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
@@ -1249,4 +1255,85 @@ public class TestZosmfZosBatchJobImpl {
 //        fileArray.add(getJsonObject());
 //        return fileArray;
 //    }
+
+    private ZosmfZosBatchJobImpl newBatchJob(IZosmfRestApiProcessor zosmfApiProcessor) throws Exception {
+        IZosImage image = Mockito.mock(IZosImage.class);
+        Mockito.when(image.getImageID()).thenReturn("IMAGE");
+        IZosBatchJobname jobname = Mockito.mock(IZosBatchJobname.class);
+        Mockito.when(jobname.getName()).thenReturn("GAL45678");
+        ZosmfManagerImpl zosmfManager = Mockito.mock(ZosmfManagerImpl.class);
+        Mockito.when(zosmfManager.newZosmfRestApiProcessor(Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfApiProcessor);
+        ZosmfZosBatchManagerImpl zosBatchManager = Mockito.mock(ZosmfZosBatchManagerImpl.class);
+        Mockito.when(zosBatchManager.getZosManager()).thenReturn(Mockito.mock(ZosManagerImpl.class));
+        Mockito.when(zosBatchManager.getZosmfManager()).thenReturn(zosmfManager);
+
+        return new ZosmfZosBatchJobImpl(zosBatchManager, image, jobname, null, null);
+    }
+
+    private IZosBatchJobOutputSpoolFile newSpoolFile() {
+        IZosBatchJobOutputSpoolFile spoolFile = Mockito.mock(IZosBatchJobOutputSpoolFile.class);
+        Mockito.when(spoolFile.getId()).thenReturn("102");
+        return spoolFile;
+    }
+
+    private IZosmfResponse newResponse(String content) throws Exception {
+        IZosmfResponse response = Mockito.mock(IZosmfResponse.class);
+        Mockito.when(response.getStatusCode()).thenReturn(HttpStatus.SC_OK);
+        Mockito.when(response.getContent()).thenReturn(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> sentHeaders(IZosmfRestApiProcessor zosmfApiProcessor) throws Exception {
+        ArgumentCaptor<Map<String, String>> headers = ArgumentCaptor.forClass(Map.class);
+        Mockito.verify(zosmfApiProcessor).sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.endsWith("/102/records"), headers.capture(), Mockito.any(), Mockito.any(), Mockito.eq(false));
+        return headers.getValue();
+    }
+
+    @Test
+    public void testRetrieveSpoolFileRecordsFromRecordRequestsRecordRange() throws Exception {
+        // Given...
+        IZosmfRestApiProcessor zosmfApiProcessor = Mockito.mock(IZosmfRestApiProcessor.class);
+        IZosmfResponse response = newResponse("record3\nrecord4\n");
+        Mockito.when(zosmfApiProcessor.sendRequest(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(response);
+        ZosmfZosBatchJobImpl batchJob = newBatchJob(zosmfApiProcessor);
+
+        // When...
+        String records = batchJob.retrieveSpoolFileRecords(newSpoolFile(), 2);
+
+        // Then...
+        assertThat(records).isEqualTo("record3\nrecord4\n");
+        assertThat(sentHeaders(zosmfApiProcessor)).containsEntry("X-IBM-Record-Range", "2-" + Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testRetrieveSpoolFileRecordsFromFirstRecordRequestsAllRecords() throws Exception {
+        // Given...
+        IZosmfRestApiProcessor zosmfApiProcessor = Mockito.mock(IZosmfRestApiProcessor.class);
+        IZosmfResponse response = newResponse("record1\nrecord2\n");
+        Mockito.when(zosmfApiProcessor.sendRequest(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(response);
+        ZosmfZosBatchJobImpl batchJob = newBatchJob(zosmfApiProcessor);
+
+        // When...
+        String records = batchJob.retrieveSpoolFileRecords(newSpoolFile(), 0);
+
+        // Then...
+        assertThat(records).isEqualTo("record1\nrecord2\n");
+        assertThat(sentHeaders(zosmfApiProcessor)).doesNotContainKey("X-IBM-Record-Range");
+    }
+
+    @Test
+    public void testRetrieveSpoolFileRecordsAfterLastRecordReturnsNothing() throws Exception {
+        // Given...
+        IZosmfRestApiProcessor zosmfApiProcessor = Mockito.mock(IZosmfRestApiProcessor.class);
+        IZosmfResponse response = newResponse("");
+        Mockito.when(zosmfApiProcessor.sendRequest(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(response);
+        ZosmfZosBatchJobImpl batchJob = newBatchJob(zosmfApiProcessor);
+
+        // When...
+        String records = batchJob.retrieveSpoolFileRecords(newSpoolFile(), 10);
+
+        // Then...
+        assertThat(records).isEmpty();
+    }
 }
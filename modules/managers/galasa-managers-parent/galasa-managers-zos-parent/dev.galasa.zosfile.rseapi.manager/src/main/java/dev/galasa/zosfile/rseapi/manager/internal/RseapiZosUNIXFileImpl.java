@@ -11,7 +11,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
@@ -22,6 +24,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpStatus;
 
 import com.google.gson.JsonArray;
@@ -260,6 +263,32 @@ public class RseapiZosUNIXFileImpl implements IZosUNIXFile {
         return (byte[]) retrieve(this.unixPath);
 	}
 
+    @Override
+    public String retrieveAsText(int fromRecord) throws ZosUNIXFileException {
+        // The RSE API has no record range, so the records before fromRecord are dropped here
+        String content = retrieveAsText();
+        int start = 0;
+        for (int i = 0; i < fromRecord; i++) {
+            start = content.indexOf('\n', start) + 1;
+            if (start == 0) {
+                return "";
+            }
+        }
+        return content.substring(start);
+    }
+
+    @Override
+	public byte[] retrieveAsBinary(long fromByte) throws ZosUNIXFileException {
+        if (!exists()) {
+            throw new ZosUNIXFileException(LOG_UNIX_PATH + quoted(this.unixPath) + LOG_DOES_NOT_EXIST + logOnImage());
+        }
+        if (isDirectory()) {
+            throw new ZosUNIXFileException(LOG_INVALID_REQUETS + quoted(this.unixPath) + " is a directory");
+        }
+        setDataType(UNIXFileDataType.BINARY);
+        return retrieveRawContent(this.unixPath, fromByte);
+	}
+
 	@Override
     public void saveToResultsArchive(String rasPath) throws ZosUNIXFileException {
         saveToResultsArchive(this.unixPath, rasPath);
@@ -601,6 +630,52 @@ public class RseapiZosUNIXFileImpl implements IZosUNIXFile {
     }
 
 
+    /**
+     * Retrieve the raw content from a byte offset onwards, asking for a byte range. If the server 
+     * ignores the range and returns the whole file, the bytes before the offset are dropped here
+     */
+    protected byte[] retrieveRawContent(String path, long fromByte) throws ZosUNIXFileException {
+    	String urlPath = RESTFILES_FILE_PATH + path + RESTFILES_FILE_PATH_RAW_CONTENT;
+        Map<String, String> headers = new HashMap<>();
+    	headers.put(HEADER_CONVERT, String.valueOf(false));
+    	if (fromByte > 0) {
+    		headers.put(HttpHeaders.RANGE, "bytes=" + fromByte + "-");
+    	}
+
+        List<Integer> validStatusCodes = new ArrayList<>(RseapiZosFileHandlerImpl.VALID_STATUS_CODES);
+        validStatusCodes.add(HttpStatus.SC_PARTIAL_CONTENT);
+        validStatusCodes.add(HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        IRseapiResponse response;
+        try {
+			response = this.rseapiApiProcessor.sendRequest(RseapiRequestType.GET, urlPath, headers, null, validStatusCodes, false);
+        } catch (RseapiException e) {
+            throw new ZosUNIXFileException(e);
+        }
+
+        if (response.getStatusCode() == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE) {
+        	return new byte[0];
+        }
+        if (response.getStatusCode() != HttpStatus.SC_OK && response.getStatusCode() != HttpStatus.SC_PARTIAL_CONTENT) {
+            // Error case
+            String displayMessage = this.zosFileHandler.buildErrorString("retrieve content " + quoted(path), response); 
+            logger.error(displayMessage);
+            throw new ZosUNIXFileException(displayMessage);
+        }
+
+        byte[] content;
+        try (InputStream inputStream = (InputStream) response.getContent()) {
+        	if (response.getStatusCode() == HttpStatus.SC_OK && fromByte > 0 && IOUtils.skip(inputStream, fromByte) < fromByte) {
+        		return new byte[0];
+        	}
+        	content = IOUtils.toByteArray(inputStream);
+        } catch (RseapiException | IOException e) {
+        	throw new ZosUNIXFileException("Unable to retrieve content of " + quoted(path) + logOnImage(), e);
+        }
+    
+        logger.trace("Content of " + LOG_UNIX_PATH + quoted(path) + " retrieved from  image " + this.image.getImageID());
+        return content;
+    }
+
     protected Object retrieve(String path) throws ZosUNIXFileException {
     	String urlPath;
         Map<String, String> headers = new HashMap<>();
@@ -5,6 +5,9 @@
  */
 package dev.galasa.zosfile.rseapi.manager.internal;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.channels.SeekableByteChannel;
@@ -21,11 +24,13 @@ import java.util.TreeMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpStatus;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
@@ -1261,4 +1266,125 @@ public class TestRseapiZosUNIXFileImpl {
 //    	zosUNIXFileSpy.setShouldCleanup(true);
 //    	Assert.assertTrue("setShouldCleanup() should return true", zosUNIXFileSpy.shouldCleanup());
 //    }
+
+    private RseapiZosUNIXFileImpl newUNIXFile(IRseapiRestApiProcessor rseapiApiProcessor) throws Exception {
+        IZosImage image = Mockito.mock(IZosImage.class);
+        Mockito.when(image.getImageID()).thenReturn("IMAGE");
+        ZosManagerImpl zosManager = Mockito.mock(ZosManagerImpl.class);
+        Mockito.when(zosManager.getZosFilePropertyUnixFilePermissions(Mockito.any())).thenReturn("rwxrwxr-x");
+        RseapiManagerImpl rseapiManager = Mockito.mock(RseapiManagerImpl.class);
+        Mockito.when(rseapiManager.newRseapiRestApiProcessor(Mockito.any(), Mockito.anyBoolean())).thenReturn(rseapiApiProcessor);
+        RseapiZosFileManagerImpl zosFileManager = Mockito.mock(RseapiZosFileManagerImpl.class);
+        Mockito.when(zosFileManager.getRseapiManager()).thenReturn(rseapiManager);
+        RseapiZosFileHandlerImpl zosFileHandler = Mockito.mock(RseapiZosFileHandlerImpl.class);
+        Mockito.when(zosFileHandler.getZosFileManager()).thenReturn(zosFileManager);
+        Mockito.when(zosFileHandler.getZosManager()).thenReturn(zosManager);
+
+        RseapiZosUNIXFileImpl unixFile = Mockito.spy(new RseapiZosUNIXFileImpl(zosFileHandler, image, "/u/user/log.txt"));
+        Mockito.doReturn(true).when(unixFile).exists();
+        Mockito.doReturn(false).when(unixFile).isDirectory();
+        return unixFile;
+    }
+
+    private IRseapiResponse newResponse(int statusCode, String content) throws Exception {
+        IRseapiResponse response = Mockito.mock(IRseapiResponse.class);
+        Mockito.when(response.getStatusCode()).thenReturn(statusCode);
+        Mockito.when(response.getContent()).thenReturn(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> sentHeaders(IRseapiRestApiProcessor rseapiApiProcessor) throws Exception {
+        ArgumentCaptor<Map<String, String>> headers = ArgumentCaptor.forClass(Map.class);
+        Mockito.verify(rseapiApiProcessor).sendRequest(Mockito.eq(RseapiRequestType.GET), Mockito.eq("/rseapi/api/v1/unixfiles/u/user/log.txt/rawContent"), headers.capture(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+        return headers.getValue();
+    }
+
+    @Test
+    public void testRetrieveAsTextFromRecordDropsEarlierRecords() throws Exception {
+        // Given...
+        RseapiZosUNIXFileImpl unixFile = newUNIXFile(Mockito.mock(IRseapiRestApiProcessor.class));
+        Mockito.doReturn("record1\nrecord2\nrecord3\n").when(unixFile).retrieveAsText();
+
+        // When...
+        String content = unixFile.retrieveAsText(1);
+
+        // Then...
+        assertThat(content).isEqualTo("record2\nrecord3\n");
+    }
+
+    @Test
+    public void testRetrieveAsTextFromRecordAfterLastRecordReturnsNothing() throws Exception {
+        // Given...
+        RseapiZosUNIXFileImpl unixFile = newUNIXFile(Mockito.mock(IRseapiRestApiProcessor.class));
+        Mockito.doReturn("record1\nrecord2\n").when(unixFile).retrieveAsText();
+
+        // When...
+        String content = unixFile.retrieveAsText(3);
+
+        // Then...
+        assertThat(content).isEmpty();
+    }
+
+    @Test
+    public void testRetrieveAsBinaryFromByteRequestsByteRange() throws Exception {
+        // Given...
+        IRseapiRestApiProcessor rseapiApiProcessor = Mockito.mock(IRseapiRestApiProcessor.class);
+        IRseapiResponse response = newResponse(HttpStatus.SC_PARTIAL_CONTENT, "DEF");
+        Mockito.when(rseapiApiProcessor.sendRequest(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(response);
+        RseapiZosUNIXFileImpl unixFile = newUNIXFile(rseapiApiProcessor);
+
+        // When...
+        byte[] content = unixFile.retrieveAsBinary(3);
+
+        // Then...
+        assertThat(new String(content, StandardCharsets.UTF_8)).isEqualTo("DEF");
+        assertThat(sentHeaders(rseapiApiProcessor)).containsEntry(HttpHeaders.RANGE, "bytes=3-");
+    }
+
+    @Test
+    public void testRetrieveAsBinaryFromFirstByteRequestsWholeFile() throws Exception {
+        // Given...
+        IRseapiRestApiProcessor rseapiApiProcessor = Mockito.mock(IRseapiRestApiProcessor.class);
+        IRseapiResponse response = newResponse(HttpStatus.SC_OK, "ABCDEF");
+        Mockito.when(rseapiApiProcessor.sendRequest(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(response);
+        RseapiZosUNIXFileImpl unixFile = newUNIXFile(rseapiApiProcessor);
+
+        // When...
+        byte[] content = unixFile.retrieveAsBinary(0);
+
+        // Then...
+        assertThat(new String(content, StandardCharsets.UTF_8)).isEqualTo("ABCDEF");
+        assertThat(sentHeaders(rseapiApiProcessor)).doesNotContainKey(HttpHeaders.RANGE);
+    }
+
+    @Test
+    public void testRetrieveAsBinaryWhenRangeIgnoredSkipsToByte() throws Exception {
+        // Given...
+        IRseapiRestApiProcessor rseapiApiProcessor = Mockito.mock(IRseapiRestApiProcessor.class);
+        IRseapiResponse response = newResponse(HttpStatus.SC_OK, "ABCDEF");
+        Mockito.when(rseapiApiProcessor.sendRequest(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(response);
+        RseapiZosUNIXFileImpl unixFile = newUNIXFile(rseapiApiProcessor);
+
+        // When...
+        byte[] content = unixFile.retrieveAsBinary(3);
+
+        // Then...
+        assertThat(new String(content, StandardCharsets.UTF_8)).isEqualTo("DEF");
+    }
+
+    @Test
+    public void testRetrieveAsBinaryWhenRangeNotSatisfiableReturnsNothing() throws Exception {
+        // Given...
+        IRseapiRestApiProcessor rseapiApiProcessor = Mockito.mock(IRseapiRestApiProcessor.class);
+        IRseapiResponse response = newResponse(HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE, "");
+        Mockito.when(rseapiApiProcessor.sendRequest(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(response);
+        RseapiZosUNIXFileImpl unixFile = newUNIXFile(rseapiApiProcessor);
+
+        // When...
+        byte[] content = unixFile.retrieveAsBinary(6);
+
+        // Then...
+        assertThat(content).isEmpty();
+    }
 }
@@ -26,6 +26,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpStatus;
 
 import com.google.gson.JsonArray;
@@ -301,6 +302,30 @@ public class ZosmfZosUNIXFileImpl implements IZosUNIXFile {
         return retrieveAsBinary(this.unixPath);
     }
 
+    @Override
+    public String retrieveAsText(int fromRecord) throws ZosUNIXFileException {
+        if (!exists()) {
+            throw new ZosUNIXFileException(LOG_UNIX_PATH + quoted(this.unixPath) + LOG_DOES_NOT_EXIST + logOnImage());
+        }
+        if (isDirectory()) {
+            throw new ZosUNIXFileException(LOG_INVALID_REQUETS + quoted(this.unixPath) + " is a directory");
+        }
+        setDataType(UNIXFileDataType.TEXT);
+        return retrieveAsText(this.unixPath, fromRecord);
+    }
+
+    @Override
+    public byte[] retrieveAsBinary(long fromByte) throws ZosUNIXFileException {
+        if (!exists()) {
+            throw new ZosUNIXFileException(LOG_UNIX_PATH + quoted(this.unixPath) + LOG_DOES_NOT_EXIST + logOnImage());
+        }
+        if (isDirectory()) {
+            throw new ZosUNIXFileException(LOG_INVALID_REQUETS + quoted(this.unixPath) + " is a directory");
+        }
+        setDataType(UNIXFileDataType.BINARY);
+        return retrieveAsBinary(this.unixPath, fromByte);
+    }
+
     @Override
     public void saveToResultsArchive(String rasPath) throws ZosUNIXFileException {
         saveToResultsArchive(this.unixPath, rasPath);
@@ -730,8 +755,18 @@ public class ZosmfZosUNIXFileImpl implements IZosUNIXFile {
 
 
     protected String retrieveAsText(String path) throws ZosUNIXFileException {
+        return retrieveAsText(path, 0);
+    }
+
+    /**
+     * Retrieve the content from a record onwards, using a record range so only those records are transferred
+     */
+    protected String retrieveAsText(String path, int fromRecord) throws ZosUNIXFileException {
         Map<String, String> headers = new HashMap<>();
         headers.put(ZosmfCustomHeaders.X_IBM_DATA_TYPE.toString(), getDataType().toString());
+        if (fromRecord > 0) {
+            headers.put(ZosmfCustomHeaders.X_IBM_RECORD_RANGE.toString(), fromRecord + "-" + Integer.MAX_VALUE);
+        }
         String urlPath = RESTFILES_FILE_SYSTEM_PATH + path;
         IZosmfResponse response;
         try {
@@ -769,21 +804,40 @@ public class ZosmfZosUNIXFileImpl implements IZosUNIXFile {
 
 
     protected byte[] retrieveAsBinary(String path) throws ZosUNIXFileException {
+        return retrieveAsBinary(path, 0);
+    }
+
+    /**
+     * Retrieve the content from a byte offset onwards, asking for a byte range. If the server 
+     * ignores the range and returns the whole file, the bytes before the offset are dropped here
+     */
+    protected byte[] retrieveAsBinary(String path, long fromByte) throws ZosUNIXFileException {
         Map<String, String> headers = new HashMap<>();
         headers.put(ZosmfCustomHeaders.X_IBM_DATA_TYPE.toString(), getDataType().toString());
+        if (fromByte > 0) {
+            headers.put(HttpHeaders.RANGE, "bytes=" + fromByte + "-");
+        }
         String urlPath = RESTFILES_FILE_SYSTEM_PATH + path;
         IZosmfResponse response;
         try {
             response = this.zosmfApiProcessor.sendRequest(ZosmfRequestType.GET, urlPath, headers, null,
-                    new ArrayList<>(Arrays.asList(HttpStatus.SC_OK, HttpStatus.SC_BAD_REQUEST, HttpStatus.SC_INTERNAL_SERVER_ERROR)), false);
+                    new ArrayList<>(Arrays.asList(HttpStatus.SC_OK, HttpStatus.SC_PARTIAL_CONTENT, HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE, HttpStatus.SC_BAD_REQUEST, HttpStatus.SC_INTERNAL_SERVER_ERROR)), false);
         } catch (ZosmfException e) {
             throw new ZosUNIXFileException(e);
         }        
     
         byte[] content;
-        if (response.getStatusCode() == HttpStatus.SC_OK) {
-            try {
-                content = IOUtils.toByteArray((InputStream) response.getContent());
+        if (response.getStatusCode() == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE) {
+            content = new byte[0];
+        } else if (response.getStatusCode() == HttpStatus.SC_OK || response.getStatusCode() == HttpStatus.SC_PARTIAL_CONTENT) {
+            try (InputStream inputStream = (InputStream) response.getContent()) {
+                if (response.getStatusCode() == HttpStatus.SC_OK && fromByte > 0) {
+                    long skipped = IOUtils.skip(inputStream, fromByte);
+                    if (skipped < fromByte) {
+                        return new byte[0];
+                    }
+                }
+                content = IOUtils.toByteArray(inputStream);
             } catch (ZosmfException | IOException e) {
                 throw new ZosUNIXFileException("Unable to retrieve content of " + quoted(path) + logOnImage(), e);
             }
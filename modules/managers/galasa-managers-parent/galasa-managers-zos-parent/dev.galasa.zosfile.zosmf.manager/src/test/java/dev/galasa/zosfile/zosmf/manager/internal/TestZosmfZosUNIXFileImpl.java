@@ -5,6 +5,9 @@
  */
 package dev.galasa.zosfile.zosmf.manager.internal;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.channels.SeekableByteChannel;
@@ -22,11 +25,13 @@ import java.util.TreeMap;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpStatus;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
@@ -1494,4 +1499,130 @@ public class TestZosmfZosUNIXFileImpl {
 //    	zosUNIXFileSpy.setShouldCleanup(true);
 //    	Assert.assertTrue("setShouldCleanup() should return true", zosUNIXFileSpy.shouldCleanup());
 //    }
+
+    private ZosmfZosUNIXFileImpl newUNIXFile(IZosmfRestApiProcessor zosmfApiProcessor) throws Exception {
+        IZosImage image = Mockito.mock(IZosImage.class);
+        Mockito.when(image.getImageID()).thenReturn("IMAGE");
+        ZosManagerImpl zosManager = Mockito.mock(ZosManagerImpl.class);
+        Mockito.when(zosManager.getZosFilePropertyUnixFilePermissions(Mockito.any())).thenReturn("rwxrwxr-x");
+        ZosmfManagerImpl zosmfManager = Mockito.mock(ZosmfManagerImpl.class);
+        Mockito.when(zosmfManager.newZosmfRestApiProcessor(Mockito.any(), Mockito.anyBoolean())).thenReturn(zosmfApiProcessor);
+        ZosmfZosFileHandlerImpl zosFileHandler = Mockito.mock(ZosmfZosFileHandlerImpl.class);
+        Mockito.when(zosFileHandler.getZosFileManager()).thenReturn(Mockito.mock(ZosmfZosFileManagerImpl.class));
+        Mockito.when(zosFileHandler.getZosManager()).thenReturn(zosManager);
+        Mockito.when(zosFileHandler.getZosmfManager()).thenReturn(zosmfManager);
+
+        ZosmfZosUNIXFileImpl unixFile = Mockito.spy(new ZosmfZosUNIXFileImpl(zosFileHandler, image, "/u/user/log.txt"));
+        Mockito.doReturn(true).when(unixFile).exists();
+        Mockito.doReturn(false).when(unixFile).isDirectory();
+        return unixFile;
+    }
+
+    private IZosmfResponse newResponse(int statusCode, String content) throws Exception {
+        IZosmfResponse response = Mockito.mock(IZosmfResponse.class);
+        Mockito.when(response.getStatusCode()).thenReturn(statusCode);
+        Mockito.when(response.getTextContent()).thenReturn(content);
+        Mockito.when(response.getContent()).thenReturn(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> sentHeaders(IZosmfRestApiProcessor zosmfApiProcessor) throws Exception {
+        ArgumentCaptor<Map<String, String>> headers = ArgumentCaptor.forClass(Map.class);
+        Mockito.verify(zosmfApiProcessor).sendRequest(Mockito.eq(ZosmfRequestType.GET), Mockito.eq("/zosmf/restfiles/fs/u/user/log.txt"), headers.capture(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+        return headers.getValue();
+    }
+
+    @Test
+    public void testRetrieveAsTextFromRecordRequestsRecordRange() throws Exception {
+        // Given...
+        IZosmfRestApiProcessor zosmfApiProcessor = Mockito.mock(IZosmfRestApiProcessor.class);
+        IZosmfResponse response = newResponse(HttpStatus.SC_OK, "record3\nrecord4\n");
+        Mockito.when(zosmfApiProcessor.sendRequest(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(response);
+        ZosmfZosUNIXFileImpl unixFile = newUNIXFile(zosmfApiProcessor);
+
+        // When...
+        String content = unixFile.retrieveAsText(2);
+
+        // Then...
+        assertThat(content).isEqualTo("record3\nrecord4\n");
+        assertThat(sentHeaders(zosmfApiProcessor)).containsEntry("X-IBM-Record-Range", "2-" + Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testRetrieveAsTextFromFirstRecordRequestsWholeFile() throws Exception {
+        // Given...
+        IZosmfRestApiProcessor zosmfApiProcessor = Mockito.mock(IZosmfRestApiProcessor.class);
+        IZosmfResponse response = newResponse(HttpStatus.SC_OK, "record1\nrecord2\n");
+        Mockito.when(zosmfApiProcessor.sendRequest(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(response);
+        ZosmfZosUNIXFileImpl unixFile = newUNIXFile(zosmfApiProcessor);
+
+        // When...
+        String content = unixFile.retrieveAsText(0);
+
+        // Then...
+        assertThat(content).isEqualTo("record1\nrecord2\n");
+        assertThat(sentHeaders(zosmfApiProcessor)).doesNotContainKey("X-IBM-Record-Range");
+    }
+
+    @Test
+    public void testRetrieveAsBinaryFromByteRequestsByteRange() throws Exception {
+        // Given...
+        IZosmfRestApiProcessor zosmfApiProcessor = Mockito.mock(IZosmfRestApiProcessor.class);
+        IZosmfResponse response = newResponse(HttpStatus.SC_PARTIAL_CONTENT, "DEF");
+        Mockito.when(zosmfApiProcessor.sendRequest(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(response);
+        ZosmfZosUNIXFileImpl unixFile = newUNIXFile(zosmfApiProcessor);
+
+        // When...
+        byte[] content = unixFile.retrieveAsBinary(3);
+
+        // Then...
+        assertThat(new String(content, StandardCharsets.UTF_8)).isEqualTo("DEF");
+        assertThat(sentHeaders(zosmfApiProcessor)).containsEntry(HttpHeaders.RANGE, "bytes=3-");
+    }
+
+    @Test
+    public void testRetrieveAsBinaryWhenRangeIgnoredSkipsToByte() throws Exception {
+        // Given...
+        IZosmfRestApiProcessor zosmfApiProcessor = Mockito.mock(IZosmfRestApiProcessor.class);
+        IZosmfResponse response = newResponse(HttpStatus.SC_OK, "ABCDEF");
+        Mockito.when(zosmfApiProcessor.sendRequest(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(response);
+        ZosmfZosUNIXFileImpl unixFile = newUNIXFile(zosmfApiProcessor);
+
+        // When...
+        byte[] content = unixFile.retrieveAsBinary(3);
+
+        // Then...
+        assertThat(new String(content, StandardCharsets.UTF_8)).isEqualTo("DEF");
+    }
+
+    @Test
+    public void testRetrieveAsBinaryWhenRangeIgnoredAndFileShorterThanByteReturnsNothing() throws Exception {
+        // Given...
+        IZosmfRestApiProcessor zosmfApiProcessor = Mockito.mock(IZosmfRestApiProcessor.class);
+        IZosmfResponse response = newResponse(HttpStatus.SC_OK, "AB");
+        Mockito.when(zosmfApiProcessor.sendRequest(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(response);
+        ZosmfZosUNIXFileImpl unixFile = newUNIXFile(zosmfApiProcessor);
+
+        // When...
+        byte[] content = unixFile.retrieveAsBinary(3);
+
+        // Then...
+        assertThat(content).isEmpty();
+    }
+
+    @Test
+    public void testRetrieveAsBinaryWhenRangeNotSatisfiableReturnsNothing() throws Exception {
+        // Given...
+        IZosmfRestApiProcessor zosmfApiProcessor = Mockito.mock(IZosmfRestApiProcessor.class);
+        IZosmfResponse response = newResponse(HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE, "");
+        Mockito.when(zosmfApiProcessor.sendRequest(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(response);
+        ZosmfZosUNIXFileImpl unixFile = newUNIXFile(zosmfApiProcessor);
+
+        // When...
+        byte[] content = unixFile.retrieveAsBinary(6);
+
+        // Then...
+        assertThat(content).isEmpty();
+    }
 }
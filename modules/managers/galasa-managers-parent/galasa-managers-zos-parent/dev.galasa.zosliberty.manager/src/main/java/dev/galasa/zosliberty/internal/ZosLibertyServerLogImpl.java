@@ -117,21 +117,19 @@ public class ZosLibertyServerLogImpl implements IZosLibertyServerLog, ITextScann
 
     @Override
     public OutputStream retrieveSinceCheckpoint() throws ZosLibertyServerException {
+        if (!checkExists()) {
+            return null;
+        }
+        byte[] content = retrieveAsBinary(getCheckpoint());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(content, 0, content.length);
+        return baos;
+    }
+
+    private byte[] retrieveAsBinary(long checkpoint) throws ZosLibertyServerException {
         try {
-            if (checkExists()) {
-                ByteArrayInputStream bais = new ByteArrayInputStream(((ByteArrayOutputStream) retrieve()).toByteArray());
-                long checkpoint = getCheckpoint();
-                long skipped = bais.skip(checkpoint);
-                if (skipped != getCheckpoint()) {
-                    throw new IOException("Failed to skip " + checkpoint + " bytes. Actual bytes skipped " + skipped);
-                }
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                baos.writeTo(baos);
-                return baos;
-            } else {
-                return null;
-            }
-        } catch (IOException e) {
+            return this.zosUnixFile.retrieveAsBinary(Math.max(checkpoint, 0));
+        } catch (ZosUNIXFileException e) {
             throw new ZosLibertyServerException("Problem retrieving log since last checkpoint", e);
         }
     }
@@ -392,6 +390,21 @@ public class ZosLibertyServerLogImpl implements IZosLibertyServerLog, ITextScann
             throw new TextScanException("Problem retrieving " + getScannableName(), e);
         }
     }
+
+    /**
+     * The checkpoint is the size of the log in bytes, so only the bytes written since then are retrieved
+     */
+    @Override
+    public String getScannableStringSinceCheckpoint(long checkpoint) throws TextScanException {
+        try {
+            if (!checkExists()) {
+                return "";
+            }
+            return new String(retrieveAsBinary(checkpoint));
+        } catch (ZosLibertyServerException e) {
+            throw new TextScanException("Problem retrieving " + getScannableName() + LOG_SINCE_CHECKPOINT, e);
+        }
+    }
     
     @Override
     public String toString() {
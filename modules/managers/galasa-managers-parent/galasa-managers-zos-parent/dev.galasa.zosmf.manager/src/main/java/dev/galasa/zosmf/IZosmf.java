@@ -6,6 +6,7 @@
 package dev.galasa.zosmf;
 
 import java.util.List;
+import java.util.Map;
 
 import javax.validation.constraints.NotNull;
 
@@ -87,6 +88,10 @@ public interface IZosmf {
          * {@code X-IBM-Option}
          */
         X_IBM_OPTION("X-IBM-Option"),
+        /**
+         * {@code X-IBM-Record-Range}
+         */
+        X_IBM_RECORD_RANGE("X-IBM-Record-Range"),
         /**
          * {@code X-IBM-Requested-Method}
          */
@@ -117,7 +122,8 @@ public interface IZosmf {
     }
     
     /**
-     * Set an HTTP Header for the pending zOSMF request
+     * Set an HTTP Header for the zOSMF requests that follow. The headers are shared by all the threads that use the
+     * server, so use {@link #sendRequest} for requests that may be sent concurrently
      * 
      * @param name header name
      * @param value header value 
@@ -130,6 +136,22 @@ public interface IZosmf {
      */
     void clearHeaders();
 
+    /**
+     * Issue an HTTP request to the zOSMF server with headers for this request only. Requests may be sent
+     * concurrently, each on its own connection to the server
+     * 
+     * @param requestType the type of request
+     * @param path identifies the zOSMF REST API
+     * @param headers the HTTP headers for the request, may be null
+     * @param body the request body, of the type for the request type, or null
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus#SC_OK} when null
+     * @param convert is a data conversion required. If true, the content is returned as text. If false, the content 
+     * is returned as an {@link java.io.InputStream} which must be read to the end or closed
+     * @return the zOSMF server response
+     * @throws ZosmfException
+     */
+    public @NotNull IZosmfResponse sendRequest(ZosmfRequestType requestType, String path, Map<String, String> headers, Object body, List<Integer> validStatusCodes, boolean convert) throws ZosmfException;
+
     /**
      * Issue an HTTP PUT request to the zOSMF server with no request body
      * 
@@ -5,29 +5,66 @@
  */
 package dev.galasa.zosmf.internal;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+import javax.net.ssl.SSLContext;
 import javax.validation.constraints.NotNull;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpStatus;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.AuthCache;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.conn.ssl.TrustAllStrategy;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.auth.BasicScheme;
+import org.apache.http.impl.client.BasicAuthCache;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.ssl.SSLContextBuilder;
 
 import com.google.gson.JsonObject;
 
 import dev.galasa.ICredentials;
 import dev.galasa.ICredentialsUsernamePassword;
 import dev.galasa.framework.spi.creds.CredentialsException;
-import dev.galasa.http.HttpClientException;
-import dev.galasa.http.IHttpClient;
+import dev.galasa.http.ContentType;
 import dev.galasa.zos.IZosImage;
 import dev.galasa.zos.ZosManagerException;
 import dev.galasa.zosmf.IZosmf;
@@ -36,6 +73,7 @@ import dev.galasa.zosmf.ZosmfException;
 import dev.galasa.zosmf.ZosmfManagerException;
 import dev.galasa.zosmf.internal.properties.Https;
 import dev.galasa.zosmf.internal.properties.RequestRetry;
+import dev.galasa.zosmf.internal.properties.ServerConnections;
 import dev.galasa.zosmf.internal.properties.ServerCreds;
 import dev.galasa.zosmf.internal.properties.ServerImage;
 import dev.galasa.zosmf.internal.properties.ServerPort;
@@ -53,17 +91,27 @@ public class ZosmfImpl implements IZosmf {
     private final ZosmfManagerImpl zosmfManager;
     private final String serverId;
     private IZosImage image;
-    private IHttpClient httpClient;
+    private CloseableHttpClient httpClient;
+    private HttpHost zosmfHost;
     private String zosmfUrl;
     protected int requestRetry;
 
-    private HashMap<String, String> commonHeaders = new HashMap<>();
+    private final CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+    private final AuthCache authCache = new BasicAuthCache();
+    private final ZosmfServerStatistics statistics;
+
+    private final Map<String, String> commonHeaders = new ConcurrentHashMap<>();
+
+    private static final int TIMEOUT = 180000;
+    private static final int VALIDATE_AFTER_INACTIVITY = 2000;
+    private static final long IDLE_CONNECTION_TIMEOUT = 60000;
 
 	private static final String PATH_SERVERDETAILS = "/zosmf/info";
 
     public ZosmfImpl(ZosmfManagerImpl zosmfManager, String serverId) throws ZosmfException {
         this.zosmfManager = zosmfManager;
         this.serverId     = serverId;
+        this.statistics   = new ZosmfServerStatistics(serverId);
         
         String imageId = null;
         try {
@@ -87,163 +135,88 @@ public class ZosmfImpl implements IZosmf {
     @Override
     public void clearHeaders() {
         this.commonHeaders.clear();
-        this.httpClient.clearCommonHeaders();
     }
 
     @Override
     public @NotNull IZosmfResponse get(String path, List<Integer> validStatusCodes, boolean convert) throws ZosmfException {
-        String method = ZosmfRequestType.GET.name();
-        if (validStatusCodes == null) {
-            validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
-        }
-        ZosmfResponseImpl zosmfResponse;
-        try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
-            zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
-            logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
-            if (convert) {
-                zosmfResponse.setHttpClientresponse(this.httpClient.getText(validPath(path)));
-            } else {
-                zosmfResponse.setHttpClientresponse(this.httpClient.getFile(validPath(path)));
-            }
-            
-            logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
-            if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
-                throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
-            }
-        } catch (MalformedURLException | HttpClientException | IllegalArgumentException e) {
-            logger.error(e);
-            throw new ZosmfException(logBadRequest(method), e);
-        }
-        
-        return zosmfResponse;
+        return sendRequest(ZosmfRequestType.GET, path, this.commonHeaders, null, validStatusCodes, convert);
     }
 
     @Override
     public @NotNull IZosmfResponse postJson(String path, JsonObject requestBody, List<Integer> validStatusCodes) throws ZosmfException {
-        String method = ZosmfRequestType.POST.name();
-        if (validStatusCodes == null) {
-            validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
-        }
-        ZosmfResponseImpl zosmfResponse;
-        try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
-            zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
-            logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
-            logger.trace(LOG_BODY + requestBody);
-            zosmfResponse.setHttpClientresponse(this.httpClient.postJson(validPath(path), requestBody));
-            logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
-            if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
-                throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
-            }
-        } catch (MalformedURLException | HttpClientException  e) {
-            logger.error(e);
-            throw new ZosmfException(logBadRequest(method), e);
-        }
-        
-        return zosmfResponse;
+        return sendRequest(ZosmfRequestType.POST_JSON, path, this.commonHeaders, requestBody, validStatusCodes, true);
     }
 
     @Override
     public @NotNull IZosmfResponse putText(String path, String requestBody, List<Integer> validStatusCodes) throws ZosmfException {
-        String method = ZosmfRequestType.PUT.name();
-        if (validStatusCodes == null) {
-            validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
-        }
-        ZosmfResponseImpl zosmfResponse;
-        try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
-            zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
-            logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
-            logger.trace(LOG_BODY + requestBody);
-            zosmfResponse.setHttpClientresponse(this.httpClient.putText(validPath(path), requestBody));
-            logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
-            if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
-                throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
-            }
-        } catch (MalformedURLException | HttpClientException  e) {
-            logger.error(e);
-            throw new ZosmfException(logBadRequest(method), e);
-        }
-        
-        return zosmfResponse;
+        return sendRequest(ZosmfRequestType.PUT_TEXT, path, this.commonHeaders, requestBody, validStatusCodes, true);
     }
 
     @Override
     public @NotNull IZosmfResponse putJson(String path, JsonObject requestBody, List<Integer> validStatusCodes) throws ZosmfException {
-        String method = ZosmfRequestType.PUT.name();
-        if (validStatusCodes == null) {
-            validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
-        }
-        ZosmfResponseImpl zosmfResponse;
-        try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
-            zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
-            logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
-            logger.trace(LOG_BODY + requestBody);
-            zosmfResponse.setHttpClientresponse(this.httpClient.putJson(validPath(path), requestBody));
-            logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
-            if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
-                throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
-            }
-        } catch (MalformedURLException | HttpClientException  e) {
-            logger.error(e);
-            throw new ZosmfException(logBadRequest(method), e);
-        }
-        
-        return zosmfResponse;
+        return sendRequest(ZosmfRequestType.PUT_JSON, path, this.commonHeaders, requestBody, validStatusCodes, true);
     }
 
     @Override
     public @NotNull IZosmfResponse putBinary(String path, byte[] requestBody, List<Integer> validStatusCodes) throws ZosmfException  {
-        String method = ZosmfRequestType.PUT.name();
-        if (validStatusCodes == null) {
-            validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
-        }
-        ZosmfResponseImpl zosmfResponse;
-
-        try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
-            zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
-            logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
-            logger.trace(LOG_BODY + requestBody);
-            zosmfResponse.setHttpClientresponse(this.httpClient.putBinary(path, requestBody));
-            logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
-            if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
-                throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
-            }
-        } catch (MalformedURLException | HttpClientException  e) {
-            logger.error(e);
-            throw new ZosmfException(logBadRequest(method), e);
-        }
-
-        return zosmfResponse;
+        return sendRequest(ZosmfRequestType.PUT_BINARY, path, this.commonHeaders, requestBody, validStatusCodes, true);
     }
 
     @Override
     public @NotNull IZosmfResponse delete(String path, List<Integer> validStatusCodes) throws ZosmfException {
-        String method = ZosmfRequestType.DELETE.name();
+        return sendRequest(ZosmfRequestType.DELETE, path, this.commonHeaders, null, validStatusCodes, true);
+    }
+
+    @Override
+    public @NotNull IZosmfResponse sendRequest(ZosmfRequestType requestType, String path, Map<String, String> headers, Object body, List<Integer> validStatusCodes, boolean convert) throws ZosmfException {
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         ZosmfResponseImpl zosmfResponse;
+        HttpRequestBase request;
         try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
             zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
-            logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
-            zosmfResponse.setHttpClientresponse(this.httpClient.deleteJson(validPath(path)));
-            logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
-            if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
-                throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
+            request = buildRequest(requestType, zosmfResponse.getRequestUrl().toURI(), body, convert);
+        } catch (MalformedURLException | URISyntaxException | IllegalArgumentException | ClassCastException e) {
+            logger.error(e);
+            throw new ZosmfException(logBadRequest(requestType.name()), e);
+        }
+        String method = request.getMethod();
+        if (headers != null) {
+            for (Entry<String, String> entry : headers.entrySet()) {
+                logger.trace("Adding HTTP header: " + entry.getKey() + ": " + entry.getValue());
+                request.setHeader(entry.getKey(), entry.getValue());
             }
-        } catch (MalformedURLException | HttpClientException  e) {
+        }
+        request.setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
+        logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
+        if (body != null) {
+            logger.trace(LOG_BODY + body);
+        }
+
+        // *** Each request has its own context, so requests can be sent concurrently, sharing the cached authentication
+        HttpClientContext context = HttpClientContext.create();
+        context.setCredentialsProvider(this.credentialsProvider);
+        context.setAuthCache(this.authCache);
+
+        this.statistics.requestStarted();
+        long start = System.nanoTime();
+        long contentLength = -1;
+        boolean failed = true;
+        try {
+            contentLength = zosmfResponse.setHttpClientresponse(this.httpClient.execute(this.zosmfHost, request, context), convert);
+            failed = zosmfResponse.getStatusCode() >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+        } catch (IOException e) {
+            logger.error(e);
             throw new ZosmfException(logBadRequest(method), e);
+        } finally {
+            this.statistics.requestEnded(System.nanoTime() - start, contentLength, failed);
+        }
+
+        logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
+        if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
+            zosmfResponse.close();
+            throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
         }
         
         return zosmfResponse;
@@ -268,6 +241,68 @@ public class ZosmfImpl implements IZosmf {
         return path.startsWith("/") ? path : "/" + path;
     }
 
+    protected HttpRequestBase buildRequest(ZosmfRequestType requestType, URI uri, Object body, boolean convert) {
+        HttpRequestBase request;
+        switch (requestType) {
+        case GET:
+            request = new HttpGet(uri);
+            if (convert) {
+                setAcceptTypes(request, ContentType.TEXT_PLAIN);
+            } else {
+                setAcceptTypes(request, ContentType.APPLICATION_OCTET_STREAM, ContentType.APPLICATION_X_TAR, ContentType.TEXT_PLAIN, ContentType.APPLICATION_JSON);
+            }
+            break;
+        case POST:
+            request = new HttpPost(uri);
+            setAcceptTypes(request, ContentType.APPLICATION_JSON);
+            break;
+        case POST_JSON:
+            request = setBody(new HttpPost(uri), ContentType.APPLICATION_JSON, new StringEntity(((JsonObject) body).toString(), StandardCharsets.ISO_8859_1));
+            setAcceptTypes(request, ContentType.APPLICATION_JSON);
+            break;
+        case PUT:
+            request = new HttpPut(uri);
+            setAcceptTypes(request, ContentType.APPLICATION_JSON);
+            break;
+        case PUT_TEXT:
+            request = setBody(new HttpPut(uri), ContentType.TEXT_PLAIN, new StringEntity((String) body, StandardCharsets.ISO_8859_1));
+            setAcceptTypes(request, ContentType.TEXT_PLAIN);
+            break;
+        case PUT_JSON:
+            request = setBody(new HttpPut(uri), ContentType.APPLICATION_JSON, new StringEntity(((JsonObject) body).toString(), StandardCharsets.ISO_8859_1));
+            setAcceptTypes(request, ContentType.APPLICATION_JSON);
+            break;
+        case PUT_BINARY:
+            request = setBody(new HttpPut(uri), ContentType.TEXT_PLAIN, new ByteArrayEntity((byte[]) body));
+            setAcceptTypes(request, ContentType.TEXT_PLAIN);
+            break;
+        case DELETE:
+            request = new HttpDelete(uri);
+            setAcceptTypes(request, ContentType.APPLICATION_JSON);
+            break;
+        default:
+            throw new IllegalArgumentException("Invalid request type");
+        }
+        return request;
+    }
+
+    private HttpRequestBase setBody(HttpEntityEnclosingRequestBase request, ContentType contentType, HttpEntity entity) {
+        request.setHeader(HttpHeaders.CONTENT_TYPE, contentType.getMimeType());
+        request.setEntity(entity);
+        return request;
+    }
+
+    private void setAcceptTypes(HttpRequestBase request, ContentType... acceptTypes) {
+        StringBuilder sb = new StringBuilder();
+        for (ContentType acceptType : acceptTypes) {
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+            sb.append(acceptType.getMimeType());
+        }
+        request.setHeader(HttpHeaders.ACCEPT, sb.toString());
+    }
+
     protected void initialize() throws ZosmfException {
         
         String zosmfHostname;
@@ -277,8 +312,10 @@ public class ZosmfImpl implements IZosmf {
             throw new ZosmfException(e);
         }
         int zosmfPort;
+        int connections;
         try {
             zosmfPort = ServerPort.get(image.getImageID());
+            connections = ServerConnections.get(this.serverId);
         } catch (ZosmfManagerException e) {
             throw new ZosmfException(e);
         }
@@ -292,8 +329,7 @@ public class ZosmfImpl implements IZosmf {
         }
         
         this.zosmfUrl = scheme + "://" + zosmfHostname + ":" + zosmfPort;
-
-        this.httpClient = this.zosmfManager.getHttpManager().newHttpClient();
+        this.zosmfHost = new HttpHost(zosmfHostname, zosmfPort, scheme);
         
         try {
             ICredentials creds = null;
@@ -310,15 +346,39 @@ public class ZosmfImpl implements IZosmf {
                 creds = image.getDefaultCredentials();
             }
 
-            this.httpClient.setURI(new URI(this.zosmfUrl));
             if (creds instanceof ICredentialsUsernamePassword) {
-                this.httpClient.setAuthorisation(((ICredentialsUsernamePassword) creds).getUsername(), ((ICredentialsUsernamePassword) creds).getPassword());
+                this.credentialsProvider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(((ICredentialsUsernamePassword) creds).getUsername(), ((ICredentialsUsernamePassword) creds).getPassword()));
+                // *** Send the credentials with the first request, rather than wait to be challenged
+                this.authCache.put(this.zosmfHost, new BasicScheme());
             }
+
+            // *** The connections are kept open between requests, and one is used by each request in flight
+            RegistryBuilder<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory());
             if (scheme.equals("https")) {
-                this.httpClient.setTrustingSSLContext();
+                SSLContext sslContext = SSLContextBuilder.create().loadTrustMaterial(TrustAllStrategy.INSTANCE).build();
+                socketFactories.register("https", new SSLConnectionSocketFactory(sslContext, NoopHostnameVerifier.INSTANCE));
             }
-            this.httpClient.build();
-        } catch (HttpClientException | ZosManagerException | URISyntaxException e) {
+            PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactories.build());
+            connectionManager.setMaxTotal(connections);
+            connectionManager.setDefaultMaxPerRoute(connections);
+            connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY);
+
+            RequestConfig requestConfig = RequestConfig.custom()
+                    .setCookieSpec(CookieSpecs.STANDARD)
+                    .setConnectTimeout(TIMEOUT)
+                    .setConnectionRequestTimeout(TIMEOUT)
+                    .setSocketTimeout(TIMEOUT)
+                    .build();
+
+            this.httpClient = HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultCookieStore(new BasicCookieStore())
+                    .setDefaultCredentialsProvider(this.credentialsProvider)
+                    .setDefaultRequestConfig(requestConfig)
+                    .evictIdleConnections(IDLE_CONNECTION_TIMEOUT, TimeUnit.MILLISECONDS)
+                    .build();
+        } catch (ZosManagerException | GeneralSecurityException e) {
             throw new ZosmfException("Unable to create HTTP Client", e);
         }
         
@@ -329,12 +389,16 @@ public class ZosmfImpl implements IZosmf {
         }
     }
 
-    protected void addCommonHeaders() {
-        for (Entry<String, String> entry : this.commonHeaders.entrySet()) {
-            logger.trace("Adding HTTP header: " + entry.getKey() + ": " + entry.getValue());
-            this.httpClient.addCommonHeader(entry.getKey(), entry.getValue());
+    protected void close() {
+        try {
+            this.httpClient.close();
+        } catch (IOException e) {
+            logger.warn("Problem closing the HTTP client for zOSMF server " + this.serverId, e);
         }
-        
+    }
+
+    protected ZosmfServerStatistics getStatistics() {
+        return this.statistics;
     }
 
     protected String logRequest(String method, URL requestUrl) {
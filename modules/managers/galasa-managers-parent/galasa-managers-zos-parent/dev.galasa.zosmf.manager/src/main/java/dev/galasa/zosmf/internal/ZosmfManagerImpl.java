@@ -152,7 +152,7 @@ public class ZosmfManagerImpl extends AbstractManager implements IZosmfManagerSp
 
 
     @Override
-    public IZosmf newZosmf(String serverId) throws ZosmfException {
+    public synchronized IZosmf newZosmf(String serverId) throws ZosmfException {
         if (zosmfs.containsKey(serverId)) {
             return this.zosmfs.get(serverId);
         }
@@ -162,7 +162,7 @@ public class ZosmfManagerImpl extends AbstractManager implements IZosmfManagerSp
     }
 
 
-    public Map<String, IZosmf> getZosmfs(@NotNull IZosImage zosImage) throws ZosmfManagerException {
+    public synchronized Map<String, IZosmf> getZosmfs(@NotNull IZosImage zosImage) throws ZosmfManagerException {
         HashMap<String, IZosmf> possibleZosmfs = new HashMap<>();
 
         try {
@@ -209,6 +209,22 @@ public class ZosmfManagerImpl extends AbstractManager implements IZosmfManagerSp
     }
 
 
+    /* (non-Javadoc)
+     * @see dev.galasa.framework.spi.AbstractManager#shutdown()
+     */
+    @Override
+    public synchronized void shutdown() {
+        for (IZosmf zosmf : this.zosmfs.values()) {
+            ZosmfImpl zosmfImpl = (ZosmfImpl) zosmf;
+            if (zosmfImpl.getStatistics().getRequests() > 0) {
+                logger.info(zosmfImpl.getStatistics());
+            }
+            zosmfImpl.close();
+        }
+        this.zosmfs.clear();
+    }
+
+
     public IZosManagerSpi getZosManager() {
         return this.zosManager;
     }
@@ -10,14 +10,16 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
+import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.util.EntityUtils;
 
-import dev.galasa.http.HttpClientResponse;
 import dev.galasa.zosmf.IZosmfResponse;
 import dev.galasa.zosmf.ZosmfException;
 
@@ -39,7 +41,11 @@ public class ZosmfResponseImpl implements IZosmfResponse {
         } else if (this.content instanceof byte[]) {
             return new JsonParser().parse(new String((byte[]) this.content)).getAsJsonObject();
         } else if (this.content instanceof InputStream) {
-            return new JsonParser().parse(new InputStreamReader((InputStream) this.content)).getAsJsonObject();
+            try (InputStreamReader reader = new InputStreamReader((InputStream) this.content)) {
+                return new JsonParser().parse(reader).getAsJsonObject();
+            } catch (IOException e) {
+                throw new ZosmfException("Could not read response", e);
+            }
         } else if (content instanceof JsonObject) {
             return (JsonObject) this.content;
         }
@@ -54,7 +60,11 @@ public class ZosmfResponseImpl implements IZosmfResponse {
         } else if (this.content instanceof byte[]) {
             return new JsonParser().parse(new String((byte[]) this.content)).getAsJsonArray();
         } else if (this.content instanceof InputStream) {
-            return new JsonParser().parse(new InputStreamReader((InputStream) this.content)).getAsJsonArray();
+            try (InputStreamReader reader = new InputStreamReader((InputStream) this.content)) {
+                return new JsonParser().parse(reader).getAsJsonArray();
+            } catch (IOException e) {
+                throw new ZosmfException("Could not read response", e);
+            }
         }
         
         throw new ZosmfException("Content not a JsonArray Object - " + content.getClass().getName());
@@ -88,20 +98,47 @@ public class ZosmfResponseImpl implements IZosmfResponse {
         return this.requestUrl;
     }
 
-    protected void setHttpClientresponse(HttpClientResponse<?> httpClientResponse) {
-        this.content = httpClientResponse.getContent();
-        this.statusCode = httpClientResponse.getStatusCode();
-        this.statusLine = httpClientResponse.getStatusLine();
+    /**
+     * Take the status and content of the response. Converted content is read in full, so the connection goes back
+     * to the pool straight away. Otherwise the content is left to be streamed, and the connection goes back to the
+     * pool once the stream is read to the end or closed
+     * 
+     * @param httpClientResponse
+     * @param convert is the content text to be read now
+     * @return the length of the content, or -1 if not known
+     * @throws IOException
+     */
+    protected long setHttpClientresponse(CloseableHttpResponse httpClientResponse, boolean convert) throws IOException {
+        this.statusCode = httpClientResponse.getStatusLine().getStatusCode();
+        this.statusLine = httpClientResponse.getStatusLine().toString();
+        HttpEntity entity = httpClientResponse.getEntity();
+        if (entity == null) {
+            httpClientResponse.close();
+            return 0;
+        }
+        if (!convert) {
+            this.content = entity.getContent();
+            return entity.getContentLength();
+        }
+        try {
+            byte[] bytes = EntityUtils.toByteArray(entity);
+            this.content = new String(bytes, StandardCharsets.UTF_8);
+            return bytes.length;
+        } finally {
+            httpClientResponse.close();
+        }
     }
 
-    protected void setHttpClientresponse(CloseableHttpResponse httpClientResponse) throws ZosmfException{
-        try{
-            this.content = httpClientResponse.getEntity().getContent();
-            this.statusCode = httpClientResponse.getStatusLine().getStatusCode();
-            this.statusLine = httpClientResponse.getStatusLine().getReasonPhrase();
-        } catch (IOException e) {
-            throw new ZosmfException("Could not retrieve response", e);
+    /**
+     * Close the content stream, if the content has not been read, so the connection is not held
+     */
+    protected void close() {
+        if (this.content instanceof InputStream) {
+            try {
+                ((InputStream) this.content).close();
+            } catch (IOException e) {
+                // *** The connection is discarded instead
+            }
         }
     }
-
 }
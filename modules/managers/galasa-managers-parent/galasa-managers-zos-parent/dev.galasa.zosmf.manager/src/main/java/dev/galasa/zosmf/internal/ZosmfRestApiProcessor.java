@@ -8,11 +8,8 @@ package dev.galasa.zosmf.internal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import javax.validation.constraints.NotNull;
 
@@ -20,8 +17,6 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
 
-import com.google.gson.JsonObject;
-
 import dev.galasa.zosbatch.ZosBatchException;
 import dev.galasa.zosmf.IZosmf;
 import dev.galasa.zosmf.IZosmf.ZosmfCustomHeaders;
@@ -33,22 +28,20 @@ import dev.galasa.zosmf.ZosmfManagerException;
 
 public class ZosmfRestApiProcessor implements IZosmfRestApiProcessor {
     
-    private IZosmf currentZosmf;
-    private String currentZosmfImageId;
-    
-    private final HashMap<String, IZosmf> zosmfs = new LinkedHashMap<>();
+    private final List<ZosmfImpl> zosmfs = new ArrayList<>();
     
     private static final Log logger = LogFactory.getLog(ZosmfRestApiProcessor.class);
     
     public ZosmfRestApiProcessor(Map<String, IZosmf> zosmfs) {
-        this.zosmfs.putAll(zosmfs);
-        this.currentZosmfImageId = this.zosmfs.entrySet().iterator().next().getKey();
-        this.currentZosmf = this.zosmfs.get(this.currentZosmfImageId);
+        for (IZosmf zosmf : zosmfs.values()) {
+            this.zosmfs.add((ZosmfImpl) zosmf);
+        }
     }
     
     
     /**
-     * Send zOSMF request
+     * Send zOSMF request. Each request goes to the zOSMF server that costs least, by recent latency, requests
+     * in flight and failures, and is retried on the next server if it fails. Requests may be sent concurrently
      * @param requestType
      * @param path
      * @param body
@@ -61,78 +54,56 @@ public class ZosmfRestApiProcessor implements IZosmfRestApiProcessor {
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
-        IZosmfResponse response = null;
-        for (int i = 0; i <= ((ZosmfImpl) currentZosmf).getRequestRetry(); i++) {
+        Map<String, String> requestHeaders = new HashMap<>();
+        if (headers != null) {
+            requestHeaders.putAll(headers);
+        }
+        requestHeaders.put(ZosmfCustomHeaders.X_CSRF_ZOSMF_HEADER.toString(), "");
+
+        List<ZosmfImpl> tried = new ArrayList<>();
+        ZosmfImpl zosmfServer = getZosmfServer(tried);
+        for (int i = 0; i <= zosmfServer.getRequestRetry(); i++) {
             try {
-                IZosmf zosmfServer = getCurrentZosmfServer();
-                if (headers != null) {
-                    for (Entry<String, String> entry : headers.entrySet()) {
-                        zosmfServer.setHeader(entry.getKey(), entry.getValue());
-                    }
-                }
-                zosmfServer.setHeader(ZosmfCustomHeaders.X_CSRF_ZOSMF_HEADER.toString(), "");
-                switch (requestType) {
-                case GET:
-                    response = zosmfServer.get(path, validStatusCodes, convert);
-                    break;
-                case POST_JSON:
-                    response = zosmfServer.postJson(path, (JsonObject) body, validStatusCodes);
-                    break;
-                case PUT_TEXT:
-                    response = zosmfServer.putText(path, (String) body, validStatusCodes);
-                    break;
-                case PUT_JSON:
-                    response = zosmfServer.putJson(path, (JsonObject) body, validStatusCodes);
-                    break;
-                case PUT_BINARY:
-                    response = zosmfServer.putBinary(path, (byte[]) body, validStatusCodes);
-                    break;
-                case DELETE:
-                    response = zosmfServer.delete(path, validStatusCodes);
-                    break;
-                default:
-                    throw new ZosmfException("Invalid request type");
-                }
-    
+                logger.trace("Using zOSMF on " + zosmfServer);
+                IZosmfResponse response = zosmfServer.sendRequest(requestType, path, requestHeaders, body, validStatusCodes, convert);
                 if (validStatusCodes.contains(response.getStatusCode())) {
                     return response;
-                } else {
-                    logger.error("Expected HTTP status codes: " + validStatusCodes);
-                    getNextZosmf();
                 }
+                logger.error("Expected HTTP status codes: " + validStatusCodes);
             } catch (ZosmfManagerException e) {
                 logger.error("Problem with zOSMF request", e);
-                getNextZosmf();
             }
+            tried.add(zosmfServer);
+            zosmfServer = getZosmfServer(tried);
         }
         throw new ZosmfException("Unable to get valid response from zOS/MF server");
     }
     
-    protected IZosmf getCurrentZosmfServer() {
-        logger.trace("Using zOSMF on " + this.currentZosmf);
-        this.currentZosmf.clearHeaders();
-        return this.currentZosmf;
+    /**
+     * Choose the zOSMF server that costs least, preferring one not already tried for this request. Servers that 
+     * cost the same are chosen in the order they were given
+     */
+    protected ZosmfImpl getZosmfServer(List<ZosmfImpl> tried) {
+        ZosmfImpl selected = cheapest(tried, false);
+        if (selected == null) {
+            // *** All have been tried, so start again
+            selected = cheapest(tried, true);
+        }
+        return selected;
     }
 
-    protected void getNextZosmf() {
-        if (this.zosmfs.size() == 1) {
-            logger.debug("Only one zOSMF server available");
-            return;
-        }
-        Iterator<Entry<String, IZosmf>> zosmfsIterator = this.zosmfs.entrySet().iterator();
-        while (zosmfsIterator.hasNext()) {
-            if (zosmfsIterator.next().getKey().equals(this.currentZosmfImageId)) {
-                Entry<String, IZosmf> entry;
-                if (zosmfsIterator.hasNext()) {
-                    entry = zosmfsIterator.next();
-                } else {
-                    entry = this.zosmfs.entrySet().iterator().next();
+    private ZosmfImpl cheapest(List<ZosmfImpl> tried, boolean includeTried) {
+        ZosmfImpl selected = null;
+        double selectedCost = 0;
+        for (ZosmfImpl zosmf : this.zosmfs) {
+            if (includeTried || !tried.contains(zosmf)) {
+                double cost = zosmf.getStatistics().getCost();
+                if (selected == null || cost < selectedCost) {
+                    selected = zosmf;
+                    selectedCost = cost;
                 }
-                this.currentZosmfImageId = entry.getKey();
-                this.currentZosmf = this.zosmfs.get(this.currentZosmfImageId);
-                return;
             }
         }
-        logger.debug("No alternate zOSMF server available");
+        return selected;
     }
 }
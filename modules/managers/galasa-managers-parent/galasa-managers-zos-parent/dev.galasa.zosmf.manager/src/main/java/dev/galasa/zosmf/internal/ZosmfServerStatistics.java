@@ -0,0 +1,95 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zosmf.internal;
+
+/**
+ * The requests sent to a zOSMF server, how long they took and how many failed. Used to choose which of the zOSMF
+ * servers of an image to send a request to, and reported at the end of the run
+ */
+public class ZosmfServerStatistics {
+
+    // *** The weight given to the latest request in the average latency
+    private static final double LATENCY_SMOOTHING = 0.2;
+    // *** The cost of a server doubles with each failure in a row, up to this many
+    private static final int MAX_FAILURE_PENALTY = 10;
+
+    private final String serverId;
+
+    private long   requests;
+    private long   failures;
+    private int    consecutiveFailures;
+    private int    inFlight;
+    private long   totalNanos;
+    private long   bytes;
+    private double averageLatencyMillis;
+
+    public ZosmfServerStatistics(String serverId) {
+        this.serverId = serverId;
+    }
+
+    public synchronized void requestStarted() {
+        this.inFlight++;
+    }
+
+    /**
+     * Record a request that has ended
+     *
+     * @param nanos  - how long until the response arrived
+     * @param bytes  - the length of the response content, or -1 if not known
+     * @param failed - if the request failed, or the server responded with a server error
+     */
+    public synchronized void requestEnded(long nanos, long bytes, boolean failed) {
+        this.inFlight--;
+        this.requests++;
+        this.totalNanos += nanos;
+        if (bytes > 0) {
+            this.bytes += bytes;
+        }
+
+        double millis = nanos / 1_000_000.0;
+        if (this.requests == 1) {
+            this.averageLatencyMillis = millis;
+        } else {
+            this.averageLatencyMillis += LATENCY_SMOOTHING * (millis - this.averageLatencyMillis);
+        }
+
+        if (failed) {
+            this.failures++;
+            this.consecutiveFailures++;
+        } else {
+            this.consecutiveFailures = 0;
+        }
+    }
+
+    /**
+     * The cost of sending the next request to the server, lower is better. A server that has not been used yet costs
+     * least, otherwise the cost is the recent average latency times the requests already in flight to the server,
+     * doubled for each request in a row that has failed
+     *
+     * @return the cost
+     */
+    public synchronized double getCost() {
+        double cost = (this.averageLatencyMillis + 1) * (this.inFlight + 1);
+        return cost * (1L << Math.min(this.consecutiveFailures, MAX_FAILURE_PENALTY));
+    }
+
+    public synchronized long getRequests() {
+        return this.requests;
+    }
+
+    public synchronized long getFailures() {
+        return this.failures;
+    }
+
+    @Override
+    public synchronized String toString() {
+        double totalSeconds = this.totalNanos / 1_000_000_000.0;
+        double meanLatencyMillis = this.requests == 0 ? 0 : this.totalNanos / 1_000_000.0 / this.requests;
+        double bytesPerSecond = totalSeconds == 0 ? 0 : this.bytes / totalSeconds;
+        return String.format("zOSMF server %s: %d requests, %d failed, mean latency %.1fms, recent latency %.1fms, %d bytes received, %.0f bytes/s",
+                this.serverId, this.requests, this.failures, meanLatencyMillis, this.averageLatencyMillis, this.bytes, bytesPerSecond);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zosmf.internal.properties;
+
+import javax.validation.constraints.NotNull;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zosmf.ZosmfManagerException;
+
+/**
+ * zOSMF Server connections
+ *
+ * @galasa.cps.property
+ *
+ * @galasa.name zosmf.server.[serverid].connections
+ *
+ * @galasa.description The maximum number of connections kept open to the zOS/MF server, which is the number of requests
+ * that can be in flight to it at the same time
+ *
+ * @galasa.required No
+ *
+ * @galasa.default 8
+ *
+ * @galasa.valid_values numerical value > 0
+ *
+ * @galasa.examples
+ * <code>zosmf.server.connections=8</code><br>
+ * <code>zosmf.server.MFSYSA.connections=16</code>
+ *
+ */
+public class ServerConnections extends CpsProperties {
+
+    private static final String DEFAULT_CONNECTIONS = "8";
+
+    public static int get(@NotNull String serverId) throws ZosmfManagerException {
+        String connections = getStringWithDefault(ZosmfPropertiesSingleton.cps(), DEFAULT_CONNECTIONS, "server", "connections", serverId);
+
+        try {
+            int connectionsInt = Integer.parseInt(connections);
+            if (connectionsInt < 1) {
+                throw new ZosmfManagerException("Invalid value '" + connections + "' for zOSMF server connections property for zOS server "  + serverId + ". Must be greater than 0");
+            }
+            return connectionsInt;
+        } catch(NumberFormatException e) {
+            throw new ZosmfManagerException("Invalid value '" + connections + "' for zOSMF server connections property for zOS server "  + serverId + ". Must be greater than 0", e);
+        }
+    }
+
+}
@@ -5,16 +5,24 @@
  */
 package dev.galasa.zosmf.internal;
 
+import static org.assertj.core.api.Assertions.*;
+
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
 import org.apache.http.HttpStatus;
 import org.apache.http.StatusLine;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.protocol.HttpContext;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -33,6 +41,7 @@ import dev.galasa.ICredentials;
 import dev.galasa.ICredentialsToken;
 import dev.galasa.ICredentialsUsernamePassword;
 import dev.galasa.framework.spi.IFramework;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
 import dev.galasa.framework.spi.creds.CredentialsException;
 import dev.galasa.framework.spi.creds.ICredentialsService;
 import dev.galasa.http.HttpClientException;
@@ -42,6 +51,7 @@ import dev.galasa.http.spi.IHttpManagerSpi;
 import dev.galasa.zos.IZosImage;
 import dev.galasa.zos.ZosManagerException;
 import dev.galasa.zos.internal.ZosManagerImpl;
+import dev.galasa.zos.spi.IZosManagerSpi;
 import dev.galasa.zosmf.IZosmfResponse;
 import dev.galasa.zosmf.IZosmfRestApiProcessor;
 import dev.galasa.zosmf.ZosmfException;
@@ -51,6 +61,7 @@ import dev.galasa.zosmf.internal.properties.RequestRetry;
 import dev.galasa.zosmf.internal.properties.ServerCreds;
 import dev.galasa.zosmf.internal.properties.ServerImage;
 import dev.galasa.zosmf.internal.properties.ServerPort;
+import dev.galasa.zosmf.internal.properties.ZosmfPropertiesSingleton;
 import dev.galasa.zosmf.internal.properties.SysplexServers;
 
 //@RunWith(PowerMockRunner.class)
@@ -592,4 +603,105 @@ public class TestZosmfImpl {
 //        });
 //    	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getCause().getMessage());
 //    }
+
+    private ZosmfImpl newZosmf(CloseableHttpClient httpClient) throws Exception {
+        new ZosmfPropertiesSingleton().activate();
+        ZosmfPropertiesSingleton.setCps(Mockito.mock(IConfigurationPropertyStoreService.class));
+        IZosImage image = Mockito.mock(IZosImage.class);
+        Mockito.when(image.getImageID()).thenReturn("IMAGE1");
+        Mockito.when(image.getDefaultHostname()).thenReturn("zosmf.example.com");
+        IZosManagerSpi zosManager = Mockito.mock(IZosManagerSpi.class);
+        Mockito.when(zosManager.getUnmanagedImage("SERVER1")).thenReturn(image);
+        ZosmfManagerImpl zosmfManager = Mockito.mock(ZosmfManagerImpl.class);
+        Mockito.when(zosmfManager.getZosManager()).thenReturn(zosManager);
+
+        ZosmfImpl zosmf = new ZosmfImpl(zosmfManager, "SERVER1");
+        zosmf.close();
+        Field httpClientField = ZosmfImpl.class.getDeclaredField("httpClient");
+        httpClientField.setAccessible(true);
+        httpClientField.set(zosmf, httpClient);
+        return zosmf;
+    }
+
+    private CloseableHttpResponse newHttpResponse(int statusCode, InputStream content) {
+        StatusLine statusLine = Mockito.mock(StatusLine.class);
+        Mockito.when(statusLine.getStatusCode()).thenReturn(statusCode);
+        Mockito.when(statusLine.toString()).thenReturn("HTTP/1.1 " + statusCode);
+        HttpEntity entity = Mockito.mock(HttpEntity.class);
+        try {
+            Mockito.when(entity.getContent()).thenReturn(content);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        Mockito.when(entity.getContentLength()).thenReturn(-1L);
+        CloseableHttpResponse httpResponse = Mockito.mock(CloseableHttpResponse.class);
+        Mockito.when(httpResponse.getStatusLine()).thenReturn(statusLine);
+        Mockito.when(httpResponse.getEntity()).thenReturn(entity);
+        return httpResponse;
+    }
+
+    private CloseableHttpClient newHttpClient(CloseableHttpResponse httpResponse) throws IOException {
+        CloseableHttpClient httpClient = Mockito.mock(CloseableHttpClient.class);
+        Mockito.when(httpClient.execute(Mockito.any(HttpHost.class), Mockito.any(HttpRequest.class), Mockito.any(HttpContext.class))).thenReturn(httpResponse);
+        return httpClient;
+    }
+
+    @Test
+    public void testStreamedContentIsClosedOnAnUnexpectedStatus() throws Exception {
+        // Given...
+        InputStream content = Mockito.spy(new ByteArrayInputStream("not found".getBytes()));
+        ZosmfImpl zosmf = newZosmf(newHttpClient(newHttpResponse(HttpStatus.SC_NOT_FOUND, content)));
+
+        // When...
+        Throwable thrown = catchThrowable(() -> zosmf.get("/zosmf/restfiles/fs/u/user/file", null, false));
+
+        // Then...
+        assertThat(thrown).isInstanceOf(ZosmfException.class).hasMessage("Unexpected HTTP status code: 404");
+        Mockito.verify(content).close();
+    }
+
+    @Test
+    public void testConvertedResponseIsClosedOnAnUnexpectedStatus() throws Exception {
+        // Given...
+        CloseableHttpResponse httpResponse = newHttpResponse(HttpStatus.SC_NOT_FOUND, new ByteArrayInputStream("not found".getBytes()));
+        ZosmfImpl zosmf = newZosmf(newHttpClient(httpResponse));
+
+        // When...
+        Throwable thrown = catchThrowable(() -> zosmf.get("/zosmf/restfiles/fs/u/user/file", null, true));
+
+        // Then...
+        assertThat(thrown).isInstanceOf(ZosmfException.class).hasMessage("Unexpected HTTP status code: 404");
+        Mockito.verify(httpResponse).close();
+    }
+
+    @Test
+    public void testStreamedContentIsLeftOpenOnAValidStatus() throws Exception {
+        // Given...
+        InputStream content = Mockito.spy(new ByteArrayInputStream("content".getBytes()));
+        CloseableHttpResponse httpResponse = newHttpResponse(HttpStatus.SC_OK, content);
+        ZosmfImpl zosmf = newZosmf(newHttpClient(httpResponse));
+
+        // When...
+        IZosmfResponse response = zosmf.get("/zosmf/restfiles/fs/u/user/file", null, false);
+
+        // Then...
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SC_OK);
+        Mockito.verify(content, Mockito.never()).close();
+        Mockito.verify(httpResponse, Mockito.never()).close();
+    }
+
+    @Test
+    public void testServerErrorIsCountedAsAFailure() throws Exception {
+        // Given...
+        ZosmfImpl zosmf = newZosmf(newHttpClient(newHttpResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, new ByteArrayInputStream(new byte[0]))));
+
+        // When...
+        catchThrowable(() -> zosmf.get("/zosmf/info", null, true));
+        catchThrowable(() -> zosmf.get("/zosmf/info", Arrays.asList(HttpStatus.SC_INTERNAL_SERVER_ERROR), true));
+
+        // Then...
+        assertThat(zosmf.getStatistics().getRequests()).isEqualTo(2);
+        assertThat(zosmf.getStatistics().getFailures()).isEqualTo(2);
+        assertThat(zosmf.getStatistics().getCost()).isGreaterThanOrEqualTo(4.0);
+    }
 }
@@ -5,10 +5,14 @@
  */
 package dev.galasa.zosmf.internal;
 
+import static org.assertj.core.api.Assertions.*;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.http.HttpStatus;
 import org.junit.Assert;
@@ -23,6 +27,7 @@ import org.mockito.Mockito;
 
 import dev.galasa.zos.IZosImage;
 import dev.galasa.zosmf.IZosmf;
+import dev.galasa.zosmf.IZosmf.ZosmfCustomHeaders;
 import dev.galasa.zosmf.IZosmf.ZosmfRequestType;
 import dev.galasa.zosmf.IZosmfResponse;
 import dev.galasa.zosmf.ZosmfException;
@@ -149,4 +154,172 @@ public class TestZosmfRestApiProcessor {
 //        zosmfRestApiProcessorSpy.getNextZosmf();
 //        Assert.assertEquals("getNextZosmf() should set the expected value", zosmfMock1, Whitebox.getInternalState(zosmfRestApiProcessorSpy, "currentZosmf"));
 //    }
+
+    private static final String PATH = "request-path";
+
+    private final List<String> calls = new ArrayList<>();
+
+    private ZosmfImpl newServer(String serverId, int requestRetry, long latencyMillis) {
+        ZosmfServerStatistics statistics = new ZosmfServerStatistics(serverId);
+        if (latencyMillis >= 0) {
+            statistics.requestStarted();
+            statistics.requestEnded(latencyMillis * 1_000_000L, -1, false);
+        }
+        ZosmfImpl server = Mockito.mock(ZosmfImpl.class);
+        Mockito.when(server.getStatistics()).thenReturn(statistics);
+        Mockito.when(server.getRequestRetry()).thenReturn(requestRetry);
+        Mockito.when(server.toString()).thenReturn(serverId);
+        return server;
+    }
+
+    private void respondWith(ZosmfImpl server, int statusCode) throws ZosmfException {
+        IZosmfResponse response = Mockito.mock(IZosmfResponse.class);
+        Mockito.when(response.getStatusCode()).thenReturn(statusCode);
+        Mockito.when(server.sendRequest(Mockito.any(), Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenAnswer(invocation -> {
+            calls.add(server.toString());
+            return response;
+        });
+    }
+
+    private void failWith(ZosmfImpl server) throws ZosmfException {
+        Mockito.when(server.sendRequest(Mockito.any(), Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenAnswer(invocation -> {
+            calls.add(server.toString());
+            server.getStatistics().requestStarted();
+            server.getStatistics().requestEnded(0, -1, true);
+            throw new ZosmfException("Unexpected HTTP status code: 500");
+        });
+    }
+
+    private ZosmfRestApiProcessor newProcessor(ZosmfImpl... servers) {
+        Map<String, IZosmf> zosmfs = new LinkedHashMap<>();
+        for (ZosmfImpl server : servers) {
+            zosmfs.put(server.toString(), server);
+        }
+        return new ZosmfRestApiProcessor(zosmfs);
+    }
+
+    @Test
+    public void testRequestIsSentToTheCheapestServer() throws ZosmfException {
+        // Given...
+        ZosmfImpl slow = newServer("SLOW", 0, 50);
+        ZosmfImpl fast = newServer("FAST", 0, 10);
+        ZosmfImpl medium = newServer("MEDIUM", 0, 30);
+        respondWith(slow, HttpStatus.SC_OK);
+        respondWith(fast, HttpStatus.SC_OK);
+        respondWith(medium, HttpStatus.SC_OK);
+        ZosmfRestApiProcessor processor = newProcessor(slow, fast, medium);
+
+        // When...
+        IZosmfResponse response = processor.sendRequest(ZosmfRequestType.GET, PATH, null, null, null, false);
+
+        // Then...
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(calls).containsExactly("FAST");
+    }
+
+    @Test
+    public void testServersThatCostTheSameAreChosenInOrder() {
+        // Given...
+        ZosmfImpl first = newServer("FIRST", 0, -1);
+        ZosmfImpl second = newServer("SECOND", 0, -1);
+        ZosmfImpl third = newServer("THIRD", 0, -1);
+        ZosmfRestApiProcessor processor = newProcessor(first, second, third);
+
+        // When...
+        ZosmfImpl untried = processor.getZosmfServer(new ArrayList<>());
+        ZosmfImpl afterFirst = processor.getZosmfServer(new ArrayList<>(Arrays.asList(first)));
+        ZosmfImpl afterAll = processor.getZosmfServer(new ArrayList<>(Arrays.asList(first, second, third)));
+
+        // Then...
+        assertThat(untried).isSameAs(first);
+        assertThat(afterFirst).isSameAs(second);
+        assertThat(afterAll).isSameAs(first);
+    }
+
+    @Test
+    public void testHeadersAreSentWithTheCsrfHeader() throws ZosmfException {
+        // Given...
+        ZosmfImpl server = newServer("SERVER1", 0, -1);
+        respondWith(server, HttpStatus.SC_OK);
+        ZosmfRestApiProcessor processor = newProcessor(server);
+        Map<String, String> headers = new HashMap<>();
+        headers.put("key", "value");
+
+        // When...
+        processor.sendRequest(ZosmfRequestType.PUT_TEXT, PATH, headers, "body", null, true);
+
+        // Then...
+        Map<String, String> expected = new HashMap<>();
+        expected.put("key", "value");
+        expected.put(ZosmfCustomHeaders.X_CSRF_ZOSMF_HEADER.toString(), "");
+        Mockito.verify(server).sendRequest(ZosmfRequestType.PUT_TEXT, PATH, expected, "body", Arrays.asList(HttpStatus.SC_OK), true);
+        assertThat(headers).containsOnlyKeys("key");
+    }
+
+    @Test
+    public void testFailedRequestIsRetriedOnAnotherServer() throws ZosmfException {
+        // Given...
+        ZosmfImpl failing = newServer("FAILING", 1, 10);
+        ZosmfImpl working = newServer("WORKING", 1, 20);
+        failWith(failing);
+        respondWith(working, HttpStatus.SC_OK);
+        ZosmfRestApiProcessor processor = newProcessor(failing, working);
+
+        // When...
+        IZosmfResponse response = processor.sendRequest(ZosmfRequestType.GET, PATH, null, null, null, false);
+
+        // Then...
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(calls).containsExactly("FAILING", "WORKING");
+    }
+
+    @Test
+    public void testResponseWithAnUnexpectedStatusIsRetriedOnAnotherServer() throws ZosmfException {
+        // Given...
+        ZosmfImpl notFound = newServer("NOTFOUND", 1, -1);
+        ZosmfImpl found = newServer("FOUND", 1, -1);
+        respondWith(notFound, HttpStatus.SC_NOT_FOUND);
+        respondWith(found, HttpStatus.SC_CREATED);
+        ZosmfRestApiProcessor processor = newProcessor(notFound, found);
+
+        // When...
+        IZosmfResponse response = processor.sendRequest(ZosmfRequestType.DELETE, PATH, null, null, Arrays.asList(HttpStatus.SC_CREATED), true);
+
+        // Then...
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SC_CREATED);
+        assertThat(calls).containsExactly("NOTFOUND", "FOUND");
+    }
+
+    @Test
+    public void testEveryServerIsTriedBeforeOneIsRetried() throws ZosmfException {
+        // Given...
+        ZosmfImpl first = newServer("FIRST", 3, -1);
+        ZosmfImpl second = newServer("SECOND", 3, -1);
+        failWith(first);
+        failWith(second);
+        ZosmfRestApiProcessor processor = newProcessor(first, second);
+
+        // When...
+        Throwable thrown = catchThrowable(() -> processor.sendRequest(ZosmfRequestType.GET, PATH, null, null, null, false));
+
+        // Then...
+        assertThat(thrown).isInstanceOf(ZosmfException.class).hasMessage("Unable to get valid response from zOS/MF server");
+        assertThat(calls).containsExactly("FIRST", "SECOND", "FIRST", "SECOND");
+    }
+
+    @Test
+    public void testRetriesAreLimitedByTheRequestRetry() throws ZosmfException {
+        // Given...
+        ZosmfImpl server = newServer("SERVER1", 2, -1);
+        failWith(server);
+        ZosmfRestApiProcessor processor = newProcessor(server);
+
+        // When...
+        Throwable thrown = catchThrowable(() -> processor.sendRequest(ZosmfRequestType.GET, PATH, null, null, null, false));
+
+        // Then...
+        assertThat(thrown).isInstanceOf(ZosmfException.class);
+        assertThat(calls).containsExactly("SERVER1", "SERVER1", "SERVER1");
+        assertThat(server.getStatistics().getFailures()).isEqualTo(3);
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zosmf.internal;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.Test;
+
+public class TestZosmfServerStatistics {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    public void testUnusedServerCostsLeast() {
+        // Given...
+        ZosmfServerStatistics statistics = new ZosmfServerStatistics("SERVER1");
+
+        // When...
+        double cost = statistics.getCost();
+
+        // Then...
+        assertThat(cost).isEqualTo(1.0);
+        assertThat(statistics.getRequests()).isZero();
+        assertThat(statistics.getFailures()).isZero();
+    }
+
+    @Test
+    public void testFirstRequestSetsTheLatency() {
+        // Given...
+        ZosmfServerStatistics statistics = new ZosmfServerStatistics("SERVER1");
+
+        // When...
+        statistics.requestStarted();
+        statistics.requestEnded(100 * MILLIS, 10, false);
+
+        // Then...
+        assertThat(statistics.getCost()).isEqualTo(101.0);
+        assertThat(statistics.getRequests()).isEqualTo(1);
+    }
+
+    @Test
+    public void testLatencyDecaysTowardsRecentRequests() {
+        // Given...
+        ZosmfServerStatistics statistics = new ZosmfServerStatistics("SERVER1");
+        statistics.requestStarted();
+        statistics.requestEnded(100 * MILLIS, -1, false);
+
+        // When...
+        statistics.requestStarted();
+        statistics.requestEnded(0, -1, false);
+        double afterOne = statistics.getCost();
+        for (int i = 0; i < 9; i++) {
+            statistics.requestStarted();
+            statistics.requestEnded(0, -1, false);
+        }
+        double afterTen = statistics.getCost();
+
+        // Then...
+        assertThat(afterOne).isCloseTo(100 * 0.8 + 1, within(0.001));
+        assertThat(afterTen).isCloseTo(100 * Math.pow(0.8, 10) + 1, within(0.001));
+    }
+
+    @Test
+    public void testRequestsInFlightIncreaseTheCost() {
+        // Given...
+        ZosmfServerStatistics statistics = new ZosmfServerStatistics("SERVER1");
+        statistics.requestStarted();
+        statistics.requestEnded(9 * MILLIS, -1, false);
+
+        // When...
+        statistics.requestStarted();
+        statistics.requestStarted();
+
+        // Then...
+        assertThat(statistics.getCost()).isEqualTo(30.0);
+    }
+
+    @Test
+    public void testEachFailureInARowDoublesTheCostUntilASuccess() {
+        // Given...
+        ZosmfServerStatistics statistics = new ZosmfServerStatistics("SERVER1");
+
+        // When...
+        for (int i = 0; i < 3; i++) {
+            statistics.requestStarted();
+            statistics.requestEnded(0, -1, true);
+        }
+        double afterFailures = statistics.getCost();
+        statistics.requestStarted();
+        statistics.requestEnded(0, -1, false);
+
+        // Then...
+        assertThat(afterFailures).isEqualTo(8.0);
+        assertThat(statistics.getCost()).isEqualTo(1.0);
+        assertThat(statistics.getRequests()).isEqualTo(4);
+        assertThat(statistics.getFailures()).isEqualTo(3);
+    }
+
+    @Test
+    public void testFailurePenaltyIsCapped() {
+        // Given...
+        ZosmfServerStatistics statistics = new ZosmfServerStatistics("SERVER1");
+
+        // When...
+        for (int i = 0; i < 20; i++) {
+            statistics.requestStarted();
+            statistics.requestEnded(0, -1, true);
+        }
+
+        // Then...
+        assertThat(statistics.getCost()).isEqualTo(1024.0);
+    }
+}
@@ -6,6 +6,7 @@
 package dev.galasa.zosrseapi;
 
 import java.util.List;
+import java.util.Map;
 
 import javax.validation.constraints.NotNull;
 
@@ -79,6 +80,22 @@ public interface IRseapi {
      */
     void clearHeaders();
 
+    /**
+     * Issue an HTTP request to the RSE API server with headers for this request only, in place of any set 
+     * with {@link #setHeader(String, String)}. May be called concurrently
+     * 
+     * @param requestType the type of request
+     * @param path identifies the RSE API REST API
+     * @param headers the HTTP headers for the request, may be null
+     * @param body the request body, of the type for the request type, or null
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus#SC_OK} when null
+     * @param convert is a data conversion required. If true, the content is returned as JSON. If false, the content 
+     * is returned as an {@link java.io.InputStream} which must be read to the end or closed
+     * @return the RSE API server response
+     * @throws RseapiException
+     */
+    public @NotNull IRseapiResponse sendRequest(RseapiRequestType requestType, String path, Map<String, String> headers, Object body, List<Integer> validStatusCodes, boolean convert) throws RseapiException;
+
     /**
      * Issue an HTTP PUT request to the RSE API server with no request body
      * 
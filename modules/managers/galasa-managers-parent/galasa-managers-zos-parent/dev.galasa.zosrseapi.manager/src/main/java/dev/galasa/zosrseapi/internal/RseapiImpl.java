@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 
 import javax.validation.constraints.NotNull;
@@ -61,6 +62,9 @@ public class RseapiImpl implements IRseapi {
 
 	private static final String PATH_SERVERDETAILS = "/rseapi/api/v1/info/serverdetails";
 
+    // The number of connections the HTTP client keeps by default
+    private static final int MIN_CONNECTIONS = 2;
+
     public RseapiImpl(RseapiManagerImpl rseapiManager, String serverId) throws RseapiException {
     	this.rseapiManager = rseapiManager;
         this.serverId = serverId;
@@ -90,6 +94,34 @@ public class RseapiImpl implements IRseapi {
         this.httpClient.clearCommonHeaders();
     }
 
+    @Override
+    public synchronized @NotNull IRseapiResponse sendRequest(RseapiRequestType requestType, String path, Map<String, String> headers, Object body, List<Integer> validStatusCodes, boolean convert) throws RseapiException {
+        // *** The HTTP client holds the headers, so one request at a time is sent. The content of a response that 
+        // *** is not converted is read after this returns, so can be read while other requests are sent
+        clearHeaders();
+        if (headers != null) {
+            for (Entry<String, String> entry : headers.entrySet()) {
+                setHeader(entry.getKey(), entry.getValue());
+            }
+        }
+        switch (requestType) {
+            case GET:
+                return get(path, validStatusCodes, convert);
+            case PUT_JSON:
+                return putJson(path, (JsonObject) body, validStatusCodes);
+            case PUT_TEXT:
+                return putText(path, (String) body, validStatusCodes);
+            case PUT_BINARY:
+                return putBinary(path, (byte[]) body, validStatusCodes);
+            case POST_JSON:
+                return postJson(path, (JsonObject) body, validStatusCodes);
+            case DELETE:
+                return delete(path, validStatusCodes);
+            default:
+                throw new RseapiException("Invalid request type");
+        }
+    }
+
     @Override
     public @NotNull IRseapiResponse get(String path, List<Integer> validStatusCodes, boolean convert) throws RseapiException {
         String method = RseapiRequestType.GET.name();
@@ -329,6 +361,10 @@ public class RseapiImpl implements IRseapi {
                 this.httpClient.setAuthorisation(((ICredentialsUsernamePassword) creds).getUsername(), ((ICredentialsUsernamePassword) creds).getPassword());
             }
             this.httpClient.setTrustingSSLContext();
+            // *** A spool file being retrieved holds its connection while the content is read, so keep a connection
+            // *** for each retrieval thread. Otherwise a request waits for a connection while holding this server
+            int connections = this.rseapiManager.getZosManager().getZosBatchPropertySpoolRetrievalThreads(image.getImageID());
+            this.httpClient.setMaxConnectionsPerRoute(Math.max(connections, MIN_CONNECTIONS));
             this.httpClient.build();
         } catch (HttpClientException | ZosManagerException | URISyntaxException e) {
             throw new RseapiException("Unable to create HTTP Client", e);
@@ -20,8 +20,6 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
 
-import com.google.gson.JsonObject;
-
 import dev.galasa.zosbatch.ZosBatchException;
 import dev.galasa.zosrseapi.IRseapi;
 import dev.galasa.zosrseapi.IRseapiResponse;
@@ -64,38 +62,17 @@ public class RseapiRestApiProcessor implements IRseapiRestApiProcessor {
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
+        Map<String, String> requestHeaders = new HashMap<>();
+        if (headers != null) {
+            requestHeaders.putAll(headers);
+        }
+        requestHeaders.put("accept", "*/*");
+
         IRseapiResponse response = null;
         for (int i = 0; i <= ((RseapiImpl) currentRseapi).getRequestRetry(); i++) {
             try {
                 IRseapi rseapiServer = getCurrentRseapiServer();
-                if (headers != null) {
-                    for (Entry<String, String> entry : headers.entrySet()) {
-                        rseapiServer.setHeader(entry.getKey(), entry.getValue());
-                    }
-                }
-            	rseapiServer.setHeader("accept", "*/*");
-                switch (requestType) {
-	                case GET:
-	                    response = rseapiServer.get(path, validStatusCodes, convert);
-	                    break;
-	                case PUT_JSON:
-	                    response = rseapiServer.putJson(path, (JsonObject) body, validStatusCodes);
-	                    break;
-	                case PUT_TEXT:
-	                    response = rseapiServer.putText(path, (String) body, validStatusCodes);
-	                    break;
-	                case PUT_BINARY:
-	                    response = rseapiServer.putBinary(path, (byte[]) body, validStatusCodes);
-	                    break;
-	                case POST_JSON:
-	                    response = rseapiServer.postJson(path, (JsonObject) body, validStatusCodes);
-	                    break;
-	                case DELETE:
-	                    response = rseapiServer.delete(path, validStatusCodes);
-	                    break; 
-	                default:
-	                    throw new RseapiException("Invalid request type");
-                }
+                response = rseapiServer.sendRequest(requestType, path, requestHeaders, body, validStatusCodes, convert);
     
                 if (validStatusCodes.contains(response.getStatusCode())) {
                     return response;
@@ -111,13 +88,12 @@ public class RseapiRestApiProcessor implements IRseapiRestApiProcessor {
         throw new RseapiException("Unable to get valid response from RSE API server");
     }
     
-    protected IRseapi getCurrentRseapiServer() {
+    protected synchronized IRseapi getCurrentRseapiServer() {
         logger.debug("Using RSE API server on " + this.currentRseapi);
-        this.currentRseapi.clearHeaders();
         return this.currentRseapi;
     }
 
-    protected void getNextRseapi() {
+    protected synchronized void getNextRseapi() {
         if (this.rseapis.size() == 1) {
             logger.debug("Only one RSE API server available");
             return;